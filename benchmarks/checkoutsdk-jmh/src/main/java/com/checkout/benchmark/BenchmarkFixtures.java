@@ -0,0 +1,92 @@
+package com.checkout.benchmark;
+
+import com.checkout.common.CountryCode;
+import com.checkout.common.Currency;
+import com.checkout.common.CustomerRequest;
+import com.checkout.common.Phone;
+import com.checkout.handlepaymentsandpayouts.flow.paymentsessions.requests.Address;
+import com.checkout.handlepaymentsandpayouts.flow.paymentsessions.requests.Billing;
+import com.checkout.handlepaymentsandpayouts.flow.paymentsessions.requests.PaymentSessionRequest;
+import com.checkout.payments.ThreeDSRequest;
+import com.checkout.payments.request.PaymentRequest;
+import com.checkout.payments.request.source.RequestTokenSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Payloads shaped like the ones sent and received by the connector during a card checkout
+ */
+final class BenchmarkFixtures {
+
+    static final String PAYMENT_RESPONSE = "fixtures/payment-response.json";
+    static final String GET_PAYMENT_RESPONSE = "fixtures/get-payment-response.json";
+    static final String WEBHOOK_PAYMENT_CAPTURED = "fixtures/webhook-payment-captured.json";
+
+    private BenchmarkFixtures() {
+    }
+
+    static String load(final String resource) {
+        try (final InputStream inputStream = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Missing fixture " + resource);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static PaymentRequest paymentRequest() {
+        final com.checkout.common.Address billingAddress = com.checkout.common.Address.builder()
+                .addressLine1("Checkout.com")
+                .addressLine2("90 Tottenham Court Road")
+                .city("London")
+                .state("London")
+                .zip("W1T 4TJ")
+                .country(CountryCode.GB)
+                .build();
+        return PaymentRequest.builder()
+                .source(RequestTokenSource.builder()
+                        .token("tok_ubfj2q76miwundwlk72vxt2i7q")
+                        .billingAddress(billingAddress)
+                        .phone(Phone.builder().countryCode("+44").number("4155552671").build())
+                        .build())
+                .amount(6540L)
+                .currency(Currency.GBP)
+                .reference("ORD-5023-4E89")
+                .description("Set of 3 masks")
+                .capture(false)
+                .customer(new CustomerRequest("sarah.mitchell@checkout.com", "Sarah Mitchell", null))
+                .threeDS(ThreeDSRequest.builder().enabled(true).attemptN3D(false).build())
+                .processingChannelId("pc_q4dbxom5jbgudnjzjpz7j2z6uq")
+                .successUrl("https://electronics.local:9002/checkout/multi/checkout-com/payment/success")
+                .failureUrl("https://electronics.local:9002/checkout/multi/checkout-com/payment/failure")
+                .paymentIp("90.197.169.245")
+                .metadata(Map.of("site", "electronics", "cart_id", "00001234"))
+                .build();
+    }
+
+    static PaymentSessionRequest paymentSessionRequest() {
+        final Address address = Address.builder()
+                .addressLine1("Checkout.com")
+                .addressLine2("90 Tottenham Court Road")
+                .city("London")
+                .state("London")
+                .zip("W1T 4TJ")
+                .country(CountryCode.GB)
+                .build();
+        return PaymentSessionRequest.builder()
+                .amount(6540L)
+                .currency(Currency.GBP)
+                .processingChannelId("pc_q4dbxom5jbgudnjzjpz7j2z6uq")
+                .billing(Billing.builder().address(address).build())
+                .successUrl("https://electronics.local:9002/checkout/multi/checkout-com/payment/success")
+                .failureUrl("https://electronics.local:9002/checkout/multi/checkout-com/payment/failure")
+                .reference("ORD-5023-4E89")
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.checkout.benchmark;
+
+import com.checkout.GsonSerializer;
+import com.checkout.Serializer;
+import com.checkout.handlepaymentsandpayouts.flow.paymentsessions.requests.PaymentSessionRequest;
+import com.checkout.payments.request.PaymentRequest;
+import com.checkout.payments.response.GetPaymentResponse;
+import com.checkout.payments.response.PaymentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link GsonSerializer} paths hit on every payment call and webhook
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GsonSerializerBenchmark {
+
+    private Serializer serializer;
+    private PaymentRequest paymentRequest;
+    private PaymentSessionRequest paymentSessionRequest;
+    private String paymentResponseJson;
+    private String getPaymentResponseJson;
+    private String webhookJson;
+
+    @Setup
+    public void setUp() {
+        serializer = new GsonSerializer();
+        paymentRequest = BenchmarkFixtures.paymentRequest();
+        paymentSessionRequest = BenchmarkFixtures.paymentSessionRequest();
+        paymentResponseJson = BenchmarkFixtures.load(BenchmarkFixtures.PAYMENT_RESPONSE);
+        getPaymentResponseJson = BenchmarkFixtures.load(BenchmarkFixtures.GET_PAYMENT_RESPONSE);
+        webhookJson = BenchmarkFixtures.load(BenchmarkFixtures.WEBHOOK_PAYMENT_CAPTURED);
+    }
+
+    @Benchmark
+    public String serializePaymentRequest() {
+        return serializer.toJson(paymentRequest);
+    }
+
+    @Benchmark
+    public StringWriter serializePaymentRequestToWriter() {
+        final StringWriter writer = new StringWriter(1024);
+        serializer.toJson(paymentRequest, writer);
+        return writer;
+    }
+
+    @Benchmark
+    public String serializePaymentSessionRequest() {
+        return serializer.toJson(paymentSessionRequest);
+    }
+
+    @Benchmark
+    public PaymentResponse deserializePaymentResponse() {
+        return serializer.fromJson(paymentResponseJson, PaymentResponse.class);
+    }
+
+    @Benchmark
+    public GetPaymentResponse deserializeGetPaymentResponse() {
+        return serializer.fromJson(getPaymentResponseJson, GetPaymentResponse.class);
+    }
+
+    @Benchmark
+    public GetPaymentResponse deserializeGetPaymentResponseFromReader() {
+        return serializer.fromJson(new StringReader(getPaymentResponseJson), GetPaymentResponse.class);
+    }
+
+    @Benchmark
+    public Map<String, Object> deserializeWebhook() {
+        return serializer.fromJson(webhookJson);
+    }
+}
@@ -0,0 +1,132 @@
+package com.checkout.benchmark;
+
+import com.checkout.GsonSerializer;
+import com.checkout.Serializer;
+import com.checkout.payments.response.GetPaymentResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single pass instant parsing of {@link GsonSerializer} with the formatter chain it replaced, on a
+ * {@code GetPaymentResponse} and on the individual timestamp shapes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class InstantDeserializationBenchmark {
+
+    private static final List<DateTimeFormatter> FORMATTERS = Arrays.asList(
+            DateTimeFormatter.ISO_INSTANT,
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSXXX"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssX"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXX"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX")
+    );
+
+    @Param({"2026-10-18T09:15:03.5843914Z", "2026-10-18T09:15:03+01:00", "2026-11-17T09:15:04", "20261018", "2026-10-18"})
+    private String timestamp;
+
+    private Serializer serializer;
+    private Serializer legacySerializer;
+    private String timestampJson;
+    private String getPaymentResponseJson;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        serializer = new GsonSerializer();
+        legacySerializer = new GsonSerializer(defaultGson(serializer).newBuilder()
+                .registerTypeAdapter(Instant.class, legacyInstantDeserializer())
+                .create());
+        timestampJson = '"' + timestamp + '"';
+        getPaymentResponseJson = BenchmarkFixtures.load(BenchmarkFixtures.GET_PAYMENT_RESPONSE);
+    }
+
+    @Benchmark
+    public Instant instant() {
+        return serializer.fromJson(timestampJson, Instant.class);
+    }
+
+    @Benchmark
+    public Instant instantLegacy() {
+        return legacySerializer.fromJson(timestampJson, Instant.class);
+    }
+
+    @Benchmark
+    public GetPaymentResponse getPaymentResponse() {
+        return serializer.fromJson(getPaymentResponseJson, GetPaymentResponse.class);
+    }
+
+    @Benchmark
+    public GetPaymentResponse getPaymentResponseLegacy() {
+        return legacySerializer.fromJson(getPaymentResponseJson, GetPaymentResponse.class);
+    }
+
+    private static Gson defaultGson(final Serializer serializer) throws ReflectiveOperationException {
+        final Field gson = GsonSerializer.class.getDeclaredField("gson");
+        gson.setAccessible(true);
+        return (Gson) gson.get(serializer);
+    }
+
+    /**
+     * The instant deserializer of {@link GsonSerializer} before the single pass parser
+     */
+    private static JsonDeserializer<Instant> legacyInstantDeserializer() {
+        return (json, typeOfT, context) -> {
+            final String dateString = json.getAsJsonPrimitive().isNumber() ? String.valueOf(json.getAsLong()) : json.getAsString();
+            try {
+                return Instant.parse(dateString);
+            } catch (final DateTimeParseException ex) {
+                if (dateString.matches("\\d{8}")) {
+                    try {
+                        return LocalDate.parse(dateString, DateTimeFormatter.ofPattern("yyyyMMdd")).atStartOfDay().toInstant(ZoneOffset.UTC);
+                    } catch (final DateTimeParseException e) {
+                        throw new JsonParseException("Failed to parse numeric date in format yyyyMMdd: " + dateString, e);
+                    }
+                }
+                if (dateString.length() == 10) {
+                    try {
+                        return LocalDate.parse(dateString, DateTimeFormatter.ofPattern("yyyy-MM-dd")).atStartOfDay().toInstant(ZoneOffset.UTC);
+                    } catch (final DateTimeParseException e) {
+                        throw new JsonParseException("Failed to parse date in format yyyy-MM-dd: " + dateString, e);
+                    }
+                }
+                for (final DateTimeFormatter formatter : FORMATTERS) {
+                    try {
+                        return LocalDateTime.parse(dateString, formatter).toInstant(ZoneOffset.UTC);
+                    } catch (final DateTimeParseException ignored) {
+                    }
+                }
+                throw ex;
+            }
+        };
+    }
+}
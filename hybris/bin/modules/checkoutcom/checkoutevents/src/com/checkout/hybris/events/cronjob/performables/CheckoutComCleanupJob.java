@@ -20,7 +20,18 @@ public class CheckoutComCleanupJob extends AbstractJobPerformable<CheckoutComCle
 
     @Override
     public PerformResult perform(final CheckoutComCleanupCronJobModel checkoutComCleanUpCronJobModel) {
-        checkoutComCleanupService.doCleanUp(checkoutComCleanUpCronJobModel);
+        if (!checkoutComCleanupService.doCleanUp(checkoutComCleanUpCronJobModel)) {
+            clearAbortRequestedIfNeeded(checkoutComCleanUpCronJobModel);
+            return new PerformResult(CronJobResult.UNKNOWN, CronJobStatus.ABORTED);
+        }
         return new PerformResult(CronJobResult.SUCCESS, CronJobStatus.FINISHED);
     }
+
+    /**
+     * The cleanup can be aborted between two pages, the next run resumes after the last deleted page
+     */
+    @Override
+    public boolean isAbortable() {
+        return true;
+    }
 }
@@ -23,7 +23,18 @@ public class CheckoutComPaymentEventCleanupJob extends AbstractJobPerformable<Ch
      */
     @Override
     public PerformResult perform(final CheckoutComPaymentEventCleanupCronJobModel checkoutComPaymentEventCleanUpCronJobModel) {
-        checkoutComPaymentEventCleanupService.doCleanUp(checkoutComPaymentEventCleanUpCronJobModel.getPaymentEventStatus(), checkoutComPaymentEventCleanUpCronJobModel.getAgeInDaysBeforeDeletion());
+        if (!checkoutComPaymentEventCleanupService.doCleanUp(checkoutComPaymentEventCleanUpCronJobModel)) {
+            clearAbortRequestedIfNeeded(checkoutComPaymentEventCleanUpCronJobModel);
+            return new PerformResult(CronJobResult.UNKNOWN, CronJobStatus.ABORTED);
+        }
         return new PerformResult(CronJobResult.SUCCESS, CronJobStatus.FINISHED);
     }
-}
\ No newline at end of file
+
+    /**
+     * The cleanup can be aborted between two pages, the next run resumes after the last deleted page
+     */
+    @Override
+    public boolean isAbortable() {
+        return true;
+    }
+}
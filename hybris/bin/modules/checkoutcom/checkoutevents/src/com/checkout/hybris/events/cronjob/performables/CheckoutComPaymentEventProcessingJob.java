@@ -1,10 +1,9 @@
 package com.checkout.hybris.events.cronjob.performables;
 
-import com.checkout.hybris.events.daos.CheckoutComPaymentEventDao;
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventProcessingStats;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
-import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventProcessingCronJobModel;
-import com.checkout.hybris.events.services.CheckoutComPaymentEventProcessingService;
+import com.checkout.hybris.events.services.CheckoutComPartitionedPaymentEventProcessingService;
 import de.hybris.platform.cronjob.enums.CronJobResult;
 import de.hybris.platform.cronjob.enums.CronJobStatus;
 import de.hybris.platform.servicelayer.cronjob.AbstractJobPerformable;
@@ -13,7 +12,6 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.List;
 import java.util.Set;
 
 /**
@@ -23,13 +21,10 @@ public class CheckoutComPaymentEventProcessingJob extends AbstractJobPerformable
 
     protected static final Logger LOG = LogManager.getLogger(CheckoutComPaymentEventProcessingJob.class);
 
-    protected final CheckoutComPaymentEventDao checkoutComPaymentEventDao;
-    protected final CheckoutComPaymentEventProcessingService checkoutComPaymentEventProcessingService;
+    protected final CheckoutComPartitionedPaymentEventProcessingService checkoutComPartitionedPaymentEventProcessingService;
 
-    public CheckoutComPaymentEventProcessingJob(final CheckoutComPaymentEventDao checkoutComPaymentEventDao,
-                                                final CheckoutComPaymentEventProcessingService checkoutComPaymentEventProcessingService) {
-        this.checkoutComPaymentEventDao = checkoutComPaymentEventDao;
-        this.checkoutComPaymentEventProcessingService = checkoutComPaymentEventProcessingService;
+    public CheckoutComPaymentEventProcessingJob(final CheckoutComPartitionedPaymentEventProcessingService checkoutComPartitionedPaymentEventProcessingService) {
+        this.checkoutComPartitionedPaymentEventProcessingService = checkoutComPartitionedPaymentEventProcessingService;
     }
 
     /**
@@ -43,10 +38,11 @@ public class CheckoutComPaymentEventProcessingJob extends AbstractJobPerformable
             return new PerformResult(CronJobResult.ERROR, CronJobStatus.ABORTED);
         }
 
-        final List<CheckoutComPaymentEventModel> paymentEvents = checkoutComPaymentEventDao.findPaymentEventToProcessForTypes(checkoutComPaymentEventTypes);
-        LOG.info("Found [{}] [{}] payment event to process", paymentEvents.size(), paymentEventProcessingCronJob.getPaymentTransactionType().toString());
-
-        checkoutComPaymentEventProcessingService.processPaymentEvents(paymentEvents, paymentEventProcessingCronJob.getPaymentTransactionType());
+        final CheckoutComPaymentEventProcessingStats stats = checkoutComPartitionedPaymentEventProcessingService.processPendingEvents(checkoutComPaymentEventTypes,
+                paymentEventProcessingCronJob.getPaymentTransactionType());
+        LOG.info("Processed [{}] [{}] payment events of [{}] payments in [{}] pages: [{}] ms, [{}] events per second, max lag [{}] ms, [{}] failed partitions.",
+                stats.getEventCount(), paymentEventProcessingCronJob.getPaymentTransactionType().toString(), stats.getPartitionCount(), stats.getPageCount(),
+                stats.getDurationMillis(), (long) stats.getEventsPerSecond(), stats.getMaxLagMillis(), stats.getFailedPartitionCount());
 
         return new PerformResult(CronJobResult.SUCCESS, CronJobStatus.FINISHED);
     }
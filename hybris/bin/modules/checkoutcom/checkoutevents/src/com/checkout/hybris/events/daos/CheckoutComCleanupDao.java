@@ -1,6 +1,8 @@
 package com.checkout.hybris.events.daos;
 
 import com.checkout.hybris.core.model.CheckoutComCleanupCronJobModel;
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
+import de.hybris.platform.core.PK;
 import de.hybris.platform.core.model.ItemModel;
 
 import java.util.List;
@@ -17,6 +19,17 @@ public interface CheckoutComCleanupDao {
      *
      * @param cronJob Cleanup cronjob. The field {@code monthsOld} states how old an item must be to be removed from the DB
      * @return Items to be removed
+     * @deprecated loads every item at once, use {@link #findPksToCleanup(CheckoutComItemRemovalRequest, PK)} to page through them
      */
+    @Deprecated
     List<ItemModel> findItemsToCleanup(CheckoutComCleanupCronJobModel cronJob);
+
+    /**
+     * Returns the next page of pks of the items to remove, ordered by pk, without loading the items
+     *
+     * @param request the type, age, attribute values and page size of the items to remove
+     * @param lastPk  the last pk of the previous page, or null for the first page
+     * @return the pks of the page, empty when there are no more items to remove
+     */
+    List<PK> findPksToCleanup(CheckoutComItemRemovalRequest request, PK lastPk);
 }
@@ -4,6 +4,7 @@ import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -21,6 +22,37 @@ public interface CheckoutComPaymentEventDao {
      */
     List<CheckoutComPaymentEventModel> findPaymentEventToProcessForTypes(Set<CheckoutComPaymentEventType> checkoutComPaymentEventTypes);
 
+    /**
+     * Finds the next page of payment ids with events to process for the given event types, ordered by payment id. The
+     * page starts right after the given payment id, so payments whose events change status while paging are neither
+     * skipped nor read twice. The events without a payment id are not paged, see
+     * {@link #findPaymentEventsToProcessWithoutPaymentIdForTypes(Set)}.
+     *
+     * @param checkoutComPaymentEventTypes all event types to search
+     * @param lastPaymentId                the last payment id of the previous page, null for the first page
+     * @param pageSize                     the maximum number of payment ids to return
+     * @return a list of payment ids
+     */
+    List<String> findPaymentIdsToProcessForTypes(Set<CheckoutComPaymentEventType> checkoutComPaymentEventTypes, String lastPaymentId, int pageSize);
+
+    /**
+     * Finds all the events to process for the given event types and payment ids, ordered by creation time
+     *
+     * @param checkoutComPaymentEventTypes all event types to search
+     * @param paymentIds                   the payment ids of the events
+     * @return a list of CheckoutComPaymentEventModel
+     */
+    List<CheckoutComPaymentEventModel> findPaymentEventsToProcessForPaymentIds(Set<CheckoutComPaymentEventType> checkoutComPaymentEventTypes,
+                                                                               Collection<String> paymentIds);
+
+    /**
+     * Finds all the events to process for the given event types that have no payment id, ordered by creation time
+     *
+     * @param checkoutComPaymentEventTypes all event types to search
+     * @return a list of CheckoutComPaymentEventModel
+     */
+    List<CheckoutComPaymentEventModel> findPaymentEventsToProcessWithoutPaymentIdForTypes(Set<CheckoutComPaymentEventType> checkoutComPaymentEventTypes);
+
     /**
      * Finds all payment events with a processing status and older than the creation date
      *
@@ -1,15 +1,23 @@
 package com.checkout.hybris.events.daos.impl;
 
 import com.checkout.hybris.core.model.CheckoutComCleanupCronJobModel;
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
 import com.checkout.hybris.events.daos.CheckoutComCleanupDao;
+import de.hybris.platform.core.PK;
 import de.hybris.platform.core.model.ItemModel;
 import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
 import de.hybris.platform.servicelayer.search.FlexibleSearchService;
 import de.hybris.platform.servicelayer.search.SearchResult;
 import org.joda.time.DateTime;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 /**
  * Default implementation of {@link CheckoutComCleanupDao}
@@ -17,6 +25,7 @@ import java.util.List;
 public class DefaultCheckoutComCleanupDao implements CheckoutComCleanupDao {
 
     private static final String DATE = "date";
+    private static final String LAST_PK = "lastPk";
 
     private final FlexibleSearchService flexibleSearchService;
 
@@ -28,6 +37,7 @@ public class DefaultCheckoutComCleanupDao implements CheckoutComCleanupDao {
      * {@inheritDoc}
      */
     @Override
+    @Deprecated
     public List<ItemModel> findItemsToCleanup(final CheckoutComCleanupCronJobModel cronJob) {
         final Date date = getDateTime().minusSeconds(cronJob.getItemRemovalAge()).toDate();
         String strQuery = "SELECT {" + ItemModel.PK + "}" +
@@ -41,6 +51,41 @@ public class DefaultCheckoutComCleanupDao implements CheckoutComCleanupDao {
         return result.getResult();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PK> findPksToCleanup(final CheckoutComItemRemovalRequest request, final PK lastPk) {
+        checkArgument(isNotBlank(request.getItemTypeCode()), "Item type code cannot be empty.");
+        checkArgument(request.getCreatedBefore() != null, "Creation date cannot be null.");
+        checkArgument(request.getPageSize() > 0, "Page size must be greater than zero.");
+
+        final Map<String, Object> queryParams = new HashMap<>();
+        final StringBuilder query = new StringBuilder("SELECT {" + ItemModel.PK + "}")
+                .append(" FROM {").append(request.getItemTypeCode()).append(request.isDirectDeletion() ? "!}" : "}")
+                .append(" WHERE {" + ItemModel.CREATIONTIME + "} < ?" + DATE);
+        queryParams.put(DATE, request.getCreatedBefore());
+
+        if (request.getAttributeValues() != null) {
+            request.getAttributeValues().forEach((qualifier, value) -> {
+                query.append(" AND {").append(qualifier).append("} = ?").append(qualifier);
+                queryParams.put(qualifier, value);
+            });
+        }
+        if (lastPk != null) {
+            query.append(" AND {" + ItemModel.PK + "} > ?" + LAST_PK);
+            queryParams.put(LAST_PK, lastPk);
+        }
+        query.append(" ORDER BY {" + ItemModel.PK + "} ASC");
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(query.toString(), queryParams);
+        fQuery.setResultClassList(Collections.singletonList(PK.class));
+        fQuery.setCount(request.getPageSize());
+
+        final SearchResult<PK> result = flexibleSearchService.search(fQuery);
+        return result.getResult();
+    }
+
     protected DateTime getDateTime() {
         return new DateTime();
     }
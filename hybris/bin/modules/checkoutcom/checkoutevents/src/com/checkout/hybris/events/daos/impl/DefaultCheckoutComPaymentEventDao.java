@@ -24,12 +24,30 @@ public class DefaultCheckoutComPaymentEventDao implements CheckoutComPaymentEven
     protected static final String QUERY_PARAM_PAYMENT_EVENT_TYPES = "checkoutComPaymentEventTypes";
     protected static final String QUERY_PARAM_PAYMENT_EVENT_STATUS = "checkoutComPaymentEventStatus";
     protected static final String QUERY_PARAM_CREATED_BEFORE_DATE = "createdBeforeDate";
+    protected static final String QUERY_PARAM_LAST_PAYMENT_ID = "lastPaymentId";
+    protected static final String QUERY_PARAM_PAYMENT_IDS = "paymentIds";
 
     protected static final String FIND_PAYMENT_EVENT_TO_PROCESS_QUERY = "SELECT {pe." + CheckoutComPaymentEventModel.PK +
             "} FROM {" + CheckoutComPaymentEventModel._TYPECODE + " as pe JOIN " + CheckoutComPaymentEventStatus._TYPECODE +
             " as pes ON {pes.pk} = {pe. " + CheckoutComPaymentEventModel.STATUS + "}} WHERE {pe." + CheckoutComPaymentEventModel.EVENTTYPE +
             "} IN (?" + QUERY_PARAM_PAYMENT_EVENT_TYPES + ")" + " AND {pes.code} = '" + CheckoutComPaymentEventStatus.PENDING + "'";
 
+    protected static final String FIND_PAYMENT_IDS_TO_PROCESS_QUERY = "SELECT DISTINCT {pe." + CheckoutComPaymentEventModel.PAYMENTID +
+            "} FROM {" + CheckoutComPaymentEventModel._TYPECODE + " as pe JOIN " + CheckoutComPaymentEventStatus._TYPECODE +
+            " as pes ON {pes.pk} = {pe. " + CheckoutComPaymentEventModel.STATUS + "}} WHERE {pe." + CheckoutComPaymentEventModel.EVENTTYPE +
+            "} IN (?" + QUERY_PARAM_PAYMENT_EVENT_TYPES + ")" + " AND {pes.code} = '" + CheckoutComPaymentEventStatus.PENDING + "'" +
+            " AND {pe." + CheckoutComPaymentEventModel.PAYMENTID + "} IS NOT NULL";
+
+    protected static final String AFTER_LAST_PAYMENT_ID_CONDITION = " AND {pe." + CheckoutComPaymentEventModel.PAYMENTID + "} > ?" + QUERY_PARAM_LAST_PAYMENT_ID;
+
+    protected static final String ORDER_BY_PAYMENT_ID = " ORDER BY {pe." + CheckoutComPaymentEventModel.PAYMENTID + "} ASC";
+
+    protected static final String FOR_PAYMENT_IDS_CONDITION = " AND {pe." + CheckoutComPaymentEventModel.PAYMENTID + "} IN (?" + QUERY_PARAM_PAYMENT_IDS + ")";
+
+    protected static final String WITHOUT_PAYMENT_ID_CONDITION = " AND {pe." + CheckoutComPaymentEventModel.PAYMENTID + "} IS NULL";
+
+    protected static final String ORDER_BY_CREATION_TIME = " ORDER BY {pe." + CheckoutComPaymentEventModel.CREATIONTIME + "} ASC, {pe." + CheckoutComPaymentEventModel.PK + "} ASC";
+
     protected static final String FIND_PAYMENT_EVENT_BY_STATUS_AND_CREATION_DATE_QUERY =
             "SELECT {" + PK + "}\n" +
                     "FROM {" + CheckoutComPaymentEventModel._TYPECODE + "}\n" +
@@ -60,6 +78,73 @@ public class DefaultCheckoutComPaymentEventDao implements CheckoutComPaymentEven
         return searchResult.getResult();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> findPaymentIdsToProcessForTypes(final Set<CheckoutComPaymentEventType> checkoutComPaymentEventTypes,
+                                                        final String lastPaymentId, final int pageSize) {
+        Preconditions.checkArgument(CollectionUtils.isNotEmpty(checkoutComPaymentEventTypes), "Payment event types are null or empty.");
+        Preconditions.checkArgument(pageSize > 0, "Page size must be greater than zero.");
+
+        final Map<String, Object> queryParams = new HashMap<>();
+        queryParams.put(QUERY_PARAM_PAYMENT_EVENT_TYPES, checkoutComPaymentEventTypes.stream().map(CheckoutComPaymentEventType::getCode).collect(Collectors.toList()));
+
+        final StringBuilder query = new StringBuilder(FIND_PAYMENT_IDS_TO_PROCESS_QUERY);
+        if (lastPaymentId != null) {
+            query.append(AFTER_LAST_PAYMENT_ID_CONDITION);
+            queryParams.put(QUERY_PARAM_LAST_PAYMENT_ID, lastPaymentId);
+        }
+        query.append(ORDER_BY_PAYMENT_ID);
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(query.toString());
+        fQuery.addQueryParameters(queryParams);
+        fQuery.setResultClassList(Collections.singletonList(String.class));
+        fQuery.setCount(pageSize);
+
+        final SearchResult<String> searchResult = flexibleSearchService.search(fQuery);
+        return searchResult.getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComPaymentEventModel> findPaymentEventsToProcessForPaymentIds(final Set<CheckoutComPaymentEventType> checkoutComPaymentEventTypes,
+                                                                                      final Collection<String> paymentIds) {
+        Preconditions.checkArgument(CollectionUtils.isNotEmpty(checkoutComPaymentEventTypes), "Payment event types are null or empty.");
+        Preconditions.checkArgument(CollectionUtils.isNotEmpty(paymentIds), "Payment ids are null or empty.");
+
+        final Map<String, Object> queryParams = new HashMap<>();
+        queryParams.put(QUERY_PARAM_PAYMENT_EVENT_TYPES, checkoutComPaymentEventTypes.stream().map(CheckoutComPaymentEventType::getCode).collect(Collectors.toList()));
+        queryParams.put(QUERY_PARAM_PAYMENT_IDS, paymentIds);
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(FIND_PAYMENT_EVENT_TO_PROCESS_QUERY + FOR_PAYMENT_IDS_CONDITION + ORDER_BY_CREATION_TIME);
+        fQuery.addQueryParameters(queryParams);
+        fQuery.setResultClassList(Collections.singletonList(CheckoutComPaymentEventModel.class));
+
+        final SearchResult<CheckoutComPaymentEventModel> searchResult = flexibleSearchService.search(fQuery);
+        return searchResult.getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComPaymentEventModel> findPaymentEventsToProcessWithoutPaymentIdForTypes(final Set<CheckoutComPaymentEventType> checkoutComPaymentEventTypes) {
+        Preconditions.checkArgument(CollectionUtils.isNotEmpty(checkoutComPaymentEventTypes), "Payment event types are null or empty.");
+
+        final Map<String, Object> queryParams = new HashMap<>();
+        queryParams.put(QUERY_PARAM_PAYMENT_EVENT_TYPES, checkoutComPaymentEventTypes.stream().map(CheckoutComPaymentEventType::getCode).collect(Collectors.toList()));
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(FIND_PAYMENT_EVENT_TO_PROCESS_QUERY + WITHOUT_PAYMENT_ID_CONDITION + ORDER_BY_CREATION_TIME);
+        fQuery.addQueryParameters(queryParams);
+        fQuery.setResultClassList(Collections.singletonList(CheckoutComPaymentEventModel.class));
+
+        final SearchResult<CheckoutComPaymentEventModel> searchResult = flexibleSearchService.search(fQuery);
+        return searchResult.getResult();
+    }
+
     /**
      * {@inheritDoc}
      */
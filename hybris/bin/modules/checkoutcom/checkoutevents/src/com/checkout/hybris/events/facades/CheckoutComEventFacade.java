@@ -1,14 +1,25 @@
 package com.checkout.hybris.events.facades;
 
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
+
 /**
  * Facade to orchestrate logic for checkout.com events
  */
 public interface CheckoutComEventFacade {
 
     /**
-     * Publishes the payment event
+     * Parses the event body once, so the same object is used to validate, publish or queue the event
      *
      * @param eventBody the event body
+     * @return the parsed event, with the event body as payload
+     * @throws IllegalArgumentException when the event body is empty or not a json event
+     */
+    CheckoutComPaymentEventObject parsePaymentEvent(String eventBody);
+
+    /**
+     * Publishes the payment event
+     *
+     * @param eventBodyData the parsed event
      */
-    void publishPaymentEvent(String eventBody);
+    void publishPaymentEvent(CheckoutComPaymentEventObject eventBodyData);
 }
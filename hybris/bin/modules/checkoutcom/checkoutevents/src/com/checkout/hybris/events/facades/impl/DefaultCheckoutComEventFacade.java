@@ -4,13 +4,11 @@ import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
 import com.checkout.hybris.events.facades.CheckoutComEventFacade;
 import com.checkout.hybris.events.payments.CheckoutComPaymentEvent;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
 import de.hybris.platform.servicelayer.event.EventService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.Type;
-
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -23,6 +21,8 @@ public class DefaultCheckoutComEventFacade implements CheckoutComEventFacade {
 
     protected final EventService eventService;
 
+    private final Gson gson = new Gson();
+
     public DefaultCheckoutComEventFacade(final EventService eventService) {
         this.eventService = eventService;
     }
@@ -31,14 +31,28 @@ public class DefaultCheckoutComEventFacade implements CheckoutComEventFacade {
      * {@inheritDoc}
      */
     @Override
-    public void publishPaymentEvent(final String eventBody) {
+    public CheckoutComPaymentEventObject parsePaymentEvent(final String eventBody) {
         checkArgument(isNotBlank(eventBody), "Event body cannot be null or empty.");
 
-        final Type type = new TypeToken<CheckoutComPaymentEventObject>() {/**/
-        }.getType();
-        final CheckoutComPaymentEventObject eventBodyData = new Gson().fromJson(eventBody, type);
+        final CheckoutComPaymentEventObject eventBodyData;
+        try {
+            eventBodyData = gson.fromJson(eventBody, CheckoutComPaymentEventObject.class);
+        } catch (final JsonParseException e) {
+            throw new IllegalArgumentException("Event body is not a valid event.", e);
+        }
+        checkArgument(eventBodyData != null, "Event body is not a valid event.");
         eventBodyData.setPayLoad(eventBody);
-        LOG.debug("Event body is: [{}]", eventBody);
+        return eventBodyData;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publishPaymentEvent(final CheckoutComPaymentEventObject eventBodyData) {
+        checkArgument(eventBodyData != null && isNotBlank(eventBodyData.getPayLoad()), "Event body cannot be null or empty.");
+
+        LOG.debug("Event body is: [{}]", eventBodyData.getPayLoad());
 
         final CheckoutComPaymentEvent checkoutComPaymentEvent = new CheckoutComPaymentEvent(eventBodyData);
         eventService.publishEvent(checkoutComPaymentEvent);
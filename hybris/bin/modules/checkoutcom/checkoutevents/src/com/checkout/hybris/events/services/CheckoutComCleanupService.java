@@ -8,9 +8,10 @@ import com.checkout.hybris.core.model.CheckoutComCleanupCronJobModel;
 public interface CheckoutComCleanupService {
 
     /**
-     * Deletes Items that are older than the age (given in months)
+     * Deletes Items that are older than the age (given in seconds), page by page
      *
      * @param cronJob the cronjob
+     * @return true when every item was deleted, false when the cronjob was aborted before
      */
-    void doCleanUp(CheckoutComCleanupCronJobModel cronJob);
+    boolean doCleanUp(CheckoutComCleanupCronJobModel cronJob);
 }
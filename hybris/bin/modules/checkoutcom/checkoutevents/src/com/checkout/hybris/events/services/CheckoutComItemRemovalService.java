@@ -0,0 +1,21 @@
+package com.checkout.hybris.events.services;
+
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
+import de.hybris.platform.cronjob.model.CronJobModel;
+
+/**
+ * Removes large amounts of items page by page, each page in its own transaction, for the cleanup cronjobs
+ */
+public interface CheckoutComItemRemovalService {
+
+    /**
+     * Removes the items of the request page by page, ordered by pk. The last removed pk is saved in the
+     * {@code lastRemovedPk} attribute of the cronjob after each page, so a run that is aborted or fails resumes after
+     * it, and is cleared once every item is removed.
+     *
+     * @param cronJob the cleanup cronjob, declaring a {@code lastRemovedPk} attribute
+     * @param request the items to remove and how to remove them
+     * @return true when every item was removed, false when the cronjob was aborted before
+     */
+    boolean removeItems(CronJobModel cronJob, CheckoutComItemRemovalRequest request);
+}
@@ -0,0 +1,23 @@
+package com.checkout.hybris.events.services;
+
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventProcessingStats;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
+import de.hybris.platform.payment.enums.PaymentTransactionType;
+
+import java.util.Set;
+
+/**
+ * Service to drain the pending payment events in pages, processing the events of different payments in parallel
+ */
+public interface CheckoutComPartitionedPaymentEventProcessingService {
+
+    /**
+     * Processes all the pending events of the given types. Events are partitioned by payment id: the events of a
+     * payment are processed in order by one worker, different payments are processed in parallel.
+     *
+     * @param eventTypes      the event types to process
+     * @param transactionType type of the payment event
+     * @return the throughput and lag of the processed partitions
+     */
+    CheckoutComPaymentEventProcessingStats processPendingEvents(Set<CheckoutComPaymentEventType> eventTypes, PaymentTransactionType transactionType);
+}
@@ -1,6 +1,6 @@
 package com.checkout.hybris.events.services;
 
-import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventCleanupCronJobModel;
 
 /**
  * Provides payment event cleanup functionalities
@@ -8,10 +8,10 @@ import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
 public interface CheckoutComPaymentEventCleanupService {
 
     /**
-     * Deletes payment events for a status older than the age in days
+     * Deletes, page by page, the payment events with the status of the cronjob older than its age in days
      *
-     * @param eventStatus    the status of the event to be deleted
-     * @param eventAgeInDays the age in days of the event prior to be deleted
+     * @param cronJob the cronjob with the status and the age in days of the events to be deleted
+     * @return true when every event was deleted, false when the cronjob was aborted before
      */
-    void doCleanUp(CheckoutComPaymentEventStatus eventStatus, int eventAgeInDays);
+    boolean doCleanUp(CheckoutComPaymentEventCleanupCronJobModel cronJob);
 }
@@ -0,0 +1,42 @@
+package com.checkout.hybris.events.services;
+
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
+import com.checkout.hybris.events.beans.CheckoutComWebhookIngestionResult;
+import com.checkout.hybris.events.beans.CheckoutComWebhookIngestionStats;
+
+/**
+ * Accepts already verified and parsed webhook events into a bounded queue that background workers persist in batches as
+ * {@link com.checkout.hybris.events.model.CheckoutComPaymentEventModel}, so the request thread returns straight away
+ */
+public interface CheckoutComWebhookIngestionService {
+
+    /**
+     * Whether webhooks should be ingested through the queue instead of being published as platform events
+     *
+     * @return true if the asynchronous ingestion is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Appends the event to the ingestion queue
+     *
+     * @param eventBodyData the verified event, with its body as payload
+     * @return {@link CheckoutComWebhookIngestionResult#ACCEPTED} when queued, {@link CheckoutComWebhookIngestionResult#QUEUE_FULL}
+     * when the queue has no room left and {@link CheckoutComWebhookIngestionResult#UNAVAILABLE} when the service is shutting down
+     */
+    CheckoutComWebhookIngestionResult enqueue(CheckoutComPaymentEventObject eventBodyData);
+
+    /**
+     * Returns the number of seconds checkout.com should wait before retrying an event rejected because the queue was full
+     *
+     * @return the retry delay in seconds
+     */
+    int getRetryAfterSeconds();
+
+    /**
+     * Returns the queue and persistence statistics of the ingestion
+     *
+     * @return the ingestion statistics
+     */
+    CheckoutComWebhookIngestionStats getStats();
+}
@@ -1,15 +1,16 @@
 package com.checkout.hybris.events.services.impl;
 
 import com.checkout.hybris.core.model.CheckoutComCleanupCronJobModel;
-import com.checkout.hybris.events.daos.CheckoutComCleanupDao;
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
 import com.checkout.hybris.events.services.CheckoutComCleanupService;
-import com.google.common.collect.Lists;
-import de.hybris.platform.core.model.ItemModel;
-import de.hybris.platform.servicelayer.model.ModelService;
+import com.checkout.hybris.events.services.CheckoutComItemRemovalService;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
 
 /**
  * Default implementation of {@link CheckoutComCleanupService}
@@ -18,22 +19,26 @@ public class DefaultCheckoutComCleanupService implements CheckoutComCleanupServi
 
     protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComCleanupService.class);
 
-    protected final ModelService modelService;
-    protected final CheckoutComCleanupDao checkoutComCleanupDao;
+    protected static final int DEFAULT_BATCH_SIZE = 5000;
 
-    public DefaultCheckoutComCleanupService(final ModelService modelService, final CheckoutComCleanupDao checkoutComCleanupDao) {
-        this.modelService = modelService;
-        this.checkoutComCleanupDao = checkoutComCleanupDao;
+    protected final CheckoutComItemRemovalService checkoutComItemRemovalService;
+
+    public DefaultCheckoutComCleanupService(final CheckoutComItemRemovalService checkoutComItemRemovalService) {
+        this.checkoutComItemRemovalService = checkoutComItemRemovalService;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void doCleanUp(final CheckoutComCleanupCronJobModel cronJob) {
-        final List<ItemModel> rows = checkoutComCleanupDao.findItemsToCleanup(cronJob);
-        final List<List<ItemModel>> batches = Lists.partition(rows, cronJob.getBatchSize());
-        batches.forEach(modelService::removeAll);
+    public boolean doCleanUp(final CheckoutComCleanupCronJobModel cronJob) {
+        final CheckoutComItemRemovalRequest request = new CheckoutComItemRemovalRequest();
+        request.setItemTypeCode(cronJob.getItemTypeCode());
+        request.setCreatedBefore(Date.from(Instant.now().minusSeconds(cronJob.getItemRemovalAge())));
+        request.setPageSize(Optional.ofNullable(cronJob.getBatchSize()).orElse(DEFAULT_BATCH_SIZE));
+        request.setMaxRowsPerSecond(cronJob.getMaxRowsPerSecond());
+        request.setDirectDeletion(BooleanUtils.isTrue(cronJob.getDirectDeletion()));
+        return checkoutComItemRemovalService.removeItems(cronJob, request);
     }
 
 }
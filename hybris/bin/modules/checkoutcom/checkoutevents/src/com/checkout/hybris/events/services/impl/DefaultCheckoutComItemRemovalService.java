@@ -0,0 +1,187 @@
+package com.checkout.hybris.events.services.impl;
+
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
+import com.checkout.hybris.events.daos.CheckoutComCleanupDao;
+import com.checkout.hybris.events.services.CheckoutComItemRemovalService;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.cronjob.model.CronJobModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.type.TypeService;
+import de.hybris.platform.util.Utilities;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Default implementation of {@link CheckoutComItemRemovalService}. Pages are found by pk, without loading the items,
+ * and each page is removed with the checkpoint of the cronjob in a short transaction. Between pages the removal checks
+ * whether the cronjob was aborted and waits as long as needed to stay under the rows per second limit.
+ */
+public class DefaultCheckoutComItemRemovalService implements CheckoutComItemRemovalService {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComItemRemovalService.class);
+
+    protected static final String LAST_REMOVED_PK = "lastRemovedPk";
+    protected static final String MAX_ROWS_PER_SECOND = "checkoutevents.cleanup.maxrowspersecond";
+    protected static final int DEFAULT_MAX_ROWS_PER_SECOND = 0;
+
+    protected final ModelService modelService;
+    protected final TypeService typeService;
+    protected final ConfigurationService configurationService;
+    protected final CheckoutComCleanupDao checkoutComCleanupDao;
+    protected final TransactionOperations transactionTemplate;
+
+    public DefaultCheckoutComItemRemovalService(final ModelService modelService,
+                                                final TypeService typeService,
+                                                final ConfigurationService configurationService,
+                                                final CheckoutComCleanupDao checkoutComCleanupDao,
+                                                final TransactionOperations transactionTemplate) {
+        this.modelService = modelService;
+        this.typeService = typeService;
+        this.configurationService = configurationService;
+        this.checkoutComCleanupDao = checkoutComCleanupDao;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean removeItems(final CronJobModel cronJob, final CheckoutComItemRemovalRequest request) {
+        validateParameterNotNull(cronJob, "CronJob cannot be null");
+        validateParameterNotNull(request, "Item removal request cannot be null");
+
+        PK lastPk = getCheckpoint(cronJob);
+        if (lastPk != null) {
+            LOG.info("Resuming the removal of [{}] items after pk [{}].", request.getItemTypeCode(), lastPk);
+        }
+
+        final int maxRowsPerSecond = getMaxRowsPerSecond(request);
+        final long start = System.nanoTime();
+        long removedCount = 0;
+        List<PK> page = checkoutComCleanupDao.findPksToCleanup(request, lastPk);
+        while (!page.isEmpty()) {
+            lastPk = page.get(page.size() - 1);
+            removePage(cronJob, request, page, lastPk);
+            removedCount += page.size();
+
+            if (isAbortRequested(cronJob) || !throttle(removedCount, start, maxRowsPerSecond)) {
+                LOG.info("Removal of [{}] items stopped after [{}] items, it resumes after pk [{}].", request.getItemTypeCode(), removedCount, lastPk);
+                return false;
+            }
+            page = page.size() < request.getPageSize() ? Collections.emptyList() : checkoutComCleanupDao.findPksToCleanup(request, lastPk);
+        }
+
+        if (getCheckpoint(cronJob) != null) {
+            setCheckpoint(cronJob, null);
+        }
+        LOG.info("Removed [{}] [{}] items in [{}] ms.", removedCount, request.getItemTypeCode(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return true;
+    }
+
+    /**
+     * Removes the items of the page and saves the last pk as checkpoint of the cronjob in the same transaction
+     *
+     * @param cronJob the cleanup cronjob
+     * @param request the items to remove and how to remove them
+     * @param pks     the pks of the items of the page
+     * @param lastPk  the last pk of the page
+     */
+    protected void removePage(final CronJobModel cronJob, final CheckoutComItemRemovalRequest request, final List<PK> pks, final PK lastPk) {
+        transactionTemplate.execute(transactionStatus -> {
+            if (request.isDirectDeletion()) {
+                deleteDirectly(request.getItemTypeCode(), pks);
+            } else {
+                modelService.removeAll(pks.stream().map(pk -> modelService.<ItemModel>get(pk)).collect(toList()));
+            }
+            setCheckpoint(cronJob, lastPk);
+            return null;
+        });
+        if (request.isDirectDeletion()) {
+            invalidateCache(pks);
+        }
+    }
+
+    /**
+     * Deletes the rows of the page from the table of the type with one statement, without loading the items
+     *
+     * @param itemTypeCode the type of the items
+     * @param pks          the pks of the items of the page
+     */
+    protected void deleteDirectly(final String itemTypeCode, final List<PK> pks) {
+        final String table = typeService.getComposedTypeForCode(itemTypeCode).getTable();
+        final String placeholders = pks.stream().map(pk -> "?").collect(joining(","));
+        getJdbcTemplate().update("DELETE FROM " + table + " WHERE PK IN (" + placeholders + ")", pks.stream().map(PK::getLong).toArray());
+    }
+
+    /**
+     * Removes the items deleted with a direct sql statement from the cache of every cluster node
+     *
+     * @param pks the pks of the deleted items
+     */
+    protected void invalidateCache(final List<PK> pks) {
+        pks.forEach(Utilities::invalidateCache);
+    }
+
+    /**
+     * Waits until the removed items do not exceed the rows per second limit since the removal started
+     *
+     * @return false when interrupted while waiting
+     */
+    protected boolean throttle(final long removedCount, final long start, final int maxRowsPerSecond) {
+        if (maxRowsPerSecond <= 0) {
+            return true;
+        }
+        final long waitMillis = removedCount * 1000L / maxRowsPerSecond - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (waitMillis > 0) {
+            try {
+                pause(waitMillis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected void pause(final long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    protected boolean isAbortRequested(final CronJobModel cronJob) {
+        modelService.refresh(cronJob);
+        return BooleanUtils.isTrue(cronJob.getRequestAbort());
+    }
+
+    protected PK getCheckpoint(final CronJobModel cronJob) {
+        final Long lastRemovedPk = modelService.getAttributeValue(cronJob, LAST_REMOVED_PK);
+        return lastRemovedPk != null ? PK.fromLong(lastRemovedPk) : null;
+    }
+
+    protected void setCheckpoint(final CronJobModel cronJob, final PK lastPk) {
+        modelService.setAttributeValue(cronJob, LAST_REMOVED_PK, lastPk != null ? lastPk.getLong() : null);
+        modelService.save(cronJob);
+    }
+
+    protected int getMaxRowsPerSecond(final CheckoutComItemRemovalRequest request) {
+        return request.getMaxRowsPerSecond() != null ? request.getMaxRowsPerSecond()
+                : configurationService.getConfiguration().getInt(MAX_ROWS_PER_SECOND, DEFAULT_MAX_ROWS_PER_SECOND);
+    }
+
+    protected JdbcTemplate getJdbcTemplate() {
+        return new JdbcTemplate(Registry.getCurrentTenant().getDataSource());
+    }
+}
@@ -0,0 +1,251 @@
+package com.checkout.hybris.events.services.impl;
+
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventPartitionStats;
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventProcessingStats;
+import com.checkout.hybris.events.daos.CheckoutComPaymentEventDao;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import com.checkout.hybris.events.services.CheckoutComPartitionedPaymentEventProcessingService;
+import com.checkout.hybris.events.services.CheckoutComPaymentEventProcessingService;
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.TenantAwareThreadFactory;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.payment.enums.PaymentTransactionType;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.user.UserService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Default implementation of {@link CheckoutComPartitionedPaymentEventProcessingService}. The pending events are paged by
+ * payment id: a page holds all the pending events of its payments, so the events of a payment are never split between
+ * pages and the equivalent events of a payment are always seen together. The events without a payment id cannot be
+ * paged that way, they are processed afterwards as a single partition in the calling thread. Each partition is handed
+ * to the {@link CheckoutComPaymentEventProcessingService}, which still processes every event in its own transaction.
+ */
+public class DefaultCheckoutComPartitionedPaymentEventProcessingService implements CheckoutComPartitionedPaymentEventProcessingService, DisposableBean {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPartitionedPaymentEventProcessingService.class);
+
+    protected static final String PROCESSING_WORKERS = "checkoutevents.paymentevent.processing.workers";
+    protected static final String PROCESSING_PAGE_SIZE = "checkoutevents.paymentevent.processing.pagesize";
+
+    protected static final int DEFAULT_WORKERS = 4;
+    protected static final int DEFAULT_PAGE_SIZE = 500;
+
+    protected final CheckoutComPaymentEventDao checkoutComPaymentEventDao;
+    protected final CheckoutComPaymentEventProcessingService checkoutComPaymentEventProcessingService;
+    protected final ConfigurationService configurationService;
+    protected final ModelService modelService;
+    protected final SessionService sessionService;
+    protected final UserService userService;
+
+    private volatile ExecutorService workers;
+
+    public DefaultCheckoutComPartitionedPaymentEventProcessingService(final CheckoutComPaymentEventDao checkoutComPaymentEventDao,
+                                                                      final CheckoutComPaymentEventProcessingService checkoutComPaymentEventProcessingService,
+                                                                      final ConfigurationService configurationService,
+                                                                      final ModelService modelService,
+                                                                      final SessionService sessionService,
+                                                                      final UserService userService) {
+        this.checkoutComPaymentEventDao = checkoutComPaymentEventDao;
+        this.checkoutComPaymentEventProcessingService = checkoutComPaymentEventProcessingService;
+        this.configurationService = configurationService;
+        this.modelService = modelService;
+        this.sessionService = sessionService;
+        this.userService = userService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComPaymentEventProcessingStats processPendingEvents(final Set<CheckoutComPaymentEventType> eventTypes, final PaymentTransactionType transactionType) {
+        final long start = System.currentTimeMillis();
+        final int pageSize = getPageSize();
+        final List<CheckoutComPaymentEventPartitionStats> partitions = new ArrayList<>();
+        int pageCount = 0;
+        long eventCount = 0;
+
+        List<String> paymentIds = checkoutComPaymentEventDao.findPaymentIdsToProcessForTypes(eventTypes, null, pageSize);
+        while (!paymentIds.isEmpty()) {
+            final List<CheckoutComPaymentEventModel> page = checkoutComPaymentEventDao.findPaymentEventsToProcessForPaymentIds(eventTypes, paymentIds);
+            pageCount++;
+            eventCount += page.size();
+            final List<CheckoutComPaymentEventPartitionStats> pagePartitions = processPage(page, transactionType);
+            partitions.addAll(pagePartitions);
+            LOG.info("Processed page [{}] of [{}] [{}] payment events in [{}] partitions.", pageCount, page.size(), transactionType, pagePartitions.size());
+            // The processed events are not needed anymore, the next page only needs the last payment id
+            page.forEach(modelService::detach);
+
+            if (paymentIds.size() < pageSize) {
+                break;
+            }
+            paymentIds = checkoutComPaymentEventDao.findPaymentIdsToProcessForTypes(eventTypes, paymentIds.get(paymentIds.size() - 1), pageSize);
+        }
+
+        final List<CheckoutComPaymentEventModel> eventsWithoutPaymentId = checkoutComPaymentEventDao.findPaymentEventsToProcessWithoutPaymentIdForTypes(eventTypes);
+        if (!eventsWithoutPaymentId.isEmpty()) {
+            pageCount++;
+            eventCount += eventsWithoutPaymentId.size();
+            partitions.add(processPartition(null, eventsWithoutPaymentId, transactionType));
+            LOG.info("Processed [{}] [{}] payment events without payment id.", eventsWithoutPaymentId.size(), transactionType);
+            eventsWithoutPaymentId.forEach(modelService::detach);
+        }
+
+        return createStats(partitions, pageCount, eventCount, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Stops the workers. Events of partitions that did not finish stay pending and are processed on the next run.
+     */
+    @Override
+    public void destroy() {
+        final ExecutorService processingWorkers = workers;
+        if (processingWorkers != null) {
+            processingWorkers.shutdownNow();
+        }
+    }
+
+    /**
+     * Groups the events of the page by payment id, keeping the page order inside each partition, and processes the
+     * partitions on the workers, or in the calling thread when a single worker is configured
+     *
+     * @param page            the events of the page
+     * @param transactionType the transaction type of the events
+     * @return the stats of each partition of the page
+     */
+    protected List<CheckoutComPaymentEventPartitionStats> processPage(final List<CheckoutComPaymentEventModel> page, final PaymentTransactionType transactionType) {
+        final Map<String, List<CheckoutComPaymentEventModel>> partitions = page.stream()
+                .collect(groupingBy(CheckoutComPaymentEventModel::getPaymentId, LinkedHashMap::new, toList()));
+
+        final ExecutorService processingWorkers = getWorkers();
+        if (processingWorkers == null) {
+            return partitions.entrySet().stream()
+                    .map(partition -> processPartition(partition.getKey(), partition.getValue(), transactionType))
+                    .collect(toList());
+        }
+
+        final UserModel user = userService.getCurrentUser();
+        final List<CompletableFuture<CheckoutComPaymentEventPartitionStats>> results = partitions.entrySet().stream()
+                .map(partition -> CompletableFuture.supplyAsync(() -> processPartitionInNewSession(user, partition.getKey(), partition.getValue(), transactionType), processingWorkers))
+                .collect(toList());
+        return results.stream().map(CompletableFuture::join).collect(toList());
+    }
+
+    protected CheckoutComPaymentEventPartitionStats processPartitionInNewSession(final UserModel user,
+                                                                                 final String paymentId,
+                                                                                 final List<CheckoutComPaymentEventModel> events,
+                                                                                 final PaymentTransactionType transactionType) {
+        final Session session = sessionService.createNewSession();
+        try {
+            userService.setCurrentUser(user);
+            return processPartition(paymentId, events, transactionType);
+        } finally {
+            sessionService.closeSession(session);
+        }
+    }
+
+    /**
+     * Processes the events of a single payment in order and measures the throughput and the lag of the partition,
+     * the time the oldest event waited before being processed
+     *
+     * @param paymentId       the payment id of the partition
+     * @param events          the events of the payment
+     * @param transactionType the transaction type of the events
+     * @return the stats of the partition
+     */
+    protected CheckoutComPaymentEventPartitionStats processPartition(final String paymentId,
+                                                                     final List<CheckoutComPaymentEventModel> events,
+                                                                     final PaymentTransactionType transactionType) {
+        final CheckoutComPaymentEventPartitionStats stats = new CheckoutComPaymentEventPartitionStats();
+        stats.setPaymentId(paymentId);
+        stats.setEventCount(events.size());
+
+        final long start = System.currentTimeMillis();
+        final long oldest = events.stream()
+                .map(CheckoutComPaymentEventModel::getCreationtime)
+                .filter(Objects::nonNull)
+                .mapToLong(Date::getTime)
+                .min()
+                .orElse(start);
+        stats.setLagMillis(Math.max(0L, start - oldest));
+        try {
+            checkoutComPaymentEventProcessingService.processPaymentEvents(events, transactionType);
+        } catch (final RuntimeException e) {
+            stats.setFailed(true);
+            LOG.error("Unexpected error processing the [{}] events of the payment [{}].", transactionType, paymentId, e);
+        }
+        stats.setDurationMillis(System.currentTimeMillis() - start);
+        stats.setEventsPerSecond(eventsPerSecond(events.size(), stats.getDurationMillis()));
+
+        LOG.debug("Processed [{}] [{}] events of payment [{}] in [{}] ms, lag [{}] ms.", events.size(), transactionType, paymentId,
+                stats.getDurationMillis(), stats.getLagMillis());
+        return stats;
+    }
+
+    protected CheckoutComPaymentEventProcessingStats createStats(final List<CheckoutComPaymentEventPartitionStats> partitions,
+                                                                 final int pageCount,
+                                                                 final long eventCount,
+                                                                 final long durationMillis) {
+        final CheckoutComPaymentEventProcessingStats stats = new CheckoutComPaymentEventProcessingStats();
+        stats.setPageCount(pageCount);
+        stats.setEventCount(eventCount);
+        stats.setPartitionCount(partitions.size());
+        stats.setFailedPartitionCount(partitions.stream().filter(CheckoutComPaymentEventPartitionStats::isFailed).count());
+        stats.setDurationMillis(durationMillis);
+        stats.setEventsPerSecond(eventsPerSecond(eventCount, durationMillis));
+        stats.setMaxLagMillis(partitions.stream().mapToLong(CheckoutComPaymentEventPartitionStats::getLagMillis).max().orElse(0));
+        stats.setPartitions(partitions);
+        return stats;
+    }
+
+    protected ExecutorService getWorkers() {
+        if (workers == null && getWorkerCount() > 1) {
+            startWorkers();
+        }
+        return workers;
+    }
+
+    protected synchronized void startWorkers() {
+        if (workers == null) {
+            final int workerCount = getWorkerCount();
+            workers = createWorkers(workerCount);
+            LOG.info("Started [{}] payment event processing workers.", workerCount);
+        }
+    }
+
+    protected ExecutorService createWorkers(final int workerCount) {
+        return Executors.newFixedThreadPool(workerCount, new TenantAwareThreadFactory(Registry.getCurrentTenantNoFallback()));
+    }
+
+    protected int getWorkerCount() {
+        return configurationService.getConfiguration().getInt(PROCESSING_WORKERS, DEFAULT_WORKERS);
+    }
+
+    protected int getPageSize() {
+        return Math.max(1, configurationService.getConfiguration().getInt(PROCESSING_PAGE_SIZE, DEFAULT_PAGE_SIZE));
+    }
+
+    private static double eventsPerSecond(final long eventCount, final long durationMillis) {
+        return eventCount * 1000d / Math.max(1L, durationMillis);
+    }
+}
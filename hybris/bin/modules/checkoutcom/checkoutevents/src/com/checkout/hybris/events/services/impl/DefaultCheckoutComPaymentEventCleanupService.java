@@ -1,17 +1,19 @@
 package com.checkout.hybris.events.services.impl;
 
-import com.checkout.hybris.events.daos.CheckoutComPaymentEventDao;
-import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventCleanupCronJobModel;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import com.checkout.hybris.events.services.CheckoutComItemRemovalService;
 import com.checkout.hybris.events.services.CheckoutComPaymentEventCleanupService;
-import de.hybris.platform.servicelayer.model.ModelService;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
-import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Default implementation of {@link CheckoutComPaymentEventCleanupService}
@@ -20,25 +22,30 @@ public class DefaultCheckoutComPaymentEventCleanupService implements CheckoutCom
 
     protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPaymentEventCleanupService.class);
 
-    protected final ModelService modelService;
-    protected final CheckoutComPaymentEventDao checkoutComPaymentEventDao;
+    protected static final int DEFAULT_BATCH_SIZE = 1000;
 
-    public DefaultCheckoutComPaymentEventCleanupService(final ModelService modelService, final CheckoutComPaymentEventDao checkoutComPaymentEventDao) {
-        this.modelService = modelService;
-        this.checkoutComPaymentEventDao = checkoutComPaymentEventDao;
+    protected final CheckoutComItemRemovalService checkoutComItemRemovalService;
+
+    public DefaultCheckoutComPaymentEventCleanupService(final CheckoutComItemRemovalService checkoutComItemRemovalService) {
+        this.checkoutComItemRemovalService = checkoutComItemRemovalService;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void doCleanUp(final CheckoutComPaymentEventStatus eventStatus, final int eventAgeInDays) {
-        final Date creationDate = Date.from(LocalDate.now().minusDays(eventAgeInDays).atStartOfDay(ZoneId.systemDefault()).toInstant());
-        final List<CheckoutComPaymentEventModel> paymentEventsByStatusCreatedBeforeDate = checkoutComPaymentEventDao.findPaymentEventsByStatusCreatedBeforeDate(eventStatus, creationDate);
-        paymentEventsByStatusCreatedBeforeDate.forEach(paymentEvent -> {
-            LOG.info("Deleting payment event id [{}]  with status [{}]", paymentEvent.getEventId(), paymentEvent.getStatus());
-            modelService.remove(paymentEvent);
-        });
+    public boolean doCleanUp(final CheckoutComPaymentEventCleanupCronJobModel cronJob) {
+        final Date creationDate = Date.from(LocalDate.now().minusDays(cronJob.getAgeInDaysBeforeDeletion()).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        LOG.info("Deleting payment events with status [{}] created before [{}]", cronJob.getPaymentEventStatus(), creationDate);
+
+        final CheckoutComItemRemovalRequest request = new CheckoutComItemRemovalRequest();
+        request.setItemTypeCode(CheckoutComPaymentEventModel._TYPECODE);
+        request.setAttributeValues(Map.of(CheckoutComPaymentEventModel.STATUS, cronJob.getPaymentEventStatus()));
+        request.setCreatedBefore(creationDate);
+        request.setPageSize(Optional.ofNullable(cronJob.getBatchSize()).orElse(DEFAULT_BATCH_SIZE));
+        request.setMaxRowsPerSecond(cronJob.getMaxRowsPerSecond());
+        request.setDirectDeletion(BooleanUtils.isTrue(cronJob.getDirectDeletion()));
+        return checkoutComItemRemovalService.removeItems(cronJob, request);
     }
 
-}
\ No newline at end of file
+}
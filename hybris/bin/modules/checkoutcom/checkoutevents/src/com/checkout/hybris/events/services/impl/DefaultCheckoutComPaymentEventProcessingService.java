@@ -3,6 +3,7 @@ package com.checkout.hybris.events.services.impl;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentInfoService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
+import com.checkout.hybris.core.payment.services.CheckoutComReconciliationMatchingService;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
@@ -15,10 +16,13 @@ import de.hybris.platform.payment.enums.PaymentTransactionType;
 import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
 import de.hybris.platform.payment.model.PaymentTransactionModel;
 import de.hybris.platform.processengine.model.BusinessProcessModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
 import de.hybris.platform.servicelayer.model.ModelService;
 import de.hybris.platform.servicelayer.session.SessionExecutionBody;
 import de.hybris.platform.servicelayer.session.SessionService;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,6 +37,7 @@ import static com.checkout.hybris.events.constants.CheckouteventsConstants.EVENT
 import static com.checkout.hybris.events.constants.CheckouteventsConstants.DEFERRED_EVENT_APPROVED_RESPONSE_CODE;
 import static com.checkout.hybris.events.enums.CheckoutComPaymentEventType.*;
 import static de.hybris.platform.payment.dto.TransactionStatus.ACCEPTED;
+import static de.hybris.platform.payment.dto.TransactionStatus.PENDING;
 import static de.hybris.platform.payment.dto.TransactionStatus.REJECTED;
 import static de.hybris.platform.payment.dto.TransactionStatusDetails.PROCESSOR_DECLINE;
 import static de.hybris.platform.payment.enums.PaymentTransactionType.*;
@@ -40,13 +45,20 @@ import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.groupingBy;
 
 /**
- * Default implementation of {@link CheckoutComPaymentEventProcessingService}
+ * Default implementation of {@link CheckoutComPaymentEventProcessingService}. Every event is processed in its own
+ * transaction, together with its status when it is completed or failed, so an event is never applied twice. In strict
+ * mode, the default, the status of an ignored event is saved in the same way; otherwise, as ignoring an event has no
+ * side effect, the ignored statuses are collected and saved in batches with a single save per batch.
  */
 public class DefaultCheckoutComPaymentEventProcessingService implements CheckoutComPaymentEventProcessingService {
 
     protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPaymentEventProcessingService.class);
 
     protected static final String SEPARATOR = "_";
+    protected static final String PROCESSING_STRICT = "checkoutevents.paymentevent.processing.strict";
+    protected static final String PROCESSING_STATUS_BATCH_SIZE = "checkoutevents.paymentevent.processing.statusbatchsize";
+
+    protected static final int DEFAULT_STATUS_BATCH_SIZE = 100;
 
     protected final ModelService modelService;
     protected final CheckoutComPaymentService paymentService;
@@ -54,7 +66,9 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
     protected final SessionService sessionService;
     protected final CheckoutComBusinessProcessService businessProcessService;
     protected final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService;
+    protected final CheckoutComReconciliationMatchingService checkoutComReconciliationMatchingService;
     protected final TransactionOperations transactionTemplate;
+    protected final ConfigurationService configurationService;
 
     public DefaultCheckoutComPaymentEventProcessingService(final ModelService modelService,
                                                            final CheckoutComPaymentService paymentService,
@@ -62,14 +76,18 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
                                                            final SessionService sessionService,
                                                            final CheckoutComBusinessProcessService businessProcessService,
                                                            final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService,
-                                                           final TransactionOperations transactionTemplate) {
+                                                           final CheckoutComReconciliationMatchingService checkoutComReconciliationMatchingService,
+                                                           final TransactionOperations transactionTemplate,
+                                                           final ConfigurationService configurationService) {
         this.modelService = modelService;
         this.paymentService = paymentService;
         this.paymentInfoService = paymentInfoService;
         this.sessionService = sessionService;
         this.businessProcessService = businessProcessService;
         this.checkoutComPaymentTransactionService = checkoutComPaymentTransactionService;
+        this.checkoutComReconciliationMatchingService = checkoutComReconciliationMatchingService;
         this.transactionTemplate = transactionTemplate;
+        this.configurationService = configurationService;
     }
 
     /**
@@ -85,32 +103,99 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
     }
 
     /**
-     * Handles events processing and completion
+     * Handles events processing and completion. Each event is processed in its own transaction with its own status
+     * lists, so only the status of that event changes. A completed or failed status is saved in the same transaction,
+     * an ignored status too in strict mode, otherwise it is saved with the ignored statuses of the following events
+     * once the batch is full.
      *
      * @param paymentEvents   the events to handle
      * @param transactionType the transaction type for the event
      */
     protected void handleEvents(final List<CheckoutComPaymentEventModel> paymentEvents, final PaymentTransactionType transactionType) {
-        final List<CheckoutComPaymentEventModel> completedEvents = new ArrayList<>();
-        final List<CheckoutComPaymentEventModel> failedEvents = new ArrayList<>();
+        final boolean strict = isStrictMode();
+        final int statusBatchSize = getStatusBatchSize();
         final List<CheckoutComPaymentEventModel> ignoredEvents = new ArrayList<>();
         final List<CheckoutComPaymentEventModel> eventsToProcess = new ArrayList<>(paymentEvents);
 
         if (AUTHORIZATION.equals(transactionType)) {
             filterEquivalentAuthorisationEvents(eventsToProcess, ignoredEvents);
         }
-        eventsToProcess.forEach(event -> {
+        if (strict) {
+            updateEventStatus(ignoredEvents, CheckoutComPaymentEventStatus.IGNORED);
+        }
+
+        int batchCount = 0;
+        long writeCount = 0;
+        final long start = System.currentTimeMillis();
+        for (final CheckoutComPaymentEventModel event : eventsToProcess) {
+            final List<CheckoutComPaymentEventModel> eventCompleted = new ArrayList<>(1);
+            final List<CheckoutComPaymentEventModel> eventFailed = new ArrayList<>(1);
+            final List<CheckoutComPaymentEventModel> eventIgnored = new ArrayList<>(1);
             try {
                 getTransactionTemplate().execute(transactionStatus -> {
-                    processEventInTransaction(transactionType, completedEvents, failedEvents, ignoredEvents, event);
+                    processEventInTransaction(transactionType, eventCompleted, eventFailed, eventIgnored, event);
+                    updateEventStatus(eventCompleted, CheckoutComPaymentEventStatus.COMPLETED);
+                    updateEventStatus(eventFailed, CheckoutComPaymentEventStatus.FAILED);
+                    if (strict) {
+                        updateEventStatus(eventIgnored, CheckoutComPaymentEventStatus.IGNORED);
+                    }
                     return null;
                 });
             } catch (final Exception e) {
                 LOG.error("Exception processing the event with id [{}].", event.getEventId());
                 event.setFailReason(String.format("Exception while processing event [%s]. Exception: [%s]", event.getEventId(), ExceptionUtils.getStackTrace(e)));
                 updateEventStatus(singletonList(event), CheckoutComPaymentEventStatus.FAILED);
+                continue;
             }
-        });
+
+            if (!strict) {
+                ignoredEvents.addAll(eventIgnored);
+                if (ignoredEvents.size() >= statusBatchSize) {
+                    writeCount += flushIgnoredEventStatuses(ignoredEvents);
+                    batchCount++;
+                }
+            }
+        }
+        if (!strict && !ignoredEvents.isEmpty()) {
+            writeCount += flushIgnoredEventStatuses(ignoredEvents);
+            batchCount++;
+        }
+        if (batchCount > 0) {
+            LOG.info("Processed [{}] [{}] payment events, saved [{}] ignored statuses in [{}] batches in [{}] ms.", eventsToProcess.size(), transactionType,
+                    writeCount, batchCount, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Sets the ignored status on the collected events and saves all of them together, then clears the list. When the
+     * batch cannot be saved the events are saved one by one so a single invalid event does not lose the others.
+     *
+     * @param ignoredEvents the events to ignore
+     * @return the number of events written
+     */
+    protected int flushIgnoredEventStatuses(final List<CheckoutComPaymentEventModel> ignoredEvents) {
+        final long start = System.currentTimeMillis();
+        ignoredEvents.forEach(event -> event.setStatus(CheckoutComPaymentEventStatus.IGNORED));
+
+        final List<CheckoutComPaymentEventModel> events = new ArrayList<>(ignoredEvents);
+        try {
+            modelService.saveAll(events);
+        } catch (final ModelSavingException e) {
+            LOG.warn("Could not save the status of a batch of [{}] ignored payment events, saving them one by one.", events.size(), e);
+            events.forEach(this::saveEventStatus);
+        }
+        LOG.debug("Saved the status of [{}] ignored payment events in [{}] ms.", events.size(), System.currentTimeMillis() - start);
+
+        ignoredEvents.clear();
+        return events.size();
+    }
+
+    protected void saveEventStatus(final CheckoutComPaymentEventModel event) {
+        try {
+            modelService.save(event);
+        } catch (final ModelSavingException e) {
+            LOG.error("Could not save the status [{}] of the payment event with id [{}].", event.getStatus(), event.getEventId(), e);
+        }
     }
 
     /**
@@ -137,7 +222,7 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
     }
 
     /**
-     * Processes the single event
+     * Processes the single event and adds it to the list of its new status, the status itself is saved by the caller
      *
      * @param transactionType the transaction type of the event
      * @param completedEvents the completed events list
@@ -174,10 +259,6 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
         } else {
             handleEventsRelatedToCart(abstractOrders, event, failedEvents);
         }
-
-        updateEventStatus(completedEvents, CheckoutComPaymentEventStatus.COMPLETED);
-        updateEventStatus(failedEvents, CheckoutComPaymentEventStatus.FAILED);
-        updateEventStatus(ignoredEvents, CheckoutComPaymentEventStatus.IGNORED);
     }
 
     /**
@@ -237,7 +318,15 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
                     return false;
                 }
 
+                if (isActionAlreadyRecorded(event, paymentTransaction)) {
+                    LOG.warn("A payment transaction entry already exists for the action [{}] of the event [{}].", event.getActionId(), event.getEventId());
+                    event.setFailReason(String.format("A payment transaction entry already exists for the action [%s] ", event.getActionId()));
+                    return false;
+                }
+
                 processPayment(event, paymentTransaction, transactionType);
+                findEntriesOfAction(event, paymentTransaction).findFirst()
+                        .ifPresent(checkoutComReconciliationMatchingService::resolveMissingEntry);
 
                 if (CAPTURE.equals(transactionType) || isAuthorizationDeclinedEvent(event.getEventType()) && paymentService.isDeferred(order)) {
                     updateDeferredAuthorization(event, paymentTransaction, transactionType, businessProcess);
@@ -294,6 +383,7 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
                 pendingAuthorizationEntry.get().setTransactionStatusDetails(PROCESSOR_DECLINE.name());
             }
             modelService.save(pendingAuthorizationEntry.get());
+            checkoutComPaymentTransactionService.invalidatePaymentStateSummary(transaction);
             businessProcessService.triggerEvent(createWaitForEventName(event, AUTHORIZATION, businessProcess));
         }
     }
@@ -379,6 +469,29 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
                 checkoutComPaymentTransactionService.findPendingAuthorizationEntry(paymentTransaction).isPresent();
     }
 
+    /**
+     * Checks if the action of the event already has a final payment transaction entry. The same action can be received
+     * twice, as a webhook and as the payment event backfilled by the reconciliation, and only the first one creates
+     * the entry. A pending entry of the action is still updated by its event
+     *
+     * @param event              the payment event
+     * @param paymentTransaction the payment transaction
+     * @return true if an entry that is not pending exists for the action, false otherwise
+     */
+    protected boolean isActionAlreadyRecorded(final CheckoutComPaymentEventModel event, final PaymentTransactionModel paymentTransaction) {
+        return findEntriesOfAction(event, paymentTransaction)
+                .anyMatch(entry -> !PENDING.name().equals(entry.getTransactionStatus()));
+    }
+
+    protected Stream<PaymentTransactionEntryModel> findEntriesOfAction(final CheckoutComPaymentEventModel event, final PaymentTransactionModel paymentTransaction) {
+        final List<PaymentTransactionEntryModel> entries = paymentTransaction.getEntries();
+        if (StringUtils.isBlank(event.getActionId()) || entries == null) {
+            return Stream.empty();
+        }
+        return entries.stream()
+                .filter(entry -> event.getActionId().equals(entry.getRequestToken()));
+    }
+
     /**
      * Checks if the given event is of type PAYMENT_PENDING or PAYMENT_APPROVED, that means is an AUTHORIZATION event
      *
@@ -453,6 +566,14 @@ public class DefaultCheckoutComPaymentEventProcessingService implements Checkout
         return transactionTemplate;
     }
 
+    protected boolean isStrictMode() {
+        return configurationService.getConfiguration().getBoolean(PROCESSING_STRICT, true);
+    }
+
+    protected int getStatusBatchSize() {
+        return Math.max(1, configurationService.getConfiguration().getInt(PROCESSING_STATUS_BATCH_SIZE, DEFAULT_STATUS_BATCH_SIZE));
+    }
+
     protected Optional<CheckoutComPaymentEventModel> findEventInList(final List<CheckoutComPaymentEventModel> eventList, final CheckoutComPaymentEventType eventType) {
         return eventList.stream()
                 .filter(event -> eventType.getCode().equalsIgnoreCase(event.getEventType()))
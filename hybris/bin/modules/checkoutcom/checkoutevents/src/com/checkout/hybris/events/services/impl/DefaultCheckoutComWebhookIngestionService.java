@@ -0,0 +1,300 @@
+package com.checkout.hybris.events.services.impl;
+
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
+import com.checkout.hybris.events.beans.CheckoutComWebhookIngestionResult;
+import com.checkout.hybris.events.beans.CheckoutComWebhookIngestionStats;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import com.checkout.hybris.events.services.CheckoutComPaymentEventService;
+import com.checkout.hybris.events.services.CheckoutComWebhookIngestionService;
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.TenantAwareThreadFactory;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.dto.converter.Converter;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionService;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
+
+/**
+ * Default implementation of {@link CheckoutComWebhookIngestionService}. The queue and the workers are created with the
+ * first accepted event; on shutdown the queue stops accepting events and the workers drain what is left.
+ */
+public class DefaultCheckoutComWebhookIngestionService implements CheckoutComWebhookIngestionService, DisposableBean {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComWebhookIngestionService.class);
+
+    protected static final String INGESTION_ENABLED = "checkoutevents.webhook.ingestion.async.enabled";
+    protected static final String INGESTION_QUEUE_CAPACITY = "checkoutevents.webhook.ingestion.queuecapacity";
+    protected static final String INGESTION_WORKERS = "checkoutevents.webhook.ingestion.workers";
+    protected static final String INGESTION_BATCH_SIZE = "checkoutevents.webhook.ingestion.batchsize";
+    protected static final String INGESTION_RETRY_AFTER = "checkoutevents.webhook.ingestion.retryafter.seconds";
+    protected static final String INGESTION_SHUTDOWN_TIMEOUT = "checkoutevents.webhook.ingestion.shutdowntimeout.seconds";
+
+    protected static final int DEFAULT_QUEUE_CAPACITY = 5000;
+    protected static final int DEFAULT_WORKERS = 2;
+    protected static final int DEFAULT_BATCH_SIZE = 50;
+    protected static final int DEFAULT_RETRY_AFTER = 10;
+    protected static final long DEFAULT_SHUTDOWN_TIMEOUT = 30L;
+    protected static final long POLL_TIMEOUT_MILLIS = 500L;
+
+    protected final ConfigurationService configurationService;
+    protected final ModelService modelService;
+    protected final SessionService sessionService;
+    protected final CheckoutComPaymentEventService checkoutComPaymentEventService;
+    protected final Converter<CheckoutComPaymentEventObject, CheckoutComPaymentEventModel> checkoutComPaymentEventReverseConverter;
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong persistedCount = new AtomicLong();
+    private final AtomicLong discardedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private volatile long lastBatchDurationMillis;
+
+    private volatile BlockingQueue<CheckoutComPaymentEventObject> queue;
+    private volatile ExecutorService workers;
+    private volatile boolean running = true;
+
+    public DefaultCheckoutComWebhookIngestionService(final ConfigurationService configurationService,
+                                                      final ModelService modelService,
+                                                      final SessionService sessionService,
+                                                      final CheckoutComPaymentEventService checkoutComPaymentEventService,
+                                                      final Converter<CheckoutComPaymentEventObject, CheckoutComPaymentEventModel> checkoutComPaymentEventReverseConverter) {
+        this.configurationService = configurationService;
+        this.modelService = modelService;
+        this.sessionService = sessionService;
+        this.checkoutComPaymentEventService = checkoutComPaymentEventService;
+        this.checkoutComPaymentEventReverseConverter = checkoutComPaymentEventReverseConverter;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEnabled() {
+        return configurationService.getConfiguration().getBoolean(INGESTION_ENABLED, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComWebhookIngestionResult enqueue(final CheckoutComPaymentEventObject eventBodyData) {
+        if (!running) {
+            return CheckoutComWebhookIngestionResult.UNAVAILABLE;
+        }
+        final BlockingQueue<CheckoutComPaymentEventObject> ingestionQueue = getQueue();
+        if (!ingestionQueue.offer(eventBodyData)) {
+            rejectedCount.incrementAndGet();
+            LOG.warn("Webhook ingestion queue is full with [{}] events, rejecting the event.", ingestionQueue.size());
+            return CheckoutComWebhookIngestionResult.QUEUE_FULL;
+        }
+        acceptedCount.incrementAndGet();
+        peakQueueDepth.accumulateAndGet(ingestionQueue.size(), Math::max);
+        return CheckoutComWebhookIngestionResult.ACCEPTED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getRetryAfterSeconds() {
+        return configurationService.getConfiguration().getInt(INGESTION_RETRY_AFTER, DEFAULT_RETRY_AFTER);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComWebhookIngestionStats getStats() {
+        final CheckoutComWebhookIngestionStats stats = new CheckoutComWebhookIngestionStats();
+        final BlockingQueue<CheckoutComPaymentEventObject> ingestionQueue = queue;
+        stats.setEnabled(isEnabled());
+        stats.setRunning(running && workers != null);
+        stats.setQueueDepth(ingestionQueue != null ? ingestionQueue.size() : 0);
+        stats.setQueueCapacity(ingestionQueue != null ? ingestionQueue.size() + ingestionQueue.remainingCapacity() : getQueueCapacity());
+        stats.setPeakQueueDepth(peakQueueDepth.get());
+        stats.setAcceptedCount(acceptedCount.get());
+        stats.setRejectedCount(rejectedCount.get());
+        stats.setPersistedCount(persistedCount.get());
+        stats.setDiscardedCount(discardedCount.get());
+        stats.setFailedCount(failedCount.get());
+        stats.setBatchCount(batchCount.get());
+        stats.setLastBatchDurationMillis(lastBatchDurationMillis);
+        return stats;
+    }
+
+    /**
+     * Stops accepting events and gives the workers time to persist the ones already queued
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        final ExecutorService ingestionWorkers = workers;
+        if (ingestionWorkers != null) {
+            ingestionWorkers.shutdown();
+            final long timeout = configurationService.getConfiguration().getLong(INGESTION_SHUTDOWN_TIMEOUT, DEFAULT_SHUTDOWN_TIMEOUT);
+            if (!ingestionWorkers.awaitTermination(timeout, TimeUnit.SECONDS)) {
+                LOG.error("Webhook ingestion workers did not finish in [{}] seconds, [{}] queued events are lost.", timeout, queue.size());
+                ingestionWorkers.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Takes the next batch of queued events, waiting a short time for the first one, and persists it
+     *
+     * @return the number of events taken from the queue
+     * @throws InterruptedException if the worker is interrupted while waiting
+     */
+    protected int drainBatch() throws InterruptedException {
+        final BlockingQueue<CheckoutComPaymentEventObject> ingestionQueue = getQueue();
+        final CheckoutComPaymentEventObject first = ingestionQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        final List<CheckoutComPaymentEventObject> batch = new ArrayList<>();
+        batch.add(first);
+        ingestionQueue.drainTo(batch, getBatchSize() - 1);
+        persistBatch(batch);
+        return batch.size();
+    }
+
+    /**
+     * Converts the events and saves the allowed ones together. When the batch cannot be saved the events are saved one
+     * by one so a single invalid event does not lose the others.
+     *
+     * @param eventBodies the events to persist
+     */
+    protected void persistBatch(final List<CheckoutComPaymentEventObject> eventBodies) {
+        final long start = System.currentTimeMillis();
+        final List<CheckoutComPaymentEventModel> events = new ArrayList<>(eventBodies.size());
+        for (final CheckoutComPaymentEventObject eventBody : eventBodies) {
+            try {
+                final CheckoutComPaymentEventModel event = convertEvent(eventBody);
+                if (event != null) {
+                    events.add(event);
+                } else {
+                    discardedCount.incrementAndGet();
+                }
+            } catch (final RuntimeException e) {
+                failedCount.incrementAndGet();
+                LOG.error("Could not convert the webhook event, payload [{}].", eventBody.getPayLoad(), e);
+            }
+        }
+        if (!events.isEmpty()) {
+            try {
+                modelService.saveAll(events);
+                persistedCount.addAndGet(events.size());
+            } catch (final ModelSavingException e) {
+                LOG.warn("Could not save the batch of [{}] payment events, saving them one by one.", events.size(), e);
+                events.forEach(this::saveEvent);
+            }
+        }
+        batchCount.incrementAndGet();
+        lastBatchDurationMillis = System.currentTimeMillis() - start;
+    }
+
+    protected CheckoutComPaymentEventModel convertEvent(final CheckoutComPaymentEventObject eventBodyData) {
+        if (StringUtils.isBlank(eventBodyData.getType())) {
+            LOG.error("Webhook event without type, discarding it.");
+            return null;
+        }
+
+        final String siteId = checkoutComPaymentEventService.getSiteIdForTheEvent(eventBodyData);
+        if (!isEventTypeAllowed(eventBodyData.getType(), checkoutComPaymentEventService.getAllowedPaymentEventTypesForMerchant(siteId))) {
+            LOG.warn("Payment event of type [{}] with id [{}] not allowed for the site [{}].", eventBodyData.getType(), eventBodyData.getId(), siteId);
+            return null;
+        }
+        return checkoutComPaymentEventReverseConverter.convert(eventBodyData);
+    }
+
+    protected boolean isEventTypeAllowed(final String type, final Set<CheckoutComPaymentEventType> allowedPaymentEventsForMerchant) {
+        return !isEmpty(allowedPaymentEventsForMerchant) && allowedPaymentEventsForMerchant.stream().anyMatch(paymentEventType -> paymentEventType.getCode().equalsIgnoreCase(type));
+    }
+
+    protected void saveEvent(final CheckoutComPaymentEventModel event) {
+        try {
+            modelService.save(event);
+            persistedCount.incrementAndGet();
+        } catch (final ModelSavingException e) {
+            failedCount.incrementAndGet();
+            LOG.error("Could not save payment event with id [{}], payload [{}].", event.getEventId(), event.getPayload(), e);
+        }
+    }
+
+    protected BlockingQueue<CheckoutComPaymentEventObject> getQueue() {
+        if (queue == null) {
+            startIngestion();
+        }
+        return queue;
+    }
+
+    protected synchronized void startIngestion() {
+        if (queue != null) {
+            return;
+        }
+        final int workerCount = Math.max(1, configurationService.getConfiguration().getInt(INGESTION_WORKERS, DEFAULT_WORKERS));
+        final BlockingQueue<CheckoutComPaymentEventObject> ingestionQueue = new ArrayBlockingQueue<>(getQueueCapacity());
+        final ExecutorService ingestionWorkers = createWorkers(workerCount);
+        queue = ingestionQueue;
+        for (int i = 0; i < workerCount; i++) {
+            ingestionWorkers.execute(this::runWorker);
+        }
+        workers = ingestionWorkers;
+        LOG.info("Started [{}] webhook ingestion workers with a queue of [{}] events.", workerCount, ingestionQueue.remainingCapacity());
+    }
+
+    protected ExecutorService createWorkers(final int workerCount) {
+        return Executors.newFixedThreadPool(workerCount, new TenantAwareThreadFactory(Registry.getCurrentTenantNoFallback()));
+    }
+
+    protected void runWorker() {
+        final Session session = sessionService.createNewSession();
+        try {
+            while (running || !queue.isEmpty()) {
+                drainWithoutFailing();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sessionService.closeSession(session);
+        }
+    }
+
+    private void drainWithoutFailing() throws InterruptedException {
+        try {
+            drainBatch();
+        } catch (final RuntimeException e) {
+            failedCount.incrementAndGet();
+            LOG.error("Unexpected error while persisting webhook events.", e);
+        }
+    }
+
+    protected int getQueueCapacity() {
+        return configurationService.getConfiguration().getInt(INGESTION_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    protected int getBatchSize() {
+        return Math.max(1, configurationService.getConfiguration().getInt(INGESTION_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+    }
+}
@@ -1,5 +1,7 @@
 package com.checkout.hybris.events.validators;
 
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
+
 import javax.servlet.http.HttpServletRequest;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
@@ -10,12 +12,15 @@ import java.security.NoSuchAlgorithmException;
 public interface CheckoutComRequestEventValidator {
 
     /**
-     * Validates the event signature/Headers
+     * Validates the event signature/Headers. The signature is verified against the raw body as received, the parsed
+     * event is only used to find the site of the event.
      *
-     * @param eventBody    the event body
+     * @param request       the http request
+     * @param eventBody     the raw event body
+     * @param eventBodyData the event body already parsed
      * @return true if valid, false otherwise
      * @throws InvalidKeyException      secret key invalid
      * @throws NoSuchAlgorithmException algorithm not found
      */
-    boolean isRequestEventValid(final HttpServletRequest request, final String eventBody) throws NoSuchAlgorithmException, InvalidKeyException;
+    boolean isRequestEventValid(final HttpServletRequest request, final byte[] eventBody, final CheckoutComPaymentEventObject eventBodyData) throws NoSuchAlgorithmException, InvalidKeyException;
 }
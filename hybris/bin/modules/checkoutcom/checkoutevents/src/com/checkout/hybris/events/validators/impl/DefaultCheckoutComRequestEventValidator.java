@@ -4,9 +4,10 @@ import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurati
 import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
 import com.checkout.hybris.events.services.CheckoutComPaymentEventService;
 import com.checkout.hybris.events.validators.CheckoutComRequestEventValidator;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
 import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.HmacAlgorithms;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -15,22 +16,34 @@ import org.apache.logging.log4j.Logger;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import javax.servlet.http.HttpServletRequest;
-import java.lang.reflect.Type;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
- * Default implementation of {@link CheckoutComRequestEventValidator}
+ * Default implementation of {@link CheckoutComRequestEventValidator}. Every request thread keeps an initialised HMAC
+ * per site, which is only initialised again when the signature key of the site changes.
  */
 public class DefaultCheckoutComRequestEventValidator implements CheckoutComRequestEventValidator {
 
     protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComRequestEventValidator.class);
 
+    /**
+     * @deprecated the signature is now compared as decoded bytes, the body hash is no longer hex encoded
+     */
+    @Deprecated
     protected static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
 
     protected final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService;
     protected final CheckoutComPaymentEventService checkoutComPaymentEventService;
     protected final BaseSiteService baseSiteService;
+
+    private final ThreadLocal<Map<String, KeyedMac>> siteMacs = ThreadLocal.withInitial(HashMap::new);
+
     public DefaultCheckoutComRequestEventValidator(final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
                                                    final CheckoutComPaymentEventService checkoutComPaymentEventService,
                                                    final BaseSiteService baseSiteService) {
@@ -43,17 +56,14 @@ public class DefaultCheckoutComRequestEventValidator implements CheckoutComReque
      * {@inheritDoc}
      */
     @Override
-    public boolean isRequestEventValid(final HttpServletRequest request, final String eventBody) throws NoSuchAlgorithmException, InvalidKeyException {
+    public boolean isRequestEventValid(final HttpServletRequest request, final byte[] eventBody, final CheckoutComPaymentEventObject eventBodyData) throws NoSuchAlgorithmException, InvalidKeyException {
         final String ckoSignature = request.getHeader("cko-signature");
         final String eventAuthorizationHeaderKey = request.getHeader("authorization");
-        final Type type = new TypeToken<CheckoutComPaymentEventObject>() {/**/
-        }.getType();
-        final CheckoutComPaymentEventObject eventBodyData = new Gson().fromJson(eventBody, type);
         baseSiteService.setCurrentBaseSite(baseSiteService.getBaseSiteForUID(getSiteIdForTheEvent(eventBodyData)), false);
 
         LOG.debug("Received event authorization header: [{}]; ", eventAuthorizationHeaderKey);
         LOG.debug("Received event signature: [{}]; ", ckoSignature);
-        LOG.debug("Received event body: [{}]", eventBody);
+        LOG.debug("Received event body: [{}]", eventBodyData.getPayLoad());
 
         if (isNasAuthorizationHeaderActive() && isNasAuthorizationHeaderInvalid(eventAuthorizationHeaderKey)) {
             return false;
@@ -62,21 +72,46 @@ public class DefaultCheckoutComRequestEventValidator implements CheckoutComReque
         }
     }
 
-    protected boolean isCkoSignatureValid(final String ckoSignature, final String eventBody) throws InvalidKeyException, NoSuchAlgorithmException {
-        if (StringUtils.isBlank(ckoSignature) || StringUtils.isBlank(eventBody)) {
+    protected boolean isCkoSignatureValid(final String ckoSignature, final byte[] eventBody) throws InvalidKeyException, NoSuchAlgorithmException {
+        if (StringUtils.isBlank(ckoSignature) || eventBody == null || eventBody.length == 0) {
             LOG.error("ckoSignature or event body null.");
             return false;
         }
-        return ckoSignature.equalsIgnoreCase(createEventBodyHash(eventBody));
+        final byte[] signature;
+        try {
+            signature = Hex.decodeHex(ckoSignature.trim().toCharArray());
+        } catch (final DecoderException e) {
+            LOG.error("ckoSignature is not hex encoded.");
+            return false;
+        }
+        return MessageDigest.isEqual(signature, createEventBodyHash(eventBody));
     }
 
-    private String createEventBodyHash(final String eventBody) throws NoSuchAlgorithmException, InvalidKeyException {
-        final Mac hmac = Mac.getInstance(HmacAlgorithms.HMAC_SHA_256.getName());
+    protected byte[] createEventBodyHash(final byte[] eventBody) throws NoSuchAlgorithmException, InvalidKeyException {
+        return getSiteMac().doFinal(eventBody);
+    }
+
+    /**
+     * Returns the HMAC of the current site for the current thread, initialised again when the signature key changed
+     *
+     * @return the HMAC ready to hash the event body
+     * @throws InvalidKeyException      secret key invalid
+     * @throws NoSuchAlgorithmException algorithm not found
+     */
+    protected Mac getSiteMac() throws NoSuchAlgorithmException, InvalidKeyException {
         final byte[] secretPhrase = getSecretPhrase();
-        final SecretKeySpec secretKey = new SecretKeySpec(secretPhrase, HmacAlgorithms.HMAC_SHA_256.getName());
-        hmac.init(secretKey);
-        final byte[] bytes = hmac.doFinal(eventBody.getBytes());
-        return new String(convertBytesToHex(bytes));
+        final BaseSiteModel currentBaseSite = baseSiteService.getCurrentBaseSite();
+        final String siteUid = currentBaseSite != null ? currentBaseSite.getUid() : StringUtils.EMPTY;
+
+        final Map<String, KeyedMac> macs = siteMacs.get();
+        final KeyedMac keyedMac = macs.get(siteUid);
+        if (keyedMac != null && MessageDigest.isEqual(keyedMac.getSecretPhrase(), secretPhrase)) {
+            return keyedMac.getMac();
+        }
+        final Mac hmac = Mac.getInstance(HmacAlgorithms.HMAC_SHA_256.getName());
+        hmac.init(new SecretKeySpec(secretPhrase, HmacAlgorithms.HMAC_SHA_256.getName()));
+        macs.put(siteUid, new KeyedMac(secretPhrase, hmac));
+        return hmac;
     }
 
     private boolean isNasAuthorizationHeaderInvalid(final String eventAuthorizationHeaderKey) {
@@ -97,10 +132,14 @@ public class DefaultCheckoutComRequestEventValidator implements CheckoutComReque
     }
 
     private byte[] getSecretPhrase() {
-        return checkoutComMerchantConfigurationService.getSignatureKey().getBytes();
+        return checkoutComMerchantConfigurationService.getSignatureKey().getBytes(UTF_8);
     }
 
-    private char[] convertBytesToHex(final byte[] bytes) {
+    /**
+     * @deprecated the signature is now compared as decoded bytes, the body hash is no longer hex encoded
+     */
+    @Deprecated
+    protected char[] convertBytesToHex(final byte[] bytes) {
         final char[] hexChars = new char[bytes.length * 2];
         for (int j = 0; j < bytes.length; j++) {
             int v = bytes[j] & 0xFF;
@@ -109,4 +148,26 @@ public class DefaultCheckoutComRequestEventValidator implements CheckoutComReque
         }
         return hexChars;
     }
+
+    /**
+     * An HMAC together with the signature key it was initialised with
+     */
+    protected static final class KeyedMac {
+
+        private final byte[] secretPhrase;
+        private final Mac mac;
+
+        protected KeyedMac(final byte[] secretPhrase, final Mac mac) {
+            this.secretPhrase = secretPhrase;
+            this.mac = mac;
+        }
+
+        public byte[] getSecretPhrase() {
+            return secretPhrase;
+        }
+
+        public Mac getMac() {
+            return mac;
+        }
+    }
 }
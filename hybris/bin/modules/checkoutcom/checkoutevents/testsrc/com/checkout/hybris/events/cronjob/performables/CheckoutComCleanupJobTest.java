@@ -6,6 +6,7 @@ import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.cronjob.enums.CronJobResult;
 import de.hybris.platform.cronjob.enums.CronJobStatus;
 import de.hybris.platform.servicelayer.cronjob.PerformResult;
+import de.hybris.platform.servicelayer.model.ModelService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -14,6 +15,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @UnitTest
 @RunWith(MockitoJUnitRunner.class)
@@ -26,9 +28,13 @@ public class CheckoutComCleanupJobTest {
     private CheckoutComCleanupService checkoutComCleanupServiceMock;
     @Mock
     private CheckoutComCleanupCronJobModel checkoutComCleanupCronJobMock;
+    @Mock
+    private ModelService modelServiceMock;
 
     @Test
     public void perform_shouldCallCleanupService_andReturnSuccess() {
+        when(checkoutComCleanupServiceMock.doCleanUp(checkoutComCleanupCronJobMock)).thenReturn(true);
+
         final PerformResult result = testObj.perform(checkoutComCleanupCronJobMock);
 
         assertEquals(CronJobResult.SUCCESS, result.getResult());
@@ -36,4 +42,14 @@ public class CheckoutComCleanupJobTest {
 
         verify(checkoutComCleanupServiceMock).doCleanUp(checkoutComCleanupCronJobMock);
     }
+
+    @Test
+    public void perform_whenCleanupAborted_shouldReturnAborted() {
+        testObj.setModelService(modelServiceMock);
+
+        final PerformResult result = testObj.perform(checkoutComCleanupCronJobMock);
+
+        assertEquals(CronJobStatus.ABORTED, result.getStatus());
+        verify(modelServiceMock).refresh(checkoutComCleanupCronJobMock);
+    }
 }
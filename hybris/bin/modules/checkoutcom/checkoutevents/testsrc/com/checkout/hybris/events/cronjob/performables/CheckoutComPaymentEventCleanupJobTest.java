@@ -6,14 +6,15 @@ import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.cronjob.enums.CronJobResult;
 import de.hybris.platform.cronjob.enums.CronJobStatus;
 import de.hybris.platform.servicelayer.cronjob.PerformResult;
+import de.hybris.platform.servicelayer.model.ModelService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import static com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus.FAILED;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -21,8 +22,6 @@ import static org.mockito.Mockito.when;
 @RunWith(MockitoJUnitRunner.class)
 public class CheckoutComPaymentEventCleanupJobTest {
 
-    private static final int AGE_IN_DAYS = 10;
-
     @InjectMocks
     private CheckoutComPaymentEventCleanupJob testObj;
 
@@ -30,17 +29,33 @@ public class CheckoutComPaymentEventCleanupJobTest {
     private CheckoutComPaymentEventCleanupService checkoutComPaymentEventCleanupServiceMock;
     @Mock
     private CheckoutComPaymentEventCleanupCronJobModel checkoutComPaymentEventCleanupCronJobMock;
+    @Mock
+    private ModelService modelServiceMock;
 
     @Test
     public void perform() {
-        when(checkoutComPaymentEventCleanupCronJobMock.getPaymentEventStatus()).thenReturn(FAILED);
-        when(checkoutComPaymentEventCleanupCronJobMock.getAgeInDaysBeforeDeletion()).thenReturn(AGE_IN_DAYS);
+        when(checkoutComPaymentEventCleanupServiceMock.doCleanUp(checkoutComPaymentEventCleanupCronJobMock)).thenReturn(true);
 
         final PerformResult result = testObj.perform(checkoutComPaymentEventCleanupCronJobMock);
 
         assertEquals(CronJobResult.SUCCESS, result.getResult());
         assertEquals(CronJobStatus.FINISHED, result.getStatus());
 
-        verify(checkoutComPaymentEventCleanupServiceMock).doCleanUp(FAILED, AGE_IN_DAYS);
+        verify(checkoutComPaymentEventCleanupServiceMock).doCleanUp(checkoutComPaymentEventCleanupCronJobMock);
+    }
+
+    @Test
+    public void perform_WhenCleanupAborted_ShouldReturnAborted() {
+        testObj.setModelService(modelServiceMock);
+
+        final PerformResult result = testObj.perform(checkoutComPaymentEventCleanupCronJobMock);
+
+        assertEquals(CronJobStatus.ABORTED, result.getStatus());
+        verify(modelServiceMock).refresh(checkoutComPaymentEventCleanupCronJobMock);
+    }
+
+    @Test
+    public void isAbortable_ShouldReturnTrue() {
+        assertTrue(testObj.isAbortable());
     }
 }
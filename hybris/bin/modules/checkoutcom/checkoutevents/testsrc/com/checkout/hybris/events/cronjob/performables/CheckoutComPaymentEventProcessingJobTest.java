@@ -1,10 +1,9 @@
 package com.checkout.hybris.events.cronjob.performables;
 
-import com.checkout.hybris.events.daos.CheckoutComPaymentEventDao;
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventProcessingStats;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
-import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventProcessingCronJobModel;
-import com.checkout.hybris.events.services.CheckoutComPaymentEventProcessingService;
+import com.checkout.hybris.events.services.CheckoutComPartitionedPaymentEventProcessingService;
 import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.cronjob.enums.CronJobResult;
 import de.hybris.platform.cronjob.enums.CronJobStatus;
@@ -22,6 +21,7 @@ import java.util.HashSet;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @UnitTest
@@ -34,13 +34,9 @@ public class CheckoutComPaymentEventProcessingJobTest {
     private CheckoutComPaymentEventProcessingJob testObj;
 
     @Mock
-    private CheckoutComPaymentEventDao checkoutComPaymentEventDaoMock;
-    @Mock
-    private CheckoutComPaymentEventProcessingService checkoutComPaymentEventProcessingServiceMock;
+    private CheckoutComPartitionedPaymentEventProcessingService checkoutComPartitionedPaymentEventProcessingServiceMock;
     @Mock
     private CheckoutComPaymentEventProcessingCronJobModel checkoutComPaymentEventCronJobMock;
-    @Mock
-    private CheckoutComPaymentEventModel checkoutComPaymentEventMock;
 
     @Test
     public void perform_WhenJobHasNoEventTypes_ShouldAbort() {
@@ -50,18 +46,19 @@ public class CheckoutComPaymentEventProcessingJobTest {
 
         assertEquals(CronJobResult.ERROR, result.getResult());
         assertEquals(CronJobStatus.ABORTED, result.getStatus());
+        verifyNoInteractions(checkoutComPartitionedPaymentEventProcessingServiceMock);
     }
 
     @Test
     public void perform_WhenEventTypesDefined_ShouldFindAndProcessEventsForTheType() {
         when(checkoutComPaymentEventCronJobMock.getCheckoutComPaymentEventTypes()).thenReturn(EVENT_TYPES);
         when(checkoutComPaymentEventCronJobMock.getPaymentTransactionType()).thenReturn(PaymentTransactionType.CAPTURE);
-        when(checkoutComPaymentEventDaoMock.findPaymentEventToProcessForTypes(EVENT_TYPES)).thenReturn(Collections.singletonList(checkoutComPaymentEventMock));
+        when(checkoutComPartitionedPaymentEventProcessingServiceMock.processPendingEvents(EVENT_TYPES, PaymentTransactionType.CAPTURE)).thenReturn(new CheckoutComPaymentEventProcessingStats());
 
         final PerformResult result = testObj.perform(checkoutComPaymentEventCronJobMock);
 
         assertEquals(CronJobResult.SUCCESS, result.getResult());
         assertEquals(CronJobStatus.FINISHED, result.getStatus());
-        verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(Collections.singletonList(checkoutComPaymentEventMock), PaymentTransactionType.CAPTURE);
+        verify(checkoutComPartitionedPaymentEventProcessingServiceMock).processPendingEvents(EVENT_TYPES, PaymentTransactionType.CAPTURE);
     }
 }
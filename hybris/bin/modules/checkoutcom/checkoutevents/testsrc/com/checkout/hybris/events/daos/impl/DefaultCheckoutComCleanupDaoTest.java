@@ -1,7 +1,9 @@
 package com.checkout.hybris.events.daos.impl;
 
 import com.checkout.hybris.core.model.CheckoutComCleanupCronJobModel;
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
 import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
 import de.hybris.platform.core.model.ItemModel;
 import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
 import de.hybris.platform.servicelayer.search.FlexibleSearchService;
@@ -12,6 +14,7 @@ import org.junit.runner.RunWith;
 import org.mockito.*;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +32,16 @@ public class DefaultCheckoutComCleanupDaoTest {
     private static final String QUERY = "SELECT {" + ItemModel.PK + "}" +
             " FROM {" + ITEM_TYPE_CODE + "}" +
             " WHERE {" + ItemModel.CREATIONTIME + "} < ?" + DATE;
+    private static final String STATUS = "status";
+    private static final String PAGE_QUERY = "SELECT {" + ItemModel.PK + "}" +
+            " FROM {" + ITEM_TYPE_CODE + "!}" +
+            " WHERE {" + ItemModel.CREATIONTIME + "} < ?" + DATE +
+            " AND {" + STATUS + "} = ?" + STATUS +
+            " AND {" + ItemModel.PK + "} > ?lastPk" +
+            " ORDER BY {" + ItemModel.PK + "} ASC";
+    private static final int PAGE_SIZE = 100;
+    private static final PK LAST_PK = PK.fromLong(10L);
+    private static final PK PK_1 = PK.fromLong(11L);
 
     @Spy
     @InjectMocks
@@ -64,4 +77,27 @@ public class DefaultCheckoutComCleanupDaoTest {
         assertThat(query.getQuery()).isEqualTo(QUERY);
         assertThat(query.getQueryParameters()).containsExactly(Map.entry(DATE, dateTime.minusSeconds(AGE_IN_SECONDS).toDate()));
     }
+
+    @Test
+    public void findPksToCleanup_shouldQueryTheNextPageOfPksAfterTheLastPk() {
+        final Date createdBefore = new Date();
+        final CheckoutComItemRemovalRequest request = new CheckoutComItemRemovalRequest();
+        request.setItemTypeCode(ITEM_TYPE_CODE);
+        request.setCreatedBefore(createdBefore);
+        request.setAttributeValues(Map.of(STATUS, "FAILED"));
+        request.setPageSize(PAGE_SIZE);
+        request.setDirectDeletion(true);
+        when(flexibleSearchServiceMock.search(any(FlexibleSearchQuery.class))).thenReturn(searchResultMock);
+        when(searchResultMock.getResult()).thenReturn(List.of(PK_1));
+
+        final List<PK> result = testObj.findPksToCleanup(request, LAST_PK);
+
+        assertThat(result).containsExactly(PK_1);
+        verify(flexibleSearchServiceMock).search(flexibleSearchQueryArgumentCaptor.capture());
+        final FlexibleSearchQuery query = flexibleSearchQueryArgumentCaptor.getValue();
+        assertThat(query.getQuery()).isEqualTo(PAGE_QUERY);
+        assertThat(query.getQueryParameters()).containsOnly(Map.entry(DATE, createdBefore), Map.entry(STATUS, "FAILED"), Map.entry("lastPk", LAST_PK));
+        assertThat(query.getCount()).isEqualTo(PAGE_SIZE);
+        assertThat(query.getResultClassList()).containsExactly(PK.class);
+    }
 }
@@ -2,6 +2,7 @@ package com.checkout.hybris.events.daos.impl;
 
 import com.checkout.hybris.events.daos.CheckoutComPaymentEventDao;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 import de.hybris.bootstrap.annotations.IntegrationTest;
 import de.hybris.platform.servicelayer.ServicelayerTransactionalTest;
@@ -20,9 +21,11 @@ import static com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus.FAI
 import static com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus.PENDING;
 import static com.checkout.hybris.events.enums.CheckoutComPaymentEventType.PAYMENT_APPROVED;
 import static com.checkout.hybris.events.enums.CheckoutComPaymentEventType.PAYMENT_CAPTURED;
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 @IntegrationTest
 public class DefaultCheckoutComPaymentEventDaoIntegrationTest extends ServicelayerTransactionalTest {
@@ -71,6 +74,42 @@ public class DefaultCheckoutComPaymentEventDaoIntegrationTest extends Servicelay
         assertSame(pendingEvent, results.get(0));
     }
 
+    @Test
+    public void findPaymentIdsToProcessForTypes_ShouldPageThroughThePaymentIds() {
+        createPaymentEvent("event6", PAYMENT_CAPTURED.toString(), PENDING, PAYMENT_ID_1, null);
+        createPaymentEvent("event7", PAYMENT_CAPTURED.toString(), PENDING, null, null);
+        final HashSet<CheckoutComPaymentEventType> eventTypes = new HashSet<>(asList(PAYMENT_APPROVED, PAYMENT_CAPTURED));
+
+        final List<String> firstPage = checkoutComPaymentEventDao.findPaymentIdsToProcessForTypes(eventTypes, null, 1);
+        final List<String> secondPage = checkoutComPaymentEventDao.findPaymentIdsToProcessForTypes(eventTypes, firstPage.get(0), 1);
+        final List<String> thirdPage = checkoutComPaymentEventDao.findPaymentIdsToProcessForTypes(eventTypes, secondPage.get(0), 1);
+
+        assertEquals(singletonList(PAYMENT_ID_1), firstPage);
+        assertEquals(singletonList(PAYMENT_ID_2), secondPage);
+        assertTrue(thirdPage.isEmpty());
+    }
+
+    @Test
+    public void findPaymentEventsToProcessForPaymentIds_ShouldGetAllThePendingEventsOfThePaymentsByCreationTime() {
+        final Date tomorrow = Date.from(LocalDate.now().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        final CheckoutComPaymentEventModel laterEvent = createPaymentEvent("event6", PAYMENT_APPROVED.toString(), PENDING, PAYMENT_ID_1, tomorrow);
+        final HashSet<CheckoutComPaymentEventType> eventTypes = new HashSet<>(singletonList(PAYMENT_APPROVED));
+
+        final List<CheckoutComPaymentEventModel> results = checkoutComPaymentEventDao.findPaymentEventsToProcessForPaymentIds(eventTypes, asList(PAYMENT_ID_1, PAYMENT_ID_4));
+
+        assertEquals(asList(pendingEvent, laterEvent), results);
+    }
+
+    @Test
+    public void findPaymentEventsToProcessWithoutPaymentIdForTypes_ShouldGetJustThePendingEventsWithoutPaymentId() {
+        final CheckoutComPaymentEventModel eventWithoutPaymentId = createPaymentEvent("event6", PAYMENT_APPROVED.toString(), PENDING, null, null);
+        createPaymentEvent("event7", PAYMENT_APPROVED.toString(), FAILED, null, null);
+
+        final List<CheckoutComPaymentEventModel> results = checkoutComPaymentEventDao.findPaymentEventsToProcessWithoutPaymentIdForTypes(new HashSet<>(singletonList(PAYMENT_APPROVED)));
+
+        assertEquals(singletonList(eventWithoutPaymentId), results);
+    }
+
     @Test
     public void findPaymentEventsByStatusCreatedBeforeDate_ShouldGetEventOlderThanSpecified() {
         final List<CheckoutComPaymentEventModel> results = checkoutComPaymentEventDao.findPaymentEventsByStatusCreatedBeforeDate(FAILED, new Date());
@@ -21,6 +21,8 @@ import static com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus.FAI
 import static com.checkout.hybris.events.enums.CheckoutComPaymentEventType.PAYMENT_APPROVED;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,6 +31,8 @@ import static org.mockito.Mockito.when;
 public class DefaultCheckoutComPaymentEventDaoTest {
 
     private static final Set<CheckoutComPaymentEventType> EVENT_TYPES = new HashSet<>(asList(PAYMENT_APPROVED));
+    private static final int PAGE_SIZE = 100;
+    private static final String PAYMENT_ID = "pay_1";
 
     @InjectMocks
     private DefaultCheckoutComPaymentEventDao testObj;
@@ -66,6 +70,66 @@ public class DefaultCheckoutComPaymentEventDaoTest {
         assertEquals(asList(PAYMENT_APPROVED.getCode()), value.getQueryParameters().get("checkoutComPaymentEventTypes"));
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void findPaymentIdsToProcessForTypes_WhenPageSizeIsNotPositive_ShouldThrowException() {
+        testObj.findPaymentIdsToProcessForTypes(EVENT_TYPES, null, 0);
+    }
+
+    @Test
+    public void findPaymentIdsToProcessForTypes_WhenFirstPage_ShouldReturnTheFirstPaymentIds() {
+        when(searchResultMock.getResult()).thenReturn(Collections.singletonList(PAYMENT_ID));
+
+        final List<String> result = testObj.findPaymentIdsToProcessForTypes(EVENT_TYPES, null, PAGE_SIZE);
+
+        assertEquals(Collections.singletonList(PAYMENT_ID), result);
+
+        final FlexibleSearchQuery value = queryArgumentCaptor.getValue();
+        assertEquals(PAGE_SIZE, value.getCount());
+        assertEquals(Collections.singletonList(String.class), value.getResultClassList());
+        assertFalse(value.getQuery().contains("?lastPaymentId"));
+        assertTrue(value.getQuery().contains("{pe.paymentId} IS NOT NULL"));
+        assertTrue(value.getQuery().endsWith("ORDER BY {pe.paymentId} ASC"));
+        assertEquals(asList(PAYMENT_APPROVED.getCode()), value.getQueryParameters().get("checkoutComPaymentEventTypes"));
+    }
+
+    @Test
+    public void findPaymentIdsToProcessForTypes_WhenNextPage_ShouldStartAfterTheLastPaymentId() {
+        testObj.findPaymentIdsToProcessForTypes(EVENT_TYPES, PAYMENT_ID, PAGE_SIZE);
+
+        final FlexibleSearchQuery value = queryArgumentCaptor.getValue();
+        assertTrue(value.getQuery().contains("?lastPaymentId"));
+        assertEquals(PAYMENT_ID, value.getQueryParameters().get("lastPaymentId"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void findPaymentEventsToProcessForPaymentIds_WhenPaymentIdsAreEmpty_ShouldThrowException() {
+        testObj.findPaymentEventsToProcessForPaymentIds(EVENT_TYPES, Collections.emptyList());
+    }
+
+    @Test
+    public void findPaymentEventsToProcessForPaymentIds_ShouldReturnTheEventsOfThePaymentsByCreationTime() {
+        final List<CheckoutComPaymentEventModel> result = testObj.findPaymentEventsToProcessForPaymentIds(EVENT_TYPES, Collections.singletonList(PAYMENT_ID));
+
+        assertEquals(checkoutComPaymentEventModelMock, result.get(0));
+
+        final FlexibleSearchQuery value = queryArgumentCaptor.getValue();
+        assertTrue(value.getQuery().endsWith("ORDER BY {pe.creationtime} ASC, {pe.pk} ASC"));
+        assertEquals(Collections.singletonList(PAYMENT_ID), value.getQueryParameters().get("paymentIds"));
+        assertEquals(asList(PAYMENT_APPROVED.getCode()), value.getQueryParameters().get("checkoutComPaymentEventTypes"));
+    }
+
+    @Test
+    public void findPaymentEventsToProcessWithoutPaymentIdForTypes_ShouldReturnTheEventsWithoutPaymentIdByCreationTime() {
+        final List<CheckoutComPaymentEventModel> result = testObj.findPaymentEventsToProcessWithoutPaymentIdForTypes(EVENT_TYPES);
+
+        assertEquals(checkoutComPaymentEventModelMock, result.get(0));
+
+        final FlexibleSearchQuery value = queryArgumentCaptor.getValue();
+        assertTrue(value.getQuery().contains("{pe.paymentId} IS NULL"));
+        assertTrue(value.getQuery().endsWith("ORDER BY {pe.creationtime} ASC, {pe.pk} ASC"));
+        assertEquals(asList(PAYMENT_APPROVED.getCode()), value.getQueryParameters().get("checkoutComPaymentEventTypes"));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void findPaymentEventsByStatusCreatedBeforeDate_WhenEventStatusIsNull_ShouldThrowException() {
         testObj.findPaymentEventsByStatusCreatedBeforeDate(null, new Date());
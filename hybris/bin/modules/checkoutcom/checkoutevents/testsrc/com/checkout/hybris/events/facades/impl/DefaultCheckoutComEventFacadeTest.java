@@ -2,8 +2,6 @@ package com.checkout.hybris.events.facades.impl;
 
 import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
 import com.checkout.hybris.events.payments.CheckoutComPaymentEvent;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.servicelayer.event.EventService;
 import org.junit.Test;
@@ -13,16 +11,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.lang.reflect.Type;
-
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.verify;
 
 @UnitTest
 @RunWith(MockitoJUnitRunner.class)
 public class DefaultCheckoutComEventFacadeTest {
 
-    private static final String EVENT_BODY = "{body:'body'}";
+    private static final String EVENT_BODY = "{id:'evt_1',type:'payment_approved',data:{id:'pay_1'}}";
 
     @InjectMocks
     private DefaultCheckoutComEventFacade testObj;
@@ -33,21 +30,38 @@ public class DefaultCheckoutComEventFacadeTest {
     private ArgumentCaptor<CheckoutComPaymentEvent> eventArgumentCaptor = ArgumentCaptor.forClass(CheckoutComPaymentEvent.class);
 
     @Test(expected = IllegalArgumentException.class)
-    public void publishPaymentEvent_WhenNullBody_ShouldThrowException() {
-        testObj.publishPaymentEvent(null);
+    public void parsePaymentEvent_WhenNullBody_ShouldThrowException() {
+        testObj.parsePaymentEvent(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parsePaymentEvent_WhenBodyIsNotJson_ShouldThrowException() {
+        testObj.parsePaymentEvent("{not json");
     }
 
     @Test
-    public void publishPaymentEvent_WhenValidBody_ShouldPublishEvent() {
-        testObj.publishPaymentEvent(EVENT_BODY);
+    public void parsePaymentEvent_WhenValidBody_ShouldReturnTheEventWithTheBodyAsPayload() {
+        final CheckoutComPaymentEventObject result = testObj.parsePaymentEvent(EVENT_BODY);
 
-        verify(eventServiceMock).publishEvent(eventArgumentCaptor.capture());
+        assertEquals("evt_1", result.getId());
+        assertEquals("payment_approved", result.getType());
+        assertEquals("pay_1", result.getData().getId());
+        assertEquals(EVENT_BODY, result.getPayLoad());
+    }
 
-        final Type type = new TypeToken<CheckoutComPaymentEventObject>() {/**/
-        }.getType();
-        final CheckoutComPaymentEventObject eventBodyData = new Gson().fromJson(EVENT_BODY, type);
-        eventBodyData.setPayLoad(EVENT_BODY);
+    @Test(expected = IllegalArgumentException.class)
+    public void publishPaymentEvent_WhenNullEvent_ShouldThrowException() {
+        testObj.publishPaymentEvent(null);
+    }
 
+    @Test
+    public void publishPaymentEvent_WhenValidEvent_ShouldPublishEvent() {
+        final CheckoutComPaymentEventObject eventBodyData = testObj.parsePaymentEvent(EVENT_BODY);
+
+        testObj.publishPaymentEvent(eventBodyData);
+
+        verify(eventServiceMock).publishEvent(eventArgumentCaptor.capture());
+        assertSame(eventBodyData, eventArgumentCaptor.getValue().getEventBody());
         assertEquals(EVENT_BODY, eventArgumentCaptor.getValue().getEventBody().getPayLoad());
     }
 }
@@ -1,10 +1,9 @@
 package com.checkout.hybris.events.services.impl;
 
 import com.checkout.hybris.core.model.CheckoutComCleanupCronJobModel;
-import com.checkout.hybris.events.daos.CheckoutComCleanupDao;
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
+import com.checkout.hybris.events.services.CheckoutComItemRemovalService;
 import de.hybris.bootstrap.annotations.UnitTest;
-import de.hybris.platform.core.model.ItemModel;
-import de.hybris.platform.servicelayer.model.ModelService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
@@ -13,11 +12,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,33 +26,48 @@ import static org.mockito.Mockito.when;
 public class DefaultCheckoutComCleanupServiceTest {
 
     private static final int BATCH_SIZE = 2;
+    private static final int AGE_IN_SECONDS = 864000;
+    private static final int MAX_ROWS_PER_SECOND = 100;
+    private static final String ITEM_TYPE_CODE = "CheckoutComACHConsent";
 
     @InjectMocks
     private DefaultCheckoutComCleanupService testObj;
 
     @Mock
-    private ModelService modelServiceMock;
-    @Mock
-    private CheckoutComCleanupDao checkoutComCleanupDaoMock;
-
-    @Mock
-    private ItemModel item1Mock, item2Mock;
+    private CheckoutComItemRemovalService checkoutComItemRemovalServiceMock;
     @Mock
     private CheckoutComCleanupCronJobModel checkoutComCleanupCronJobMock;
 
     @Captor
-    private ArgumentCaptor<List<ItemModel>> itemModelArgumentCaptor;
+    private ArgumentCaptor<CheckoutComItemRemovalRequest> requestArgumentCaptor;
 
     @Test
-    public void doCleanUp_WhenItemTypeCodeAndAgeGiven_ShouldFindItemsAndRemoveThem() {
+    public void doCleanUp_WhenItemTypeCodeAndAgeGiven_ShouldRemoveTheItemsPageByPage() {
+        when(checkoutComCleanupCronJobMock.getItemTypeCode()).thenReturn(ITEM_TYPE_CODE);
+        when(checkoutComCleanupCronJobMock.getItemRemovalAge()).thenReturn(AGE_IN_SECONDS);
         when(checkoutComCleanupCronJobMock.getBatchSize()).thenReturn(BATCH_SIZE);
-        when(checkoutComCleanupDaoMock.findItemsToCleanup(checkoutComCleanupCronJobMock)).thenReturn(new ArrayList<>(Arrays.asList(item1Mock, item2Mock)));
+        when(checkoutComCleanupCronJobMock.getMaxRowsPerSecond()).thenReturn(MAX_ROWS_PER_SECOND);
+        when(checkoutComCleanupCronJobMock.getDirectDeletion()).thenReturn(Boolean.TRUE);
+        when(checkoutComItemRemovalServiceMock.removeItems(eq(checkoutComCleanupCronJobMock), any(CheckoutComItemRemovalRequest.class))).thenReturn(true);
 
-        testObj.doCleanUp(checkoutComCleanupCronJobMock);
+        final boolean result = testObj.doCleanUp(checkoutComCleanupCronJobMock);
 
-        verify(modelServiceMock).removeAll(itemModelArgumentCaptor.capture());
+        assertThat(result).isTrue();
+        verify(checkoutComItemRemovalServiceMock).removeItems(eq(checkoutComCleanupCronJobMock), requestArgumentCaptor.capture());
+        final CheckoutComItemRemovalRequest request = requestArgumentCaptor.getValue();
+        assertThat(request.getItemTypeCode()).isEqualTo(ITEM_TYPE_CODE);
+        assertThat(request.getPageSize()).isEqualTo(BATCH_SIZE);
+        assertThat(request.getMaxRowsPerSecond()).isEqualTo(MAX_ROWS_PER_SECOND);
+        assertThat(request.isDirectDeletion()).isTrue();
+        assertThat(request.getAttributeValues()).isNull();
+        final long ageInSeconds = TimeUnit.MILLISECONDS.toSeconds(new Date().getTime() - request.getCreatedBefore().getTime());
+        assertThat(ageInSeconds).isBetween((long) AGE_IN_SECONDS, AGE_IN_SECONDS + 5L);
+    }
+
+    @Test
+    public void doCleanUp_WhenRemovalAborted_ShouldReturnFalse() {
+        when(checkoutComCleanupCronJobMock.getItemRemovalAge()).thenReturn(AGE_IN_SECONDS);
 
-        final List<ItemModel> removedItems = itemModelArgumentCaptor.getValue();
-        assertThat(removedItems).containsExactlyInAnyOrder(item1Mock, item2Mock);
+        assertThat(testObj.doCleanUp(checkoutComCleanupCronJobMock)).isFalse();
     }
 }
@@ -0,0 +1,158 @@
+package com.checkout.hybris.events.services.impl;
+
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
+import com.checkout.hybris.events.daos.CheckoutComCleanupDao;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.cronjob.model.CronJobModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.type.TypeService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.checkout.hybris.events.services.impl.DefaultCheckoutComItemRemovalService.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComItemRemovalServiceTest {
+
+    private static final String ITEM_TYPE_CODE = "CheckoutComPaymentEvent";
+    private static final int PAGE_SIZE = 2;
+    private static final PK PK_1 = PK.fromLong(1L);
+    private static final PK PK_2 = PK.fromLong(2L);
+    private static final PK PK_3 = PK.fromLong(3L);
+
+    private DefaultCheckoutComItemRemovalService testObj;
+
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private TypeService typeServiceMock;
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private CheckoutComCleanupDao checkoutComCleanupDaoMock;
+    @Mock
+    private TransactionOperations transactionTemplateMock;
+    @Mock
+    private CronJobModel cronJobMock;
+    @Mock
+    private ItemModel item1Mock, item2Mock, item3Mock;
+
+    private CheckoutComItemRemovalRequest request;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        testObj = spy(new DefaultCheckoutComItemRemovalService(modelServiceMock, typeServiceMock, configurationServiceMock,
+                checkoutComCleanupDaoMock, transactionTemplateMock));
+        lenient().doNothing().when(testObj).pause(anyLong());
+
+        request = new CheckoutComItemRemovalRequest();
+        request.setItemTypeCode(ITEM_TYPE_CODE);
+        request.setCreatedBefore(new Date());
+        request.setPageSize(PAGE_SIZE);
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(MAX_ROWS_PER_SECOND, DEFAULT_MAX_ROWS_PER_SECOND)).thenReturn(DEFAULT_MAX_ROWS_PER_SECOND);
+        lenient().when(transactionTemplateMock.execute(any())).thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().when(checkoutComCleanupDaoMock.findPksToCleanup(request, null)).thenReturn(List.of(PK_1, PK_2));
+        lenient().when(checkoutComCleanupDaoMock.findPksToCleanup(request, PK_2)).thenReturn(List.of(PK_3));
+        lenient().when(modelServiceMock.get(PK_1)).thenReturn(item1Mock);
+        lenient().when(modelServiceMock.get(PK_2)).thenReturn(item2Mock);
+        lenient().when(modelServiceMock.get(PK_3)).thenReturn(item3Mock);
+    }
+
+    @Test
+    public void removeItems_ShouldRemoveEveryPageAndCheckpointItsLastPk() {
+        final boolean result = testObj.removeItems(cronJobMock, request);
+
+        assertThat(result).isTrue();
+        final InOrder inOrder = inOrder(modelServiceMock);
+        inOrder.verify(modelServiceMock).removeAll(List.of(item1Mock, item2Mock));
+        inOrder.verify(modelServiceMock).setAttributeValue(cronJobMock, LAST_REMOVED_PK, PK_2.getLong());
+        inOrder.verify(modelServiceMock).removeAll(List.of(item3Mock));
+        inOrder.verify(modelServiceMock).setAttributeValue(cronJobMock, LAST_REMOVED_PK, PK_3.getLong());
+        verify(checkoutComCleanupDaoMock, never()).findPksToCleanup(request, PK_3);
+    }
+
+    @Test
+    public void removeItems_WhenCheckpointed_ShouldResumeAfterTheLastRemovedPk() {
+        when(modelServiceMock.getAttributeValue(cronJobMock, LAST_REMOVED_PK)).thenReturn(PK_2.getLong(), PK_3.getLong());
+
+        testObj.removeItems(cronJobMock, request);
+
+        verify(checkoutComCleanupDaoMock, never()).findPksToCleanup(request, null);
+        verify(modelServiceMock).removeAll(List.of(item3Mock));
+        verify(modelServiceMock).setAttributeValue(cronJobMock, LAST_REMOVED_PK, null);
+    }
+
+    @Test
+    public void removeItems_WhenCronJobAborted_ShouldStopAfterTheCurrentPage() {
+        when(cronJobMock.getRequestAbort()).thenReturn(Boolean.TRUE);
+
+        final boolean result = testObj.removeItems(cronJobMock, request);
+
+        assertThat(result).isFalse();
+        verify(modelServiceMock).removeAll(List.of(item1Mock, item2Mock));
+        verify(checkoutComCleanupDaoMock, never()).findPksToCleanup(request, PK_2);
+        verify(modelServiceMock, never()).setAttributeValue(cronJobMock, LAST_REMOVED_PK, null);
+    }
+
+    @Test
+    public void removeItems_WhenDirectDeletion_ShouldDeleteThePagesWithoutLoadingTheItems() {
+        request.setDirectDeletion(true);
+        doNothing().when(testObj).deleteDirectly(eq(ITEM_TYPE_CODE), anyList());
+        doNothing().when(testObj).invalidateCache(anyList());
+
+        testObj.removeItems(cronJobMock, request);
+
+        verify(testObj).deleteDirectly(ITEM_TYPE_CODE, List.of(PK_1, PK_2));
+        verify(testObj).deleteDirectly(ITEM_TYPE_CODE, List.of(PK_3));
+        verify(testObj).invalidateCache(List.of(PK_3));
+        verify(modelServiceMock, never()).removeAll(anyList());
+    }
+
+    @Test
+    public void removeItems_WhenRowsPerSecondLimited_ShouldPauseBetweenPages() throws InterruptedException {
+        request.setMaxRowsPerSecond(1);
+
+        testObj.removeItems(cronJobMock, request);
+
+        verify(testObj, times(2)).pause(anyLong());
+    }
+
+    @Test
+    public void throttle_WhenNoLimit_ShouldNotPause() throws InterruptedException {
+        assertThat(testObj.throttle(1000L, System.nanoTime(), 0)).isTrue();
+
+        verify(testObj, never()).pause(anyLong());
+    }
+
+    @Test
+    public void throttle_WhenInterrupted_ShouldReturnFalse() throws InterruptedException {
+        doThrow(new InterruptedException()).when(testObj).pause(anyLong());
+
+        assertThat(testObj.throttle(10L, System.nanoTime(), 1)).isFalse();
+        assertThat(Thread.interrupted()).isTrue();
+    }
+}
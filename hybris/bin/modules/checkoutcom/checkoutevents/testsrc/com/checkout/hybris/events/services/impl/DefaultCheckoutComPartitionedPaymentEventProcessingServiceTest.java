@@ -0,0 +1,209 @@
+package com.checkout.hybris.events.services.impl;
+
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventPartitionStats;
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventProcessingStats;
+import com.checkout.hybris.events.daos.CheckoutComPaymentEventDao;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import com.checkout.hybris.events.services.CheckoutComPaymentEventProcessingService;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.model.user.UserModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.user.UserService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.checkout.hybris.events.services.impl.DefaultCheckoutComPartitionedPaymentEventProcessingService.*;
+import static de.hybris.platform.payment.enums.PaymentTransactionType.CAPTURE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComPartitionedPaymentEventProcessingServiceTest {
+
+    private static final Set<CheckoutComPaymentEventType> EVENT_TYPES = Collections.singleton(CheckoutComPaymentEventType.PAYMENT_CAPTURED);
+    private static final String PAYMENT_ID_1 = "pay_1";
+    private static final String PAYMENT_ID_2 = "pay_2";
+    private static final int PAGE_SIZE = 10;
+    private static final long ONE_MINUTE = 60000L;
+
+    private DefaultCheckoutComPartitionedPaymentEventProcessingService testObj;
+    private ExecutorService workers;
+
+    @Mock
+    private CheckoutComPaymentEventDao checkoutComPaymentEventDaoMock;
+    @Mock
+    private CheckoutComPaymentEventProcessingService checkoutComPaymentEventProcessingServiceMock;
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private SessionService sessionServiceMock;
+    @Mock
+    private UserService userServiceMock;
+    @Mock
+    private UserModel userMock;
+    @Mock
+    private Session sessionMock;
+    @Mock
+    private CheckoutComPaymentEventModel event1Mock, event2Mock, event3Mock;
+
+    @Before
+    public void setUp() {
+        testObj = spy(new DefaultCheckoutComPartitionedPaymentEventProcessingService(checkoutComPaymentEventDaoMock, checkoutComPaymentEventProcessingServiceMock,
+                configurationServiceMock, modelServiceMock, sessionServiceMock, userServiceMock));
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(PROCESSING_WORKERS, DEFAULT_WORKERS)).thenReturn(1);
+        lenient().when(configurationMock.getInt(PROCESSING_PAGE_SIZE, DEFAULT_PAGE_SIZE)).thenReturn(PAGE_SIZE);
+        lenient().when(userServiceMock.getCurrentUser()).thenReturn(userMock);
+        lenient().when(sessionServiceMock.createNewSession()).thenReturn(sessionMock);
+
+        lenient().when(event1Mock.getPaymentId()).thenReturn(PAYMENT_ID_1);
+        lenient().when(event2Mock.getPaymentId()).thenReturn(PAYMENT_ID_2);
+        lenient().when(event3Mock.getPaymentId()).thenReturn(PAYMENT_ID_1);
+        lenient().when(event1Mock.getCreationtime()).thenReturn(new Date(System.currentTimeMillis() - ONE_MINUTE));
+        lenient().when(checkoutComPaymentEventDaoMock.findPaymentIdsToProcessForTypes(EVENT_TYPES, null, PAGE_SIZE)).thenReturn(asList(PAYMENT_ID_1, PAYMENT_ID_2));
+        lenient().when(checkoutComPaymentEventDaoMock.findPaymentEventsToProcessForPaymentIds(EVENT_TYPES, asList(PAYMENT_ID_1, PAYMENT_ID_2)))
+                .thenReturn(asList(event1Mock, event2Mock, event3Mock));
+    }
+
+    @After
+    public void tearDown() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void processPendingEvents_WhenSingleWorker_ShouldProcessTheEventsOfEachPaymentInOrderInTheCallingThread() {
+        final CheckoutComPaymentEventProcessingStats stats = testObj.processPendingEvents(EVENT_TYPES, CAPTURE);
+
+        verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(asList(event1Mock, event3Mock), CAPTURE);
+        verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(singletonList(event2Mock), CAPTURE);
+        verify(testObj, never()).createWorkers(anyInt());
+        verifyNoInteractions(sessionServiceMock);
+        assertThat(stats.getPageCount()).isEqualTo(1);
+        assertThat(stats.getEventCount()).isEqualTo(3L);
+        assertThat(stats.getPartitionCount()).isEqualTo(2L);
+        assertThat(stats.getFailedPartitionCount()).isZero();
+    }
+
+    @Test
+    public void processPendingEvents_WhenPageIsFull_ShouldReadTheEventsOfTheNextPaymentsAfterTheLastPaymentId() {
+        when(configurationMock.getInt(PROCESSING_PAGE_SIZE, DEFAULT_PAGE_SIZE)).thenReturn(1);
+        when(checkoutComPaymentEventDaoMock.findPaymentIdsToProcessForTypes(EVENT_TYPES, null, 1)).thenReturn(singletonList(PAYMENT_ID_1));
+        when(checkoutComPaymentEventDaoMock.findPaymentIdsToProcessForTypes(EVENT_TYPES, PAYMENT_ID_1, 1)).thenReturn(singletonList(PAYMENT_ID_2));
+        when(checkoutComPaymentEventDaoMock.findPaymentIdsToProcessForTypes(EVENT_TYPES, PAYMENT_ID_2, 1)).thenReturn(Collections.emptyList());
+        when(checkoutComPaymentEventDaoMock.findPaymentEventsToProcessForPaymentIds(EVENT_TYPES, singletonList(PAYMENT_ID_1))).thenReturn(asList(event1Mock, event3Mock));
+        when(checkoutComPaymentEventDaoMock.findPaymentEventsToProcessForPaymentIds(EVENT_TYPES, singletonList(PAYMENT_ID_2))).thenReturn(singletonList(event2Mock));
+
+        final CheckoutComPaymentEventProcessingStats stats = testObj.processPendingEvents(EVENT_TYPES, CAPTURE);
+
+        final InOrder inOrder = inOrder(checkoutComPaymentEventProcessingServiceMock, modelServiceMock);
+        inOrder.verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(asList(event1Mock, event3Mock), CAPTURE);
+        inOrder.verify(modelServiceMock).detach(event1Mock);
+        inOrder.verify(modelServiceMock).detach(event3Mock);
+        inOrder.verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(singletonList(event2Mock), CAPTURE);
+        inOrder.verify(modelServiceMock).detach(event2Mock);
+        verify(modelServiceMock, never()).detachAll();
+        assertThat(stats.getPageCount()).isEqualTo(2);
+        assertThat(stats.getEventCount()).isEqualTo(3L);
+        assertThat(stats.getPartitionCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void processPendingEvents_WhenSeveralWorkers_ShouldProcessEachPartitionInANewSessionAsTheCurrentUser() {
+        workers = Executors.newFixedThreadPool(2);
+        when(configurationMock.getInt(PROCESSING_WORKERS, DEFAULT_WORKERS)).thenReturn(2);
+        doReturn(workers).when(testObj).createWorkers(2);
+
+        final CheckoutComPaymentEventProcessingStats stats = testObj.processPendingEvents(EVENT_TYPES, CAPTURE);
+
+        verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(asList(event1Mock, event3Mock), CAPTURE);
+        verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(singletonList(event2Mock), CAPTURE);
+        verify(sessionServiceMock, times(2)).createNewSession();
+        verify(userServiceMock, times(2)).setCurrentUser(userMock);
+        verify(sessionServiceMock, times(2)).closeSession(sessionMock);
+        assertThat(stats.getPartitionCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void processPendingEvents_WhenAPartitionFails_ShouldReportItAndProcessTheOtherPartitions() {
+        doThrow(new IllegalStateException("failed")).when(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(asList(event1Mock, event3Mock), CAPTURE);
+
+        final CheckoutComPaymentEventProcessingStats stats = testObj.processPendingEvents(EVENT_TYPES, CAPTURE);
+
+        verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(singletonList(event2Mock), CAPTURE);
+        assertThat(stats.getFailedPartitionCount()).isEqualTo(1L);
+        assertThat(stats.getPartitions().get(0).isFailed()).isTrue();
+        assertThat(stats.getPartitions().get(1).isFailed()).isFalse();
+    }
+
+    @Test
+    public void processPendingEvents_ShouldReportTheLagAndThroughputOfEachPartition() {
+        final CheckoutComPaymentEventProcessingStats stats = testObj.processPendingEvents(EVENT_TYPES, CAPTURE);
+
+        final CheckoutComPaymentEventPartitionStats firstPartition = stats.getPartitions().get(0);
+        final CheckoutComPaymentEventPartitionStats secondPartition = stats.getPartitions().get(1);
+        assertThat(firstPartition.getPaymentId()).isEqualTo(PAYMENT_ID_1);
+        assertThat(firstPartition.getEventCount()).isEqualTo(2);
+        assertThat(firstPartition.getLagMillis()).isGreaterThanOrEqualTo(ONE_MINUTE);
+        assertThat(firstPartition.getEventsPerSecond()).isGreaterThan(0d);
+        assertThat(secondPartition.getPaymentId()).isEqualTo(PAYMENT_ID_2);
+        assertThat(secondPartition.getLagMillis()).isZero();
+        assertThat(stats.getMaxLagMillis()).isEqualTo(firstPartition.getLagMillis());
+    }
+
+    @Test
+    public void processPendingEvents_WhenEventsHaveNoPaymentId_ShouldProcessThemAsASinglePartitionAfterThePages() {
+        when(checkoutComPaymentEventDaoMock.findPaymentIdsToProcessForTypes(EVENT_TYPES, null, PAGE_SIZE)).thenReturn(singletonList(PAYMENT_ID_1));
+        when(checkoutComPaymentEventDaoMock.findPaymentEventsToProcessForPaymentIds(EVENT_TYPES, singletonList(PAYMENT_ID_1))).thenReturn(asList(event1Mock, event3Mock));
+        when(checkoutComPaymentEventDaoMock.findPaymentEventsToProcessWithoutPaymentIdForTypes(EVENT_TYPES)).thenReturn(singletonList(event2Mock));
+
+        final CheckoutComPaymentEventProcessingStats stats = testObj.processPendingEvents(EVENT_TYPES, CAPTURE);
+
+        final InOrder inOrder = inOrder(checkoutComPaymentEventProcessingServiceMock);
+        inOrder.verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(asList(event1Mock, event3Mock), CAPTURE);
+        inOrder.verify(checkoutComPaymentEventProcessingServiceMock).processPaymentEvents(singletonList(event2Mock), CAPTURE);
+        verify(modelServiceMock).detach(event2Mock);
+        assertThat(stats.getPageCount()).isEqualTo(2);
+        assertThat(stats.getEventCount()).isEqualTo(3L);
+        assertThat(stats.getPartitionCount()).isEqualTo(2L);
+        assertThat(stats.getPartitions().get(1).getPaymentId()).isNull();
+    }
+
+    @Test
+    public void processPendingEvents_WhenNoPendingEvents_ShouldReturnEmptyStats() {
+        when(checkoutComPaymentEventDaoMock.findPaymentIdsToProcessForTypes(EVENT_TYPES, null, PAGE_SIZE)).thenReturn(Collections.emptyList());
+
+        final CheckoutComPaymentEventProcessingStats stats = testObj.processPendingEvents(EVENT_TYPES, CAPTURE);
+
+        verify(checkoutComPaymentEventDaoMock, never()).findPaymentEventsToProcessForPaymentIds(any(), any());
+        verifyNoInteractions(checkoutComPaymentEventProcessingServiceMock);
+        assertThat(stats.getPageCount()).isZero();
+        assertThat(stats.getPartitions()).isEmpty();
+    }
+}
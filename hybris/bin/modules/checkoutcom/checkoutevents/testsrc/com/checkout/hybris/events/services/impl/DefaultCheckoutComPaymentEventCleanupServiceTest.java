@@ -1,9 +1,10 @@
 package com.checkout.hybris.events.services.impl;
 
-import com.checkout.hybris.events.daos.CheckoutComPaymentEventDao;
+import com.checkout.hybris.events.beans.CheckoutComItemRemovalRequest;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventCleanupCronJobModel;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import com.checkout.hybris.events.services.CheckoutComItemRemovalService;
 import de.hybris.bootstrap.annotations.UnitTest;
-import de.hybris.platform.servicelayer.model.ModelService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
@@ -12,12 +13,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.util.Arrays;
 import java.util.Date;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus.FAILED;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -33,28 +36,28 @@ public class DefaultCheckoutComPaymentEventCleanupServiceTest {
     private DefaultCheckoutComPaymentEventCleanupService testObj;
 
     @Mock
-    private ModelService modelServiceMock;
+    private CheckoutComItemRemovalService checkoutComItemRemovalServiceMock;
     @Mock
-    private CheckoutComPaymentEventDao checkoutComPaymentEventDaoMock;
-    @Mock
-    private CheckoutComPaymentEventModel event1Mock, event2Mock;
+    private CheckoutComPaymentEventCleanupCronJobModel cronJobMock;
     @Captor
-    private ArgumentCaptor<Date> dateArgumentCaptor;
+    private ArgumentCaptor<CheckoutComItemRemovalRequest> requestArgumentCaptor;
 
     @Test
-    public void doCleanUp_WhenEventStatusAndEventAgeGiven_ShouldFindEventsAndRemoveThem() {
-        when(checkoutComPaymentEventDaoMock.findPaymentEventsByStatusCreatedBeforeDate(eq(FAILED), any(Date.class))).thenReturn(Arrays.asList(event1Mock, event2Mock));
-
-        testObj.doCleanUp(FAILED, EVENT_AGE_IN_DAYS);
-
-        verify(modelServiceMock).remove(event1Mock);
-        verify(modelServiceMock).remove(event2Mock);
+    public void doCleanUp_WhenEventStatusAndEventAgeGiven_ShouldRemoveTheEventsPageByPage() {
+        when(cronJobMock.getPaymentEventStatus()).thenReturn(FAILED);
+        when(cronJobMock.getAgeInDaysBeforeDeletion()).thenReturn(EVENT_AGE_IN_DAYS);
+        when(checkoutComItemRemovalServiceMock.removeItems(eq(cronJobMock), any(CheckoutComItemRemovalRequest.class))).thenReturn(true);
 
-        verify(checkoutComPaymentEventDaoMock).findPaymentEventsByStatusCreatedBeforeDate(eq(FAILED), dateArgumentCaptor.capture());
+        assertTrue(testObj.doCleanUp(cronJobMock));
 
-        final Date dateInPast = dateArgumentCaptor.getValue();
+        verify(checkoutComItemRemovalServiceMock).removeItems(eq(cronJobMock), requestArgumentCaptor.capture());
+        final CheckoutComItemRemovalRequest request = requestArgumentCaptor.getValue();
+        assertEquals(CheckoutComPaymentEventModel._TYPECODE, request.getItemTypeCode());
+        assertEquals(Map.of(CheckoutComPaymentEventModel.STATUS, FAILED), request.getAttributeValues());
+        assertEquals(DefaultCheckoutComPaymentEventCleanupService.DEFAULT_BATCH_SIZE, request.getPageSize());
+        assertFalse(request.isDirectDeletion());
 
-        long diffInMillies = Math.abs(new Date().getTime() - dateInPast.getTime());
+        long diffInMillies = Math.abs(new Date().getTime() - request.getCreatedBefore().getTime());
         long diff = TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS);
 
         assertEquals(EVENT_AGE_IN_DAYS, diff);
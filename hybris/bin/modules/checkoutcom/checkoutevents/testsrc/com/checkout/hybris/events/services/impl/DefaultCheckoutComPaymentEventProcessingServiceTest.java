@@ -4,6 +4,7 @@ import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentInfoService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
+import com.checkout.hybris.core.payment.services.CheckoutComReconciliationMatchingService;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
@@ -17,11 +18,14 @@ import de.hybris.platform.payment.enums.PaymentTransactionType;
 import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
 import de.hybris.platform.payment.model.PaymentTransactionModel;
 import de.hybris.platform.processengine.model.BusinessProcessModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
 import de.hybris.platform.servicelayer.model.ModelService;
 import de.hybris.platform.servicelayer.session.SessionExecutionBody;
 import de.hybris.platform.servicelayer.session.SessionService;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
+import org.apache.commons.configuration.Configuration;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -38,6 +42,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.checkout.hybris.events.enums.CheckoutComPaymentEventType.*;
+import static com.checkout.hybris.events.services.impl.DefaultCheckoutComPaymentEventProcessingService.*;
 import static de.hybris.platform.payment.dto.TransactionStatus.*;
 import static de.hybris.platform.payment.dto.TransactionStatusDetails.PROCESSOR_DECLINE;
 import static de.hybris.platform.payment.enums.PaymentTransactionType.*;
@@ -99,6 +104,14 @@ public class DefaultCheckoutComPaymentEventProcessingServiceTest {
     private PaymentTransactionEntryModel authorizationPendingPaymentTransactionEntryMock;
     @Mock
     private CheckoutComPaymentTransactionService checkoutComPaymentTransactionServiceMock;
+    @Mock
+    private CheckoutComReconciliationMatchingService checkoutComReconciliationMatchingServiceMock;
+    @Mock
+    private PaymentTransactionEntryModel actionEntryMock;
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
 
     private TransactionOperations transactionOperationsMock = new TransactionOperations() {
         @Override
@@ -111,6 +124,9 @@ public class DefaultCheckoutComPaymentEventProcessingServiceTest {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         when(testObj.getTransactionTemplate()).thenReturn(transactionOperationsMock);
+        when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        when(configurationMock.getBoolean(PROCESSING_STRICT, true)).thenReturn(true);
+        when(configurationMock.getInt(PROCESSING_STATUS_BATCH_SIZE, DEFAULT_STATUS_BATCH_SIZE)).thenReturn(DEFAULT_STATUS_BATCH_SIZE);
 
         when(eventMock.getAmount()).thenReturn(AMOUNT);
         when(eventMock.getCurrency()).thenReturn(currencyModelMock);
@@ -194,6 +210,83 @@ public class DefaultCheckoutComPaymentEventProcessingServiceTest {
         verify(testObj).updateEventStatus(singletonList(eventMock), CheckoutComPaymentEventStatus.FAILED);
     }
 
+    @Test
+    public void handleEvents_WhenNotStrict_ShouldSaveTheIgnoredStatusesOfTheEventsTogether() {
+        when(configurationMock.getBoolean(PROCESSING_STRICT, true)).thenReturn(false);
+        doAnswer(invocation -> invocation.<List<CheckoutComPaymentEventModel>>getArgument(3).add(invocation.getArgument(4)))
+                .when(testObj).processEventInTransaction(eq(CAPTURE), anyList(), anyList(), anyList(), any(CheckoutComPaymentEventModel.class));
+
+        testObj.handleEvents(asList(eventMock, event2Mock), CAPTURE);
+
+        verify(eventMock).setStatus(CheckoutComPaymentEventStatus.IGNORED);
+        verify(event2Mock).setStatus(CheckoutComPaymentEventStatus.IGNORED);
+        verify(modelServiceMock).saveAll(asList(eventMock, event2Mock));
+        verify(testObj, never()).updateEventStatus(anyList(), eq(CheckoutComPaymentEventStatus.IGNORED));
+    }
+
+    @Test
+    public void handleEvents_WhenNotStrictAndBatchIsFull_ShouldSaveTheIgnoredStatusesOfEachBatch() {
+        when(configurationMock.getBoolean(PROCESSING_STRICT, true)).thenReturn(false);
+        when(configurationMock.getInt(PROCESSING_STATUS_BATCH_SIZE, DEFAULT_STATUS_BATCH_SIZE)).thenReturn(1);
+        doAnswer(invocation -> invocation.<List<CheckoutComPaymentEventModel>>getArgument(3).add(invocation.getArgument(4)))
+                .when(testObj).processEventInTransaction(eq(CAPTURE), anyList(), anyList(), anyList(), any(CheckoutComPaymentEventModel.class));
+
+        testObj.handleEvents(asList(eventMock, event2Mock), CAPTURE);
+
+        verify(modelServiceMock).saveAll(singletonList(eventMock));
+        verify(modelServiceMock).saveAll(singletonList(event2Mock));
+    }
+
+    @Test
+    public void handleEvents_WhenNotStrictAndEventIsCompleted_ShouldSaveTheStatusInTheTransactionOfTheEvent() {
+        when(configurationMock.getBoolean(PROCESSING_STRICT, true)).thenReturn(false);
+        doAnswer(invocation -> invocation.<List<CheckoutComPaymentEventModel>>getArgument(1).add(invocation.getArgument(4)))
+                .when(testObj).processEventInTransaction(eq(CAPTURE), anyList(), anyList(), anyList(), eq(eventMock));
+
+        testObj.handleEvents(singletonList(eventMock), CAPTURE);
+
+        verify(testObj).updateEventStatus(singletonList(eventMock), CheckoutComPaymentEventStatus.COMPLETED);
+        verify(modelServiceMock).saveAll(singletonList(eventMock));
+    }
+
+    @Test
+    public void handleEvents_WhenNotStrictAndEventFails_ShouldSaveTheStatusInTheTransactionOfTheEvent() {
+        when(configurationMock.getBoolean(PROCESSING_STRICT, true)).thenReturn(false);
+        when(paymentInfoServiceMock.findAbstractOrderByPaymentId(PAYMENT_ID)).thenReturn(emptyList());
+
+        testObj.handleEvents(singletonList(eventMock), CAPTURE);
+
+        verify(testObj).updateEventStatus(singletonList(eventMock), CheckoutComPaymentEventStatus.FAILED);
+        verify(testObj, never()).flushIgnoredEventStatuses(anyList());
+    }
+
+    @Test
+    public void handleEvents_WhenNotStrictAndThereIsAnException_ShouldSaveTheEventAsFailed() {
+        when(configurationMock.getBoolean(PROCESSING_STRICT, true)).thenReturn(false);
+        doThrow(new RuntimeException("exception")).when(testObj).processEventInTransaction(eq(CAPTURE), anyList(), anyList(), anyList(), eq(eventMock));
+
+        testObj.handleEvents(singletonList(eventMock), CAPTURE);
+
+        verify(eventMock).setFailReason(anyString());
+        verify(testObj).updateEventStatus(singletonList(eventMock), CheckoutComPaymentEventStatus.FAILED);
+        verify(testObj, never()).flushIgnoredEventStatuses(anyList());
+    }
+
+    @Test
+    public void flushIgnoredEventStatuses_WhenBatchCannotBeSaved_ShouldSaveTheEventsOneByOne() {
+        doThrow(new ModelSavingException("batch failed")).when(modelServiceMock).saveAll(anyCollection());
+        final List<CheckoutComPaymentEventModel> ignoredEvents = new ArrayList<>(asList(eventMock, event2Mock));
+
+        final int result = testObj.flushIgnoredEventStatuses(ignoredEvents);
+
+        assertThat(result).isEqualTo(2);
+        verify(eventMock).setStatus(CheckoutComPaymentEventStatus.IGNORED);
+        verify(event2Mock).setStatus(CheckoutComPaymentEventStatus.IGNORED);
+        verify(modelServiceMock).save(eventMock);
+        verify(modelServiceMock).save(event2Mock);
+        assertThat(ignoredEvents).isEmpty();
+    }
+
     @Test
     public void handleEventProcess_WhenThereIsAnOrderWithoutBusinessProcess_ShouldSkipProcessing() {
         when(businessProcessServiceMock.findBusinessProcess(CAPTURE, orderMock, eventMock)).thenReturn(emptyList());
@@ -376,6 +469,59 @@ public class DefaultCheckoutComPaymentEventProcessingServiceTest {
         inOrder.verify(businessProcessServiceMock).triggerEvent(WAIT_FOR_EVENT_NAME);
     }
 
+    @Test
+    public void processEvent_WhenTheActionAlreadyHasAFinalEntry_ShouldSetTheFailReasonAndReturnFalse() {
+        when(checkoutComPaymentTransactionServiceMock.findAcceptedAuthorizationEntry(paymentTransactionMock)).thenReturn(Optional.empty());
+        when(checkoutComPaymentTransactionServiceMock.findPendingAuthorizationEntry(paymentTransactionMock)).thenReturn(Optional.empty());
+        when(eventMock.getEventType()).thenReturn(CheckoutComPaymentEventType.PAYMENT_CAPTURED.getCode());
+        when(actionEntryMock.getRequestToken()).thenReturn(ACTION_ID);
+        when(actionEntryMock.getTransactionStatus()).thenReturn(ACCEPTED.name());
+        when(paymentTransactionMock.getEntries()).thenReturn(singletonList(actionEntryMock));
+
+        final boolean result = testObj.processEvent(eventMock, CAPTURE, orderMock, businessProcessMock);
+
+        assertThat(result).isFalse();
+        verify(eventMock).setFailReason(anyString());
+        verify(testObj, never()).processPayment(eventMock, paymentTransactionMock, CAPTURE);
+        verifyZeroInteractions(businessProcessServiceMock, checkoutComReconciliationMatchingServiceMock);
+    }
+
+    @Test
+    public void processEvent_WhenTheActionOnlyHasAPendingEntry_ShouldProcessThePayment() {
+        when(checkoutComPaymentTransactionServiceMock.findAcceptedAuthorizationEntry(paymentTransactionMock)).thenReturn(Optional.empty());
+        when(checkoutComPaymentTransactionServiceMock.findPendingAuthorizationEntry(paymentTransactionMock)).thenReturn(Optional.empty());
+        when(eventMock.getEventType()).thenReturn(CheckoutComPaymentEventType.PAYMENT_CAPTURED.getCode());
+        when(actionEntryMock.getRequestToken()).thenReturn(ACTION_ID);
+        when(actionEntryMock.getTransactionStatus()).thenReturn(PENDING.name());
+        when(paymentTransactionMock.getEntries()).thenReturn(singletonList(actionEntryMock));
+        doReturn(WAIT_FOR_EVENT_NAME).when(testObj).createWaitForEventName(eventMock, CAPTURE, businessProcessMock);
+        doNothing().when(testObj).processPayment(any(CheckoutComPaymentEventModel.class), any(PaymentTransactionModel.class), any(PaymentTransactionType.class));
+
+        final boolean result = testObj.processEvent(eventMock, CAPTURE, orderMock, businessProcessMock);
+
+        assertThat(result).isTrue();
+        verify(testObj).processPayment(eventMock, paymentTransactionMock, CAPTURE);
+    }
+
+    @Test
+    public void processEvent_WhenTheEntryOfTheActionIsCreated_ShouldResolveItsMissingEntryDiscrepancy() {
+        when(checkoutComPaymentTransactionServiceMock.findAcceptedAuthorizationEntry(paymentTransactionMock)).thenReturn(Optional.empty());
+        when(checkoutComPaymentTransactionServiceMock.findPendingAuthorizationEntry(paymentTransactionMock)).thenReturn(Optional.empty());
+        when(eventMock.getEventType()).thenReturn(CheckoutComPaymentEventType.PAYMENT_CAPTURED.getCode());
+        when(actionEntryMock.getRequestToken()).thenReturn(ACTION_ID);
+        when(actionEntryMock.getTransactionStatus()).thenReturn(ACCEPTED.name());
+        when(paymentTransactionMock.getEntries()).thenReturn(emptyList(), singletonList(actionEntryMock));
+        doReturn(WAIT_FOR_EVENT_NAME).when(testObj).createWaitForEventName(eventMock, CAPTURE, businessProcessMock);
+        doNothing().when(testObj).processPayment(any(CheckoutComPaymentEventModel.class), any(PaymentTransactionModel.class), any(PaymentTransactionType.class));
+
+        final boolean result = testObj.processEvent(eventMock, CAPTURE, orderMock, businessProcessMock);
+
+        assertThat(result).isTrue();
+        final InOrder inOrder = inOrder(testObj, checkoutComReconciliationMatchingServiceMock);
+        inOrder.verify(testObj).processPayment(eventMock, paymentTransactionMock, CAPTURE);
+        inOrder.verify(checkoutComReconciliationMatchingServiceMock).resolveMissingEntry(actionEntryMock);
+    }
+
     @Test
     public void processEvent_WhenEventTypeIsVoid_ShouldProcessThePaymentTriggerTheEventAndReturnTrue() {
         when(paymentServiceMock.isDeferred(orderMock)).thenReturn(false);
@@ -588,6 +734,7 @@ public class DefaultCheckoutComPaymentEventProcessingServiceTest {
 
         verify(authorizationPendingPaymentTransactionEntryMock).setTransactionStatus(ACCEPTED.name());
         verify(modelServiceMock).save(authorizationPendingPaymentTransactionEntryMock);
+        verify(checkoutComPaymentTransactionServiceMock).invalidatePaymentStateSummary(paymentTransactionMock);
         verify(businessProcessServiceMock).triggerEvent(anyString());
     }
 
@@ -0,0 +1,190 @@
+package com.checkout.hybris.events.services.impl;
+
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
+import com.checkout.hybris.events.beans.CheckoutComWebhookIngestionResult;
+import com.checkout.hybris.events.beans.CheckoutComWebhookIngestionStats;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import com.checkout.hybris.events.services.CheckoutComPaymentEventService;
+import com.google.gson.Gson;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.dto.converter.Converter;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.SessionService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.checkout.hybris.events.services.impl.DefaultCheckoutComWebhookIngestionService.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComWebhookIngestionServiceTest {
+
+    private static final String ELECTRONICS = "electronics";
+    private static final String APPROVED_EVENT_BODY = "{\"id\":\"evt_1\",\"type\":\"payment_approved\",\"data\":{\"id\":\"pay_1\",\"metadata\":{\"site_id\":\"electronics\"}}}";
+    private static final String CAPTURED_EVENT_BODY = "{\"id\":\"evt_2\",\"type\":\"payment_captured\",\"data\":{\"id\":\"pay_1\",\"metadata\":{\"site_id\":\"electronics\"}}}";
+    private static final int QUEUE_CAPACITY = 2;
+    private static final int WORKERS = 2;
+
+    private DefaultCheckoutComWebhookIngestionService testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private SessionService sessionServiceMock;
+    @Mock
+    private CheckoutComPaymentEventService checkoutComPaymentEventServiceMock;
+    @Mock
+    private Converter<CheckoutComPaymentEventObject, CheckoutComPaymentEventModel> checkoutComPaymentEventReverseConverterMock;
+    @Mock
+    private ExecutorService workersMock;
+    @Mock
+    private CheckoutComPaymentEventModel approvedEventMock, capturedEventMock;
+
+    private CheckoutComPaymentEventObject approvedEvent;
+    private CheckoutComPaymentEventObject capturedEvent;
+
+    @Before
+    public void setUp() {
+        approvedEvent = createEvent(APPROVED_EVENT_BODY);
+        capturedEvent = createEvent(CAPTURED_EVENT_BODY);
+        testObj = spy(new DefaultCheckoutComWebhookIngestionService(configurationServiceMock, modelServiceMock, sessionServiceMock,
+                checkoutComPaymentEventServiceMock, checkoutComPaymentEventReverseConverterMock));
+        lenient().doReturn(workersMock).when(testObj).createWorkers(anyInt());
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(INGESTION_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY)).thenReturn(QUEUE_CAPACITY);
+        lenient().when(configurationMock.getInt(INGESTION_WORKERS, DEFAULT_WORKERS)).thenReturn(WORKERS);
+        lenient().when(configurationMock.getInt(INGESTION_BATCH_SIZE, DEFAULT_BATCH_SIZE)).thenReturn(DEFAULT_BATCH_SIZE);
+        lenient().when(checkoutComPaymentEventServiceMock.getSiteIdForTheEvent(any(CheckoutComPaymentEventObject.class))).thenReturn(ELECTRONICS);
+        lenient().when(checkoutComPaymentEventServiceMock.getAllowedPaymentEventTypesForMerchant(ELECTRONICS))
+                .thenReturn(new HashSet<>(Arrays.asList(CheckoutComPaymentEventType.PAYMENT_APPROVED, CheckoutComPaymentEventType.PAYMENT_CAPTURED)));
+        lenient().when(checkoutComPaymentEventReverseConverterMock.convert(any(CheckoutComPaymentEventObject.class))).thenAnswer(invocation -> {
+            final CheckoutComPaymentEventObject event = invocation.getArgument(0);
+            return "evt_1".equals(event.getId()) ? approvedEventMock : capturedEventMock;
+        });
+    }
+
+    @Test
+    public void isEnabled_ShouldReadTheConfiguration() {
+        when(configurationMock.getBoolean(INGESTION_ENABLED, false)).thenReturn(true);
+
+        assertThat(testObj.isEnabled()).isTrue();
+    }
+
+    @Test
+    public void enqueue_WhenQueueHasRoom_ShouldAcceptTheEventAndStartTheWorkers() {
+        final CheckoutComWebhookIngestionResult result = testObj.enqueue(approvedEvent);
+
+        assertThat(result).isEqualTo(CheckoutComWebhookIngestionResult.ACCEPTED);
+        verify(workersMock, times(WORKERS)).execute(any(Runnable.class));
+        final CheckoutComWebhookIngestionStats stats = testObj.getStats();
+        assertThat(stats.getQueueDepth()).isEqualTo(1);
+        assertThat(stats.getPeakQueueDepth()).isEqualTo(1);
+        assertThat(stats.getQueueCapacity()).isEqualTo(QUEUE_CAPACITY);
+        assertThat(stats.getAcceptedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void enqueue_WhenQueueIsFull_ShouldRejectTheEvent() {
+        testObj.enqueue(approvedEvent);
+        testObj.enqueue(approvedEvent);
+
+        final CheckoutComWebhookIngestionResult result = testObj.enqueue(approvedEvent);
+
+        assertThat(result).isEqualTo(CheckoutComWebhookIngestionResult.QUEUE_FULL);
+        assertThat(testObj.getStats().getRejectedCount()).isEqualTo(1L);
+        verify(testObj).createWorkers(WORKERS);
+    }
+
+    @Test
+    public void enqueue_WhenShuttingDown_ShouldBeUnavailable() throws InterruptedException {
+        testObj.enqueue(approvedEvent);
+        when(workersMock.awaitTermination(DEFAULT_SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)).thenReturn(true);
+        when(configurationMock.getLong(INGESTION_SHUTDOWN_TIMEOUT, DEFAULT_SHUTDOWN_TIMEOUT)).thenReturn(DEFAULT_SHUTDOWN_TIMEOUT);
+
+        testObj.destroy();
+
+        assertThat(testObj.enqueue(approvedEvent)).isEqualTo(CheckoutComWebhookIngestionResult.UNAVAILABLE);
+        verify(workersMock).shutdown();
+        verify(workersMock, never()).shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void drainBatch_ShouldSaveTheQueuedEventsTogether() throws InterruptedException {
+        testObj.enqueue(approvedEvent);
+        testObj.enqueue(capturedEvent);
+
+        final int drained = testObj.drainBatch();
+
+        assertThat(drained).isEqualTo(2);
+        final ArgumentCaptor<Collection<Object>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(modelServiceMock).saveAll(captor.capture());
+        assertThat(captor.getValue()).containsExactly(approvedEventMock, capturedEventMock);
+        final CheckoutComWebhookIngestionStats stats = testObj.getStats();
+        assertThat(stats.getPersistedCount()).isEqualTo(2L);
+        assertThat(stats.getBatchCount()).isEqualTo(1L);
+        assertThat(stats.getQueueDepth()).isZero();
+    }
+
+    @Test
+    public void persistBatch_WhenEventTypeIsNotAllowed_ShouldDiscardIt() {
+        when(checkoutComPaymentEventServiceMock.getAllowedPaymentEventTypesForMerchant(ELECTRONICS))
+                .thenReturn(Collections.singleton(CheckoutComPaymentEventType.PAYMENT_APPROVED));
+
+        testObj.persistBatch(Arrays.asList(approvedEvent, capturedEvent));
+
+        verify(modelServiceMock).saveAll(Collections.singletonList(approvedEventMock));
+        assertThat(testObj.getStats().getDiscardedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void persistBatch_WhenEventHasNoType_ShouldDiscardIt() {
+        testObj.persistBatch(Collections.singletonList(createEvent("{\"id\":\"evt_3\"}")));
+
+        verifyNoInteractions(modelServiceMock);
+        assertThat(testObj.getStats().getDiscardedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void persistBatch_WhenBatchCannotBeSaved_ShouldSaveTheEventsOneByOne() {
+        doThrow(new ModelSavingException("batch failed")).when(modelServiceMock).saveAll(anyCollection());
+        doThrow(new ModelSavingException("event failed")).when(modelServiceMock).save(capturedEventMock);
+
+        testObj.persistBatch(Arrays.asList(approvedEvent, capturedEvent));
+
+        verify(modelServiceMock).save(approvedEventMock);
+        final CheckoutComWebhookIngestionStats stats = testObj.getStats();
+        assertThat(stats.getPersistedCount()).isEqualTo(1L);
+        assertThat(stats.getFailedCount()).isEqualTo(1L);
+    }
+
+    private CheckoutComPaymentEventObject createEvent(final String eventBody) {
+        final CheckoutComPaymentEventObject event = new Gson().fromJson(eventBody, CheckoutComPaymentEventObject.class);
+        event.setPayLoad(eventBody);
+        return event;
+    }
+}
@@ -3,6 +3,7 @@ package com.checkout.hybris.events.validators.impl;
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
 import com.checkout.hybris.events.services.CheckoutComPaymentEventService;
+import com.google.gson.Gson;
 import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
 import de.hybris.platform.site.BaseSiteService;
@@ -15,11 +16,14 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import javax.crypto.Mac;
 import javax.servlet.http.HttpServletRequest;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -35,6 +39,7 @@ public class DefaultCheckoutComRequestEventValidatorTest {
     private static final String SECRET_KEY_MESSAGE_HASH = "561668318D6FF228571FC7667C70E80BC727B7D3F44AB3130A5E368ABA94C2C0";
     private static final String SIGNATURE_KEY_MESSAGE_HASH = "6E9AE0CC5858BB0A26859F028B11D59F7266640B4911D92BEBF880B60AE053CD";
     private static final String ANOTHER_KEY = "anotherKey";
+    private static final String ANOTHER_SIGNATURE_KEY = "ANOTHER_SIGNATURE_KEY";
 
     @Spy
     @InjectMocks
@@ -52,13 +57,16 @@ public class DefaultCheckoutComRequestEventValidatorTest {
     @Mock
     private HttpServletRequest httpServletRequestMock;
 
-    private String eventBody;
-    private String emptyEventBody;
+    private byte[] eventBody;
+    private byte[] emptyEventBody;
+    private CheckoutComPaymentEventObject eventBodyData;
 
     @Before
     public void setUp() {
-        eventBody = createEventBody();
-        emptyEventBody = createEventBodyEmpty();
+        eventBody = createEventBody().getBytes(UTF_8);
+        emptyEventBody = createEventBodyEmpty().getBytes(UTF_8);
+        eventBodyData = new Gson().fromJson(createEventBody(), CheckoutComPaymentEventObject.class);
+        eventBodyData.setPayLoad(createEventBody());
 
         final ArgumentCaptor<CheckoutComPaymentEventObject> objectCaptor = ArgumentCaptor.forClass(CheckoutComPaymentEventObject.class);
         when(checkoutComPaymentEventServiceMock.getSiteIdForTheEvent(objectCaptor.capture())).thenReturn(SITE_ID);
@@ -74,7 +82,7 @@ public class DefaultCheckoutComRequestEventValidatorTest {
         when(checkoutComMerchantConfigurationServiceMock.isNasAuthorisationHeaderUsedOnNotificationValidation()).thenReturn(true);
         when(checkoutComMerchantConfigurationServiceMock.getAuthorizationKey()).thenReturn(ANOTHER_KEY);
 
-        assertFalse(testObj.isRequestEventValid(httpServletRequestMock, eventBody));
+        assertFalse(testObj.isRequestEventValid(httpServletRequestMock, eventBody, eventBodyData));
         verify(baseSiteServiceMock).setCurrentBaseSite(baseSiteModelMock, false);
     }
 
@@ -82,7 +90,7 @@ public class DefaultCheckoutComRequestEventValidatorTest {
     public void isRequestEventValid_whenAuthorizationHeaderIsNotActive_andNasSignatureKeyIsInactive_shouldReturnTrue() throws NoSuchAlgorithmException, InvalidKeyException {
         when(checkoutComMerchantConfigurationServiceMock.isNasSignatureKeyUsedOnNotificationValidation()).thenReturn(false);
 
-        assertTrue(testObj.isRequestEventValid(httpServletRequestMock, eventBody));
+        assertTrue(testObj.isRequestEventValid(httpServletRequestMock, eventBody, eventBodyData));
         verify(baseSiteServiceMock).setCurrentBaseSite(baseSiteModelMock, false);
     }
 
@@ -91,7 +99,7 @@ public class DefaultCheckoutComRequestEventValidatorTest {
         when(checkoutComMerchantConfigurationServiceMock.isNasSignatureKeyUsedOnNotificationValidation()).thenReturn(true);
         doReturn(true).when(testObj).isCkoSignatureValid(SECRET_KEY_MESSAGE_HASH, eventBody);
 
-        assertTrue(testObj.isRequestEventValid(httpServletRequestMock, eventBody));
+        assertTrue(testObj.isRequestEventValid(httpServletRequestMock, eventBody, eventBodyData));
         verify(baseSiteServiceMock).setCurrentBaseSite(baseSiteModelMock, false);
     }
 
@@ -101,7 +109,7 @@ public class DefaultCheckoutComRequestEventValidatorTest {
         when(httpServletRequestMock.getHeader(HEADER_CKO_SIGNATURE)).thenReturn(ANOTHER_KEY);
         doReturn(false).when(testObj).isCkoSignatureValid(ANOTHER_KEY, eventBody);
 
-        assertFalse(testObj.isRequestEventValid(httpServletRequestMock, eventBody));
+        assertFalse(testObj.isRequestEventValid(httpServletRequestMock, eventBody, eventBodyData));
         verify(baseSiteServiceMock).setCurrentBaseSite(baseSiteModelMock, false);
     }
 
@@ -125,6 +133,36 @@ public class DefaultCheckoutComRequestEventValidatorTest {
         assertTrue(testObj.isCkoSignatureValid(SIGNATURE_KEY_MESSAGE_HASH, eventBody));
     }
 
+    @Test
+    public void isCkoSignatureValid_whenSignatureIsLowerCase_ShouldReturnTrue() throws NoSuchAlgorithmException, InvalidKeyException {
+        assertTrue(testObj.isCkoSignatureValid(SIGNATURE_KEY_MESSAGE_HASH.toLowerCase(), eventBody));
+    }
+
+    @Test
+    public void isCkoSignatureValid_whenSignatureIsNotHex_ShouldReturnFalse() throws NoSuchAlgorithmException, InvalidKeyException {
+        assertFalse(testObj.isCkoSignatureValid(ANOTHER_KEY, eventBody));
+    }
+
+    @Test
+    public void isCkoSignatureValid_whenCalledTwice_ShouldReuseTheMacOfTheSite() throws NoSuchAlgorithmException, InvalidKeyException {
+        when(baseSiteServiceMock.getCurrentBaseSite()).thenReturn(baseSiteModelMock);
+        when(baseSiteModelMock.getUid()).thenReturn(SITE_ID);
+
+        assertTrue(testObj.isCkoSignatureValid(SIGNATURE_KEY_MESSAGE_HASH, eventBody));
+        final Mac mac = testObj.getSiteMac();
+
+        assertTrue(testObj.isCkoSignatureValid(SIGNATURE_KEY_MESSAGE_HASH, eventBody));
+        assertSame(mac, testObj.getSiteMac());
+    }
+
+    @Test
+    public void isCkoSignatureValid_whenSignatureKeyChanges_ShouldUseTheNewKey() throws NoSuchAlgorithmException, InvalidKeyException {
+        assertTrue(testObj.isCkoSignatureValid(SIGNATURE_KEY_MESSAGE_HASH, eventBody));
+        when(checkoutComMerchantConfigurationServiceMock.getSignatureKey()).thenReturn(ANOTHER_SIGNATURE_KEY);
+
+        assertFalse(testObj.isCkoSignatureValid(SIGNATURE_KEY_MESSAGE_HASH, eventBody));
+    }
+
     private String createEventBody() {
         return "{" +
                 "    \"id\": \"evt_dh2zojguo4mebehzbqqltcfuna\"," +
@@ -1,15 +1,19 @@
 package com.checkout.hybris.events.controller;
 
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
+import com.checkout.hybris.events.beans.CheckoutComWebhookIngestionResult;
 import com.checkout.hybris.events.facades.CheckoutComEventFacade;
+import com.checkout.hybris.events.services.CheckoutComWebhookIngestionService;
 import com.checkout.hybris.events.validators.CheckoutComRequestEventValidator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.annotation.Resource;
@@ -17,6 +21,8 @@ import javax.servlet.http.HttpServletRequest;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Controller to receive web hook events from checkout.com
  */
@@ -30,26 +36,54 @@ public class CheckoutComEventController {
     private CheckoutComEventFacade checkoutComEventFacade;
     @Resource
     private CheckoutComRequestEventValidator checkoutComRequestEventValidator;
+    @Resource
+    private CheckoutComWebhookIngestionService checkoutComWebhookIngestionService;
 
     /**
-     * Controller method to receives the checkout.com webhook events
+     * Controller method to receives the checkout.com webhook events. When the asynchronous ingestion is enabled the
+     * verified event is queued and the request answered straight away: 202 when queued, 429 when the queue is full and
+     * 503 when the ingestion is shutting down, so checkout.com retries the event later. The body is read as raw bytes,
+     * the signature is verified against them and the event is parsed only once.
      *
      * @param request   the http request
-     * @param eventBody the event body
+     * @param eventBody the raw event body
+     * @return the response status
      */
-    @ResponseStatus(HttpStatus.ACCEPTED)
     @PostMapping
-    public void receiveEvent(final HttpServletRequest request, @RequestBody final String eventBody) {
+    public ResponseEntity<Void> receiveEvent(final HttpServletRequest request, @RequestBody final byte[] eventBody) {
+        final CheckoutComPaymentEventObject eventBodyData;
         try {
-            if (checkoutComRequestEventValidator.isRequestEventValid(request, eventBody)) {
-                checkoutComEventFacade.publishPaymentEvent(eventBody);
-            } else {
+            eventBodyData = checkoutComEventFacade.parsePaymentEvent(new String(eventBody, UTF_8));
+        } catch (final IllegalArgumentException e) {
+            LOG.error("The event body is not a valid event.", e);
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            if (!checkoutComRequestEventValidator.isRequestEventValid(request, eventBody, eventBodyData)) {
                 LOG.error("The cko-signature/auth header is not valid.");
+            } else if (checkoutComWebhookIngestionService.isEnabled()) {
+                return ingestEvent(eventBodyData);
+            } else {
+                checkoutComEventFacade.publishPaymentEvent(eventBodyData);
             }
         } catch (final InvalidKeyException | NoSuchAlgorithmException e) {
             LOG.error("Exception while validating the event body.", e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Exception while converting the event body to hmac.", e);
         }
+        return ResponseEntity.accepted().build();
+    }
 
+    protected ResponseEntity<Void> ingestEvent(final CheckoutComPaymentEventObject eventBodyData) {
+        final CheckoutComWebhookIngestionResult result = checkoutComWebhookIngestionService.enqueue(eventBodyData);
+        if (CheckoutComWebhookIngestionResult.QUEUE_FULL.equals(result)) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(checkoutComWebhookIngestionService.getRetryAfterSeconds()))
+                    .build();
+        }
+        if (CheckoutComWebhookIngestionResult.UNAVAILABLE.equals(result)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.accepted().build();
     }
 }
@@ -1,20 +1,27 @@
 package com.checkout.hybris.events.controller;
 
+import com.checkout.hybris.events.beans.CheckoutComPaymentEventObject;
+import com.checkout.hybris.events.beans.CheckoutComWebhookIngestionResult;
 import com.checkout.hybris.events.facades.CheckoutComEventFacade;
+import com.checkout.hybris.events.services.CheckoutComWebhookIngestionService;
 import com.checkout.hybris.events.validators.CheckoutComRequestEventValidator;
 import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.servlet.http.HttpServletRequest;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.mockito.Mockito.*;
@@ -24,6 +31,7 @@ import static org.mockito.Mockito.*;
 public class CheckoutComEventControllerTest {
 
     private static final String EVENT_BODY = "EventBody";
+    private static final byte[] EVENT_BODY_BYTES = EVENT_BODY.getBytes(UTF_8);
     private static final String ERROR_MESSAGE = "Exception while converting the event body to hmac.";
 
     @InjectMocks
@@ -33,33 +41,90 @@ public class CheckoutComEventControllerTest {
     private CheckoutComEventFacade checkoutComEventFacadeMock;
     @Mock
     private CheckoutComRequestEventValidator checkoutComRequestEventValidatorMock;
+    @Mock
+    private CheckoutComWebhookIngestionService checkoutComWebhookIngestionServiceMock;
 
     @Mock
     private HttpServletRequest requestMock;
+    @Mock
+    private CheckoutComPaymentEventObject eventBodyDataMock;
+
+    @Before
+    public void setUp() {
+        lenient().when(checkoutComEventFacadeMock.parsePaymentEvent(EVENT_BODY)).thenReturn(eventBodyDataMock);
+    }
 
     @Test
     public void receiveEvent_whenIsNotValidRequestEvent_shouldDoNothing() throws NoSuchAlgorithmException, InvalidKeyException {
-        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY)).thenReturn(false);
+        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY_BYTES, eventBodyDataMock)).thenReturn(false);
+
+        testObj.receiveEvent(requestMock, EVENT_BODY_BYTES);
+
+        verify(checkoutComEventFacadeMock, never()).publishPaymentEvent(any(CheckoutComPaymentEventObject.class));
+        verifyNoInteractions(checkoutComWebhookIngestionServiceMock);
+    }
+
+    @Test
+    public void receiveEvent_whenBodyIsNotAnEvent_shouldReturnBadRequestWithoutValidating() {
+        when(checkoutComEventFacadeMock.parsePaymentEvent(EVENT_BODY)).thenThrow(IllegalArgumentException.class);
 
-        testObj.receiveEvent(requestMock, EVENT_BODY);
+        final ResponseEntity<Void> result = testObj.receiveEvent(requestMock, EVENT_BODY_BYTES);
 
-        verifyNoInteractions(checkoutComEventFacadeMock);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(checkoutComRequestEventValidatorMock, checkoutComWebhookIngestionServiceMock);
     }
 
     @Test
     public void receiveEvent_whenIsValidRequestEvent_shouldPublishPaymentEvent() throws NoSuchAlgorithmException, InvalidKeyException {
-        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY)).thenReturn(true);
+        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY_BYTES, eventBodyDataMock)).thenReturn(true);
+
+        final ResponseEntity<Void> result = testObj.receiveEvent(requestMock, EVENT_BODY_BYTES);
+
+        verify(checkoutComEventFacadeMock).publishPaymentEvent(eventBodyDataMock);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    }
+
+    @Test
+    public void receiveEvent_whenIngestionIsEnabledAndEventQueued_shouldReturnAcceptedWithoutPublishing() throws NoSuchAlgorithmException, InvalidKeyException {
+        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY_BYTES, eventBodyDataMock)).thenReturn(true);
+        when(checkoutComWebhookIngestionServiceMock.isEnabled()).thenReturn(true);
+        when(checkoutComWebhookIngestionServiceMock.enqueue(eventBodyDataMock)).thenReturn(CheckoutComWebhookIngestionResult.ACCEPTED);
+
+        final ResponseEntity<Void> result = testObj.receiveEvent(requestMock, EVENT_BODY_BYTES);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        verify(checkoutComEventFacadeMock, never()).publishPaymentEvent(any(CheckoutComPaymentEventObject.class));
+    }
+
+    @Test
+    public void receiveEvent_whenIngestionQueueIsFull_shouldReturnTooManyRequestsWithRetryAfter() throws NoSuchAlgorithmException, InvalidKeyException {
+        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY_BYTES, eventBodyDataMock)).thenReturn(true);
+        when(checkoutComWebhookIngestionServiceMock.isEnabled()).thenReturn(true);
+        when(checkoutComWebhookIngestionServiceMock.enqueue(eventBodyDataMock)).thenReturn(CheckoutComWebhookIngestionResult.QUEUE_FULL);
+        when(checkoutComWebhookIngestionServiceMock.getRetryAfterSeconds()).thenReturn(10);
+
+        final ResponseEntity<Void> result = testObj.receiveEvent(requestMock, EVENT_BODY_BYTES);
+
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+    }
+
+    @Test
+    public void receiveEvent_whenIngestionIsUnavailable_shouldReturnServiceUnavailable() throws NoSuchAlgorithmException, InvalidKeyException {
+        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY_BYTES, eventBodyDataMock)).thenReturn(true);
+        when(checkoutComWebhookIngestionServiceMock.isEnabled()).thenReturn(true);
+        when(checkoutComWebhookIngestionServiceMock.enqueue(eventBodyDataMock)).thenReturn(CheckoutComWebhookIngestionResult.UNAVAILABLE);
 
-        testObj.receiveEvent(requestMock, EVENT_BODY);
+        final ResponseEntity<Void> result = testObj.receiveEvent(requestMock, EVENT_BODY_BYTES);
 
-        verify(checkoutComEventFacadeMock).publishPaymentEvent(EVENT_BODY);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
     }
 
     @Test
     public void receiveEvent_whenIsNotValidRequestEvent_shouldThrowResponseStatusException() throws NoSuchAlgorithmException, InvalidKeyException {
-        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY)).thenThrow(NoSuchAlgorithmException.class);
+        when(checkoutComRequestEventValidatorMock.isRequestEventValid(requestMock, EVENT_BODY_BYTES, eventBodyDataMock)).thenThrow(NoSuchAlgorithmException.class);
 
-        final Throwable throwable = catchThrowable(() -> testObj.receiveEvent(requestMock, EVENT_BODY));
+        final Throwable throwable = catchThrowable(() -> testObj.receiveEvent(requestMock, EVENT_BODY_BYTES));
 
         assertThat(throwable)
                 .isInstanceOf(ResponseStatusException.class)
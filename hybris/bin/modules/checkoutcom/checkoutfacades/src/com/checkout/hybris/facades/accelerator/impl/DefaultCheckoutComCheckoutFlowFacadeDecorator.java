@@ -1,12 +1,13 @@
 package com.checkout.hybris.facades.accelerator.impl;
 
-import com.checkout.GsonSerializer;
 import com.checkout.hybris.core.address.services.CheckoutComAddressService;
 import com.checkout.hybris.core.authorisation.AuthorizeResponse;
+import com.checkout.hybris.core.enums.CheckoutComPayloadType;
 import com.checkout.hybris.core.model.CheckoutComAPMPaymentInfoModel;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
 import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
 import com.checkout.hybris.core.payment.request.CheckoutComRequestFactory;
+import com.checkout.hybris.core.payment.services.CheckoutComPayloadJournalService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentInfoService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentIntegrationService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
@@ -45,6 +46,7 @@ public class DefaultCheckoutComCheckoutFlowFacadeDecorator extends CheckoutComAb
     protected final CheckoutComPaymentInfoService paymentInfoService;
     protected final CheckoutComPaymentService paymentService;
     protected final Converter<AuthorizeResponse, AuthorizeResponseData> authorizeResponseConverter;
+    protected final CheckoutComPayloadJournalService checkoutComPayloadJournalService;
 
     public DefaultCheckoutComCheckoutFlowFacadeDecorator(final CheckoutFlowFacade checkoutFlowFacade,
                                                          final CheckoutComAddressService addressService,
@@ -52,7 +54,8 @@ public class DefaultCheckoutComCheckoutFlowFacadeDecorator extends CheckoutComAb
                                                          final CheckoutComPaymentIntegrationService checkoutComPaymentIntegrationService,
                                                          final CheckoutComPaymentInfoService paymentInfoService,
                                                          final CheckoutComPaymentService paymentService,
-                                                         final Converter<AuthorizeResponse, AuthorizeResponseData> authorizeResponseConverter) {
+                                                         final Converter<AuthorizeResponse, AuthorizeResponseData> authorizeResponseConverter,
+                                                         final CheckoutComPayloadJournalService checkoutComPayloadJournalService) {
         super(checkoutFlowFacade);
         this.addressService = addressService;
         this.checkoutComRequestFactory = checkoutComRequestFactory;
@@ -60,6 +63,7 @@ public class DefaultCheckoutComCheckoutFlowFacadeDecorator extends CheckoutComAb
         this.paymentInfoService = paymentInfoService;
         this.paymentService = paymentService;
         this.authorizeResponseConverter = authorizeResponseConverter;
+        this.checkoutComPayloadJournalService = checkoutComPayloadJournalService;
     }
 
     /**
@@ -99,13 +103,8 @@ public class DefaultCheckoutComCheckoutFlowFacadeDecorator extends CheckoutComAb
         try {
             final PaymentRequest request = checkoutComRequestFactory.createPaymentRequest(cart);
             paymentResponse = checkoutComPaymentIntegrationService.authorizePayment(request);
-            final GsonSerializer gsonSerializer = new GsonSerializer();
-            final String requestJson = gsonSerializer.toJson(request);
-            final String responseJson = gsonSerializer.toJson(paymentResponse);
-            //Parse response and request
-            paymentInfoService.saveRequestAndResponseInOrder(cart, requestJson, responseJson);
-            paymentInfoService.logInfoOut(requestJson);
-            paymentInfoService.logInfoOut(responseJson);
+            checkoutComPayloadJournalService.journal(cart.getCheckoutComPaymentReference(), CheckoutComPayloadType.REQUEST, request);
+            checkoutComPayloadJournalService.journal(cart.getCheckoutComPaymentReference(), CheckoutComPayloadType.RESPONSE, paymentResponse);
         } catch (final CheckoutComPaymentIntegrationException | IllegalArgumentException e) {
             LOG.error("Exception during authorization", e);
             authorizeResponseData.setIsSuccess(false);
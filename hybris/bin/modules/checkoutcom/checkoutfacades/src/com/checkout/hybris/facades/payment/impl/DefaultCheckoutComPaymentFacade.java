@@ -1,10 +1,7 @@
 package com.checkout.hybris.facades.payment.impl;
 
-import com.checkout.hybris.core.certificate.exceptions.CheckoutComCertificateException;
-import com.checkout.hybris.core.certificate.services.CheckoutComCertificateService;
-import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
-import com.checkout.hybris.core.model.CheckoutComApplePayConfigurationModel;
 import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.services.CheckoutComApplePayClientRegistry;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentIntegrationService;
 import com.checkout.hybris.facades.beans.WalletPaymentAdditionalAuthInfo;
 import com.checkout.hybris.facades.beans.WalletPaymentInfoData;
@@ -18,19 +15,12 @@ import com.google.common.base.Preconditions;
 import de.hybris.platform.acceleratorfacades.payment.impl.DefaultPaymentFacade;
 import de.hybris.platform.core.model.order.CartModel;
 import de.hybris.platform.order.CartService;
-import de.hybris.platform.servicelayer.config.ConfigurationService;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
-import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
-import org.apache.http.ssl.SSLContextBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.util.Assert;
 
-import javax.net.ssl.SSLContext;
-import java.security.*;
-import java.security.cert.X509Certificate;
-import java.security.interfaces.RSAPrivateKey;
 import java.util.Optional;
 
 /**
@@ -40,29 +30,20 @@ public class DefaultCheckoutComPaymentFacade extends DefaultPaymentFacade implem
 
     protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPaymentFacade.class);
 
-    protected static final String APPLE_PAY_KEY_STORE_ALIAS_PROPERTY_KEY = "checkoutcom.applePay.keystore.alias";
-    protected static final String APPLE_PAY_KEY_STORE_PWD_PROPERTY_KEY = "checkoutcom.applePay.keystore.password";
-
     protected final CartService cartService;
     protected final CheckoutComPaymentIntegrationService checkoutComPaymentIntegrationService;
-    protected final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService;
-    protected final CheckoutComCertificateService checkoutComCertificateService;
+    protected final CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistry;
     protected final CheckoutComMappedPaymentTokenRequestConverter checkoutComMappedPaymentTokenRequestConverter;
-    protected final ConfigurationService configurationService;
 
 
     public DefaultCheckoutComPaymentFacade(final CartService cartService,
                                            final CheckoutComPaymentIntegrationService checkoutComPaymentIntegrationService,
-                                           final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
-                                           final CheckoutComCertificateService checkoutComCertificateService,
-                                           final CheckoutComMappedPaymentTokenRequestConverter checkoutComMappedPaymentTokenRequestConverter,
-                                           final ConfigurationService configurationService) {
+                                           final CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistry,
+                                           final CheckoutComMappedPaymentTokenRequestConverter checkoutComMappedPaymentTokenRequestConverter) {
         this.cartService = cartService;
         this.checkoutComPaymentIntegrationService = checkoutComPaymentIntegrationService;
-        this.checkoutComMerchantConfigurationService = checkoutComMerchantConfigurationService;
-        this.checkoutComCertificateService = checkoutComCertificateService;
+        this.checkoutComApplePayClientRegistry = checkoutComApplePayClientRegistry;
         this.checkoutComMappedPaymentTokenRequestConverter = checkoutComMappedPaymentTokenRequestConverter;
-        this.configurationService = configurationService;
     }
 
     /**
@@ -95,31 +76,7 @@ public class DefaultCheckoutComPaymentFacade extends DefaultPaymentFacade implem
      */
     @Override
     public SSLConnectionSocketFactory createApplePayConnectionFactory() {
-        final CheckoutComApplePayConfigurationModel applePayConfiguration = checkoutComMerchantConfigurationService.getApplePayConfiguration();
-        Assert.notNull(applePayConfiguration, "CheckoutComApplePayConfigurationModel cannot be null.");
-
-        final String privateKey = applePayConfiguration.getPrivateKey();
-        final String certificate = applePayConfiguration.getCertificate();
-
-        final String cleanedCertificate = checkoutComCertificateService.cleanupCertificate(certificate);
-        final String cleanedPrivateKey = checkoutComCertificateService.cleanupPrivateKey(privateKey);
-
-        final X509Certificate generatedCertificate = checkoutComCertificateService.generateX509Certificate(cleanedCertificate);
-        final RSAPrivateKey generatedPrivateKey = checkoutComCertificateService.generatePrivateKey(cleanedPrivateKey);
-
-        final String applePayKeyStoreAlias = configurationService.getConfiguration().getString(APPLE_PAY_KEY_STORE_ALIAS_PROPERTY_KEY);
-        final String applePayKeyStorePassword = configurationService.getConfiguration().getString(APPLE_PAY_KEY_STORE_PWD_PROPERTY_KEY);
-        final KeyStore pkcs12Store = checkoutComCertificateService.generateKeyStore(applePayKeyStoreAlias,
-                applePayKeyStorePassword, generatedPrivateKey, generatedCertificate);
-
-        try {
-            final SSLContext sslContext = SSLContextBuilder.create()
-                    .loadKeyMaterial(pkcs12Store, applePayKeyStorePassword.toCharArray())
-                    .loadTrustMaterial(null, new TrustSelfSignedStrategy()).build();
-            return new SSLConnectionSocketFactory(sslContext);
-        } catch (final NoSuchAlgorithmException | KeyStoreException | UnrecoverableKeyException | KeyManagementException e) {
-            throw new CheckoutComCertificateException("Exception while building SSL context", e);
-        }
+        return new SSLConnectionSocketFactory(checkoutComApplePayClientRegistry.getSslContext());
     }
 
     /**
@@ -1,9 +1,9 @@
 package com.checkout.hybris.facades.payment.wallet.impl;
 
+import com.checkout.hybris.core.payment.services.CheckoutComApplePayClientRegistry;
 import com.checkout.hybris.facades.accelerator.CheckoutComCheckoutFlowFacade;
 import com.checkout.hybris.facades.beans.*;
 import com.checkout.hybris.facades.merchant.CheckoutComMerchantConfigurationFacade;
-import com.checkout.hybris.facades.payment.CheckoutComPaymentFacade;
 import com.checkout.hybris.facades.payment.wallet.CheckoutComApplePayFacade;
 import de.hybris.platform.commercefacades.order.CartFacade;
 import de.hybris.platform.commercefacades.order.data.CartData;
@@ -12,10 +12,6 @@ import de.hybris.platform.commercefacades.product.data.PriceData;
 import de.hybris.platform.converters.Converters;
 import de.hybris.platform.servicelayer.dto.converter.Converter;
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,20 +28,20 @@ public class DefaultCheckoutComApplePayFacade implements CheckoutComApplePayFaca
     protected final CheckoutComMerchantConfigurationFacade checkoutComMerchantConfigurationFacade;
     protected final Converter<ApplePaySettingsData, ApplePayValidateMerchantData> checkoutComApplePayToValidateMerchantConverter;
     protected final Converter<DeliveryModeData, ApplePayShippingMethod> checkoutComDeliveryModeDataToApplePayShippingMethodConverter;
-    protected final CheckoutComPaymentFacade checkoutComPaymentFacade;
+    protected final CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistry;
     protected final CartFacade cartFacade;
     protected final CheckoutComCheckoutFlowFacade checkoutComCheckoutFlowFacade;
 
     public DefaultCheckoutComApplePayFacade(final CheckoutComMerchantConfigurationFacade checkoutComMerchantConfigurationFacade,
                                             final Converter<ApplePaySettingsData, ApplePayValidateMerchantData> checkoutComApplePayToValidateMerchantConverter,
                                             final Converter<DeliveryModeData, ApplePayShippingMethod> checkoutComDeliveryModeDataToApplePayShippingMethodConverter,
-                                            final CheckoutComPaymentFacade checkoutComPaymentFacade,
+                                            final CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistry,
                                             final CartFacade cartFacade,
                                             final CheckoutComCheckoutFlowFacade checkoutComCheckoutFlowFacade) {
         this.checkoutComMerchantConfigurationFacade = checkoutComMerchantConfigurationFacade;
         this.checkoutComApplePayToValidateMerchantConverter = checkoutComApplePayToValidateMerchantConverter;
         this.checkoutComDeliveryModeDataToApplePayShippingMethodConverter = checkoutComDeliveryModeDataToApplePayShippingMethodConverter;
-        this.checkoutComPaymentFacade = checkoutComPaymentFacade;
+        this.checkoutComApplePayClientRegistry = checkoutComApplePayClientRegistry;
         this.cartFacade = cartFacade;
         this.checkoutComCheckoutFlowFacade = checkoutComCheckoutFlowFacade;
     }
@@ -57,12 +53,8 @@ public class DefaultCheckoutComApplePayFacade implements CheckoutComApplePayFaca
     public Object requestApplePayPaymentSession(final ApplePayValidateMerchantRequestData validateMerchantRequestData) {
         final ApplePayValidateMerchantData validateMerchantData = getValidateMerchantData().orElse(null);
 
-        final CloseableHttpClient httpClient = HttpClients.custom()
-                .setSSLSocketFactory(checkoutComPaymentFacade.createApplePayConnectionFactory())
-                .build();
-
-        final HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
-        return new RestTemplate(requestFactory).postForObject(validateMerchantRequestData.getValidationURL(), validateMerchantData, Object.class);
+        return checkoutComApplePayClientRegistry.getRestTemplate()
+                .postForObject(validateMerchantRequestData.getValidationURL(), validateMerchantData, Object.class);
     }
 
     /**
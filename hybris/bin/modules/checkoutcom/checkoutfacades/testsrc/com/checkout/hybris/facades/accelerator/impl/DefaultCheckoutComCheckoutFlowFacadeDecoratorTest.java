@@ -2,10 +2,12 @@ package com.checkout.hybris.facades.accelerator.impl;
 
 import com.checkout.hybris.core.address.services.CheckoutComAddressService;
 import com.checkout.hybris.core.authorisation.AuthorizeResponse;
+import com.checkout.hybris.core.enums.CheckoutComPayloadType;
 import com.checkout.hybris.core.model.CheckoutComAPMPaymentInfoModel;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
 import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
 import com.checkout.hybris.core.payment.request.CheckoutComRequestFactory;
+import com.checkout.hybris.core.payment.services.CheckoutComPayloadJournalService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentInfoService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentIntegrationService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
@@ -46,6 +48,7 @@ public class DefaultCheckoutComCheckoutFlowFacadeDecoratorTest {
     private static final String DECLINED_RESPONSE_CODE = "20005";
     private static final String CART_CODE = "cart-code";
     private static final String APM_TYPE_VALUE = "APM";
+    private static final String PAYMENT_REFERENCE = "paymentReference";
 
     @Spy
     @InjectMocks
@@ -91,6 +94,8 @@ public class DefaultCheckoutComCheckoutFlowFacadeDecoratorTest {
     private AuthorizeResponseData authorizeResponseDataMock;
     @Mock
     private ResponseSource responseSourceMock;
+    @Mock
+    private CheckoutComPayloadJournalService checkoutComPayloadJournalServiceMock;
 
     @BeforeEach
     public void setUp() {
@@ -102,6 +107,7 @@ public class DefaultCheckoutComCheckoutFlowFacadeDecoratorTest {
         lenient().when(cartServiceMock.hasSessionCart()).thenReturn(true);
         lenient().when(cartModelMock.getPaymentInfo()).thenReturn(checkoutComCreditCardPaymentInfoMock);
         lenient().when(cartModelMock.getCode()).thenReturn(CART_CODE);
+        lenient().when(cartModelMock.getCheckoutComPaymentReference()).thenReturn(PAYMENT_REFERENCE);
 
         lenient().when(paymentServiceMock.handlePendingPaymentResponse(paymentResponseMock, checkoutComAPMPaymentInfoMock)).thenReturn(authorizeResponseMock);
         ReflectionTestUtils.setField(testObj, "authorizeResponseConverter", authorizeResponseConverterMock);
@@ -186,6 +192,15 @@ public class DefaultCheckoutComCheckoutFlowFacadeDecoratorTest {
         verify(paymentInfoServiceMock).addPaymentId(PAYMENT_ID, checkoutComCreditCardPaymentInfoMock);
     }
 
+    @Test
+    public void authorizePayment_ShouldJournalTheRequestAndTheResponseByPaymentReference() {
+        testObj.authorizePayment();
+
+        verify(checkoutComPayloadJournalServiceMock).journal(PAYMENT_REFERENCE, CheckoutComPayloadType.REQUEST, requestMock);
+        verify(checkoutComPayloadJournalServiceMock).journal(PAYMENT_REFERENCE, CheckoutComPayloadType.RESPONSE, paymentResponseMock);
+        verify(paymentInfoServiceMock, never()).saveRequestAndResponseInOrder(any(), any(), any());
+    }
+
     @Test
     public void authorizePayment_WhenPaymentResponseStatusIsPENDING_ShouldReturnTheCorrectAuthorizeResponseData() {
         when(cartModelMock.getPaymentInfo()).thenReturn(checkoutComAPMPaymentInfoMock);
@@ -1,9 +1,8 @@
 package com.checkout.hybris.facades.payment.impl;
 
-import com.checkout.hybris.core.certificate.services.CheckoutComCertificateService;
-import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
 import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.services.CheckoutComApplePayClientRegistry;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentIntegrationService;
 import com.checkout.hybris.facades.beans.WalletPaymentAdditionalAuthInfo;
 import com.checkout.hybris.facades.beans.WalletPaymentInfoData;
@@ -16,26 +15,19 @@ import com.checkout.tokens.WalletTokenRequest;
 import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.core.model.order.CartModel;
 import de.hybris.platform.order.CartService;
-import de.hybris.platform.servicelayer.config.ConfigurationService;
-import org.apache.commons.configuration.Configuration;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.Answers;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.security.KeyStore;
-import java.security.cert.X509Certificate;
-import java.security.interfaces.RSAPrivateKey;
+import javax.net.ssl.SSLContext;
 import java.util.Optional;
 
 import static com.checkout.hybris.facades.enums.WalletPaymentType.APPLEPAY;
-import static com.checkout.hybris.facades.payment.impl.DefaultCheckoutComPaymentFacade.APPLE_PAY_KEY_STORE_ALIAS_PROPERTY_KEY;
-import static com.checkout.hybris.facades.payment.impl.DefaultCheckoutComPaymentFacade.APPLE_PAY_KEY_STORE_PWD_PROPERTY_KEY;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.when;
@@ -47,8 +39,6 @@ public class DefaultCheckoutComPaymentFacadeTest {
     private static final String CKO_SESSION_ID = "cko-session-id";
     private static final String CART_REFERENCE = "CART_REFERENCE";
     private static final String OTHER_REFERENCE = "OTHER_REFERENCE";
-    private static final String APPLE_PAY_PRIVATE_KEY = "applePayPrivateKey";
-    private static final String APPLE_PAY_CERTIFICATE = "applePayCertificate";
     private static final String TOKEN_VALUE = "token_value";
 
     @InjectMocks
@@ -67,13 +57,7 @@ public class DefaultCheckoutComPaymentFacadeTest {
     @Mock
     private ResponseSource paymentSourceMock;
     @Mock
-    private CheckoutComCertificateService checkoutComCertificateServiceMock;
-    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
-    private CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationServiceMock;
-    @Mock
-    private X509Certificate applePayCertificateMock;
-    @Mock
-    private RSAPrivateKey applePayPrivateKeyMock;
+    private CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistryMock;
     @Mock
     private WalletPaymentAdditionalAuthInfo walletPaymentAdditionalAuthInfoMock;
     @Mock
@@ -82,16 +66,9 @@ public class DefaultCheckoutComPaymentFacadeTest {
     private CheckoutComMappedPaymentTokenRequestConverter checkoutComMappedPaymentTokenRequestConverterMock;
     @Mock
     private TokenResponse tokenResponseMock;
-    @Mock
-    private ConfigurationService configurationServiceMock;
-    @Mock
-    private Configuration configurationMock;
 
     @Before
     public void setUp() {
-        when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
-        when(configurationMock.getString(APPLE_PAY_KEY_STORE_ALIAS_PROPERTY_KEY)).thenReturn("applePay");
-        when(configurationMock.getString(APPLE_PAY_KEY_STORE_PWD_PROPERTY_KEY)).thenReturn("changeit");
         when(cartServiceMock.getSessionCart()).thenReturn(cartModelMock);
         when(cartServiceMock.hasSessionCart()).thenReturn(true);
         when(cartModelMock.getCheckoutComPaymentReference()).thenReturn(CART_REFERENCE);
@@ -172,17 +149,7 @@ public class DefaultCheckoutComPaymentFacadeTest {
 
     @Test
     public void createApplePayConnectionFactory_ShouldCreateAnSSLConnectionFactoryForApplePay() throws Exception {
-        when(checkoutComMerchantConfigurationServiceMock.getApplePayConfiguration().getPrivateKey()).thenReturn(APPLE_PAY_PRIVATE_KEY);
-        when(checkoutComMerchantConfigurationServiceMock.getApplePayConfiguration().getCertificate()).thenReturn(APPLE_PAY_CERTIFICATE);
-        when(checkoutComCertificateServiceMock.cleanupCertificate(APPLE_PAY_CERTIFICATE)).thenReturn(APPLE_PAY_CERTIFICATE);
-        when(checkoutComCertificateServiceMock.cleanupPrivateKey(APPLE_PAY_PRIVATE_KEY)).thenReturn(APPLE_PAY_PRIVATE_KEY);
-        when(checkoutComCertificateServiceMock.generateX509Certificate(APPLE_PAY_CERTIFICATE)).thenReturn(applePayCertificateMock);
-        when(checkoutComCertificateServiceMock.generatePrivateKey(APPLE_PAY_PRIVATE_KEY)).thenReturn(applePayPrivateKeyMock);
-
-        final KeyStore applePayKeyStore = KeyStore.getInstance("JKS");
-        applePayKeyStore.load(null, null);
-
-        when(checkoutComCertificateServiceMock.generateKeyStore("applePay", "changeit", applePayPrivateKeyMock, applePayCertificateMock)).thenReturn(applePayKeyStore);
+        when(checkoutComApplePayClientRegistryMock.getSslContext()).thenReturn(SSLContext.getDefault());
 
         final SSLConnectionSocketFactory result = testObj.createApplePayConnectionFactory();
 
@@ -191,7 +158,7 @@ public class DefaultCheckoutComPaymentFacadeTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void createApplePayConnectionFactory_WhenApplePayConfigurationNull_ShouldThrowException() {
-        when(checkoutComMerchantConfigurationServiceMock.getApplePayConfiguration()).thenReturn(null);
+        when(checkoutComApplePayClientRegistryMock.getSslContext()).thenThrow(new IllegalArgumentException("CheckoutComApplePayConfigurationModel cannot be null."));
 
         testObj.createApplePayConnectionFactory();
     }
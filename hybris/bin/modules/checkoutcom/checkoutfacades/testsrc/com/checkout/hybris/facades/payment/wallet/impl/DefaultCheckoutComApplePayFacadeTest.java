@@ -1,9 +1,9 @@
 package com.checkout.hybris.facades.payment.wallet.impl;
 
+import com.checkout.hybris.core.payment.services.CheckoutComApplePayClientRegistry;
 import com.checkout.hybris.facades.accelerator.CheckoutComCheckoutFlowFacade;
 import com.checkout.hybris.facades.beans.*;
 import com.checkout.hybris.facades.merchant.CheckoutComMerchantConfigurationFacade;
-import com.checkout.hybris.facades.payment.CheckoutComPaymentFacade;
 import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.commercefacades.order.CartFacade;
 import de.hybris.platform.commercefacades.order.data.CartData;
@@ -18,6 +18,7 @@ import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -38,6 +39,7 @@ public class DefaultCheckoutComApplePayFacadeTest {
     private static final Set<String> MERCHANT_CAPABILITIES = Set.of("supportsCredit", "supportsDebit");
     private static final String APPLE_PAY_LINE_ITEM_TYPE_FINAL = "final";
     private static final String SHIPPING_METHOD_IDENTIFIER = "shippingMethodIdentifier";
+    private static final String VALIDATION_URL = "https://apple-pay-gateway.apple.com/paymentservices/startSession";
 
     @InjectMocks
     private DefaultCheckoutComApplePayFacade testObj;
@@ -52,7 +54,13 @@ public class DefaultCheckoutComApplePayFacadeTest {
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private CartFacade cartFacadeMock;
     @Mock
-    private CheckoutComPaymentFacade checkoutComPaymentFacadeMock;
+    private CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistryMock;
+    @Mock
+    private RestTemplate restTemplateMock;
+    @Mock
+    private ApplePayValidateMerchantRequestData validateMerchantRequestDataMock;
+    @Mock
+    private ApplePayValidateMerchantData validateMerchantDataMock;
     @Mock
     private Converter<AddressData, ApplePayPaymentContact> checkoutComApplePayAddressConverterMock;
     @Mock
@@ -74,7 +82,7 @@ public class DefaultCheckoutComApplePayFacadeTest {
 
     @Before
     public void setUp() {
-        testObj = new DefaultCheckoutComApplePayFacade(checkoutComMerchantConfigurationFacadeMock, checkoutComApplePayToValidateMerchantConverterMock, checkoutComDeliveryModeDataToApplePayShippingMethodConverterMock, checkoutComPaymentFacadeMock, cartFacadeMock, checkoutComCheckoutFlowFacadeMock);
+        testObj = new DefaultCheckoutComApplePayFacade(checkoutComMerchantConfigurationFacadeMock, checkoutComApplePayToValidateMerchantConverterMock, checkoutComDeliveryModeDataToApplePayShippingMethodConverterMock, checkoutComApplePayClientRegistryMock, cartFacadeMock, checkoutComCheckoutFlowFacadeMock);
 
         priceData.setCurrencyIso(CURRENCY_ISO_CODE);
         priceData.setValue(BigDecimal.TEN);
@@ -94,6 +102,19 @@ public class DefaultCheckoutComApplePayFacadeTest {
         verify(checkoutComApplePayToValidateMerchantConverterMock).convert(applePaySettingsMock);
     }
 
+    @Test
+    public void requestApplePayPaymentSession_ShouldValidateTheMerchantWithThePooledClientOfTheSite() {
+        final Object paymentSession = new Object();
+        when(validateMerchantRequestDataMock.getValidationURL()).thenReturn(VALIDATION_URL);
+        when(checkoutComApplePayToValidateMerchantConverterMock.convert(applePaySettingsMock)).thenReturn(validateMerchantDataMock);
+        when(checkoutComApplePayClientRegistryMock.getRestTemplate()).thenReturn(restTemplateMock);
+        when(restTemplateMock.postForObject(VALIDATION_URL, validateMerchantDataMock, Object.class)).thenReturn(paymentSession);
+
+        final Object result = testObj.requestApplePayPaymentSession(validateMerchantRequestDataMock);
+
+        assertThat(result).isSameAs(paymentSession);
+    }
+
     @Test
     public void getApplePayPaymentRequest_WhenApplePaySettingFound_ShouldReturnPopulatedRequest() {
         final ApplePayPaymentRequestData result = testObj.getApplePayPaymentRequest();
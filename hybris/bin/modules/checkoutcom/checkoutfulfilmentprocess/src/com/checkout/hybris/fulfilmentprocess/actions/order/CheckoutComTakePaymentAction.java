@@ -1,8 +1,11 @@
 package com.checkout.hybris.fulfilmentprocess.actions.order;
 
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandType;
 import com.checkout.hybris.core.model.CheckoutComAPMPaymentInfoModel;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
-import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
 import de.hybris.platform.core.enums.OrderStatus;
@@ -21,7 +24,8 @@ import org.apache.logging.log4j.Logger;
 import java.util.Set;
 
 /**
- * The TakePayment step captures the payment transaction.
+ * The TakePayment step captures the payment transaction. The capture is recorded as a payment command and sent by the
+ * payment command dispatcher, the process waits for the command to complete and runs the step again.
  */
 public class CheckoutComTakePaymentAction extends AbstractAction<OrderProcessModel> {
 
@@ -30,14 +34,19 @@ public class CheckoutComTakePaymentAction extends AbstractAction<OrderProcessMod
     protected static final String OK = "OK";
     protected static final String NOK = "NOK";
     protected static final String WAIT = "WAIT";
+    protected static final String DISPATCHED = "DISPATCHED";
+    protected static final String CAPTURE_COMMAND_EVENT_SUFFIX = "_CAPTURE_COMMAND";
 
     protected final CheckoutComPaymentService paymentService;
     protected final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService;
+    protected final CheckoutComPaymentCommandService checkoutComPaymentCommandService;
 
     public CheckoutComTakePaymentAction(final CheckoutComPaymentService paymentService,
-                                        final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService) {
+                                        final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService,
+                                        final CheckoutComPaymentCommandService checkoutComPaymentCommandService) {
         this.paymentService = paymentService;
         this.checkoutComPaymentTransactionService = checkoutComPaymentTransactionService;
+        this.checkoutComPaymentCommandService = checkoutComPaymentCommandService;
     }
 
     /**
@@ -45,7 +54,7 @@ public class CheckoutComTakePaymentAction extends AbstractAction<OrderProcessMod
      */
     @Override
     public Set<String> getTransitions() {
-        return AbstractAction.createTransitions(OK, NOK, WAIT);
+        return AbstractAction.createTransitions(OK, NOK, WAIT, DISPATCHED);
     }
 
     /**
@@ -74,7 +83,7 @@ public class CheckoutComTakePaymentAction extends AbstractAction<OrderProcessMod
             if (paymentService.captureExists(order)) {
                 return evaluateProcessOutcomeForOrder(order);
             } else {
-                return handleProcessNotCaptured(order, paymentTransaction);
+                return handleProcessNotCaptured(process, order, paymentTransaction);
             }
         }
 
@@ -86,35 +95,42 @@ public class CheckoutComTakePaymentAction extends AbstractAction<OrderProcessMod
      * 1. Order is auto-capture and the system needs to wait for the notification to be processed
      * 2. Order is not auto-capture and the system needs to invoke the capture
      *
+     * @param process            the order process
      * @param order              the order
      * @param paymentTransaction the payment transaction
      * @return the transaction status
      */
-    protected String handleProcessNotCaptured(final OrderModel order, final PaymentTransactionModel paymentTransaction) {
+    protected String handleProcessNotCaptured(final OrderProcessModel process, final OrderModel order, final PaymentTransactionModel paymentTransaction) {
         if (paymentService.isAutoCapture(order) || paymentService.isDeferred(order)) {
             return evaluateProcessOutcomeForOrder(order);
         } else {
-            return capturePayment(order, paymentTransaction);
+            return capturePayment(process, order, paymentTransaction);
         }
     }
 
     /**
-     * Performs the payment capture
+     * Records the payment capture command of the process, or checks the outcome of the one already recorded
      *
+     * @param process            the order process
      * @param order              the order
      * @param paymentTransaction the payment transaction
-     * @return the transaction status
+     * @return the transaction status, DISPATCHED while the command has not been completed
      */
-    protected String capturePayment(final OrderModel order, final PaymentTransactionModel paymentTransaction) {
-        final PaymentTransactionEntryModel transactionEntry;
-        try {
-            transactionEntry = paymentService.capture(paymentTransaction);
-        } catch (final CheckoutComPaymentIntegrationException e) {
-            LOG.error("Payment integration exception [{}]. Retrying...", e.getMessage());
-            throw new RetryLaterException("Payment Gateway exception during capture.");
+    protected String capturePayment(final OrderProcessModel process, final OrderModel order, final PaymentTransactionModel paymentTransaction) {
+        final CheckoutComPaymentCommandModel command = checkoutComPaymentCommandService.submitCommand(CheckoutComPaymentCommandType.CAPTURE,
+                paymentTransaction, null, process.getCode(), process.getCode() + CAPTURE_COMMAND_EVENT_SUFFIX);
+
+        if (CheckoutComPaymentCommandStatus.FAILED.equals(command.getStatus())) {
+            LOG.error("The payment capture command has failed for order: [{}]. Error: [{}]", order.getCode(), command.getLastError());
+            setOrderStatus(order, OrderStatus.PAYMENT_NOT_CAPTURED);
+            return NOK;
+        }
+        if (CheckoutComPaymentCommandStatus.COMPLETED.equals(command.getStatus()) && command.getTransactionEntry() != null) {
+            return evaluateProcessOutcomeForPaymentCapture(command.getTransactionEntry(), order, paymentTransaction);
         }
 
-        return evaluateProcessOutcomeForPaymentCapture(transactionEntry, order, paymentTransaction);
+        LOG.info("The payment capture command has been dispatched for order: [{}]", order.getCode());
+        return DISPATCHED;
     }
 
     /**
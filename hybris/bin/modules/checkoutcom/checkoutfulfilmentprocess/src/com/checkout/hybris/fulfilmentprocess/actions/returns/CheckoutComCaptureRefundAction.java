@@ -3,9 +3,12 @@
  */
 package com.checkout.hybris.fulfilmentprocess.actions.returns;
 
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandType;
 import com.checkout.hybris.core.model.CheckoutComAPMPaymentInfoModel;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
-import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
 import de.hybris.platform.basecommerce.enums.ReturnStatus;
@@ -43,6 +46,8 @@ import static jersey.repackaged.com.google.common.base.Preconditions.checkArgume
  * Assumptions:
  * - Only one PaymentTransaction exists for the Order
  * - Simple calculation of refund amount
+ * - The refund is recorded as a payment command and sent by the payment command dispatcher, the process waits for the
+ * command to complete and runs the step again
  */
 public class CheckoutComCaptureRefundAction extends AbstractAction<ReturnProcessModel> {
 
@@ -51,16 +56,21 @@ public class CheckoutComCaptureRefundAction extends AbstractAction<ReturnProcess
     protected static final String OK = "OK";
     protected static final String NOK = "NOK";
     protected static final String WAIT = "WAIT";
+    protected static final String DISPATCHED = "DISPATCHED";
+    protected static final String REFUND_COMMAND_EVENT_SUFFIX = "_REFUND_COMMAND";
 
     protected final CheckoutComPaymentService paymentService;
     protected final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService;
     protected final BaseSiteService baseSiteService;
+    protected final CheckoutComPaymentCommandService checkoutComPaymentCommandService;
 
     public CheckoutComCaptureRefundAction(final CheckoutComPaymentService paymentService,
-                                          final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService, final BaseSiteService baseSiteService) {
+                                          final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService, final BaseSiteService baseSiteService,
+                                          final CheckoutComPaymentCommandService checkoutComPaymentCommandService) {
         this.paymentService = paymentService;
         this.checkoutComPaymentTransactionService = checkoutComPaymentTransactionService;
         this.baseSiteService = baseSiteService;
+        this.checkoutComPaymentCommandService = checkoutComPaymentCommandService;
     }
 
     /**
@@ -68,7 +78,7 @@ public class CheckoutComCaptureRefundAction extends AbstractAction<ReturnProcess
      */
     @Override
     public Set<String> getTransitions() {
-        return AbstractAction.createTransitions(OK, NOK, WAIT);
+        return AbstractAction.createTransitions(OK, NOK, WAIT, DISPATCHED);
     }
 
     /**
@@ -100,7 +110,19 @@ public class CheckoutComCaptureRefundAction extends AbstractAction<ReturnProcess
             if (StringUtils.isBlank(refundActionId)) {
                 LOG.info("Initiating refund for order: [{}]", order.getCode());
 
-                transactionEntry = refundPayment(paymentTransaction, getRefundAmount(returnRequest));
+                final CheckoutComPaymentCommandModel command = refundPayment(process, paymentTransaction, getRefundAmount(returnRequest));
+
+                if (CheckoutComPaymentCommandStatus.FAILED.equals(command.getStatus())) {
+                    LOG.error("The refund command has failed for return request: [{}]. Error: [{}]", returnRequest.getCode(), command.getLastError());
+                    setReturnRequestStatus(returnRequest, ReturnStatus.PAYMENT_REVERSAL_FAILED);
+                    return NOK;
+                }
+                if (!CheckoutComPaymentCommandStatus.COMPLETED.equals(command.getStatus()) || command.getTransactionEntry() == null) {
+                    LOG.info("The refund command has been dispatched for order: [{}]", order.getCode());
+                    return DISPATCHED;
+                }
+
+                transactionEntry = command.getTransactionEntry();
                 refundActionId = transactionEntry.getRequestToken();
 
                 LOG.info("Refund response received with actionId: [{}]", refundActionId);
@@ -124,19 +146,17 @@ public class CheckoutComCaptureRefundAction extends AbstractAction<ReturnProcess
     }
 
     /**
-     * Initiates a follow-on refund and returns the request token
+     * Records the follow-on refund command of the process, or returns the one already recorded
      *
+     * @param process        the return process
      * @param transaction    the payment transaction of the order
      * @param amountToRefund the amount to be refunded
-     * @return the refund request token
+     * @return the refund command
      */
-    protected PaymentTransactionEntryModel refundPayment(final PaymentTransactionModel transaction, final BigDecimal amountToRefund) {
-        try {
-            return paymentService.refundFollowOn(transaction, amountToRefund);
-        } catch (final CheckoutComPaymentIntegrationException e) {
-            LOG.error("Payment integration exception [{}]. Retrying...", e.getMessage());
-            throw new RetryLaterException("Payment Gateway exception during refund process.");
-        }
+    protected CheckoutComPaymentCommandModel refundPayment(final ReturnProcessModel process, final PaymentTransactionModel transaction,
+                                                           final BigDecimal amountToRefund) {
+        return checkoutComPaymentCommandService.submitCommand(CheckoutComPaymentCommandType.REFUND, transaction, amountToRefund,
+                process.getCode(), process.getCode() + REFUND_COMMAND_EVENT_SUFFIX);
     }
 
     /**
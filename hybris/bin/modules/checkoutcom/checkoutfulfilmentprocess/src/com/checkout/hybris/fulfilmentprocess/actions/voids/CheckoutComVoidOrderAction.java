@@ -1,6 +1,9 @@
 package com.checkout.hybris.fulfilmentprocess.actions.voids;
 
-import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandType;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
 import com.checkout.hybris.fulfilmentprocess.model.CheckoutComVoidProcessModel;
@@ -9,7 +12,6 @@ import de.hybris.platform.payment.dto.TransactionStatus;
 import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
 import de.hybris.platform.payment.model.PaymentTransactionModel;
 import de.hybris.platform.processengine.action.AbstractAction;
-import de.hybris.platform.task.RetryLaterException;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -18,7 +20,8 @@ import java.util.Optional;
 import java.util.Set;
 
 /**
- * Checkout.com action to cancel an Order
+ * Checkout.com action to cancel an Order. The void is recorded as a payment command and sent by the payment command
+ * dispatcher, the process waits for the command to complete and runs the step again.
  */
 public class CheckoutComVoidOrderAction extends AbstractAction<CheckoutComVoidProcessModel> {
 
@@ -27,14 +30,19 @@ public class CheckoutComVoidOrderAction extends AbstractAction<CheckoutComVoidPr
     protected static final String OK = "OK";
     protected static final String NOK = "NOK";
     protected static final String WAIT = "WAIT";
+    protected static final String DISPATCHED = "DISPATCHED";
+    protected static final String VOID_COMMAND_EVENT_SUFFIX = "_VOID_COMMAND";
 
     protected final CheckoutComPaymentService paymentService;
     protected final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService;
+    protected final CheckoutComPaymentCommandService checkoutComPaymentCommandService;
 
     public CheckoutComVoidOrderAction(final CheckoutComPaymentService paymentService,
-                                      final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService) {
+                                      final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService,
+                                      final CheckoutComPaymentCommandService checkoutComPaymentCommandService) {
         this.paymentService = paymentService;
         this.checkoutComPaymentTransactionService = checkoutComPaymentTransactionService;
+        this.checkoutComPaymentCommandService = checkoutComPaymentCommandService;
     }
 
     /**
@@ -42,7 +50,7 @@ public class CheckoutComVoidOrderAction extends AbstractAction<CheckoutComVoidPr
      */
     @Override
     public Set<String> getTransitions() {
-        return AbstractAction.createTransitions(OK, NOK, WAIT);
+        return AbstractAction.createTransitions(OK, NOK, WAIT, DISPATCHED);
     }
 
     /**
@@ -53,33 +61,53 @@ public class CheckoutComVoidOrderAction extends AbstractAction<CheckoutComVoidPr
         final OrderModel order = process.getOrder();
 
         if (order != null && CollectionUtils.isNotEmpty(order.getPaymentTransactions())) {
-            if (paymentService.isVoidPresent(order)) {
-                LOG.info("Order with code [{}] has been already voided.", order.getCode());
-                return OK;
-            }
-
             final PaymentTransactionModel paymentTransaction = checkoutComPaymentTransactionService.getPaymentTransaction(order);
-            final Optional<PaymentTransactionEntryModel> authorizationTransactionEntryAccepted = checkoutComPaymentTransactionService.findAcceptedAuthorizationEntry(paymentTransaction);
-            final PaymentTransactionEntryModel transactionEntry;
-
-            if (authorizationTransactionEntryAccepted.isPresent()) {
-                try {
-                    transactionEntry = paymentService.cancel(authorizationTransactionEntryAccepted.get());
-                } catch (final CheckoutComPaymentIntegrationException e) {
-                    LOG.error("Payment integration exception [{}]. Retrying...", e.getMessage());
-                    throw new RetryLaterException("Payment Gateway exception during void.");
+            final Optional<CheckoutComPaymentCommandModel> recordedCommand = checkoutComPaymentCommandService.findCommand(CheckoutComPaymentCommandType.VOID, process.getCode());
+
+            if (recordedCommand.isEmpty()) {
+                if (paymentService.isVoidPresent(order)) {
+                    LOG.info("Order with code [{}] has been already voided.", order.getCode());
+                    return OK;
+                }
+
+                final Optional<PaymentTransactionEntryModel> authorizationTransactionEntryAccepted = checkoutComPaymentTransactionService.findAcceptedAuthorizationEntry(paymentTransaction);
+                if (authorizationTransactionEntryAccepted.isEmpty()) {
+                    LOG.error("Accepted authorization entry not present for order with code [{}] and process [{}]", order.getCode(), process.getCode());
+                    return NOK;
                 }
-                return evaluateProcessOutcomeForVoidPayment(transactionEntry, order, paymentTransaction);
-            } else {
-                LOG.error("Accepted authorization entry not present for order with code [{}] and process [{}]", order.getCode(), process.getCode());
-                return NOK;
             }
+
+            final CheckoutComPaymentCommandModel command = recordedCommand.orElseGet(() -> checkoutComPaymentCommandService.submitCommand(
+                    CheckoutComPaymentCommandType.VOID, paymentTransaction, null, process.getCode(), process.getCode() + VOID_COMMAND_EVENT_SUFFIX));
+            return evaluateProcessOutcomeForVoidCommand(command, order, paymentTransaction);
         }
 
         LOG.error("Order not found for order process with code [{}] or transaction not present.", process.getCode());
         return NOK;
     }
 
+    /**
+     * Decides what is the outcome of the process based on the state of the void payment command
+     *
+     * @param command            the void payment command of the process
+     * @param order              the order model
+     * @param paymentTransaction the payment transaction
+     * @return process outcome, DISPATCHED while the command has not been completed
+     */
+    protected String evaluateProcessOutcomeForVoidCommand(final CheckoutComPaymentCommandModel command, final OrderModel order,
+                                                          final PaymentTransactionModel paymentTransaction) {
+        if (CheckoutComPaymentCommandStatus.FAILED.equals(command.getStatus())) {
+            LOG.error("The void payment command has failed for order: [{}]. Error: [{}]", order.getCode(), command.getLastError());
+            return NOK;
+        }
+        if (CheckoutComPaymentCommandStatus.COMPLETED.equals(command.getStatus()) && command.getTransactionEntry() != null) {
+            return evaluateProcessOutcomeForVoidPayment(command.getTransactionEntry(), order, paymentTransaction);
+        }
+
+        LOG.info("The void payment command has been dispatched for order: [{}]", order.getCode());
+        return DISPATCHED;
+    }
+
     /**
      * Decides what is the outcome of the process based on the void payment response
      *
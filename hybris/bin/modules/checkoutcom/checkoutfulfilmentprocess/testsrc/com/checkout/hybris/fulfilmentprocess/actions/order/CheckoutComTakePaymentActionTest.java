@@ -1,8 +1,10 @@
 package com.checkout.hybris.fulfilmentprocess.actions.order;
 
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
 import com.checkout.hybris.core.model.CheckoutComAPMPaymentInfoModel;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
-import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
 import de.hybris.bootstrap.annotations.UnitTest;
@@ -14,7 +16,6 @@ import de.hybris.platform.payment.dto.TransactionStatus;
 import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
 import de.hybris.platform.payment.model.PaymentTransactionModel;
 import de.hybris.platform.servicelayer.model.ModelService;
-import de.hybris.platform.task.RetryLaterException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -25,6 +26,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Set;
 
+import static com.checkout.hybris.core.enums.CheckoutComPaymentCommandType.CAPTURE;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
@@ -38,6 +40,8 @@ public class CheckoutComTakePaymentActionTest {
     private static final String OK = "OK";
     private static final String NOK = "NOK";
     private static final String WAIT = "WAIT";
+    private static final String DISPATCHED = "DISPATCHED";
+    private static final String PROCESS_CODE = "processCode";
 
     @Spy
     @InjectMocks
@@ -63,17 +67,24 @@ public class CheckoutComTakePaymentActionTest {
     private PaymentTransactionEntryModel paymentTransactionEntryMock;
     @Mock
     private CheckoutComPaymentTransactionService checkoutComPaymentTransactionServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandService checkoutComPaymentCommandServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandModel paymentCommandMock;
 
     @Before
     public void setUp() {
         testObj.setModelService(modelServiceMock);
 
         when(orderProcessMock.getOrder()).thenReturn(orderMock);
+        when(orderProcessMock.getCode()).thenReturn(PROCESS_CODE);
         when(orderMock.getPaymentTransactions()).thenReturn(singletonList(paymentTransactionMock));
         when(paymentTransactionMock.getInfo()).thenReturn(paymentInfoModelMock);
         when(paymentServiceMock.isAutoCapture(orderMock)).thenReturn(false);
         when(checkoutComPaymentTransactionServiceMock.getPaymentTransaction(orderMock)).thenReturn(paymentTransactionMock);
-        when(paymentServiceMock.capture(paymentTransactionMock)).thenReturn(paymentTransactionEntryMock);
+        when(checkoutComPaymentCommandServiceMock.submitCommand(CAPTURE, paymentTransactionMock, null, PROCESS_CODE, PROCESS_CODE + "_CAPTURE_COMMAND")).thenReturn(paymentCommandMock);
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.COMPLETED);
+        when(paymentCommandMock.getTransactionEntry()).thenReturn(paymentTransactionEntryMock);
     }
 
     @Test
@@ -83,6 +94,7 @@ public class CheckoutComTakePaymentActionTest {
         assertTrue(transitions.contains(OK));
         assertTrue(transitions.contains(NOK));
         assertTrue(transitions.contains(WAIT));
+        assertTrue(transitions.contains(DISPATCHED));
     }
 
     @Test
@@ -164,55 +176,71 @@ public class CheckoutComTakePaymentActionTest {
         verify(orderMock).setStatus(OrderStatus.PAYMENT_NOT_CAPTURED);
     }
 
-    @Test(expected = RetryLaterException.class)
-    public void execute_WhenCaptureThrowsPaymentIntegrationExeption_ShouldThrowRetryLaterException() {
-        when(paymentServiceMock.capture(paymentTransactionMock)).thenThrow(new CheckoutComPaymentIntegrationException("error"));
+    @Test
+    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldSubmitCaptureCommandAndReturnDISPATCHEDIfNotCompleted() {
+        when(paymentServiceMock.captureExists(orderMock)).thenReturn(false);
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.PENDING);
+
+        final String result = testObj.execute(orderProcessMock);
+
+        assertEquals(DISPATCHED, result);
+        verify(paymentServiceMock, never()).capture(paymentTransactionMock);
+        verify(orderMock, never()).setStatus(any(OrderStatus.class));
+    }
 
-        testObj.execute(orderProcessMock);
+    @Test
+    public void execute_WhenCaptureCommandHasFailed_ShouldReturnNOK() {
+        when(paymentServiceMock.captureExists(orderMock)).thenReturn(false);
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.FAILED);
+
+        final String result = testObj.execute(orderProcessMock);
+
+        assertEquals(NOK, result);
+        verify(orderMock).setStatus(OrderStatus.PAYMENT_NOT_CAPTURED);
     }
 
     @Test
-    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldCaptureAndReturnOKIfPaymentAccepted() {
+    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldCompleteCaptureCommandAndReturnOKIfPaymentAccepted() {
         when(paymentServiceMock.captureExists(orderMock)).thenReturn(false);
         when(paymentTransactionEntryMock.getTransactionStatus()).thenReturn(TransactionStatus.ACCEPTED.toString());
 
         final String result = testObj.execute(orderProcessMock);
 
         assertEquals(OK, result);
-        verify(paymentServiceMock).capture(paymentTransactionMock);
+        verify(checkoutComPaymentCommandServiceMock).submitCommand(CAPTURE, paymentTransactionMock, null, PROCESS_CODE, PROCESS_CODE + "_CAPTURE_COMMAND");
     }
 
     @Test
-    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldCaptureAndReturnNOKIfPaymentError() {
+    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldCompleteCaptureCommandAndReturnNOKIfPaymentError() {
         when(paymentServiceMock.captureExists(orderMock)).thenReturn(false);
         when(paymentTransactionEntryMock.getTransactionStatus()).thenReturn(TransactionStatus.ERROR.toString());
 
         final String result = testObj.execute(orderProcessMock);
 
         assertEquals(NOK, result);
-        verify(paymentServiceMock).capture(paymentTransactionMock);
+        verify(checkoutComPaymentCommandServiceMock).submitCommand(CAPTURE, paymentTransactionMock, null, PROCESS_CODE, PROCESS_CODE + "_CAPTURE_COMMAND");
     }
 
     @Test
-    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldCaptureAndReturnNOKIfPaymentRejected() {
+    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldCompleteCaptureCommandAndReturnNOKIfPaymentRejected() {
         when(paymentServiceMock.captureExists(orderMock)).thenReturn(false);
         when(paymentTransactionEntryMock.getTransactionStatus()).thenReturn(TransactionStatus.REJECTED.toString());
 
         final String result = testObj.execute(orderProcessMock);
 
         assertEquals(NOK, result);
-        verify(paymentServiceMock).capture(paymentTransactionMock);
+        verify(checkoutComPaymentCommandServiceMock).submitCommand(CAPTURE, paymentTransactionMock, null, PROCESS_CODE, PROCESS_CODE + "_CAPTURE_COMMAND");
     }
 
     @Test
-    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldCaptureAndReturnWAITOtherwise() {
+    public void execute_WhenNoCaptureAndNoAutoCapture_ShouldCompleteCaptureCommandAndReturnWAITOtherwise() {
         when(paymentServiceMock.captureExists(orderMock)).thenReturn(false);
         when(paymentTransactionEntryMock.getTransactionStatus()).thenReturn(TransactionStatus.PENDING.toString());
 
         final String result = testObj.execute(orderProcessMock);
 
         assertEquals(WAIT, result);
-        verify(paymentServiceMock).capture(paymentTransactionMock);
+        verify(checkoutComPaymentCommandServiceMock).submitCommand(CAPTURE, paymentTransactionMock, null, PROCESS_CODE, PROCESS_CODE + "_CAPTURE_COMMAND");
     }
 
     @Test
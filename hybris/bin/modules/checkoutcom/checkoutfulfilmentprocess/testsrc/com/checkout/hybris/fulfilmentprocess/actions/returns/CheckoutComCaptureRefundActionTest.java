@@ -1,8 +1,10 @@
 package com.checkout.hybris.fulfilmentprocess.actions.returns;
 
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
 import com.checkout.hybris.core.model.CheckoutComAPMPaymentInfoModel;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
-import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
 import de.hybris.bootstrap.annotations.UnitTest;
@@ -16,7 +18,6 @@ import de.hybris.platform.returns.model.ReturnProcessModel;
 import de.hybris.platform.returns.model.ReturnRequestModel;
 import de.hybris.platform.servicelayer.model.ModelService;
 import de.hybris.platform.site.BaseSiteService;
-import de.hybris.platform.task.RetryLaterException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,6 +31,7 @@ import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.checkout.hybris.core.enums.CheckoutComPaymentCommandType.REFUND;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,6 +44,8 @@ public class CheckoutComCaptureRefundActionTest {
     private static final String OK = "OK";
     private static final String NOK = "NOK";
     private static final String WAIT = "WAIT";
+    private static final String DISPATCHED = "DISPATCHED";
+    private static final String PROCESS_CODE = "processCode";
     private static final String OUTCOME = "outcome";
     private static final String ACTION_ID = "actionId";
     private static final BigDecimal REFUND_AMOUNT = BigDecimal.valueOf(15.0d);
@@ -71,11 +75,13 @@ public class CheckoutComCaptureRefundActionTest {
     @Mock
     private CheckoutComAPMPaymentInfoModel apmPaymentInfoMock;
     @Mock
-    private PaymentTransactionEntryModel refundEntryMock;
-    @Mock
     private PaymentTransactionEntryModel paymentTransactionEntryMock;
     @Mock
     private CheckoutComPaymentTransactionService checkoutComPaymentTransactionServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandService checkoutComPaymentCommandServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandModel paymentCommandMock;
 
     @Before
     public void setUp() {
@@ -83,6 +89,7 @@ public class CheckoutComCaptureRefundActionTest {
 
         doReturn(REFUND_AMOUNT).when(testObj).getRefundAmount(returnRequestMock);
         when(processMock.getReturnRequest()).thenReturn(returnRequestMock);
+        when(processMock.getCode()).thenReturn(PROCESS_CODE);
         when(returnRequestMock.getOrder()).thenReturn(orderMock);
         when(returnRequestMock.getCode()).thenReturn("returnRequestCode");
         when(orderMock.getCode()).thenReturn("orderCode");
@@ -90,6 +97,9 @@ public class CheckoutComCaptureRefundActionTest {
         when(checkoutComPaymentTransactionServiceMock.getPaymentTransaction(orderMock)).thenReturn(paymentTransactionMock);
         when(paymentTransactionMock.getInfo()).thenReturn(checkoutComCreditCardPaymentInfoMock);
         when(checkoutComPaymentTransactionServiceMock.findRefundEntryForActionId(paymentTransactionMock, ACTION_ID)).thenReturn(Optional.of(paymentTransactionEntryMock));
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.COMPLETED);
+        when(paymentCommandMock.getTransactionEntry()).thenReturn(paymentTransactionEntryMock);
+        when(paymentTransactionEntryMock.getRequestToken()).thenReturn(ACTION_ID);
     }
 
     @Test
@@ -99,6 +109,7 @@ public class CheckoutComCaptureRefundActionTest {
         assertTrue(transitions.contains(OK));
         assertTrue(transitions.contains(NOK));
         assertTrue(transitions.contains(WAIT));
+        assertTrue(transitions.contains(DISPATCHED));
     }
 
     @Test
@@ -122,13 +133,14 @@ public class CheckoutComCaptureRefundActionTest {
     @Test
     public void execute_WhenRefundActionNotFoundInProcess_ShouldPerformCaptureAndReturnOutcome() {
         when(processMock.getRefundActionId()).thenReturn(null);
-        doReturn(paymentTransactionEntryMock).when(testObj).refundPayment(any(PaymentTransactionModel.class), any(BigDecimal.class));
+        doReturn(paymentCommandMock).when(testObj).refundPayment(any(ReturnProcessModel.class), any(PaymentTransactionModel.class), any(BigDecimal.class));
         doReturn(OUTCOME).when(testObj).evaluateProcessOutcome(any(ReturnRequestModel.class), any(PaymentTransactionModel.class), any(PaymentTransactionEntryModel.class));
 
         final String result = testObj.execute(processMock);
 
         assertEquals(OUTCOME, result);
-        verify(testObj).refundPayment(paymentTransactionMock, REFUND_AMOUNT);
+        verify(testObj).refundPayment(processMock, paymentTransactionMock, REFUND_AMOUNT);
+        verify(processMock).setRefundActionId(ACTION_ID);
         verify(testObj).evaluateProcessOutcome(returnRequestMock, paymentTransactionMock, paymentTransactionEntryMock);
     }
 
@@ -136,13 +148,14 @@ public class CheckoutComCaptureRefundActionTest {
     public void execute_WhenRefundActionNotFoundInProcessAndApmPayment_ShouldPerformCaptureAndReturnOutcome() {
         when(paymentTransactionMock.getInfo()).thenReturn(apmPaymentInfoMock);
         when(processMock.getRefundActionId()).thenReturn(null);
-        doReturn(paymentTransactionEntryMock).when(testObj).refundPayment(any(PaymentTransactionModel.class), any(BigDecimal.class));
+        doReturn(paymentCommandMock).when(testObj).refundPayment(any(ReturnProcessModel.class), any(PaymentTransactionModel.class), any(BigDecimal.class));
         doReturn(OUTCOME).when(testObj).evaluateProcessOutcome(any(ReturnRequestModel.class), any(PaymentTransactionModel.class), any(PaymentTransactionEntryModel.class));
 
         final String result = testObj.execute(processMock);
 
         assertEquals(OUTCOME, result);
-        verify(testObj).refundPayment(paymentTransactionMock, REFUND_AMOUNT);
+        verify(testObj).refundPayment(processMock, paymentTransactionMock, REFUND_AMOUNT);
+        verify(processMock).setRefundActionId(ACTION_ID);
         verify(testObj).evaluateProcessOutcome(returnRequestMock, paymentTransactionMock, paymentTransactionEntryMock);
     }
 
@@ -155,24 +168,43 @@ public class CheckoutComCaptureRefundActionTest {
         final String result = testObj.execute(processMock);
 
         assertEquals(OUTCOME, result);
-        verify(testObj, never()).refundPayment(paymentTransactionMock, REFUND_AMOUNT);
+        verify(testObj, never()).refundPayment(processMock, paymentTransactionMock, REFUND_AMOUNT);
         verify(testObj).evaluateProcessOutcome(returnRequestMock, paymentTransactionMock, paymentTransactionEntryMock);
     }
 
     @Test
-    public void refundPayment_WhenRefundSuccessful_ShouldReturnRefundEntry() {
-        when(paymentServiceMock.refundFollowOn(paymentTransactionMock, REFUND_AMOUNT)).thenReturn(refundEntryMock);
+    public void execute_WhenRefundCommandNotCompleted_ShouldReturnDISPATCHED() {
+        when(processMock.getRefundActionId()).thenReturn(null);
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.PENDING);
+        doReturn(paymentCommandMock).when(testObj).refundPayment(any(ReturnProcessModel.class), any(PaymentTransactionModel.class), any(BigDecimal.class));
+
+        final String result = testObj.execute(processMock);
+
+        assertEquals(DISPATCHED, result);
+        verify(processMock, never()).setRefundActionId(any());
+        verify(testObj, never()).evaluateProcessOutcome(any(ReturnRequestModel.class), any(PaymentTransactionModel.class), any(PaymentTransactionEntryModel.class));
+    }
+
+    @Test
+    public void execute_WhenRefundCommandHasFailed_ShouldSetTheReturnStatusToPaymentReversalFailedAndReturnNOK() {
+        when(processMock.getRefundActionId()).thenReturn(null);
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.FAILED);
+        doReturn(paymentCommandMock).when(testObj).refundPayment(any(ReturnProcessModel.class), any(PaymentTransactionModel.class), any(BigDecimal.class));
 
-        final PaymentTransactionEntryModel result = testObj.refundPayment(paymentTransactionMock, REFUND_AMOUNT);
+        final String result = testObj.execute(processMock);
 
-        assertEquals(refundEntryMock, result);
+        assertEquals(NOK, result);
+        verify(testObj).setReturnRequestStatus(returnRequestMock, ReturnStatus.PAYMENT_REVERSAL_FAILED);
     }
 
-    @Test(expected = RetryLaterException.class)
-    public void refundPayment_WhenPaymentIntegrationException_ShouldThrowRetryLaterException() {
-        when(paymentServiceMock.refundFollowOn(paymentTransactionMock, REFUND_AMOUNT)).thenThrow(new CheckoutComPaymentIntegrationException("error"));
+    @Test
+    public void refundPayment_ShouldSubmitTheRefundCommandOfTheProcess() {
+        when(checkoutComPaymentCommandServiceMock.submitCommand(REFUND, paymentTransactionMock, REFUND_AMOUNT, PROCESS_CODE, PROCESS_CODE + "_REFUND_COMMAND")).thenReturn(paymentCommandMock);
+
+        final CheckoutComPaymentCommandModel result = testObj.refundPayment(processMock, paymentTransactionMock, REFUND_AMOUNT);
 
-        testObj.refundPayment(paymentTransactionMock, REFUND_AMOUNT);
+        assertEquals(paymentCommandMock, result);
+        verifyNoInteractions(paymentServiceMock);
     }
 
     @Test
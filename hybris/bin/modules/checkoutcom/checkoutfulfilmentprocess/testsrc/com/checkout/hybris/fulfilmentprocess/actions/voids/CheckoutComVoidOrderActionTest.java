@@ -1,6 +1,8 @@
 package com.checkout.hybris.fulfilmentprocess.actions.voids;
 
-import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
 import com.checkout.hybris.fulfilmentprocess.model.CheckoutComVoidProcessModel;
@@ -9,7 +11,6 @@ import de.hybris.platform.core.model.order.OrderModel;
 import de.hybris.platform.payment.dto.TransactionStatus;
 import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
 import de.hybris.platform.payment.model.PaymentTransactionModel;
-import de.hybris.platform.task.RetryLaterException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -20,12 +21,16 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.util.Collections;
 import java.util.Set;
 
+import static com.checkout.hybris.core.enums.CheckoutComPaymentCommandType.VOID;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,6 +41,9 @@ public class CheckoutComVoidOrderActionTest {
     private static final String OK = "OK";
     private static final String NOK = "NOK";
     private static final String WAIT = "WAIT";
+    private static final String DISPATCHED = "DISPATCHED";
+    private static final String PROCESS_CODE = "processCode";
+    private static final String VOID_COMMAND_EVENT = PROCESS_CODE + "_VOID_COMMAND";
 
     @InjectMocks
     private CheckoutComVoidOrderAction testObj;
@@ -52,6 +60,10 @@ public class CheckoutComVoidOrderActionTest {
     private PaymentTransactionModel paymentTransactionMock;
     @Mock
     private CheckoutComPaymentTransactionService checkoutComPaymentTransactionServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandService checkoutComPaymentCommandServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandModel paymentCommandMock;
 
     @Before
     public void setUp() {
@@ -60,6 +72,11 @@ public class CheckoutComVoidOrderActionTest {
         when(checkoutComPaymentTransactionServiceMock.getPaymentTransaction(orderModelMock)).thenReturn(paymentTransactionMock);
         when(checkoutComPaymentTransactionServiceMock.findAcceptedAuthorizationEntry(paymentTransactionMock)).thenReturn(of(authTransactionEntryModelMock));
         when(paymentServiceMock.isVoidPresent(orderModelMock)).thenReturn(false);
+        when(checkoutComVoidProcessModelMock.getCode()).thenReturn(PROCESS_CODE);
+        when(checkoutComPaymentCommandServiceMock.findCommand(VOID, PROCESS_CODE)).thenReturn(empty());
+        when(checkoutComPaymentCommandServiceMock.submitCommand(VOID, paymentTransactionMock, null, PROCESS_CODE, VOID_COMMAND_EVENT)).thenReturn(paymentCommandMock);
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.COMPLETED);
+        when(paymentCommandMock.getTransactionEntry()).thenReturn(voidTransactionEntryModelMock);
     }
 
     @Test
@@ -69,6 +86,7 @@ public class CheckoutComVoidOrderActionTest {
         assertTrue(transitions.contains(OK));
         assertTrue(transitions.contains(NOK));
         assertTrue(transitions.contains(WAIT));
+        assertTrue(transitions.contains(DISPATCHED));
     }
 
     @Test
@@ -96,6 +114,7 @@ public class CheckoutComVoidOrderActionTest {
         final String result = testObj.execute(checkoutComVoidProcessModelMock);
 
         assertEquals(OK, result);
+        verify(checkoutComPaymentCommandServiceMock, never()).submitCommand(any(), any(), any(), anyString(), anyString());
     }
 
     @Test
@@ -108,44 +127,65 @@ public class CheckoutComVoidOrderActionTest {
         assertEquals(NOK, result);
     }
 
-    @Test(expected = RetryLaterException.class)
-    public void execute_WhenVoidThrowsPaymentIntegrationException_ShouldThrowRetryLaterException() {
-        when(orderModelMock.getPaymentTransactions()).thenReturn(singletonList(paymentTransactionMock));
-        when(paymentServiceMock.cancel(authTransactionEntryModelMock)).thenThrow(new CheckoutComPaymentIntegrationException("error"));
+    @Test
+    public void execute_WhenVoidCommandIsNotCompleted_ShouldReturnDISPATCHED() {
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.PENDING);
+
+        final String result = testObj.execute(checkoutComVoidProcessModelMock);
 
-        testObj.execute(checkoutComVoidProcessModelMock);
+        assertEquals(DISPATCHED, result);
+        verify(checkoutComPaymentCommandServiceMock).submitCommand(VOID, paymentTransactionMock, null, PROCESS_CODE, VOID_COMMAND_EVENT);
+        verify(paymentServiceMock, never()).cancel(authTransactionEntryModelMock);
+    }
+
+    @Test
+    public void execute_WhenVoidCommandHasFailed_ShouldReturnNOK() {
+        when(paymentCommandMock.getStatus()).thenReturn(CheckoutComPaymentCommandStatus.FAILED);
+
+        final String result = testObj.execute(checkoutComVoidProcessModelMock);
+
+        assertEquals(NOK, result);
+    }
+
+    @Test
+    public void execute_WhenVoidCommandAlreadyRecorded_ShouldEvaluateItWithoutCheckingTheOrderAgain() {
+        when(checkoutComPaymentCommandServiceMock.findCommand(VOID, PROCESS_CODE)).thenReturn(of(paymentCommandMock));
+        when(voidTransactionEntryModelMock.getTransactionStatus()).thenReturn(TransactionStatus.ACCEPTED.toString());
+
+        final String result = testObj.execute(checkoutComVoidProcessModelMock);
+
+        assertEquals(OK, result);
+        verify(paymentServiceMock, never()).isVoidPresent(orderModelMock);
+        verify(checkoutComPaymentCommandServiceMock, never()).submitCommand(any(), any(), any(), anyString(), anyString());
     }
 
     @Test
-    public void execute_WhenVoidIsCorrectlyPerformedAndTransactionEntryIsAccepted_ShouldReturnOK() {
-        when(paymentServiceMock.cancel(authTransactionEntryModelMock)).thenReturn(voidTransactionEntryModelMock);
+    public void execute_WhenVoidCommandIsCompletedAndTransactionEntryIsAccepted_ShouldReturnOK() {
         when(voidTransactionEntryModelMock.getTransactionStatus()).thenReturn(TransactionStatus.ACCEPTED.toString());
 
         final String result = testObj.execute(checkoutComVoidProcessModelMock);
 
         assertEquals(OK, result);
-        verify(paymentServiceMock).cancel(authTransactionEntryModelMock);
+        verify(checkoutComPaymentCommandServiceMock).submitCommand(VOID, paymentTransactionMock, null, PROCESS_CODE, VOID_COMMAND_EVENT);
     }
 
     @Test
-    public void execute_WhenVoidIsCorrectlyPerformedAndTransactionEntryIsError_ShouldReturnNOK() {
-        when(paymentServiceMock.cancel(authTransactionEntryModelMock)).thenReturn(voidTransactionEntryModelMock);
+    public void execute_WhenVoidCommandIsCompletedAndTransactionEntryIsError_ShouldReturnNOK() {
         when(voidTransactionEntryModelMock.getTransactionStatus()).thenReturn(TransactionStatus.ERROR.toString());
 
         final String result = testObj.execute(checkoutComVoidProcessModelMock);
 
         assertEquals(NOK, result);
-        verify(paymentServiceMock).cancel(authTransactionEntryModelMock);
+        verify(checkoutComPaymentCommandServiceMock).submitCommand(VOID, paymentTransactionMock, null, PROCESS_CODE, VOID_COMMAND_EVENT);
     }
 
     @Test
-    public void execute_WhenVoidIsCorrectlyPerformedAndTransactionEntryIsPending_ShouldReturnWAIT() {
-        when(paymentServiceMock.cancel(authTransactionEntryModelMock)).thenReturn(voidTransactionEntryModelMock);
+    public void execute_WhenVoidCommandIsCompletedAndTransactionEntryIsPending_ShouldReturnWAIT() {
         when(voidTransactionEntryModelMock.getTransactionStatus()).thenReturn(TransactionStatus.PENDING.toString());
 
         final String result = testObj.execute(checkoutComVoidProcessModelMock);
 
         assertEquals(WAIT, result);
-        verify(paymentServiceMock).cancel(authTransactionEntryModelMock);
+        verify(checkoutComPaymentCommandServiceMock).submitCommand(VOID, paymentTransactionMock, null, PROCESS_CODE, VOID_COMMAND_EVENT);
     }
 }
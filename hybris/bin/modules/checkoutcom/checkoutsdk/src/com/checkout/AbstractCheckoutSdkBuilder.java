@@ -2,6 +2,7 @@ package com.checkout;
 
 import org.apache.http.impl.client.HttpClientBuilder;
 
+import java.net.http.HttpClient;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
 
@@ -11,8 +12,12 @@ public abstract class AbstractCheckoutSdkBuilder<T extends CheckoutApiClient> {
     private IEnvironment environment;
     private EnvironmentSubdomain environmentSubdomain;
     private Executor executor = ForkJoinPool.commonPool();
+    private HttpClient asyncHttpClient;
+    private boolean http2Transport;
     private TransportConfiguration transportConfiguration;
     private Boolean recordTelemetry = true;
+    private boolean retainResponseBody;
+    private TransportResiliencePolicy resiliencePolicy;
 
     public AbstractCheckoutSdkBuilder<T> environment(final IEnvironment environment) {
         this.environment = environment;
@@ -37,6 +42,28 @@ public abstract class AbstractCheckoutSdkBuilder<T extends CheckoutApiClient> {
         return this;
     }
 
+    public AbstractCheckoutSdkBuilder<T> boundedExecutor(final int corePoolSize,
+                                                         final int maximumPoolSize,
+                                                         final int queueCapacity) {
+        this.executor = TransportExecutors.bounded(TransportExecutors.DEFAULT_NAME, corePoolSize, maximumPoolSize, queueCapacity);
+        return this;
+    }
+
+    public AbstractCheckoutSdkBuilder<T> virtualThreadExecutor() {
+        this.executor = TransportExecutors.virtualThreads(TransportExecutors.DEFAULT_NAME);
+        return this;
+    }
+
+    public AbstractCheckoutSdkBuilder<T> http2Transport() {
+        this.http2Transport = true;
+        return this;
+    }
+
+    public AbstractCheckoutSdkBuilder<T> asyncHttpClient(final HttpClient asyncHttpClient) {
+        this.asyncHttpClient = asyncHttpClient;
+        return this;
+    }
+
     public AbstractCheckoutSdkBuilder<T> transportConfiguration(final TransportConfiguration transportConfiguration) {
         this.transportConfiguration = transportConfiguration;
         return this;
@@ -55,6 +82,16 @@ public abstract class AbstractCheckoutSdkBuilder<T extends CheckoutApiClient> {
         return this;
     }
 
+    public AbstractCheckoutSdkBuilder<T> retainResponseBody(final boolean retainResponseBody) {
+        this.retainResponseBody = retainResponseBody;
+        return this;
+    }
+
+    public AbstractCheckoutSdkBuilder<T> resiliencePolicy(final TransportResiliencePolicy resiliencePolicy) {
+        this.resiliencePolicy = resiliencePolicy;
+        return this;
+    }
+
     protected abstract SdkCredentials getSdkCredentials();
 
     protected CheckoutConfiguration getCheckoutConfiguration() {
@@ -69,7 +106,12 @@ public abstract class AbstractCheckoutSdkBuilder<T extends CheckoutApiClient> {
     }
 
     private CheckoutConfiguration buildCheckoutConfiguration(final SdkCredentials sdkCredentials) {
-        return new DefaultCheckoutConfiguration(sdkCredentials, getEnvironment(), getEnvironmentSubdomain(), httpClientBuilder, executor, transportConfiguration, recordTelemetry);
+        if (asyncHttpClient == null && http2Transport) {
+            asyncHttpClient = resiliencePolicy == null
+                    ? JavaHttpClientTransport.createHttpClient(executor)
+                    : JavaHttpClientTransport.createHttpClient(executor, resiliencePolicy.getConnectTimeout());
+        }
+        return new DefaultCheckoutConfiguration(sdkCredentials, getEnvironment(), getEnvironmentSubdomain(), httpClientBuilder, executor, asyncHttpClient, transportConfiguration, recordTelemetry, retainResponseBody, resiliencePolicy);
     }
 
     public abstract T build();
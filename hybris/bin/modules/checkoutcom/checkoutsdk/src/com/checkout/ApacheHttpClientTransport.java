@@ -4,6 +4,8 @@ import com.checkout.accounts.AccountsFileRequest;
 import com.checkout.common.AbstractFileRequest;
 import com.checkout.common.CheckoutUtils;
 import com.checkout.common.FileRequest;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -11,6 +13,7 @@ import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
@@ -18,6 +21,7 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
@@ -29,15 +33,26 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.checkout.ClientOperation.POST;
@@ -62,6 +77,7 @@ class ApacheHttpClientTransport implements Transport {
     private final Executor executor;
     private final TransportConfiguration transportConfiguration;
     private final CheckoutConfiguration configuration;
+    private final Serializer serializer;
 
     private static final ThreadLocal<RequestMetrics> telemetryData = ThreadLocal.withInitial(RequestMetrics::new);
 
@@ -70,7 +86,8 @@ class ApacheHttpClientTransport implements Transport {
             final HttpClientBuilder httpClientBuilder,
             final Executor executor,
             final TransportConfiguration transportConfiguration,
-            final CheckoutConfiguration configuration
+            final CheckoutConfiguration configuration,
+            final Serializer serializer
     ) {
         CheckoutUtils.validateParams("baseUri", baseUri, "httpClientBuilder", httpClientBuilder, "executor", executor);
         this.baseUri = baseUri;
@@ -80,6 +97,7 @@ class ApacheHttpClientTransport implements Transport {
         this.executor = executor;
         this.transportConfiguration = transportConfiguration;
         this.configuration = configuration;
+        this.serializer = serializer;
     }
 
     @Override
@@ -89,55 +107,133 @@ class ApacheHttpClientTransport implements Transport {
                                               final String requestBody,
                                               final String idempotencyKey,
                                               final Map<String, String> queryParams) {
-        return CompletableFuture.supplyAsync(() -> {
-            final HttpUriRequest request;
-            switch (clientOperation) {
-                case GET:
-                case GET_CSV_CONTENT:
-                    request = new HttpGet(getRequestUrl(path));
-                    break;
-                case PUT:
-                    request = new HttpPut(getRequestUrl(path));
-                    break;
-                case POST:
-                    request = new HttpPost(getRequestUrl(path));
-                    break;
-                case DELETE:
-                    request = new HttpDelete(getRequestUrl(path));
-                    break;
-                case PATCH:
-                    request = new HttpPatch(getRequestUrl(path));
-                    break;
-                case QUERY:
-                    final List<NameValuePair> params = queryParams.entrySet().stream()
-                            .map(entry -> new BasicNameValuePair(entry.getKey(), entry.getValue()))
-                            .collect(Collectors.toList());
-                    try {
-                        request = new HttpGet(new URIBuilder(getRequestUrl(path)).addParameters(params).build());
-                    } catch (final URISyntaxException e) {
-                        throw new CheckoutException(e);
-                    }
-                    break;
-                default:
-                    throw new UnsupportedOperationException("Unsupported HTTP Method: " + clientOperation);
+        return supplyAsync(() -> {
+            final HttpUriRequest request = createRequest(clientOperation, path, queryParams);
+            if (idempotencyKey != null) {
+                request.setHeader(CKO_IDEMPOTENCY_KEY, idempotencyKey);
+            }
+            if (requestBody != null && request instanceof HttpEntityEnclosingRequest) {
+                ((HttpEntityEnclosingRequestBase) request).setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
             }
+            return performCall(authorization, request, clientOperation, null);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeStreaming(final ClientOperation clientOperation,
+                                                       final String path,
+                                                       final SdkAuthorization authorization,
+                                                       final Object requestObject,
+                                                       final String idempotencyKey,
+                                                       final Type responseType) {
+        return supplyAsync(() -> {
+            final HttpUriRequest request = createRequest(clientOperation, path, null);
             if (idempotencyKey != null) {
                 request.setHeader(CKO_IDEMPOTENCY_KEY, idempotencyKey);
             }
-            return performCall(authorization, requestBody, request, clientOperation);
-        }, executor);
+            if (requestObject != null && request instanceof HttpEntityEnclosingRequest) {
+                ((HttpEntityEnclosingRequestBase) request).setEntity(new JsonEntity(requestObject, serializer));
+            }
+            return performCall(authorization, request, clientOperation, getContentSink(responseType));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Response> download(final ClientOperation clientOperation,
+                                                final String path,
+                                                final SdkAuthorization authorization,
+                                                final Map<String, String> queryParams,
+                                                final ResponseBodySink sink) {
+        return supplyAsync(() -> performCall(authorization, createRequest(clientOperation, path, queryParams), clientOperation, sink));
+    }
+
+    /**
+     * A saturated executor rejects the call when it is submitted; the rejection is returned as a failed future, like
+     * any other failure of the call, rather than thrown at the caller
+     */
+    private CompletableFuture<Response> supplyAsync(final Supplier<Response> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (final RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new CheckoutException("The transport executor rejected the call", e));
+        }
+    }
+
+    private ResponseBodySink getContentSink(final Type responseType) {
+        if (responseType == null || configuration.isResponseBodyRetained()) {
+            return null;
+        }
+        return (body, charset) -> {
+            try (final Reader reader = new InputStreamReader(body, charset)) {
+                return serializer.fromJson(reader, responseType);
+            }
+        };
+    }
+
+    private HttpUriRequest createRequest(final ClientOperation clientOperation, final String path, final Map<String, String> queryParams) {
+        final HttpUriRequest request;
+        switch (clientOperation) {
+            case GET:
+            case GET_CSV_CONTENT:
+                request = new HttpGet(getRequestUrl(path));
+                break;
+            case PUT:
+                request = new HttpPut(getRequestUrl(path));
+                break;
+            case POST:
+                request = new HttpPost(getRequestUrl(path));
+                break;
+            case DELETE:
+                request = new HttpDelete(getRequestUrl(path));
+                break;
+            case PATCH:
+                request = new HttpPatch(getRequestUrl(path));
+                break;
+            case QUERY:
+                final List<NameValuePair> params = queryParams.entrySet().stream()
+                        .map(entry -> new BasicNameValuePair(entry.getKey(), entry.getValue()))
+                        .collect(Collectors.toList());
+                try {
+                    request = new HttpGet(new URIBuilder(getRequestUrl(path)).addParameters(params).build());
+                } catch (final URISyntaxException e) {
+                    throw new CheckoutException(e);
+                }
+                break;
+            default:
+                throw new UnsupportedOperationException("Unsupported HTTP Method: " + clientOperation);
+        }
+        if (configuration.getResiliencePolicy() != null) {
+            applyTimeouts((HttpRequestBase) request, configuration.getResiliencePolicy().getTimeout(clientOperation));
+        }
+        return request;
+    }
+
+    /**
+     * The request configuration replaces the default one of the client, the timeouts of the
+     * {@link TransportResiliencePolicy} take precedence over the ones of the {@link HttpClientBuilder}
+     */
+    private void applyTimeouts(final HttpRequestBase request, final Duration responseTimeout) {
+        final int connectTimeout = (int) configuration.getResiliencePolicy().getConnectTimeout().toMillis();
+        request.setConfig(RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout((int) responseTimeout.toMillis())
+                .build());
     }
 
     @Override
     public CompletableFuture<Response> submitFile(final String path, final SdkAuthorization authorization, final AbstractFileRequest fileRequest) {
-        return CompletableFuture.supplyAsync(() -> {
+        return supplyAsync(() -> {
             final HttpPost request = new HttpPost(getRequestUrl(path));
             request.setEntity(getMultipartFileEntity(fileRequest));
-            return performCall(authorization, null, request, POST);
-        }, executor);
+            if (configuration.getResiliencePolicy() != null) {
+                applyTimeouts(request, configuration.getResiliencePolicy().getFileUploadTimeout());
+            }
+            return performCall(authorization, request, POST, null);
+        });
     }
 
-    private HttpEntity getMultipartFileEntity(final AbstractFileRequest abstractFileRequest) {
+    static HttpEntity getMultipartFileEntity(final AbstractFileRequest abstractFileRequest) {
         final MultipartEntityBuilder builder = MultipartEntityBuilder.create().setMode(HttpMultipartMode.BROWSER_COMPATIBLE);
         if (abstractFileRequest instanceof FileRequest) {
             final FileRequest fileRequest = (FileRequest) abstractFileRequest;
@@ -156,9 +252,9 @@ class ApacheHttpClientTransport implements Transport {
     }
 
     private Response performCall(final SdkAuthorization authorization,
-                                 final String requestBody,
                                  final HttpUriRequest request,
-                                 final ClientOperation clientOperation) {
+                                 final ClientOperation clientOperation,
+                                 final ResponseBodySink sink) {
         log.info("{}: {}", clientOperation, request.getURI());
         request.setHeader(USER_AGENT, PROJECT_NAME + "/" + getVersionFromManifest());
         request.setHeader(ACCEPT, getAcceptHeader(clientOperation));
@@ -171,9 +267,6 @@ class ApacheHttpClientTransport implements Transport {
         long startTime = System.currentTimeMillis();
 
         log.info("Request: " + Arrays.toString(sanitiseHeaders(request.getAllHeaders())));
-        if (requestBody != null && request instanceof HttpEntityEnclosingRequest) {
-            ((HttpEntityEnclosingRequestBase) request).setEntity(new StringEntity(requestBody, ContentType.APPLICATION_JSON));
-        }
         try (final CloseableHttpResponse response = httpClient.execute(request)) {
             long elapsed = System.currentTimeMillis() - startTime;
             log.info("Response: " + response.getStatusLine().getStatusCode() + " " + Arrays.toString(response.getAllHeaders()));
@@ -185,6 +278,13 @@ class ApacheHttpClientTransport implements Transport {
                     .collect(Collectors.toMap(Header::getName, Header::getValue));
 
             if (statusCode != HttpStatus.SC_NOT_FOUND && response.getEntity() != null && response.getEntity().getContent() != null) {
+                if (sink != null && CheckoutUtils.isSuccessHttpStatusCode(statusCode)) {
+                    return Response.builder()
+                            .statusCode(statusCode)
+                            .content(readContent(response.getEntity(), sink))
+                            .headers(headers)
+                            .build();
+                }
                 return Response.builder()
                         .statusCode(statusCode)
                         .body(EntityUtils.toString(response.getEntity()))
@@ -192,6 +292,10 @@ class ApacheHttpClientTransport implements Transport {
                         .build();
             }
             return Response.builder().statusCode(statusCode).headers(headers).build();
+        } catch (final JsonIOException e) {
+            return handleException(e, "Exception occurred while reading the response...");
+        } catch (final JsonParseException | CheckoutException e) {
+            throw e;
         } catch (final NoHttpResponseException e) {
             return handleException(e, "Target server failed to respond with a valid HTTP response.");
         } catch (final Exception e) {
@@ -199,6 +303,15 @@ class ApacheHttpClientTransport implements Transport {
         }
     }
 
+    private Object readContent(final HttpEntity entity, final ResponseBodySink sink) throws IOException {
+        final Charset charset = Optional.ofNullable(ContentType.get(entity))
+                .map(ContentType::getCharset)
+                .orElse(StandardCharsets.UTF_8);
+        try (final InputStream body = entity.getContent()) {
+            return sink.consume(body, charset);
+        }
+    }
+
     private void addTelemetryHeader(HttpUriRequest request, String currentRequestId) {
         if (configuration.isTelemetryEnabled()) {
             String telemetryHeader = generateTelemetryHeader(currentRequestId);
@@ -224,7 +337,7 @@ class ApacheHttpClientTransport implements Transport {
 
     private Response handleException(Exception e, String errorMessage) {
         log.error(errorMessage, e);
-        return Response.builder().statusCode(transportConfiguration.getDefaultHttpStatusCode()).build();
+        return Response.builder().statusCode(transportConfiguration.getDefaultHttpStatusCode()).transportFailure(true).build();
     }
 
     private Header[] sanitiseHeaders(final Header[] headers) {
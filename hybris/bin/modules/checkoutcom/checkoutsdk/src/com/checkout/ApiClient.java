@@ -3,6 +3,7 @@ package com.checkout;
 import com.checkout.common.AbstractFileRequest;
 
 import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -30,8 +31,17 @@ public interface ApiClient {
 
     <T extends HttpMetadata> CompletableFuture<T> queryAsync(String path, SdkAuthorization authorization, Object filter, Class<T> responseType);
 
+    /**
+     * Buffers the whole CSV content in memory, use {@link #downloadCsvContentAsync} for large reports
+     */
     CompletableFuture<ContentResponse> queryCsvContentAsync(String path, SdkAuthorization authorization, Object filter, String targetFile);
 
+    /**
+     * Streams the CSV content straight to the target file, gzipped when requested, and only returns its metadata.
+     * The rows of the file can be read back with a {@link com.checkout.common.CsvRowIterator}.
+     */
+    CompletableFuture<FileDownloadResponse> downloadCsvContentAsync(String path, SdkAuthorization authorization, Object filter, Path targetFile, boolean gzip);
+
     <T extends HttpMetadata> CompletableFuture<T> submitFileAsync(String path, SdkAuthorization authorization, AbstractFileRequest request, Class<T> responseType);
 
 }
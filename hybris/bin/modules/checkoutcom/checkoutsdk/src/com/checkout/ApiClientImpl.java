@@ -11,9 +11,12 @@ import static com.checkout.common.CheckoutUtils.validateParams;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
@@ -34,7 +37,20 @@ public class ApiClientImpl implements ApiClient {
 
     public ApiClientImpl(final CheckoutConfiguration configuration, final UriStrategy uriStrategy) {
         this.serializer = new GsonSerializer();
-        this.transport = new ApacheHttpClientTransport(uriStrategy.getUri(), configuration.getHttpClientBuilder(), configuration.getExecutor(), configuration.getTransportConfiguration(), configuration);
+        this.transport = createTransport(configuration, uriStrategy, serializer);
+    }
+
+    private static Transport createTransport(final CheckoutConfiguration configuration, final UriStrategy uriStrategy, final Serializer serializer) {
+        final Transport transport;
+        if (configuration.getAsyncHttpClient() != null) {
+            transport = new JavaHttpClientTransport(uriStrategy.getUri(), configuration.getAsyncHttpClient(), configuration.getTransportConfiguration(), configuration, serializer);
+        } else {
+            transport = new ApacheHttpClientTransport(uriStrategy.getUri(), configuration.getHttpClientBuilder(), configuration.getExecutor(), configuration.getTransportConfiguration(), configuration, serializer);
+        }
+        if (configuration.getResiliencePolicy() != null) {
+            return new ResilientTransport(transport, uriStrategy.getUri(), configuration.getResiliencePolicy(), configuration.getExecutor());
+        }
+        return transport;
     }
 
     @Override
@@ -125,17 +141,46 @@ public class ApiClientImpl implements ApiClient {
                                                                    final Object filter,
                                                                    final String targetFile) {
         validateParams(PATH, path, AUTHORIZATION, authorization);
-        Map<String, String> params = new HashMap<>();
-        if (filter != null) {
-            params = serializer.fromJson(serializer.toJson(filter),
-                    new TypeToken<Map<String, String>>() {
-                    }.getType());
-        }
-        return transport.invoke(QUERY, path, authorization, null, null, params)
+        return transport.invoke(QUERY, path, authorization, null, null, toQueryParams(filter))
                 .thenApply(this::errorCheck)
                 .thenApply(body -> transform(processAndGetContent(targetFile, body), body));
     }
 
+    @Override
+    public CompletableFuture<FileDownloadResponse> downloadCsvContentAsync(final String path,
+                                                                          final SdkAuthorization authorization,
+                                                                          final Object filter,
+                                                                          final Path targetFile,
+                                                                          final boolean gzip) {
+        validateParams(PATH, path, AUTHORIZATION, authorization, "targetFile", targetFile);
+        final FileDownloadSink sink = new FileDownloadSink(targetFile, gzip);
+        return transport.download(QUERY, path, authorization, toQueryParams(filter), sink)
+                .thenApply(this::errorCheck)
+                .thenApply(response -> transform(getDownload(response, sink), response));
+    }
+
+    private Map<String, String> toQueryParams(final Object filter) {
+        if (filter == null) {
+            return new HashMap<>();
+        }
+        return serializer.fromJson(serializer.toJson(filter), new TypeToken<Map<String, String>>() {
+        }.getType());
+    }
+
+    /**
+     * Responses without a body, such as a 204, still leave an empty file at the target
+     */
+    private FileDownloadResponse getDownload(final Response response, final FileDownloadSink sink) {
+        if (response.getContent() != null) {
+            return (FileDownloadResponse) response.getContent();
+        }
+        try {
+            return sink.consume(InputStream.nullInputStream(), StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new CheckoutException(e);
+        }
+    }
+
     @SuppressWarnings("squid:S3516")
     private ContentResponse processAndGetContent(final String targetFile, final Response response) {
         final String content = response.getBody();
@@ -171,7 +216,7 @@ public class ApiClientImpl implements ApiClient {
     }
 
     private <T extends HttpMetadata> CompletableFuture<T> sendRequestAsync(final ClientOperation clientOperation, final String path, final SdkAuthorization authorization, final Object request, final String idempotencyKey, final Type responseType) {
-        return transport.invoke(clientOperation, path, authorization, request == null ? null : serializer.toJson(request), idempotencyKey, null)
+        return transport.invokeStreaming(clientOperation, path, authorization, request, idempotencyKey, responseType)
                 .thenApply(this::errorCheck)
                 .thenApply(response -> deserialize(response, responseType));
     }
@@ -179,13 +224,13 @@ public class ApiClientImpl implements ApiClient {
     private Response errorCheck(final Response response) {
         if (!CheckoutUtils.isSuccessHttpStatusCode(response.getStatusCode())) {
             final Map<String, Object> errorDetails = serializer.fromJson(response.getBody());
-            throw new CheckoutApiException(response.getStatusCode(), response.getHeaders(), errorDetails);
+            throw new CheckoutApiException(response.getStatusCode(), response.getHeaders(), errorDetails, response.isTransportFailure());
         }
         return response;
     }
 
     private <T extends HttpMetadata> T deserialize(final Response response, final Class<T> responseType) {
-        T result = serializer.fromJson(response.getBody(), responseType);
+        T result = response.getContent() != null ? responseType.cast(response.getContent()) : serializer.fromJson(response.getBody(), responseType);
         //Unfortunate but GSON returns null if body is null, we need to instantiate the class type parameter for adding metadata
         if (result == null) {
             result = getInstanceFromT(responseType);
@@ -193,8 +238,9 @@ public class ApiClientImpl implements ApiClient {
         return transform(result, response);
     }
 
+    @SuppressWarnings("unchecked")
     private <T extends HttpMetadata> T deserialize(final Response response, final Type responseType) {
-        T result = serializer.fromJson(response.getBody(), responseType);
+        T result = response.getContent() != null ? (T) response.getContent() : serializer.fromJson(response.getBody(), responseType);
         //Unfortunate but GSON returns null if body is null, we need to instantiate type parameter for adding metadata
         if (result == null) {
             result = getInstanceFromT(responseType);
@@ -13,12 +13,23 @@ public final class CheckoutApiException extends CheckoutException {
     private final Integer httpStatusCode;
     private final Map<String, String> responseHeaders;
     private final Map<String, Object> errorDetails;
+    /**
+     * True when no response was received, the request timed out or could not be sent, so it may or may not have
+     * been processed by Checkout.com
+     */
+    private final boolean transportFailure;
 
     public CheckoutApiException(final Integer httpStatusCode, final Map<String, String> responseHeaders, final Map<String, Object> errorDetails) {
+        this(httpStatusCode, responseHeaders, errorDetails, false);
+    }
+
+    public CheckoutApiException(final Integer httpStatusCode, final Map<String, String> responseHeaders, final Map<String, Object> errorDetails,
+                                final boolean transportFailure) {
         super("The API response status code (" + httpStatusCode + ") does not indicate success.");
         this.responseHeaders = responseHeaders;
         this.httpStatusCode = httpStatusCode;
         this.errorDetails = errorDetails;
+        this.transportFailure = transportFailure;
     }
 
     public String getRequestId() {
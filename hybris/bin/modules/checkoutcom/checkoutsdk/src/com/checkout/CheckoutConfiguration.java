@@ -1,5 +1,6 @@
 package com.checkout;
 
+import java.net.http.HttpClient;
 import java.util.concurrent.Executor;
 
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -16,8 +17,14 @@ public interface CheckoutConfiguration {
 
     Executor getExecutor();
 
+    HttpClient getAsyncHttpClient();
+
     TransportConfiguration getTransportConfiguration();
 
     Boolean isTelemetryEnabled();
 
+    boolean isResponseBodyRetained();
+
+    TransportResiliencePolicy getResiliencePolicy();
+
 }
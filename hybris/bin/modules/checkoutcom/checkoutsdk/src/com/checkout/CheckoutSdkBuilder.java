@@ -26,6 +26,9 @@ public final class CheckoutSdkBuilder {
         private String clientSecret;
         private URI authorizationUri;
         private final Set<OAuthScope> scopes = new HashSet<>();
+        private double tokenRefreshRatio = OAuthSdkCredentials.DEFAULT_REFRESH_RATIO;
+        private double tokenRefreshJitter = OAuthSdkCredentials.DEFAULT_REFRESH_JITTER;
+        private OAuthTokenRefreshMetrics tokenRefreshMetrics = new OAuthTokenRefreshMetrics();
 
         public CheckoutOAuthSdkBuilder clientCredentials(final URI authorizationUri,
                                                          final String clientId,
@@ -48,6 +51,21 @@ public final class CheckoutSdkBuilder {
             return this;
         }
 
+        /**
+         * @param refreshRatio fraction of the token lifetime after which it is refreshed in the background
+         * @param refreshJitter maximum fraction of the token lifetime the refresh is randomly brought forward by
+         */
+        public CheckoutOAuthSdkBuilder tokenRefresh(final double refreshRatio, final double refreshJitter) {
+            this.tokenRefreshRatio = refreshRatio;
+            this.tokenRefreshJitter = refreshJitter;
+            return this;
+        }
+
+        public CheckoutOAuthSdkBuilder tokenRefreshMetrics(final OAuthTokenRefreshMetrics tokenRefreshMetrics) {
+            this.tokenRefreshMetrics = tokenRefreshMetrics;
+            return this;
+        }
+
         @Override
         protected SdkCredentials getSdkCredentials() {
             if (this.authorizationUri == null) {
@@ -57,7 +75,8 @@ public final class CheckoutSdkBuilder {
                 }
                 this.authorizationUri = environment.getOAuthAuthorizationApi();
             }
-            final OAuthSdkCredentials credentials = new OAuthSdkCredentials(httpClientBuilder, authorizationUri, clientId, clientSecret, scopes);
+            final OAuthSdkCredentials credentials = new OAuthSdkCredentials(httpClientBuilder, authorizationUri, clientId, clientSecret, scopes,
+                    tokenRefreshRatio, tokenRefreshJitter, tokenRefreshMetrics);
             credentials.initOAuthAccess();
             return credentials;
         }
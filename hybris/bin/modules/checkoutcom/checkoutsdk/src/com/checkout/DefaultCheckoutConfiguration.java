@@ -2,6 +2,7 @@ package com.checkout;
 
 import static com.checkout.common.CheckoutUtils.validateParams;
 
+import java.net.http.HttpClient;
 import java.util.concurrent.Executor;
 
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -11,10 +12,13 @@ class DefaultCheckoutConfiguration implements CheckoutConfiguration {
     private final SdkCredentials sdkCredentials;
     private final HttpClientBuilder httpClientBuilder;
     private final Executor executor;
+    private final HttpClient asyncHttpClient;
     private final IEnvironment environment;
     private final EnvironmentSubdomain environmentSubdomain;
     private final TransportConfiguration transportConfiguration;
     private final boolean recordTelemetry;
+    private final boolean retainResponseBody;
+    private final TransportResiliencePolicy resiliencePolicy;
 
     DefaultCheckoutConfiguration(final SdkCredentials sdkCredentials,
                                  final IEnvironment environment,
@@ -26,10 +30,13 @@ class DefaultCheckoutConfiguration implements CheckoutConfiguration {
         this.sdkCredentials = sdkCredentials;
         this.httpClientBuilder = httpClientBuilder;
         this.executor = executor;
+        this.asyncHttpClient = null;
         this.environment = environment;
         this.environmentSubdomain = null;
         this.transportConfiguration = transportConfiguration;
         this.recordTelemetry = recordTelemetry;
+        this.retainResponseBody = false;
+        this.resiliencePolicy = null;
     }
 
     DefaultCheckoutConfiguration(final SdkCredentials sdkCredentials,
@@ -37,16 +44,22 @@ class DefaultCheckoutConfiguration implements CheckoutConfiguration {
                                  final EnvironmentSubdomain environmentSubdomain,
                                  final HttpClientBuilder httpClientBuilder,
                                  final Executor executor,
+                                 final HttpClient asyncHttpClient,
                                  final TransportConfiguration transportConfiguration,
-                                 final Boolean recordTelemetry) {
+                                 final Boolean recordTelemetry,
+                                 final boolean retainResponseBody,
+                                 final TransportResiliencePolicy resiliencePolicy) {
         validateParams("sdkCredentials", sdkCredentials, "environment", environment, "httpClientBuilder", httpClientBuilder, "executor", executor, "transportConfiguration", transportConfiguration);
         this.sdkCredentials = sdkCredentials;
         this.httpClientBuilder = httpClientBuilder;
         this.executor = executor;
+        this.asyncHttpClient = asyncHttpClient;
         this.environment = environment;
         this.environmentSubdomain = environmentSubdomain;
         this.transportConfiguration = transportConfiguration;
         this.recordTelemetry = recordTelemetry;
+        this.retainResponseBody = retainResponseBody;
+        this.resiliencePolicy = resiliencePolicy;
     }
 
     @Override
@@ -64,6 +77,11 @@ class DefaultCheckoutConfiguration implements CheckoutConfiguration {
         return executor;
     }
 
+    @Override
+    public HttpClient getAsyncHttpClient() {
+        return asyncHttpClient;
+    }
+
     @Override
     public IEnvironment getEnvironment() {
         return environment;
@@ -83,4 +101,14 @@ class DefaultCheckoutConfiguration implements CheckoutConfiguration {
     public Boolean isTelemetryEnabled() {
         return this.recordTelemetry;
     }
+
+    @Override
+    public boolean isResponseBodyRetained() {
+        return this.retainResponseBody;
+    }
+
+    @Override
+    public TransportResiliencePolicy getResiliencePolicy() {
+        return this.resiliencePolicy;
+    }
 }
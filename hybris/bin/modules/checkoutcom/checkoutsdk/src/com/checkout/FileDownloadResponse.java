@@ -0,0 +1,37 @@
+package com.checkout;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.nio.file.Path;
+
+/**
+ * Metadata of a response body downloaded to a file, the content itself is never held in memory
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class FileDownloadResponse extends HttpMetadata {
+
+    public static final String CHECKSUM_ALGORITHM = "SHA-256";
+
+    private Path path;
+
+    /**
+     * Number of bytes of the response body
+     */
+    private long contentLength;
+
+    /**
+     * Number of bytes written to the file, which differs from the content length when the file is gzipped
+     */
+    private long fileSize;
+
+    /**
+     * Hex encoded {@value #CHECKSUM_ALGORITHM} checksum of the response body
+     */
+    private String checksum;
+
+    private boolean gzipped;
+}
@@ -0,0 +1,137 @@
+package com.checkout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link ResponseBodySink} copying the body of a response to a file channel through a bounded buffer, so the memory
+ * used does not depend on the size of the download. The body is written to a part file next to the target, which
+ * replaces the target once the body is complete: a failed or retried download never leaves a truncated file behind.
+ */
+class FileDownloadSink implements ResponseBodySink {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PART_FILE_SUFFIX = ".part";
+
+    private final Path targetFile;
+    private final boolean gzip;
+
+    FileDownloadSink(final Path targetFile, final boolean gzip) {
+        this.targetFile = targetFile;
+        this.gzip = gzip;
+    }
+
+    @Override
+    public FileDownloadResponse consume(final InputStream body, final Charset charset) throws IOException {
+        final Path partFile = targetFile.resolveSibling(targetFile.getFileName() + PART_FILE_SUFFIX);
+        final MessageDigest digest = createDigest();
+        final long contentLength;
+        final long fileSize;
+        final FileChannel channel = openChannel(partFile);
+        try {
+            final OutputStream output = openOutput(channel);
+            contentLength = copy(body, output, digest);
+            try {
+                output.close();
+                fileSize = Files.size(partFile);
+                Files.move(partFile, targetFile, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final IOException e) {
+                throw writeFailure(e);
+            }
+        } finally {
+            closeQuietly(channel);
+            deleteQuietly(partFile);
+        }
+
+        final FileDownloadResponse response = new FileDownloadResponse();
+        response.setPath(targetFile);
+        response.setContentLength(contentLength);
+        response.setFileSize(fileSize);
+        response.setChecksum(toHex(digest.digest()));
+        response.setGzipped(gzip);
+        return response;
+    }
+
+    private long copy(final InputStream body, final OutputStream output, final MessageDigest digest) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long contentLength = 0;
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            try {
+                output.write(buffer, 0, read);
+            } catch (final IOException e) {
+                throw writeFailure(e);
+            }
+            contentLength += read;
+        }
+        return contentLength;
+    }
+
+    private FileChannel openChannel(final Path partFile) {
+        try {
+            return FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (final IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    private OutputStream openOutput(final FileChannel channel) {
+        final OutputStream output = Channels.newOutputStream(channel);
+        if (!gzip) {
+            return output;
+        }
+        try {
+            return new GZIPOutputStream(output, BUFFER_SIZE);
+        } catch (final IOException e) {
+            throw writeFailure(e);
+        }
+    }
+
+    private CheckoutException writeFailure(final IOException e) {
+        return new CheckoutException(String.format("Failed writing file %s", targetFile), e);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(FileDownloadResponse.CHECKSUM_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new CheckoutException(e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte value : bytes) {
+            hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void closeQuietly(final FileChannel channel) {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            // the output closes the channel once the body is written, it is only still open when the download failed
+        }
+    }
+
+    private static void deleteQuietly(final Path partFile) {
+        try {
+            Files.deleteIfExists(partFile);
+        } catch (final IOException e) {
+            // a part file left behind is truncated by the next download of the same target
+        }
+    }
+}
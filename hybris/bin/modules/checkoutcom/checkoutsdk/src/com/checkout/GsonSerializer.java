@@ -44,6 +44,7 @@ import com.google.gson.typeadapters.RuntimeTypeAdapterFactory;
 import lombok.Getter;
 import org.apache.commons.lang3.EnumUtils;
 
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -220,6 +221,11 @@ public class GsonSerializer implements Serializer {
         return gson.toJson(object);
     }
 
+    @Override
+    public <T> void toJson(final T object, final Appendable writer) {
+        gson.toJson(object, writer);
+    }
+
     @Override
     public <T> T fromJson(final String json, final Class<T> type) {
         return gson.fromJson(json, type);
@@ -230,6 +236,11 @@ public class GsonSerializer implements Serializer {
         return gson.fromJson(json, type);
     }
 
+    @Override
+    public <T> T fromJson(final Reader reader, final Type type) {
+        return gson.fromJson(reader, type);
+    }
+
     @Override
     public Map<String, Object> fromJson(final String json) {
         return gson.fromJson(json, MAP_TYPE_TOKEN);
@@ -332,6 +343,12 @@ public class GsonSerializer implements Serializer {
                 dateString = json.getAsString();
             }
 
+            final Instant instant = InstantParser.parse(dateString);
+            if (instant != null) {
+                return instant;
+            }
+
+            // Shapes the parser does not recognise keep the formatter based resolution
             try {
                 return Instant.parse(dateString);
             } catch (final DateTimeParseException ex) {
@@ -0,0 +1,175 @@
+package com.checkout;
+
+import java.time.Instant;
+
+/**
+ * Single pass parser for the timestamp shapes returned by the API, so deserialization does not go through a chain of
+ * formatters failing with {@link java.time.format.DateTimeParseException}.
+ * <p>
+ * Accepted shapes, matching what {@link GsonSerializer} resolves them to:
+ * <ul>
+ *     <li>{@code yyyy-MM-dd'T'HH:mm:ss[.S{1,9}](Z|+HH:MM|-HH:MM)}, the offset being applied</li>
+ *     <li>{@code yyyy-MM-dd'T'HH:mm:ss[.S{1,9}]}, taken as UTC</li>
+ *     <li>{@code yyyyMMdd} and {@code yyyy-MM-dd}, taken as the start of the day in UTC</li>
+ * </ul>
+ * Any other shape, and any out of range value, returns {@code null} so the caller can fall back to the formatters.
+ */
+final class InstantParser {
+
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int DAYS_0000_TO_1970 = 719528;
+    private static final int MAX_OFFSET_HOURS = 18;
+    private static final int[] NANOS_SCALE = {100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1};
+
+    private InstantParser() {
+    }
+
+    static Instant parse(final String value) {
+        final int length = value.length();
+        if (length == 8) {
+            return parseBasicDate(value);
+        }
+        if (length == 10) {
+            return parseDate(value);
+        }
+        if (length < 19 || value.charAt(10) != 'T') {
+            return null;
+        }
+        return parseDateTime(value, length);
+    }
+
+    private static Instant parseBasicDate(final String value) {
+        final int year = digits(value, 0, 4);
+        final int month = digits(value, 4, 2);
+        final int day = digits(value, 6, 2);
+        return isValidDate(year, month, day) ? Instant.ofEpochSecond(epochDay(year, month, day) * SECONDS_PER_DAY) : null;
+    }
+
+    private static Instant parseDate(final String value) {
+        final long epochDay = isoEpochDay(value);
+        return epochDay == Long.MIN_VALUE ? null : Instant.ofEpochSecond(epochDay * SECONDS_PER_DAY);
+    }
+
+    private static Instant parseDateTime(final String value, final int length) {
+        final long epochDay = isoEpochDay(value);
+        final int hour = digits(value, 11, 2);
+        final int minute = digits(value, 14, 2);
+        final int second = digits(value, 17, 2);
+        if (epochDay == Long.MIN_VALUE || value.charAt(13) != ':' || value.charAt(16) != ':'
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+
+        int position = 19;
+        int nanos = 0;
+        if (position < length && value.charAt(position) == '.') {
+            final int start = ++position;
+            while (position < length && isDigit(value.charAt(position))) {
+                position++;
+            }
+            final int fractionDigits = position - start;
+            if (fractionDigits == 0 || fractionDigits > 9) {
+                return null;
+            }
+            nanos = digits(value, start, fractionDigits) * NANOS_SCALE[fractionDigits - 1];
+        }
+
+        final int offsetSeconds;
+        if (position == length) {
+            offsetSeconds = 0;
+        } else if (position == length - 1 && value.charAt(position) == 'Z') {
+            offsetSeconds = 0;
+        } else if (position == length - 6) {
+            offsetSeconds = parseOffset(value, position);
+            if (offsetSeconds == Integer.MIN_VALUE) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+
+        final long secondOfDay = hour * 3600L + minute * 60L + second;
+        return Instant.ofEpochSecond(epochDay * SECONDS_PER_DAY + secondOfDay - offsetSeconds, nanos);
+    }
+
+    private static long isoEpochDay(final String value) {
+        if (value.charAt(4) != '-' || value.charAt(7) != '-') {
+            return Long.MIN_VALUE;
+        }
+        final int year = digits(value, 0, 4);
+        final int month = digits(value, 5, 2);
+        final int day = digits(value, 8, 2);
+        return isValidDate(year, month, day) ? epochDay(year, month, day) : Long.MIN_VALUE;
+    }
+
+    private static int parseOffset(final String value, final int position) {
+        final char sign = value.charAt(position);
+        final int hours = digits(value, position + 1, 2);
+        final int minutes = digits(value, position + 4, 2);
+        if ((sign != '+' && sign != '-') || value.charAt(position + 3) != ':'
+                || hours < 0 || hours > MAX_OFFSET_HOURS || minutes < 0 || minutes > 59
+                || (hours == MAX_OFFSET_HOURS && minutes > 0)) {
+            return Integer.MIN_VALUE;
+        }
+        final int seconds = hours * 3600 + minutes * 60;
+        return sign == '-' ? -seconds : seconds;
+    }
+
+    /**
+     * Reads {@code count} ascii digits starting at {@code start}, returning -1 when any of them is not a digit
+     */
+    private static int digits(final String value, final int start, final int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            final char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isValidDate(final int year, final int month, final int day) {
+        return year >= 1 && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month);
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(final int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Same computation as {@link java.time.LocalDate#toEpochDay()}, for positive years
+     */
+    private static long epochDay(final int year, final int month, final int day) {
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
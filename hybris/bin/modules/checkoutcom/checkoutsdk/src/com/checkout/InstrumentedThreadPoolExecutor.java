@@ -0,0 +1,89 @@
+package com.checkout;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread pool running the SDK transport calls. Tasks beyond the pool and queue capacity are rejected with a
+ * {@link java.util.concurrent.RejectedExecutionException} instead of piling up, and the pool exposes its queue depth,
+ * peak queue depth and rejection count.
+ */
+public final class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+    private final int queueCapacity;
+    private final AtomicLong rejectedTaskCount = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+    InstrumentedThreadPoolExecutor(final String name,
+                                   final int corePoolSize,
+                                   final int maximumPoolSize,
+                                   final int queueCapacity,
+                                   final long keepAliveSeconds) {
+        super(corePoolSize, maximumPoolSize, keepAliveSeconds, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory(name));
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        setRejectedExecutionHandler(new CountingAbortPolicy());
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        super.execute(command);
+        final int queueDepth = getQueue().size();
+        peakQueueDepth.accumulateAndGet(queueDepth, Math::max);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    public long getRejectedTaskCount() {
+        return rejectedTaskCount.get();
+    }
+
+    private final class CountingAbortPolicy implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler delegate = new AbortPolicy();
+
+        @Override
+        public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+            rejectedTaskCount.incrementAndGet();
+            delegate.rejectedExecution(runnable, executor);
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        private NamedThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, prefix + "-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
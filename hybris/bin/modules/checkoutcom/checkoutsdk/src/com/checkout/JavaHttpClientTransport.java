@@ -0,0 +1,476 @@
+package com.checkout;
+
+import com.checkout.common.AbstractFileRequest;
+import com.checkout.common.CheckoutUtils;
+import com.google.gson.JsonIOException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicNameValuePair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static com.checkout.ClientOperation.GET;
+import static com.checkout.ClientOperation.GET_CSV_CONTENT;
+import static com.checkout.ClientOperation.POST;
+import static com.checkout.ClientOperation.QUERY;
+import static com.checkout.common.CheckoutUtils.ACCEPT_JSON;
+import static com.checkout.common.CheckoutUtils.PROJECT_NAME;
+import static com.checkout.common.CheckoutUtils.getVersionFromManifest;
+import static org.apache.http.HttpHeaders.ACCEPT;
+import static org.apache.http.HttpHeaders.AUTHORIZATION;
+import static org.apache.http.HttpHeaders.CONTENT_TYPE;
+import static org.apache.http.HttpHeaders.LOCATION;
+import static org.apache.http.HttpHeaders.USER_AGENT;
+
+/**
+ * Non-blocking {@link Transport} built on {@link HttpClient}. Requests are multiplexed over HTTP/2 connections when
+ * the server supports it, so no thread is held while a call is in flight. Redirects of GET requests are followed
+ * without the original headers, as done by {@link CustomAwsRedirectStrategy} for the Apache transport.
+ */
+@Slf4j
+class JavaHttpClientTransport implements Transport {
+
+    private static final String ACCEPT_CSV = "text/csv";
+    private static final String CKO_IDEMPOTENCY_KEY = "Cko-Idempotency-Key";
+    private static final String CKO_SDK_TELEMETRY = "cko-sdk-telemetry";
+    private static final int MAX_REDIRECTS = 5;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final TransportConfiguration transportConfiguration;
+    private final CheckoutConfiguration configuration;
+    private final Serializer serializer;
+
+    private volatile String prevRequestId;
+    private volatile long prevRequestDuration;
+
+    JavaHttpClientTransport(
+            final URI baseUri,
+            final HttpClient httpClient,
+            final TransportConfiguration transportConfiguration,
+            final CheckoutConfiguration configuration,
+            final Serializer serializer
+    ) {
+        CheckoutUtils.validateParams("baseUri", baseUri, "httpClient", httpClient);
+        this.baseUri = baseUri;
+        this.httpClient = httpClient;
+        this.transportConfiguration = transportConfiguration;
+        this.configuration = configuration;
+        this.serializer = serializer;
+    }
+
+    static HttpClient createHttpClient(final Executor executor) {
+        return createHttpClient(executor, CONNECT_TIMEOUT);
+    }
+
+    /**
+     * The client runs its own tasks, such as delivering responses, on the given executor. A bounded executor aborts when
+     * saturated, so these tasks run in the submitting thread rather than being lost and leaving calls unanswered.
+     */
+    static HttpClient createHttpClient(final Executor executor, final Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(connectTimeout)
+                .executor(TransportExecutors.callerRunsWhenRejected(executor))
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<Response> invoke(final ClientOperation clientOperation,
+                                              final String path,
+                                              final SdkAuthorization authorization,
+                                              final String requestBody,
+                                              final String idempotencyKey,
+                                              final Map<String, String> queryParams) {
+        final HttpRequest.Builder request;
+        try {
+            request = createRequest(clientOperation, path, queryParams, requestBody == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofString(requestBody));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (idempotencyKey != null) {
+            request.setHeader(CKO_IDEMPOTENCY_KEY, idempotencyKey);
+        }
+        if (requestBody != null) {
+            request.setHeader(CONTENT_TYPE, ACCEPT_JSON);
+        }
+        return performCall(authorization, request, clientOperation, null);
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeStreaming(final ClientOperation clientOperation,
+                                                       final String path,
+                                                       final SdkAuthorization authorization,
+                                                       final Object requestObject,
+                                                       final String idempotencyKey,
+                                                       final Type responseType) {
+        final HttpRequest.Builder request;
+        try {
+            request = createRequest(clientOperation, path, null, requestObject == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(toJsonBytes(requestObject)));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (idempotencyKey != null) {
+            request.setHeader(CKO_IDEMPOTENCY_KEY, idempotencyKey);
+        }
+        if (requestObject != null) {
+            request.setHeader(CONTENT_TYPE, ACCEPT_JSON);
+        }
+        return performCall(authorization, request, clientOperation, responseType);
+    }
+
+    /**
+     * The body is consumed from an input stream on the executor of the client, the thread of the selector manager is
+     * never blocked by a slow sink
+     */
+    @Override
+    public CompletableFuture<Response> download(final ClientOperation clientOperation,
+                                                final String path,
+                                                final SdkAuthorization authorization,
+                                                final Map<String, String> queryParams,
+                                                final ResponseBodySink sink) {
+        final HttpRequest.Builder requestBuilder;
+        try {
+            requestBuilder = createRequest(clientOperation, path, queryParams, HttpRequest.BodyPublishers.noBody());
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final String currentRequestId = UUID.randomUUID().toString();
+        final HttpRequest request = buildRequest(authorization, requestBuilder, clientOperation, currentRequestId);
+
+        final long startTime = System.currentTimeMillis();
+        return send(request, HttpResponse.BodyHandlers.ofInputStream(), isRedirectable(clientOperation), 0)
+                .thenApplyAsync(response -> {
+                    updateTelemetryData(currentRequestId, System.currentTimeMillis() - startTime);
+                    log.info("Response: " + response.statusCode() + " " + response.headers().map());
+                    return toDownloadResponse(response, sink);
+                }, httpClient.executor().orElseGet(ForkJoinPool::commonPool))
+                .exceptionally(throwable -> {
+                    final Throwable cause = unwrap(throwable);
+                    if (cause instanceof CheckoutException) {
+                        throw (CheckoutException) cause;
+                    }
+                    return handleException(cause);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Response> submitFile(final String path, final SdkAuthorization authorization, final AbstractFileRequest fileRequest) {
+        final HttpRequest.Builder request;
+        try {
+            final HttpEntity entity = ApacheHttpClientTransport.getMultipartFileEntity(fileRequest);
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            entity.writeTo(content);
+            request = HttpRequest.newBuilder(getRequestUri(path))
+                    .setHeader(CONTENT_TYPE, entity.getContentType().getValue())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(content.toByteArray()));
+            if (configuration.getResiliencePolicy() != null) {
+                request.timeout(configuration.getResiliencePolicy().getFileUploadTimeout());
+            }
+        } catch (final IOException e) {
+            return CompletableFuture.failedFuture(new CheckoutException(e));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return performCall(authorization, request, POST, null);
+    }
+
+    private HttpRequest.Builder createRequest(final ClientOperation clientOperation,
+                                              final String path,
+                                              final Map<String, String> queryParams,
+                                              final HttpRequest.BodyPublisher body) {
+        final HttpRequest.Builder request = createRequestForOperation(clientOperation, path, queryParams, body);
+        if (configuration.getResiliencePolicy() != null) {
+            request.timeout(configuration.getResiliencePolicy().getTimeout(clientOperation));
+        }
+        return request;
+    }
+
+    private HttpRequest.Builder createRequestForOperation(final ClientOperation clientOperation,
+                                                          final String path,
+                                                          final Map<String, String> queryParams,
+                                                          final HttpRequest.BodyPublisher body) {
+        switch (clientOperation) {
+            case GET:
+            case GET_CSV_CONTENT:
+                return HttpRequest.newBuilder(getRequestUri(path)).GET();
+            case PUT:
+                return HttpRequest.newBuilder(getRequestUri(path)).PUT(body);
+            case POST:
+                return HttpRequest.newBuilder(getRequestUri(path)).POST(body);
+            case DELETE:
+                return HttpRequest.newBuilder(getRequestUri(path)).DELETE();
+            case PATCH:
+                return HttpRequest.newBuilder(getRequestUri(path)).method("PATCH", body);
+            case QUERY:
+                final List<NameValuePair> params = queryParams.entrySet().stream()
+                        .map(entry -> new BasicNameValuePair(entry.getKey(), entry.getValue()))
+                        .collect(Collectors.toList());
+                try {
+                    return HttpRequest.newBuilder(new URIBuilder(getRequestUri(path)).addParameters(params).build()).GET();
+                } catch (final URISyntaxException e) {
+                    throw new CheckoutException(e);
+                }
+            default:
+                throw new UnsupportedOperationException("Unsupported HTTP Method: " + clientOperation);
+        }
+    }
+
+    /**
+     * The request is buffered as UTF-8 bytes rather than a string: the client needs the whole body up front and
+     * streaming it from a blocking writer would hold a thread for the duration of the upload
+     */
+    private byte[] toJsonBytes(final Object requestObject) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (final Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+            serializer.toJson(requestObject, writer);
+        } catch (final IOException e) {
+            throw new CheckoutException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private CompletableFuture<Response> performCall(final SdkAuthorization authorization,
+                                                    final HttpRequest.Builder requestBuilder,
+                                                    final ClientOperation clientOperation,
+                                                    final Type responseType) {
+        final String currentRequestId = UUID.randomUUID().toString();
+        final HttpRequest request = buildRequest(authorization, requestBuilder, clientOperation, currentRequestId);
+
+        final long startTime = System.currentTimeMillis();
+        return send(request, HttpResponse.BodyHandlers.ofInputStream(), isRedirectable(clientOperation), 0)
+                .handleAsync((response, throwable) -> {
+                    if (throwable != null) {
+                        return handleException(throwable);
+                    }
+                    updateTelemetryData(currentRequestId, System.currentTimeMillis() - startTime);
+                    log.info("Response: " + response.statusCode() + " " + response.headers().map());
+                    return toResponse(response, responseType);
+                }, httpClient.executor().orElseGet(ForkJoinPool::commonPool));
+    }
+
+    private HttpRequest buildRequest(final SdkAuthorization authorization,
+                                     final HttpRequest.Builder requestBuilder,
+                                     final ClientOperation clientOperation,
+                                     final String currentRequestId) {
+        requestBuilder.setHeader(USER_AGENT, PROJECT_NAME + "/" + getVersionFromManifest());
+        requestBuilder.setHeader(ACCEPT, getAcceptHeader(clientOperation));
+        requestBuilder.setHeader(AUTHORIZATION, authorization.getAuthorizationHeader());
+        if (configuration.isTelemetryEnabled()) {
+            requestBuilder.setHeader(CKO_SDK_TELEMETRY, generateTelemetryHeader(currentRequestId));
+        }
+
+        final HttpRequest request = requestBuilder.build();
+        log.info("{}: {}", clientOperation, request.uri());
+        log.info("Request: " + sanitiseHeaders(request.headers()));
+        return request;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request,
+                                                        final HttpResponse.BodyHandler<T> bodyHandler,
+                                                        final boolean redirectable,
+                                                        final int redirects) {
+        return httpClient.sendAsync(request, bodyHandler)
+                .thenCompose(response -> {
+                    final String location = response.headers().firstValue(LOCATION).orElse(null);
+                    if (!redirectable || location == null || !isRedirect(response.statusCode()) || redirects >= MAX_REDIRECTS) {
+                        return CompletableFuture.completedFuture(response);
+                    }
+                    discard(response.body());
+                    final HttpRequest redirect = HttpRequest.newBuilder(request.uri().resolve(location))
+                            .setHeader(ACCEPT, ACCEPT_JSON)
+                            .GET()
+                            .build();
+                    return send(redirect, bodyHandler, true, redirects + 1);
+                });
+    }
+
+    /**
+     * Streamed bodies hold the connection until they are closed, the body of a redirect is never read
+     */
+    private void discard(final Object body) {
+        if (body instanceof Closeable) {
+            try {
+                ((Closeable) body).close();
+            } catch (final IOException e) {
+                log.debug("Failed closing the body of a redirect", e);
+            }
+        }
+    }
+
+    /**
+     * The body is read on the executor of the client, as done for downloads. A successful response is deserialised
+     * while it is read from the connection, as done by the Apache transport, without buffering the whole body first.
+     */
+    private Response toResponse(final HttpResponse<InputStream> response, final Type responseType) {
+        final int statusCode = response.statusCode();
+        final Map<String, String> headers = getHeaders(response);
+        try (final InputStream body = response.body()) {
+            if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                return Response.builder().statusCode(statusCode).headers(headers).build();
+            }
+            if (responseType != null && CheckoutUtils.isSuccessHttpStatusCode(statusCode) && !configuration.isResponseBodyRetained()) {
+                return Response.builder()
+                        .statusCode(statusCode)
+                        .content(serializer.fromJson(new InputStreamReader(body, getCharset(response)), responseType))
+                        .headers(headers)
+                        .build();
+            }
+            final byte[] content = body.readAllBytes();
+            return Response.builder()
+                    .statusCode(statusCode)
+                    .body(content.length > 0 ? new String(content, getCharset(response)) : null)
+                    .headers(headers)
+                    .build();
+        } catch (final IOException | JsonIOException e) {
+            return handleException(e);
+        }
+    }
+
+    private Response toDownloadResponse(final HttpResponse<InputStream> response, final ResponseBodySink sink) {
+        final int statusCode = response.statusCode();
+        final Map<String, String> headers = getHeaders(response);
+        try (final InputStream body = response.body()) {
+            if (statusCode == HttpStatus.SC_NOT_FOUND) {
+                return Response.builder().statusCode(statusCode).headers(headers).build();
+            }
+            if (CheckoutUtils.isSuccessHttpStatusCode(statusCode)) {
+                return Response.builder()
+                        .statusCode(statusCode)
+                        .content(sink.consume(body, getCharset(response)))
+                        .headers(headers)
+                        .build();
+            }
+            final byte[] errorBody = body.readAllBytes();
+            return Response.builder()
+                    .statusCode(statusCode)
+                    .body(errorBody.length > 0 ? new String(errorBody, StandardCharsets.UTF_8) : null)
+                    .headers(headers)
+                    .build();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Charset getCharset(final HttpResponse<?> response) {
+        return response.headers().firstValue(CONTENT_TYPE)
+                .map(contentType -> ContentType.parse(contentType).getCharset())
+                .orElse(StandardCharsets.UTF_8);
+    }
+
+    private Map<String, String> getHeaders(final HttpResponse<?> response) {
+        final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        response.headers().map().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name, values.get(0));
+            }
+        });
+        return headers;
+    }
+
+    private String generateTelemetryHeader(final String currentRequestId) {
+        final RequestMetrics metrics = new RequestMetrics();
+        metrics.setPrevRequestId(prevRequestId);
+        metrics.setPrevRequestDuration(prevRequestDuration);
+        metrics.setRequestId(currentRequestId);
+        return metrics.toTelemetryHeader();
+    }
+
+    private void updateTelemetryData(final String requestId, final long duration) {
+        prevRequestId = requestId;
+        prevRequestDuration = duration;
+    }
+
+    private Response handleException(final Throwable throwable) {
+        final Throwable cause = unwrap(throwable);
+        if (cause instanceof UncheckedIOException || cause instanceof IOException) {
+            log.error("Target server failed to respond with a valid HTTP response.", cause);
+        } else {
+            log.error("Exception occurred during the execution of the client...", cause);
+        }
+        return Response.builder().statusCode(transportConfiguration.getDefaultHttpStatusCode()).transportFailure(true).build();
+    }
+
+    private static Throwable unwrap(final Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    private Map<String, List<String>> sanitiseHeaders(final HttpHeaders headers) {
+        return headers.map().entrySet().stream()
+                .filter(it -> !it.getKey().equalsIgnoreCase(AUTHORIZATION))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private boolean isRedirectable(final ClientOperation clientOperation) {
+        return clientOperation == GET || clientOperation == GET_CSV_CONTENT || clientOperation == QUERY;
+    }
+
+    private boolean isRedirect(final int statusCode) {
+        switch (statusCode) {
+            case HttpStatus.SC_MOVED_PERMANENTLY:
+            case HttpStatus.SC_MOVED_TEMPORARILY:
+            case HttpStatus.SC_SEE_OTHER:
+            case HttpStatus.SC_TEMPORARY_REDIRECT:
+            case 308:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private String getAcceptHeader(final ClientOperation clientOperation) {
+        switch (clientOperation) {
+            case GET:
+            case PUT:
+            case POST:
+            case DELETE:
+            case PATCH:
+            case QUERY:
+                return ACCEPT_JSON;
+            case GET_CSV_CONTENT:
+                return ACCEPT_CSV;
+            default:
+                throw new IllegalStateException(String.format("Accept header not configured for client operation %s", clientOperation));
+        }
+    }
+
+    private URI getRequestUri(final String path) {
+        return baseUri.resolve(path);
+    }
+}
@@ -12,11 +12,17 @@ final class OAuthAccessToken {
     private final String token;
     private final String tokenType;
     private final LocalDateTime expirationDate;
+    private final long expiresIn;
 
     OAuthAccessToken(final String token, final String tokenType, final LocalDateTime expirationDate) {
+        this(token, tokenType, expirationDate, 0);
+    }
+
+    OAuthAccessToken(final String token, final String tokenType, final LocalDateTime expirationDate, final long expiresIn) {
         this.token = token;
         this.tokenType = tokenType;
         this.expirationDate = expirationDate;
+        this.expiresIn = expiresIn;
     }
 
     boolean isValid() {
@@ -46,4 +52,11 @@ final class OAuthAccessToken {
         return expirationDate;
     }
 
+    /**
+     * @return the lifetime in seconds the token was issued with, 0 when unknown
+     */
+    long getExpiresIn() {
+        return expiresIn;
+    }
+
 }
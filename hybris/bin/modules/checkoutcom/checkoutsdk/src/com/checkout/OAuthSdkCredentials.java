@@ -16,10 +16,18 @@ import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.ref.WeakReference;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static com.checkout.common.CheckoutUtils.validateParams;
@@ -29,29 +37,62 @@ import static java.time.LocalDateTime.now;
 @Slf4j
 final class OAuthSdkCredentials extends SdkCredentials {
 
+    static final double DEFAULT_REFRESH_RATIO = 0.8;
+    static final double DEFAULT_REFRESH_JITTER = 0.05;
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    // Shared by every OAuth client, refreshes only hold weak references so retired clients can be collected
+    private static final ScheduledExecutorService REFRESH_SCHEDULER = createRefreshScheduler();
+
     private final URI authorizationUri;
     private final String clientId;
     private final String clientSecret;
     private final Set<OAuthScope> scopes;
+    private final double refreshRatio;
+    private final double refreshJitter;
+    private final OAuthTokenRefreshMetrics metrics;
 
     private CloseableHttpClient client;
     private GsonSerializer serializer;
 
-    private OAuthAccessToken accessToken;
+    private final AtomicReference<OAuthAccessToken> accessToken = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<OAuthAccessToken>> refreshInFlight = new AtomicReference<>();
 
     OAuthSdkCredentials(final HttpClientBuilder httpClientBuilder,
                         final URI authorizationUri,
                         final String clientId,
                         final String clientSecret,
                         final Set<OAuthScope> scopes) {
+        this(httpClientBuilder, authorizationUri, clientId, clientSecret, scopes,
+                DEFAULT_REFRESH_RATIO, DEFAULT_REFRESH_JITTER, new OAuthTokenRefreshMetrics());
+    }
+
+    OAuthSdkCredentials(final HttpClientBuilder httpClientBuilder,
+                        final URI authorizationUri,
+                        final String clientId,
+                        final String clientSecret,
+                        final Set<OAuthScope> scopes,
+                        final double refreshRatio,
+                        final double refreshJitter,
+                        final OAuthTokenRefreshMetrics metrics) {
         super(PlatformType.DEFAULT_OAUTH);
         validateParams("httpClientBuilder", httpClientBuilder, "authorizationUri", authorizationUri,
                 "clientId", clientId, "clientSecret", clientSecret, "scopes", scopes);
+        validateParams("metrics", metrics);
+        if (refreshRatio <= 0 || refreshRatio >= 1) {
+            throw new CheckoutArgumentException("refreshRatio must be between 0 and 1");
+        }
+        if (refreshJitter < 0 || refreshJitter >= refreshRatio) {
+            throw new CheckoutArgumentException("refreshJitter must be positive and lower than refreshRatio");
+        }
         this.client = httpClientBuilder.build();
         this.authorizationUri = authorizationUri;
         this.clientId = clientId;
         this.clientSecret = clientSecret;
         this.scopes = scopes;
+        this.refreshRatio = refreshRatio;
+        this.refreshJitter = refreshJitter;
+        this.metrics = metrics;
         this.serializer = new GsonSerializer();
     }
 
@@ -71,11 +112,103 @@ final class OAuthSdkCredentials extends SdkCredentials {
         }
     }
 
-    private synchronized OAuthAccessToken getAccessToken() {
-        if (accessToken != null && accessToken.isValid()) {
-            log.debug("Using cached OAuth token");
-            return accessToken;
+    private OAuthAccessToken getAccessToken() {
+        final OAuthAccessToken current = accessToken.get();
+        if (current != null && current.isValid()) {
+            return current;
+        }
+        return refreshAccessToken(current);
+    }
+
+    /**
+     * Requests a new token unless another thread already replaced {@code stale}. Only one request runs at a time, the
+     * other callers wait for its result.
+     */
+    private OAuthAccessToken refreshAccessToken(final OAuthAccessToken stale) {
+        final CompletableFuture<OAuthAccessToken> refresh = new CompletableFuture<>();
+        final CompletableFuture<OAuthAccessToken> inFlight = refreshInFlight.compareAndExchange(null, refresh);
+        if (inFlight != null) {
+            return awaitRefresh(inFlight);
+        }
+        try {
+            final OAuthAccessToken current = accessToken.get();
+            final OAuthAccessToken token = current != null && current != stale ? current : requestAccessToken();
+            refresh.complete(token);
+            return token;
+        } catch (final RuntimeException e) {
+            refresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshInFlight.set(null);
+        }
+    }
+
+    private static OAuthAccessToken awaitRefresh(final CompletableFuture<OAuthAccessToken> refresh) {
+        try {
+            return refresh.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CheckoutException("OAuth client_credentials authentication failed", e.getCause());
+        }
+    }
+
+    private OAuthAccessToken requestAccessToken() {
+        final long start = System.nanoTime();
+        try {
+            final OAuthAccessToken token = postTokenRequest();
+            metrics.recordRefresh(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            accessToken.set(token);
+            scheduleRefresh(token);
+            return token;
+        } catch (final RuntimeException e) {
+            metrics.recordFailure(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+            throw e;
+        }
+    }
+
+    private void scheduleRefresh(final OAuthAccessToken token) {
+        final long lifetimeMillis = token.getExpiresIn() * 1000;
+        if (lifetimeMillis <= 0) {
+            return;
         }
+        final long jitterMillis = (long) (lifetimeMillis * refreshJitter);
+        final long delayMillis = (long) (lifetimeMillis * refreshRatio)
+                - (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis) : 0);
+        schedule(this, token, delayMillis);
+    }
+
+    private static void schedule(final OAuthSdkCredentials credentials, final OAuthAccessToken token, final long delayMillis) {
+        final WeakReference<OAuthSdkCredentials> reference = new WeakReference<>(credentials);
+        REFRESH_SCHEDULER.schedule(() -> {
+            final OAuthSdkCredentials target = reference.get();
+            if (target != null) {
+                target.refreshInBackground(token);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replaces {@code token} ahead of its expiry. Callers keep being served {@code token} meanwhile; when the request
+     * fails it is retried until {@code token} expires, after which the next caller requests a new one.
+     */
+    private void refreshInBackground(final OAuthAccessToken token) {
+        if (accessToken.get() != token) {
+            return;
+        }
+        try {
+            refreshAccessToken(token);
+            log.debug("OAuth token refreshed in the background");
+        } catch (final RuntimeException e) {
+            log.warn("Background OAuth token refresh failed, the current token is used until it expires", e);
+            if (token.isValid()) {
+                schedule(this, token, RETRY_DELAY_MILLIS + ThreadLocalRandom.current().nextLong(RETRY_DELAY_MILLIS));
+            }
+        }
+    }
+
+    private OAuthAccessToken postTokenRequest() {
         final HttpPost httpPost = new HttpPost(authorizationUri);
         httpPost.setHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_FORM_URLENCODED.getMimeType());
         try {
@@ -104,14 +237,15 @@ final class OAuthSdkCredentials extends SdkCredentials {
                 throw new CheckoutException(format("Invalid OAuth response: %s", json));
             }
 
-            accessToken = new OAuthAccessToken(
+            final OAuthAccessToken token = new OAuthAccessToken(
                     oAuthServiceResponse.accessToken,
                     oAuthServiceResponse.tokenType,
-                    now().plusSeconds(oAuthServiceResponse.expiresIn)
+                    now().plusSeconds(oAuthServiceResponse.expiresIn),
+                    oAuthServiceResponse.expiresIn
             );
 
-            log.debug("OAuth token successfully retrieved, expires at: {}", accessToken.getExpirationDate());
-            return accessToken;
+            log.debug("OAuth token successfully retrieved, expires at: {}", token.getExpirationDate());
+            return token;
 
         } catch (final IOException e) {
             throw new CheckoutException("OAuth client_credentials authentication failed", e);
@@ -119,8 +253,8 @@ final class OAuthSdkCredentials extends SdkCredentials {
 
     }
 
-    synchronized void setAccessToken(final OAuthAccessToken accessToken) {
-        this.accessToken = accessToken;
+    void setAccessToken(final OAuthAccessToken accessToken) {
+        this.accessToken.set(accessToken);
     }
 
     void setClient(final CloseableHttpClient client) {
@@ -132,7 +266,21 @@ final class OAuthSdkCredentials extends SdkCredentials {
     }
 
     OAuthAccessToken getOAuthAccessToken() {
-        return accessToken;
+        return accessToken.get();
+    }
+
+    OAuthTokenRefreshMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static ScheduledExecutorService createRefreshScheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "checkout-oauth-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
     }
 
     private static class OAuthServiceResponse {
@@ -0,0 +1,72 @@
+package com.checkout;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the OAuth token requests made by the SDK. Pass an instance to
+ * {@link CheckoutSdkBuilder.CheckoutOAuthSdkBuilder#tokenRefreshMetrics(OAuthTokenRefreshMetrics)} to read them.
+ */
+public final class OAuthTokenRefreshMetrics {
+
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+    private volatile long lastLatencyMillis;
+    private volatile Instant lastRefresh;
+    private volatile Instant lastFailure;
+    private volatile String lastFailureMessage;
+
+    void recordRefresh(final long latencyMillis) {
+        refreshCount.incrementAndGet();
+        recordLatency(latencyMillis);
+        lastRefresh = Instant.now();
+    }
+
+    void recordFailure(final long latencyMillis, final Exception exception) {
+        failureCount.incrementAndGet();
+        recordLatency(latencyMillis);
+        lastFailure = Instant.now();
+        lastFailureMessage = exception.getMessage();
+    }
+
+    private void recordLatency(final long latencyMillis) {
+        lastLatencyMillis = latencyMillis;
+        totalLatencyMillis.addAndGet(latencyMillis);
+        maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    public long getLastLatencyMillis() {
+        return lastLatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis.get();
+    }
+
+    public long getAverageLatencyMillis() {
+        final long attempts = refreshCount.get() + failureCount.get();
+        return attempts == 0 ? 0 : totalLatencyMillis.get() / attempts;
+    }
+
+    public Instant getLastRefresh() {
+        return lastRefresh;
+    }
+
+    public Instant getLastFailure() {
+        return lastFailure;
+    }
+
+    public String getLastFailureMessage() {
+        return lastFailureMessage;
+    }
+}
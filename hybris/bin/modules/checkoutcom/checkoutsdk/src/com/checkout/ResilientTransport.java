@@ -0,0 +1,137 @@
+package com.checkout;
+
+import com.checkout.common.AbstractFileRequest;
+import com.checkout.common.CheckoutUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpStatus;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.checkout.ClientOperation.POST;
+
+/**
+ * {@link Transport} applying a {@link TransportResiliencePolicy} to the calls of another transport: calls that are
+ * safe to repeat are retried with backoff, and the calls fail fast with a 503 response while the circuit breaker of
+ * the host is open, instead of holding a thread until they time out.
+ */
+@Slf4j
+class ResilientTransport implements Transport {
+
+    private final Transport delegate;
+    private final TransportResiliencePolicy policy;
+    private final TransportCircuitBreaker circuitBreaker;
+    private final Executor executor;
+    private final String host;
+
+    ResilientTransport(final Transport delegate,
+                       final URI baseUri,
+                       final TransportResiliencePolicy policy,
+                       final Executor executor) {
+        CheckoutUtils.validateParams("delegate", delegate, "baseUri", baseUri, "policy", policy, "executor", executor);
+        this.delegate = delegate;
+        this.policy = policy;
+        this.host = baseUri.getAuthority();
+        this.circuitBreaker = policy.getCircuitBreaker(host);
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Response> invoke(final ClientOperation clientOperation,
+                                              final String path,
+                                              final SdkAuthorization authorization,
+                                              final String jsonRequest,
+                                              final String idempotencyKey,
+                                              final Map<String, String> queryParams) {
+        return execute(policy.isRepeatable(clientOperation, idempotencyKey),
+                () -> delegate.invoke(clientOperation, path, authorization, jsonRequest, idempotencyKey, queryParams));
+    }
+
+    @Override
+    public CompletableFuture<Response> invokeStreaming(final ClientOperation clientOperation,
+                                                       final String path,
+                                                       final SdkAuthorization authorization,
+                                                       final Object request,
+                                                       final String idempotencyKey,
+                                                       final Type responseType) {
+        return execute(policy.isRepeatable(clientOperation, idempotencyKey),
+                () -> delegate.invokeStreaming(clientOperation, path, authorization, request, idempotencyKey, responseType));
+    }
+
+    /**
+     * The sink consumes the body again on each attempt, so a retried download starts over rather than appending to
+     * the content of the failed attempt
+     */
+    @Override
+    public CompletableFuture<Response> download(final ClientOperation clientOperation,
+                                                final String path,
+                                                final SdkAuthorization authorization,
+                                                final Map<String, String> queryParams,
+                                                final ResponseBodySink sink) {
+        return execute(policy.isRepeatable(clientOperation, null),
+                () -> delegate.download(clientOperation, path, authorization, queryParams, sink));
+    }
+
+    @Override
+    public CompletableFuture<Response> submitFile(final String path, final SdkAuthorization authorization, final AbstractFileRequest fileRequest) {
+        return execute(policy.isRepeatable(POST, null), () -> delegate.submitFile(path, authorization, fileRequest));
+    }
+
+    private CompletableFuture<Response> execute(final boolean repeatable, final Supplier<CompletableFuture<Response>> call) {
+        return attempt(call, repeatable ? policy.getMaxRetries() : 0, 0);
+    }
+
+    private CompletableFuture<Response> attempt(final Supplier<CompletableFuture<Response>> call, final int maxRetries, final int retry) {
+        if (!circuitBreaker.tryAcquire()) {
+            policy.getMetrics().recordShortCircuited();
+            log.warn("Circuit breaker for {} is open, the call is not sent", host);
+            return CompletableFuture.completedFuture(Response.builder()
+                    .statusCode(HttpStatus.SC_SERVICE_UNAVAILABLE)
+                    .transportFailure(true)
+                    .build());
+        }
+
+        final CompletableFuture<Response> response;
+        try {
+            response = call.get();
+        } catch (final RuntimeException e) {
+            circuitBreaker.release();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return response.whenComplete(this::recordOutcome)
+                .thenCompose(result -> {
+                    if (!TransportResiliencePolicy.isRetryable(result)) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    if (retry >= maxRetries) {
+                        if (maxRetries > 0) {
+                            policy.getMetrics().recordRetriesExhausted();
+                        }
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    policy.getMetrics().recordRetry();
+                    final long backoff = policy.getBackoffMillis(retry);
+                    log.warn("Retrying call to {} in {} ms after status {}, retry {} of {}", host, backoff, result.getStatusCode(), retry + 1, maxRetries);
+                    final Executor delayedExecutor = CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS, executor);
+                    return CompletableFuture.supplyAsync(() -> attempt(call, maxRetries, retry + 1), delayedExecutor)
+                            .thenCompose(Function.identity());
+                });
+    }
+
+    private void recordOutcome(final Response result, final Throwable throwable) {
+        if (throwable != null) {
+            circuitBreaker.release();
+        } else if (result.isTransportFailure() || result.getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+}
@@ -15,6 +15,13 @@ final class Response {
 
     private String body;
 
+    private Object content;
+
     private Map<String, String> headers;
 
+    /**
+     * True when no response was received and the status code is the default one of the {@link TransportConfiguration}
+     */
+    private boolean transportFailure;
+
 }
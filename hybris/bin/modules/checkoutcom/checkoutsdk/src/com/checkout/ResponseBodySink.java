@@ -0,0 +1,17 @@
+package com.checkout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Consumes the body of a successful response while it is read from the connection, the value returned is the
+ * {@link Response#getContent() content} of the response. Failures reading the body are thrown as {@link IOException}
+ * and handled as a transport failure, any other failure is propagated to the caller.
+ */
+@FunctionalInterface
+interface ResponseBodySink {
+
+    Object consume(InputStream body, Charset charset) throws IOException;
+
+}
@@ -1,5 +1,6 @@
 package com.checkout;
 
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.util.Map;
 
@@ -7,10 +8,14 @@ public interface Serializer {
 
     <T> String toJson(T object);
 
+    <T> void toJson(T object, Appendable writer);
+
     <T> T fromJson(String json, Class<T> type);
 
     <T> T fromJson(String json, Type type);
 
+    <T> T fromJson(Reader reader, Type type);
+
     Map<String, Object> fromJson(String json);
 
 }
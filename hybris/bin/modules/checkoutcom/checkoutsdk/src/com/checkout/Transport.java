@@ -2,6 +2,7 @@ package com.checkout;
 
 import com.checkout.common.AbstractFileRequest;
 
+import java.lang.reflect.Type;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -9,6 +10,20 @@ public interface Transport {
 
     CompletableFuture<Response> invoke(ClientOperation clientOperation, String path, SdkAuthorization authorization, String jsonRequest, String idempotencyKey, Map<String, String> queryParams);
 
+    /**
+     * Writes the request as JSON straight to the connection and, for successful responses, reads the body straight
+     * into the response type, which is returned as the {@link Response#getContent() content} of the response.
+     * The raw body is only kept when the configuration retains it, or for error responses.
+     */
+    CompletableFuture<Response> invokeStreaming(ClientOperation clientOperation, String path, SdkAuthorization authorization, Object request, String idempotencyKey, Type responseType);
+
+    /**
+     * Passes the body of a successful response to the sink while it is read from the connection, without buffering
+     * it. The value returned by the sink is the {@link Response#getContent() content} of the response, the body of
+     * error responses is kept as for {@link #invoke}.
+     */
+    CompletableFuture<Response> download(ClientOperation clientOperation, String path, SdkAuthorization authorization, Map<String, String> queryParams, ResponseBodySink sink);
+
     CompletableFuture<Response> submitFile(String path, SdkAuthorization authorization, AbstractFileRequest fileRequest);
 
 }
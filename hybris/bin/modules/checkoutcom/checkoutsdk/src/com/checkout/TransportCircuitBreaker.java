@@ -0,0 +1,87 @@
+package com.checkout;
+
+import com.checkout.TransportResilienceMetrics.CircuitState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker of the calls to one host. It opens after a number of consecutive failures, lets a single trial call
+ * through once the open duration has passed, and closes again when the trial call gets a response.
+ */
+@Slf4j
+final class TransportCircuitBreaker {
+
+    private final String host;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final TransportResilienceMetrics metrics;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    TransportCircuitBreaker(final String host, final int failureThreshold, final Duration openDuration,
+                            final TransportResilienceMetrics metrics) {
+        this.host = host;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return true if the call can be sent, in which case its outcome must be reported with {@link #onSuccess()},
+     * {@link #onFailure()} or {@link #release()}
+     */
+    synchronized boolean tryAcquire() {
+        if (state == CircuitState.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return false;
+            }
+            setState(CircuitState.HALF_OPEN);
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != CircuitState.CLOSED) {
+            log.info("Circuit breaker for {} closed", host);
+            setState(CircuitState.CLOSED);
+        }
+    }
+
+    synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == CircuitState.HALF_OPEN || (state == CircuitState.CLOSED && consecutiveFailures >= failureThreshold)) {
+            log.warn("Circuit breaker for {} opened after {} consecutive failures", host, consecutiveFailures);
+            openedAt = System.nanoTime();
+            setState(CircuitState.OPEN);
+        }
+    }
+
+    /**
+     * Releases the call without counting it, when it failed before reaching the host
+     */
+    synchronized void release() {
+        trialInFlight = false;
+    }
+
+    synchronized CircuitState getState() {
+        return state;
+    }
+
+    private void setState(final CircuitState state) {
+        this.state = state;
+        metrics.recordCircuitState(host, state);
+    }
+}
@@ -0,0 +1,91 @@
+package com.checkout;
+
+import com.checkout.common.CheckoutUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Factories for the executors the SDK transport can run its calls on. The default common ForkJoinPool is shared with
+ * every parallel stream of the JVM; these executors keep gateway I/O apart from other work.
+ */
+public final class TransportExecutors {
+
+    public static final String DEFAULT_NAME = "checkout-sdk-transport";
+
+    private static final long DEFAULT_KEEP_ALIVE_SECONDS = 60L;
+
+    private TransportExecutors() {
+    }
+
+    /**
+     * Creates a named, bounded and instrumented thread pool
+     *
+     * @param name            the prefix of the thread names
+     * @param corePoolSize    the number of threads kept alive
+     * @param maximumPoolSize the maximum number of threads
+     * @param queueCapacity   the maximum number of calls waiting for a thread
+     * @return the thread pool
+     */
+    public static InstrumentedThreadPoolExecutor bounded(final String name,
+                                                         final int corePoolSize,
+                                                         final int maximumPoolSize,
+                                                         final int queueCapacity) {
+        if (corePoolSize < 0 || maximumPoolSize <= 0 || maximumPoolSize < corePoolSize || queueCapacity <= 0) {
+            throw new CheckoutArgumentException("invalid transport executor sizes");
+        }
+        return new InstrumentedThreadPoolExecutor(name, corePoolSize, maximumPoolSize, queueCapacity, DEFAULT_KEEP_ALIVE_SECONDS);
+    }
+
+    /**
+     * Creates an executor starting one virtual thread per call. Virtual threads need Java 21 or later.
+     *
+     * @param name the prefix of the thread names
+     * @return the executor
+     * @throws CheckoutException when the running JVM does not support virtual threads
+     */
+    public static ExecutorService virtualThreads(final String name) {
+        try {
+            final Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            final Object builder = ofVirtual.invoke(null);
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Object namedBuilder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(namedBuilder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (final ReflectiveOperationException e) {
+            throw new CheckoutException("Virtual threads are not supported by this JVM, Java 21 or later is required", e);
+        }
+    }
+
+    /**
+     * Wraps an executor so that a task it rejects runs in the submitting thread instead. Used for the internal tasks of
+     * the {@link java.net.http.HttpClient}, which must not be dropped when a bounded transport executor is saturated.
+     *
+     * @param executor the executor to delegate to
+     * @return the executor running rejected tasks in the caller thread
+     */
+    static Executor callerRunsWhenRejected(final Executor executor) {
+        CheckoutUtils.validateParams("executor", executor);
+        return task -> {
+            try {
+                executor.execute(task);
+            } catch (final RejectedExecutionException e) {
+                task.run();
+            }
+        };
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
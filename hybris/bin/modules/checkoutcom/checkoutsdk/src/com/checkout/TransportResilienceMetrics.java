@@ -0,0 +1,69 @@
+package com.checkout;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the retries and of the circuit breakers of the transports built with a
+ * {@link TransportResiliencePolicy}. Read them from {@link TransportResiliencePolicy#getMetrics()}.
+ */
+public final class TransportResilienceMetrics {
+
+    public enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong retriesExhaustedCount = new AtomicLong();
+    private final AtomicLong shortCircuitedCount = new AtomicLong();
+    private final AtomicLong circuitOpenedCount = new AtomicLong();
+    private final ConcurrentMap<String, CircuitState> circuitStates = new ConcurrentHashMap<>();
+
+    void recordRetry() {
+        retryCount.incrementAndGet();
+    }
+
+    void recordRetriesExhausted() {
+        retriesExhaustedCount.incrementAndGet();
+    }
+
+    void recordShortCircuited() {
+        shortCircuitedCount.incrementAndGet();
+    }
+
+    void recordCircuitState(final String host, final CircuitState state) {
+        if (circuitStates.put(host, state) != CircuitState.OPEN && state == CircuitState.OPEN) {
+            circuitOpenedCount.incrementAndGet();
+        }
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    public long getRetriesExhaustedCount() {
+        return retriesExhaustedCount.get();
+    }
+
+    public long getShortCircuitedCount() {
+        return shortCircuitedCount.get();
+    }
+
+    public long getCircuitOpenedCount() {
+        return circuitOpenedCount.get();
+    }
+
+    public CircuitState getCircuitState(final String host) {
+        return circuitStates.getOrDefault(host, CircuitState.CLOSED);
+    }
+
+    public Map<String, CircuitState> getCircuitStates() {
+        return Collections.unmodifiableMap(new TreeMap<>(circuitStates));
+    }
+}
@@ -0,0 +1,136 @@
+package com.checkout;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Timeouts, retries and circuit breaking applied to every call of the transports built with it. Pass an instance to
+ * {@link AbstractCheckoutSdkBuilder#resiliencePolicy(TransportResiliencePolicy)}; clients built with the same
+ * instance share the circuit breaker of each host and the {@link TransportResilienceMetrics}.
+ * <p>
+ * Only calls that are safe to repeat are retried: reads, PUT and DELETE, and POST or PATCH calls sent with an
+ * idempotency key. They are retried when no response was received or on 429, 502, 503 and 504 responses.
+ */
+@Getter
+@Builder
+public final class TransportResiliencePolicy {
+
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    private static final int SC_BAD_GATEWAY = 502;
+    private static final int SC_SERVICE_UNAVAILABLE = 503;
+    private static final int SC_GATEWAY_TIMEOUT = 504;
+
+    /**
+     * Maximum time to open a connection, or to lease one from the connection pool
+     */
+    @Builder.Default
+    private final Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum time to wait for the response of GET, query and CSV calls
+     */
+    @Builder.Default
+    private final Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Maximum time to wait for the response of POST, PUT, PATCH and DELETE calls
+     */
+    @Builder.Default
+    private final Duration writeTimeout = Duration.ofSeconds(60);
+
+    /**
+     * Maximum time to wait for the response of file uploads
+     */
+    @Builder.Default
+    private final Duration fileUploadTimeout = Duration.ofSeconds(120);
+
+    /**
+     * Number of times a call that is safe to repeat is retried, 0 disables the retries
+     */
+    @Builder.Default
+    private final int maxRetries = 2;
+
+    @Builder.Default
+    private final Duration initialBackoff = Duration.ofMillis(200);
+
+    @Builder.Default
+    private final Duration maxBackoff = Duration.ofSeconds(2);
+
+    /**
+     * Consecutive failures, with no response or with a 5xx response, after which the calls to the host fail fast
+     */
+    @Builder.Default
+    private final int circuitBreakerFailureThreshold = 5;
+
+    /**
+     * Time the calls to the host fail fast before a single trial call is let through
+     */
+    @Builder.Default
+    private final Duration circuitBreakerOpenDuration = Duration.ofSeconds(30);
+
+    @Builder.Default
+    private final TransportResilienceMetrics metrics = new TransportResilienceMetrics();
+
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentMap<String, TransportCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    TransportCircuitBreaker getCircuitBreaker(final String host) {
+        return circuitBreakers.computeIfAbsent(host, key -> new TransportCircuitBreaker(key, circuitBreakerFailureThreshold,
+                circuitBreakerOpenDuration, metrics));
+    }
+
+    Duration getTimeout(final ClientOperation clientOperation) {
+        switch (clientOperation) {
+            case GET:
+            case QUERY:
+            case GET_CSV_CONTENT:
+                return readTimeout;
+            default:
+                return writeTimeout;
+        }
+    }
+
+    boolean isRepeatable(final ClientOperation clientOperation, final String idempotencyKey) {
+        switch (clientOperation) {
+            case POST:
+            case PATCH:
+                return idempotencyKey != null;
+            default:
+                return true;
+        }
+    }
+
+    static boolean isRetryable(final Response response) {
+        if (response.isTransportFailure()) {
+            return true;
+        }
+        switch (response.getStatusCode()) {
+            case SC_TOO_MANY_REQUESTS:
+            case SC_BAD_GATEWAY:
+            case SC_SERVICE_UNAVAILABLE:
+            case SC_GATEWAY_TIMEOUT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter: half of the delay is fixed and the other half random, so the retries of
+     * concurrent calls failing together are spread over time
+     *
+     * @param retry the number of the retry, starting at 0
+     * @return the time to wait before the retry, in milliseconds
+     */
+    long getBackoffMillis(final int retry) {
+        final long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(retry, 20));
+        final long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+}
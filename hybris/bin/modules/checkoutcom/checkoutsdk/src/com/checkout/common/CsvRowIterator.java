@@ -0,0 +1,160 @@
+package com.checkout.common;
+
+import com.checkout.CheckoutException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the rows of CSV content one at a time, so reports downloaded to a file can be processed without loading them
+ * in memory. Fields follow RFC 4180: quoted fields may contain commas, line breaks and doubled quotes. The header row,
+ * when present, is returned as the first row.
+ */
+public class CsvRowIterator implements Iterator<List<String>>, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NO_CHARACTER = -2;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader reader;
+    private int pushedBack = NO_CHARACTER;
+    private boolean started;
+    private boolean finished;
+    private List<String> nextRow;
+
+    public CsvRowIterator(final Reader reader) {
+        CheckoutUtils.validateParams("reader", reader);
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a UTF-8 CSV file, which is decompressed while it is read when it is gzipped
+     */
+    public static CsvRowIterator open(final Path file) throws IOException {
+        CheckoutUtils.validateParams("file", file);
+        final BufferedInputStream input = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        try {
+            final InputStream content = isGzipped(input) ? new GZIPInputStream(input, BUFFER_SIZE) : input;
+            return new CsvRowIterator(new InputStreamReader(content, StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    private static boolean isGzipped(final BufferedInputStream input) throws IOException {
+        input.mark(2);
+        final int first = input.read();
+        final int second = input.read();
+        input.reset();
+        return first == (GZIPInputStream.GZIP_MAGIC & 0xFF) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !finished) {
+            try {
+                nextRow = readRow();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = nextRow == null;
+        }
+        return nextRow != null;
+    }
+
+    @Override
+    public List<String> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final List<String> row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        nextRow = null;
+        reader.close();
+    }
+
+    private List<String> readRow() throws IOException {
+        int character = read();
+        if (character == -1) {
+            return null;
+        }
+        final List<String> row = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (quoted) {
+                if (character == -1) {
+                    throw new CheckoutException("Unterminated quoted field in CSV content");
+                }
+                if (character == '"') {
+                    final int following = read();
+                    if (following != '"') {
+                        quoted = false;
+                        character = following;
+                        continue;
+                    }
+                }
+                field.append((char) character);
+            } else if (character == '"' && fieldStart) {
+                quoted = true;
+            } else if (character == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+                character = read();
+                continue;
+            } else if (character == '\r' || character == '\n' || character == -1) {
+                if (character == '\r') {
+                    final int following = read();
+                    if (following != '\n') {
+                        pushedBack = following;
+                    }
+                }
+                row.add(field.toString());
+                return row;
+            } else {
+                field.append((char) character);
+            }
+            fieldStart = false;
+            character = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NO_CHARACTER) {
+            final int character = pushedBack;
+            pushedBack = NO_CHARACTER;
+            return character;
+        }
+        final int character = reader.read();
+        if (!started) {
+            started = true;
+            if (character == BYTE_ORDER_MARK) {
+                return reader.read();
+            }
+        }
+        return character;
+    }
+}
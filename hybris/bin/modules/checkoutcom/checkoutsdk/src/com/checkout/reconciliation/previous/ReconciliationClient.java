@@ -1,8 +1,10 @@
 package com.checkout.reconciliation.previous;
 
 import com.checkout.ContentResponse;
+import com.checkout.FileDownloadResponse;
 import com.checkout.common.QueryFilterDateRange;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 
 public interface ReconciliationClient {
@@ -53,4 +55,31 @@ public interface ReconciliationClient {
      */
     CompletableFuture<ContentResponse> retrieveCSVStatementsReport(final StatementsQueryFilter filter, final String targetFile);
 
+    /**
+     * Streams the CSV content to the target file instead of holding it in memory
+     *
+     * @param targetFile path where the content is saved, an existing file is replaced once the download is complete
+     * @param gzip       whether the file is gzipped while it is written
+     * @return the size and checksum of the file, without its content
+     */
+    CompletableFuture<FileDownloadResponse> downloadCSVPaymentReport(final QueryFilterDateRange filter, final Path targetFile, final boolean gzip);
+
+    /**
+     * Streams the CSV content to the target file instead of holding it in memory
+     *
+     * @param targetFile path where the content is saved, an existing file is replaced once the download is complete
+     * @param gzip       whether the file is gzipped while it is written
+     * @return the size and checksum of the file, without its content
+     */
+    CompletableFuture<FileDownloadResponse> downloadCSVSingleStatementReport(final String statementId, final Path targetFile, final boolean gzip);
+
+    /**
+     * Streams the CSV content to the target file instead of holding it in memory
+     *
+     * @param targetFile path where the content is saved, an existing file is replaced once the download is complete
+     * @param gzip       whether the file is gzipped while it is written
+     * @return the size and checksum of the file, without its content
+     */
+    CompletableFuture<FileDownloadResponse> downloadCSVStatementsReport(final StatementsQueryFilter filter, final Path targetFile, final boolean gzip);
+
 }
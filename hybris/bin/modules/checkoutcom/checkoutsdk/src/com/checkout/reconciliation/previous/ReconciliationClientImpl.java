@@ -4,9 +4,11 @@ import com.checkout.AbstractClient;
 import com.checkout.ApiClient;
 import com.checkout.CheckoutConfiguration;
 import com.checkout.ContentResponse;
+import com.checkout.FileDownloadResponse;
 import com.checkout.SdkAuthorizationType;
 import com.checkout.common.QueryFilterDateRange;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 
 import static com.checkout.common.CheckoutUtils.validateParams;
@@ -108,4 +110,40 @@ public class ReconciliationClientImpl extends AbstractClient implements Reconcil
         );
     }
 
+    @Override
+    public CompletableFuture<FileDownloadResponse> downloadCSVPaymentReport(final QueryFilterDateRange filter, final Path targetFile, final boolean gzip) {
+        validateParams("filter", filter);
+        return apiClient.downloadCsvContentAsync(
+                buildPath(REPORTING_PATH, PAYMENTS_PATH, DOWNLOAD_PATH),
+                sdkAuthorization(),
+                filter,
+                targetFile,
+                gzip
+        );
+    }
+
+    @Override
+    public CompletableFuture<FileDownloadResponse> downloadCSVSingleStatementReport(final String statementId, final Path targetFile, final boolean gzip) {
+        validateParams("statementId", statementId);
+        return apiClient.downloadCsvContentAsync(
+                buildPath(REPORTING_PATH, STATEMENTS_PATH, statementId, PAYMENTS_PATH, DOWNLOAD_PATH),
+                sdkAuthorization(),
+                null,
+                targetFile,
+                gzip
+        );
+    }
+
+    @Override
+    public CompletableFuture<FileDownloadResponse> downloadCSVStatementsReport(final StatementsQueryFilter filter, final Path targetFile, final boolean gzip) {
+        validateParams("filter", filter);
+        return apiClient.downloadCsvContentAsync(
+                buildPath(REPORTING_PATH, STATEMENTS_PATH, DOWNLOAD_PATH),
+                sdkAuthorization(),
+                filter,
+                targetFile,
+                gzip
+        );
+    }
+
 }
@@ -1,7 +1,9 @@
 package com.checkout.reports;
 
 import com.checkout.ContentResponse;
+import com.checkout.FileDownloadResponse;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 
 public interface ReportsClient {
@@ -11,4 +13,12 @@ public interface ReportsClient {
     CompletableFuture<ReportDetailsResponse> getReportDetails(String reportId);
 
     CompletableFuture<ContentResponse> getReportFile(String reportId, String fileId);
+
+    /**
+     * @param targetFile path where the report file is streamed to, an existing file is replaced once the download
+     *                   is complete
+     * @param gzip       whether the file is gzipped while it is written
+     * @return the size and checksum of the report file, without its content
+     */
+    CompletableFuture<FileDownloadResponse> downloadReportFile(String reportId, String fileId, Path targetFile, boolean gzip);
 }
@@ -4,8 +4,10 @@ import com.checkout.AbstractClient;
 import com.checkout.ApiClient;
 import com.checkout.CheckoutConfiguration;
 import com.checkout.ContentResponse;
+import com.checkout.FileDownloadResponse;
 import com.checkout.SdkAuthorizationType;
 
+import java.nio.file.Path;
 import java.util.concurrent.CompletableFuture;
 
 public class ReportsClientImpl extends AbstractClient implements ReportsClient {
@@ -35,4 +37,14 @@ public class ReportsClientImpl extends AbstractClient implements ReportsClient {
                 null,
                 null);
     }
+
+    @Override
+    public CompletableFuture<FileDownloadResponse> downloadReportFile(final String reportId, final String fileId, final Path targetFile, final boolean gzip) {
+        return apiClient.downloadCsvContentAsync(
+                buildPath(REPORTS_PATH, reportId, FILES_PATH, fileId),
+                sdkAuthorization(),
+                null,
+                targetFile,
+                gzip);
+    }
 }
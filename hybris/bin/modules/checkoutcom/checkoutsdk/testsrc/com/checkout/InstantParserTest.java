@@ -0,0 +1,218 @@
+package com.checkout;
+
+import com.google.gson.JsonParseException;
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks {@link InstantParser} and the {@link GsonSerializer} instant deserialization against the formatter based
+ * resolution they replace
+ */
+@UnitTest
+public class InstantParserTest {
+
+    private static final List<DateTimeFormatter> FORMATTERS = Arrays.asList(
+            DateTimeFormatter.ISO_INSTANT,
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSXXX"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssX"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXX"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX")
+    );
+
+    private static final List<String> SAMPLES = Arrays.asList(
+            "2026-10-18T09:15:04Z",
+            "2026-10-18T09:15:04.3Z",
+            "2026-10-18T09:15:04.312Z",
+            "2026-10-18T09:15:04.312744Z",
+            "2026-10-18T09:15:04.3127446Z",
+            "2026-10-18T09:15:04.312744612Z",
+            "2026-10-18T09:15:04.3127446+01:00",
+            "2026-10-18T09:15:04.3127446-05:30",
+            "2026-10-18T09:15:04+18:00",
+            "2026-10-18T09:15:04-18:00",
+            "2026-10-18T09:15:04+00:00",
+            "2026-10-18T09:15:04-00:00",
+            "2026-10-18T09:15:04",
+            "2026-10-18T09:15:04.5",
+            "2026-10-18T09:15:04.123456789",
+            "2024-02-29T23:59:59Z",
+            "2000-02-29T00:00:00Z",
+            "1970-01-01T00:00:00Z",
+            "1969-12-31T23:59:59.999999999Z",
+            "0001-01-01T00:00:00Z",
+            "9999-12-31T23:59:59Z",
+            "20261018",
+            "20240229",
+            "2026-10-18",
+            "2024-02-29",
+            // shapes and values left to the formatters
+            "2026-10-18T09:15Z",
+            "2026-10-18T09:15+01:00",
+            "2026-10-18T09:15",
+            "2026-10-18T09:15:04+0100",
+            "2026-10-18T09:15:04+01",
+            "2026-10-18T09:15:04+01:00:30",
+            "2026-10-18T09:15:04.1234567890Z",
+            "2026-10-18T09:15:04.Z",
+            "2026-10-18T23:59:60Z",
+            "2026-10-18T24:00:00Z",
+            "2026-10-18T09:60:00Z",
+            "2026-10-18T09:15:04+19:00",
+            "2026-10-18T09:15:04+18:01",
+            "2026-10-18T09:15:04+01:60",
+            "2026-10-18t09:15:04z",
+            "2026-10-18T09:15:04z",
+            "2026-13-18T09:15:04Z",
+            "2026-02-29T09:15:04Z",
+            "2026-02-30",
+            "2026-04-31",
+            "20260230",
+            "20261318",
+            "00000101",
+            "0000-01-01",
+            "0000-01-01T00:00:00Z",
+            "2026-1-18",
+            "2026/10/18",
+            "2026-10-18 09:15:04",
+            "+2026-10-18T09:15:04Z",
+            "1700000000000",
+            "",
+            "not a date"
+    );
+
+    private final GsonSerializer serializer = new GsonSerializer();
+
+    @Test
+    public void parse_WhenCommonShape_ShouldNotNeedTheFormatters() {
+        assertThat(InstantParser.parse("2026-10-18T09:15:04.3127446Z")).isEqualTo(Instant.parse("2026-10-18T09:15:04.3127446Z"));
+        assertThat(InstantParser.parse("2026-10-18T09:15:04+01:00")).isEqualTo(Instant.parse("2026-10-18T08:15:04Z"));
+        assertThat(InstantParser.parse("2026-10-18T09:15:04")).isEqualTo(Instant.parse("2026-10-18T09:15:04Z"));
+        assertThat(InstantParser.parse("20261018")).isEqualTo(Instant.parse("2026-10-18T00:00:00Z"));
+        assertThat(InstantParser.parse("2026-10-18")).isEqualTo(Instant.parse("2026-10-18T00:00:00Z"));
+    }
+
+    @Test
+    public void parse_WhenShapeIsNotRecognised_ShouldReturnNull() {
+        assertThat(InstantParser.parse("2026-10-18T09:15Z")).isNull();
+        assertThat(InstantParser.parse("2026-10-18T23:59:60Z")).isNull();
+        assertThat(InstantParser.parse("2026-02-30")).isNull();
+        assertThat(InstantParser.parse("1700000000000")).isNull();
+        assertThat(InstantParser.parse("")).isNull();
+    }
+
+    @Test
+    public void parse_ShouldMatchTheFormattersForEverySample() {
+        SAMPLES.forEach(this::assertParity);
+    }
+
+    @Test
+    public void parse_ShouldMatchTheFormattersForRandomTimestamps() {
+        final Random random = new Random(20261018L);
+        for (int i = 0; i < 20_000; i++) {
+            assertParity(randomTimestamp(random));
+        }
+    }
+
+    @Test
+    public void fromJson_WhenNumber_ShouldMatchTheFormatters() {
+        assertThat(serializer.fromJson("20261018", Instant.class)).isEqualTo(Instant.parse("2026-10-18T00:00:00Z"));
+        assertThat(outcome(() -> serializer.fromJson("1700000000000", Instant.class)))
+                .isEqualTo(outcome(() -> legacyParse("1700000000000")));
+    }
+
+    private void assertParity(final String value) {
+        final String json = serializer.toJson(value);
+        assertThat(outcome(() -> serializer.fromJson(json, Instant.class)))
+                .as(value)
+                .isEqualTo(outcome(() -> legacyParse(value)));
+    }
+
+    private static String randomTimestamp(final Random random) {
+        final String date = String.format("%04d-%02d-%02d", 1 + random.nextInt(2999), 1 + random.nextInt(13), random.nextInt(33));
+        switch (random.nextInt(5)) {
+            case 0:
+                return date;
+            case 1:
+                return date.replace("-", "");
+            default:
+                final StringBuilder value = new StringBuilder(date)
+                        .append(String.format("T%02d:%02d:%02d", random.nextInt(25), random.nextInt(61), random.nextInt(61)));
+                final int fractionDigits = random.nextInt(11);
+                if (fractionDigits > 0) {
+                    value.append('.');
+                    for (int i = 0; i < fractionDigits; i++) {
+                        value.append(random.nextInt(10));
+                    }
+                }
+                switch (random.nextInt(4)) {
+                    case 0:
+                        return value.toString();
+                    case 1:
+                        return value.append('Z').toString();
+                    default:
+                        return value.append(random.nextBoolean() ? '+' : '-')
+                                .append(String.format("%02d:%02d", random.nextInt(20), random.nextInt(61))).toString();
+                }
+        }
+    }
+
+    private static String outcome(final InstantSupplier supplier) {
+        try {
+            return String.valueOf(supplier.get());
+        } catch (final RuntimeException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * The resolution used before {@link InstantParser} was introduced
+     */
+    private static Instant legacyParse(final String dateString) {
+        try {
+            return Instant.parse(dateString);
+        } catch (final DateTimeParseException ex) {
+            if (dateString.matches("\\d{8}")) {
+                try {
+                    return LocalDate.parse(dateString, DateTimeFormatter.ofPattern("yyyyMMdd")).atStartOfDay().toInstant(ZoneOffset.UTC);
+                } catch (final DateTimeParseException e) {
+                    throw new JsonParseException("Failed to parse numeric date in format yyyyMMdd: " + dateString, e);
+                }
+            }
+            if (dateString.length() == 10) {
+                try {
+                    return LocalDate.parse(dateString, DateTimeFormatter.ofPattern("yyyy-MM-dd")).atStartOfDay().toInstant(ZoneOffset.UTC);
+                } catch (final DateTimeParseException e) {
+                    throw new JsonParseException("Failed to parse date in format yyyy-MM-dd: " + dateString, e);
+                }
+            }
+            for (final DateTimeFormatter formatter : FORMATTERS) {
+                try {
+                    return LocalDateTime.parse(dateString, formatter).toInstant(ZoneOffset.UTC);
+                } catch (final DateTimeParseException ignored) {
+                }
+            }
+            throw ex;
+        }
+    }
+
+    private interface InstantSupplier {
+
+        Instant get();
+    }
+}
@@ -0,0 +1,104 @@
+package com.checkout;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@UnitTest
+public class InstrumentedThreadPoolExecutorTest {
+
+    private static final String NAME = "test-transport";
+    private static final int QUEUE_CAPACITY = 2;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private InstrumentedThreadPoolExecutor testObj;
+
+    @Before
+    public void setUp() {
+        testObj = new InstrumentedThreadPoolExecutor(NAME, 1, 1, QUEUE_CAPACITY, 60L);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        testObj.shutdownNow();
+    }
+
+    @Test
+    public void execute_WhenThreadIsBusy_ShouldQueueTheTasksAndReportTheQueueDepth() throws InterruptedException {
+        occupyTheThread();
+
+        testObj.execute(() -> { });
+        testObj.execute(() -> { });
+
+        assertThat(testObj.getQueueDepth()).isEqualTo(2);
+        assertThat(testObj.getPeakQueueDepth()).isEqualTo(2);
+        assertThat(testObj.getQueueCapacity()).isEqualTo(QUEUE_CAPACITY);
+        assertThat(testObj.getRejectedTaskCount()).isZero();
+    }
+
+    @Test
+    public void execute_WhenThreadAndQueueAreFull_ShouldRejectTheTaskAndCountIt() throws InterruptedException {
+        occupyTheThread();
+        testObj.execute(() -> { });
+        testObj.execute(() -> { });
+
+        final Throwable thrown = catchThrowable(() -> testObj.execute(() -> { }));
+
+        assertThat(thrown).isInstanceOf(RejectedExecutionException.class);
+        assertThat(testObj.getRejectedTaskCount()).isEqualTo(1L);
+        assertThat(testObj.getQueueDepth()).isEqualTo(QUEUE_CAPACITY);
+    }
+
+    @Test
+    public void getPeakQueueDepth_WhenQueueIsDrained_ShouldKeepTheHighestDepth() throws InterruptedException {
+        occupyTheThread();
+        testObj.execute(() -> { });
+        testObj.execute(() -> { });
+
+        release.countDown();
+        testObj.shutdown();
+
+        assertThat(testObj.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(testObj.getQueueDepth()).isZero();
+        assertThat(testObj.getPeakQueueDepth()).isEqualTo(2);
+        assertThat(testObj.getCompletedTaskCount()).isEqualTo(3L);
+    }
+
+    @Test
+    public void execute_ShouldRunTheTasksOnNamedDaemonThreads() throws InterruptedException {
+        final Thread[] thread = new Thread[1];
+        final CountDownLatch done = new CountDownLatch(1);
+
+        testObj.execute(() -> {
+            thread[0] = Thread.currentThread();
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(thread[0].getName()).isEqualTo(NAME + "-1");
+        assertThat(thread[0].isDaemon()).isTrue();
+        assertThat(testObj.getName()).isEqualTo(NAME);
+    }
+
+    private void occupyTheThread() throws InterruptedException {
+        testObj.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
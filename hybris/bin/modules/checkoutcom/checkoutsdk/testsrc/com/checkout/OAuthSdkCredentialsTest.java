@@ -0,0 +1,140 @@
+package com.checkout;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@UnitTest
+public class OAuthSdkCredentialsTest {
+
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private volatile long expiresIn = 3600;
+    private volatile boolean failing;
+    private volatile long delayMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private URI authorizationUri;
+    private final OAuthTokenRefreshMetrics metrics = new OAuthTokenRefreshMetrics();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/oauth/token", this::respond);
+        server.start();
+        authorizationUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/oauth/token");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void getAuthorization_WhenCalledConcurrentlyWithoutToken_ShouldRequestTheTokenOnce() {
+        delayMillis = 200;
+        final OAuthSdkCredentials testObj = credentials(0.8, 0.05);
+        final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+        try {
+            final List<CompletableFuture<SdkAuthorization>> calls = IntStream.range(0, 16)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> testObj.getAuthorization(SdkAuthorizationType.OAUTH), callers))
+                    .collect(Collectors.toList());
+
+            assertThat(calls).allSatisfy(call -> assertThat(call.join().getAuthorizationHeader()).isEqualTo("Bearer token-1"));
+            assertThat(tokenRequests.get()).isEqualTo(1);
+            assertThat(metrics.getRefreshCount()).isEqualTo(1L);
+            assertThat(metrics.getLastLatencyMillis()).isGreaterThan(0L);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getAuthorization_WhenTokenReachesTheRefreshRatio_ShouldRefreshItInTheBackground() {
+        expiresIn = 2;
+        final OAuthSdkCredentials testObj = credentials(0.5, 0);
+        testObj.initOAuthAccess();
+
+        await(() -> tokenRequests.get() == 2);
+
+        assertThat(testObj.getAuthorization(SdkAuthorizationType.OAUTH).getAuthorizationHeader()).isEqualTo("Bearer token-2");
+        assertThat(metrics.getRefreshCount()).isEqualTo(2L);
+    }
+
+    @Test
+    public void getAuthorization_WhenBackgroundRefreshFails_ShouldKeepServingTheCurrentToken() {
+        expiresIn = 4;
+        final OAuthSdkCredentials testObj = credentials(0.25, 0);
+        testObj.initOAuthAccess();
+        failing = true;
+
+        await(() -> metrics.getFailureCount() == 1);
+
+        assertThat(testObj.getAuthorization(SdkAuthorizationType.OAUTH).getAuthorizationHeader()).isEqualTo("Bearer token-1");
+        assertThat(metrics.getLastFailureMessage()).contains("invalid_client");
+    }
+
+    private OAuthSdkCredentials credentials(final double refreshRatio, final double refreshJitter) {
+        return new OAuthSdkCredentials(HttpClientBuilder.create(), authorizationUri, "client-id", "client-secret",
+                Collections.singleton(OAuthScope.GATEWAY), refreshRatio, refreshJitter, metrics);
+    }
+
+    private void respond(final HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        final String body;
+        if (failing) {
+            body = "{\"error\":\"invalid_client\"}";
+        } else {
+            sleep(delayMillis);
+            body = "{\"access_token\":\"token-" + tokenRequests.incrementAndGet() + "\",\"token_type\":\"Bearer\",\"expires_in\":" + expiresIn + "}";
+        }
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(failing ? 400 : 200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+        exchange.close();
+    }
+
+    private static void await(final BooleanSupplier condition) {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThanOrEqualTo(deadline);
+            sleep(20);
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.checkout;
+
+import com.checkout.common.AbstractFileRequest;
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.checkout.ClientOperation.GET;
+import static com.checkout.ClientOperation.POST;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@UnitTest
+public class ResilientTransportTest {
+
+    private static final URI BASE_URI = URI.create("https://api.sandbox.checkout.com/");
+    private static final String HOST = "api.sandbox.checkout.com";
+    private static final String PATH = "payments";
+    private static final String IDEMPOTENCY_KEY = "idempotency-key";
+
+    private final FakeTransport delegate = new FakeTransport();
+    private TransportResiliencePolicy policy;
+    private ResilientTransport testObj;
+
+    @Before
+    public void setUp() {
+        policy = TransportResiliencePolicy.builder()
+                .maxRetries(2)
+                .initialBackoff(Duration.ofMillis(1))
+                .maxBackoff(Duration.ofMillis(5))
+                .circuitBreakerFailureThreshold(3)
+                .circuitBreakerOpenDuration(Duration.ofMinutes(1))
+                .build();
+        testObj = new ResilientTransport(delegate, BASE_URI, policy, ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void invoke_WhenGetGetsServiceUnavailable_ShouldRetryUntilItSucceeds() {
+        delegate.respond(503, 200);
+
+        final Response response = testObj.invoke(GET, PATH, null, null, null, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(delegate.calls.get()).isEqualTo(2);
+        assertThat(policy.getMetrics().getRetryCount()).isEqualTo(1L);
+        assertThat(policy.getMetrics().getCircuitState(HOST)).isEqualTo(TransportResilienceMetrics.CircuitState.CLOSED);
+    }
+
+    @Test
+    public void invoke_WhenGetFailsOnEveryRetry_ShouldReturnTheLastResponse() {
+        delegate.respond(502, 502, 504);
+
+        final Response response = testObj.invoke(GET, PATH, null, null, null, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(504);
+        assertThat(delegate.calls.get()).isEqualTo(3);
+        assertThat(policy.getMetrics().getRetryCount()).isEqualTo(2L);
+        assertThat(policy.getMetrics().getRetriesExhaustedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void invoke_WhenPostWithoutIdempotencyKeyFails_ShouldNotRetry() {
+        delegate.respond(503, 200);
+
+        final Response response = testObj.invoke(POST, PATH, null, "{}", null, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(503);
+        assertThat(delegate.calls.get()).isEqualTo(1);
+        assertThat(policy.getMetrics().getRetryCount()).isZero();
+    }
+
+    @Test
+    public void invoke_WhenPostWithIdempotencyKeyGetsNoResponse_ShouldRetryWithTheSameKey() {
+        delegate.respondWithTransportFailure();
+        delegate.respond(201);
+
+        final Response response = testObj.invoke(POST, PATH, null, "{}", IDEMPOTENCY_KEY, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(201);
+        assertThat(delegate.calls.get()).isEqualTo(2);
+        assertThat(delegate.lastIdempotencyKey).isEqualTo(IDEMPOTENCY_KEY);
+    }
+
+    @Test
+    public void invoke_WhenResponseIsAClientError_ShouldNotRetry() {
+        delegate.respond(422, 200);
+
+        final Response response = testObj.invoke(GET, PATH, null, null, null, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(422);
+        assertThat(delegate.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void invoke_WhenFailuresReachTheThreshold_ShouldOpenTheCircuitAndFailFast() {
+        delegate.respond(500, 500, 500);
+
+        testObj.invoke(POST, PATH, null, "{}", null, null).join();
+        testObj.invoke(POST, PATH, null, "{}", null, null).join();
+        testObj.invoke(POST, PATH, null, "{}", null, null).join();
+        final Response response = testObj.invoke(GET, PATH, null, null, null, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(503);
+        assertThat(response.isTransportFailure()).isTrue();
+        assertThat(delegate.calls.get()).isEqualTo(3);
+        assertThat(policy.getMetrics().getCircuitState(HOST)).isEqualTo(TransportResilienceMetrics.CircuitState.OPEN);
+        assertThat(policy.getMetrics().getCircuitOpenedCount()).isEqualTo(1L);
+        assertThat(policy.getMetrics().getShortCircuitedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void invoke_WhenOpenDurationHasPassed_ShouldCloseTheCircuitAfterASuccessfulTrialCall() {
+        policy = TransportResiliencePolicy.builder()
+                .maxRetries(0)
+                .circuitBreakerFailureThreshold(1)
+                .circuitBreakerOpenDuration(Duration.ZERO)
+                .build();
+        testObj = new ResilientTransport(delegate, BASE_URI, policy, ForkJoinPool.commonPool());
+        delegate.respond(500, 200);
+
+        testObj.invoke(GET, PATH, null, null, null, null).join();
+        assertThat(policy.getMetrics().getCircuitState(HOST)).isEqualTo(TransportResilienceMetrics.CircuitState.OPEN);
+
+        final Response response = testObj.invoke(GET, PATH, null, null, null, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(policy.getMetrics().getCircuitState(HOST)).isEqualTo(TransportResilienceMetrics.CircuitState.CLOSED);
+    }
+
+    @Test
+    public void submitFile_WhenUploadFails_ShouldNotRetry() {
+        delegate.respond(503, 200);
+
+        final Response response = testObj.submitFile(PATH, null, null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(503);
+        assertThat(delegate.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void download_WhenReportDownloadGetsServiceUnavailable_ShouldRetryIt() {
+        delegate.respond(503, 200);
+
+        final Response response = testObj.download(ClientOperation.QUERY, PATH, null, Map.of(), (body, charset) -> null).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(delegate.calls.get()).isEqualTo(2);
+    }
+
+    private static final class FakeTransport implements Transport {
+
+        private final Deque<Response> responses = new ArrayDeque<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile String lastIdempotencyKey;
+
+        private void respond(final int... statusCodes) {
+            for (final int statusCode : statusCodes) {
+                responses.add(Response.builder().statusCode(statusCode).build());
+            }
+        }
+
+        private void respondWithTransportFailure() {
+            responses.add(Response.builder().statusCode(400).transportFailure(true).build());
+        }
+
+        private synchronized CompletableFuture<Response> next() {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(responses.poll());
+        }
+
+        @Override
+        public CompletableFuture<Response> invoke(final ClientOperation clientOperation, final String path,
+                                                  final SdkAuthorization authorization, final String jsonRequest,
+                                                  final String idempotencyKey, final Map<String, String> queryParams) {
+            lastIdempotencyKey = idempotencyKey;
+            return next();
+        }
+
+        @Override
+        public CompletableFuture<Response> invokeStreaming(final ClientOperation clientOperation, final String path,
+                                                           final SdkAuthorization authorization, final Object request,
+                                                           final String idempotencyKey, final Type responseType) {
+            lastIdempotencyKey = idempotencyKey;
+            return next();
+        }
+
+        @Override
+        public CompletableFuture<Response> download(final ClientOperation clientOperation, final String path,
+                                                    final SdkAuthorization authorization, final Map<String, String> queryParams,
+                                                    final ResponseBodySink sink) {
+            return next();
+        }
+
+        @Override
+        public CompletableFuture<Response> submitFile(final String path, final SdkAuthorization authorization,
+                                                      final AbstractFileRequest fileRequest) {
+            return next();
+        }
+    }
+}
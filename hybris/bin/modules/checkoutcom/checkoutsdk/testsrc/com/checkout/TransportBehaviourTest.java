@@ -0,0 +1,351 @@
+package com.checkout;
+
+import com.checkout.payments.response.PaymentResponse;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Runs the same scenarios against every {@link Transport} implementation using a local server
+ */
+@UnitTest
+@RunWith(Parameterized.class)
+public class TransportBehaviourTest {
+
+    private static final String SECRET_KEY = "sk_sbox_m73dzbpy7cf3gfd46xr4yj5xo4e";
+    private static final String JSON_BODY = "{\"id\":\"pay_123\"}";
+    private static final String CSV_BODY = IntStream.range(0, 5000)
+            .mapToObj(i -> "pay_" + i + ",\"Capture, partial\"," + i + "00\n")
+            .collect(Collectors.joining("", "Payment ID,Action,Amount\n", ""));
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final BiFunction<URI, CheckoutConfiguration, Transport> transportFactory;
+
+    private HttpServer server;
+    private Transport testObj;
+    private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+
+    public TransportBehaviourTest(final String name, final BiFunction<URI, CheckoutConfiguration, Transport> transportFactory) {
+        this.transportFactory = transportFactory;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> transports() {
+        return Arrays.asList(
+                new Object[]{"apache", (BiFunction<URI, CheckoutConfiguration, Transport>) (uri, configuration) -> new ApacheHttpClientTransport(uri,
+                        HttpClientBuilder.create(), ForkJoinPool.commonPool(), new DefaultTransportConfiguration(), configuration, new GsonSerializer())},
+                new Object[]{"java-http2", (BiFunction<URI, CheckoutConfiguration, Transport>) (uri, configuration) -> new JavaHttpClientTransport(uri,
+                        JavaHttpClientTransport.createHttpClient(ForkJoinPool.commonPool()), new DefaultTransportConfiguration(), configuration, new GsonSerializer())}
+        );
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/payments", exchange -> respond(exchange, 201, JSON_BODY));
+        server.createContext("/missing", exchange -> respond(exchange, 404, JSON_BODY));
+        server.createContext("/error", exchange -> respond(exchange, 422, "{\"error_type\":\"request_invalid\"}"));
+        server.createContext("/empty", exchange -> respond(exchange, 204, null));
+        server.createContext("/reports", exchange -> respond(exchange, 200, CSV_BODY, "text/csv; charset=utf-8"));
+        server.createContext("/redirect", exchange -> {
+            record(exchange);
+            exchange.getResponseHeaders().add("Location", "/payments");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.start();
+        testObj = transportFactory.apply(serverUri(), configuration(false));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void invoke_WhenPost_ShouldSendTheBodyAndHeadersAndReturnTheResponse() {
+        final Response result = testObj.invoke(ClientOperation.POST, "payments", authorization(), JSON_BODY, "idempotency-key", null).join();
+
+        assertThat(result.getStatusCode()).isEqualTo(201);
+        assertThat(result.getBody()).isEqualTo(JSON_BODY);
+        assertThat(result.getHeaders()).containsValue("request-id");
+        final RecordedRequest request = requests.get(0);
+        assertThat(request.method).isEqualTo("POST");
+        assertThat(request.body).isEqualTo(JSON_BODY);
+        assertThat(request.header("Authorization")).isEqualTo("Bearer " + SECRET_KEY);
+        assertThat(request.header("Cko-Idempotency-Key")).isEqualTo("idempotency-key");
+        assertThat(request.header("Content-Type")).startsWith("application/json");
+        assertThat(request.header("Accept")).isEqualTo("application/json;charset=UTF-8");
+    }
+
+    @Test
+    public void invoke_WhenOperationIsMapped_ShouldUseTheMatchingHttpMethod() {
+        testObj.invoke(ClientOperation.GET, "payments", authorization(), null, null, null).join();
+        testObj.invoke(ClientOperation.PUT, "payments", authorization(), JSON_BODY, null, null).join();
+        testObj.invoke(ClientOperation.PATCH, "payments", authorization(), JSON_BODY, null, null).join();
+        testObj.invoke(ClientOperation.DELETE, "payments", authorization(), null, null, null).join();
+
+        assertThat(requests).extracting(request -> request.method).containsExactly("GET", "PUT", "PATCH", "DELETE");
+    }
+
+    @Test
+    public void invoke_WhenQuery_ShouldEncodeTheParameters() {
+        testObj.invoke(ClientOperation.QUERY, "payments", authorization(), null, null, Map.of("reference", "ORD 1&2")).join();
+
+        assertThat(requests.get(0).query).isEqualTo("reference=ORD+1%262");
+    }
+
+    @Test
+    public void invoke_WhenCsvContent_ShouldAcceptCsv() {
+        testObj.invoke(ClientOperation.GET_CSV_CONTENT, "payments", authorization(), null, null, null).join();
+
+        assertThat(requests.get(0).header("Accept")).isEqualTo("text/csv");
+    }
+
+    @Test
+    public void invoke_WhenNotFound_ShouldNotReturnTheBody() {
+        final Response result = testObj.invoke(ClientOperation.GET, "missing", authorization(), null, null, null).join();
+
+        assertThat(result.getStatusCode()).isEqualTo(404);
+        assertThat(result.getBody()).isNull();
+    }
+
+    @Test
+    public void invoke_WhenErrorStatus_ShouldReturnTheErrorBody() {
+        final Response result = testObj.invoke(ClientOperation.POST, "error", authorization(), JSON_BODY, null, null).join();
+
+        assertThat(result.getStatusCode()).isEqualTo(422);
+        assertThat(result.getBody()).contains("request_invalid");
+    }
+
+    @Test
+    public void invoke_WhenNoContent_ShouldReturnNoBody() {
+        final Response result = testObj.invoke(ClientOperation.DELETE, "empty", authorization(), null, null, null).join();
+
+        assertThat(result.getStatusCode()).isEqualTo(204);
+        assertThat(result.getBody()).isNull();
+    }
+
+    @Test
+    public void invoke_WhenGetIsRedirected_ShouldFollowWithoutTheAuthorizationHeader() {
+        final Response result = testObj.invoke(ClientOperation.GET, "redirect", authorization(), null, null, null).join();
+
+        assertThat(result.getStatusCode()).isEqualTo(201);
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(1).header("Authorization")).isNull();
+    }
+
+    @Test
+    public void invoke_WhenServerIsDown_ShouldReturnTheDefaultStatusCode() {
+        server.stop(0);
+
+        final Response result = testObj.invoke(ClientOperation.GET, "payments", authorization(), null, null, null).join();
+
+        assertThat(result.getStatusCode()).isEqualTo(400);
+    }
+
+    @Test
+    public void invokeStreaming_ShouldWriteTheRequestAndReadTheResponseWithoutKeepingTheBody() {
+        final Response result = testObj.invokeStreaming(ClientOperation.POST, "payments", authorization(),
+                Map.of("reference", "ORD-1"), null, PaymentResponse.class).join();
+
+        assertThat(requests.get(0).body).isEqualTo("{\"reference\":\"ORD-1\"}");
+        assertThat(requests.get(0).header("Content-Type")).startsWith("application/json");
+        assertThat(((PaymentResponse) result.getContent()).getId()).isEqualTo("pay_123");
+        assertThat(result.getBody()).isNull();
+    }
+
+    @Test
+    public void invokeStreaming_WhenBodyIsRetained_ShouldReturnTheBody() {
+        testObj = transportFactory.apply(serverUri(), configuration(true));
+
+        final Response result = testObj.invokeStreaming(ClientOperation.GET, "payments", authorization(), null, null, PaymentResponse.class).join();
+
+        assertThat(result.getBody()).isEqualTo(JSON_BODY);
+        assertThat(result.getContent()).isNull();
+    }
+
+    @Test
+    public void invokeStreaming_WhenErrorStatus_ShouldReturnTheErrorBody() {
+        final Response result = testObj.invokeStreaming(ClientOperation.POST, "error", authorization(),
+                Map.of("reference", "ORD-1"), null, PaymentResponse.class).join();
+
+        assertThat(result.getStatusCode()).isEqualTo(422);
+        assertThat(result.getBody()).contains("request_invalid");
+        assertThat(result.getContent()).isNull();
+    }
+
+    @Test
+    public void download_ShouldStreamTheBodyToTheFileAndReturnItsChecksum() throws Exception {
+        final Path targetFile = temporaryFolder.getRoot().toPath().resolve("report.csv");
+
+        final Response result = testObj.download(ClientOperation.QUERY, "reports", authorization(), Map.of("from", "2024-01-01"),
+                new FileDownloadSink(targetFile, false)).join();
+
+        final FileDownloadResponse download = (FileDownloadResponse) result.getContent();
+        final byte[] content = CSV_BODY.getBytes(StandardCharsets.UTF_8);
+        assertThat(result.getStatusCode()).isEqualTo(200);
+        assertThat(result.getBody()).isNull();
+        assertThat(requests.get(0).query).isEqualTo("from=2024-01-01");
+        assertThat(Files.readAllBytes(targetFile)).isEqualTo(content);
+        assertThat(download.getPath()).isEqualTo(targetFile);
+        assertThat(download.getContentLength()).isEqualTo(content.length);
+        assertThat(download.getFileSize()).isEqualTo(content.length);
+        assertThat(download.getChecksum()).isEqualTo(sha256(content));
+        assertThat(temporaryFolder.getRoot().list()).containsExactly("report.csv");
+    }
+
+    @Test
+    public void download_WhenGzip_ShouldCompressTheFileAndChecksumTheBody() throws Exception {
+        final Path targetFile = temporaryFolder.getRoot().toPath().resolve("report.csv.gz");
+
+        final Response result = testObj.download(ClientOperation.QUERY, "reports", authorization(), Map.of(),
+                new FileDownloadSink(targetFile, true)).join();
+
+        final FileDownloadResponse download = (FileDownloadResponse) result.getContent();
+        final byte[] content = CSV_BODY.getBytes(StandardCharsets.UTF_8);
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(targetFile))) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(content);
+        }
+        assertThat(download.isGzipped()).isTrue();
+        assertThat(download.getContentLength()).isEqualTo(content.length);
+        assertThat(download.getFileSize()).isEqualTo(Files.size(targetFile)).isLessThan(content.length);
+        assertThat(download.getChecksum()).isEqualTo(sha256(content));
+    }
+
+    @Test
+    public void download_WhenErrorStatus_ShouldReturnTheErrorBodyWithoutWritingTheFile() {
+        final Path targetFile = temporaryFolder.getRoot().toPath().resolve("report.csv");
+
+        final Response result = testObj.download(ClientOperation.QUERY, "error", authorization(), Map.of(),
+                new FileDownloadSink(targetFile, false)).join();
+
+        assertThat(result.getStatusCode()).isEqualTo(422);
+        assertThat(result.getBody()).contains("request_invalid");
+        assertThat(result.getContent()).isNull();
+        assertThat(targetFile).doesNotExist();
+    }
+
+    @Test
+    public void download_WhenFileCannotBeWritten_ShouldFailInsteadOfReportingATransportFailure() {
+        final Path targetFile = temporaryFolder.getRoot().toPath().resolve("missing").resolve("report.csv");
+
+        final Throwable thrown = catchThrowable(() -> testObj.download(ClientOperation.QUERY, "reports", authorization(), Map.of(),
+                new FileDownloadSink(targetFile, false)).join());
+
+        assertThat(thrown).isInstanceOf(CompletionException.class).hasCauseInstanceOf(CheckoutException.class);
+    }
+
+    @Test
+    public void invoke_WhenManyConcurrentCalls_ShouldCompleteThemAll() {
+        final List<CompletableFuture<Response>> calls = IntStream.range(0, 50)
+                .mapToObj(i -> testObj.invoke(ClientOperation.GET, "payments", authorization(), null, null, null))
+                .collect(Collectors.toList());
+
+        assertThat(calls).allSatisfy(call -> assertThat(call.join().getStatusCode()).isEqualTo(201));
+    }
+
+    private void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        respond(exchange, status, body, "application/json");
+    }
+
+    private void respond(final HttpExchange exchange, final int status, final String body, final String contentType) throws IOException {
+        record(exchange);
+        exchange.getResponseHeaders().add("Cko-Request-Id", "request-id");
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    private void record(final HttpExchange exchange) throws IOException {
+        final String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        final Headers headers = new Headers();
+        headers.putAll(exchange.getRequestHeaders());
+        requests.add(new RecordedRequest(exchange.getRequestMethod(), exchange.getRequestURI().getRawQuery(), headers, body));
+    }
+
+    private static String sha256(final byte[] content) throws NoSuchAlgorithmException {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte value : MessageDigest.getInstance("SHA-256").digest(content)) {
+            hex.append(String.format("%02x", value));
+        }
+        return hex.toString();
+    }
+
+    private static SdkAuthorization authorization() {
+        return new SdkAuthorization(PlatformType.DEFAULT, SECRET_KEY);
+    }
+
+    private URI serverUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+    }
+
+    private static CheckoutConfiguration configuration(final boolean retainResponseBody) {
+        return new DefaultCheckoutConfiguration(new StaticKeysSdkCredentials(SECRET_KEY, null), Environment.SANDBOX, null,
+                HttpClientBuilder.create(), ForkJoinPool.commonPool(), null, new DefaultTransportConfiguration(), false, retainResponseBody, null);
+    }
+
+    private static final class RecordedRequest {
+
+        private final String method;
+        private final String query;
+        private final Headers headers;
+        private final String body;
+
+        private RecordedRequest(final String method, final String query, final Headers headers, final String body) {
+            this.method = method;
+            this.query = query;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        private String header(final String name) {
+            return headers.getFirst(name);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.checkout;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@UnitTest
+public class TransportExecutorsTest {
+
+    private static final String NAME = "test-transport";
+    private static final String SECRET_KEY = "sk_sbox_m73dzbpy7cf3gfd46xr4yj5xo4e";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExecutorService executor;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void bounded_ShouldCreateAPoolWithTheGivenBounds() {
+        final InstrumentedThreadPoolExecutor result = TransportExecutors.bounded(NAME, 2, 4, 10);
+        executor = result;
+
+        assertThat(result.getName()).isEqualTo(NAME);
+        assertThat(result.getCorePoolSize()).isEqualTo(2);
+        assertThat(result.getMaximumPoolSize()).isEqualTo(4);
+        assertThat(result.getQueueCapacity()).isEqualTo(10);
+        assertThat(result.getQueue().remainingCapacity()).isEqualTo(10);
+    }
+
+    @Test(expected = CheckoutArgumentException.class)
+    public void bounded_WhenMaximumPoolSizeIsSmallerThanTheCorePoolSize_ShouldThrowException() {
+        TransportExecutors.bounded(NAME, 4, 2, 10);
+    }
+
+    @Test(expected = CheckoutArgumentException.class)
+    public void bounded_WhenMaximumPoolSizeIsNotPositive_ShouldThrowException() {
+        TransportExecutors.bounded(NAME, 0, 0, 10);
+    }
+
+    @Test(expected = CheckoutArgumentException.class)
+    public void bounded_WhenQueueIsNotBounded_ShouldThrowException() {
+        TransportExecutors.bounded(NAME, 1, 1, 0);
+    }
+
+    @Test
+    public void bounded_WhenSaturated_ShouldMakeTheApacheTransportReturnAFailedFutureInsteadOfThrowing() throws InterruptedException {
+        final InstrumentedThreadPoolExecutor boundedExecutor = TransportExecutors.bounded(NAME, 1, 1, 1);
+        executor = boundedExecutor;
+        final CountDownLatch started = new CountDownLatch(1);
+        boundedExecutor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        boundedExecutor.execute(this::awaitRelease);
+        final ApacheHttpClientTransport transport = new ApacheHttpClientTransport(URI.create("http://localhost/"), HttpClientBuilder.create(),
+                boundedExecutor, new DefaultTransportConfiguration(), configuration(), new GsonSerializer());
+
+        final CompletableFuture<Response> result = transport.invoke(ClientOperation.GET, "payments",
+                new SdkAuthorization(PlatformType.DEFAULT, SECRET_KEY), null, null, null);
+
+        final Throwable thrown = catchThrowable(result::join);
+        assertThat(thrown).isInstanceOf(CompletionException.class).hasCauseInstanceOf(CheckoutException.class);
+        assertThat(thrown.getCause().getCause()).isInstanceOf(RejectedExecutionException.class);
+        assertThat(boundedExecutor.getRejectedTaskCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void callerRunsWhenRejected_WhenSaturated_ShouldRunTheTaskInTheCallerThread() throws InterruptedException {
+        final InstrumentedThreadPoolExecutor boundedExecutor = TransportExecutors.bounded(NAME, 1, 1, 1);
+        executor = boundedExecutor;
+        final CountDownLatch started = new CountDownLatch(1);
+        boundedExecutor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        boundedExecutor.execute(this::awaitRelease);
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+
+        TransportExecutors.callerRunsWhenRejected(boundedExecutor).execute(() -> thread.set(Thread.currentThread()));
+
+        assertThat(thread.get()).isSameAs(Thread.currentThread());
+        assertThat(boundedExecutor.getRejectedTaskCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void virtualThreads_WhenSupported_ShouldRunEachCallOnANamedVirtualThread() throws Exception {
+        Assume.assumeTrue(TransportExecutors.isVirtualThreadsSupported());
+        executor = TransportExecutors.virtualThreads(NAME);
+
+        final Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+        assertThat(thread.getName()).startsWith(NAME + "-");
+        assertThat(Thread.class.getMethod("isVirtual").invoke(thread)).isEqualTo(true);
+    }
+
+    @Test
+    public void virtualThreads_WhenNotSupported_ShouldThrowException() {
+        Assume.assumeFalse(TransportExecutors.isVirtualThreadsSupported());
+
+        final Throwable thrown = catchThrowable(() -> TransportExecutors.virtualThreads(NAME));
+
+        assertThat(thrown).isInstanceOf(CheckoutException.class);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CheckoutConfiguration configuration() {
+        return new DefaultCheckoutConfiguration(new StaticKeysSdkCredentials(SECRET_KEY, null), Environment.SANDBOX, null,
+                HttpClientBuilder.create(), ForkJoinPool.commonPool(), null, new DefaultTransportConfiguration(), false, false, null);
+    }
+}
@@ -0,0 +1,87 @@
+package com.checkout.common;
+
+import com.checkout.CheckoutException;
+import de.hybris.bootstrap.annotations.UnitTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@UnitTest
+public class CsvRowIteratorTest {
+
+    private static final String CSV = "Payment ID,Description,Amount\r\n"
+            + "pay_1,\"Capture, partial\",100\r\n"
+            + "pay_2,\"Said \"\"hello\"\"\nover two lines\",\r\n"
+            + "pay_3,,300";
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void next_ShouldReadQuotedFieldsWithCommasQuotesAndLineBreaks() {
+        final List<List<String>> rows = readAll(new CsvRowIterator(new StringReader(CSV)));
+
+        assertThat(rows).containsExactly(
+                List.of("Payment ID", "Description", "Amount"),
+                List.of("pay_1", "Capture, partial", "100"),
+                List.of("pay_2", "Said \"hello\"\nover two lines", ""),
+                List.of("pay_3", "", "300"));
+    }
+
+    @Test
+    public void next_WhenContentEndsWithALineBreak_ShouldNotReturnAnEmptyRow() {
+        final List<List<String>> rows = readAll(new CsvRowIterator(new StringReader("\uFEFFa,b\nc,d\n")));
+
+        assertThat(rows).containsExactly(List.of("a", "b"), List.of("c", "d"));
+    }
+
+    @Test
+    public void next_WhenNoRowIsLeft_ShouldThrowNoSuchElementException() {
+        final CsvRowIterator testObj = new CsvRowIterator(new StringReader(""));
+
+        assertThat(testObj.hasNext()).isFalse();
+        assertThat(catchThrowable(testObj::next)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    public void next_WhenQuotedFieldIsNotTerminated_ShouldThrowCheckoutException() {
+        final CsvRowIterator testObj = new CsvRowIterator(new StringReader("a,\"b"));
+
+        assertThat(catchThrowable(testObj::next)).isInstanceOf(CheckoutException.class);
+    }
+
+    @Test
+    public void open_ShouldReadPlainAndGzippedFiles() throws IOException {
+        final Path plainFile = temporaryFolder.newFile("report.csv").toPath();
+        Files.write(plainFile, CSV.getBytes(StandardCharsets.UTF_8));
+        final Path gzippedFile = temporaryFolder.newFile("report.csv.gz").toPath();
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(gzippedFile))) {
+            outputStream.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (CsvRowIterator plainRows = CsvRowIterator.open(plainFile);
+             CsvRowIterator gzippedRows = CsvRowIterator.open(gzippedFile)) {
+            assertThat(readAll(gzippedRows)).hasSize(4).isEqualTo(readAll(plainRows));
+        }
+    }
+
+    private static List<List<String>> readAll(final CsvRowIterator rows) {
+        final List<List<String>> result = new ArrayList<>();
+        rows.forEachRemaining(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package com.checkout.hybris.core.apm.events;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.event.ClusterAwareEvent;
+import de.hybris.platform.servicelayer.event.PublishEventContext;
+import de.hybris.platform.servicelayer.event.TransactionAwareEvent;
+import de.hybris.platform.servicelayer.event.events.AbstractEvent;
+
+/**
+ * Published when an apm configuration, an apm component or the global apm configuration changes. The event is sent
+ * to every cluster node once the transaction commits. Without apm configuration pk every apm may be affected.
+ */
+public class CheckoutComApmAvailabilityChangedEvent extends AbstractEvent implements ClusterAwareEvent, TransactionAwareEvent {
+
+    private static final String ALL_APMS = "ALL_APMS";
+
+    private final PK apmConfigurationPk;
+
+    public CheckoutComApmAvailabilityChangedEvent(final PK apmConfigurationPk) {
+        this.apmConfigurationPk = apmConfigurationPk;
+    }
+
+    @Override
+    public boolean canPublish(final PublishEventContext publishEventContext) {
+        return true;
+    }
+
+    @Override
+    public boolean publish(final int sourceNodeId, final int targetNodeId) {
+        return true;
+    }
+
+    @Override
+    public boolean publishOnCommitOnly() {
+        return true;
+    }
+
+    @Override
+    public Object getId() {
+        return apmConfigurationPk != null ? apmConfigurationPk : ALL_APMS;
+    }
+
+    public PK getApmConfigurationPk() {
+        return apmConfigurationPk;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutComApmAvailabilityChangedEvent{" +
+                "apmConfigurationPk=" + apmConfigurationPk +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package com.checkout.hybris.core.apm.events.listeners;
+
+import com.checkout.hybris.core.apm.events.CheckoutComApmAvailabilityChangedEvent;
+import com.checkout.hybris.core.apm.services.CheckoutComApmAvailabilityIndex;
+import de.hybris.platform.servicelayer.event.impl.AbstractEventListener;
+
+/**
+ * Applies an apm change made on any cluster node to the apm availability indexes
+ */
+public class CheckoutComApmAvailabilityChangedEventListener extends AbstractEventListener<CheckoutComApmAvailabilityChangedEvent> {
+
+    protected final CheckoutComApmAvailabilityIndex checkoutComApmAvailabilityIndex;
+
+    public CheckoutComApmAvailabilityChangedEventListener(final CheckoutComApmAvailabilityIndex checkoutComApmAvailabilityIndex) {
+        this.checkoutComApmAvailabilityIndex = checkoutComApmAvailabilityIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onEvent(final CheckoutComApmAvailabilityChangedEvent event) {
+        if (event.getApmConfigurationPk() != null) {
+            checkoutComApmAvailabilityIndex.refreshApmConfiguration(event.getApmConfigurationPk());
+        } else {
+            checkoutComApmAvailabilityIndex.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.checkout.hybris.core.apm.interceptors;
+
+import com.checkout.hybris.core.apm.events.CheckoutComApmAvailabilityChangedEvent;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.servicelayer.event.EventService;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import de.hybris.platform.servicelayer.interceptor.PrepareInterceptor;
+import de.hybris.platform.servicelayer.interceptor.RemoveInterceptor;
+
+/**
+ * Drops the apm availability indexes when an apm component or the global apm configuration is created, changed or
+ * removed, as the order, the visibility or the allowed apms of every index may change
+ */
+public class CheckoutComApmComponentIndexInterceptor implements PrepareInterceptor<ItemModel>, RemoveInterceptor<ItemModel> {
+
+    protected final EventService eventService;
+
+    public CheckoutComApmComponentIndexInterceptor(final EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPrepare(final ItemModel item, final InterceptorContext context) {
+        if (context.isNew(item) || context.isModified(item)) {
+            eventService.publishEvent(new CheckoutComApmAvailabilityChangedEvent(null));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onRemove(final ItemModel item, final InterceptorContext context) {
+        eventService.publishEvent(new CheckoutComApmAvailabilityChangedEvent(null));
+    }
+}
@@ -0,0 +1,40 @@
+package com.checkout.hybris.core.apm.interceptors;
+
+import com.checkout.hybris.core.apm.events.CheckoutComApmAvailabilityChangedEvent;
+import com.checkout.hybris.core.model.CheckoutComAPMConfigurationModel;
+import de.hybris.platform.servicelayer.event.EventService;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import de.hybris.platform.servicelayer.interceptor.PrepareInterceptor;
+import de.hybris.platform.servicelayer.interceptor.RemoveInterceptor;
+
+/**
+ * Publishes the change of an apm configuration to the apm availability indexes. A changed configuration is
+ * refreshed in place, a removed one drops the indexes since components may still point to it.
+ */
+public class CheckoutComApmConfigurationIndexInterceptor implements PrepareInterceptor<CheckoutComAPMConfigurationModel>,
+        RemoveInterceptor<CheckoutComAPMConfigurationModel> {
+
+    protected final EventService eventService;
+
+    public CheckoutComApmConfigurationIndexInterceptor(final EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPrepare(final CheckoutComAPMConfigurationModel apmConfiguration, final InterceptorContext context) {
+        if (!context.isNew(apmConfiguration) && context.isModified(apmConfiguration)) {
+            eventService.publishEvent(new CheckoutComApmAvailabilityChangedEvent(apmConfiguration.getPk()));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onRemove(final CheckoutComAPMConfigurationModel apmConfiguration, final InterceptorContext context) {
+        eventService.publishEvent(new CheckoutComApmAvailabilityChangedEvent(null));
+    }
+}
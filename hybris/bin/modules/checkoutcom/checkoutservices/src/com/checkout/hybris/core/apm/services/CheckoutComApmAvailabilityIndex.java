@@ -0,0 +1,45 @@
+package com.checkout.hybris.core.apm.services;
+
+import com.checkout.hybris.core.model.CheckoutComAPMConfigurationModel;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.media.MediaModel;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Precomputed view of the apm components of the current site, answering which apms are available for a country and
+ * currency without querying the components and the global apm configuration on every call
+ */
+public interface CheckoutComApmAvailabilityIndex {
+
+    /**
+     * Returns the apm configurations of the visible apm components of the current site available for the given
+     * country and currency, in the order of the components
+     *
+     * @param countryCode  the country isoCode
+     * @param currencyCode the currency isoCode
+     * @return the available apm configurations
+     */
+    List<CheckoutComAPMConfigurationModel> findAvailableApms(String countryCode, String currencyCode);
+
+    /**
+     * Returns the media of the apm component of the current site using the given apm configuration
+     *
+     * @param apmConfiguration the apm configuration
+     * @return the media of the component, optional empty if there is none
+     */
+    Optional<MediaModel> getApmMedia(CheckoutComAPMConfigurationModel apmConfiguration);
+
+    /**
+     * Recomputes the availability of the given apm configuration in every index already built
+     *
+     * @param apmConfigurationPk the pk of the changed apm configuration
+     */
+    void refreshApmConfiguration(PK apmConfigurationPk);
+
+    /**
+     * Drops every index, they are built again on the next lookup
+     */
+    void invalidateAll();
+}
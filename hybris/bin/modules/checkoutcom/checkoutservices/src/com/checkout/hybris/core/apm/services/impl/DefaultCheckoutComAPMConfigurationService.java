@@ -1,9 +1,8 @@
 package com.checkout.hybris.core.apm.services.impl;
 
-import com.checkout.hybris.addon.model.CheckoutComAPMComponentModel;
-import com.checkout.hybris.addon.model.CheckoutComPaymentMethodComponentModel;
 import com.checkout.hybris.core.apm.configuration.CheckoutComAPMConfigurationSettings;
 import com.checkout.hybris.core.apm.services.CheckoutComAPMConfigurationService;
+import com.checkout.hybris.core.apm.services.CheckoutComApmAvailabilityIndex;
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.core.model.CheckoutComAPMConfigurationModel;
 import com.checkout.hybris.core.model.CheckoutComGlobalAPMConfigurationModel;
@@ -36,24 +35,24 @@ public class DefaultCheckoutComAPMConfigurationService implements CheckoutComAPM
     protected static final String APM_CONFIGURATION_CODE_CANNOT_BE_NULL = "APM configuration code cannot be null.";
 
     protected final CartService cartService;
-    protected final GenericDao<CheckoutComAPMComponentModel> checkoutComApmComponentDao;
     protected final GenericDao<CheckoutComAPMConfigurationModel> checkoutComApmConfigurationDao;
     protected final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService;
     protected final GenericDao<CheckoutComGlobalAPMConfigurationModel> globalAPMConfigurationDao;
     protected final Map<String, CheckoutComAPMConfigurationSettings> checkoutComAPMConfigurationSettings;
+    protected final CheckoutComApmAvailabilityIndex checkoutComApmAvailabilityIndex;
 
     public DefaultCheckoutComAPMConfigurationService(final CartService cartService,
-                                                     final GenericDao<CheckoutComAPMComponentModel> checkoutComApmComponentDao,
                                                      final GenericDao<CheckoutComAPMConfigurationModel> checkoutComApmConfigurationDao,
                                                      final GenericDao<CheckoutComGlobalAPMConfigurationModel> globalAPMConfigurationDao,
                                                      final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
-                                                     final Map<String, CheckoutComAPMConfigurationSettings> checkoutComAPMConfigurationSettings) {
+                                                     final Map<String, CheckoutComAPMConfigurationSettings> checkoutComAPMConfigurationSettings,
+                                                     final CheckoutComApmAvailabilityIndex checkoutComApmAvailabilityIndex) {
         this.cartService = cartService;
-        this.checkoutComApmComponentDao = checkoutComApmComponentDao;
         this.globalAPMConfigurationDao = globalAPMConfigurationDao;
         this.checkoutComApmConfigurationDao = checkoutComApmConfigurationDao;
         this.checkoutComAPMConfigurationSettings = checkoutComAPMConfigurationSettings;
         this.checkoutComMerchantConfigurationService = checkoutComMerchantConfigurationService;
+        this.checkoutComApmAvailabilityIndex = checkoutComApmAvailabilityIndex;
     }
 
     /**
@@ -167,13 +166,7 @@ public class DefaultCheckoutComAPMConfigurationService implements CheckoutComAPM
 
     private List<CheckoutComAPMConfigurationModel> findAvailableApms(final String currencyIsocode,
                                                                      final String countryCode) {
-
-        return checkoutComApmComponentDao.find().stream()
-            .filter(CheckoutComAPMComponentModel::getVisible)
-            .map(CheckoutComAPMComponentModel::getApmConfiguration)
-            .filter(apm -> isApmAvailable(apm, countryCode, currencyIsocode))
-            .distinct()
-            .toList();
+        return checkoutComApmAvailabilityIndex.findAvailableApms(countryCode, currencyIsocode);
     }
 
     /**
@@ -181,9 +174,6 @@ public class DefaultCheckoutComAPMConfigurationService implements CheckoutComAPM
      */
     @Override
     public Optional<MediaModel> getApmConfigurationMedia(final CheckoutComAPMConfigurationModel apmConfigurationModel) {
-        return checkoutComApmComponentDao.find(ImmutableMap.of(CheckoutComAPMComponentModel.APMCONFIGURATION, apmConfigurationModel))
-            .stream()
-            .findAny()
-            .map(CheckoutComPaymentMethodComponentModel::getMedia);
+        return checkoutComApmAvailabilityIndex.getApmMedia(apmConfigurationModel);
     }
 }
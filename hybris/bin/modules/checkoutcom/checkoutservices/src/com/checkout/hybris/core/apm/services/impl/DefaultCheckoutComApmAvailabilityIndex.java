@@ -0,0 +1,309 @@
+package com.checkout.hybris.core.apm.services.impl;
+
+import com.checkout.hybris.addon.model.CheckoutComAPMComponentModel;
+import com.checkout.hybris.core.apm.services.CheckoutComApmAvailabilityIndex;
+import com.checkout.hybris.core.model.CheckoutComAPMConfigurationModel;
+import com.checkout.hybris.core.model.CheckoutComGlobalAPMConfigurationModel;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.catalog.CatalogVersionService;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.c2l.CountryModel;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.media.MediaModel;
+import de.hybris.platform.servicelayer.exceptions.ModelLoadingException;
+import de.hybris.platform.servicelayer.internal.dao.GenericDao;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+import static org.apache.commons.collections4.CollectionUtils.emptyIfNull;
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+
+/**
+ * Default implementation of {@link CheckoutComApmAvailabilityIndex}. An immutable index is kept per site and session
+ * catalog versions, since those decide which apm components are found. Each index memoizes the apms available for
+ * every (country, currency) looked up. Changes are applied by the
+ * {@link com.checkout.hybris.core.apm.events.listeners.CheckoutComApmAvailabilityChangedEventListener} once they
+ * are committed: a changed apm configuration replaces its entry in the existing indexes, any other change drops them.
+ */
+public class DefaultCheckoutComApmAvailabilityIndex implements CheckoutComApmAvailabilityIndex {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComApmAvailabilityIndex.class);
+
+    protected static final int MAX_MEMOIZED_LOOKUPS = 1024;
+
+    protected final GenericDao<CheckoutComAPMComponentModel> checkoutComApmComponentDao;
+    protected final GenericDao<CheckoutComGlobalAPMConfigurationModel> globalAPMConfigurationDao;
+    protected final BaseSiteService baseSiteService;
+    protected final CatalogVersionService catalogVersionService;
+    protected final ModelService modelService;
+
+    private final ConcurrentMap<String, ApmIndex> indexes = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public DefaultCheckoutComApmAvailabilityIndex(final GenericDao<CheckoutComAPMComponentModel> checkoutComApmComponentDao,
+                                                  final GenericDao<CheckoutComGlobalAPMConfigurationModel> globalAPMConfigurationDao,
+                                                  final BaseSiteService baseSiteService,
+                                                  final CatalogVersionService catalogVersionService,
+                                                  final ModelService modelService) {
+        this.checkoutComApmComponentDao = checkoutComApmComponentDao;
+        this.globalAPMConfigurationDao = globalAPMConfigurationDao;
+        this.baseSiteService = baseSiteService;
+        this.catalogVersionService = catalogVersionService;
+        this.modelService = modelService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComAPMConfigurationModel> findAvailableApms(final String countryCode, final String currencyCode) {
+        checkArgument(isNotBlank(countryCode), "Country code cannot be null");
+        checkArgument(isNotBlank(currencyCode), "Currency code cannot be null");
+
+        return getCurrentIndex().findAvailableApms(countryCode, currencyCode).stream()
+                .map(apmConfigurationPk -> apmConfigurationPk != null ? modelService.<CheckoutComAPMConfigurationModel>get(apmConfigurationPk) : null)
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<MediaModel> getApmMedia(final CheckoutComAPMConfigurationModel apmConfiguration) {
+        if (apmConfiguration == null || apmConfiguration.getPk() == null) {
+            return Optional.empty();
+        }
+        return getCurrentIndex().getMediaPk(apmConfiguration.getPk()).map(mediaPk -> modelService.<MediaModel>get(mediaPk));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void refreshApmConfiguration(final PK apmConfigurationPk) {
+        generation.incrementAndGet();
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        final CheckoutComAPMConfigurationModel apmConfiguration;
+        try {
+            apmConfiguration = modelService.get(apmConfigurationPk);
+        } catch (final ModelLoadingException e) {
+            LOG.debug("Apm configuration [{}] does not exist anymore, dropping the apm availability indexes.", apmConfigurationPk);
+            invalidateAll();
+            return;
+        }
+
+        final Optional<CheckoutComGlobalAPMConfigurationModel> globalAPMConfiguration = findGlobalAPMConfiguration();
+        if (globalAPMConfiguration.isEmpty()) {
+            invalidateAll();
+            return;
+        }
+
+        final ApmEntry entry = ApmEntry.of(apmConfiguration, globalAPMConfiguration.get().getNasAPMs());
+        indexes.replaceAll((indexKey, index) -> index.withEntry(entry));
+        LOG.debug("Refreshed apm configuration [{}] in [{}] apm availability indexes.", apmConfigurationPk, indexes.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        indexes.clear();
+    }
+
+    /**
+     * Returns the index of the current site and session catalog versions, building it when missing. An index built
+     * while a change was applied is returned but not kept, as it may have read the previous data. Without a current
+     * site the index is built for the call only.
+     *
+     * @return the index of the current site
+     */
+    protected ApmIndex getCurrentIndex() {
+        final String indexKey = getIndexKey();
+        if (indexKey == null) {
+            return buildIndex();
+        }
+
+        final ApmIndex index = indexes.get(indexKey);
+        if (index != null) {
+            return index;
+        }
+
+        final long buildGeneration = generation.get();
+        final ApmIndex builtIndex = buildIndex();
+        if (generation.get() == buildGeneration) {
+            final ApmIndex existingIndex = indexes.putIfAbsent(indexKey, builtIndex);
+            if (generation.get() != buildGeneration) {
+                indexes.remove(indexKey, builtIndex);
+            }
+            return existingIndex != null ? existingIndex : builtIndex;
+        }
+        return builtIndex;
+    }
+
+    protected String getIndexKey() {
+        final BaseSiteModel currentBaseSite = baseSiteService.getCurrentBaseSite();
+        if (currentBaseSite == null) {
+            return null;
+        }
+        return emptyIfNull(catalogVersionService.getSessionCatalogVersions()).stream()
+                .map(catalogVersion -> catalogVersion.getPk().toString())
+                .sorted()
+                .collect(joining(",", currentBaseSite.getUid() + ":", ""));
+    }
+
+    /**
+     * Reads the apm components once and keeps, in component order, the distinct apm configurations of the visible
+     * ones together with the first media found for each apm configuration
+     *
+     * @return the new index
+     */
+    protected ApmIndex buildIndex() {
+        final long start = System.nanoTime();
+        final List<CheckoutComAPMComponentModel> components = checkoutComApmComponentDao.find();
+
+        final Map<PK, PK> mediaPks = new HashMap<>();
+        components.stream()
+                .filter(component -> component.getApmConfiguration() != null && component.getMedia() != null)
+                .forEach(component -> mediaPks.putIfAbsent(component.getApmConfiguration().getPk(), component.getMedia().getPk()));
+
+        final List<CheckoutComAPMConfigurationModel> visibleApms = components.stream()
+                .filter(component -> Boolean.TRUE.equals(component.getVisible()))
+                .map(CheckoutComAPMComponentModel::getApmConfiguration)
+                .distinct()
+                .toList();
+
+        final Collection<CheckoutComAPMConfigurationModel> allowedApms = visibleApms.stream().anyMatch(Objects::nonNull) ?
+                findGlobalAPMConfiguration()
+                        .orElseThrow(() -> new IllegalStateException("No CheckoutComAPMConfiguration has been found in the system"))
+                        .getNasAPMs() :
+                Collections.emptyList();
+
+        final List<ApmEntry> entries = visibleApms.stream()
+                .map(apmConfiguration -> ApmEntry.of(apmConfiguration, allowedApms))
+                .toList();
+
+        LOG.debug("Built apm availability index of [{}] apms from [{}] components in [{}] µs.", entries.size(), components.size(),
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        return new ApmIndex(entries, Map.copyOf(mediaPks));
+    }
+
+    protected Optional<CheckoutComGlobalAPMConfigurationModel> findGlobalAPMConfiguration() {
+        return globalAPMConfigurationDao.find().stream().findAny();
+    }
+
+    /**
+     * Immutable index of the apm components of a site. The lookups are memoized, up to
+     * {@link #MAX_MEMOIZED_LOOKUPS} combinations of country and currency.
+     */
+    protected static final class ApmIndex {
+
+        private final List<ApmEntry> entries;
+        private final Map<PK, PK> mediaPks;
+        private final ConcurrentMap<String, List<PK>> availableApms = new ConcurrentHashMap<>();
+
+        ApmIndex(final List<ApmEntry> entries, final Map<PK, PK> mediaPks) {
+            this.entries = entries;
+            this.mediaPks = mediaPks;
+        }
+
+        List<PK> findAvailableApms(final String countryCode, final String currencyCode) {
+            final String country = countryCode.toUpperCase(Locale.ROOT);
+            final String currency = currencyCode.toUpperCase(Locale.ROOT);
+            final String lookupKey = country + '|' + currency;
+
+            final List<PK> memoized = availableApms.get(lookupKey);
+            if (memoized != null) {
+                return memoized;
+            }
+            final List<PK> available = entries.stream()
+                    .filter(entry -> entry.isAvailable(country, currency))
+                    .map(ApmEntry::getApmConfigurationPk)
+                    .toList();
+            if (availableApms.size() < MAX_MEMOIZED_LOOKUPS) {
+                availableApms.putIfAbsent(lookupKey, available);
+            }
+            return available;
+        }
+
+        Optional<PK> getMediaPk(final PK apmConfigurationPk) {
+            return Optional.ofNullable(mediaPks.get(apmConfigurationPk));
+        }
+
+        ApmIndex withEntry(final ApmEntry changedEntry) {
+            if (entries.stream().noneMatch(entry -> changedEntry.getApmConfigurationPk().equals(entry.getApmConfigurationPk()))) {
+                return this;
+            }
+            final List<ApmEntry> changedEntries = entries.stream()
+                    .map(entry -> changedEntry.getApmConfigurationPk().equals(entry.getApmConfigurationPk()) ? changedEntry : entry)
+                    .toList();
+            return new ApmIndex(changedEntries, mediaPks);
+        }
+    }
+
+    /**
+     * Availability rules of an apm configuration, with the restricted country and currency isocodes upper-cased. An
+     * entry without apm configuration stands for a component that is not restricted.
+     */
+    protected static final class ApmEntry {
+
+        private final PK apmConfigurationPk;
+        private final boolean allowed;
+        private final Set<String> restrictedCountries;
+        private final Set<String> restrictedCurrencies;
+
+        private ApmEntry(final PK apmConfigurationPk, final boolean allowed, final Set<String> restrictedCountries,
+                         final Set<String> restrictedCurrencies) {
+            this.apmConfigurationPk = apmConfigurationPk;
+            this.allowed = allowed;
+            this.restrictedCountries = restrictedCountries;
+            this.restrictedCurrencies = restrictedCurrencies;
+        }
+
+        static ApmEntry of(final CheckoutComAPMConfigurationModel apmConfiguration,
+                           final Collection<CheckoutComAPMConfigurationModel> allowedApms) {
+            if (apmConfiguration == null) {
+                return new ApmEntry(null, true, Collections.emptySet(), Collections.emptySet());
+            }
+            return new ApmEntry(apmConfiguration.getPk(), emptyIfNull(allowedApms).contains(apmConfiguration),
+                    emptyIfNull(apmConfiguration.getRestrictedCountries()).stream()
+                            .map(CountryModel::getIsocode)
+                            .filter(Objects::nonNull)
+                            .map(isocode -> isocode.toUpperCase(Locale.ROOT))
+                            .collect(toUnmodifiableSet()),
+                    emptyIfNull(apmConfiguration.getRestrictedCurrencies()).stream()
+                            .map(CurrencyModel::getIsocode)
+                            .filter(Objects::nonNull)
+                            .map(isocode -> isocode.toUpperCase(Locale.ROOT))
+                            .collect(toUnmodifiableSet()));
+        }
+
+        boolean isAvailable(final String country, final String currency) {
+            if (apmConfigurationPk == null) {
+                return true;
+            }
+            return allowed
+                    && (restrictedCountries.isEmpty() || restrictedCountries.contains(country))
+                    && (restrictedCurrencies.isEmpty() || restrictedCurrencies.contains(currency));
+        }
+
+        PK getApmConfigurationPk() {
+            return apmConfigurationPk;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.checkout.hybris.core.cronjob.performables;
+
+import com.checkout.hybris.core.model.CheckoutComReconciliationCronJobModel;
+import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationStats;
+import com.checkout.hybris.core.payment.services.CheckoutComReconciliationService;
+import de.hybris.platform.cronjob.enums.CronJobResult;
+import de.hybris.platform.cronjob.enums.CronJobStatus;
+import de.hybris.platform.servicelayer.cronjob.AbstractJobPerformable;
+import de.hybris.platform.servicelayer.cronjob.PerformResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reconciliation of the Checkout.com report files of a site with its payment transaction entries
+ */
+public class CheckoutComReconciliationJob extends AbstractJobPerformable<CheckoutComReconciliationCronJobModel> {
+
+    protected static final Logger LOG = LogManager.getLogger(CheckoutComReconciliationJob.class);
+
+    protected final CheckoutComReconciliationService checkoutComReconciliationService;
+
+    public CheckoutComReconciliationJob(final CheckoutComReconciliationService checkoutComReconciliationService) {
+        this.checkoutComReconciliationService = checkoutComReconciliationService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PerformResult perform(final CheckoutComReconciliationCronJobModel reconciliationCronJob) {
+        final CheckoutComReconciliationStats stats;
+        try {
+            stats = checkoutComReconciliationService.reconcile(reconciliationCronJob);
+        } catch (final CheckoutComPaymentIntegrationException e) {
+            LOG.error("The reconciliation has failed, the next run resumes after report [{}].", reconciliationCronJob.getLastReconciledReportId(), e);
+            return new PerformResult(CronJobResult.ERROR, CronJobStatus.ABORTED);
+        }
+        LOG.info("Reconciled [{}] rows of [{}] files in [{}] reports: [{}] ms, [{}] matched, [{}] discrepancies, [{}] resolved, [{}] backfilled.",
+                stats.getRowCount(), stats.getFileCount(), stats.getReportCount(), stats.getDurationMillis(), stats.getMatchedCount(),
+                stats.getDiscrepancyCount(), stats.getResolvedCount(), stats.getBackfilledCount());
+
+        if (stats.isAborted()) {
+            clearAbortRequestedIfNeeded(reconciliationCronJob);
+            return new PerformResult(CronJobResult.UNKNOWN, CronJobStatus.ABORTED);
+        }
+        return new PerformResult(CronJobResult.SUCCESS, CronJobStatus.FINISHED);
+    }
+
+    /**
+     * The reconciliation can be aborted between two batches, the next run resumes with the report being reconciled
+     */
+    @Override
+    public boolean isAbortable() {
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package com.checkout.hybris.core.flow.impl;
 
+import com.checkout.GsonSerializer;
 import com.checkout.common.CountryCode;
 import com.checkout.common.Currency;
 import com.checkout.handlepaymentsandpayouts.flow.paymentsessions.requests.Address;
@@ -12,38 +13,71 @@ import com.checkout.hybris.core.flow.exception.CheckoutComPaymentSessionExceptio
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.core.payment.services.CheckoutComApiService;
 import com.checkout.hybris.core.url.services.CheckoutComUrlService;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.hybris.platform.cms2.servicelayer.services.CMSSiteService;
 import de.hybris.platform.core.model.order.CartModel;
 import de.hybris.platform.core.model.user.AddressModel;
 import de.hybris.platform.order.CartService;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Default implementation of the {@link CheckoutComFlowPaymentSessionService}. The payment session of a cart is reused
+ * until it is about to expire or any field of the session request changes, and concurrent requests for the same cart
+ * wait for the same remote call. The remote call is started outside of any cache operation, and the cache is bounded
+ * in size and evicts the payment sessions once they expire.
+ */
 public class DefaultCheckoutComFlowPaymentSessionService implements CheckoutComFlowPaymentSessionService {
 
     private static final Logger LOG = LoggerFactory.getLogger(DefaultCheckoutComFlowPaymentSessionService.class);
 
+    protected static final String PAYMENT_SESSION_REUSE_ENABLED = "checkoutservices.flow.paymentsession.reuse.enabled";
+    protected static final String PAYMENT_SESSION_EXPIRY = "checkoutservices.flow.paymentsession.expiry.seconds";
+    protected static final String PAYMENT_SESSION_REUSE_MARGIN = "checkoutservices.flow.paymentsession.reuse.margin.seconds";
+    protected static final String PAYMENT_SESSION_CACHE_MAX_SIZE = "checkoutservices.flow.paymentsession.cache.maxsize";
+
+    protected static final long DEFAULT_PAYMENT_SESSION_EXPIRY = 3600L;
+    protected static final long DEFAULT_PAYMENT_SESSION_REUSE_MARGIN = 600L;
+    protected static final int DEFAULT_PAYMENT_SESSION_CACHE_MAX_SIZE = 10000;
+
     private final CartService cartService;
     private final CheckoutComCurrencyService checkoutComCurrencyService;
     private final CheckoutComUrlService checkoutComUrlService;
     private final CMSSiteService cmsSiteService;
     private final CheckoutComApiService checkoutComApiService;
     private final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService;
+    private final ConfigurationService configurationService;
+
+    private final GsonSerializer gsonSerializer = new GsonSerializer();
+    private final Supplier<Cache<String, CachedPaymentSession>> paymentSessions = Suppliers.memoize(this::createPaymentSessionCache);
 
     public DefaultCheckoutComFlowPaymentSessionService(final CartService cartService,
                                                        final CheckoutComCurrencyService checkoutComCurrencyService,
                                                        final CheckoutComUrlService checkoutComUrlService,
                                                        final CMSSiteService cmsSiteService,
                                                        final CheckoutComApiService checkoutComApiService,
-                                                       final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService) {
+                                                       final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
+                                                       final ConfigurationService configurationService) {
         this.cartService = cartService;
         this.checkoutComCurrencyService = checkoutComCurrencyService;
         this.checkoutComUrlService = checkoutComUrlService;
         this.cmsSiteService = cmsSiteService;
         this.checkoutComApiService = checkoutComApiService;
         this.checkoutComMerchantConfigurationService = checkoutComMerchantConfigurationService;
+        this.configurationService = configurationService;
     }
 
     @Override
@@ -51,21 +85,121 @@ public class DefaultCheckoutComFlowPaymentSessionService implements CheckoutComF
         if (cartService.hasSessionCart()) {
             final CartModel currentCart = cartService.getSessionCart();
             final PaymentSessionRequest paymentSessionRequest = buildPaymentSessionRequest(currentCart);
+            if (!isPaymentSessionReuseEnabled()) {
+                return getPaymentSession(currentCart, requestPaymentSession(paymentSessionRequest));
+            }
+
+            final CachedPaymentSession paymentSession = getOrRequestPaymentSession(currentCart, paymentSessionRequest);
             try {
-                return checkoutComApiService.createCheckoutApi().flowClient().requestPaymentSession(paymentSessionRequest).get();
-            } catch (final InterruptedException e) {
-                LOG.error("InterruptedException while requestion payment session for cart code [{}]", currentCart.getCode());
-                Thread.currentThread().interrupt();
-                throw new CheckoutComPaymentSessionException("Error obtaining payment session", e);
-
-            } catch (final ExecutionException e) {
-                LOG.error("ExecutionException while requestion payment session for cart code [{}]", currentCart.getCode());
-                throw new CheckoutComPaymentSessionException("Error obtaining payment session", e);
+                return getPaymentSession(currentCart, paymentSession.getPaymentSession());
+            } catch (final CheckoutComPaymentSessionException e) {
+                getPaymentSessions().remove(currentCart.getCode(), paymentSession);
+                throw e;
             }
         }
         return null;
     }
 
+    /**
+     * Returns the payment session of the cart when it was requested with the same fields and does not expire within
+     * the reuse margin, otherwise requests a new one expiring after the configured time. The request in flight is
+     * cached first, so concurrent requests for the cart wait for it, and the remote call is made once it is cached
+     *
+     * @param cart                  the cart
+     * @param paymentSessionRequest the payment session request built for the cart
+     * @return the payment session of the cart, possibly still in flight
+     */
+    protected CachedPaymentSession getOrRequestPaymentSession(final CartModel cart, final PaymentSessionRequest paymentSessionRequest) {
+        final Configuration configuration = configurationService.getConfiguration();
+        final String fingerprint = createFingerprint(paymentSessionRequest);
+        final long now = System.currentTimeMillis();
+        final Instant expiresOn = Instant.ofEpochMilli(now).plusSeconds(configuration.getLong(PAYMENT_SESSION_EXPIRY, DEFAULT_PAYMENT_SESSION_EXPIRY));
+        final long reuseUntil = expiresOn.minusSeconds(configuration.getLong(PAYMENT_SESSION_REUSE_MARGIN, DEFAULT_PAYMENT_SESSION_REUSE_MARGIN)).toEpochMilli();
+
+        final String cartCode = cart.getCode();
+        final ConcurrentMap<String, CachedPaymentSession> sessions = getPaymentSessions();
+        final CachedPaymentSession inFlight = new CachedPaymentSession(fingerprint, reuseUntil, new CompletableFuture<>());
+        boolean cached = false;
+        while (!cached) {
+            final CachedPaymentSession existing = sessions.get(cartCode);
+            if (existing != null && existing.isReusable(fingerprint, now)) {
+                return existing;
+            }
+            cached = existing == null ? sessions.putIfAbsent(cartCode, inFlight) == null : sessions.replace(cartCode, existing, inFlight);
+        }
+
+        paymentSessionRequest.setExpiresOn(expiresOn);
+        final CompletableFuture<PaymentSessionResponse> response;
+        try {
+            response = requestPaymentSession(paymentSessionRequest);
+        } catch (final RuntimeException e) {
+            sessions.remove(cartCode, inFlight);
+            inFlight.getPaymentSession().completeExceptionally(e);
+            throw e;
+        }
+        final CachedPaymentSession requested = new CachedPaymentSession(fingerprint, reuseUntil, response);
+        sessions.replace(cartCode, inFlight, requested);
+        response.whenComplete((paymentSession, throwable) -> {
+            if (throwable == null) {
+                inFlight.getPaymentSession().complete(paymentSession);
+            } else {
+                inFlight.getPaymentSession().completeExceptionally(throwable);
+            }
+        });
+        return requested;
+    }
+
+    /**
+     * Creates the cache of the payment sessions, bounded to the configured size. A payment session is evicted once it
+     * expires, it is not handed out after the reuse margin anyway
+     *
+     * @return the payment session cache
+     */
+    protected Cache<String, CachedPaymentSession> createPaymentSessionCache() {
+        final Configuration configuration = configurationService.getConfiguration();
+        return CacheBuilder.newBuilder()
+                .maximumSize(configuration.getInt(PAYMENT_SESSION_CACHE_MAX_SIZE, DEFAULT_PAYMENT_SESSION_CACHE_MAX_SIZE))
+                .expireAfterWrite(configuration.getLong(PAYMENT_SESSION_EXPIRY, DEFAULT_PAYMENT_SESSION_EXPIRY), TimeUnit.SECONDS)
+                .build();
+    }
+
+    protected CompletableFuture<PaymentSessionResponse> requestPaymentSession(final PaymentSessionRequest paymentSessionRequest) {
+        return checkoutComApiService.createCheckoutApi().flowClient().requestPaymentSession(paymentSessionRequest);
+    }
+
+    protected PaymentSessionResponse getPaymentSession(final CartModel currentCart, final CompletableFuture<PaymentSessionResponse> paymentSession) {
+        try {
+            return paymentSession.get();
+        } catch (final InterruptedException e) {
+            LOG.error("InterruptedException while requestion payment session for cart code [{}]", currentCart.getCode());
+            Thread.currentThread().interrupt();
+            throw new CheckoutComPaymentSessionException("Error obtaining payment session", e);
+
+        } catch (final ExecutionException e) {
+            LOG.error("ExecutionException while requestion payment session for cart code [{}]", currentCart.getCode());
+            throw new CheckoutComPaymentSessionException("Error obtaining payment session", e);
+        }
+    }
+
+    /**
+     * Hashes the payment session request, before its expiry is set, so any change of amount, currency, billing
+     * address, reference or channel leads to a new payment session
+     *
+     * @param paymentSessionRequest the payment session request
+     * @return the hex encoded SHA-256 of the json request
+     */
+    protected String createFingerprint(final PaymentSessionRequest paymentSessionRequest) {
+        return DigestUtils.sha256Hex(gsonSerializer.toJson(paymentSessionRequest));
+    }
+
+    protected boolean isPaymentSessionReuseEnabled() {
+        return configurationService.getConfiguration().getBoolean(PAYMENT_SESSION_REUSE_ENABLED, true);
+    }
+
+    protected ConcurrentMap<String, CachedPaymentSession> getPaymentSessions() {
+        return paymentSessions.get().asMap();
+    }
+
     protected PaymentSessionRequest buildPaymentSessionRequest(final CartModel cartModel) {
         final String currencyIsoCode = cartModel.getCurrency().getIsocode();
 
@@ -96,4 +230,34 @@ public class DefaultCheckoutComFlowPaymentSessionService implements CheckoutComF
         address.setZip(addressModel.getPostalcode());
         return address;
     }
+
+    /**
+     * The payment session requested for a cart, with the fingerprint of its request and the time until which it is
+     * handed out again
+     */
+    protected static final class CachedPaymentSession {
+
+        private final String fingerprint;
+        private final long reuseUntil;
+        private final CompletableFuture<PaymentSessionResponse> paymentSession;
+
+        protected CachedPaymentSession(final String fingerprint, final long reuseUntil,
+                                       final CompletableFuture<PaymentSessionResponse> paymentSession) {
+            this.fingerprint = fingerprint;
+            this.reuseUntil = reuseUntil;
+            this.paymentSession = paymentSession;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public CompletableFuture<PaymentSessionResponse> getPaymentSession() {
+            return paymentSession;
+        }
+
+        public boolean isReusable(final String requestFingerprint, final long now) {
+            return Objects.equals(fingerprint, requestFingerprint) && now < reuseUntil && !paymentSession.isCompletedExceptionally();
+        }
+    }
 }
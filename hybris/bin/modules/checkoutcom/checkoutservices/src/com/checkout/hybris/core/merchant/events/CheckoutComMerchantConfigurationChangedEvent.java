@@ -0,0 +1,58 @@
+package com.checkout.hybris.core.merchant.events;
+
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.event.ClusterAwareEvent;
+import de.hybris.platform.servicelayer.event.PublishEventContext;
+import de.hybris.platform.servicelayer.event.TransactionAwareEvent;
+import de.hybris.platform.servicelayer.event.events.AbstractEvent;
+
+/**
+ * Published when a merchant configuration, or the merchant configuration of a site, changes. The event is sent to
+ * every cluster node once the transaction commits, so no node keeps serving the previous configuration.
+ */
+public class CheckoutComMerchantConfigurationChangedEvent extends AbstractEvent implements ClusterAwareEvent, TransactionAwareEvent {
+
+    private final PK merchantConfigurationPk;
+    private final String siteUid;
+
+    public CheckoutComMerchantConfigurationChangedEvent(final PK merchantConfigurationPk, final String siteUid) {
+        this.merchantConfigurationPk = merchantConfigurationPk;
+        this.siteUid = siteUid;
+    }
+
+    @Override
+    public boolean canPublish(final PublishEventContext publishEventContext) {
+        return true;
+    }
+
+    @Override
+    public boolean publish(final int sourceNodeId, final int targetNodeId) {
+        return true;
+    }
+
+    @Override
+    public boolean publishOnCommitOnly() {
+        return true;
+    }
+
+    @Override
+    public Object getId() {
+        return merchantConfigurationPk != null ? merchantConfigurationPk : siteUid;
+    }
+
+    public PK getMerchantConfigurationPk() {
+        return merchantConfigurationPk;
+    }
+
+    public String getSiteUid() {
+        return siteUid;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckoutComMerchantConfigurationChangedEvent{" +
+                "merchantConfigurationPk=" + merchantConfigurationPk +
+                ", siteUid='" + siteUid + '\'' +
+                '}';
+    }
+}
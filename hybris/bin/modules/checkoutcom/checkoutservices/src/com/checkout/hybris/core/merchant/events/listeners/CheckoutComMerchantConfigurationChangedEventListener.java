@@ -0,0 +1,30 @@
+package com.checkout.hybris.core.merchant.events.listeners;
+
+import com.checkout.hybris.core.merchant.events.CheckoutComMerchantConfigurationChangedEvent;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationCache;
+import de.hybris.platform.servicelayer.event.impl.AbstractEventListener;
+
+/**
+ * Drops the cached merchant configuration snapshots affected by a change made on any cluster node
+ */
+public class CheckoutComMerchantConfigurationChangedEventListener extends AbstractEventListener<CheckoutComMerchantConfigurationChangedEvent> {
+
+    protected final CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache;
+
+    public CheckoutComMerchantConfigurationChangedEventListener(final CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache) {
+        this.checkoutComMerchantConfigurationCache = checkoutComMerchantConfigurationCache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onEvent(final CheckoutComMerchantConfigurationChangedEvent event) {
+        if (event.getMerchantConfigurationPk() != null) {
+            checkoutComMerchantConfigurationCache.invalidateMerchantConfiguration(event.getMerchantConfigurationPk());
+        }
+        if (event.getSiteUid() != null) {
+            checkoutComMerchantConfigurationCache.invalidateSite(event.getSiteUid());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.checkout.hybris.core.merchant.interceptors;
+
+import com.checkout.hybris.core.model.CheckoutComApplePayConfigurationModel;
+import com.checkout.hybris.core.payment.services.CheckoutComApplePayClientRegistry;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import de.hybris.platform.servicelayer.interceptor.PrepareInterceptor;
+import de.hybris.platform.servicelayer.interceptor.RemoveInterceptor;
+
+import java.util.Set;
+
+/**
+ * Retires the pooled Apple Pay clients built with the certificate and private key of an Apple Pay configuration
+ * when those change or the configuration is removed
+ */
+public class CheckoutComApplePayConfigurationClientInterceptor implements PrepareInterceptor<CheckoutComApplePayConfigurationModel>,
+        RemoveInterceptor<CheckoutComApplePayConfigurationModel> {
+
+    protected static final Set<String> CLIENT_ATTRIBUTES = Set.of(CheckoutComApplePayConfigurationModel.CERTIFICATE,
+            CheckoutComApplePayConfigurationModel.PRIVATEKEY);
+
+    protected final CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistry;
+
+    public CheckoutComApplePayConfigurationClientInterceptor(final CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistry) {
+        this.checkoutComApplePayClientRegistry = checkoutComApplePayClientRegistry;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPrepare(final CheckoutComApplePayConfigurationModel applePayConfiguration, final InterceptorContext context) {
+        if (!context.isNew(applePayConfiguration) && isClientAttributeModified(applePayConfiguration, context)) {
+            checkoutComApplePayClientRegistry.invalidateByApplePayConfiguration(applePayConfiguration.getPk());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onRemove(final CheckoutComApplePayConfigurationModel applePayConfiguration, final InterceptorContext context) {
+        checkoutComApplePayClientRegistry.invalidateByApplePayConfiguration(applePayConfiguration.getPk());
+    }
+
+    protected boolean isClientAttributeModified(final CheckoutComApplePayConfigurationModel applePayConfiguration,
+                                                final InterceptorContext context) {
+        return context.isModified(applePayConfiguration) && context.getDirtyAttributes(applePayConfiguration).keySet().stream()
+                .anyMatch(CLIENT_ATTRIBUTES::contains);
+    }
+}
@@ -0,0 +1,54 @@
+package com.checkout.hybris.core.merchant.interceptors;
+
+import com.checkout.hybris.core.model.CheckoutComMerchantConfigurationModel;
+import com.checkout.hybris.core.payment.services.CheckoutComApiClientRegistry;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import de.hybris.platform.servicelayer.interceptor.PrepareInterceptor;
+import de.hybris.platform.servicelayer.interceptor.RemoveInterceptor;
+
+import java.util.Set;
+
+/**
+ * Retires the pooled checkout.com api clients built with the credentials of a merchant configuration
+ * when those credentials change or the configuration is removed
+ */
+public class CheckoutComMerchantConfigurationApiClientInterceptor implements PrepareInterceptor<CheckoutComMerchantConfigurationModel>,
+        RemoveInterceptor<CheckoutComMerchantConfigurationModel> {
+
+    protected static final Set<String> CLIENT_ATTRIBUTES = Set.of(CheckoutComMerchantConfigurationModel.NASSECRETKEY,
+            CheckoutComMerchantConfigurationModel.NASPUBLICKEY, CheckoutComMerchantConfigurationModel.ENVIRONMENT);
+
+    protected final CheckoutComApiClientRegistry checkoutComApiClientRegistry;
+
+    public CheckoutComMerchantConfigurationApiClientInterceptor(final CheckoutComApiClientRegistry checkoutComApiClientRegistry) {
+        this.checkoutComApiClientRegistry = checkoutComApiClientRegistry;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPrepare(final CheckoutComMerchantConfigurationModel merchantConfiguration, final InterceptorContext context) {
+        if (!context.isNew(merchantConfiguration) && isClientAttributeModified(merchantConfiguration, context)) {
+            checkoutComApiClientRegistry.invalidateBySecretKey(getOriginalSecretKey(merchantConfiguration));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onRemove(final CheckoutComMerchantConfigurationModel merchantConfiguration, final InterceptorContext context) {
+        checkoutComApiClientRegistry.invalidateBySecretKey(getOriginalSecretKey(merchantConfiguration));
+    }
+
+    protected boolean isClientAttributeModified(final CheckoutComMerchantConfigurationModel merchantConfiguration,
+                                                final InterceptorContext context) {
+        return context.isModified(merchantConfiguration) && context.getDirtyAttributes(merchantConfiguration).keySet().stream()
+                .anyMatch(CLIENT_ATTRIBUTES::contains);
+    }
+
+    protected String getOriginalSecretKey(final CheckoutComMerchantConfigurationModel merchantConfiguration) {
+        return merchantConfiguration.getItemModelContext().getOriginalValue(CheckoutComMerchantConfigurationModel.NASSECRETKEY);
+    }
+}
@@ -0,0 +1,49 @@
+package com.checkout.hybris.core.merchant.interceptors;
+
+import com.checkout.hybris.core.merchant.events.CheckoutComMerchantConfigurationChangedEvent;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationCache;
+import com.checkout.hybris.core.model.CheckoutComMerchantConfigurationModel;
+import de.hybris.platform.servicelayer.event.EventService;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import de.hybris.platform.servicelayer.interceptor.PrepareInterceptor;
+import de.hybris.platform.servicelayer.interceptor.RemoveInterceptor;
+
+/**
+ * Drops the cached snapshots of a merchant configuration when it changes or is removed. The local cache is
+ * invalidated straight away and the other cluster nodes, and this one again, once the transaction commits.
+ */
+public class CheckoutComMerchantConfigurationCacheInterceptor implements PrepareInterceptor<CheckoutComMerchantConfigurationModel>,
+        RemoveInterceptor<CheckoutComMerchantConfigurationModel> {
+
+    protected final CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache;
+    protected final EventService eventService;
+
+    public CheckoutComMerchantConfigurationCacheInterceptor(final CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache,
+                                                            final EventService eventService) {
+        this.checkoutComMerchantConfigurationCache = checkoutComMerchantConfigurationCache;
+        this.eventService = eventService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPrepare(final CheckoutComMerchantConfigurationModel merchantConfiguration, final InterceptorContext context) {
+        if (!context.isNew(merchantConfiguration) && context.isModified(merchantConfiguration)) {
+            invalidate(merchantConfiguration);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onRemove(final CheckoutComMerchantConfigurationModel merchantConfiguration, final InterceptorContext context) {
+        invalidate(merchantConfiguration);
+    }
+
+    protected void invalidate(final CheckoutComMerchantConfigurationModel merchantConfiguration) {
+        checkoutComMerchantConfigurationCache.invalidateMerchantConfiguration(merchantConfiguration.getPk());
+        eventService.publishEvent(new CheckoutComMerchantConfigurationChangedEvent(merchantConfiguration.getPk(), null));
+    }
+}
@@ -0,0 +1,48 @@
+package com.checkout.hybris.core.merchant.interceptors;
+
+import com.checkout.hybris.core.merchant.events.CheckoutComMerchantConfigurationChangedEvent;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationCache;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.servicelayer.event.EventService;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import de.hybris.platform.servicelayer.interceptor.PrepareInterceptor;
+import de.hybris.platform.servicelayer.interceptor.RemoveInterceptor;
+
+/**
+ * Drops the cached merchant configuration snapshot of a site when another merchant configuration is assigned to it
+ * or the site is removed
+ */
+public class CheckoutComSiteMerchantConfigurationCacheInterceptor implements PrepareInterceptor<BaseSiteModel>, RemoveInterceptor<BaseSiteModel> {
+
+    protected final CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache;
+    protected final EventService eventService;
+
+    public CheckoutComSiteMerchantConfigurationCacheInterceptor(final CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache,
+                                                                final EventService eventService) {
+        this.checkoutComMerchantConfigurationCache = checkoutComMerchantConfigurationCache;
+        this.eventService = eventService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPrepare(final BaseSiteModel baseSite, final InterceptorContext context) {
+        if (!context.isNew(baseSite) && context.isModified(baseSite, BaseSiteModel.CHECKOUTCOMMERCHANTCONFIGURATION)) {
+            invalidate(baseSite);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onRemove(final BaseSiteModel baseSite, final InterceptorContext context) {
+        invalidate(baseSite);
+    }
+
+    protected void invalidate(final BaseSiteModel baseSite) {
+        checkoutComMerchantConfigurationCache.invalidateSite(baseSite.getUid());
+        eventService.publishEvent(new CheckoutComMerchantConfigurationChangedEvent(null, baseSite.getUid()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.checkout.hybris.core.merchant.services;
+
+import com.checkout.hybris.core.merchantconfiguration.CheckoutComMerchantConfigurationCacheStats;
+import com.checkout.hybris.core.merchantconfiguration.CheckoutComMerchantConfigurationSnapshot;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.core.PK;
+
+/**
+ * Holds an immutable snapshot of the merchant configuration of each site, so the configuration getters do not walk
+ * the model layer on every call
+ */
+public interface CheckoutComMerchantConfigurationCache {
+
+    /**
+     * Returns the snapshot of the merchant configuration of the given site, building it on the first call
+     *
+     * @param baseSite the site
+     * @return the snapshot, or null when the site has no merchant configuration
+     */
+    CheckoutComMerchantConfigurationSnapshot getSnapshot(BaseSiteModel baseSite);
+
+    /**
+     * Drops the snapshots built from the given merchant configuration
+     *
+     * @param merchantConfigurationPk the pk of the changed merchant configuration
+     */
+    void invalidateMerchantConfiguration(PK merchantConfigurationPk);
+
+    /**
+     * Drops the snapshot of the given site
+     *
+     * @param siteUid the uid of the changed site
+     */
+    void invalidateSite(String siteUid);
+
+    /**
+     * Drops every snapshot held by the cache
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the hit, miss and rebuild counters of the cache
+     *
+     * @return the cache statistics
+     */
+    CheckoutComMerchantConfigurationCacheStats getStats();
+}
@@ -0,0 +1,120 @@
+package com.checkout.hybris.core.merchant.services.impl;
+
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationCache;
+import com.checkout.hybris.core.merchantconfiguration.CheckoutComMerchantConfigurationCacheStats;
+import com.checkout.hybris.core.merchantconfiguration.CheckoutComMerchantConfigurationSnapshot;
+import com.checkout.hybris.core.model.CheckoutComMerchantConfigurationModel;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.core.PK;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default implementation of the {@link CheckoutComMerchantConfigurationCache}. Snapshots are kept per site uid and
+ * built lazily; changes to the merchant configurations are dropped from the cache by the
+ * {@link com.checkout.hybris.core.merchant.interceptors.CheckoutComMerchantConfigurationCacheInterceptor} and, on
+ * the other cluster nodes, by the
+ * {@link com.checkout.hybris.core.merchant.events.listeners.CheckoutComMerchantConfigurationChangedEventListener}.
+ */
+public class DefaultCheckoutComMerchantConfigurationCache implements CheckoutComMerchantConfigurationCache {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComMerchantConfigurationCache.class);
+
+    private final ConcurrentMap<String, CheckoutComMerchantConfigurationSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong rebuildCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicLong maxRebuildMicros = new AtomicLong();
+    private volatile long lastRebuildMicros;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComMerchantConfigurationSnapshot getSnapshot(final BaseSiteModel baseSite) {
+        final CheckoutComMerchantConfigurationSnapshot snapshot = snapshots.get(baseSite.getUid());
+        if (snapshot != null) {
+            hitCount.incrementAndGet();
+            return snapshot;
+        }
+        missCount.incrementAndGet();
+        return snapshots.computeIfAbsent(baseSite.getUid(), siteUid -> buildSnapshot(baseSite));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateMerchantConfiguration(final PK merchantConfigurationPk) {
+        if (snapshots.values().removeIf(snapshot -> merchantConfigurationPk.equals(snapshot.getMerchantConfigurationPk()))) {
+            invalidationCount.incrementAndGet();
+            LOG.debug("Dropped the cached snapshots of merchant configuration [{}].", merchantConfigurationPk);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateSite(final String siteUid) {
+        if (snapshots.remove(siteUid) != null) {
+            invalidationCount.incrementAndGet();
+            LOG.debug("Dropped the cached merchant configuration snapshot of site [{}].", siteUid);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateAll() {
+        snapshots.clear();
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComMerchantConfigurationCacheStats getStats() {
+        final CheckoutComMerchantConfigurationCacheStats stats = new CheckoutComMerchantConfigurationCacheStats();
+        final long hits = hitCount.get();
+        final long misses = missCount.get();
+        stats.setSize(snapshots.size());
+        stats.setHitCount(hits);
+        stats.setMissCount(misses);
+        stats.setHitRatio(hits + misses == 0 ? 0d : (double) hits / (hits + misses));
+        stats.setRebuildCount(rebuildCount.get());
+        stats.setInvalidationCount(invalidationCount.get());
+        stats.setLastRebuildMicros(lastRebuildMicros);
+        stats.setMaxRebuildMicros(maxRebuildMicros.get());
+        return stats;
+    }
+
+    /**
+     * Copies the merchant configuration of the site. Returns null, so nothing is cached, when the site has none.
+     *
+     * @param baseSite the site
+     * @return the snapshot of the merchant configuration of the site
+     */
+    protected CheckoutComMerchantConfigurationSnapshot buildSnapshot(final BaseSiteModel baseSite) {
+        final long start = System.nanoTime();
+        final CheckoutComMerchantConfigurationModel merchantConfiguration = baseSite.getCheckoutComMerchantConfiguration();
+        if (merchantConfiguration == null) {
+            LOG.warn("Site [{}] has no checkout.com merchant configuration.", baseSite.getUid());
+            return null;
+        }
+        final CheckoutComMerchantConfigurationSnapshot snapshot = CheckoutComMerchantConfigurationSnapshot.of(merchantConfiguration);
+        final long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        rebuildCount.incrementAndGet();
+        lastRebuildMicros = micros;
+        maxRebuildMicros.accumulateAndGet(micros, Math::max);
+        return snapshot;
+    }
+}
@@ -2,8 +2,10 @@ package com.checkout.hybris.core.merchant.services.impl;
 
 import com.checkout.hybris.core.enums.EnvironmentType;
 import com.checkout.hybris.core.enums.PaymentActionType;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationCache;
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.core.merchantconfiguration.BillingDescriptor;
+import com.checkout.hybris.core.merchantconfiguration.CheckoutComMerchantConfigurationSnapshot;
 import com.checkout.hybris.core.model.CheckoutComACHConfigurationModel;
 import com.checkout.hybris.core.model.CheckoutComApplePayConfigurationModel;
 import com.checkout.hybris.core.model.CheckoutComGooglePayConfigurationModel;
@@ -16,14 +18,18 @@ import org.apache.commons.lang3.StringUtils;
 import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * Default implementation of the {@link CheckoutComMerchantConfigurationService}
+ * Default implementation of the {@link CheckoutComMerchantConfigurationService}. The plain attributes are read from the
+ * snapshots of the {@link CheckoutComMerchantConfigurationCache}, the nested apm configurations from the model.
  */
 public class DefaultCheckoutComMerchantConfigurationService implements CheckoutComMerchantConfigurationService {
 
     protected final BaseSiteService baseSiteService;
+    protected final CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache;
 
-    public DefaultCheckoutComMerchantConfigurationService(final BaseSiteService baseSiteService) {
+    public DefaultCheckoutComMerchantConfigurationService(final BaseSiteService baseSiteService,
+                                                          final CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache) {
         this.baseSiteService = baseSiteService;
+        this.checkoutComMerchantConfigurationCache = checkoutComMerchantConfigurationCache;
     }
 
     /**
@@ -31,7 +37,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public String getSecretKey() {
-        return getCurrentConfiguration().getNasSecretKey();
+        return getCurrentSnapshot().getNasSecretKey();
     }
 
     /**
@@ -39,7 +45,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public String getSignatureKey() {
-        return getCurrentConfiguration().getNasSignatureKey();
+        return getCurrentSnapshot().getNasSignatureKey();
     }
 
     /**
@@ -47,7 +53,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public String getAuthorizationKey() {
-        return getCurrentConfiguration().getNasAuthorisationHeaderKey();
+        return getCurrentSnapshot().getNasAuthorisationHeaderKey();
     }
 
     /**
@@ -55,7 +61,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public boolean isNasAuthorisationHeaderUsedOnNotificationValidation() {
-        return getCurrentConfiguration().getUseNasAuthorisationKeyOnNotifications();
+        return getCurrentSnapshot().getUseNasAuthorisationKeyOnNotifications();
     }
 
     /**
@@ -63,7 +69,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public boolean isNasSignatureKeyUsedOnNotificationValidation() {
-        return getCurrentConfiguration().getUseNasSignatureKeyOnNotifications();
+        return getCurrentSnapshot().getUseNasSignatureKeyOnNotifications();
     }
 
 
@@ -72,7 +78,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public String getPublicKey() {
-        return getCurrentConfiguration().getNasPublicKey();
+        return getCurrentSnapshot().getNasPublicKey();
     }
 
     /**
@@ -80,7 +86,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public String getPublicKeyForSite(final String siteId) {
-        return getConfigurationForSiteId(siteId).getNasPublicKey();
+        return getSnapshotForSiteId(siteId).getNasPublicKey();
     }
 
     /**
@@ -88,7 +94,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public String getPrivateSharedKey() {
-        return getCurrentConfiguration().getNasSignatureKey();
+        return getCurrentSnapshot().getNasSignatureKey();
     }
 
     /**
@@ -96,7 +102,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public EnvironmentType getEnvironment() {
-        return getCurrentConfiguration().getEnvironment();
+        return getCurrentSnapshot().getEnvironment();
     }
 
     /**
@@ -104,7 +110,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public EnvironmentType getEnvironmentForSite(final String siteId) {
-        return getConfigurationForSiteId(siteId).getEnvironment();
+        return getSnapshotForSiteId(siteId).getEnvironment();
     }
 
     /**
@@ -112,7 +118,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public PaymentActionType getPaymentAction() {
-        return getCurrentConfiguration().getPaymentAction();
+        return getCurrentSnapshot().getPaymentAction();
     }
 
     /**
@@ -120,7 +126,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public boolean isReviewTransactionsAtRisk(final String siteId) {
-        return getConfigurationForSiteId(siteId).getReviewTransactionsAtRisk();
+        return getSnapshotForSiteId(siteId).getReviewTransactionsAtRisk();
     }
 
     /**
@@ -128,7 +134,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public boolean isThreeDSEnabled() {
-        return getCurrentConfiguration().getThreeDSEnabled();
+        return getCurrentSnapshot().getThreeDSEnabled();
     }
 
     /**
@@ -136,7 +142,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public boolean isAttemptNoThreeDSecure() {
-        return getCurrentConfiguration().getNoThreeDSAttempt();
+        return getCurrentSnapshot().getNoThreeDSAttempt();
     }
 
     /**
@@ -144,7 +150,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public boolean isAutoCapture() {
-        return PaymentActionType.AUTHORIZE_AND_CAPTURE.equals(getCurrentConfiguration().getPaymentAction());
+        return PaymentActionType.AUTHORIZE_AND_CAPTURE.equals(getCurrentSnapshot().getPaymentAction());
     }
 
     /**
@@ -152,7 +158,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public BillingDescriptor getBillingDescriptor() {
-        final CheckoutComMerchantConfigurationModel configuration = getCurrentConfiguration();
+        final CheckoutComMerchantConfigurationSnapshot configuration = getCurrentSnapshot();
         final BillingDescriptor billingDescriptor = new BillingDescriptor();
         billingDescriptor.setIncludeBillingDescriptor(configuration.getIncludeBillingDescriptor());
         billingDescriptor.setBillingDescriptorName(configuration.getBillingDescriptorName());
@@ -201,7 +207,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public Double getAuthorisationAmountValidationThreshold(final String siteId) {
-        final Double authorisationAmountValidationTolerance = getConfigurationForSiteId(siteId).getAuthorisationAmountValidationThreshold();
+        final Double authorisationAmountValidationTolerance = getSnapshotForSiteId(siteId).getAuthorisationAmountValidationThreshold();
         return authorisationAmountValidationTolerance != null ? authorisationAmountValidationTolerance : Double.valueOf(0.0d);
     }
 
@@ -210,7 +216,7 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public String getSecretKeyForSite(final String siteId) {
-        return getConfigurationForSiteId(siteId).getNasSecretKey();
+        return getSnapshotForSiteId(siteId).getNasSecretKey();
     }
 
     /**
@@ -218,22 +224,38 @@ public class DefaultCheckoutComMerchantConfigurationService implements CheckoutC
      */
     @Override
     public String getProcessingChannelId() {
-        return getCurrentConfiguration().getChannelProcessingId();
+        return getCurrentSnapshot().getChannelProcessingId();
     }
 
     protected CheckoutComMerchantConfigurationModel getCurrentConfiguration() {
+        return getCurrentBaseSite().getCheckoutComMerchantConfiguration();
+    }
+
+    protected CheckoutComMerchantConfigurationModel getConfigurationForSiteId(final String siteId) {
+        return getBaseSiteForSiteId(siteId).getCheckoutComMerchantConfiguration();
+    }
+
+    protected CheckoutComMerchantConfigurationSnapshot getCurrentSnapshot() {
+        return checkoutComMerchantConfigurationCache.getSnapshot(getCurrentBaseSite());
+    }
+
+    protected CheckoutComMerchantConfigurationSnapshot getSnapshotForSiteId(final String siteId) {
+        return checkoutComMerchantConfigurationCache.getSnapshot(getBaseSiteForSiteId(siteId));
+    }
+
+    protected BaseSiteModel getCurrentBaseSite() {
         final BaseSiteModel currentBaseSite = baseSiteService.getCurrentBaseSite();
         checkArgument(currentBaseSite != null, "Current base site cannot be null");
 
-        return currentBaseSite.getCheckoutComMerchantConfiguration();
+        return currentBaseSite;
     }
 
-    protected CheckoutComMerchantConfigurationModel getConfigurationForSiteId(final String siteId) {
+    protected BaseSiteModel getBaseSiteForSiteId(final String siteId) {
         checkArgument(StringUtils.isNotBlank(siteId), "Site id is null.");
         final BaseSiteModel baseSite = baseSiteService.getBaseSiteForUID(siteId);
         checkArgument(baseSite != null, "Base site is null for id " + siteId);
 
-        return baseSite.getCheckoutComMerchantConfiguration();
+        return baseSite;
     }
 
 }
@@ -0,0 +1,123 @@
+package com.checkout.hybris.core.merchantconfiguration;
+
+import com.checkout.hybris.core.enums.EnvironmentType;
+import com.checkout.hybris.core.enums.PaymentActionType;
+import com.checkout.hybris.core.model.CheckoutComMerchantConfigurationModel;
+import de.hybris.platform.core.PK;
+
+/**
+ * Immutable copy of the plain attributes of a {@link CheckoutComMerchantConfigurationModel}, safe to share between
+ * threads and sessions. The nested apm configurations are not copied, they are still read from the model.
+ */
+public final class CheckoutComMerchantConfigurationSnapshot {
+
+    private final PK merchantConfigurationPk;
+    private final String nasSecretKey;
+    private final String nasPublicKey;
+    private final String nasSignatureKey;
+    private final String nasAuthorisationHeaderKey;
+    private final Boolean useNasAuthorisationKeyOnNotifications;
+    private final Boolean useNasSignatureKeyOnNotifications;
+    private final String channelProcessingId;
+    private final EnvironmentType environment;
+    private final PaymentActionType paymentAction;
+    private final Boolean threeDSEnabled;
+    private final Boolean noThreeDSAttempt;
+    private final Boolean reviewTransactionsAtRisk;
+    private final Double authorisationAmountValidationThreshold;
+    private final Boolean includeBillingDescriptor;
+    private final String billingDescriptorName;
+    private final String billingDescriptorCity;
+
+    private CheckoutComMerchantConfigurationSnapshot(final CheckoutComMerchantConfigurationModel configuration) {
+        this.merchantConfigurationPk = configuration.getPk();
+        this.nasSecretKey = configuration.getNasSecretKey();
+        this.nasPublicKey = configuration.getNasPublicKey();
+        this.nasSignatureKey = configuration.getNasSignatureKey();
+        this.nasAuthorisationHeaderKey = configuration.getNasAuthorisationHeaderKey();
+        this.useNasAuthorisationKeyOnNotifications = configuration.getUseNasAuthorisationKeyOnNotifications();
+        this.useNasSignatureKeyOnNotifications = configuration.getUseNasSignatureKeyOnNotifications();
+        this.channelProcessingId = configuration.getChannelProcessingId();
+        this.environment = configuration.getEnvironment();
+        this.paymentAction = configuration.getPaymentAction();
+        this.threeDSEnabled = configuration.getThreeDSEnabled();
+        this.noThreeDSAttempt = configuration.getNoThreeDSAttempt();
+        this.reviewTransactionsAtRisk = configuration.getReviewTransactionsAtRisk();
+        this.authorisationAmountValidationThreshold = configuration.getAuthorisationAmountValidationThreshold();
+        this.includeBillingDescriptor = configuration.getIncludeBillingDescriptor();
+        this.billingDescriptorName = configuration.getBillingDescriptorName();
+        this.billingDescriptorCity = configuration.getBillingDescriptorCity();
+    }
+
+    public static CheckoutComMerchantConfigurationSnapshot of(final CheckoutComMerchantConfigurationModel configuration) {
+        return new CheckoutComMerchantConfigurationSnapshot(configuration);
+    }
+
+    public PK getMerchantConfigurationPk() {
+        return merchantConfigurationPk;
+    }
+
+    public String getNasSecretKey() {
+        return nasSecretKey;
+    }
+
+    public String getNasPublicKey() {
+        return nasPublicKey;
+    }
+
+    public String getNasSignatureKey() {
+        return nasSignatureKey;
+    }
+
+    public String getNasAuthorisationHeaderKey() {
+        return nasAuthorisationHeaderKey;
+    }
+
+    public Boolean getUseNasAuthorisationKeyOnNotifications() {
+        return useNasAuthorisationKeyOnNotifications;
+    }
+
+    public Boolean getUseNasSignatureKeyOnNotifications() {
+        return useNasSignatureKeyOnNotifications;
+    }
+
+    public String getChannelProcessingId() {
+        return channelProcessingId;
+    }
+
+    public EnvironmentType getEnvironment() {
+        return environment;
+    }
+
+    public PaymentActionType getPaymentAction() {
+        return paymentAction;
+    }
+
+    public Boolean getThreeDSEnabled() {
+        return threeDSEnabled;
+    }
+
+    public Boolean getNoThreeDSAttempt() {
+        return noThreeDSAttempt;
+    }
+
+    public Boolean getReviewTransactionsAtRisk() {
+        return reviewTransactionsAtRisk;
+    }
+
+    public Double getAuthorisationAmountValidationThreshold() {
+        return authorisationAmountValidationThreshold;
+    }
+
+    public Boolean getIncludeBillingDescriptor() {
+        return includeBillingDescriptor;
+    }
+
+    public String getBillingDescriptorName() {
+        return billingDescriptorName;
+    }
+
+    public String getBillingDescriptorCity() {
+        return billingDescriptorCity;
+    }
+}
@@ -21,10 +21,13 @@ import static java.util.Optional.empty;
  */
 public class DefaultCheckoutComOrderDao extends DefaultOrderDao implements CheckoutComOrderDao {
 
-    private static final String FIND_ORDER_BY_PAYMENT_REFERENCE_QUERY = "SELECT DISTINCT absOrder.PK FROM ( {{ SELECT {" + OrderModel.PK + "} AS PK FROM {" +
+    /**
+     * Orders rank before carts, so the order placed from a cart is found when both still share the payment reference
+     */
+    private static final String FIND_ORDER_BY_PAYMENT_REFERENCE_QUERY = "SELECT absOrder.PK FROM ( {{ SELECT {" + OrderModel.PK + "} AS PK, 0 AS typeRank FROM {" +
             OrderModel._TYPECODE + "!} WHERE {" + OrderModel.CHECKOUTCOMPAYMENTREFERENCE + "} = ?paymentReference" +
-            " AND {" + OrderModel.ORIGINALVERSION + "} IS NULL }} UNION ALL {{ SELECT {" + CartModel.PK + "} AS PK FROM {" + CartModel._TYPECODE + "!} WHERE {"
-            + CartModel.CHECKOUTCOMPAYMENTREFERENCE + "} = ?paymentReference }} ) absOrder";
+            " AND {" + OrderModel.ORIGINALVERSION + "} IS NULL }} UNION ALL {{ SELECT {" + CartModel.PK + "} AS PK, 1 AS typeRank FROM {" + CartModel._TYPECODE + "!} WHERE {"
+            + CartModel.CHECKOUTCOMPAYMENTREFERENCE + "} = ?paymentReference }} ) absOrder ORDER BY absOrder.typeRank ASC, absOrder.PK ASC";
 
     /**
      * {@inheritDoc}
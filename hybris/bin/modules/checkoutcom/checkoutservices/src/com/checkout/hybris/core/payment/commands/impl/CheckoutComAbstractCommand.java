@@ -1,13 +1,19 @@
 package com.checkout.hybris.core.payment.commands.impl;
 
 import com.checkout.CheckoutApiException;
+import com.checkout.CheckoutException;
 import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
 import de.hybris.platform.payment.commands.result.AbstractResult;
 import de.hybris.platform.payment.dto.TransactionStatusDetails;
+import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import static de.hybris.platform.payment.dto.TransactionStatusDetails.COMMUNICATION_PROBLEM;
 import static de.hybris.platform.payment.dto.TransactionStatusDetails.INVALID_REQUEST;
@@ -19,25 +25,51 @@ public abstract class CheckoutComAbstractCommand {
 
     protected static final Logger LOG = LogManager.getLogger(CheckoutComAbstractCommand.class);
 
+    protected static final int SC_TOO_MANY_REQUESTS = 429;
+
     /**
-     * Handle the ExecutionException calling the checkout.com sdk
+     * Handle the ExecutionException calling the checkout.com sdk. The call is retried when it may not have been
+     * processed: no response was received, the request timed out, or checkout.com answered with a throttling or server
+     * error. It is sent again with the same idempotency key, so it is not processed twice. Any other error is a
+     * definite rejection of the request.
      *
      * @param e the exception
      * @return the populated result
+     * @throws CheckoutComPaymentIntegrationException when the call has to be retried
      */
     protected AbstractResult handleExecutionException(final ExecutionException e) {
         final Throwable cause = e.getCause();
         if (cause instanceof CheckoutApiException apiException) {
-            final int httpStatusCode = apiException.getHttpStatusCode();
-            if (httpStatusCode >= 500) {
-                LOG.error("CheckoutApiException exception with status code [{}] found.", httpStatusCode);
+            if (isRetryable(apiException)) {
+                LOG.error("CheckoutApiException exception with status code [{}] found, transport failure [{}].",
+                        apiException.getHttpStatusCode(), apiException.isTransportFailure());
                 throw new CheckoutComPaymentIntegrationException(cause.getMessage());
             }
+        } else if (cause instanceof CheckoutException || cause instanceof IOException || cause instanceof TimeoutException) {
+            LOG.error("Checkout.com call failed without a response: [{}].", cause.getMessage());
+            throw new CheckoutComPaymentIntegrationException(cause.getMessage());
         }
 
         return createErrorResult(INVALID_REQUEST);
     }
 
+    protected boolean isRetryable(final CheckoutApiException apiException) {
+        final Integer httpStatusCode = apiException.getHttpStatusCode();
+        return apiException.isTransportFailure() || httpStatusCode == null || httpStatusCode >= 500
+                || httpStatusCode == HttpStatus.SC_REQUEST_TIMEOUT || httpStatusCode == SC_TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Creates the idempotency key of the checkout.com call of a transaction entry. It is derived from the merchant
+     * transaction code, so the retries of the call by the SDK transport are not processed twice by checkout.com
+     *
+     * @param merchantTransactionCode the code of the payment transaction entry the call is made for
+     * @return the idempotency key
+     */
+    protected String createIdempotencyKey(final String merchantTransactionCode) {
+        return UUID.nameUUIDFromBytes(merchantTransactionCode.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
     protected AbstractResult handleCancellationException() {
         return createErrorResult(COMMUNICATION_PROBLEM);
     }
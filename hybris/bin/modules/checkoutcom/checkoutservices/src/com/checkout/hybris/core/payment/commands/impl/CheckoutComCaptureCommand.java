@@ -75,7 +75,8 @@ public class CheckoutComCaptureCommand extends CheckoutComAbstractCommand implem
     protected CaptureResult capture(final de.hybris.platform.payment.commands.request.CaptureRequest captureRequest, final String paymentReferenceNumber) throws InterruptedException, ExecutionException {
         final CaptureRequest capturePaymentRequest = checkoutComRequestFactory.createCapturePaymentRequest(captureRequest.getTotalAmount(), paymentReferenceNumber, captureRequest.getCurrency().getCurrencyCode());
 
-        final CaptureResponse captureResponse = checkoutComPaymentIntegrationService.capturePayment(capturePaymentRequest, captureRequest.getRequestId());
+        final CaptureResponse captureResponse = checkoutComPaymentIntegrationService.capturePayment(capturePaymentRequest, captureRequest.getRequestId(),
+                createIdempotencyKey(captureRequest.getMerchantTransactionCode()));
 
         CaptureResult captureResult = new CaptureResult();
         captureResult.setCurrency(captureRequest.getCurrency());
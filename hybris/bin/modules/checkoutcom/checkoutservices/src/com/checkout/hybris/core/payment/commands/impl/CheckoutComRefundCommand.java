@@ -74,7 +74,8 @@ public class CheckoutComRefundCommand extends CheckoutComAbstractCommand impleme
     protected RefundResult refund(final FollowOnRefundRequest refundRequest, final String paymentReferenceNumber) throws InterruptedException, ExecutionException {
         final RefundRequest refundPaymentRequest = checkoutComRequestFactory.createRefundPaymentRequest(refundRequest.getTotalAmount(), paymentReferenceNumber, refundRequest.getCurrency().getCurrencyCode());
 
-        final RefundResponse refundResponse = checkoutComPaymentIntegrationService.refundPayment(refundPaymentRequest, refundRequest.getRequestId());
+        final RefundResponse refundResponse = checkoutComPaymentIntegrationService.refundPayment(refundPaymentRequest, refundRequest.getRequestId(),
+                createIdempotencyKey(refundRequest.getMerchantTransactionCode()));
 
         RefundResult refundResult = new RefundResult();
         refundResult.setCurrency(refundRequest.getCurrency());
@@ -73,7 +73,8 @@ public class CheckoutComVoidCommand extends CheckoutComAbstractCommand implement
     protected VoidResult voidAuthorization(final VoidRequest voidRequest, final String paymentReferenceNumber) throws InterruptedException, ExecutionException {
         final com.checkout.payments.VoidRequest voidPaymentRequest = checkoutComRequestFactory.createVoidPaymentRequest(paymentReferenceNumber);
 
-        final VoidResponse voidResponse = checkoutComPaymentIntegrationService.voidPayment(voidPaymentRequest, voidRequest.getRequestId());
+        final VoidResponse voidResponse = checkoutComPaymentIntegrationService.voidPayment(voidPaymentRequest, voidRequest.getRequestId(),
+                createIdempotencyKey(voidRequest.getMerchantTransactionCode()));
 
         final VoidResult voidResult = new VoidResult();
         voidResult.setCurrency(voidRequest.getCurrency());
@@ -0,0 +1,44 @@
+package com.checkout.hybris.core.payment.daos;
+
+import de.hybris.platform.core.model.ItemModel;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Dao interface shared by the command outboxes, to find the due commands and claim them for a single dispatch
+ *
+ * @param <T> the type of the commands
+ */
+public interface CheckoutComCommandDao<T extends ItemModel> {
+
+    /**
+     * Finds the commands to dispatch: the pending ones whose next attempt is due, and the ones left in progress by a
+     * dispatcher that stopped before recording their outcome
+     *
+     * @param now         the current time
+     * @param staleBefore commands in progress not modified since this time are dispatched again
+     * @param count       the maximum number of commands to return
+     * @return the commands to dispatch, the oldest due first
+     */
+    List<T> findDueCommands(Date now, Date staleBefore, int count);
+
+    /**
+     * Marks the command as in progress with a conditional update, which only succeeds while the command is still due
+     * in the database. Of the dispatchers that found the same command, only one claims it.
+     *
+     * @param command     the command to claim
+     * @param now         the current time
+     * @param staleBefore commands in progress not modified since this time can be claimed again
+     * @return true if the command has been claimed
+     */
+    boolean claimCommand(T command, Date now, Date staleBefore);
+
+    /**
+     * Puts a claimed command back to pending, so the next poll dispatches it
+     *
+     * @param command the claimed command
+     * @return true if the command was still in progress and has been released
+     */
+    boolean releaseCommand(T command);
+}
@@ -0,0 +1,49 @@
+package com.checkout.hybris.core.payment.daos;
+
+import com.checkout.hybris.core.model.CheckoutComInstrumentCommandModel;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Dao interface to get the instrument commands recorded for the stored cards from DB
+ */
+public interface CheckoutComInstrumentCommandDao extends CheckoutComCommandDao<CheckoutComInstrumentCommandModel> {
+
+    /**
+     * Finds the instrument command with the given idempotency key
+     *
+     * @param idempotencyKey the idempotency key of the command
+     * @return the command if it has been recorded
+     */
+    Optional<CheckoutComInstrumentCommandModel> findCommandByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Finds the instrument commands with the given idempotency keys
+     *
+     * @param idempotencyKeys the idempotency keys of the commands
+     * @return the commands recorded, a key without command has no entry
+     */
+    List<CheckoutComInstrumentCommandModel> findCommandsByIdempotencyKeys(Collection<String> idempotencyKeys);
+
+    /**
+     * Finds the pending commands of the given instrument
+     *
+     * @param instrumentId the id of the Checkout.com instrument
+     * @return the pending commands of the instrument
+     */
+    List<CheckoutComInstrumentCommandModel> findPendingCommands(String instrumentId);
+
+    /**
+     * Sets the card details of an update command, if it is still pending. An update claimed by a dispatcher in the
+     * meantime is left as it is, its details may already have been sent.
+     *
+     * @param command        the update command
+     * @param cardHolderName the name of the card holder
+     * @param expiryMonth    the expiry month of the card
+     * @param expiryYear     the expiry year of the card
+     * @return true if the command was pending and has been updated
+     */
+    boolean updatePendingCommand(CheckoutComInstrumentCommandModel command, String cardHolderName, Integer expiryMonth, Integer expiryYear);
+}
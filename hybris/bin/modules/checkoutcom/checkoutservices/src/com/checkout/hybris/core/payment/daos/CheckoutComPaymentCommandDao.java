@@ -0,0 +1,19 @@
+package com.checkout.hybris.core.payment.daos;
+
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+
+import java.util.Optional;
+
+/**
+ * Dao interface to get the payment commands recorded by the business processes from DB
+ */
+public interface CheckoutComPaymentCommandDao extends CheckoutComCommandDao<CheckoutComPaymentCommandModel> {
+
+    /**
+     * Finds the payment command with the given idempotency key
+     *
+     * @param idempotencyKey the idempotency key of the command
+     * @return the command if it has been recorded
+     */
+    Optional<CheckoutComPaymentCommandModel> findCommandByIdempotencyKey(String idempotencyKey);
+}
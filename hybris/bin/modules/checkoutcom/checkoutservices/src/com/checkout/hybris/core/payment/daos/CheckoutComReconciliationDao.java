@@ -0,0 +1,54 @@
+package com.checkout.hybris.core.payment.daos;
+
+import com.checkout.hybris.core.model.CheckoutComReconciliationDiscrepancyModel;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+import de.hybris.platform.payment.model.PaymentTransactionModel;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Dao interface to get, one batch of report rows at a time, the items the Checkout.com actions are reconciled with
+ */
+public interface CheckoutComReconciliationDao {
+
+    /**
+     * Finds the payment transaction entries recorded for the given actions
+     *
+     * @param actionIds the Checkout.com action ids, stored as request token of the entries
+     * @return the entries of the actions, an action can have several entries
+     */
+    List<PaymentTransactionEntryModel> findTransactionEntriesByActionIds(Collection<String> actionIds);
+
+    /**
+     * Finds the payment transactions of the given payments
+     *
+     * @param paymentIds the Checkout.com payment ids, stored as request id of the transactions
+     * @return the payment transactions found
+     */
+    List<PaymentTransactionModel> findPaymentTransactionsByPaymentIds(Collection<String> paymentIds);
+
+    /**
+     * Finds the payment transactions of the given payment references
+     *
+     * @param paymentReferences the payment references, stored as code of the transactions
+     * @return the payment transactions found
+     */
+    List<PaymentTransactionModel> findPaymentTransactionsByPaymentReferences(Collection<String> paymentReferences);
+
+    /**
+     * Finds the discrepancies already recorded for the given actions
+     *
+     * @param actionIds the Checkout.com action ids
+     * @return the discrepancies found, at most one per action
+     */
+    List<CheckoutComReconciliationDiscrepancyModel> findDiscrepanciesByActionIds(Collection<String> actionIds);
+
+    /**
+     * Finds which of the given actions have already been received as payment event, whatever their status
+     *
+     * @param actionIds the Checkout.com action ids
+     * @return the action ids of the payment events found
+     */
+    List<String> findPaymentEventActionIds(Collection<String> actionIds);
+}
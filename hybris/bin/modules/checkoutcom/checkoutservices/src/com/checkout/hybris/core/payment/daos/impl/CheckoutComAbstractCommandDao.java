@@ -0,0 +1,139 @@
+package com.checkout.hybris.core.payment.daos.impl;
+
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.payment.daos.CheckoutComCommandDao;
+import de.hybris.platform.core.HybrisEnumValue;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.core.model.type.ComposedTypeModel;
+import de.hybris.platform.servicelayer.internal.dao.AbstractItemDao;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.servicelayer.type.TypeService;
+import de.hybris.platform.util.Utilities;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+
+/**
+ * Base of the command outbox daos. The state changes that decide which dispatcher sends a command, or whether a
+ * command can still be changed, are made with conditional sql updates: the model service saves the attributes without
+ * comparing them with the database, so two nodes saving the same change would both succeed.
+ *
+ * @param <T> the type of the commands
+ */
+public abstract class CheckoutComAbstractCommandDao<T extends ItemModel> extends AbstractItemDao implements CheckoutComCommandDao<T> {
+
+    protected static final String STATUS = "status";
+    protected static final String NEXT_ATTEMPT_TIME = "nextAttemptTime";
+
+    protected final TypeService typeService;
+    protected final TimeService timeService;
+
+    protected CheckoutComAbstractCommandDao(final TypeService typeService, final TimeService timeService) {
+        this.typeService = typeService;
+        this.timeService = timeService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean claimCommand(final T command, final Date now, final Date staleBefore) {
+        validateParameterNotNull(command, "Command cannot be null");
+        validateParameterNotNull(now, "Current time cannot be null");
+        validateParameterNotNull(staleBefore, "Stale time cannot be null");
+
+        final String status = getColumn(STATUS);
+        final String modifiedTime = getColumn(ItemModel.MODIFIEDTIME);
+        return updateCommand(command, Map.of(STATUS, CheckoutComPaymentCommandStatus.IN_PROGRESS),
+                "((" + status + " = ? AND " + getColumn(NEXT_ATTEMPT_TIME) + " <= ?) OR (" + status + " = ? AND " + modifiedTime + " < ?))",
+                CheckoutComPaymentCommandStatus.PENDING, now, CheckoutComPaymentCommandStatus.IN_PROGRESS, staleBefore);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean releaseCommand(final T command) {
+        validateParameterNotNull(command, "Command cannot be null");
+
+        return updateCommand(command, Map.of(STATUS, CheckoutComPaymentCommandStatus.PENDING),
+                getColumn(STATUS) + " = ?", CheckoutComPaymentCommandStatus.IN_PROGRESS);
+    }
+
+    /**
+     * Updates the given attributes of the command when its row matches the condition, and bumps its modified time and
+     * version. The modified time is taken from the time service, as the stale claims are compared with its time. The command is evicted from the cache of every cluster node, so the next read loads the new values.
+     *
+     * @param command    the command to update
+     * @param values     the new values, by attribute qualifier
+     * @param condition  the sql condition the row has to match, with the columns of the type
+     * @param parameters the parameters of the condition
+     * @return true if the row matched the condition and has been updated
+     */
+    protected boolean updateCommand(final T command, final Map<String, Object> values, final String condition, final Object... parameters) {
+        final StringBuilder sql = new StringBuilder("UPDATE ").append(getComposedType().getTable()).append(" SET ");
+        final List<Object> arguments = new ArrayList<>();
+        final Map<String, Object> columnValues = new LinkedHashMap<>(values);
+        columnValues.put(ItemModel.MODIFIEDTIME, timeService.getCurrentTime());
+        columnValues.forEach((qualifier, value) -> {
+            sql.append(getColumn(qualifier)).append(" = ?, ");
+            arguments.add(toSqlValue(value));
+        });
+        sql.append("hjmpTS = hjmpTS + 1 WHERE PK = ? AND ").append(condition);
+        arguments.add(command.getPk().getLong());
+        for (final Object parameter : parameters) {
+            arguments.add(toSqlValue(parameter));
+        }
+
+        final boolean updated = getJdbcTemplate().update(sql.toString(), arguments.toArray()) > 0;
+        if (updated) {
+            invalidateCache(command.getPk());
+        }
+        return updated;
+    }
+
+    protected Object toSqlValue(final Object value) {
+        if (value instanceof HybrisEnumValue enumValue) {
+            return typeService.getEnumerationValue(enumValue).getPk().getLong();
+        }
+        if (value instanceof Date date) {
+            return new Timestamp(date.getTime());
+        }
+        return value;
+    }
+
+    protected String getColumn(final String qualifier) {
+        return typeService.getAttributeDescriptor(getComposedType(), qualifier).getDatabaseColumn();
+    }
+
+    protected ComposedTypeModel getComposedType() {
+        return typeService.getComposedTypeForCode(getTypeCode());
+    }
+
+    /**
+     * Removes the command updated with a direct sql statement from the cache of every cluster node
+     *
+     * @param pk the pk of the updated command
+     */
+    protected void invalidateCache(final PK pk) {
+        Utilities.invalidateCache(pk);
+    }
+
+    protected JdbcTemplate getJdbcTemplate() {
+        return new JdbcTemplate(Registry.getCurrentTenant().getDataSource());
+    }
+
+    /**
+     * @return the type code of the commands
+     */
+    protected abstract String getTypeCode();
+}
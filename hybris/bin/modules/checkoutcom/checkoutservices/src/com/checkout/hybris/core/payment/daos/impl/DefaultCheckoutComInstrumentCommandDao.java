@@ -0,0 +1,151 @@
+package com.checkout.hybris.core.payment.daos.impl;
+
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.model.CheckoutComInstrumentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComInstrumentCommandDao;
+import com.google.common.base.Preconditions;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
+import de.hybris.platform.servicelayer.search.SearchResult;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.servicelayer.type.TypeService;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Default implementation of {@link CheckoutComInstrumentCommandDao}
+ */
+public class DefaultCheckoutComInstrumentCommandDao extends CheckoutComAbstractCommandDao<CheckoutComInstrumentCommandModel>
+        implements CheckoutComInstrumentCommandDao {
+
+    protected static final String FIND_COMMANDS_BY_IDEMPOTENCY_KEYS_QUERY = "SELECT {" + CheckoutComInstrumentCommandModel.PK + "}" +
+            " FROM {" + CheckoutComInstrumentCommandModel._TYPECODE + "}" +
+            " WHERE {" + CheckoutComInstrumentCommandModel.IDEMPOTENCYKEY + "} IN (?idempotencyKeys)";
+
+    protected static final String FIND_PENDING_COMMANDS_QUERY = "SELECT {" + CheckoutComInstrumentCommandModel.PK + "}" +
+            " FROM {" + CheckoutComInstrumentCommandModel._TYPECODE + "}" +
+            " WHERE {" + CheckoutComInstrumentCommandModel.INSTRUMENTID + "} = ?instrumentId" +
+            " AND {" + CheckoutComInstrumentCommandModel.STATUS + "} = ?pending" +
+            " ORDER BY {" + ItemModel.CREATIONTIME + "} ASC";
+
+    protected static final String FIND_DUE_COMMANDS_QUERY = "SELECT {c." + CheckoutComInstrumentCommandModel.PK + "}" +
+            " FROM {" + CheckoutComInstrumentCommandModel._TYPECODE + " AS c}" +
+            " WHERE (({c." + CheckoutComInstrumentCommandModel.STATUS + "} = ?pending" +
+            " AND {c." + CheckoutComInstrumentCommandModel.NEXTATTEMPTTIME + "} <= ?now)" +
+            " OR ({c." + CheckoutComInstrumentCommandModel.STATUS + "} = ?inProgress" +
+            " AND {c." + ItemModel.MODIFIEDTIME + "} < ?staleBefore))" +
+            " AND NOT EXISTS ({{SELECT {o." + CheckoutComInstrumentCommandModel.PK + "}" +
+            " FROM {" + CheckoutComInstrumentCommandModel._TYPECODE + " AS o}" +
+            " WHERE {o." + CheckoutComInstrumentCommandModel.INSTRUMENTID + "} = {c." + CheckoutComInstrumentCommandModel.INSTRUMENTID + "}" +
+            " AND {o." + CheckoutComInstrumentCommandModel.STATUS + "} IN (?unfinished)" +
+            " AND ({o." + ItemModel.CREATIONTIME + "} < {c." + ItemModel.CREATIONTIME + "}" +
+            " OR ({o." + ItemModel.CREATIONTIME + "} = {c." + ItemModel.CREATIONTIME + "}" +
+            " AND {o." + CheckoutComInstrumentCommandModel.PK + "} < {c." + CheckoutComInstrumentCommandModel.PK + "}))}})" +
+            " ORDER BY {c." + CheckoutComInstrumentCommandModel.NEXTATTEMPTTIME + "} ASC";
+
+    public DefaultCheckoutComInstrumentCommandDao(final TypeService typeService, final TimeService timeService) {
+        super(typeService, timeService);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<CheckoutComInstrumentCommandModel> findCommandByIdempotencyKey(final String idempotencyKey) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(idempotencyKey), "The idempotency key cannot be null.");
+
+        return findCommandsByIdempotencyKeys(Collections.singletonList(idempotencyKey)).stream().findFirst();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComInstrumentCommandModel> findCommandsByIdempotencyKeys(final Collection<String> idempotencyKeys) {
+        if (CollectionUtils.isEmpty(idempotencyKeys)) {
+            return Collections.emptyList();
+        }
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(FIND_COMMANDS_BY_IDEMPOTENCY_KEYS_QUERY);
+        fQuery.addQueryParameter("idempotencyKeys", idempotencyKeys);
+
+        final SearchResult<CheckoutComInstrumentCommandModel> searchResult = getFlexibleSearchService().search(fQuery);
+        return searchResult.getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComInstrumentCommandModel> findPendingCommands(final String instrumentId) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(instrumentId), "The instrument id cannot be null.");
+
+        final Map<String, Object> queryParams = new HashMap<>();
+        queryParams.put("instrumentId", instrumentId);
+        queryParams.put("pending", CheckoutComPaymentCommandStatus.PENDING);
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(FIND_PENDING_COMMANDS_QUERY);
+        fQuery.addQueryParameters(queryParams);
+
+        final SearchResult<CheckoutComInstrumentCommandModel> searchResult = getFlexibleSearchService().search(fQuery);
+        return searchResult.getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The commands of an instrument are sent one at a time, in the order they were recorded: only the oldest
+     * unfinished command of each instrument is returned, so an update is never sent in parallel with, or after, a
+     * newer command of the same instrument.
+     */
+    @Override
+    public List<CheckoutComInstrumentCommandModel> findDueCommands(final Date now, final Date staleBefore, final int count) {
+        Preconditions.checkArgument(now != null && staleBefore != null, "The dates cannot be null.");
+        Preconditions.checkArgument(count > 0, "The count must be greater than zero.");
+
+        final Map<String, Object> queryParams = new HashMap<>();
+        queryParams.put("pending", CheckoutComPaymentCommandStatus.PENDING);
+        queryParams.put("inProgress", CheckoutComPaymentCommandStatus.IN_PROGRESS);
+        queryParams.put("unfinished", List.of(CheckoutComPaymentCommandStatus.PENDING, CheckoutComPaymentCommandStatus.IN_PROGRESS));
+        queryParams.put("now", now);
+        queryParams.put("staleBefore", staleBefore);
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(FIND_DUE_COMMANDS_QUERY);
+        fQuery.addQueryParameters(queryParams);
+        fQuery.setCount(count);
+
+        final SearchResult<CheckoutComInstrumentCommandModel> searchResult = getFlexibleSearchService().search(fQuery);
+        return searchResult.getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean updatePendingCommand(final CheckoutComInstrumentCommandModel command, final String cardHolderName,
+                                        final Integer expiryMonth, final Integer expiryYear) {
+        Preconditions.checkArgument(command != null, "The command cannot be null.");
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put(CheckoutComInstrumentCommandModel.CARDHOLDERNAME, cardHolderName);
+        values.put(CheckoutComInstrumentCommandModel.EXPIRYMONTH, expiryMonth);
+        values.put(CheckoutComInstrumentCommandModel.EXPIRYYEAR, expiryYear);
+        return updateCommand(command, values, getColumn(STATUS) + " = ?", CheckoutComPaymentCommandStatus.PENDING);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getTypeCode() {
+        return CheckoutComInstrumentCommandModel._TYPECODE;
+    }
+}
@@ -0,0 +1,84 @@
+package com.checkout.hybris.core.payment.daos.impl;
+
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComPaymentCommandDao;
+import com.google.common.base.Preconditions;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
+import de.hybris.platform.servicelayer.search.SearchResult;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.servicelayer.type.TypeService;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Default implementation of {@link CheckoutComPaymentCommandDao}
+ */
+public class DefaultCheckoutComPaymentCommandDao extends CheckoutComAbstractCommandDao<CheckoutComPaymentCommandModel> implements CheckoutComPaymentCommandDao {
+
+    protected static final String FIND_COMMAND_BY_IDEMPOTENCY_KEY_QUERY = "SELECT {" + CheckoutComPaymentCommandModel.PK + "}" +
+            " FROM {" + CheckoutComPaymentCommandModel._TYPECODE + "}" +
+            " WHERE {" + CheckoutComPaymentCommandModel.IDEMPOTENCYKEY + "} = ?idempotencyKey";
+
+    protected static final String FIND_DUE_COMMANDS_QUERY = "SELECT {" + CheckoutComPaymentCommandModel.PK + "}" +
+            " FROM {" + CheckoutComPaymentCommandModel._TYPECODE + "}" +
+            " WHERE ({" + CheckoutComPaymentCommandModel.STATUS + "} = ?pending" +
+            " AND {" + CheckoutComPaymentCommandModel.NEXTATTEMPTTIME + "} <= ?now)" +
+            " OR ({" + CheckoutComPaymentCommandModel.STATUS + "} = ?inProgress" +
+            " AND {" + ItemModel.MODIFIEDTIME + "} < ?staleBefore)" +
+            " ORDER BY {" + CheckoutComPaymentCommandModel.NEXTATTEMPTTIME + "} ASC";
+
+    public DefaultCheckoutComPaymentCommandDao(final TypeService typeService, final TimeService timeService) {
+        super(typeService, timeService);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<CheckoutComPaymentCommandModel> findCommandByIdempotencyKey(final String idempotencyKey) {
+        Preconditions.checkArgument(StringUtils.isNotBlank(idempotencyKey), "The idempotency key cannot be null.");
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(FIND_COMMAND_BY_IDEMPOTENCY_KEY_QUERY);
+        fQuery.addQueryParameter("idempotencyKey", idempotencyKey);
+
+        final SearchResult<CheckoutComPaymentCommandModel> searchResult = getFlexibleSearchService().search(fQuery);
+        return searchResult.getResult().stream().findFirst();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComPaymentCommandModel> findDueCommands(final Date now, final Date staleBefore, final int count) {
+        Preconditions.checkArgument(now != null && staleBefore != null, "The dates cannot be null.");
+        Preconditions.checkArgument(count > 0, "The count must be greater than zero.");
+
+        final Map<String, Object> queryParams = new HashMap<>();
+        queryParams.put("pending", CheckoutComPaymentCommandStatus.PENDING);
+        queryParams.put("inProgress", CheckoutComPaymentCommandStatus.IN_PROGRESS);
+        queryParams.put("now", now);
+        queryParams.put("staleBefore", staleBefore);
+
+        final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(FIND_DUE_COMMANDS_QUERY);
+        fQuery.addQueryParameters(queryParams);
+        fQuery.setCount(count);
+
+        final SearchResult<CheckoutComPaymentCommandModel> searchResult = getFlexibleSearchService().search(fQuery);
+        return searchResult.getResult();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getTypeCode() {
+        return CheckoutComPaymentCommandModel._TYPECODE;
+    }
+}
@@ -0,0 +1,122 @@
+package com.checkout.hybris.core.payment.daos.impl;
+
+import com.checkout.hybris.core.model.CheckoutComReconciliationDiscrepancyModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComReconciliationDao;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+import de.hybris.platform.payment.model.PaymentTransactionModel;
+import de.hybris.platform.servicelayer.internal.dao.AbstractItemDao;
+import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
+import de.hybris.platform.servicelayer.search.SearchResult;
+import org.apache.commons.collections4.CollectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Default implementation of {@link CheckoutComReconciliationDao}. Every query is an indexed IN lookup, so a batch of
+ * report rows costs a fixed number of database round trips. The values are bound in chunks of at most 1000, the
+ * largest IN list Oracle accepts, so a batch larger than that costs one round trip per chunk
+ */
+public class DefaultCheckoutComReconciliationDao extends AbstractItemDao implements CheckoutComReconciliationDao {
+
+    protected static final String FIND_ENTRIES_BY_ACTION_IDS_QUERY = "SELECT {" + PaymentTransactionEntryModel.PK + "}" +
+            " FROM {" + PaymentTransactionEntryModel._TYPECODE + "}" +
+            " WHERE {" + PaymentTransactionEntryModel.REQUESTTOKEN + "} IN (?actionIds)";
+
+    protected static final String FIND_TRANSACTIONS_BY_PAYMENT_IDS_QUERY = "SELECT {" + PaymentTransactionModel.PK + "}" +
+            " FROM {" + PaymentTransactionModel._TYPECODE + "}" +
+            " WHERE {" + PaymentTransactionModel.REQUESTID + "} IN (?paymentIds)";
+
+    protected static final String FIND_TRANSACTIONS_BY_CODES_QUERY = "SELECT {" + PaymentTransactionModel.PK + "}" +
+            " FROM {" + PaymentTransactionModel._TYPECODE + "}" +
+            " WHERE {" + PaymentTransactionModel.CODE + "} IN (?paymentReferences)";
+
+    protected static final String FIND_DISCREPANCIES_BY_ACTION_IDS_QUERY = "SELECT {" + CheckoutComReconciliationDiscrepancyModel.PK + "}" +
+            " FROM {" + CheckoutComReconciliationDiscrepancyModel._TYPECODE + "}" +
+            " WHERE {" + CheckoutComReconciliationDiscrepancyModel.ACTIONID + "} IN (?actionIds)";
+
+    protected static final String FIND_EVENT_ACTION_IDS_QUERY = "SELECT {" + CheckoutComPaymentEventModel.ACTIONID + "}" +
+            " FROM {" + CheckoutComPaymentEventModel._TYPECODE + "}" +
+            " WHERE {" + CheckoutComPaymentEventModel.ACTIONID + "} IN (?actionIds)";
+
+    protected static final String ACTION_IDS = "actionIds";
+    protected static final int MAX_IN_VALUES = 1000;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PaymentTransactionEntryModel> findTransactionEntriesByActionIds(final Collection<String> actionIds) {
+        return search(FIND_ENTRIES_BY_ACTION_IDS_QUERY, ACTION_IDS, actionIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PaymentTransactionModel> findPaymentTransactionsByPaymentIds(final Collection<String> paymentIds) {
+        return search(FIND_TRANSACTIONS_BY_PAYMENT_IDS_QUERY, "paymentIds", paymentIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<PaymentTransactionModel> findPaymentTransactionsByPaymentReferences(final Collection<String> paymentReferences) {
+        return search(FIND_TRANSACTIONS_BY_CODES_QUERY, "paymentReferences", paymentReferences);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComReconciliationDiscrepancyModel> findDiscrepanciesByActionIds(final Collection<String> actionIds) {
+        return search(FIND_DISCREPANCIES_BY_ACTION_IDS_QUERY, ACTION_IDS, actionIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> findPaymentEventActionIds(final Collection<String> actionIds) {
+        return search(FIND_EVENT_ACTION_IDS_QUERY, ACTION_IDS, actionIds, String.class);
+    }
+
+    protected <T> List<T> search(final String query, final String parameter, final Collection<String> values) {
+        return search(query, parameter, values, null);
+    }
+
+    /**
+     * Runs the IN query once per chunk of values and collects the results
+     *
+     * @param query       the query, binding the values to the given parameter
+     * @param parameter   the parameter of the IN list
+     * @param values      the values to look up
+     * @param resultClass the class of the selected column, null when the query selects items
+     * @return the results of all the chunks
+     */
+    protected <T> List<T> search(final String query, final String parameter, final Collection<String> values, final Class<T> resultClass) {
+        Preconditions.checkArgument(values != null, "The " + parameter + " cannot be null.");
+        if (CollectionUtils.isEmpty(values)) {
+            return Collections.emptyList();
+        }
+
+        final List<T> results = new ArrayList<>();
+        for (final List<String> chunk : Iterables.partition(values, MAX_IN_VALUES)) {
+            final FlexibleSearchQuery fQuery = new FlexibleSearchQuery(query);
+            fQuery.addQueryParameter(parameter, chunk);
+            if (resultClass != null) {
+                fQuery.setResultClassList(Collections.singletonList(resultClass));
+            }
+
+            final SearchResult<T> searchResult = getFlexibleSearchService().search(fQuery);
+            results.addAll(searchResult.getResult());
+        }
+        return results;
+    }
+}
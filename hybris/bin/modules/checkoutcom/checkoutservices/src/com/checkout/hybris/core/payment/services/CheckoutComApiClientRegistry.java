@@ -0,0 +1,60 @@
+package com.checkout.hybris.core.payment.services;
+
+import com.checkout.CheckoutApi;
+import com.checkout.hybris.core.enums.EnvironmentType;
+import com.checkout.hybris.core.payment.api.CheckoutComApiClientPoolStats;
+import com.checkout.hybris.core.payment.api.CheckoutComTransportExecutorStats;
+import com.checkout.hybris.core.payment.api.CheckoutComTransportResilienceStats;
+
+import java.util.List;
+
+/**
+ * Holds long-lived, pooled checkout.com SDK clients so the connections and TLS sessions can be reused across calls
+ */
+public interface CheckoutComApiClientRegistry {
+
+    /**
+     * Returns the cached checkout.com api for the given site and credentials, creating a new pooled one if needed.
+     * When the credentials of a site change, the client built with the previous ones is retired.
+     *
+     * @param siteUid     the uid of the site the client belongs to
+     * @param secretKey   the secret key of the merchant
+     * @param publicKey   the public key of the merchant
+     * @param environment the checkout.com environment
+     * @return the checkout.com sdk api
+     */
+    CheckoutApi getCheckoutApi(String siteUid, String secretKey, String publicKey, EnvironmentType environment);
+
+    /**
+     * Retires every client created with the given secret key
+     *
+     * @param secretKey the secret key whose clients should be removed
+     */
+    void invalidateBySecretKey(String secretKey);
+
+    /**
+     * Retires every client held by the registry
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the connection pool statistics of every client held by the registry
+     *
+     * @return the pool statistics, one entry per client
+     */
+    List<CheckoutComApiClientPoolStats> getPoolStats();
+
+    /**
+     * Returns the statistics of the executor the clients run their calls on
+     *
+     * @return the executor statistics
+     */
+    CheckoutComTransportExecutorStats getTransportExecutorStats();
+
+    /**
+     * Returns the retry and circuit breaker statistics of the calls of the clients
+     *
+     * @return the resilience statistics
+     */
+    CheckoutComTransportResilienceStats getTransportResilienceStats();
+}
@@ -0,0 +1,39 @@
+package com.checkout.hybris.core.payment.services;
+
+import de.hybris.platform.core.PK;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+
+/**
+ * Holds the mutual TLS context and the pooled http client used to validate the Apple Pay merchant of each site, so
+ * the certificate and private key are only parsed again when the Apple Pay configuration changes
+ */
+public interface CheckoutComApplePayClientRegistry {
+
+    /**
+     * Returns the ssl context built with the Apple Pay certificate and private key of the current site
+     *
+     * @return the ssl context
+     */
+    SSLContext getSslContext();
+
+    /**
+     * Returns the pooled rest template presenting the Apple Pay certificate of the current site
+     *
+     * @return the rest template
+     */
+    RestTemplate getRestTemplate();
+
+    /**
+     * Retires every client built from the given Apple Pay configuration
+     *
+     * @param applePayConfigurationPk the pk of the changed Apple Pay configuration
+     */
+    void invalidateByApplePayConfiguration(PK applePayConfigurationPk);
+
+    /**
+     * Retires every client held by the registry
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,51 @@
+package com.checkout.hybris.core.payment.services;
+
+import com.checkout.hybris.core.model.CheckoutComInstrumentCommandModel;
+import de.hybris.platform.core.model.order.payment.CreditCardPaymentInfoModel;
+
+import java.util.Collection;
+
+/**
+ * Records the deletes and updates of the stored Checkout.com instruments as instrument commands, sent to Checkout.com
+ * by the instrument command dispatcher instead of the thread of the customer request
+ */
+public interface CheckoutComInstrumentCommandService {
+
+    /**
+     * Records the delete of the instrument of the given card, or returns the one already recorded for the instrument
+     *
+     * @param creditCardPaymentInfo the card whose instrument is deleted
+     * @param siteUid               the uid of the site whose merchant owns the instrument
+     * @return the recorded command
+     */
+    CheckoutComInstrumentCommandModel submitDeleteCommand(CreditCardPaymentInfoModel creditCardPaymentInfo, String siteUid);
+
+    /**
+     * Records the update of the instrument of the given card with its current holder name and expiry date. The latest
+     * pending update of the instrument is updated in place while it is still pending, a new update is recorded
+     * otherwise. No update is recorded once the instrument is being deleted.
+     *
+     * @param creditCardPaymentInfo the card whose instrument is updated
+     * @param siteUid               the uid of the site whose merchant owns the instrument
+     * @return the recorded command
+     */
+    CheckoutComInstrumentCommandModel submitUpdateCommand(CreditCardPaymentInfoModel creditCardPaymentInfo, String siteUid);
+
+    /**
+     * Records the deletes of many instruments in batches, as erasure jobs do. The instruments whose delete is already
+     * recorded are skipped.
+     *
+     * @param instrumentIds the ids of the Checkout.com instruments to delete
+     * @param siteUid       the uid of the site whose merchant owns the instruments
+     * @return the number of commands recorded
+     */
+    int submitDeleteCommands(Collection<String> instrumentIds, String siteUid);
+
+    /**
+     * Sends the command to Checkout.com and records its outcome. A command failing with a payment integration error
+     * is rescheduled with backoff until it runs out of attempts.
+     *
+     * @param command the command to send
+     */
+    void executeCommand(CheckoutComInstrumentCommandModel command);
+}
@@ -0,0 +1,30 @@
+package com.checkout.hybris.core.payment.services;
+
+import com.checkout.hybris.core.enums.CheckoutComPayloadType;
+import com.checkout.hybris.core.model.CheckoutComPayloadJournalEntryModel;
+
+import java.util.List;
+
+/**
+ * Journal of the payloads exchanged with Checkout.com. Payloads are serialized and persisted by a background writer,
+ * so the calling thread only hands them over.
+ */
+public interface CheckoutComPayloadJournalService {
+
+    /**
+     * Adds the payload to the journal of the given payment reference
+     *
+     * @param paymentReference the payment reference of the order
+     * @param payloadType      whether the payload is a request or a response
+     * @param payload          the request or response object, serialized to json by the writer
+     */
+    void journal(String paymentReference, CheckoutComPayloadType payloadType, Object payload);
+
+    /**
+     * Returns the journal entries of the given payment reference, oldest first
+     *
+     * @param paymentReference the payment reference of the order
+     * @return the journal entries
+     */
+    List<CheckoutComPayloadJournalEntryModel> getJournalEntries(String paymentReference);
+}
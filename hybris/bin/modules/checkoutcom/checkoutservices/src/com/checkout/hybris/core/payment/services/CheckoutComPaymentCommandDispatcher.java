@@ -0,0 +1,14 @@
+package com.checkout.hybris.core.payment.services;
+
+/**
+ * Dispatches the due payment commands to a pool of workers, limiting the rate of the commands sent for each merchant
+ */
+public interface CheckoutComPaymentCommandDispatcher {
+
+    /**
+     * Hands the due payment commands over to the workers, as many as they have room for
+     *
+     * @return the number of commands handed over
+     */
+    int dispatchDueCommands();
+}
@@ -0,0 +1,47 @@
+package com.checkout.hybris.core.payment.services;
+
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandType;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import de.hybris.platform.payment.model.PaymentTransactionModel;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Records the captures, refunds and voids of the business processes as payment commands, sent to Checkout.com by the
+ * payment command dispatcher instead of the process engine threads
+ */
+public interface CheckoutComPaymentCommandService {
+
+    /**
+     * Records the command of a process step, or returns the one recorded by a previous run of the step, so the
+     * step can be run again without sending the command twice
+     *
+     * @param type               the type of the command
+     * @param paymentTransaction the payment transaction of the order
+     * @param amount             the amount to refund, null for captures and voids
+     * @param processCode        the code of the business process
+     * @param completionEvent    the event to trigger once the command is completed or has failed
+     * @return the recorded command
+     */
+    CheckoutComPaymentCommandModel submitCommand(CheckoutComPaymentCommandType type, PaymentTransactionModel paymentTransaction,
+                                                 BigDecimal amount, String processCode, String completionEvent);
+
+    /**
+     * Finds the command of the given type recorded by the given process
+     *
+     * @param type        the type of the command
+     * @param processCode the code of the business process
+     * @return the command if it has been recorded
+     */
+    Optional<CheckoutComPaymentCommandModel> findCommand(CheckoutComPaymentCommandType type, String processCode);
+
+    /**
+     * Sends the command to Checkout.com and records its outcome. A command failing with a payment integration error
+     * is rescheduled with backoff until it runs out of attempts. The completion event is triggered once the command is
+     * completed or has failed.
+     *
+     * @param command the command to send
+     */
+    void executeCommand(CheckoutComPaymentCommandModel command);
+}
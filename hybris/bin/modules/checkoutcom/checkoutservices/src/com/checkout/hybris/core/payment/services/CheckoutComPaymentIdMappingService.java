@@ -0,0 +1,36 @@
+package com.checkout.hybris.core.payment.services;
+
+import de.hybris.platform.core.model.order.AbstractOrderModel;
+
+import java.util.Optional;
+
+/**
+ * Indexed mapping of the checkout.com payment ids to their order and site, so the webhooks can be resolved without
+ * searching the payment infos
+ */
+public interface CheckoutComPaymentIdMappingService {
+
+    /**
+     * Maps the payment id to the given cart or order, its site and its payment reference
+     *
+     * @param paymentId     the checkout.com payment id
+     * @param abstractOrder the cart or order the payment id is attached to
+     */
+    void registerPaymentId(String paymentId, AbstractOrderModel abstractOrder);
+
+    /**
+     * Returns the uid of the site of the order mapped to the payment id
+     *
+     * @param paymentId the checkout.com payment id
+     * @return the site uid, empty when the payment id is not mapped
+     */
+    Optional<String> findSiteUid(String paymentId);
+
+    /**
+     * Returns the order mapped to the payment id, or the cart when the order has not been placed yet
+     *
+     * @param paymentId the checkout.com payment id
+     * @return the order or cart, empty when the payment id is not mapped
+     */
+    Optional<AbstractOrderModel> findAbstractOrder(String paymentId);
+}
@@ -116,7 +116,9 @@ public interface CheckoutComPaymentInfoService extends PaymentInfoService {
      * @param abstractOrder the order
      * @param request the request
      * @param response the response
+     * @deprecated payloads are journaled by payment reference, use {@link CheckoutComPayloadJournalService#journal}
      */
+    @Deprecated
     void saveRequestAndResponseInOrder(final AbstractOrderModel abstractOrder, final String request, final String response);
 
     /**
@@ -124,7 +126,9 @@ public interface CheckoutComPaymentInfoService extends PaymentInfoService {
      *
      * @param paymentReference the payment reference of the order
      * @param response the response
+     * @deprecated payloads are journaled by payment reference, use {@link CheckoutComPayloadJournalService#journal}
      */
+    @Deprecated
     void saveResponseInOrderByPaymentReference(final String paymentReference, final String response);
 
     /**
@@ -2,8 +2,21 @@ package com.checkout.hybris.core.payment.services;
 
 import de.hybris.platform.core.model.order.payment.CreditCardPaymentInfoModel;
 
+import java.util.Collection;
+
 public interface CheckoutComPaymentInstrumentsService {
 	void removeInstrumentByCreditCard(CreditCardPaymentInfoModel creditCardPaymentInfoModel);
 
 	void updateInstrumentByCreditCard(CreditCardPaymentInfoModel creditCardPaymentInfoModel);
-}
+
+	/**
+	 * Records the removal of the instruments of many cards of a site at once, for the erasure jobs. The site is given
+	 * by the caller, as the jobs run without a session site. The instruments are deleted in Checkout.com by the
+	 * instrument command dispatcher.
+	 *
+	 * @param creditCardPaymentInfoModels the cards whose instruments are removed
+	 * @param siteUid                     the uid of the site whose merchant owns the instruments
+	 * @return the number of removals recorded
+	 */
+	int removeInstrumentsByCreditCards(Collection<CreditCardPaymentInfoModel> creditCardPaymentInfoModels, String siteUid);
+}
\ No newline at end of file
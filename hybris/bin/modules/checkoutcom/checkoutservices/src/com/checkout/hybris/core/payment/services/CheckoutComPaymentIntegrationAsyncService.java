@@ -0,0 +1,109 @@
+package com.checkout.hybris.core.payment.services;
+
+import com.checkout.payments.CaptureRequest;
+import com.checkout.payments.CaptureResponse;
+import com.checkout.payments.RefundRequest;
+import com.checkout.payments.RefundResponse;
+import com.checkout.payments.VoidRequest;
+import com.checkout.payments.VoidResponse;
+import com.checkout.payments.request.PaymentRequest;
+import com.checkout.payments.response.GetPaymentResponse;
+import com.checkout.payments.response.PaymentResponse;
+import com.checkout.tokens.TokenResponse;
+import com.checkout.tokens.WalletTokenRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of the {@link CheckoutComPaymentIntegrationService}. The site and the checkout.com api are
+ * resolved on the calling thread, the call to checkout.com is not awaited. The returned futures complete exceptionally
+ * with a {@link com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException} when the call fails
+ * or does not answer within the configured timeout. Cancelling a returned future abandons the call.
+ * <p>
+ * The futures complete on the SDK transport threads, which do not hold a platform session: callers must not touch
+ * the model layer from their continuations.
+ */
+public interface CheckoutComPaymentIntegrationAsyncService {
+
+    /**
+     * Performs the authorize request with checkout.com
+     *
+     * @param paymentRequest the populated request
+     * @return the future checkout.com response
+     */
+    CompletableFuture<PaymentResponse> authorizePaymentAsync(PaymentRequest paymentRequest);
+
+    /**
+     * Fetches the details of a payment. Unlike {@link CheckoutComPaymentIntegrationService#getPaymentDetails(String)}
+     * the response is not stored in the order payloads.
+     *
+     * @param paymentIdentifier the payment identifier
+     * @return the future checkout.com response
+     */
+    CompletableFuture<GetPaymentResponse> getPaymentDetailsAsync(String paymentIdentifier);
+
+    /**
+     * Performs the capture request with checkout.com
+     *
+     * @param captureRequest the populated request
+     * @param paymentId      the checkout.com unique payment id
+     * @return the future capture payment response
+     */
+    CompletableFuture<CaptureResponse> capturePaymentAsync(CaptureRequest captureRequest, String paymentId);
+
+    /**
+     * Performs the capture request with checkout.com, sent with the given idempotency key so it can be safely retried
+     *
+     * @param captureRequest the populated request
+     * @param paymentId      the checkout.com unique payment id
+     * @param idempotencyKey the idempotency key of the capture, can be null
+     * @return the future capture payment response
+     */
+    CompletableFuture<CaptureResponse> capturePaymentAsync(CaptureRequest captureRequest, String paymentId, String idempotencyKey);
+
+    /**
+     * Performs the refund request with checkout.com
+     *
+     * @param refundRequest the populated request
+     * @param paymentId     the checkout.com unique payment id
+     * @return the future refund payment response
+     */
+    CompletableFuture<RefundResponse> refundPaymentAsync(RefundRequest refundRequest, String paymentId);
+
+    /**
+     * Performs the refund request with checkout.com, sent with the given idempotency key so it can be safely retried
+     *
+     * @param refundRequest  the populated request
+     * @param paymentId      the checkout.com unique payment id
+     * @param idempotencyKey the idempotency key of the refund, can be null
+     * @return the future refund payment response
+     */
+    CompletableFuture<RefundResponse> refundPaymentAsync(RefundRequest refundRequest, String paymentId, String idempotencyKey);
+
+    /**
+     * Performs the void payment request with checkout.com
+     *
+     * @param voidRequest the populated request
+     * @param paymentId   the checkout.com unique payment id
+     * @return the future void payment response
+     */
+    CompletableFuture<VoidResponse> voidPaymentAsync(VoidRequest voidRequest, String paymentId);
+
+    /**
+     * Performs the void request with checkout.com, sent with the given idempotency key so it can be safely retried
+     *
+     * @param voidRequest    the populated request
+     * @param paymentId      the checkout.com unique payment id
+     * @param idempotencyKey the idempotency key of the void, can be null
+     * @return the future void payment response
+     */
+    CompletableFuture<VoidResponse> voidPaymentAsync(VoidRequest voidRequest, String paymentId, String idempotencyKey);
+
+    /**
+     * Generates the wallet payment token with checkout.com
+     *
+     * @param walletTokenRequest the generate wallet token request
+     * @return the future token response
+     */
+    CompletableFuture<TokenResponse> generateWalletPaymentTokenAsync(WalletTokenRequest walletTokenRequest);
+}
@@ -11,6 +11,7 @@ import com.checkout.payments.response.GetPaymentResponse;
 import com.checkout.payments.response.PaymentResponse;
 import com.checkout.tokens.TokenResponse;
 import com.checkout.tokens.WalletTokenRequest;
+import de.hybris.platform.core.model.order.payment.PaymentInfoModel;
 
 import java.util.concurrent.ExecutionException;
 
@@ -35,6 +36,16 @@ public interface CheckoutComPaymentIntegrationService {
      */
     GetPaymentResponse getPaymentDetails(String paymentIdentifier);
 
+    /**
+     * Gets the payment info of the order paid with the given checkout.com payment id
+     *
+     * @param paymentId the checkout.com unique payment id
+     * @return the payment info of the order
+     * @throws com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException when no order payment
+     *                                                                                          info is found
+     */
+    PaymentInfoModel getPaymentInfoForPaymentId(String paymentId);
+
     /**
      * Performs the capture request with checkout.com
      *
@@ -44,6 +55,16 @@ public interface CheckoutComPaymentIntegrationService {
      */
     CaptureResponse capturePayment(CaptureRequest captureRequest, String paymentId) throws ExecutionException, InterruptedException;
 
+    /**
+     * Performs the capture request with checkout.com, sent with the given idempotency key so it can be safely retried
+     *
+     * @param captureRequest the populated request
+     * @param paymentId      the checkout.com unique payment id
+     * @param idempotencyKey the idempotency key of the capture, can be null
+     * @return CaptureResponse the capture payment response
+     */
+    CaptureResponse capturePayment(CaptureRequest captureRequest, String paymentId, String idempotencyKey) throws ExecutionException, InterruptedException;
+
     /**
      * Performs the refund request with checkout.com
      *
@@ -53,6 +74,16 @@ public interface CheckoutComPaymentIntegrationService {
      */
     RefundResponse refundPayment(RefundRequest refundRequest, String paymentId) throws ExecutionException, InterruptedException;
 
+    /**
+     * Performs the refund request with checkout.com, sent with the given idempotency key so it can be safely retried
+     *
+     * @param refundRequest  the populated request
+     * @param paymentId      the checkout.com unique payment id
+     * @param idempotencyKey the idempotency key of the refund, can be null
+     * @return RefundResponse the refund payment response
+     */
+    RefundResponse refundPayment(RefundRequest refundRequest, String paymentId, String idempotencyKey) throws ExecutionException, InterruptedException;
+
     /**
      * Performs the void payment request with checkout.com
      *
@@ -62,6 +93,17 @@ public interface CheckoutComPaymentIntegrationService {
      */
     VoidResponse voidPayment(VoidRequest refundRequest, String paymentId) throws ExecutionException, InterruptedException;
 
+    /**
+     * Performs the void payment request with checkout.com, sent with the given idempotency key so it can be safely
+     * retried
+     *
+     * @param voidRequest    the populated request
+     * @param paymentId      the checkout.com unique payment id
+     * @param idempotencyKey the idempotency key of the void, can be null
+     * @return VoidResponse the void payment response
+     */
+    VoidResponse voidPayment(VoidRequest voidRequest, String paymentId, String idempotencyKey) throws ExecutionException, InterruptedException;
+
     /**
      * Sets up the payment source for the checkout.com payment
      *
@@ -8,8 +8,11 @@ import de.hybris.platform.core.model.order.OrderModel;
 import de.hybris.platform.core.model.order.payment.PaymentInfoModel;
 import de.hybris.platform.payment.PaymentService;
 import de.hybris.platform.payment.enums.PaymentTransactionType;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
 import de.hybris.platform.payment.model.PaymentTransactionModel;
 
+import java.math.BigDecimal;
+
 /**
  * Manages payments and payment transactions
  */
@@ -126,4 +129,36 @@ public interface CheckoutComPaymentService extends PaymentService {
      * @return the AuthorizeResponse with populated results
      */
     AuthorizeResponse handlePendingPaymentResponse(PaymentResponse paymentAction, PaymentInfoModel paymentInfo);
+
+    /**
+     * Captures the transaction like {@link #capture(PaymentTransactionModel)}, recording the response under the given
+     * entry code. The Checkout.com idempotency key of the call is derived from the entry code, so sending again with
+     * the same code does not capture twice.
+     *
+     * @param transaction the transaction to capture
+     * @param entryCode   the code of the capture entry
+     * @return the capture entry
+     */
+    PaymentTransactionEntryModel capture(PaymentTransactionModel transaction, String entryCode);
+
+    /**
+     * Refunds the amount like {@link #refundFollowOn(PaymentTransactionModel, BigDecimal)}, recording the response
+     * under the given entry code
+     *
+     * @param transaction the transaction to refund
+     * @param amount      the amount to refund
+     * @param entryCode   the code of the refund entry
+     * @return the refund entry
+     */
+    PaymentTransactionEntryModel refundFollowOn(PaymentTransactionModel transaction, BigDecimal amount, String entryCode);
+
+    /**
+     * Voids the authorization like {@link #cancel(PaymentTransactionEntryModel)}, recording the response under the
+     * given entry code
+     *
+     * @param authorizationEntry the authorization entry to void
+     * @param entryCode          the code of the cancel entry
+     * @return the cancel entry
+     */
+    PaymentTransactionEntryModel cancel(PaymentTransactionEntryModel authorizationEntry, String entryCode);
 }
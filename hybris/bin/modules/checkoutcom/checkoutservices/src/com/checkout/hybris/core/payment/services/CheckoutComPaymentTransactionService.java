@@ -1,5 +1,6 @@
 package com.checkout.hybris.core.payment.services;
 
+import com.checkout.hybris.core.payment.transaction.CheckoutComPaymentStateSummary;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 import de.hybris.platform.core.model.order.OrderModel;
 import de.hybris.platform.payment.enums.PaymentTransactionType;
@@ -84,4 +85,20 @@ public interface CheckoutComPaymentTransactionService {
      */
     void createPaymentTransactionEntry(PaymentTransactionModel paymentTransaction, CheckoutComPaymentEventModel paymentEvent, String transactionStatus,
                                        String transactionStatusDetails, PaymentTransactionType paymentTransactionType);
+
+    /**
+     * Gets the summary of the state of the payment transaction. The summary is computed once from the entries and
+     * cached for the payment transaction instance until its entries change
+     *
+     * @param paymentTransaction the payment transaction
+     * @return the {@link CheckoutComPaymentStateSummary} of the payment transaction
+     */
+    CheckoutComPaymentStateSummary getPaymentStateSummary(PaymentTransactionModel paymentTransaction);
+
+    /**
+     * Discards the cached summary of the payment transaction, to be called after the status of one of its entries changes
+     *
+     * @param paymentTransaction the payment transaction
+     */
+    void invalidatePaymentStateSummary(PaymentTransactionModel paymentTransaction);
 }
@@ -0,0 +1,37 @@
+package com.checkout.hybris.core.payment.services;
+
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationRecord;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationStats;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+
+import java.util.List;
+
+/**
+ * Matches the actions of the Checkout.com report files with the payment transaction entries of the orders
+ */
+public interface CheckoutComReconciliationMatchingService {
+
+    /**
+     * Matches a batch of reported actions with their payment transaction entries, looked up by action id, and records
+     * a discrepancy for each action that does not match. The discrepancy of an action matching in a later report is
+     * marked as resolved. When the entry of an action is missing but its payment transaction is found by payment id or
+     * payment reference, a pending payment event can be created for the action, so the payment event processing
+     * cronjobs create the entry as if the webhook had been received
+     *
+     * @param records                the reported actions
+     * @param siteUid                the uid of the site the report belongs to
+     * @param backfillMissingEntries whether a payment event is created for the actions missing their entry
+     * @param stats                  the statistics of the reconciliation, updated with the outcome of the batch
+     */
+    void reconcile(List<CheckoutComReconciliationRecord> records, String siteUid, boolean backfillMissingEntries,
+                   CheckoutComReconciliationStats stats);
+
+    /**
+     * Marks as resolved the missing entry discrepancy of the action of the given entry, if one is still open. Called
+     * when the payment event processing creates the entry, so a backfilled action does not stay reported as missing
+     * until the next report. The amount and status of the entry are checked by the next reconciliation of the action
+     *
+     * @param entry the payment transaction entry just created, holding the action id as request token
+     */
+    void resolveMissingEntry(PaymentTransactionEntryModel entry);
+}
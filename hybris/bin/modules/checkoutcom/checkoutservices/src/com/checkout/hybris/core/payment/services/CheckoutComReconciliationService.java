@@ -0,0 +1,22 @@
+package com.checkout.hybris.core.payment.services;
+
+import com.checkout.hybris.core.model.CheckoutComReconciliationCronJobModel;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationStats;
+
+/**
+ * Reconciles the Checkout.com report files of a site with its payment transaction entries
+ */
+public interface CheckoutComReconciliationService {
+
+    /**
+     * Reconciles, oldest first, the reports created since the last reconciled report of the cronjob. The report files
+     * are downloaded in parallel to temporary files and streamed in batches, the cursor of the cronjob is saved after
+     * each report so an aborted or failed run resumes with the next report
+     *
+     * @param cronJob the reconciliation cronjob
+     * @return the statistics of the run
+     * @throws com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException if the reports cannot
+     *                                                                                            be listed, downloaded or read
+     */
+    CheckoutComReconciliationStats reconcile(CheckoutComReconciliationCronJobModel cronJob);
+}
@@ -0,0 +1,299 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.payment.daos.CheckoutComCommandDao;
+import com.google.common.util.concurrent.RateLimiter;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.TenantAwareThreadFactory;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.jalo.JaloConnection;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base of the command outbox dispatchers. A poller looks for the due commands and hands them over to a fixed pool of
+ * workers, so the calls to Checkout.com are sent in parallel without holding the threads that recorded the commands.
+ * Each merchant, identified by the site the command was recorded for, has its own rate limit; the commands over the
+ * limit stay pending until the next poll.
+ * <p>
+ * A command is claimed with a conditional update before it is handed over, so when the dispatcher runs on several
+ * nodes, or a stale command is claimed again while its first dispatch is still running, only one of them sends it. The
+ * dispatcher is enabled by default, as the business processes wait for the commands it sends; it can be disabled on
+ * the nodes that should not call Checkout.com, as long as it stays enabled on at least one node.
+ * <p>
+ * The properties of a dispatcher are read under its own prefix: enabled, workers, batchsize, pollinterval.ms,
+ * merchant.permitspersecond, inprogress.timeout.seconds and shutdowntimeout.seconds.
+ *
+ * @param <T> the type of the commands
+ */
+public abstract class CheckoutComAbstractCommandDispatcher<T extends ItemModel> implements InitializingBean, DisposableBean {
+
+    protected static final Logger LOG = LogManager.getLogger(CheckoutComAbstractCommandDispatcher.class);
+
+    protected static final String DISPATCHER_ENABLED = "enabled";
+    protected static final String DISPATCHER_WORKERS = "workers";
+    protected static final String DISPATCHER_BATCH_SIZE = "batchsize";
+    protected static final String DISPATCHER_POLL_INTERVAL = "pollinterval.ms";
+    protected static final String DISPATCHER_PERMITS_PER_SECOND = "merchant.permitspersecond";
+    protected static final String DISPATCHER_IN_PROGRESS_TIMEOUT = "inprogress.timeout.seconds";
+    protected static final String DISPATCHER_SHUTDOWN_TIMEOUT = "shutdowntimeout.seconds";
+
+    protected static final boolean DEFAULT_ENABLED = true;
+    protected static final int DEFAULT_WORKERS = 8;
+    protected static final int DEFAULT_BATCH_SIZE = 50;
+    protected static final long DEFAULT_POLL_INTERVAL = 1000L;
+    protected static final double DEFAULT_PERMITS_PER_SECOND = 10D;
+    protected static final long DEFAULT_IN_PROGRESS_TIMEOUT = 300L;
+    protected static final long DEFAULT_SHUTDOWN_TIMEOUT = 30L;
+
+    protected final String propertyPrefix;
+    protected final ConfigurationService configurationService;
+    protected final ModelService modelService;
+    protected final TimeService timeService;
+    protected final SessionService sessionService;
+    protected final UserService userService;
+    protected final BaseSiteService baseSiteService;
+    protected final CheckoutComCommandDao<T> commandDao;
+
+    private final ConcurrentMap<String, RateLimiter> merchantRateLimiters = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService poller;
+    private volatile ExecutorService workers;
+    private volatile Semaphore inFlightCommands;
+
+    protected CheckoutComAbstractCommandDispatcher(final String propertyPrefix,
+                                                   final ConfigurationService configurationService,
+                                                   final ModelService modelService,
+                                                   final TimeService timeService,
+                                                   final SessionService sessionService,
+                                                   final UserService userService,
+                                                   final BaseSiteService baseSiteService,
+                                                   final CheckoutComCommandDao<T> commandDao) {
+        this.propertyPrefix = propertyPrefix;
+        this.configurationService = configurationService;
+        this.modelService = modelService;
+        this.timeService = timeService;
+        this.sessionService = sessionService;
+        this.userService = userService;
+        this.baseSiteService = baseSiteService;
+        this.commandDao = commandDao;
+    }
+
+    /**
+     * Starts polling for due commands when the dispatcher is enabled on this node
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (configurationService.getConfiguration().getBoolean(getPropertyKey(DISPATCHER_ENABLED), DEFAULT_ENABLED)) {
+            startPoller();
+        }
+    }
+
+    /**
+     * Stops polling and gives the workers time to finish the commands in progress. The commands that do not finish
+     * are claimed again once they are stale.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        final ScheduledExecutorService commandPoller = poller;
+        if (commandPoller != null) {
+            commandPoller.shutdownNow();
+        }
+        final ExecutorService commandWorkers = workers;
+        if (commandWorkers != null) {
+            commandWorkers.shutdown();
+            final long timeout = configurationService.getConfiguration().getLong(getPropertyKey(DISPATCHER_SHUTDOWN_TIMEOUT), DEFAULT_SHUTDOWN_TIMEOUT);
+            if (!commandWorkers.awaitTermination(timeout, TimeUnit.SECONDS)) {
+                LOG.warn("Command workers of [{}] did not finish in [{}] seconds.", propertyPrefix, timeout);
+                commandWorkers.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Hands the due commands over to the workers, as many as they have room for
+     *
+     * @return the number of commands handed over
+     */
+    public int dispatchDueCommands() {
+        final ExecutorService commandWorkers = getWorkers();
+        final Semaphore inFlight = inFlightCommands;
+        final int capacity = Math.min(inFlight.availablePermits(), getBatchSize());
+        if (capacity == 0) {
+            return 0;
+        }
+
+        final Date now = timeService.getCurrentTime();
+        final long inProgressTimeout = configurationService.getConfiguration().getLong(getPropertyKey(DISPATCHER_IN_PROGRESS_TIMEOUT), DEFAULT_IN_PROGRESS_TIMEOUT);
+        final Date staleBefore = new Date(now.getTime() - inProgressTimeout * 1000L);
+        final List<T> dueCommands = commandDao.findDueCommands(now, staleBefore, capacity);
+
+        int dispatched = 0;
+        for (final T command : dueCommands) {
+            if (!getMerchantRateLimiter(getSiteUid(command)).tryAcquire()) {
+                LOG.debug("Rate limit of merchant [{}] reached, the {} waits for the next poll.", getSiteUid(command), describeCommand(command));
+                continue;
+            }
+            if (!inFlight.tryAcquire()) {
+                break;
+            }
+            if (!commandDao.claimCommand(command, now, staleBefore)) {
+                LOG.debug("The {} has already been claimed.", describeCommand(command));
+                inFlight.release();
+                continue;
+            }
+            final PK commandPk = command.getPk();
+            try {
+                commandWorkers.execute(() -> runCommand(commandPk, inFlight));
+                dispatched++;
+            } catch (final RejectedExecutionException e) {
+                inFlight.release();
+                if (!commandDao.releaseCommand(command)) {
+                    LOG.warn("Could not release the {}, it is retried once it is stale.", describeCommand(command));
+                }
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Sends a claimed command in a session of its own, as the admin user and with the site it was recorded for, so
+     * the merchant configuration of the site is used
+     *
+     * @param commandPk the pk of the claimed command
+     * @param inFlight  the permits of the commands in progress
+     */
+    protected void runCommand(final PK commandPk, final Semaphore inFlight) {
+        final Session session = sessionService.createNewSession();
+        try {
+            userService.setCurrentUser(userService.getAdminUser());
+            final T command = modelService.get(commandPk);
+            if (StringUtils.isNotBlank(getSiteUid(command))) {
+                baseSiteService.setCurrentBaseSite(getSiteUid(command), false);
+            }
+            executeCommand(command);
+        } catch (final RuntimeException e) {
+            LOG.error("Unexpected error while sending the command [{}].", commandPk, e);
+        } finally {
+            sessionService.closeSession(session);
+            inFlight.release();
+        }
+    }
+
+    protected RateLimiter getMerchantRateLimiter(final String siteUid) {
+        return merchantRateLimiters.computeIfAbsent(StringUtils.defaultString(siteUid), key -> RateLimiter.create(
+                configurationService.getConfiguration().getDouble(getPropertyKey(DISPATCHER_PERMITS_PER_SECOND), getDefaultPermitsPerSecond())));
+    }
+
+    protected ExecutorService getWorkers() {
+        if (workers == null) {
+            startWorkers();
+        }
+        return workers;
+    }
+
+    protected synchronized void startWorkers() {
+        if (workers != null) {
+            return;
+        }
+        final int workerCount = Math.max(1, configurationService.getConfiguration().getInt(getPropertyKey(DISPATCHER_WORKERS), getDefaultWorkers()));
+        inFlightCommands = new Semaphore(workerCount);
+        workers = createWorkers(workerCount);
+        LOG.info("Started [{}] command workers of [{}].", workerCount, propertyPrefix);
+    }
+
+    protected ExecutorService createWorkers(final int workerCount) {
+        return Executors.newFixedThreadPool(workerCount, new TenantAwareThreadFactory(Registry.getCurrentTenantNoFallback()));
+    }
+
+    protected synchronized void startPoller() {
+        if (poller != null) {
+            return;
+        }
+        final long pollInterval = Math.max(1L, configurationService.getConfiguration().getLong(getPropertyKey(DISPATCHER_POLL_INTERVAL), DEFAULT_POLL_INTERVAL));
+        poller = createPoller();
+        poller.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    protected ScheduledExecutorService createPoller() {
+        return Executors.newSingleThreadScheduledExecutor(new TenantAwareThreadFactory(Registry.getCurrentTenantNoFallback()));
+    }
+
+    protected void poll() {
+        if (!isSystemInitialized()) {
+            return;
+        }
+        final Session session = sessionService.createNewSession();
+        try {
+            dispatchDueCommands();
+        } catch (final RuntimeException e) {
+            LOG.error("Unexpected error while dispatching the commands of [{}].", propertyPrefix, e);
+        } finally {
+            sessionService.closeSession(session);
+        }
+    }
+
+    protected boolean isSystemInitialized() {
+        return JaloConnection.getInstance().isSystemInitialized();
+    }
+
+    protected int getBatchSize() {
+        return Math.max(1, configurationService.getConfiguration().getInt(getPropertyKey(DISPATCHER_BATCH_SIZE), getDefaultBatchSize()));
+    }
+
+    protected String getPropertyKey(final String property) {
+        return propertyPrefix + "." + property;
+    }
+
+    protected int getDefaultWorkers() {
+        return DEFAULT_WORKERS;
+    }
+
+    protected int getDefaultBatchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    protected double getDefaultPermitsPerSecond() {
+        return DEFAULT_PERMITS_PER_SECOND;
+    }
+
+    /**
+     * Sends the claimed command and records its outcome
+     *
+     * @param command the claimed command
+     */
+    protected abstract void executeCommand(T command);
+
+    /**
+     * @param command the command
+     * @return the uid of the site the command was recorded for, which identifies its merchant
+     */
+    protected abstract String getSiteUid(T command);
+
+    /**
+     * @param command the command
+     * @return a description of the command for the logs
+     */
+    protected abstract String describeCommand(T command);
+}
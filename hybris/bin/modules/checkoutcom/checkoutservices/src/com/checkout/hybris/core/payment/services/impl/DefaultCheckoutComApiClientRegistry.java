@@ -0,0 +1,447 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.AbstractCheckoutSdkBuilder;
+import com.checkout.CheckoutApi;
+import com.checkout.CheckoutApiImpl;
+import com.checkout.CheckoutSdkBuilder;
+import com.checkout.Environment;
+import com.checkout.InstrumentedThreadPoolExecutor;
+import com.checkout.TransportExecutors;
+import com.checkout.TransportResilienceMetrics;
+import com.checkout.TransportResiliencePolicy;
+import com.checkout.hybris.core.enums.EnvironmentType;
+import com.checkout.hybris.core.payment.api.CheckoutComApiClientPoolStats;
+import com.checkout.hybris.core.payment.api.CheckoutComApiClientRoutePoolStats;
+import com.checkout.hybris.core.payment.api.CheckoutComTransportExecutorStats;
+import com.checkout.hybris.core.payment.api.CheckoutComTransportResilienceStats;
+import com.checkout.hybris.core.payment.services.CheckoutComApiClientRegistry;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import org.apache.commons.configuration.Configuration;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Default implementation of the {@link CheckoutComApiClientRegistry}. Every client owns a pooled connection manager,
+ * so connections and TLS sessions are reused across payment calls instead of being negotiated per call.
+ */
+public class DefaultCheckoutComApiClientRegistry implements CheckoutComApiClientRegistry, DisposableBean {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComApiClientRegistry.class);
+
+    protected static final String POOL_MAX_TOTAL = "checkoutservices.sdk.httpclient.pool.maxtotal";
+    protected static final String POOL_MAX_PER_ROUTE = "checkoutservices.sdk.httpclient.pool.maxperroute";
+    protected static final String POOL_VALIDATE_AFTER_INACTIVITY = "checkoutservices.sdk.httpclient.pool.validateafterinactivity.ms";
+    protected static final String POOL_CONNECTION_TIME_TO_LIVE = "checkoutservices.sdk.httpclient.pool.connectiontimetolive.seconds";
+    protected static final String RETIRED_CLIENT_GRACE_TIME = "checkoutservices.sdk.httpclient.pool.retiredclient.gracetime.seconds";
+    protected static final String TRANSPORT_EXECUTOR_TYPE = "checkoutservices.sdk.transport.executor.type";
+    protected static final String TRANSPORT_EXECUTOR_CORE_SIZE = "checkoutservices.sdk.transport.executor.coresize";
+    protected static final String TRANSPORT_EXECUTOR_MAX_SIZE = "checkoutservices.sdk.transport.executor.maxsize";
+    protected static final String TRANSPORT_EXECUTOR_QUEUE_CAPACITY = "checkoutservices.sdk.transport.executor.queuecapacity";
+    protected static final String TRANSPORT_HTTP2_ENABLED = "checkoutservices.sdk.transport.http2.enabled";
+    protected static final String TRANSPORT_RESILIENCE_ENABLED = "checkoutservices.sdk.transport.resilience.enabled";
+    protected static final String TRANSPORT_RESILIENCE_CONNECT_TIMEOUT = "checkoutservices.sdk.transport.resilience.connecttimeout.ms";
+    protected static final String TRANSPORT_RESILIENCE_READ_TIMEOUT = "checkoutservices.sdk.transport.resilience.readtimeout.ms";
+    protected static final String TRANSPORT_RESILIENCE_WRITE_TIMEOUT = "checkoutservices.sdk.transport.resilience.writetimeout.ms";
+    protected static final String TRANSPORT_RESILIENCE_MAX_RETRIES = "checkoutservices.sdk.transport.resilience.maxretries";
+    protected static final String TRANSPORT_RESILIENCE_INITIAL_BACKOFF = "checkoutservices.sdk.transport.resilience.backoff.initial.ms";
+    protected static final String TRANSPORT_RESILIENCE_MAX_BACKOFF = "checkoutservices.sdk.transport.resilience.backoff.max.ms";
+    protected static final String TRANSPORT_RESILIENCE_FAILURE_THRESHOLD = "checkoutservices.sdk.transport.resilience.circuitbreaker.failurethreshold";
+    protected static final String TRANSPORT_RESILIENCE_OPEN_DURATION = "checkoutservices.sdk.transport.resilience.circuitbreaker.open.ms";
+    protected static final String TRANSPORT_EXECUTOR_TYPE_BOUNDED = "bounded";
+    protected static final String TRANSPORT_EXECUTOR_TYPE_VIRTUAL = "virtual";
+    protected static final String TRANSPORT_EXECUTOR_TYPE_COMMON_POOL = "commonpool";
+
+    protected static final int DEFAULT_POOL_MAX_TOTAL = 200;
+    protected static final int DEFAULT_POOL_MAX_PER_ROUTE = 100;
+    protected static final int DEFAULT_POOL_VALIDATE_AFTER_INACTIVITY = 2000;
+    protected static final long DEFAULT_POOL_CONNECTION_TIME_TO_LIVE = 300L;
+    protected static final long DEFAULT_RETIRED_CLIENT_GRACE_TIME = 60L;
+    protected static final int DEFAULT_TRANSPORT_EXECUTOR_CORE_SIZE = 32;
+    protected static final int DEFAULT_TRANSPORT_EXECUTOR_MAX_SIZE = 64;
+    protected static final int DEFAULT_TRANSPORT_EXECUTOR_QUEUE_CAPACITY = 500;
+    protected static final long DEFAULT_TRANSPORT_RESILIENCE_CONNECT_TIMEOUT = 5000L;
+    protected static final long DEFAULT_TRANSPORT_RESILIENCE_READ_TIMEOUT = 30000L;
+    protected static final long DEFAULT_TRANSPORT_RESILIENCE_WRITE_TIMEOUT = 60000L;
+    protected static final int DEFAULT_TRANSPORT_RESILIENCE_MAX_RETRIES = 2;
+    protected static final long DEFAULT_TRANSPORT_RESILIENCE_INITIAL_BACKOFF = 200L;
+    protected static final long DEFAULT_TRANSPORT_RESILIENCE_MAX_BACKOFF = 2000L;
+    protected static final int DEFAULT_TRANSPORT_RESILIENCE_FAILURE_THRESHOLD = 5;
+    protected static final long DEFAULT_TRANSPORT_RESILIENCE_OPEN_DURATION = 30000L;
+
+    protected final ConfigurationService configurationService;
+
+    private final ConcurrentMap<CheckoutComApiClientKey, PooledCheckoutApi> clients = new ConcurrentHashMap<>();
+    private volatile Executor transportExecutor;
+    private volatile TransportResiliencePolicy transportResiliencePolicy;
+
+    public DefaultCheckoutComApiClientRegistry(final ConfigurationService configurationService) {
+        this.configurationService = configurationService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutApi getCheckoutApi(final String siteUid, final String secretKey, final String publicKey,
+                                      final EnvironmentType environment) {
+        final CheckoutComApiClientKey key = new CheckoutComApiClientKey(siteUid, secretKey, publicKey, environment);
+        final PooledCheckoutApi pooledCheckoutApi = clients.get(key);
+        if (pooledCheckoutApi != null) {
+            return pooledCheckoutApi.getCheckoutApi();
+        }
+
+        final PooledCheckoutApi createdCheckoutApi = clients.computeIfAbsent(key, this::createPooledCheckoutApi);
+        retire(entryKey -> entryKey.getSiteUid().equals(siteUid) && !entryKey.equals(key));
+        return createdCheckoutApi.getCheckoutApi();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateBySecretKey(final String secretKey) {
+        retire(entryKey -> Objects.equals(entryKey.getSecretKey(), secretKey));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateAll() {
+        retire(entryKey -> true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComApiClientPoolStats> getPoolStats() {
+        return clients.entrySet().stream()
+                .map(entry -> createPoolStats(entry.getKey(), entry.getValue().getConnectionManager()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComTransportExecutorStats getTransportExecutorStats() {
+        final Executor executor = getTransportExecutor();
+        final CheckoutComTransportExecutorStats stats = new CheckoutComTransportExecutorStats();
+        if (executor instanceof InstrumentedThreadPoolExecutor) {
+            final InstrumentedThreadPoolExecutor threadPool = (InstrumentedThreadPoolExecutor) executor;
+            stats.setType(TRANSPORT_EXECUTOR_TYPE_BOUNDED);
+            stats.setPoolSize(threadPool.getPoolSize());
+            stats.setActiveCount(threadPool.getActiveCount());
+            stats.setQueueDepth(threadPool.getQueueDepth());
+            stats.setPeakQueueDepth(threadPool.getPeakQueueDepth());
+            stats.setQueueCapacity(threadPool.getQueueCapacity());
+            stats.setCompletedTaskCount(threadPool.getCompletedTaskCount());
+            stats.setRejectedTaskCount(threadPool.getRejectedTaskCount());
+        } else if (executor instanceof ForkJoinPool) {
+            final ForkJoinPool forkJoinPool = (ForkJoinPool) executor;
+            stats.setType(TRANSPORT_EXECUTOR_TYPE_COMMON_POOL);
+            stats.setPoolSize(forkJoinPool.getPoolSize());
+            stats.setActiveCount(forkJoinPool.getActiveThreadCount());
+            stats.setQueueDepth((int) forkJoinPool.getQueuedSubmissionCount());
+        } else {
+            stats.setType(TRANSPORT_EXECUTOR_TYPE_VIRTUAL);
+        }
+        return stats;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComTransportResilienceStats getTransportResilienceStats() {
+        final CheckoutComTransportResilienceStats stats = new CheckoutComTransportResilienceStats();
+        final TransportResiliencePolicy policy = getTransportResiliencePolicy();
+        stats.setEnabled(policy != null);
+        if (policy != null) {
+            final TransportResilienceMetrics metrics = policy.getMetrics();
+            stats.setRetryCount(metrics.getRetryCount());
+            stats.setRetriesExhaustedCount(metrics.getRetriesExhaustedCount());
+            stats.setShortCircuitedCount(metrics.getShortCircuitedCount());
+            stats.setCircuitOpenedCount(metrics.getCircuitOpenedCount());
+            stats.setCircuitStates(metrics.getCircuitStates().entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().name())));
+        }
+        return stats;
+    }
+
+    /**
+     * Shuts down the connection pools of every client and the transport executor when the application context is closed
+     */
+    @Override
+    public void destroy() {
+        clients.values().forEach(pooledCheckoutApi -> pooledCheckoutApi.getConnectionManager().shutdown());
+        clients.clear();
+        if (transportExecutor instanceof ExecutorService && !(transportExecutor instanceof ForkJoinPool)) {
+            ((ExecutorService) transportExecutor).shutdown();
+        }
+    }
+
+    /**
+     * Removes the clients matching the given predicate. Their connection pools are shut down once the grace
+     * time has passed, so calls already in flight on a retired client can still complete.
+     *
+     * @param keyPredicate the predicate selecting the clients to retire
+     */
+    protected void retire(final Predicate<CheckoutComApiClientKey> keyPredicate) {
+        final long graceTime = getConfiguration().getLong(RETIRED_CLIENT_GRACE_TIME, DEFAULT_RETIRED_CLIENT_GRACE_TIME);
+        clients.keySet().stream()
+                .filter(keyPredicate)
+                .collect(Collectors.toList())
+                .forEach(key -> {
+                    final PooledCheckoutApi retiredCheckoutApi = clients.remove(key);
+                    if (retiredCheckoutApi != null) {
+                        LOG.info("Retiring checkout.com api client [{}]", key);
+                        CompletableFuture.delayedExecutor(graceTime, TimeUnit.SECONDS)
+                                .execute(retiredCheckoutApi.getConnectionManager()::shutdown);
+                    }
+                });
+    }
+
+    protected PooledCheckoutApi createPooledCheckoutApi(final CheckoutComApiClientKey key) {
+        LOG.info("Creating pooled checkout.com api client [{}]", key);
+        final PoolingHttpClientConnectionManager connectionManager = createConnectionManager();
+        return new PooledCheckoutApi(createCheckoutApi(key, connectionManager), connectionManager);
+    }
+
+    protected PoolingHttpClientConnectionManager createConnectionManager() {
+        final Configuration configuration = getConfiguration();
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                configuration.getLong(POOL_CONNECTION_TIME_TO_LIVE, DEFAULT_POOL_CONNECTION_TIME_TO_LIVE), TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(configuration.getInt(POOL_MAX_TOTAL, DEFAULT_POOL_MAX_TOTAL));
+        connectionManager.setDefaultMaxPerRoute(configuration.getInt(POOL_MAX_PER_ROUTE, DEFAULT_POOL_MAX_PER_ROUTE));
+        connectionManager.setValidateAfterInactivity(configuration.getInt(POOL_VALIDATE_AFTER_INACTIVITY, DEFAULT_POOL_VALIDATE_AFTER_INACTIVITY));
+        return connectionManager;
+    }
+
+    protected CheckoutApi createCheckoutApi(final CheckoutComApiClientKey key,
+                                            final PoolingHttpClientConnectionManager connectionManager) {
+        final AbstractCheckoutSdkBuilder<CheckoutApiImpl> builder = new CheckoutSdkBuilder.CheckoutStaticKeysSdkBuilder()
+                .publicKey(key.getPublicKey())
+                .secretKey(key.getSecretKey())
+                .environment(EnvironmentType.TEST.equals(key.getEnvironment()) ? Environment.SANDBOX : Environment.PRODUCTION)
+                .httpClientBuilder(HttpClientBuilder.create().setConnectionManager(connectionManager))
+                .executor(getTransportExecutor());
+        if (getConfiguration().getBoolean(TRANSPORT_HTTP2_ENABLED, false)) {
+            builder.http2Transport();
+        }
+        final TransportResiliencePolicy resiliencePolicy = getTransportResiliencePolicy();
+        if (resiliencePolicy != null) {
+            builder.resiliencePolicy(resiliencePolicy);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the resilience policy shared by every client, so the clients of all the sites count the failures of
+     * the checkout.com hosts together, creating it on first use
+     *
+     * @return the resilience policy, or null when {@value #TRANSPORT_RESILIENCE_ENABLED} is false
+     */
+    protected TransportResiliencePolicy getTransportResiliencePolicy() {
+        if (!getConfiguration().getBoolean(TRANSPORT_RESILIENCE_ENABLED, true)) {
+            return null;
+        }
+        if (transportResiliencePolicy == null) {
+            synchronized (this) {
+                if (transportResiliencePolicy == null) {
+                    transportResiliencePolicy = createTransportResiliencePolicy();
+                }
+            }
+        }
+        return transportResiliencePolicy;
+    }
+
+    protected TransportResiliencePolicy createTransportResiliencePolicy() {
+        final Configuration configuration = getConfiguration();
+        return TransportResiliencePolicy.builder()
+                .connectTimeout(Duration.ofMillis(configuration.getLong(TRANSPORT_RESILIENCE_CONNECT_TIMEOUT, DEFAULT_TRANSPORT_RESILIENCE_CONNECT_TIMEOUT)))
+                .readTimeout(Duration.ofMillis(configuration.getLong(TRANSPORT_RESILIENCE_READ_TIMEOUT, DEFAULT_TRANSPORT_RESILIENCE_READ_TIMEOUT)))
+                .writeTimeout(Duration.ofMillis(configuration.getLong(TRANSPORT_RESILIENCE_WRITE_TIMEOUT, DEFAULT_TRANSPORT_RESILIENCE_WRITE_TIMEOUT)))
+                .maxRetries(configuration.getInt(TRANSPORT_RESILIENCE_MAX_RETRIES, DEFAULT_TRANSPORT_RESILIENCE_MAX_RETRIES))
+                .initialBackoff(Duration.ofMillis(configuration.getLong(TRANSPORT_RESILIENCE_INITIAL_BACKOFF, DEFAULT_TRANSPORT_RESILIENCE_INITIAL_BACKOFF)))
+                .maxBackoff(Duration.ofMillis(configuration.getLong(TRANSPORT_RESILIENCE_MAX_BACKOFF, DEFAULT_TRANSPORT_RESILIENCE_MAX_BACKOFF)))
+                .circuitBreakerFailureThreshold(configuration.getInt(TRANSPORT_RESILIENCE_FAILURE_THRESHOLD, DEFAULT_TRANSPORT_RESILIENCE_FAILURE_THRESHOLD))
+                .circuitBreakerOpenDuration(Duration.ofMillis(configuration.getLong(TRANSPORT_RESILIENCE_OPEN_DURATION, DEFAULT_TRANSPORT_RESILIENCE_OPEN_DURATION)))
+                .build();
+    }
+
+    /**
+     * Returns the executor shared by every client to run its calls, creating it on first use
+     *
+     * @return the transport executor
+     */
+    protected Executor getTransportExecutor() {
+        if (transportExecutor == null) {
+            synchronized (this) {
+                if (transportExecutor == null) {
+                    transportExecutor = createTransportExecutor();
+                }
+            }
+        }
+        return transportExecutor;
+    }
+
+    /**
+     * Creates the transport executor of the type configured in {@value #TRANSPORT_EXECUTOR_TYPE}: a bounded thread pool,
+     * virtual threads, or the common ForkJoinPool used by default by the SDK
+     *
+     * @return the transport executor
+     */
+    protected Executor createTransportExecutor() {
+        final Configuration configuration = getConfiguration();
+        final String type = configuration.getString(TRANSPORT_EXECUTOR_TYPE, TRANSPORT_EXECUTOR_TYPE_BOUNDED);
+        if (TRANSPORT_EXECUTOR_TYPE_COMMON_POOL.equalsIgnoreCase(type)) {
+            return ForkJoinPool.commonPool();
+        }
+        if (TRANSPORT_EXECUTOR_TYPE_VIRTUAL.equalsIgnoreCase(type)) {
+            if (TransportExecutors.isVirtualThreadsSupported()) {
+                return TransportExecutors.virtualThreads(TransportExecutors.DEFAULT_NAME);
+            }
+            LOG.warn("Virtual threads are not supported by this JVM, a bounded thread pool is used for the checkout.com transport");
+        }
+        return TransportExecutors.bounded(TransportExecutors.DEFAULT_NAME,
+                configuration.getInt(TRANSPORT_EXECUTOR_CORE_SIZE, DEFAULT_TRANSPORT_EXECUTOR_CORE_SIZE),
+                configuration.getInt(TRANSPORT_EXECUTOR_MAX_SIZE, DEFAULT_TRANSPORT_EXECUTOR_MAX_SIZE),
+                configuration.getInt(TRANSPORT_EXECUTOR_QUEUE_CAPACITY, DEFAULT_TRANSPORT_EXECUTOR_QUEUE_CAPACITY));
+    }
+
+    protected CheckoutComApiClientPoolStats createPoolStats(final CheckoutComApiClientKey key,
+                                                            final PoolingHttpClientConnectionManager connectionManager) {
+        final PoolStats totalStats = connectionManager.getTotalStats();
+        final CheckoutComApiClientPoolStats poolStats = new CheckoutComApiClientPoolStats();
+        poolStats.setSiteUid(key.getSiteUid());
+        poolStats.setEnvironment(key.getEnvironment());
+        poolStats.setLeased(totalStats.getLeased());
+        poolStats.setPending(totalStats.getPending());
+        poolStats.setAvailable(totalStats.getAvailable());
+        poolStats.setMax(totalStats.getMax());
+        poolStats.setRoutes(connectionManager.getRoutes().stream()
+                .map(route -> createRoutePoolStats(route, connectionManager.getStats(route)))
+                .collect(Collectors.toList()));
+        return poolStats;
+    }
+
+    protected CheckoutComApiClientRoutePoolStats createRoutePoolStats(final HttpRoute route, final PoolStats stats) {
+        final CheckoutComApiClientRoutePoolStats routePoolStats = new CheckoutComApiClientRoutePoolStats();
+        routePoolStats.setRoute(route.getTargetHost().toURI());
+        routePoolStats.setLeased(stats.getLeased());
+        routePoolStats.setPending(stats.getPending());
+        routePoolStats.setAvailable(stats.getAvailable());
+        routePoolStats.setMax(stats.getMax());
+        return routePoolStats;
+    }
+
+    protected Map<CheckoutComApiClientKey, PooledCheckoutApi> getClients() {
+        return clients;
+    }
+
+    protected Configuration getConfiguration() {
+        return configurationService.getConfiguration();
+    }
+
+    /**
+     * Identifies a client by the site and the merchant credentials it was created with
+     */
+    protected static final class CheckoutComApiClientKey {
+
+        private final String siteUid;
+        private final String secretKey;
+        private final String publicKey;
+        private final EnvironmentType environment;
+
+        protected CheckoutComApiClientKey(final String siteUid, final String secretKey, final String publicKey,
+                                          final EnvironmentType environment) {
+            this.siteUid = siteUid;
+            this.secretKey = secretKey;
+            this.publicKey = publicKey;
+            this.environment = environment;
+        }
+
+        public String getSiteUid() {
+            return siteUid;
+        }
+
+        public String getSecretKey() {
+            return secretKey;
+        }
+
+        public String getPublicKey() {
+            return publicKey;
+        }
+
+        public EnvironmentType getEnvironment() {
+            return environment;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final CheckoutComApiClientKey that = (CheckoutComApiClientKey) o;
+            return Objects.equals(siteUid, that.siteUid) && Objects.equals(secretKey, that.secretKey)
+                    && Objects.equals(publicKey, that.publicKey) && Objects.equals(environment, that.environment);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(siteUid, secretKey, publicKey, environment);
+        }
+
+        @Override
+        public String toString() {
+            // The secret key must never end up in the logs
+            return "site=" + siteUid + ", publicKey=" + publicKey + ", environment=" + environment;
+        }
+    }
+
+    /**
+     * A checkout.com api together with the connection pool it was built on
+     */
+    protected static final class PooledCheckoutApi {
+
+        private final CheckoutApi checkoutApi;
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        protected PooledCheckoutApi(final CheckoutApi checkoutApi, final PoolingHttpClientConnectionManager connectionManager) {
+            this.checkoutApi = checkoutApi;
+            this.connectionManager = connectionManager;
+        }
+
+        public CheckoutApi getCheckoutApi() {
+            return checkoutApi;
+        }
+
+        public PoolingHttpClientConnectionManager getConnectionManager() {
+            return connectionManager;
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.checkout.hybris.core.payment.services.impl;
 
-import com.checkout.hybris.core.enums.EnvironmentType;
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
+import com.checkout.hybris.core.payment.services.CheckoutComApiClientRegistry;
 import com.checkout.hybris.core.payment.services.CheckoutComApiService;
 import com.checkout.CheckoutApi;
-import com.checkout.CheckoutSdkBuilder;
-import com.checkout.Environment;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.site.BaseSiteService;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 public class DefaultCheckoutComApiService implements CheckoutComApiService {
 	private final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService;
+	private final BaseSiteService baseSiteService;
+	private final CheckoutComApiClientRegistry checkoutComApiClientRegistry;
 
-	public DefaultCheckoutComApiService(final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService) {
+	public DefaultCheckoutComApiService(final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
+										final BaseSiteService baseSiteService,
+										final CheckoutComApiClientRegistry checkoutComApiClientRegistry) {
 		this.checkoutComMerchantConfigurationService = checkoutComMerchantConfigurationService;
+		this.baseSiteService = baseSiteService;
+		this.checkoutComApiClientRegistry = checkoutComApiClientRegistry;
 	}
 
 	@Override
@@ -20,20 +28,12 @@ public class DefaultCheckoutComApiService implements CheckoutComApiService {
 	}
 
 	protected CheckoutApi createCheckoutComApi() {
-		final String secretKey = checkoutComMerchantConfigurationService.getSecretKey();
-		final String publicKey = checkoutComMerchantConfigurationService.getPublicKey();
-		final boolean useSandbox = checkoutComMerchantConfigurationService.getEnvironment()
-																		  .equals(EnvironmentType.TEST);
-		return createCheckoutComApi(secretKey, publicKey, useSandbox);
+		final BaseSiteModel currentBaseSite = baseSiteService.getCurrentBaseSite();
+		checkArgument(currentBaseSite != null, "Current base site cannot be null");
 
+		return checkoutComApiClientRegistry.getCheckoutApi(currentBaseSite.getUid(),
+														   checkoutComMerchantConfigurationService.getSecretKey(),
+														   checkoutComMerchantConfigurationService.getPublicKey(),
+														   checkoutComMerchantConfigurationService.getEnvironment());
 	}
-
-	protected CheckoutApi createCheckoutComApi(final String secretKey, final String publicKey,
-											   final boolean useSandbox) {
-        return new CheckoutSdkBuilder.CheckoutStaticKeysSdkBuilder()
-            .publicKey(publicKey)
-            .secretKey(secretKey)
-            .environment(useSandbox ? Environment.SANDBOX : Environment.PRODUCTION)
-            .build();
-    }
 }
@@ -0,0 +1,368 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.certificate.exceptions.CheckoutComCertificateException;
+import com.checkout.hybris.core.certificate.services.CheckoutComCertificateService;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
+import com.checkout.hybris.core.model.CheckoutComApplePayConfigurationModel;
+import com.checkout.hybris.core.payment.services.CheckoutComApplePayClientRegistry;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyManagementException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.RSAPrivateKey;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Default implementation of the {@link CheckoutComApplePayClientRegistry}. Clients are kept per site and fingerprint
+ * of the certificate and private key, so a site whose Apple Pay configuration changed on any cluster node gets a new
+ * client on its next call and the previous one is retired.
+ */
+public class DefaultCheckoutComApplePayClientRegistry implements CheckoutComApplePayClientRegistry, DisposableBean {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComApplePayClientRegistry.class);
+
+    protected static final String APPLE_PAY_KEY_STORE_ALIAS = "checkoutcom.applePay.keystore.alias";
+    protected static final String APPLE_PAY_KEY_STORE_PASSWORD = "checkoutcom.applePay.keystore.password";
+    protected static final String POOL_MAX_TOTAL = "checkoutservices.applepay.httpclient.pool.maxtotal";
+    protected static final String POOL_MAX_PER_ROUTE = "checkoutservices.applepay.httpclient.pool.maxperroute";
+    protected static final String CONNECT_TIMEOUT = "checkoutservices.applepay.httpclient.connecttimeout.ms";
+    protected static final String SOCKET_TIMEOUT = "checkoutservices.applepay.httpclient.sockettimeout.ms";
+    protected static final String RETIRED_CLIENT_GRACE_TIME = "checkoutservices.applepay.httpclient.retiredclient.gracetime.seconds";
+    protected static final String CERTIFICATE_EXPIRY_WARNING_DAYS = "checkoutservices.applepay.certificate.expirywarning.days";
+
+    protected static final int DEFAULT_POOL_MAX_TOTAL = 20;
+    protected static final int DEFAULT_POOL_MAX_PER_ROUTE = 20;
+    protected static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    protected static final int DEFAULT_SOCKET_TIMEOUT = 30000;
+    protected static final long DEFAULT_RETIRED_CLIENT_GRACE_TIME = 60L;
+    protected static final int DEFAULT_CERTIFICATE_EXPIRY_WARNING_DAYS = 30;
+    protected static final long CERTIFICATE_EXPIRY_CHECK_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+    protected final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService;
+    protected final BaseSiteService baseSiteService;
+    protected final CheckoutComCertificateService checkoutComCertificateService;
+    protected final ConfigurationService configurationService;
+
+    private final ConcurrentMap<ApplePayClientKey, PooledApplePayClient> clients = new ConcurrentHashMap<>();
+
+    public DefaultCheckoutComApplePayClientRegistry(final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
+                                                    final BaseSiteService baseSiteService,
+                                                    final CheckoutComCertificateService checkoutComCertificateService,
+                                                    final ConfigurationService configurationService) {
+        this.checkoutComMerchantConfigurationService = checkoutComMerchantConfigurationService;
+        this.baseSiteService = baseSiteService;
+        this.checkoutComCertificateService = checkoutComCertificateService;
+        this.configurationService = configurationService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SSLContext getSslContext() {
+        return getCurrentClient().getSslContext();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RestTemplate getRestTemplate() {
+        return getCurrentClient().getRestTemplate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateByApplePayConfiguration(final PK applePayConfigurationPk) {
+        retire(entryKey -> Objects.equals(entryKey.getApplePayConfigurationPk(), applePayConfigurationPk));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidateAll() {
+        retire(entryKey -> true);
+    }
+
+    /**
+     * Closes the http clients when the application context is closed
+     */
+    @Override
+    public void destroy() {
+        clients.values().forEach(PooledApplePayClient::close);
+        clients.clear();
+    }
+
+    /**
+     * Returns the client of the current site, building it when the site has none yet or when the certificate or
+     * private key of its Apple Pay configuration changed
+     *
+     * @return the client of the current site
+     */
+    protected PooledApplePayClient getCurrentClient() {
+        final CheckoutComApplePayConfigurationModel applePayConfiguration = checkoutComMerchantConfigurationService.getApplePayConfiguration();
+        Assert.notNull(applePayConfiguration, "CheckoutComApplePayConfigurationModel cannot be null.");
+
+        final String siteUid = getCurrentSiteUid();
+        final ApplePayClientKey key = new ApplePayClientKey(siteUid, applePayConfiguration.getPk(), createFingerprint(applePayConfiguration));
+        PooledApplePayClient client = clients.get(key);
+        if (client == null) {
+            client = clients.computeIfAbsent(key, clientKey -> createPooledApplePayClient(clientKey, applePayConfiguration));
+            retire(entryKey -> Objects.equals(entryKey.getSiteUid(), siteUid) && !entryKey.equals(key));
+        }
+        if (client.isCertificateExpiryCheckDue()) {
+            logCertificateExpiry(key, client.getCertificateNotAfter());
+        }
+        return client;
+    }
+
+    protected String getCurrentSiteUid() {
+        final BaseSiteModel currentBaseSite = baseSiteService.getCurrentBaseSite();
+        return currentBaseSite != null ? currentBaseSite.getUid() : null;
+    }
+
+    /**
+     * Hashes the certificate and private key as stored, so comparing them does not require parsing them
+     *
+     * @param applePayConfiguration the Apple Pay configuration
+     * @return the hex encoded SHA-256 of the certificate and private key
+     */
+    protected String createFingerprint(final CheckoutComApplePayConfigurationModel applePayConfiguration) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(StringUtils.defaultString(applePayConfiguration.getCertificate()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(StringUtils.defaultString(applePayConfiguration.getPrivateKey()).getBytes(StandardCharsets.UTF_8));
+            return Hex.encodeHexString(digest.digest());
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    protected PooledApplePayClient createPooledApplePayClient(final ApplePayClientKey key,
+                                                              final CheckoutComApplePayConfigurationModel applePayConfiguration) {
+        LOG.info("Creating pooled Apple Pay client [{}]", key);
+        final X509Certificate certificate = checkoutComCertificateService.generateX509Certificate(
+                checkoutComCertificateService.cleanupCertificate(applePayConfiguration.getCertificate()));
+        final RSAPrivateKey privateKey = checkoutComCertificateService.generatePrivateKey(
+                checkoutComCertificateService.cleanupPrivateKey(applePayConfiguration.getPrivateKey()));
+
+        final SSLContext sslContext = createSslContext(certificate, privateKey);
+        final CloseableHttpClient httpClient = createHttpClient(sslContext);
+        final RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        return new PooledApplePayClient(sslContext, httpClient, restTemplate, certificate.getNotAfter());
+    }
+
+    protected SSLContext createSslContext(final X509Certificate certificate, final RSAPrivateKey privateKey) {
+        final String keyStoreAlias = getConfiguration().getString(APPLE_PAY_KEY_STORE_ALIAS);
+        final String keyStorePassword = getConfiguration().getString(APPLE_PAY_KEY_STORE_PASSWORD);
+        final KeyStore keyStore = checkoutComCertificateService.generateKeyStore(keyStoreAlias, keyStorePassword, privateKey, certificate);
+
+        try {
+            return SSLContextBuilder.create()
+                    .loadKeyMaterial(keyStore, keyStorePassword.toCharArray())
+                    .loadTrustMaterial(null, new TrustSelfSignedStrategy()).build();
+        } catch (final NoSuchAlgorithmException | KeyStoreException | UnrecoverableKeyException | KeyManagementException e) {
+            throw new CheckoutComCertificateException("Exception while building SSL context", e);
+        }
+    }
+
+    protected CloseableHttpClient createHttpClient(final SSLContext sslContext) {
+        final Configuration configuration = getConfiguration();
+        return HttpClients.custom()
+                .setSSLSocketFactory(new SSLConnectionSocketFactory(sslContext))
+                .setMaxConnTotal(configuration.getInt(POOL_MAX_TOTAL, DEFAULT_POOL_MAX_TOTAL))
+                .setMaxConnPerRoute(configuration.getInt(POOL_MAX_PER_ROUTE, DEFAULT_POOL_MAX_PER_ROUTE))
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(configuration.getInt(CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT))
+                        .setSocketTimeout(configuration.getInt(SOCKET_TIMEOUT, DEFAULT_SOCKET_TIMEOUT))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Warns when the certificate of a client expires within the configured number of days, and logs an error once
+     * it has expired, as Apple then refuses the merchant validation
+     *
+     * @param key      the key of the client
+     * @param notAfter the end of the validity of the certificate
+     */
+    protected void logCertificateExpiry(final ApplePayClientKey key, final Date notAfter) {
+        final long remainingMillis = notAfter.getTime() - System.currentTimeMillis();
+        final long warningMillis = TimeUnit.DAYS.toMillis(getConfiguration().getInt(CERTIFICATE_EXPIRY_WARNING_DAYS, DEFAULT_CERTIFICATE_EXPIRY_WARNING_DAYS));
+        if (remainingMillis <= 0) {
+            LOG.error("The Apple Pay certificate of client [{}] expired on [{}].", key, notAfter);
+        } else if (remainingMillis <= warningMillis) {
+            LOG.warn("The Apple Pay certificate of client [{}] expires in [{}] days, on [{}].", key,
+                    TimeUnit.MILLISECONDS.toDays(remainingMillis), notAfter);
+        }
+    }
+
+    /**
+     * Removes the clients matching the given predicate. Their http clients are closed once the grace time has
+     * passed, so merchant validations already in flight can still complete.
+     *
+     * @param keyPredicate the predicate selecting the clients to retire
+     */
+    protected void retire(final Predicate<ApplePayClientKey> keyPredicate) {
+        final long graceTime = getConfiguration().getLong(RETIRED_CLIENT_GRACE_TIME, DEFAULT_RETIRED_CLIENT_GRACE_TIME);
+        clients.keySet().stream()
+                .filter(keyPredicate)
+                .collect(Collectors.toList())
+                .forEach(key -> {
+                    final PooledApplePayClient retiredClient = clients.remove(key);
+                    if (retiredClient != null) {
+                        LOG.info("Retiring Apple Pay client [{}]", key);
+                        CompletableFuture.delayedExecutor(graceTime, TimeUnit.SECONDS).execute(retiredClient::close);
+                    }
+                });
+    }
+
+    protected Map<ApplePayClientKey, PooledApplePayClient> getClients() {
+        return clients;
+    }
+
+    protected Configuration getConfiguration() {
+        return configurationService.getConfiguration();
+    }
+
+    /**
+     * Identifies a client by the site, the Apple Pay configuration and the fingerprint of its certificate and key
+     */
+    protected static final class ApplePayClientKey {
+
+        private final String siteUid;
+        private final PK applePayConfigurationPk;
+        private final String fingerprint;
+
+        protected ApplePayClientKey(final String siteUid, final PK applePayConfigurationPk, final String fingerprint) {
+            this.siteUid = siteUid;
+            this.applePayConfigurationPk = applePayConfigurationPk;
+            this.fingerprint = fingerprint;
+        }
+
+        public String getSiteUid() {
+            return siteUid;
+        }
+
+        public PK getApplePayConfigurationPk() {
+            return applePayConfigurationPk;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final ApplePayClientKey that = (ApplePayClientKey) o;
+            return Objects.equals(siteUid, that.siteUid) && Objects.equals(applePayConfigurationPk, that.applePayConfigurationPk)
+                    && Objects.equals(fingerprint, that.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(siteUid, applePayConfigurationPk, fingerprint);
+        }
+
+        @Override
+        public String toString() {
+            return "site=" + siteUid + ", applePayConfiguration=" + applePayConfigurationPk + ", fingerprint=" + StringUtils.left(fingerprint, 12);
+        }
+    }
+
+    /**
+     * The ssl context of a site together with the pooled http client and rest template built on it
+     */
+    protected static final class PooledApplePayClient {
+
+        private final SSLContext sslContext;
+        private final CloseableHttpClient httpClient;
+        private final RestTemplate restTemplate;
+        private final Date certificateNotAfter;
+        private final AtomicLong nextCertificateExpiryCheck = new AtomicLong();
+
+        protected PooledApplePayClient(final SSLContext sslContext, final CloseableHttpClient httpClient,
+                                       final RestTemplate restTemplate, final Date certificateNotAfter) {
+            this.sslContext = sslContext;
+            this.httpClient = httpClient;
+            this.restTemplate = restTemplate;
+            this.certificateNotAfter = certificateNotAfter;
+        }
+
+        public SSLContext getSslContext() {
+            return sslContext;
+        }
+
+        public RestTemplate getRestTemplate() {
+            return restTemplate;
+        }
+
+        public Date getCertificateNotAfter() {
+            return certificateNotAfter;
+        }
+
+        /**
+         * Returns true for a single caller at most once per {@link #CERTIFICATE_EXPIRY_CHECK_INTERVAL}
+         *
+         * @return whether the caller should check the expiry of the certificate
+         */
+        public boolean isCertificateExpiryCheckDue() {
+            final long now = System.currentTimeMillis();
+            final long nextCheck = nextCertificateExpiryCheck.get();
+            return now >= nextCheck && nextCertificateExpiryCheck.compareAndSet(nextCheck, now + CERTIFICATE_EXPIRY_CHECK_INTERVAL);
+        }
+
+        public void close() {
+            try {
+                httpClient.close();
+            } catch (final IOException e) {
+                LOG.warn("Error closing the Apple Pay http client", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.model.CheckoutComInstrumentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComInstrumentCommandDao;
+import com.checkout.hybris.core.payment.services.CheckoutComInstrumentCommandDispatcher;
+import com.checkout.hybris.core.payment.services.CheckoutComInstrumentCommandService;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+
+/**
+ * Default implementation of {@link CheckoutComInstrumentCommandDispatcher}. Removing or updating a saved card does not
+ * wait for Checkout.com, and the deletes recorded in bulk by the erasure jobs are drained at a bounded pace. The
+ * commands of an instrument are dispatched one at a time, in the order they were recorded.
+ */
+public class DefaultCheckoutComInstrumentCommandDispatcher extends CheckoutComAbstractCommandDispatcher<CheckoutComInstrumentCommandModel>
+        implements CheckoutComInstrumentCommandDispatcher {
+
+    protected static final String PROPERTY_PREFIX = "checkoutservices.instrument.command.dispatcher";
+
+    protected static final int DEFAULT_INSTRUMENT_WORKERS = 4;
+    protected static final int DEFAULT_INSTRUMENT_BATCH_SIZE = 100;
+    protected static final double DEFAULT_INSTRUMENT_PERMITS_PER_SECOND = 5D;
+
+    protected final CheckoutComInstrumentCommandService checkoutComInstrumentCommandService;
+
+    public DefaultCheckoutComInstrumentCommandDispatcher(final ConfigurationService configurationService,
+                                                         final ModelService modelService,
+                                                         final TimeService timeService,
+                                                         final SessionService sessionService,
+                                                         final UserService userService,
+                                                         final BaseSiteService baseSiteService,
+                                                         final CheckoutComInstrumentCommandService checkoutComInstrumentCommandService,
+                                                         final CheckoutComInstrumentCommandDao checkoutComInstrumentCommandDao) {
+        super(PROPERTY_PREFIX, configurationService, modelService, timeService, sessionService, userService, baseSiteService,
+                checkoutComInstrumentCommandDao);
+        this.checkoutComInstrumentCommandService = checkoutComInstrumentCommandService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void executeCommand(final CheckoutComInstrumentCommandModel command) {
+        checkoutComInstrumentCommandService.executeCommand(command);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getSiteUid(final CheckoutComInstrumentCommandModel command) {
+        return command.getSiteUid();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describeCommand(final CheckoutComInstrumentCommandModel command) {
+        return "[" + command.getType() + "] command of instrument [" + command.getInstrumentId() + "]";
+    }
+
+    @Override
+    protected int getDefaultWorkers() {
+        return DEFAULT_INSTRUMENT_WORKERS;
+    }
+
+    @Override
+    protected int getDefaultBatchSize() {
+        return DEFAULT_INSTRUMENT_BATCH_SIZE;
+    }
+
+    @Override
+    protected double getDefaultPermitsPerSecond() {
+        return DEFAULT_INSTRUMENT_PERMITS_PER_SECOND;
+    }
+}
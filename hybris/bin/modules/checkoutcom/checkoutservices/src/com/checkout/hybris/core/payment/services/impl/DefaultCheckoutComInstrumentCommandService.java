@@ -0,0 +1,338 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.CheckoutApiException;
+import com.checkout.hybris.core.enums.CheckoutComInstrumentCommandType;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.model.CheckoutComInstrumentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComInstrumentCommandDao;
+import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.services.CheckoutComApiService;
+import com.checkout.hybris.core.payment.services.CheckoutComInstrumentCommandService;
+import com.checkout.instruments.InstrumentsClient;
+import com.checkout.instruments.update.UpdateInstrumentCardRequest;
+import com.google.common.collect.Iterables;
+import de.hybris.platform.core.model.order.payment.CreditCardPaymentInfoModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpStatus;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+
+/**
+ * Default implementation of the {@link CheckoutComInstrumentCommandService}
+ */
+public class DefaultCheckoutComInstrumentCommandService implements CheckoutComInstrumentCommandService {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComInstrumentCommandService.class);
+
+    protected static final String MAX_ATTEMPTS = "checkoutservices.instrument.command.maxattempts";
+    protected static final String INITIAL_BACKOFF = "checkoutservices.instrument.command.backoff.initial.seconds";
+    protected static final String MAX_BACKOFF = "checkoutservices.instrument.command.backoff.max.seconds";
+    protected static final String BULK_BATCH_SIZE = "checkoutservices.instrument.command.bulk.batchsize";
+
+    protected static final int DEFAULT_MAX_ATTEMPTS = 10;
+    protected static final long DEFAULT_INITIAL_BACKOFF = 5L;
+    protected static final long DEFAULT_MAX_BACKOFF = 300L;
+    protected static final int DEFAULT_BULK_BATCH_SIZE = 500;
+    protected static final int SC_TOO_MANY_REQUESTS = 429;
+
+    protected final ConfigurationService configurationService;
+    protected final ModelService modelService;
+    protected final TimeService timeService;
+    protected final CheckoutComApiService checkoutComApiService;
+    protected final CheckoutComInstrumentCommandDao checkoutComInstrumentCommandDao;
+
+    public DefaultCheckoutComInstrumentCommandService(final ConfigurationService configurationService,
+                                                      final ModelService modelService,
+                                                      final TimeService timeService,
+                                                      final CheckoutComApiService checkoutComApiService,
+                                                      final CheckoutComInstrumentCommandDao checkoutComInstrumentCommandDao) {
+        this.configurationService = configurationService;
+        this.modelService = modelService;
+        this.timeService = timeService;
+        this.checkoutComApiService = checkoutComApiService;
+        this.checkoutComInstrumentCommandDao = checkoutComInstrumentCommandDao;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComInstrumentCommandModel submitDeleteCommand(final CreditCardPaymentInfoModel creditCardPaymentInfo, final String siteUid) {
+        validateParameterNotNull(creditCardPaymentInfo, "Credit card payment info cannot be null");
+        validateParameterNotNull(creditCardPaymentInfo.getSubscriptionId(), "Subscription id cannot be null");
+        validateParameterNotNull(siteUid, "Site uid cannot be null");
+
+        final String instrumentId = creditCardPaymentInfo.getSubscriptionId();
+        final String idempotencyKey = createDeleteIdempotencyKey(instrumentId);
+        final Optional<CheckoutComInstrumentCommandModel> recordedCommand = checkoutComInstrumentCommandDao.findCommandByIdempotencyKey(idempotencyKey);
+        if (recordedCommand.isPresent()) {
+            return recordedCommand.get();
+        }
+
+        final CheckoutComInstrumentCommandModel command = createCommand(idempotencyKey, CheckoutComInstrumentCommandType.DELETE, instrumentId, siteUid);
+        command.setPaymentInfoCode(creditCardPaymentInfo.getCode());
+        try {
+            modelService.save(command);
+        } catch (final ModelSavingException e) {
+            // The same card is removed concurrently and its delete has already been recorded
+            return checkoutComInstrumentCommandDao.findCommandByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+        }
+        LOG.info("Recorded the delete of the instrument of credit card with code [{}].", creditCardPaymentInfo.getCode());
+        return command;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComInstrumentCommandModel submitUpdateCommand(final CreditCardPaymentInfoModel creditCardPaymentInfo, final String siteUid) {
+        validateParameterNotNull(creditCardPaymentInfo, "Credit card payment info cannot be null");
+        validateParameterNotNull(creditCardPaymentInfo.getSubscriptionId(), "Subscription id cannot be null");
+        validateParameterNotNull(siteUid, "Site uid cannot be null");
+
+        final String instrumentId = creditCardPaymentInfo.getSubscriptionId();
+        final Optional<CheckoutComInstrumentCommandModel> deleteCommand = checkoutComInstrumentCommandDao.findCommandByIdempotencyKey(createDeleteIdempotencyKey(instrumentId));
+        if (deleteCommand.isPresent()) {
+            LOG.debug("The instrument of credit card with code [{}] is deleted, the update is not recorded.", creditCardPaymentInfo.getCode());
+            return deleteCommand.get();
+        }
+
+        final String cardHolderName = creditCardPaymentInfo.getCcOwner();
+        final Integer expiryMonth = parseExpiryDate(creditCardPaymentInfo.getValidToMonth());
+        final Integer expiryYear = parseExpiryDate(creditCardPaymentInfo.getValidToYear());
+        final Optional<CheckoutComInstrumentCommandModel> pendingUpdate = findLatestPendingUpdate(instrumentId);
+        if (pendingUpdate.isPresent() && checkoutComInstrumentCommandDao.updatePendingCommand(pendingUpdate.get(), cardHolderName, expiryMonth, expiryYear)) {
+            modelService.refresh(pendingUpdate.get());
+            LOG.info("Merged the update of the instrument of credit card with code [{}] into the pending one.", creditCardPaymentInfo.getCode());
+            return pendingUpdate.get();
+        }
+
+        final CheckoutComInstrumentCommandModel command = createCommand(UUID.randomUUID().toString(), CheckoutComInstrumentCommandType.UPDATE, instrumentId, siteUid);
+        command.setPaymentInfoCode(creditCardPaymentInfo.getCode());
+        command.setCardHolderName(cardHolderName);
+        command.setExpiryMonth(expiryMonth);
+        command.setExpiryYear(expiryYear);
+        modelService.save(command);
+        LOG.info("Recorded the update of the instrument of credit card with code [{}].", creditCardPaymentInfo.getCode());
+        return command;
+    }
+
+    /**
+     * The latest pending update of the instrument is the one sent last, so it is the one the new card details are
+     * merged into
+     *
+     * @param instrumentId the id of the Checkout.com instrument
+     * @return the latest pending update of the instrument
+     */
+    protected Optional<CheckoutComInstrumentCommandModel> findLatestPendingUpdate(final String instrumentId) {
+        return checkoutComInstrumentCommandDao.findPendingCommands(instrumentId).stream()
+                .filter(pendingCommand -> CheckoutComInstrumentCommandType.UPDATE.equals(pendingCommand.getType()))
+                .reduce((older, newer) -> newer);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int submitDeleteCommands(final Collection<String> instrumentIds, final String siteUid) {
+        validateParameterNotNull(instrumentIds, "Instrument ids cannot be null");
+        validateParameterNotNull(siteUid, "Site uid cannot be null");
+
+        final Map<String, String> instrumentIdsByKey = instrumentIds.stream()
+                .filter(StringUtils::isNotBlank)
+                .distinct()
+                .collect(Collectors.toMap(this::createDeleteIdempotencyKey, instrumentId -> instrumentId, (first, second) -> first, LinkedHashMap::new));
+
+        int recorded = 0;
+        for (final List<String> keys : Iterables.partition(instrumentIdsByKey.keySet(), getBulkBatchSize())) {
+            final Set<String> recordedKeys = checkoutComInstrumentCommandDao.findCommandsByIdempotencyKeys(keys).stream()
+                    .map(CheckoutComInstrumentCommandModel::getIdempotencyKey)
+                    .collect(Collectors.toSet());
+            final List<CheckoutComInstrumentCommandModel> commands = new ArrayList<>();
+            for (final String key : keys) {
+                if (!recordedKeys.contains(key)) {
+                    commands.add(createCommand(key, CheckoutComInstrumentCommandType.DELETE, instrumentIdsByKey.get(key), siteUid));
+                }
+            }
+            recorded += saveCommands(commands);
+        }
+        LOG.info("Recorded the delete of [{}] instruments of site [{}].", recorded, siteUid);
+        return recorded;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void executeCommand(final CheckoutComInstrumentCommandModel command) {
+        validateParameterNotNull(command, "Command cannot be null");
+
+        command.setAttempts(command.getAttempts() + 1);
+        try {
+            sendCommand(command);
+            command.setStatus(CheckoutComPaymentCommandStatus.COMPLETED);
+            command.setLastError(null);
+            LOG.info("The [{}] command of instrument [{}] is completed.", command.getType(), command.getInstrumentId());
+        } catch (final CheckoutComPaymentIntegrationException e) {
+            handleFailedAttempt(command, e);
+        } catch (final RuntimeException e) {
+            LOG.error("The [{}] command of instrument [{}] has failed.", command.getType(), command.getInstrumentId(), e);
+            command.setStatus(CheckoutComPaymentCommandStatus.FAILED);
+            command.setLastError(e.getMessage());
+        }
+        modelService.save(command);
+    }
+
+    /**
+     * Sends the command with the instruments client of the merchant of the current site. A delete of an instrument
+     * Checkout.com does not know is completed, as the instrument is gone either way. Server errors and lost responses
+     * are retried, the other client errors are not.
+     *
+     * @param command the command to send
+     */
+    protected void sendCommand(final CheckoutComInstrumentCommandModel command) {
+        final InstrumentsClient instrumentsClient = checkoutComApiService.createCheckoutApi().instrumentsClient();
+        try {
+            switch (command.getType()) {
+                case DELETE:
+                    instrumentsClient.delete(command.getInstrumentId()).get();
+                    break;
+                case UPDATE:
+                    instrumentsClient.update(command.getInstrumentId(), UpdateInstrumentCardRequest.builder()
+                            .name(command.getCardHolderName())
+                            .expiryYear(command.getExpiryYear())
+                            .expiryMonth(command.getExpiryMonth())
+                            .build()).get();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported instrument command type " + command.getType());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CheckoutComPaymentIntegrationException("Instrument command interrupted", e);
+        } catch (final ExecutionException e) {
+            final CheckoutApiException apiException = e.getCause() instanceof CheckoutApiException checkoutApiException ? checkoutApiException : null;
+            final Integer httpStatusCode = apiException != null && !apiException.isTransportFailure() ? apiException.getHttpStatusCode() : null;
+            if (httpStatusCode != null && httpStatusCode == HttpStatus.SC_NOT_FOUND && CheckoutComInstrumentCommandType.DELETE.equals(command.getType())) {
+                LOG.info("The instrument [{}] is not known by Checkout.com, it has already been deleted.", command.getInstrumentId());
+                return;
+            }
+            if (httpStatusCode == null || httpStatusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR
+                    || httpStatusCode == HttpStatus.SC_REQUEST_TIMEOUT || httpStatusCode == SC_TOO_MANY_REQUESTS) {
+                throw new CheckoutComPaymentIntegrationException("Instrument command failed", e);
+            }
+            throw new IllegalStateException("Instrument command rejected with status code " + httpStatusCode, e);
+        }
+    }
+
+    protected void handleFailedAttempt(final CheckoutComInstrumentCommandModel command, final CheckoutComPaymentIntegrationException e) {
+        command.setLastError(e.getMessage());
+        final int maxAttempts = configurationService.getConfiguration().getInt(MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS);
+        if (command.getAttempts() >= maxAttempts) {
+            LOG.error("The [{}] command of instrument [{}] has failed after [{}] attempts: [{}]",
+                    command.getType(), command.getInstrumentId(), command.getAttempts(), e.getMessage());
+            command.setStatus(CheckoutComPaymentCommandStatus.FAILED);
+        } else {
+            final long backoffSeconds = getBackoffSeconds(command.getAttempts());
+            LOG.warn("Attempt [{}] of the [{}] command of instrument [{}] has failed: [{}]. Retrying in [{}] seconds.",
+                    command.getAttempts(), command.getType(), command.getInstrumentId(), e.getMessage(), backoffSeconds);
+            command.setStatus(CheckoutComPaymentCommandStatus.PENDING);
+            command.setNextAttemptTime(new Date(timeService.getCurrentTime().getTime() + backoffSeconds * 1000L));
+        }
+    }
+
+    /**
+     * Exponential backoff between the attempts of a command, capped to the configured maximum
+     *
+     * @param attempts the number of attempts made so far
+     * @return the time to wait before the next attempt, in seconds
+     */
+    protected long getBackoffSeconds(final int attempts) {
+        final long initialBackoff = configurationService.getConfiguration().getLong(INITIAL_BACKOFF, DEFAULT_INITIAL_BACKOFF);
+        final long maxBackoff = configurationService.getConfiguration().getLong(MAX_BACKOFF, DEFAULT_MAX_BACKOFF);
+        return Math.min(maxBackoff, initialBackoff << Math.min(Math.max(attempts - 1, 0), 20));
+    }
+
+    /**
+     * Saves a batch of new commands at once. When another node records some of them in the meantime the batch is
+     * saved one command at a time, skipping the ones already recorded.
+     *
+     * @param commands the new commands
+     * @return the number of commands saved
+     */
+    protected int saveCommands(final List<CheckoutComInstrumentCommandModel> commands) {
+        if (commands.isEmpty()) {
+            return 0;
+        }
+        try {
+            modelService.saveAll(commands);
+            return commands.size();
+        } catch (final ModelSavingException e) {
+            LOG.debug("Could not save the batch of instrument commands, saving them one by one.", e);
+        }
+
+        int saved = 0;
+        for (final CheckoutComInstrumentCommandModel command : commands) {
+            try {
+                modelService.save(command);
+                saved++;
+            } catch (final ModelSavingException e) {
+                LOG.debug("The delete of instrument [{}] has already been recorded.", command.getInstrumentId());
+                modelService.detach(command);
+            }
+        }
+        return saved;
+    }
+
+    protected CheckoutComInstrumentCommandModel createCommand(final String idempotencyKey,
+                                                              final CheckoutComInstrumentCommandType type,
+                                                              final String instrumentId,
+                                                              final String siteUid) {
+        final CheckoutComInstrumentCommandModel command = modelService.create(CheckoutComInstrumentCommandModel.class);
+        command.setIdempotencyKey(idempotencyKey);
+        command.setType(type);
+        command.setStatus(CheckoutComPaymentCommandStatus.PENDING);
+        command.setInstrumentId(instrumentId);
+        command.setSiteUid(siteUid);
+        command.setAttempts(0);
+        command.setNextAttemptTime(timeService.getCurrentTime());
+        return command;
+    }
+
+    /**
+     * An instrument is deleted once, so the key of its delete is derived from the instrument
+     *
+     * @param instrumentId the id of the Checkout.com instrument
+     * @return the idempotency key of the delete
+     */
+    protected String createDeleteIdempotencyKey(final String instrumentId) {
+        return UUID.nameUUIDFromBytes((instrumentId + "-" + CheckoutComInstrumentCommandType.DELETE.getCode()).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    protected Integer parseExpiryDate(final String value) {
+        return StringUtils.isNotBlank(value) ? Integer.valueOf(value.trim()) : null;
+    }
+
+    protected int getBulkBatchSize() {
+        return Math.max(1, configurationService.getConfiguration().getInt(BULK_BATCH_SIZE, DEFAULT_BULK_BATCH_SIZE));
+    }
+}
@@ -0,0 +1,289 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.GsonSerializer;
+import com.checkout.hybris.core.enums.CheckoutComPayloadType;
+import com.checkout.hybris.core.enums.EnvironmentType;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
+import com.checkout.hybris.core.model.CheckoutComPayloadJournalEntryModel;
+import com.checkout.hybris.core.payment.services.CheckoutComPayloadJournalService;
+import de.hybris.platform.core.Registry;
+import de.hybris.platform.core.TenantAwareThreadFactory;
+import de.hybris.platform.core.model.ItemModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.internal.dao.GenericDao;
+import de.hybris.platform.servicelayer.internal.dao.SortParameters;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionService;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+
+/**
+ * Default implementation of {@link CheckoutComPayloadJournalService}. Payloads are added to a bounded queue drained by
+ * a single writer, which keeps them in order, serializes them and saves them in batches. When the queue is full, or
+ * the asynchronous journal is disabled, the payload is saved on the calling thread so it is never lost.
+ */
+public class DefaultCheckoutComPayloadJournalService implements CheckoutComPayloadJournalService, DisposableBean {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPayloadJournalService.class);
+
+    protected static final String JOURNAL_ASYNC_ENABLED = "checkoutservices.payload.journal.async.enabled";
+    protected static final String JOURNAL_QUEUE_CAPACITY = "checkoutservices.payload.journal.queuecapacity";
+    protected static final String JOURNAL_BATCH_SIZE = "checkoutservices.payload.journal.batchsize";
+    protected static final String JOURNAL_SHUTDOWN_TIMEOUT = "checkoutservices.payload.journal.shutdowntimeout.seconds";
+
+    protected static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    protected static final int DEFAULT_BATCH_SIZE = 100;
+    protected static final long DEFAULT_SHUTDOWN_TIMEOUT = 30L;
+    protected static final long POLL_TIMEOUT_MILLIS = 500L;
+
+    protected final ConfigurationService configurationService;
+    protected final ModelService modelService;
+    protected final SessionService sessionService;
+    protected final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService;
+    protected final GenericDao<CheckoutComPayloadJournalEntryModel> checkoutComPayloadJournalEntryDao;
+
+    private final GsonSerializer gsonSerializer = new GsonSerializer();
+
+    private volatile BlockingQueue<PendingPayload> queue;
+    private volatile ExecutorService writer;
+    private volatile boolean running = true;
+
+    public DefaultCheckoutComPayloadJournalService(final ConfigurationService configurationService,
+                                                   final ModelService modelService,
+                                                   final SessionService sessionService,
+                                                   final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
+                                                   final GenericDao<CheckoutComPayloadJournalEntryModel> checkoutComPayloadJournalEntryDao) {
+        this.configurationService = configurationService;
+        this.modelService = modelService;
+        this.sessionService = sessionService;
+        this.checkoutComMerchantConfigurationService = checkoutComMerchantConfigurationService;
+        this.checkoutComPayloadJournalEntryDao = checkoutComPayloadJournalEntryDao;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void journal(final String paymentReference, final CheckoutComPayloadType payloadType, final Object payload) {
+        if (payload == null) {
+            return;
+        }
+        if (StringUtils.isBlank(paymentReference)) {
+            LOG.warn("Payload of type [{}] without payment reference, it is not journaled.", payloadType);
+            return;
+        }
+
+        final PendingPayload pendingPayload = new PendingPayload(paymentReference, payloadType, payload, isTestEnvironment());
+        if (!isAsyncEnabled() || !running) {
+            savePayloads(Collections.singletonList(pendingPayload));
+        } else if (!getQueue().offer(pendingPayload)) {
+            LOG.warn("Payload journal queue is full, saving the [{}] of payment reference [{}] synchronously.", payloadType, paymentReference);
+            savePayloads(Collections.singletonList(pendingPayload));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<CheckoutComPayloadJournalEntryModel> getJournalEntries(final String paymentReference) {
+        validateParameterNotNull(paymentReference, "Payment reference cannot be null");
+
+        return checkoutComPayloadJournalEntryDao.find(Map.of(CheckoutComPayloadJournalEntryModel.PAYMENTREFERENCE, paymentReference),
+                SortParameters.singletonAscending(ItemModel.CREATIONTIME));
+    }
+
+    /**
+     * Stops queueing payloads and gives the writer time to save the ones already queued
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        final ExecutorService journalWriter = writer;
+        if (journalWriter != null) {
+            journalWriter.shutdown();
+            final long timeout = configurationService.getConfiguration().getLong(JOURNAL_SHUTDOWN_TIMEOUT, DEFAULT_SHUTDOWN_TIMEOUT);
+            if (!journalWriter.awaitTermination(timeout, TimeUnit.SECONDS)) {
+                LOG.error("Payload journal writer did not finish in [{}] seconds, [{}] queued payloads are lost.", timeout, queue.size());
+                journalWriter.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Takes the next batch of queued payloads, waiting a short time for the first one, and saves it
+     *
+     * @return the number of payloads taken from the queue
+     * @throws InterruptedException if the writer is interrupted while waiting
+     */
+    protected int drainBatch() throws InterruptedException {
+        final BlockingQueue<PendingPayload> journalQueue = getQueue();
+        final PendingPayload first = journalQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        final List<PendingPayload> batch = new ArrayList<>();
+        batch.add(first);
+        journalQueue.drainTo(batch, getBatchSize() - 1);
+        savePayloads(batch);
+        return batch.size();
+    }
+
+    /**
+     * Serializes the payloads and saves their journal entries together. When the batch cannot be saved the entries are
+     * saved one by one so a single failing entry does not lose the others.
+     *
+     * @param pendingPayloads the payloads to save
+     */
+    protected void savePayloads(final List<PendingPayload> pendingPayloads) {
+        final List<CheckoutComPayloadJournalEntryModel> entries = new ArrayList<>(pendingPayloads.size());
+        for (final PendingPayload pendingPayload : pendingPayloads) {
+            try {
+                entries.add(createJournalEntry(pendingPayload));
+            } catch (final RuntimeException e) {
+                LOG.error("Could not serialize the [{}] of payment reference [{}].", pendingPayload.getPayloadType(), pendingPayload.getPaymentReference(), e);
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            modelService.saveAll(entries);
+        } catch (final ModelSavingException e) {
+            LOG.warn("Could not save the batch of [{}] payload journal entries, saving them one by one.", entries.size(), e);
+            entries.forEach(this::saveJournalEntry);
+        }
+    }
+
+    protected CheckoutComPayloadJournalEntryModel createJournalEntry(final PendingPayload pendingPayload) {
+        final String json = gsonSerializer.toJson(pendingPayload.getPayload());
+        if (pendingPayload.isLogPayload()) {
+            LOG.info("*** PAYLOAD OUT ***");
+            LOG.info(json);
+            LOG.info("*** PAYLOAD OUT END ***");
+        }
+
+        final CheckoutComPayloadJournalEntryModel entry = modelService.create(CheckoutComPayloadJournalEntryModel.class);
+        entry.setPaymentReference(pendingPayload.getPaymentReference());
+        entry.setPayloadType(pendingPayload.getPayloadType());
+        entry.setPayload(json);
+        return entry;
+    }
+
+    protected void saveJournalEntry(final CheckoutComPayloadJournalEntryModel entry) {
+        try {
+            modelService.save(entry);
+        } catch (final ModelSavingException e) {
+            LOG.error("Could not save the [{}] journal entry of payment reference [{}].", entry.getPayloadType(), entry.getPaymentReference(), e);
+        }
+    }
+
+    protected boolean isTestEnvironment() {
+        return EnvironmentType.TEST.equals(checkoutComMerchantConfigurationService.getEnvironment());
+    }
+
+    protected boolean isAsyncEnabled() {
+        return configurationService.getConfiguration().getBoolean(JOURNAL_ASYNC_ENABLED, true);
+    }
+
+    protected BlockingQueue<PendingPayload> getQueue() {
+        if (queue == null) {
+            startWriter();
+        }
+        return queue;
+    }
+
+    protected synchronized void startWriter() {
+        if (queue != null) {
+            return;
+        }
+        final BlockingQueue<PendingPayload> journalQueue = new ArrayBlockingQueue<>(
+                Math.max(1, configurationService.getConfiguration().getInt(JOURNAL_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY)));
+        final ExecutorService journalWriter = createWriter();
+        queue = journalQueue;
+        journalWriter.execute(this::runWriter);
+        writer = journalWriter;
+        LOG.info("Started the payload journal writer with a queue of [{}] payloads.", journalQueue.remainingCapacity());
+    }
+
+    protected ExecutorService createWriter() {
+        return Executors.newSingleThreadExecutor(new TenantAwareThreadFactory(Registry.getCurrentTenantNoFallback()));
+    }
+
+    protected void runWriter() {
+        final Session session = sessionService.createNewSession();
+        try {
+            while (running || !queue.isEmpty()) {
+                drainWithoutFailing();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sessionService.closeSession(session);
+        }
+    }
+
+    private void drainWithoutFailing() throws InterruptedException {
+        try {
+            drainBatch();
+        } catch (final RuntimeException e) {
+            LOG.error("Unexpected error while saving the payload journal.", e);
+        }
+    }
+
+    protected int getBatchSize() {
+        return Math.max(1, configurationService.getConfiguration().getInt(JOURNAL_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+    }
+
+    /**
+     * A payload waiting to be serialized and saved, with whether it has to be logged, decided on the calling thread
+     * where the site is known
+     */
+    protected static final class PendingPayload {
+
+        private final String paymentReference;
+        private final CheckoutComPayloadType payloadType;
+        private final Object payload;
+        private final boolean logPayload;
+
+        protected PendingPayload(final String paymentReference, final CheckoutComPayloadType payloadType,
+                                 final Object payload, final boolean logPayload) {
+            this.paymentReference = paymentReference;
+            this.payloadType = payloadType;
+            this.payload = payload;
+            this.logPayload = logPayload;
+        }
+
+        public String getPaymentReference() {
+            return paymentReference;
+        }
+
+        public CheckoutComPayloadType getPayloadType() {
+            return payloadType;
+        }
+
+        public Object getPayload() {
+            return payload;
+        }
+
+        public boolean isLogPayload() {
+            return logPayload;
+        }
+    }
+}
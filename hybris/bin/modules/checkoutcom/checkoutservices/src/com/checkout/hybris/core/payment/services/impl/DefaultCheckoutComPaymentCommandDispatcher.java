@@ -0,0 +1,61 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComPaymentCommandDao;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandDispatcher;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+
+/**
+ * Default implementation of {@link CheckoutComPaymentCommandDispatcher}. The captures, refunds and voids of the
+ * business processes are sent by the workers without holding the process engine threads while Checkout.com answers.
+ */
+public class DefaultCheckoutComPaymentCommandDispatcher extends CheckoutComAbstractCommandDispatcher<CheckoutComPaymentCommandModel>
+        implements CheckoutComPaymentCommandDispatcher {
+
+    protected static final String PROPERTY_PREFIX = "checkoutservices.payment.command.dispatcher";
+
+    protected final CheckoutComPaymentCommandService checkoutComPaymentCommandService;
+
+    public DefaultCheckoutComPaymentCommandDispatcher(final ConfigurationService configurationService,
+                                                      final ModelService modelService,
+                                                      final TimeService timeService,
+                                                      final SessionService sessionService,
+                                                      final UserService userService,
+                                                      final BaseSiteService baseSiteService,
+                                                      final CheckoutComPaymentCommandService checkoutComPaymentCommandService,
+                                                      final CheckoutComPaymentCommandDao checkoutComPaymentCommandDao) {
+        super(PROPERTY_PREFIX, configurationService, modelService, timeService, sessionService, userService, baseSiteService,
+                checkoutComPaymentCommandDao);
+        this.checkoutComPaymentCommandService = checkoutComPaymentCommandService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void executeCommand(final CheckoutComPaymentCommandModel command) {
+        checkoutComPaymentCommandService.executeCommand(command);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getSiteUid(final CheckoutComPaymentCommandModel command) {
+        return command.getSiteUid();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describeCommand(final CheckoutComPaymentCommandModel command) {
+        return "[" + command.getType() + "] payment command of process [" + command.getProcessCode() + "]";
+    }
+}
@@ -0,0 +1,254 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandType;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComPaymentCommandDao;
+import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
+import de.hybris.platform.payment.enums.PaymentTransactionType;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+import de.hybris.platform.payment.model.PaymentTransactionModel;
+import de.hybris.platform.processengine.BusinessProcessService;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+
+/**
+ * Default implementation of the {@link CheckoutComPaymentCommandService}
+ */
+public class DefaultCheckoutComPaymentCommandService implements CheckoutComPaymentCommandService {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPaymentCommandService.class);
+
+    protected static final String MAX_ATTEMPTS = "checkoutservices.payment.command.maxattempts";
+    protected static final String INITIAL_BACKOFF = "checkoutservices.payment.command.backoff.initial.seconds";
+    protected static final String MAX_BACKOFF = "checkoutservices.payment.command.backoff.max.seconds";
+
+    protected static final int DEFAULT_MAX_ATTEMPTS = 10;
+    protected static final long DEFAULT_INITIAL_BACKOFF = 5L;
+    protected static final long DEFAULT_MAX_BACKOFF = 300L;
+
+    protected final ConfigurationService configurationService;
+    protected final ModelService modelService;
+    protected final TimeService timeService;
+    protected final BusinessProcessService businessProcessService;
+    protected final CheckoutComPaymentService paymentService;
+    protected final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService;
+    protected final CheckoutComPaymentCommandDao checkoutComPaymentCommandDao;
+
+    public DefaultCheckoutComPaymentCommandService(final ConfigurationService configurationService,
+                                                   final ModelService modelService,
+                                                   final TimeService timeService,
+                                                   final BusinessProcessService businessProcessService,
+                                                   final CheckoutComPaymentService paymentService,
+                                                   final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService,
+                                                   final CheckoutComPaymentCommandDao checkoutComPaymentCommandDao) {
+        this.configurationService = configurationService;
+        this.modelService = modelService;
+        this.timeService = timeService;
+        this.businessProcessService = businessProcessService;
+        this.paymentService = paymentService;
+        this.checkoutComPaymentTransactionService = checkoutComPaymentTransactionService;
+        this.checkoutComPaymentCommandDao = checkoutComPaymentCommandDao;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComPaymentCommandModel submitCommand(final CheckoutComPaymentCommandType type,
+                                                        final PaymentTransactionModel paymentTransaction,
+                                                        final BigDecimal amount,
+                                                        final String processCode,
+                                                        final String completionEvent) {
+        validateParameterNotNull(type, "Command type cannot be null");
+        validateParameterNotNull(paymentTransaction, "Payment transaction cannot be null");
+        validateParameterNotNull(processCode, "Process code cannot be null");
+        validateParameterNotNull(completionEvent, "Completion event cannot be null");
+
+        final String idempotencyKey = createIdempotencyKey(type, processCode);
+        final Optional<CheckoutComPaymentCommandModel> recordedCommand = checkoutComPaymentCommandDao.findCommandByIdempotencyKey(idempotencyKey);
+        if (recordedCommand.isPresent()) {
+            return recordedCommand.get();
+        }
+
+        final CheckoutComPaymentCommandModel command = modelService.create(CheckoutComPaymentCommandModel.class);
+        command.setIdempotencyKey(idempotencyKey);
+        command.setType(type);
+        command.setStatus(CheckoutComPaymentCommandStatus.PENDING);
+        command.setPaymentTransaction(paymentTransaction);
+        command.setAmount(amount);
+        command.setSiteUid(paymentTransaction.getOrder().getSite().getUid());
+        command.setProcessCode(processCode);
+        command.setCompletionEvent(completionEvent);
+        command.setAttempts(0);
+        command.setNextAttemptTime(timeService.getCurrentTime());
+        try {
+            modelService.save(command);
+        } catch (final ModelSavingException e) {
+            // The same step is run concurrently and has already recorded the command
+            return checkoutComPaymentCommandDao.findCommandByIdempotencyKey(idempotencyKey).orElseThrow(() -> e);
+        }
+        LOG.info("Recorded the [{}] payment command of process [{}].", type, processCode);
+        return command;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<CheckoutComPaymentCommandModel> findCommand(final CheckoutComPaymentCommandType type, final String processCode) {
+        validateParameterNotNull(type, "Command type cannot be null");
+        validateParameterNotNull(processCode, "Process code cannot be null");
+
+        return checkoutComPaymentCommandDao.findCommandByIdempotencyKey(createIdempotencyKey(type, processCode));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void executeCommand(final CheckoutComPaymentCommandModel command) {
+        validateParameterNotNull(command, "Command cannot be null");
+
+        command.setAttempts(command.getAttempts() + 1);
+        try {
+            command.setTransactionEntry(sendCommand(command));
+            command.setStatus(CheckoutComPaymentCommandStatus.COMPLETED);
+            command.setLastError(null);
+            LOG.info("The [{}] payment command of process [{}] is completed.", command.getType(), command.getProcessCode());
+        } catch (final CheckoutComPaymentIntegrationException e) {
+            handleFailedAttempt(command, e);
+        } catch (final RuntimeException e) {
+            LOG.error("The [{}] payment command of process [{}] has failed.", command.getType(), command.getProcessCode(), e);
+            command.setStatus(CheckoutComPaymentCommandStatus.FAILED);
+            command.setLastError(e.getMessage());
+        }
+        modelService.save(command);
+
+        if (!CheckoutComPaymentCommandStatus.PENDING.equals(command.getStatus())) {
+            businessProcessService.triggerEvent(command.getCompletionEvent());
+        }
+    }
+
+    /**
+     * Sends the command through the payment service, which records the response as a payment transaction entry. The
+     * code of that entry, and so the Checkout.com idempotency key of the call, is derived from the idempotency key of
+     * the command: every attempt of the command sends the same key, and an attempt made after the entry has been
+     * recorded, for instance when the command could not be saved as completed, returns the entry instead of sending
+     * the command again.
+     *
+     * @param command the command to send
+     * @return the payment transaction entry created with the response
+     */
+    protected PaymentTransactionEntryModel sendCommand(final CheckoutComPaymentCommandModel command) {
+        final PaymentTransactionModel paymentTransaction = command.getPaymentTransaction();
+        final String entryCode = getTransactionEntryCode(command);
+        final Optional<PaymentTransactionEntryModel> recordedEntry = findTransactionEntry(paymentTransaction, entryCode);
+        if (recordedEntry.isPresent()) {
+            LOG.info("The [{}] payment command of process [{}] has already been sent, using its entry [{}].",
+                    command.getType(), command.getProcessCode(), entryCode);
+            return recordedEntry.get();
+        }
+
+        switch (command.getType()) {
+            case CAPTURE:
+                return paymentService.capture(paymentTransaction, entryCode);
+            case REFUND:
+                return paymentService.refundFollowOn(paymentTransaction, command.getAmount(), entryCode);
+            case VOID:
+                final PaymentTransactionEntryModel authorizationEntry = checkoutComPaymentTransactionService.findAcceptedAuthorizationEntry(paymentTransaction)
+                        .orElseThrow(() -> new IllegalStateException("Accepted authorization entry not present for transaction " + paymentTransaction.getCode()));
+                return paymentService.cancel(authorizationEntry, entryCode);
+            default:
+                throw new IllegalArgumentException("Unsupported payment command type " + command.getType());
+        }
+    }
+
+    /**
+     * The code of the entry of a command follows the platform format, transaction code, entry type and a number, so
+     * the payment reference can still be read from it. The number is the idempotency key of the command, a uuid, in
+     * decimal.
+     *
+     * @param command the command
+     * @return the code of the payment transaction entry of the command
+     */
+    protected String getTransactionEntryCode(final CheckoutComPaymentCommandModel command) {
+        return command.getPaymentTransaction().getCode() + "-" + getTransactionType(command.getType()).getCode() + "-"
+                + new BigInteger(command.getIdempotencyKey().replace("-", ""), 16);
+    }
+
+    protected PaymentTransactionType getTransactionType(final CheckoutComPaymentCommandType type) {
+        switch (type) {
+            case CAPTURE:
+                return PaymentTransactionType.CAPTURE;
+            case REFUND:
+                return PaymentTransactionType.REFUND_FOLLOW_ON;
+            case VOID:
+                return PaymentTransactionType.CANCEL;
+            default:
+                throw new IllegalArgumentException("Unsupported payment command type " + type);
+        }
+    }
+
+    protected Optional<PaymentTransactionEntryModel> findTransactionEntry(final PaymentTransactionModel paymentTransaction, final String entryCode) {
+        return CollectionUtils.emptyIfNull(paymentTransaction.getEntries()).stream()
+                .filter(entry -> entryCode.equals(entry.getCode()))
+                .findFirst();
+    }
+
+    protected void handleFailedAttempt(final CheckoutComPaymentCommandModel command, final CheckoutComPaymentIntegrationException e) {
+        command.setLastError(e.getMessage());
+        final int maxAttempts = configurationService.getConfiguration().getInt(MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS);
+        if (command.getAttempts() >= maxAttempts) {
+            LOG.error("The [{}] payment command of process [{}] has failed after [{}] attempts: [{}]",
+                    command.getType(), command.getProcessCode(), command.getAttempts(), e.getMessage());
+            command.setStatus(CheckoutComPaymentCommandStatus.FAILED);
+        } else {
+            final long backoffSeconds = getBackoffSeconds(command.getAttempts());
+            LOG.warn("Attempt [{}] of the [{}] payment command of process [{}] has failed: [{}]. Retrying in [{}] seconds.",
+                    command.getAttempts(), command.getType(), command.getProcessCode(), e.getMessage(), backoffSeconds);
+            command.setStatus(CheckoutComPaymentCommandStatus.PENDING);
+            command.setNextAttemptTime(new Date(timeService.getCurrentTime().getTime() + backoffSeconds * 1000L));
+        }
+    }
+
+    /**
+     * Exponential backoff between the attempts of a command, capped to the configured maximum
+     *
+     * @param attempts the number of attempts made so far
+     * @return the time to wait before the next attempt, in seconds
+     */
+    protected long getBackoffSeconds(final int attempts) {
+        final long initialBackoff = configurationService.getConfiguration().getLong(INITIAL_BACKOFF, DEFAULT_INITIAL_BACKOFF);
+        final long maxBackoff = configurationService.getConfiguration().getLong(MAX_BACKOFF, DEFAULT_MAX_BACKOFF);
+        return Math.min(maxBackoff, initialBackoff << Math.min(Math.max(attempts - 1, 0), 20));
+    }
+
+    /**
+     * A process records at most one command of each type, so the key of the command is derived from both
+     *
+     * @param type        the type of the command
+     * @param processCode the code of the business process
+     * @return the idempotency key of the command
+     */
+    protected String createIdempotencyKey(final CheckoutComPaymentCommandType type, final String processCode) {
+        return UUID.nameUUIDFromBytes((processCode + "-" + type.getCode()).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -0,0 +1,226 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.model.CheckoutComPaymentIdMappingModel;
+import com.checkout.hybris.core.order.daos.CheckoutComOrderDao;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentIdMappingService;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.order.AbstractOrderModel;
+import de.hybris.platform.core.model.order.OrderModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelLoadingException;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.internal.dao.GenericDao;
+import de.hybris.platform.servicelayer.model.ModelService;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+
+/**
+ * Default implementation of {@link CheckoutComPaymentIdMappingService}. The mappings are kept in a bounded, least
+ * recently used, in-memory cache in front of the unique paymentId index. The cart a payment id is attached to is
+ * replaced by the order placed from it, found by their shared payment reference, the first time it is resolved.
+ */
+public class DefaultCheckoutComPaymentIdMappingService implements CheckoutComPaymentIdMappingService {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPaymentIdMappingService.class);
+
+    protected static final String MAPPING_CACHE_MAX_SIZE = "checkoutservices.paymentid.mapping.cache.maxsize";
+    protected static final int DEFAULT_MAPPING_CACHE_MAX_SIZE = 100000;
+
+    protected final ConfigurationService configurationService;
+    protected final ModelService modelService;
+    protected final CheckoutComOrderDao checkoutComOrderDao;
+    protected final GenericDao<CheckoutComPaymentIdMappingModel> checkoutComPaymentIdMappingDao;
+
+    private final Map<String, PaymentIdMapping> mappings = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, PaymentIdMapping> eldest) {
+            return size() > getCacheMaxSize();
+        }
+    });
+
+    public DefaultCheckoutComPaymentIdMappingService(final ConfigurationService configurationService,
+                                                     final ModelService modelService,
+                                                     final CheckoutComOrderDao checkoutComOrderDao,
+                                                     final GenericDao<CheckoutComPaymentIdMappingModel> checkoutComPaymentIdMappingDao) {
+        this.configurationService = configurationService;
+        this.modelService = modelService;
+        this.checkoutComOrderDao = checkoutComOrderDao;
+        this.checkoutComPaymentIdMappingDao = checkoutComPaymentIdMappingDao;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void registerPaymentId(final String paymentId, final AbstractOrderModel abstractOrder) {
+        checkArgument(StringUtils.isNotBlank(paymentId), "Payment id cannot be empty.");
+        validateParameterNotNull(abstractOrder, "AbstractOrder cannot be null");
+
+        final CheckoutComPaymentIdMappingModel mapping = findMappingModel(paymentId).orElseGet(() -> createMappingModel(paymentId));
+        mapping.setAbstractOrder(abstractOrder);
+        mapping.setPaymentReference(abstractOrder.getCheckoutComPaymentReference());
+        mapping.setSiteUid(abstractOrder.getSite() != null ? abstractOrder.getSite().getUid() : null);
+        try {
+            modelService.save(mapping);
+        } catch (final ModelSavingException e) {
+            LOG.warn("Could not save the mapping of payment id [{}], it will be resolved from the payment infos.", paymentId, e);
+            return;
+        }
+        mappings.put(paymentId, createPaymentIdMapping(mapping, abstractOrder));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<String> findSiteUid(final String paymentId) {
+        return getMapping(paymentId)
+                .map(PaymentIdMapping::getSiteUid)
+                .filter(StringUtils::isNotBlank);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<AbstractOrderModel> findAbstractOrder(final String paymentId) {
+        final Optional<PaymentIdMapping> mapping = getMapping(paymentId);
+        if (mapping.isEmpty()) {
+            return Optional.empty();
+        }
+
+        if (mapping.get().isOrder()) {
+            final Optional<AbstractOrderModel> order = loadAbstractOrder(mapping.get().getAbstractOrderPk());
+            if (order.isPresent()) {
+                return order;
+            }
+        }
+        return findOrderByPaymentReference(paymentId, mapping.get());
+    }
+
+    /**
+     * Looks for the order placed from the mapped cart by their shared payment reference, and maps the payment id to it
+     * when found. Falls back to the mapped cart while the order is not placed yet.
+     *
+     * @param paymentId the checkout.com payment id
+     * @param mapping   the current mapping of the payment id
+     * @return the order, or the mapped cart
+     */
+    protected Optional<AbstractOrderModel> findOrderByPaymentReference(final String paymentId, final PaymentIdMapping mapping) {
+        if (StringUtils.isNotBlank(mapping.getPaymentReference())) {
+            final Optional<AbstractOrderModel> abstractOrder = checkoutComOrderDao.findAbstractOrderForPaymentReferenceNumber(mapping.getPaymentReference());
+            if (abstractOrder.isPresent()) {
+                if (abstractOrder.get() instanceof OrderModel) {
+                    updateMapping(paymentId, abstractOrder.get());
+                }
+                return abstractOrder;
+            }
+        }
+        return loadAbstractOrder(mapping.getAbstractOrderPk());
+    }
+
+    protected void updateMapping(final String paymentId, final AbstractOrderModel order) {
+        findMappingModel(paymentId).ifPresent(mapping -> {
+            mapping.setAbstractOrder(order);
+            try {
+                modelService.save(mapping);
+            } catch (final ModelSavingException e) {
+                LOG.warn("Could not map payment id [{}] to order [{}].", paymentId, order.getCode(), e);
+            }
+            mappings.put(paymentId, createPaymentIdMapping(mapping, order));
+        });
+    }
+
+    protected Optional<PaymentIdMapping> getMapping(final String paymentId) {
+        if (StringUtils.isBlank(paymentId)) {
+            return Optional.empty();
+        }
+        final PaymentIdMapping cachedMapping = mappings.get(paymentId);
+        if (cachedMapping != null) {
+            return Optional.of(cachedMapping);
+        }
+
+        final Optional<PaymentIdMapping> mapping = findMappingModel(paymentId)
+                .map(mappingModel -> createPaymentIdMapping(mappingModel, mappingModel.getAbstractOrder()));
+        mapping.ifPresent(paymentIdMapping -> mappings.put(paymentId, paymentIdMapping));
+        return mapping;
+    }
+
+    protected Optional<CheckoutComPaymentIdMappingModel> findMappingModel(final String paymentId) {
+        return checkoutComPaymentIdMappingDao.find(Map.of(CheckoutComPaymentIdMappingModel.PAYMENTID, paymentId)).stream().findFirst();
+    }
+
+    protected CheckoutComPaymentIdMappingModel createMappingModel(final String paymentId) {
+        final CheckoutComPaymentIdMappingModel mapping = modelService.create(CheckoutComPaymentIdMappingModel.class);
+        mapping.setPaymentId(paymentId);
+        return mapping;
+    }
+
+    protected PaymentIdMapping createPaymentIdMapping(final CheckoutComPaymentIdMappingModel mapping, final AbstractOrderModel abstractOrder) {
+        return new PaymentIdMapping(abstractOrder != null ? abstractOrder.getPk() : null, abstractOrder instanceof OrderModel,
+                mapping.getSiteUid(), mapping.getPaymentReference());
+    }
+
+    protected Optional<AbstractOrderModel> loadAbstractOrder(final PK abstractOrderPk) {
+        if (abstractOrderPk == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(modelService.get(abstractOrderPk));
+        } catch (final ModelLoadingException e) {
+            LOG.debug("Mapped cart or order [{}] no longer exists.", abstractOrderPk, e);
+            return Optional.empty();
+        }
+    }
+
+    protected int getCacheMaxSize() {
+        return Math.max(1, configurationService.getConfiguration().getInt(MAPPING_CACHE_MAX_SIZE, DEFAULT_MAPPING_CACHE_MAX_SIZE));
+    }
+
+    protected Map<String, PaymentIdMapping> getMappings() {
+        return mappings;
+    }
+
+    /**
+     * Cached mapping of a payment id, holding the pk of the cart or order instead of the model
+     */
+    protected static final class PaymentIdMapping {
+
+        private final PK abstractOrderPk;
+        private final boolean order;
+        private final String siteUid;
+        private final String paymentReference;
+
+        protected PaymentIdMapping(final PK abstractOrderPk, final boolean order, final String siteUid, final String paymentReference) {
+            this.abstractOrderPk = abstractOrderPk;
+            this.order = order;
+            this.siteUid = siteUid;
+            this.paymentReference = paymentReference;
+        }
+
+        public PK getAbstractOrderPk() {
+            return abstractOrderPk;
+        }
+
+        public boolean isOrder() {
+            return order;
+        }
+
+        public String getSiteUid() {
+            return siteUid;
+        }
+
+        public String getPaymentReference() {
+            return paymentReference;
+        }
+    }
+}
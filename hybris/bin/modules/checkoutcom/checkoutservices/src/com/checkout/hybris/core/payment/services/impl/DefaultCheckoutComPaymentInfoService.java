@@ -9,6 +9,7 @@ import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
 import com.checkout.hybris.core.model.PayloadModel;
 import com.checkout.hybris.core.order.daos.CheckoutComOrderDao;
 import com.checkout.hybris.core.payment.daos.CheckoutComPaymentInfoDao;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentIdMappingService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentInfoService;
 import com.checkout.payments.response.source.CardResponseSource;
 import com.checkout.payments.response.source.ResponseSource;
@@ -26,6 +27,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -48,16 +50,19 @@ public class DefaultCheckoutComPaymentInfoService extends DefaultPaymentInfoServ
     protected final CheckoutComPaymentInfoDao paymentInfoDao;
     protected final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService;
     protected final CheckoutComOrderDao checkoutComOrderDao;
+    protected final CheckoutComPaymentIdMappingService checkoutComPaymentIdMappingService;
 
 
     public DefaultCheckoutComPaymentInfoService(final CheckoutComAddressService addressService,
                                                 final CheckoutComPaymentInfoDao paymentInfoDao,
                                                 final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
-                                                final CheckoutComOrderDao checkoutComOrderDao) {
+                                                final CheckoutComOrderDao checkoutComOrderDao,
+                                                final CheckoutComPaymentIdMappingService checkoutComPaymentIdMappingService) {
         this.addressService = addressService;
         this.paymentInfoDao = paymentInfoDao;
         this.checkoutComMerchantConfigurationService = checkoutComMerchantConfigurationService;
         this.checkoutComOrderDao = checkoutComOrderDao;
+        this.checkoutComPaymentIdMappingService = checkoutComPaymentIdMappingService;
     }
 
     /**
@@ -159,6 +164,10 @@ public class DefaultCheckoutComPaymentInfoService extends DefaultPaymentInfoServ
 
         paymentInfo.setPaymentId(paymentId);
         callSuperModelService().save(paymentInfo);
+
+        if (paymentInfo.getOwner() instanceof AbstractOrderModel) {
+            checkoutComPaymentIdMappingService.registerPaymentId(paymentId, (AbstractOrderModel) paymentInfo.getOwner());
+        }
     }
 
     /**
@@ -182,6 +191,28 @@ public class DefaultCheckoutComPaymentInfoService extends DefaultPaymentInfoServ
      */
     @Override
     public String getSiteIdFromPaymentId(final String paymentId) {
+        return checkoutComPaymentIdMappingService.findSiteUid(paymentId)
+                .orElseGet(() -> findSiteIdByPaymentInfos(paymentId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AbstractOrderModel> findAbstractOrderByPaymentId(final String paymentId) {
+        return checkoutComPaymentIdMappingService.findAbstractOrder(paymentId)
+                .map(Collections::singletonList)
+                .orElseGet(() -> findAbstractOrdersByPaymentInfos(paymentId));
+    }
+
+    /**
+     * Finds the site of the payment id through the owners of the payment infos, for the payment ids attached before
+     * they were mapped
+     *
+     * @param paymentId the checkout.com payment id
+     * @return the site uid, or empty
+     */
+    protected String findSiteIdByPaymentInfos(final String paymentId) {
         final List<PaymentInfoModel> paymentInfos = paymentInfoDao.findPaymentInfosByPaymentId(paymentId);
 
         final Optional<AbstractOrderModel> abstractOrder = paymentInfos.stream()
@@ -197,10 +228,13 @@ public class DefaultCheckoutComPaymentInfoService extends DefaultPaymentInfoServ
     }
 
     /**
-     * {@inheritDoc}
+     * Finds the carts and orders of the payment id through the owners of the payment infos, for the payment ids
+     * attached before they were mapped
+     *
+     * @param paymentId the checkout.com payment id
+     * @return the carts and orders
      */
-    @Override
-    public List<AbstractOrderModel> findAbstractOrderByPaymentId(final String paymentId) {
+    protected List<AbstractOrderModel> findAbstractOrdersByPaymentInfos(final String paymentId) {
         return paymentInfoDao.findPaymentInfosByPaymentId(paymentId)
                 .stream()
                 .map(ItemModel::getOwner)
@@ -1,82 +1,73 @@
 package com.checkout.hybris.core.payment.services.impl;
 
-import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
-import com.checkout.hybris.core.payment.services.CheckoutComApiService;
+import com.checkout.hybris.core.payment.services.CheckoutComInstrumentCommandService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentInstrumentsService;
-import com.checkout.CheckoutApi;
-import com.checkout.instruments.InstrumentsClient;
-import com.checkout.instruments.update.UpdateInstrumentCardRequest;
-import com.checkout.instruments.update.UpdateInstrumentRequest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
 import de.hybris.platform.core.model.order.payment.CreditCardPaymentInfoModel;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.concurrent.ExecutionException;
+import java.util.Collection;
+import java.util.stream.Collectors;
 
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+
+/**
+ * Records the removals and updates of the instruments of the saved cards as instrument commands, so the customer does
+ * not wait for Checkout.com. The commands are sent by the instrument command dispatcher, with retries.
+ */
 public class DefaultCheckoutComPaymentInstrumentService implements CheckoutComPaymentInstrumentsService {
 
 	private static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPaymentInstrumentService.class);
-	private static final String INSTRUMENT_REMOVAL_FAILED = "Instrument removal failed";
-	private static final String INSTRUMENT_UPDATE_FAILED = "Instrument update failed";
-	private final CheckoutComApiService checkoutComApiService;
+	private final BaseSiteService baseSiteService;
+	private final CheckoutComInstrumentCommandService checkoutComInstrumentCommandService;
 
-    public DefaultCheckoutComPaymentInstrumentService(final CheckoutComApiService checkoutComApiService) {
-		this.checkoutComApiService = checkoutComApiService;
+	public DefaultCheckoutComPaymentInstrumentService(final BaseSiteService baseSiteService,
+													  final CheckoutComInstrumentCommandService checkoutComInstrumentCommandService) {
+		this.baseSiteService = baseSiteService;
+		this.checkoutComInstrumentCommandService = checkoutComInstrumentCommandService;
 	}
 
 	@Override
 	public void removeInstrumentByCreditCard(final CreditCardPaymentInfoModel creditCardPaymentInfoModel) {
-		try {
-			LOG.debug("Trying to remove credit card with code [{}]", creditCardPaymentInfoModel.getCode());
-            getInstrumentsClient().delete(creditCardPaymentInfoModel.getSubscriptionId()).get();
-			LOG.debug("Removal successful for credit card with code [{}]", creditCardPaymentInfoModel.getCode());
-		}
-		catch (final InterruptedException e) {
-            LOG.error("Error while removing the instrument associated with credit card with code [{}]", creditCardPaymentInfoModel.getCode());
-			Thread.currentThread().interrupt();
-			throw new CheckoutComPaymentIntegrationException(INSTRUMENT_REMOVAL_FAILED, e);
-		}
-		catch (final ExecutionException e) {
-            LOG.error("Error while removing the instrument associated with credit card with code [{}]", creditCardPaymentInfoModel.getCode());
-			throw new CheckoutComPaymentIntegrationException(INSTRUMENT_REMOVAL_FAILED, e);
+		if (StringUtils.isBlank(creditCardPaymentInfoModel.getSubscriptionId())) {
+			LOG.debug("Credit card with code [{}] has no instrument to remove", creditCardPaymentInfoModel.getCode());
+			return;
 		}
+		checkoutComInstrumentCommandService.submitDeleteCommand(creditCardPaymentInfoModel, getCurrentSiteUid());
 	}
 
 	@Override
 	public void updateInstrumentByCreditCard(final CreditCardPaymentInfoModel creditCardPaymentInfoModel) {
-		try {
-			LOG.debug("Trying to update credit card with code [{}]", creditCardPaymentInfoModel.getCode());
-			final UpdateInstrumentRequest updateInstrumentRequest = createUpdateInstrumentRequest(
-					creditCardPaymentInfoModel.getCcOwner(), creditCardPaymentInfoModel.getValidToYear(),
-					creditCardPaymentInfoModel.getValidToMonth());
-            getInstrumentsClient().update(creditCardPaymentInfoModel.getSubscriptionId(),
-													updateInstrumentRequest).get();
-			LOG.debug("Update successful for credit card with code [{}]", creditCardPaymentInfoModel.getCode());
-		}
-		catch (final InterruptedException e) {
-            LOG.error("Error while updating the instrument associated with credit card with code [{}]", creditCardPaymentInfoModel.getCode());
-			Thread.currentThread().interrupt();
-			throw new CheckoutComPaymentIntegrationException(INSTRUMENT_UPDATE_FAILED, e);
-		}
-		catch (final ExecutionException e) {
-            LOG.error("Error while updating the instrument associated with credit card with code [{}]", creditCardPaymentInfoModel.getCode());
-			throw new CheckoutComPaymentIntegrationException(INSTRUMENT_UPDATE_FAILED, e);
+		if (StringUtils.isBlank(creditCardPaymentInfoModel.getSubscriptionId())) {
+			LOG.debug("Credit card with code [{}] has no instrument to update", creditCardPaymentInfoModel.getCode());
+			return;
 		}
+		checkoutComInstrumentCommandService.submitUpdateCommand(creditCardPaymentInfoModel, getCurrentSiteUid());
 	}
 
-	protected UpdateInstrumentRequest createUpdateInstrumentRequest(final String cardHolderName,
-																	final String validToYear,
-																	final String validToMonth) {
-        return UpdateInstrumentCardRequest.builder()
-            .name(cardHolderName)
-            .expiryYear(Integer.parseInt(validToYear))
-            .expiryMonth(Integer.parseInt(validToMonth))
-            .build();
-	}
+	@Override
+	public int removeInstrumentsByCreditCards(final Collection<CreditCardPaymentInfoModel> creditCardPaymentInfoModels, final String siteUid) {
+		validateParameterNotNull(creditCardPaymentInfoModels, "Credit card payment infos cannot be null");
+		validateParameterNotNull(siteUid, "Site uid cannot be null");
 
-	protected InstrumentsClient getInstrumentsClient() {
-		final CheckoutApi checkoutApi = checkoutComApiService.createCheckoutApi();
+		return checkoutComInstrumentCommandService.submitDeleteCommands(creditCardPaymentInfoModels.stream()
+				.map(CreditCardPaymentInfoModel::getSubscriptionId)
+				.filter(StringUtils::isNotBlank)
+				.collect(Collectors.toList()), siteUid);
+	}
 
-        return checkoutApi.instrumentsClient();
+	/**
+	 * The instruments are owned by the merchant of the current site, which is recorded with the command so the
+	 * dispatcher sends it with the same merchant configuration
+	 *
+	 * @return the uid of the current site
+	 */
+	protected String getCurrentSiteUid() {
+		final BaseSiteModel currentBaseSite = baseSiteService.getCurrentBaseSite();
+		validateParameterNotNull(currentBaseSite, "Current base site cannot be null");
+		return currentBaseSite.getUid();
 	}
 }
@@ -0,0 +1,290 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.CheckoutApi;
+import com.checkout.hybris.core.model.CheckoutComKlarnaAPMPaymentInfoModel;
+import com.checkout.hybris.core.order.daos.CheckoutComOrderDao;
+import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.services.CheckoutComApiService;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentIntegrationAsyncService;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentIntegrationService;
+import com.checkout.payments.CaptureRequest;
+import com.checkout.payments.CaptureResponse;
+import com.checkout.payments.RefundRequest;
+import com.checkout.payments.RefundResponse;
+import com.checkout.payments.VoidRequest;
+import com.checkout.payments.VoidResponse;
+import com.checkout.payments.request.PaymentRequest;
+import com.checkout.payments.response.GetPaymentResponse;
+import com.checkout.payments.response.PaymentResponse;
+import com.checkout.tokens.TokenResponse;
+import com.checkout.tokens.WalletTokenRequest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.core.model.order.AbstractOrderModel;
+import de.hybris.platform.core.model.order.payment.PaymentInfoModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.session.SessionExecutionBody;
+import de.hybris.platform.servicelayer.session.SessionService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Default implementation of the {@link CheckoutComPaymentIntegrationAsyncService}. It is not registered as a bean, as
+ * nothing in the extension calls it yet: declare one to use it.
+ */
+public class DefaultCheckoutComPaymentIntegrationAsyncService implements CheckoutComPaymentIntegrationAsyncService {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComPaymentIntegrationAsyncService.class);
+
+    protected static final String CURRENT_SITE = "currentSite";
+    protected static final String ASYNC_TIMEOUT = "checkoutservices.payment.integration.async.timeout.ms";
+    protected static final long DEFAULT_ASYNC_TIMEOUT = 30000L;
+
+    protected final CheckoutComApiService checkoutComApiService;
+    protected final CheckoutComPaymentIntegrationService checkoutComPaymentIntegrationService;
+    protected final CheckoutComOrderDao orderDao;
+    protected final SessionService sessionService;
+    protected final ConfigurationService configurationService;
+
+    public DefaultCheckoutComPaymentIntegrationAsyncService(final CheckoutComApiService checkoutComApiService,
+                                                            final CheckoutComPaymentIntegrationService checkoutComPaymentIntegrationService,
+                                                            final CheckoutComOrderDao orderDao,
+                                                            final SessionService sessionService,
+                                                            final ConfigurationService configurationService) {
+        this.checkoutComApiService = checkoutComApiService;
+        this.checkoutComPaymentIntegrationService = checkoutComPaymentIntegrationService;
+        this.orderDao = orderDao;
+        this.sessionService = sessionService;
+        this.configurationService = configurationService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<PaymentResponse> authorizePaymentAsync(final PaymentRequest paymentRequest) {
+        final CheckoutApi checkoutApi = checkoutComApiService.createCheckoutApi();
+        return withTimeout(() -> checkoutApi.paymentsClient().requestPayment(paymentRequest),
+                String.format("Error while authorizing the payment with Checkout.com for payment reference [%s]", paymentRequest.getReference()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<GetPaymentResponse> getPaymentDetailsAsync(final String paymentIdentifier) {
+        final CheckoutApi checkoutApi = checkoutComApiService.createCheckoutApi();
+        return withTimeout(() -> checkoutApi.paymentsClient().getPayment(paymentIdentifier),
+                String.format("Error while getting the payment details from Checkout.com for payment identifier [%s]", paymentIdentifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<CaptureResponse> capturePaymentAsync(final CaptureRequest captureRequest, final String paymentId) {
+        return capturePaymentAsync(captureRequest, paymentId, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<CaptureResponse> capturePaymentAsync(final CaptureRequest captureRequest, final String paymentId, final String idempotencyKey) {
+        final String errorMessage = String.format("Error while capturing the payment with Checkout.com for payment id [%s]", paymentId);
+        return withPaymentInfo(paymentId, errorMessage, paymentInfo -> {
+            if (paymentInfo instanceof CheckoutComKlarnaAPMPaymentInfoModel) {
+                // Klarna capture is not supported by the Java SDK - the direct REST call of the integration service is used
+                return callIntegrationService(() -> checkoutComPaymentIntegrationService.capturePayment(captureRequest, paymentId, idempotencyKey), errorMessage);
+            }
+            final CheckoutApi checkoutApi = createCheckoutComApiForPaymentReference(captureRequest.getReference());
+            if (idempotencyKey == null) {
+                return withTimeout(() -> checkoutApi.paymentsClient().capturePayment(paymentId, captureRequest), errorMessage);
+            }
+            return withTimeout(() -> checkoutApi.paymentsClient().capturePayment(paymentId, captureRequest, idempotencyKey), errorMessage);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<RefundResponse> refundPaymentAsync(final RefundRequest refundRequest, final String paymentId) {
+        return refundPaymentAsync(refundRequest, paymentId, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<RefundResponse> refundPaymentAsync(final RefundRequest refundRequest, final String paymentId, final String idempotencyKey) {
+        final String errorMessage = String.format("Error while refunding the payment with Checkout.com for payment id [%s]", paymentId);
+        final CheckoutApi checkoutApi = createCheckoutComApiForPaymentReference(refundRequest.getReference());
+        if (idempotencyKey == null) {
+            return withTimeout(() -> checkoutApi.paymentsClient().refundPayment(paymentId, refundRequest), errorMessage);
+        }
+        return withTimeout(() -> checkoutApi.paymentsClient().refundPayment(paymentId, refundRequest, idempotencyKey), errorMessage);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<VoidResponse> voidPaymentAsync(final VoidRequest voidRequest, final String paymentId) {
+        return voidPaymentAsync(voidRequest, paymentId, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<VoidResponse> voidPaymentAsync(final VoidRequest voidRequest, final String paymentId, final String idempotencyKey) {
+        final String errorMessage = String.format("Error while voiding the payment with Checkout.com for payment id [%s]", paymentId);
+        return withPaymentInfo(paymentId, errorMessage, paymentInfo -> {
+            if (paymentInfo instanceof CheckoutComKlarnaAPMPaymentInfoModel) {
+                // Klarna void is not supported by the Java SDK - the direct REST call of the integration service is used
+                return callIntegrationService(() -> checkoutComPaymentIntegrationService.voidPayment(voidRequest, paymentId, idempotencyKey), errorMessage);
+            }
+            final CheckoutApi checkoutApi = createCheckoutComApiForPaymentReference(voidRequest.getReference());
+            if (idempotencyKey == null) {
+                return withTimeout(() -> checkoutApi.paymentsClient().voidPayment(paymentId, voidRequest), errorMessage);
+            }
+            return withTimeout(() -> checkoutApi.paymentsClient().voidPayment(paymentId, voidRequest, idempotencyKey), errorMessage);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<TokenResponse> generateWalletPaymentTokenAsync(final WalletTokenRequest walletTokenRequest) {
+        final CheckoutApi checkoutApi = checkoutComApiService.createCheckoutApi();
+        return withTimeout(() -> checkoutApi.tokensClient().requestWalletToken(walletTokenRequest),
+                String.format("Error while generating the payment token with Checkout.com for wallet type [%s]", walletTokenRequest.getType()));
+    }
+
+    /**
+     * Starts the checkout.com call and bounds it with the configured timeout. Failures are wrapped into a
+     * {@link CheckoutComPaymentIntegrationException} and cancelling the returned future cancels the call.
+     *
+     * @param call         starts the call to checkout.com
+     * @param errorMessage the message of the exception raised when the call fails
+     * @param <T>          the type of the response
+     * @return the future response
+     */
+    protected <T> CompletableFuture<T> withTimeout(final Supplier<CompletableFuture<T>> call, final String errorMessage) {
+        final CompletableFuture<T> sdkFuture;
+        try {
+            sdkFuture = call.get();
+        } catch (final RuntimeException e) {
+            LOG.error(errorMessage);
+            return CompletableFuture.failedFuture(new CheckoutComPaymentIntegrationException(errorMessage, e));
+        }
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        sdkFuture.orTimeout(getTimeout(), TimeUnit.MILLISECONDS).whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                result.complete(response);
+            } else {
+                LOG.error(errorMessage);
+                result.completeExceptionally(new CheckoutComPaymentIntegrationException(errorMessage, unwrap(throwable)));
+            }
+        });
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                sdkFuture.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs a blocking call of the integration service on the calling thread
+     *
+     * @param call         the blocking call
+     * @param errorMessage the message of the exception raised when the call fails
+     * @param <T>          the type of the response
+     * @return a completed future holding the response or the failure
+     */
+    protected <T> CompletableFuture<T> callIntegrationService(final BlockingCall<T> call, final String errorMessage) {
+        try {
+            return CompletableFuture.completedFuture(call.call());
+        } catch (final InterruptedException e) {
+            LOG.error(errorMessage);
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new CheckoutComPaymentIntegrationException(errorMessage, e));
+        } catch (final ExecutionException | RuntimeException e) {
+            LOG.error(errorMessage);
+            return CompletableFuture.failedFuture(new CheckoutComPaymentIntegrationException(errorMessage, e));
+        }
+    }
+
+    /**
+     * Looks up the payment info of the order paid with the given payment id, as the synchronous capture and void do,
+     * and starts the call for it. A payment without payment info completes with a
+     * {@link CheckoutComPaymentIntegrationException} and nothing is sent to checkout.com.
+     *
+     * @param paymentId    the checkout.com unique payment id
+     * @param errorMessage the message of the exception raised when the lookup fails
+     * @param call         starts the call for the payment info found
+     * @param <T>          the type of the response
+     * @return the future response
+     */
+    protected <T> CompletableFuture<T> withPaymentInfo(final String paymentId, final String errorMessage,
+                                                       final Function<PaymentInfoModel, CompletableFuture<T>> call) {
+        final PaymentInfoModel paymentInfo;
+        try {
+            paymentInfo = checkoutComPaymentIntegrationService.getPaymentInfoForPaymentId(paymentId);
+        } catch (final RuntimeException e) {
+            LOG.error(errorMessage);
+            return CompletableFuture.failedFuture(new CheckoutComPaymentIntegrationException(errorMessage, e));
+        }
+        return call.apply(paymentInfo);
+    }
+
+    /**
+     * Gets the instance of the checkout.com api for the site of the order with the given payment reference
+     *
+     * @param paymentReference the checkout.com payment reference
+     * @return the checkout.com sdk api
+     */
+    protected CheckoutApi createCheckoutComApiForPaymentReference(final String paymentReference) {
+        return sessionService.executeInLocalView(new SessionExecutionBody() {
+            @Override
+            public Object execute() {
+                final Optional<AbstractOrderModel> order = orderDao.findAbstractOrderForPaymentReferenceNumber(paymentReference);
+                final BaseSiteModel site = order.map(AbstractOrderModel::getSite).orElse(null);
+                sessionService.setAttribute(CURRENT_SITE, site);
+                return checkoutComApiService.createCheckoutApi();
+            }
+        });
+    }
+
+    protected long getTimeout() {
+        return configurationService.getConfiguration().getLong(ASYNC_TIMEOUT, DEFAULT_ASYNC_TIMEOUT);
+    }
+
+    protected Throwable unwrap(final Throwable throwable) {
+        if ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * A call to the blocking integration service
+     *
+     * @param <T> the type of the response
+     */
+    @FunctionalInterface
+    protected interface BlockingCall<T> {
+        T call() throws ExecutionException, InterruptedException;
+    }
+}
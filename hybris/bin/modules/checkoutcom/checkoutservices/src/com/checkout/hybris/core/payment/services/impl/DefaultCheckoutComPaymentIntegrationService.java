@@ -1,5 +1,6 @@
 package com.checkout.hybris.core.payment.services.impl;
 
+import com.checkout.hybris.core.enums.CheckoutComPayloadType;
 import com.checkout.hybris.core.enums.EnvironmentType;
 import com.checkout.hybris.core.klarna.capture.request.KlarnaCaptureRequestDto;
 import com.checkout.hybris.core.klarna.capture.response.KlarnaCaptureResponseDto;
@@ -13,11 +14,10 @@ import com.checkout.hybris.core.order.daos.CheckoutComOrderDao;
 import com.checkout.hybris.core.payment.daos.CheckoutComPaymentInfoDao;
 import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
 import com.checkout.hybris.core.payment.services.CheckoutComApiService;
-import com.checkout.hybris.core.payment.services.CheckoutComPaymentInfoService;
+import com.checkout.hybris.core.payment.services.CheckoutComPayloadJournalService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentIntegrationService;
 import com.checkout.CheckoutApi;
 import com.checkout.CheckoutApiException;
-import com.checkout.GsonSerializer;
 import com.checkout.instruments.create.CreateInstrumentSepaRequest;
 import com.checkout.instruments.create.CreateInstrumentSepaResponse;
 import com.checkout.payments.*;
@@ -74,7 +74,7 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
     protected final ConfigurationService configurationService;
     protected final CheckoutComApiService checkoutComApiService;
     protected final RestTemplate restTemplate;
-    protected final CheckoutComPaymentInfoService paymentInfoService;
+    protected final CheckoutComPayloadJournalService checkoutComPayloadJournalService;
 
     public DefaultCheckoutComPaymentIntegrationService(final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
                                                        final SessionService sessionService,
@@ -83,7 +83,7 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
                                                        final RestTemplate restTemplate,
                                                        final ConfigurationService configurationService,
                                                        final CheckoutComApiService checkoutComApiService,
-                                                       final CheckoutComPaymentInfoService paymentInfoService) {
+                                                       final CheckoutComPayloadJournalService checkoutComPayloadJournalService) {
 
         this.checkoutComMerchantConfigurationService = checkoutComMerchantConfigurationService;
         this.sessionService = sessionService;
@@ -92,7 +92,7 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
         this.restTemplate = restTemplate;
         this.configurationService = configurationService;
         this.checkoutComApiService = checkoutComApiService;
-        this.paymentInfoService = paymentInfoService;
+        this.checkoutComPayloadJournalService = checkoutComPayloadJournalService;
     }
 
     /**
@@ -123,10 +123,7 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
 
         try {
             final GetPaymentResponse getPaymentResponse = checkoutApi.paymentsClient().getPayment(paymentIdentifier).get();
-            final GsonSerializer gsonSerializer = new GsonSerializer();
-            final String paymentResponseJson = gsonSerializer.toJson(getPaymentResponse);
-            paymentInfoService.saveResponseInOrderByPaymentReference(getPaymentResponse.getReference(), paymentResponseJson);
-            paymentInfoService.logInfoOut(paymentResponseJson);
+            checkoutComPayloadJournalService.journal(getPaymentResponse.getReference(), CheckoutComPayloadType.RESPONSE, getPaymentResponse);
 
             return getPaymentResponse;
         } catch (final ExecutionException | CancellationException e) {
@@ -143,7 +140,7 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
      * {@inheritDoc}
      */
     @Override
-    public CaptureResponse capturePayment(final CaptureRequest captureRequest, final String paymentId) throws ExecutionException, InterruptedException {
+    public PaymentInfoModel getPaymentInfoForPaymentId(final String paymentId) {
         final List<PaymentInfoModel> paymentInfos = checkoutComPaymentInfoDao.findPaymentInfosByPaymentId(paymentId);
         final Optional<PaymentInfoModel> paymentInfoOptional = paymentInfos.stream().filter(payment -> payment.getOriginal() != null).findAny();
 
@@ -152,7 +149,23 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
             throw new CheckoutComPaymentIntegrationException(String.format("Could not find payment info for payment od [%s].", paymentId));
         }
 
-        final PaymentInfoModel paymentInfo = paymentInfoOptional.get();
+        return paymentInfoOptional.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CaptureResponse capturePayment(final CaptureRequest captureRequest, final String paymentId) throws ExecutionException, InterruptedException {
+        return capturePayment(captureRequest, paymentId, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CaptureResponse capturePayment(final CaptureRequest captureRequest, final String paymentId, final String idempotencyKey) throws ExecutionException, InterruptedException {
+        final PaymentInfoModel paymentInfo = getPaymentInfoForPaymentId(paymentId);
 
         if (paymentInfo instanceof CheckoutComKlarnaAPMPaymentInfoModel) {
             // Klarna capture is not supported by the Java SDK - a direct REST call is required
@@ -167,7 +180,10 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
             }
         });
 
-        return checkoutApi.paymentsClient().capturePayment(paymentId, captureRequest).get();
+        if (idempotencyKey == null) {
+            return checkoutApi.paymentsClient().capturePayment(paymentId, captureRequest).get();
+        }
+        return checkoutApi.paymentsClient().capturePayment(paymentId, captureRequest, idempotencyKey).get();
     }
 
     /**
@@ -175,6 +191,14 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
      */
     @Override
     public RefundResponse refundPayment(final RefundRequest refundRequest, final String paymentId) throws ExecutionException, InterruptedException {
+        return refundPayment(refundRequest, paymentId, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RefundResponse refundPayment(final RefundRequest refundRequest, final String paymentId, final String idempotencyKey) throws ExecutionException, InterruptedException {
         final CheckoutApi checkoutApi = sessionService.executeInLocalView(new SessionExecutionBody() {
             @Override
             public Object execute() {
@@ -182,7 +206,10 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
             }
         });
 
-        return checkoutApi.paymentsClient().refundPayment(paymentId, refundRequest).get();
+        if (idempotencyKey == null) {
+            return checkoutApi.paymentsClient().refundPayment(paymentId, refundRequest).get();
+        }
+        return checkoutApi.paymentsClient().refundPayment(paymentId, refundRequest, idempotencyKey).get();
     }
 
     /**
@@ -190,15 +217,15 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
      */
     @Override
     public VoidResponse voidPayment(final VoidRequest voidRequest, final String paymentId) throws ExecutionException, InterruptedException {
-        final List<PaymentInfoModel> paymentInfos = checkoutComPaymentInfoDao.findPaymentInfosByPaymentId(paymentId);
-        final Optional<PaymentInfoModel> paymentInfoOptional = paymentInfos.stream().filter(payment -> payment.getOriginal() != null).findAny();
-
-        if (paymentInfos.isEmpty() || paymentInfoOptional.isEmpty()) {
-            LOG.error("Could not find payment info for payment od [{}].", paymentId);
-            throw new CheckoutComPaymentIntegrationException(String.format("Could not find payment info for payment od [%s].", paymentId));
-        }
+        return voidPayment(voidRequest, paymentId, null);
+    }
 
-        final PaymentInfoModel paymentInfo = paymentInfoOptional.get();
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public VoidResponse voidPayment(final VoidRequest voidRequest, final String paymentId, final String idempotencyKey) throws ExecutionException, InterruptedException {
+        final PaymentInfoModel paymentInfo = getPaymentInfoForPaymentId(paymentId);
 
         if (paymentInfo instanceof CheckoutComKlarnaAPMPaymentInfoModel) {
             // Klarna void is not supported by the Java SDK - a direct REST call is required
@@ -213,7 +240,10 @@ public class DefaultCheckoutComPaymentIntegrationService implements CheckoutComP
             }
         });
 
-        return checkoutApi.paymentsClient().voidPayment(paymentId, voidRequest).get();
+        if (idempotencyKey == null) {
+            return checkoutApi.paymentsClient().voidPayment(paymentId, voidRequest).get();
+        }
+        return checkoutApi.paymentsClient().voidPayment(paymentId, voidRequest, idempotencyKey).get();
     }
 
     /**
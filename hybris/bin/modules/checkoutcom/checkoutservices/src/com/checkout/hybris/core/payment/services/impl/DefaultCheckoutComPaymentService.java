@@ -11,6 +11,7 @@ import com.checkout.hybris.core.payment.response.strategies.CheckoutComPaymentRe
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentReturnedService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
+import com.checkout.hybris.core.payment.transaction.CheckoutComPaymentStateSummary;
 import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 import com.checkout.payments.PaymentAction;
@@ -28,11 +29,11 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.math.BigDecimal;
 import java.util.Optional;
 
 import static de.hybris.platform.payment.dto.TransactionStatus.*;
 import static de.hybris.platform.payment.dto.TransactionStatusDetails.*;
-import static de.hybris.platform.payment.enums.PaymentTransactionType.*;
 import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
 
 /**
@@ -46,6 +47,7 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
     protected static final String PAYMENT_ID_CANNOT_BE_NULL = "PaymentId cannot be null.";
     protected static final String TRANSACTION_CANNOT_BE_NULL = "Transaction cannot be null.";
     protected static final String TRANSACTION_TYPE_CANNOT_BE_NULL = "TransactionType cannot be null.";
+    protected static final String ENTRY_CODE_CANNOT_BE_NULL = "Entry code cannot be null.";
 
     protected final CheckoutComPaymentTypeResolver checkoutComPaymentTypeResolver;
     protected final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService;
@@ -53,6 +55,8 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
     protected final CheckoutComPaymentResponseStrategyMapper checkoutComPaymentResponseStrategyMapper;
     protected final CheckoutComPaymentReturnedService checkoutComPaymentReturnedService;
 
+    private final ThreadLocal<String> entryCodeOverride = new ThreadLocal<>();
+
     public DefaultCheckoutComPaymentService(final CheckoutComPaymentTypeResolver checkoutComPaymentTypeResolver,
                                             final CheckoutComPaymentTransactionService checkoutComPaymentTransactionService,
                                             final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
@@ -74,25 +78,7 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
             return true;
         }
 
-        boolean isPendingAuthorizationPaymentTransaction = true;
-        final PaymentTransactionModel paymentTransaction = checkoutComPaymentTransactionService.getPaymentTransaction(order);
-        if (isAuthorizationTransactionEntryNotPending(paymentTransaction)) {
-            isPendingAuthorizationPaymentTransaction = false;
-        }
-        return isPendingAuthorizationPaymentTransaction;
-    }
-
-    /**
-     * Checks if any of the PaymentTransactionEntries in the {@param paymentTransaction} is authorization type
-     * and is not pending.
-     *
-     * @param paymentTransaction The current {@link PaymentTransactionModel}
-     * @return true if any of the entries is authorization and not pending. False otherwise.
-     */
-    protected boolean isAuthorizationTransactionEntryNotPending(final PaymentTransactionModel paymentTransaction) {
-        return paymentTransaction.getEntries().stream()
-                .anyMatch(paymentTransactionEntry -> AUTHORIZATION.equals(paymentTransactionEntry.getType()) &&
-                        !PENDING.name().equalsIgnoreCase(paymentTransactionEntry.getTransactionStatus()));
+        return !getPaymentStateSummary(order).isAuthorizationNotPending();
     }
 
     /**
@@ -104,8 +90,7 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
             return false;
         }
 
-        return checkoutComPaymentTransactionService.getPaymentTransaction(order).getEntries().stream()
-                .anyMatch(this::isTransactionEntryAuthorized);
+        return getPaymentStateSummary(order).isAuthorizationApproved();
     }
 
     /**
@@ -129,8 +114,7 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
     public boolean captureExists(final OrderModel order) {
         validateParameterNotNull(order, ORDER_MODEL_CANNOT_BE_NULL);
 
-        return checkoutComPaymentTransactionService.getPaymentTransaction(order).getEntries().stream()
-                .anyMatch(paymentTransactionEntry -> CAPTURE.equals(paymentTransactionEntry.getType()));
+        return getPaymentStateSummary(order).isCaptureExists();
     }
 
     /**
@@ -149,6 +133,7 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
             final PaymentTransactionEntryModel paymentTransactionEntry = paymentTransactionEntryOptional.get();
             paymentTransactionEntry.setTransactionStatus(ACCEPTED.name());
             getModelService().save(paymentTransactionEntry);
+            checkoutComPaymentTransactionService.invalidatePaymentStateSummary(transaction);
         } else {
             String transactionStatus;
             String transactionStatusDetails;
@@ -255,15 +240,7 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
             return false;
         }
 
-        return checkoutComPaymentTransactionService.getPaymentTransaction(order).getEntries().stream()
-                .anyMatch(paymentTransactionEntry -> CAPTURE.equals(paymentTransactionEntry.getType()) &&
-                        TransactionStatus.ACCEPTED.toString().equalsIgnoreCase(paymentTransactionEntry.getTransactionStatus()));
-    }
-
-    protected boolean isTransactionEntryAuthorized(final PaymentTransactionEntryModel paymentTransactionEntry) {
-        return AUTHORIZATION.equals(paymentTransactionEntry.getType()) &&
-                (TransactionStatus.ACCEPTED.toString().equalsIgnoreCase(paymentTransactionEntry.getTransactionStatus()) ||
-                        TransactionStatus.REVIEW.toString().equalsIgnoreCase(paymentTransactionEntry.getTransactionStatus()));
+        return getPaymentStateSummary(order).isCaptureApproved();
     }
 
     /**
@@ -277,8 +254,7 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
             return false;
         }
 
-        return checkoutComPaymentTransactionService.getPaymentTransaction(order).getEntries().stream()
-                .anyMatch(paymentTransactionEntry -> CANCEL.equals(paymentTransactionEntry.getType()));
+        return getPaymentStateSummary(order).isVoidPresent();
     }
 
     /**
@@ -290,9 +266,18 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
         if (CollectionUtils.isEmpty(order.getPaymentTransactions())) {
             return false;
         }
-        return checkoutComPaymentTransactionService.getPaymentTransaction(order).getEntries().stream()
-                .filter(paymentTransactionEntry -> CANCEL.equals(paymentTransactionEntry.getType()))
-                .anyMatch(transactionEntry -> PENDING.name().equalsIgnoreCase(transactionEntry.getTransactionStatus()));
+        return getPaymentStateSummary(order).isVoidPending();
+    }
+
+    /**
+     * Gets the state summary of the payment transaction of the order, so the checks on the same order share a single
+     * pass over its entries
+     *
+     * @param order the order
+     * @return the {@link CheckoutComPaymentStateSummary} of the payment transaction of the order
+     */
+    protected CheckoutComPaymentStateSummary getPaymentStateSummary(final OrderModel order) {
+        return checkoutComPaymentTransactionService.getPaymentStateSummary(checkoutComPaymentTransactionService.getPaymentTransaction(order));
     }
 
     /**
@@ -307,4 +292,59 @@ public class DefaultCheckoutComPaymentService extends DefaultPaymentServiceImpl
         final CheckoutComPaymentResponseStrategy paymentResponseStrategy = checkoutComPaymentResponseStrategyMapper.findStrategy(paymentType);
         return paymentResponseStrategy.handlePendingPaymentResponse(paymentResponse, paymentInfo);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PaymentTransactionEntryModel capture(final PaymentTransactionModel transaction, final String entryCode) {
+        validateParameterNotNull(entryCode, ENTRY_CODE_CANNOT_BE_NULL);
+
+        entryCodeOverride.set(entryCode);
+        try {
+            return capture(transaction);
+        } finally {
+            entryCodeOverride.remove();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PaymentTransactionEntryModel refundFollowOn(final PaymentTransactionModel transaction, final BigDecimal amount, final String entryCode) {
+        validateParameterNotNull(entryCode, ENTRY_CODE_CANNOT_BE_NULL);
+
+        entryCodeOverride.set(entryCode);
+        try {
+            return refundFollowOn(transaction, amount);
+        } finally {
+            entryCodeOverride.remove();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PaymentTransactionEntryModel cancel(final PaymentTransactionEntryModel authorizationEntry, final String entryCode) {
+        validateParameterNotNull(entryCode, ENTRY_CODE_CANNOT_BE_NULL);
+
+        entryCodeOverride.set(entryCode);
+        try {
+            return cancel(authorizationEntry);
+        } finally {
+            entryCodeOverride.remove();
+        }
+    }
+
+    /**
+     * Uses the entry code given to the capture, refund or cancel in progress on this thread, the platform numbers the
+     * entries otherwise
+     */
+    @Override
+    public String getNewPaymentTransactionEntryCode(final PaymentTransactionModel transaction, final PaymentTransactionType paymentTransactionType) {
+        final String entryCode = entryCodeOverride.get();
+        return entryCode != null ? entryCode : super.getNewPaymentTransactionEntryCode(transaction, paymentTransactionType);
+    }
 }
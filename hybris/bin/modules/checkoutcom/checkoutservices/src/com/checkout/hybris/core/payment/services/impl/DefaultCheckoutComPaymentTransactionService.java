@@ -3,6 +3,7 @@ package com.checkout.hybris.core.payment.services.impl;
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
+import com.checkout.hybris.core.payment.transaction.CheckoutComPaymentStateSummary;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 import de.hybris.platform.commerceservices.order.CommercePaymentProviderStrategy;
 import de.hybris.platform.core.model.order.OrderModel;
@@ -13,12 +14,15 @@ import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
 import de.hybris.platform.payment.model.PaymentTransactionModel;
 import de.hybris.platform.servicelayer.model.ModelService;
 import de.hybris.platform.servicelayer.time.TimeService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -45,6 +49,13 @@ public class DefaultCheckoutComPaymentTransactionService implements CheckoutComP
     protected final CommercePaymentProviderStrategy commercePaymentProviderStrategy;
     protected final ModelService modelService;
     protected final TimeService timeService;
+    /**
+     * Weak keys are compared by identity, so a summary lives as long as the payment transaction instance of the unit
+     * of work it was computed in
+     */
+    protected final Cache<PaymentTransactionModel, CheckoutComPaymentStateSummary> paymentStateSummaries = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
 
     public DefaultCheckoutComPaymentTransactionService(final CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationService,
                                                        final CommercePaymentProviderStrategy commercePaymentProviderStrategy,
@@ -208,6 +219,35 @@ public class DefaultCheckoutComPaymentTransactionService implements CheckoutComP
 
         modelService.save(transactionEntryModel);
         modelService.refresh(paymentTransaction);
+        invalidatePaymentStateSummary(paymentTransaction);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComPaymentStateSummary getPaymentStateSummary(final PaymentTransactionModel paymentTransaction) {
+        validateParameterNotNull(paymentTransaction, PAYMENT_TRANSACTION_CANNOT_BE_NULL);
+
+        final List<PaymentTransactionEntryModel> entries = paymentTransaction.getEntries();
+        final CheckoutComPaymentStateSummary cachedSummary = paymentStateSummaries.getIfPresent(paymentTransaction);
+        if (cachedSummary != null && cachedSummary.getEntryCount() == CollectionUtils.size(entries)) {
+            return cachedSummary;
+        }
+
+        final CheckoutComPaymentStateSummary summary = CheckoutComPaymentStateSummary.of(entries);
+        paymentStateSummaries.put(paymentTransaction, summary);
+        return summary;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void invalidatePaymentStateSummary(final PaymentTransactionModel paymentTransaction) {
+        validateParameterNotNull(paymentTransaction, PAYMENT_TRANSACTION_CANNOT_BE_NULL);
+
+        paymentStateSummaries.invalidate(paymentTransaction);
     }
 
     /**
@@ -0,0 +1,327 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.enums.CheckoutComReconciliationDiscrepancyType;
+import com.checkout.hybris.core.model.CheckoutComReconciliationDiscrepancyModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComReconciliationDao;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationRecord;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationStats;
+import com.checkout.hybris.core.payment.services.CheckoutComReconciliationMatchingService;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventType;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+import de.hybris.platform.payment.model.PaymentTransactionModel;
+import de.hybris.platform.servicelayer.model.ModelService;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static de.hybris.platform.payment.dto.TransactionStatus.ACCEPTED;
+import static de.hybris.platform.payment.dto.TransactionStatus.PENDING;
+import static de.hybris.platform.payment.dto.TransactionStatus.REVIEW;
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+
+/**
+ * Default implementation of the {@link CheckoutComReconciliationMatchingService}. A batch is matched with a fixed
+ * number of indexed queries per thousand actions, and the loaded models are detached once saved so the memory used
+ * does not grow with the number of batches
+ */
+public class DefaultCheckoutComReconciliationMatchingService implements CheckoutComReconciliationMatchingService {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComReconciliationMatchingService.class);
+
+    protected static final String APPROVED_RESPONSE_CODE = "10000";
+    protected static final String APPROVED_RESPONSE_CODE_PREFIX = "10";
+    protected static final String BACKFILLED_EVENT_ID_PREFIX = "reconciliation-";
+
+    /**
+     * Payment event received for the approved actions of each reported action type
+     */
+    protected static final Map<String, CheckoutComPaymentEventType> ACTION_EVENT_TYPES = Map.of(
+            "authorization", CheckoutComPaymentEventType.PAYMENT_APPROVED,
+            "capture", CheckoutComPaymentEventType.PAYMENT_CAPTURED,
+            "refund", CheckoutComPaymentEventType.PAYMENT_REFUNDED,
+            "void", CheckoutComPaymentEventType.PAYMENT_VOIDED);
+
+    protected final ModelService modelService;
+    protected final CheckoutComReconciliationDao checkoutComReconciliationDao;
+
+    public DefaultCheckoutComReconciliationMatchingService(final ModelService modelService,
+                                                           final CheckoutComReconciliationDao checkoutComReconciliationDao) {
+        this.modelService = modelService;
+        this.checkoutComReconciliationDao = checkoutComReconciliationDao;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reconcile(final List<CheckoutComReconciliationRecord> records, final String siteUid, final boolean backfillMissingEntries,
+                          final CheckoutComReconciliationStats stats) {
+        validateParameterNotNull(records, "Records cannot be null");
+        validateParameterNotNull(stats, "Stats cannot be null");
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // The same action can be reported twice in a file, the last row wins
+        final Map<String, CheckoutComReconciliationRecord> recordsByActionId = records.stream()
+                .collect(Collectors.toMap(CheckoutComReconciliationRecord::getActionId, Function.identity(), (first, second) -> second, LinkedHashMap::new));
+        final Set<String> actionIds = recordsByActionId.keySet();
+
+        final List<PaymentTransactionEntryModel> entries = checkoutComReconciliationDao.findTransactionEntriesByActionIds(actionIds);
+        final Map<String, List<PaymentTransactionEntryModel>> entriesByActionId = entries.stream()
+                .collect(Collectors.groupingBy(PaymentTransactionEntryModel::getRequestToken));
+        final List<CheckoutComReconciliationDiscrepancyModel> discrepancies = checkoutComReconciliationDao.findDiscrepanciesByActionIds(actionIds);
+        final Map<String, CheckoutComReconciliationDiscrepancyModel> discrepanciesByActionId = discrepancies.stream()
+                .collect(Collectors.toMap(CheckoutComReconciliationDiscrepancyModel::getActionId, Function.identity(), (first, second) -> first));
+
+        final List<CheckoutComReconciliationRecord> unmatchedRecords = recordsByActionId.values().stream()
+                .filter(reported -> !entriesByActionId.containsKey(reported.getActionId()))
+                .collect(Collectors.toList());
+        final Map<String, PaymentTransactionModel> transactionsByPaymentId = findPaymentTransactionsByPaymentId(unmatchedRecords);
+        final Map<String, PaymentTransactionModel> transactionsByReference = findPaymentTransactionsByReference(unmatchedRecords, transactionsByPaymentId);
+        final Set<String> receivedActionIds = backfillMissingEntries && !unmatchedRecords.isEmpty() ?
+                new HashSet<>(checkoutComReconciliationDao.findPaymentEventActionIds(getActionIds(unmatchedRecords))) : Collections.emptySet();
+
+        final List<Object> modelsToSave = new ArrayList<>();
+        long matchedCount = 0;
+        long discrepancyCount = 0;
+        long resolvedCount = 0;
+        long backfilledCount = 0;
+        for (final CheckoutComReconciliationRecord reported : recordsByActionId.values()) {
+            final CheckoutComReconciliationDiscrepancyModel recordedDiscrepancy = discrepanciesByActionId.get(reported.getActionId());
+            final List<PaymentTransactionEntryModel> actionEntries = entriesByActionId.get(reported.getActionId());
+
+            if (actionEntries != null) {
+                final List<PaymentTransactionEntryModel> settledEntries = actionEntries.stream()
+                        .filter(entry -> !isPending(entry))
+                        .collect(Collectors.toList());
+                if (settledEntries.isEmpty()) {
+                    // The outcome of the action has not been received yet, its status cannot be compared
+                    LOG.debug("Action [{}] of payment [{}] is still pending, it is not reconciled.", reported.getActionId(), reported.getPaymentId());
+                    continue;
+                }
+                final Optional<PaymentTransactionEntryModel> matchingEntry = findEntryWithReportedStatus(reported, settledEntries);
+                final PaymentTransactionEntryModel entry = matchingEntry.orElse(settledEntries.get(0));
+                final Optional<CheckoutComReconciliationDiscrepancyType> mismatch = matchingEntry.isPresent() ?
+                        findMismatch(reported, entry) : Optional.of(CheckoutComReconciliationDiscrepancyType.STATUS_MISMATCH);
+                if (mismatch.isPresent()) {
+                    modelsToSave.add(recordDiscrepancy(reported, recordedDiscrepancy, mismatch.get(), entry));
+                    discrepancyCount++;
+                } else {
+                    matchedCount++;
+                    if (recordedDiscrepancy != null && !Boolean.TRUE.equals(recordedDiscrepancy.getResolved())) {
+                        recordedDiscrepancy.setResolved(Boolean.TRUE);
+                        recordedDiscrepancy.setTransactionEntry(entry);
+                        recordedDiscrepancy.setRecordedAmount(entry.getAmount());
+                        modelsToSave.add(recordedDiscrepancy);
+                        resolvedCount++;
+                    }
+                }
+                continue;
+            }
+
+            final PaymentTransactionModel paymentTransaction = Optional.ofNullable(transactionsByPaymentId.get(reported.getPaymentId()))
+                    .orElseGet(() -> transactionsByReference.get(reported.getPaymentReference()));
+            if (paymentTransaction == null) {
+                modelsToSave.add(recordDiscrepancy(reported, recordedDiscrepancy, CheckoutComReconciliationDiscrepancyType.UNKNOWN_PAYMENT, null));
+                discrepancyCount++;
+                continue;
+            }
+
+            final CheckoutComReconciliationDiscrepancyModel discrepancy = recordDiscrepancy(reported, recordedDiscrepancy,
+                    CheckoutComReconciliationDiscrepancyType.MISSING_ENTRY, null);
+            discrepancyCount++;
+            if (backfillMissingEntries && !receivedActionIds.contains(reported.getActionId())) {
+                final Optional<CheckoutComPaymentEventModel> paymentEvent = createPaymentEvent(reported, paymentTransaction, siteUid);
+                if (paymentEvent.isPresent()) {
+                    modelsToSave.add(paymentEvent.get());
+                    discrepancy.setBackfilled(Boolean.TRUE);
+                    backfilledCount++;
+                }
+            }
+            modelsToSave.add(discrepancy);
+        }
+
+        modelService.saveAll(modelsToSave);
+
+        stats.setMatchedCount(stats.getMatchedCount() + matchedCount);
+        stats.setDiscrepancyCount(stats.getDiscrepancyCount() + discrepancyCount);
+        stats.setResolvedCount(stats.getResolvedCount() + resolvedCount);
+        stats.setBackfilledCount(stats.getBackfilledCount() + backfilledCount);
+
+        detach(entries);
+        detach(discrepancies);
+        detach(transactionsByPaymentId.values());
+        detach(transactionsByReference.values());
+        detach(modelsToSave);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resolveMissingEntry(final PaymentTransactionEntryModel entry) {
+        validateParameterNotNull(entry, "Entry cannot be null");
+        if (StringUtils.isBlank(entry.getRequestToken())) {
+            return;
+        }
+
+        checkoutComReconciliationDao.findDiscrepanciesByActionIds(Collections.singleton(entry.getRequestToken())).stream()
+                .filter(discrepancy -> CheckoutComReconciliationDiscrepancyType.MISSING_ENTRY.equals(discrepancy.getType()))
+                .filter(discrepancy -> !Boolean.TRUE.equals(discrepancy.getResolved()))
+                .findFirst()
+                .ifPresent(discrepancy -> {
+                    discrepancy.setResolved(Boolean.TRUE);
+                    discrepancy.setTransactionEntry(entry);
+                    discrepancy.setRecordedAmount(entry.getAmount());
+                    modelService.save(discrepancy);
+                    LOG.info("Resolved the missing entry discrepancy of action [{}] of payment [{}].", discrepancy.getActionId(), discrepancy.getPaymentId());
+                });
+    }
+
+    /**
+     * Finds the entry of the action whose status agrees with the reported response code: an approved action is
+     * recorded as accepted or in review, a declined one with any other status
+     *
+     * @param reported      the reported action
+     * @param actionEntries the entries of the action
+     * @return the entry agreeing with the reported status, if any
+     */
+    protected Optional<PaymentTransactionEntryModel> findEntryWithReportedStatus(final CheckoutComReconciliationRecord reported,
+                                                                                 final List<PaymentTransactionEntryModel> actionEntries) {
+        final boolean approved = isApproved(reported);
+        return actionEntries.stream()
+                .filter(entry -> isAccepted(entry) == approved)
+                .findFirst();
+    }
+
+    protected Optional<CheckoutComReconciliationDiscrepancyType> findMismatch(final CheckoutComReconciliationRecord reported,
+                                                                              final PaymentTransactionEntryModel entry) {
+        if (entry.getCurrency() != null && StringUtils.isNotBlank(reported.getCurrency())
+                && !reported.getCurrency().equalsIgnoreCase(entry.getCurrency().getIsocode())) {
+            return Optional.of(CheckoutComReconciliationDiscrepancyType.CURRENCY_MISMATCH);
+        }
+        if (reported.getAmount() != null && entry.getAmount() != null
+                && reported.getAmount().abs().compareTo(entry.getAmount().abs()) != 0) {
+            return Optional.of(CheckoutComReconciliationDiscrepancyType.AMOUNT_MISMATCH);
+        }
+        return Optional.empty();
+    }
+
+    protected CheckoutComReconciliationDiscrepancyModel recordDiscrepancy(final CheckoutComReconciliationRecord reported,
+                                                                          final CheckoutComReconciliationDiscrepancyModel recordedDiscrepancy,
+                                                                          final CheckoutComReconciliationDiscrepancyType type,
+                                                                          final PaymentTransactionEntryModel entry) {
+        final CheckoutComReconciliationDiscrepancyModel discrepancy;
+        if (recordedDiscrepancy != null) {
+            discrepancy = recordedDiscrepancy;
+        } else {
+            discrepancy = modelService.create(CheckoutComReconciliationDiscrepancyModel.class);
+            discrepancy.setActionId(reported.getActionId());
+        }
+        discrepancy.setType(type);
+        discrepancy.setPaymentId(reported.getPaymentId());
+        discrepancy.setPaymentReference(reported.getPaymentReference());
+        discrepancy.setActionType(reported.getActionType());
+        discrepancy.setReportId(reported.getReportId());
+        discrepancy.setReportedAmount(reported.getAmount());
+        discrepancy.setReportedCurrency(reported.getCurrency());
+        discrepancy.setTransactionEntry(entry);
+        discrepancy.setRecordedAmount(entry != null ? entry.getAmount() : null);
+        discrepancy.setResolved(Boolean.FALSE);
+        LOG.debug("Action [{}] of payment [{}] does not match its payment transaction entries: [{}].", reported.getActionId(), reported.getPaymentId(), type);
+        return discrepancy;
+    }
+
+    /**
+     * Creates the payment event the webhook of an approved action would have created. Only the action types with a
+     * payment event equivalent, reported in the currency of the payment transaction, can be backfilled
+     *
+     * @param reported           the reported action missing its entry
+     * @param paymentTransaction the payment transaction of the action
+     * @param siteUid            the uid of the site the report belongs to
+     * @return the pending payment event, not saved, or empty if the action cannot be backfilled
+     */
+    protected Optional<CheckoutComPaymentEventModel> createPaymentEvent(final CheckoutComReconciliationRecord reported,
+                                                                        final PaymentTransactionModel paymentTransaction,
+                                                                        final String siteUid) {
+        final CheckoutComPaymentEventType eventType = ACTION_EVENT_TYPES.get(StringUtils.lowerCase(reported.getActionType(), Locale.ROOT));
+        if (eventType == null || !isApproved(reported) || reported.getAmount() == null || paymentTransaction.getCurrency() == null
+                || !paymentTransaction.getCurrency().getIsocode().equalsIgnoreCase(reported.getCurrency())) {
+            LOG.debug("Action [{}] of type [{}] cannot be backfilled.", reported.getActionId(), reported.getActionType());
+            return Optional.empty();
+        }
+
+        final CheckoutComPaymentEventModel paymentEvent = modelService.create(CheckoutComPaymentEventModel.class);
+        paymentEvent.setEventId(BACKFILLED_EVENT_ID_PREFIX + reported.getActionId());
+        paymentEvent.setActionId(reported.getActionId());
+        paymentEvent.setEventType(eventType.getCode());
+        paymentEvent.setResponseCode(StringUtils.defaultIfBlank(reported.getResponseCode(), APPROVED_RESPONSE_CODE));
+        paymentEvent.setPaymentId(StringUtils.defaultIfBlank(reported.getPaymentId(), paymentTransaction.getRequestId()));
+        paymentEvent.setPaymentReference(paymentTransaction.getCode());
+        paymentEvent.setAmount(reported.getAmount().abs());
+        paymentEvent.setCurrency(paymentTransaction.getCurrency());
+        paymentEvent.setSiteId(siteUid);
+        paymentEvent.setStatus(CheckoutComPaymentEventStatus.PENDING);
+        LOG.info("Backfilling the [{}] event of action [{}] of payment [{}].", eventType.getCode(), reported.getActionId(), paymentEvent.getPaymentId());
+        return Optional.of(paymentEvent);
+    }
+
+    protected Map<String, PaymentTransactionModel> findPaymentTransactionsByPaymentId(final List<CheckoutComReconciliationRecord> unmatchedRecords) {
+        final Set<String> paymentIds = unmatchedRecords.stream()
+                .map(CheckoutComReconciliationRecord::getPaymentId)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+        return checkoutComReconciliationDao.findPaymentTransactionsByPaymentIds(paymentIds).stream()
+                .collect(Collectors.toMap(PaymentTransactionModel::getRequestId, Function.identity(), (first, second) -> first));
+    }
+
+    /**
+     * The payment transactions not found by payment id are looked up by payment reference, the code of the transaction
+     */
+    protected Map<String, PaymentTransactionModel> findPaymentTransactionsByReference(final List<CheckoutComReconciliationRecord> unmatchedRecords,
+                                                                                      final Map<String, PaymentTransactionModel> transactionsByPaymentId) {
+        final Set<String> paymentReferences = unmatchedRecords.stream()
+                .filter(reported -> !transactionsByPaymentId.containsKey(reported.getPaymentId()))
+                .map(CheckoutComReconciliationRecord::getPaymentReference)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+        return checkoutComReconciliationDao.findPaymentTransactionsByPaymentReferences(paymentReferences).stream()
+                .collect(Collectors.toMap(PaymentTransactionModel::getCode, Function.identity(), (first, second) -> first));
+    }
+
+    protected boolean isApproved(final CheckoutComReconciliationRecord reported) {
+        return StringUtils.isBlank(reported.getResponseCode()) || reported.getResponseCode().startsWith(APPROVED_RESPONSE_CODE_PREFIX);
+    }
+
+    protected boolean isAccepted(final PaymentTransactionEntryModel entry) {
+        return ACCEPTED.name().equals(entry.getTransactionStatus()) || REVIEW.name().equals(entry.getTransactionStatus());
+    }
+
+    protected boolean isPending(final PaymentTransactionEntryModel entry) {
+        return PENDING.name().equals(entry.getTransactionStatus());
+    }
+
+    protected Set<String> getActionIds(final List<CheckoutComReconciliationRecord> records) {
+        return records.stream().map(CheckoutComReconciliationRecord::getActionId).collect(Collectors.toSet());
+    }
+
+    protected void detach(final Collection<?> models) {
+        models.forEach(modelService::detach);
+    }
+}
@@ -0,0 +1,445 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.CheckoutApi;
+import com.checkout.FileDownloadResponse;
+import com.checkout.common.CsvRowIterator;
+import com.checkout.common.Link;
+import com.checkout.hybris.core.model.CheckoutComReconciliationCronJobModel;
+import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationRecord;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationStats;
+import com.checkout.hybris.core.payment.services.CheckoutComApiService;
+import com.checkout.hybris.core.payment.services.CheckoutComReconciliationMatchingService;
+import com.checkout.hybris.core.payment.services.CheckoutComReconciliationService;
+import com.checkout.reports.FileResponse;
+import com.checkout.reports.ReportDetailsResponse;
+import com.checkout.reports.ReportsQuery;
+import com.checkout.reports.ReportsResponse;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static de.hybris.platform.servicelayer.util.ServicesUtil.validateParameterNotNull;
+
+/**
+ * Default implementation of the {@link CheckoutComReconciliationService}. The financial actions api has no date range
+ * filter, so the actions are reconciled from the csv files of the reports, listed by creation date. The memory used
+ * does not depend on the size of the files: they are written to disk while downloaded, then read one batch of rows at
+ * a time
+ */
+public class DefaultCheckoutComReconciliationService implements CheckoutComReconciliationService {
+
+    protected static final Logger LOG = LogManager.getLogger(DefaultCheckoutComReconciliationService.class);
+
+    protected static final String LOOKBACK_DAYS = "checkoutservices.reconciliation.lookback.days";
+    protected static final String REPORTS_PAGE_SIZE = "checkoutservices.reconciliation.reports.pagesize";
+    protected static final String DOWNLOAD_PARALLELISM = "checkoutservices.reconciliation.download.parallelism";
+    protected static final String TIMEOUT = "checkoutservices.reconciliation.timeout.seconds";
+    protected static final String COLUMN_ACTION_ID = "checkoutservices.reconciliation.column.actionid";
+    protected static final String COLUMN_ACTION_TYPE = "checkoutservices.reconciliation.column.actiontype";
+    protected static final String COLUMN_PAYMENT_ID = "checkoutservices.reconciliation.column.paymentid";
+    protected static final String COLUMN_REFERENCE = "checkoutservices.reconciliation.column.reference";
+    protected static final String COLUMN_RESPONSE_CODE = "checkoutservices.reconciliation.column.responsecode";
+    protected static final String COLUMN_AMOUNT = "checkoutservices.reconciliation.column.amount";
+    protected static final String COLUMN_CURRENCY = "checkoutservices.reconciliation.column.currency";
+    protected static final String COLUMN_BREAKDOWN_TYPE = "checkoutservices.reconciliation.column.breakdowntype";
+    protected static final String BREAKDOWN_TYPE = "checkoutservices.reconciliation.breakdowntype";
+
+    protected static final int DEFAULT_LOOKBACK_DAYS = 1;
+    protected static final int DEFAULT_REPORTS_PAGE_SIZE = 100;
+    protected static final int DEFAULT_DOWNLOAD_PARALLELISM = 4;
+    protected static final long DEFAULT_TIMEOUT = 300L;
+    protected static final int DEFAULT_BATCH_SIZE = 1000;
+    protected static final String DEFAULT_COLUMN_ACTION_ID = "Action ID";
+    protected static final String DEFAULT_COLUMN_ACTION_TYPE = "Action Type";
+    protected static final String DEFAULT_COLUMN_PAYMENT_ID = "Payment ID";
+    protected static final String DEFAULT_COLUMN_REFERENCE = "Reference";
+    protected static final String DEFAULT_COLUMN_RESPONSE_CODE = "Response Code";
+    protected static final String DEFAULT_COLUMN_AMOUNT = "Processing Currency Amount";
+    protected static final String DEFAULT_COLUMN_CURRENCY = "Processing Currency";
+    protected static final String DEFAULT_COLUMN_BREAKDOWN_TYPE = "Breakdown Type";
+    protected static final String DEFAULT_BREAKDOWN_TYPE = "Gross";
+
+    protected static final String CSV_FORMAT = "csv";
+    protected static final String NEXT_LINK = "next";
+    protected static final String PAGINATION_TOKEN = "pagination_token";
+
+    protected final ConfigurationService configurationService;
+    protected final ModelService modelService;
+    protected final TimeService timeService;
+    protected final BaseSiteService baseSiteService;
+    protected final CheckoutComApiService checkoutComApiService;
+    protected final CheckoutComReconciliationMatchingService checkoutComReconciliationMatchingService;
+
+    public DefaultCheckoutComReconciliationService(final ConfigurationService configurationService,
+                                                   final ModelService modelService,
+                                                   final TimeService timeService,
+                                                   final BaseSiteService baseSiteService,
+                                                   final CheckoutComApiService checkoutComApiService,
+                                                   final CheckoutComReconciliationMatchingService checkoutComReconciliationMatchingService) {
+        this.configurationService = configurationService;
+        this.modelService = modelService;
+        this.timeService = timeService;
+        this.baseSiteService = baseSiteService;
+        this.checkoutComApiService = checkoutComApiService;
+        this.checkoutComReconciliationMatchingService = checkoutComReconciliationMatchingService;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CheckoutComReconciliationStats reconcile(final CheckoutComReconciliationCronJobModel cronJob) {
+        validateParameterNotNull(cronJob, "Cronjob cannot be null");
+        validateParameterNotNull(cronJob.getSite(), "Site of the cronjob cannot be null");
+
+        final long start = System.currentTimeMillis();
+        final CheckoutComReconciliationStats stats = new CheckoutComReconciliationStats();
+        baseSiteService.setCurrentBaseSite(cronJob.getSite(), false);
+        final CheckoutApi checkoutApi = checkoutComApiService.createCheckoutApi();
+        final Iterator<ReportDetailsResponse> reports = listReports(checkoutApi, cronJob).iterator();
+
+        final Path directory = createDirectory();
+        final Deque<ReportDownload> downloads = new ArrayDeque<>();
+        try {
+            final int parallelism = Math.max(1, configurationService.getConfiguration().getInt(DOWNLOAD_PARALLELISM, DEFAULT_DOWNLOAD_PARALLELISM));
+            while (reports.hasNext() || !downloads.isEmpty()) {
+                // The files of the next reports are downloaded while the current one is reconciled
+                while (downloads.size() < parallelism && reports.hasNext()) {
+                    downloads.add(startDownload(checkoutApi, reports.next(), directory));
+                }
+                final ReportDownload download = downloads.poll();
+                if (!reconcileReport(download, cronJob, stats)) {
+                    stats.setAborted(true);
+                    break;
+                }
+                saveCursor(cronJob, download.getReport());
+            }
+        } finally {
+            downloads.forEach(download -> download.getFiles().forEach(file -> file.cancel(true)));
+            FileUtils.deleteQuietly(directory.toFile());
+        }
+
+        stats.setDurationMillis(System.currentTimeMillis() - start);
+        return stats;
+    }
+
+    /**
+     * Lists the reports with csv files created since the cursor of the cronjob, or within the lookback period on the
+     * first run, sorted by creation date. The pages are small headers, the files are only downloaded afterwards
+     *
+     * @param checkoutApi the checkout api of the site
+     * @param cronJob     the reconciliation cronjob
+     * @return the reports to reconcile, oldest first
+     */
+    protected List<ReportDetailsResponse> listReports(final CheckoutApi checkoutApi, final CheckoutComReconciliationCronJobModel cronJob) {
+        final Instant now = timeService.getCurrentTime().toInstant();
+        final Instant createdAfter = cronJob.getReconciledUntil() != null ? cronJob.getReconciledUntil().toInstant() :
+                now.minus(configurationService.getConfiguration().getInt(LOOKBACK_DAYS, DEFAULT_LOOKBACK_DAYS), ChronoUnit.DAYS);
+        final int pageSize = configurationService.getConfiguration().getInt(REPORTS_PAGE_SIZE, DEFAULT_REPORTS_PAGE_SIZE);
+
+        final List<ReportDetailsResponse> reports = new ArrayList<>();
+        String paginationToken = null;
+        do {
+            final ReportsQuery query = ReportsQuery.builder()
+                    .createdAfter(createdAfter)
+                    .createdBefore(now)
+                    .limit(pageSize)
+                    .paginationToken(paginationToken)
+                    .build();
+            final ReportsResponse page = await(checkoutApi.reportsClient().getAllReports(query), "listing the reports created after " + createdAfter);
+            if (page.getData() != null) {
+                page.getData().stream()
+                        .filter(report -> isReportToReconcile(report, cronJob))
+                        .forEach(reports::add);
+            }
+            paginationToken = getNextPaginationToken(page);
+        } while (paginationToken != null);
+
+        reports.sort(Comparator.comparing(ReportDetailsResponse::getCreatedOn, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(ReportDetailsResponse::getId));
+        LOG.info("Found [{}] reports created after [{}] to reconcile for site [{}].", reports.size(), createdAfter, cronJob.getSite().getUid());
+        return reports;
+    }
+
+    protected boolean isReportToReconcile(final ReportDetailsResponse report, final CheckoutComReconciliationCronJobModel cronJob) {
+        return !StringUtils.equals(report.getId(), cronJob.getLastReconciledReportId())
+                && (StringUtils.isBlank(cronJob.getReportType()) || cronJob.getReportType().equalsIgnoreCase(report.getType()))
+                && !getCsvFiles(report).isEmpty();
+    }
+
+    protected List<FileResponse> getCsvFiles(final ReportDetailsResponse report) {
+        if (CollectionUtils.isEmpty(report.getFiles())) {
+            return List.of();
+        }
+        return report.getFiles().stream()
+                .filter(file -> CSV_FORMAT.equalsIgnoreCase(file.getFormat()) || StringUtils.endsWithIgnoreCase(file.getFileName(), "." + CSV_FORMAT))
+                .collect(Collectors.toList());
+    }
+
+    protected String getNextPaginationToken(final ReportsResponse page) {
+        final Link next = page.getLink(NEXT_LINK);
+        if (next == null || StringUtils.isBlank(next.getHref())) {
+            return null;
+        }
+        return StringUtils.trimToNull(UriComponentsBuilder.fromUriString(next.getHref()).build().getQueryParams().getFirst(PAGINATION_TOKEN));
+    }
+
+    protected ReportDownload startDownload(final CheckoutApi checkoutApi, final ReportDetailsResponse report, final Path directory) {
+        final List<CompletableFuture<FileDownloadResponse>> files = getCsvFiles(report).stream()
+                .map(file -> checkoutApi.reportsClient().downloadReportFile(report.getId(), file.getId(),
+                        directory.resolve(report.getId() + "-" + file.getId() + "." + CSV_FORMAT), false))
+                .collect(Collectors.toList());
+        return new ReportDownload(report, files);
+    }
+
+    /**
+     * Reconciles the files of a report, deleting each file once read
+     *
+     * @return false if the cronjob was aborted before the end of the report
+     */
+    protected boolean reconcileReport(final ReportDownload download, final CheckoutComReconciliationCronJobModel cronJob,
+                                      final CheckoutComReconciliationStats stats) {
+        final String reportId = download.getReport().getId();
+        for (final CompletableFuture<FileDownloadResponse> file : download.getFiles()) {
+            final Path path = await(file, "downloading a file of report " + reportId).getPath();
+            try {
+                if (!reconcileFile(path, reportId, cronJob, stats)) {
+                    return false;
+                }
+            } finally {
+                FileUtils.deleteQuietly(path.toFile());
+            }
+            stats.setFileCount(stats.getFileCount() + 1);
+        }
+        stats.setReportCount(stats.getReportCount() + 1);
+        LOG.debug("Reconciled report [{}] created on [{}].", reportId, download.getReport().getCreatedOn());
+        return true;
+    }
+
+    /**
+     * Reads the rows of a report file and matches them one batch at a time, the abort of the cronjob is checked
+     * between two batches
+     *
+     * @return false if the cronjob was aborted before the end of the file
+     */
+    protected boolean reconcileFile(final Path path, final String reportId, final CheckoutComReconciliationCronJobModel cronJob,
+                                    final CheckoutComReconciliationStats stats) {
+        final int batchSize = cronJob.getBatchSize() != null && cronJob.getBatchSize() > 0 ? cronJob.getBatchSize() : DEFAULT_BATCH_SIZE;
+        final boolean backfillMissingEntries = BooleanUtils.isTrue(cronJob.getBackfillMissingEntries());
+        final String siteUid = cronJob.getSite().getUid();
+
+        try (final CsvRowIterator rows = CsvRowIterator.open(path)) {
+            if (!rows.hasNext()) {
+                return true;
+            }
+            final ReportColumns columns = getReportColumns(rows.next());
+            if (columns.actionId < 0) {
+                LOG.warn("File [{}] of report [{}] has no action id column, it is skipped.", path.getFileName(), reportId);
+                return true;
+            }
+
+            final List<CheckoutComReconciliationRecord> batch = new ArrayList<>(batchSize);
+            while (rows.hasNext()) {
+                stats.setRowCount(stats.getRowCount() + 1);
+                toRecord(rows.next(), columns, reportId).ifPresent(batch::add);
+                if (batch.size() >= batchSize) {
+                    checkoutComReconciliationMatchingService.reconcile(batch, siteUid, backfillMissingEntries, stats);
+                    batch.clear();
+                    if (isAbortRequested(cronJob)) {
+                        return false;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                checkoutComReconciliationMatchingService.reconcile(batch, siteUid, backfillMissingEntries, stats);
+            }
+            return true;
+        } catch (final IOException e) {
+            throw new CheckoutComPaymentIntegrationException("Could not read a file of report " + reportId, e);
+        }
+    }
+
+    protected ReportColumns getReportColumns(final List<String> header) {
+        final Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            indexes.putIfAbsent(StringUtils.trimToEmpty(header.get(i)).toLowerCase(Locale.ROOT), i);
+        }
+
+        final ReportColumns columns = new ReportColumns();
+        columns.actionId = getColumnIndex(indexes, COLUMN_ACTION_ID, DEFAULT_COLUMN_ACTION_ID);
+        columns.actionType = getColumnIndex(indexes, COLUMN_ACTION_TYPE, DEFAULT_COLUMN_ACTION_TYPE);
+        columns.paymentId = getColumnIndex(indexes, COLUMN_PAYMENT_ID, DEFAULT_COLUMN_PAYMENT_ID);
+        columns.reference = getColumnIndex(indexes, COLUMN_REFERENCE, DEFAULT_COLUMN_REFERENCE);
+        columns.responseCode = getColumnIndex(indexes, COLUMN_RESPONSE_CODE, DEFAULT_COLUMN_RESPONSE_CODE);
+        columns.amount = getColumnIndex(indexes, COLUMN_AMOUNT, DEFAULT_COLUMN_AMOUNT);
+        columns.currency = getColumnIndex(indexes, COLUMN_CURRENCY, DEFAULT_COLUMN_CURRENCY);
+        columns.breakdownType = getColumnIndex(indexes, COLUMN_BREAKDOWN_TYPE, DEFAULT_COLUMN_BREAKDOWN_TYPE);
+        columns.breakdownTypeValue = configurationService.getConfiguration().getString(BREAKDOWN_TYPE, DEFAULT_BREAKDOWN_TYPE);
+        return columns;
+    }
+
+    protected int getColumnIndex(final Map<String, Integer> indexes, final String key, final String defaultName) {
+        final String name = configurationService.getConfiguration().getString(key, defaultName);
+        return indexes.getOrDefault(StringUtils.trimToEmpty(name).toLowerCase(Locale.ROOT), -1);
+    }
+
+    /**
+     * An action is reported on several rows when its amount is broken down, only the rows of the configured breakdown
+     * type are reconciled
+     *
+     * @return the reported action, or empty if the row is not reconciled
+     */
+    protected Optional<CheckoutComReconciliationRecord> toRecord(final List<String> row, final ReportColumns columns, final String reportId) {
+        final String actionId = getCell(row, columns.actionId);
+        final String breakdownType = getCell(row, columns.breakdownType);
+        if (actionId == null || breakdownType != null && StringUtils.isNotBlank(columns.breakdownTypeValue)
+                && !columns.breakdownTypeValue.equalsIgnoreCase(breakdownType)) {
+            return Optional.empty();
+        }
+
+        final CheckoutComReconciliationRecord reported = new CheckoutComReconciliationRecord();
+        reported.setReportId(reportId);
+        reported.setActionId(actionId);
+        reported.setActionType(getCell(row, columns.actionType));
+        reported.setPaymentId(getCell(row, columns.paymentId));
+        reported.setPaymentReference(getCell(row, columns.reference));
+        reported.setResponseCode(getCell(row, columns.responseCode));
+        reported.setAmount(parseAmount(getCell(row, columns.amount), actionId));
+        reported.setCurrency(getCell(row, columns.currency));
+        return Optional.of(reported);
+    }
+
+    protected String getCell(final List<String> row, final int index) {
+        return index >= 0 && index < row.size() ? StringUtils.trimToNull(row.get(index)) : null;
+    }
+
+    protected BigDecimal parseAmount(final String amount, final String actionId) {
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(amount);
+        } catch (final NumberFormatException e) {
+            LOG.warn("Amount [{}] of action [{}] is not a number, the amount is not reconciled.", amount, actionId);
+            return null;
+        }
+    }
+
+    /**
+     * Moves the cursor of the cronjob after the reconciled report
+     */
+    protected void saveCursor(final CheckoutComReconciliationCronJobModel cronJob, final ReportDetailsResponse report) {
+        parseCreationDate(report).ifPresent(cronJob::setReconciledUntil);
+        cronJob.setLastReconciledReportId(report.getId());
+        modelService.save(cronJob);
+    }
+
+    protected Optional<Date> parseCreationDate(final ReportDetailsResponse report) {
+        try {
+            return Optional.ofNullable(report.getCreatedOn()).map(Instant::parse).map(Date::from);
+        } catch (final DateTimeParseException e) {
+            LOG.warn("Creation date [{}] of report [{}] cannot be parsed.", report.getCreatedOn(), report.getId());
+            return Optional.empty();
+        }
+    }
+
+    protected boolean isAbortRequested(final CheckoutComReconciliationCronJobModel cronJob) {
+        modelService.refresh(cronJob);
+        return BooleanUtils.isTrue(cronJob.getRequestAbort());
+    }
+
+    protected Path createDirectory() {
+        try {
+            return Files.createTempDirectory("checkoutcom-reconciliation");
+        } catch (final IOException e) {
+            throw new CheckoutComPaymentIntegrationException("Could not create the directory of the report files", e);
+        }
+    }
+
+    protected <T> T await(final Future<T> future, final String operation) {
+        final long timeout = configurationService.getConfiguration().getLong(TIMEOUT, DEFAULT_TIMEOUT);
+        try {
+            return future.get(timeout, TimeUnit.SECONDS);
+        } catch (final ExecutionException | CancellationException | TimeoutException e) {
+            LOG.error("Error while {} with Checkout.com.", operation);
+            throw new CheckoutComPaymentIntegrationException("Reconciliation failed while " + operation, e);
+        } catch (final InterruptedException e) {
+            LOG.error("Interrupted while {} with Checkout.com.", operation);
+            Thread.currentThread().interrupt();
+            throw new CheckoutComPaymentIntegrationException("Reconciliation interrupted while " + operation, e);
+        }
+    }
+
+    /**
+     * Report whose files are being downloaded
+     */
+    protected static class ReportDownload {
+
+        private final ReportDetailsResponse report;
+        private final List<CompletableFuture<FileDownloadResponse>> files;
+
+        protected ReportDownload(final ReportDetailsResponse report, final List<CompletableFuture<FileDownloadResponse>> files) {
+            this.report = report;
+            this.files = files;
+        }
+
+        public ReportDetailsResponse getReport() {
+            return report;
+        }
+
+        public List<CompletableFuture<FileDownloadResponse>> getFiles() {
+            return files;
+        }
+    }
+
+    /**
+     * Indexes of the reconciled columns in the rows of a report file, -1 for the missing ones
+     */
+    protected static class ReportColumns {
+
+        protected int actionId;
+        protected int actionType;
+        protected int paymentId;
+        protected int reference;
+        protected int responseCode;
+        protected int amount;
+        protected int currency;
+        protected int breakdownType;
+        protected String breakdownTypeValue;
+    }
+}
@@ -0,0 +1,123 @@
+package com.checkout.hybris.core.payment.transaction;
+
+import de.hybris.platform.payment.enums.PaymentTransactionType;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+
+import java.util.Collection;
+
+import static de.hybris.platform.payment.dto.TransactionStatus.*;
+import static de.hybris.platform.payment.enums.PaymentTransactionType.*;
+
+/**
+ * Immutable summary of the state of a payment transaction, derived from its entries in a single pass
+ */
+public final class CheckoutComPaymentStateSummary {
+
+    private final int entryCount;
+    private final boolean authorizationNotPending;
+    private final boolean authorizationApproved;
+    private final boolean captureExists;
+    private final boolean captureApproved;
+    private final boolean voidPresent;
+    private final boolean voidPending;
+
+    private CheckoutComPaymentStateSummary(final int entryCount,
+                                           final boolean authorizationNotPending,
+                                           final boolean authorizationApproved,
+                                           final boolean captureExists,
+                                           final boolean captureApproved,
+                                           final boolean voidPresent,
+                                           final boolean voidPending) {
+        this.entryCount = entryCount;
+        this.authorizationNotPending = authorizationNotPending;
+        this.authorizationApproved = authorizationApproved;
+        this.captureExists = captureExists;
+        this.captureApproved = captureApproved;
+        this.voidPresent = voidPresent;
+        this.voidPending = voidPending;
+    }
+
+    /**
+     * Builds the summary of the given payment transaction entries
+     *
+     * @param entries the entries of the payment transaction, can be null
+     * @return the summary of the entries
+     */
+    public static CheckoutComPaymentStateSummary of(final Collection<PaymentTransactionEntryModel> entries) {
+        if (entries == null) {
+            return new CheckoutComPaymentStateSummary(0, false, false, false, false, false, false);
+        }
+
+        boolean authorizationNotPending = false;
+        boolean authorizationApproved = false;
+        boolean captureExists = false;
+        boolean captureApproved = false;
+        boolean voidPresent = false;
+        boolean voidPending = false;
+        for (final PaymentTransactionEntryModel entry : entries) {
+            final PaymentTransactionType type = entry.getType();
+            final String transactionStatus = entry.getTransactionStatus();
+            if (AUTHORIZATION.equals(type)) {
+                authorizationNotPending |= !PENDING.name().equalsIgnoreCase(transactionStatus);
+                authorizationApproved |= ACCEPTED.name().equalsIgnoreCase(transactionStatus) || REVIEW.name().equalsIgnoreCase(transactionStatus);
+            } else if (CAPTURE.equals(type)) {
+                captureExists = true;
+                captureApproved |= ACCEPTED.name().equalsIgnoreCase(transactionStatus);
+            } else if (CANCEL.equals(type)) {
+                voidPresent = true;
+                voidPending |= PENDING.name().equalsIgnoreCase(transactionStatus);
+            }
+        }
+        return new CheckoutComPaymentStateSummary(entries.size(), authorizationNotPending, authorizationApproved,
+                captureExists, captureApproved, voidPresent, voidPending);
+    }
+
+    /**
+     * @return the number of entries the summary was built from
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return true if any authorization entry is not pending
+     */
+    public boolean isAuthorizationNotPending() {
+        return authorizationNotPending;
+    }
+
+    /**
+     * @return true if any authorization entry is accepted or in review
+     */
+    public boolean isAuthorizationApproved() {
+        return authorizationApproved;
+    }
+
+    /**
+     * @return true if there is any capture entry
+     */
+    public boolean isCaptureExists() {
+        return captureExists;
+    }
+
+    /**
+     * @return true if any capture entry is accepted
+     */
+    public boolean isCaptureApproved() {
+        return captureApproved;
+    }
+
+    /**
+     * @return true if there is any cancel entry
+     */
+    public boolean isVoidPresent() {
+        return voidPresent;
+    }
+
+    /**
+     * @return true if any cancel entry is pending
+     */
+    public boolean isVoidPending() {
+        return voidPending;
+    }
+}
@@ -0,0 +1,43 @@
+package com.checkout.hybris.core.apm.events.listeners;
+
+import com.checkout.hybris.core.apm.events.CheckoutComApmAvailabilityChangedEvent;
+import com.checkout.hybris.core.apm.services.CheckoutComApmAvailabilityIndex;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutComApmAvailabilityChangedEventListenerTest {
+
+    private static final PK APM_CONFIGURATION_PK = PK.fromLong(1L);
+
+    @InjectMocks
+    private CheckoutComApmAvailabilityChangedEventListener testObj;
+
+    @Mock
+    private CheckoutComApmAvailabilityIndex checkoutComApmAvailabilityIndexMock;
+
+    @Test
+    public void onEvent_WhenApmConfigurationChanged_ShouldRefreshIt() {
+        testObj.onEvent(new CheckoutComApmAvailabilityChangedEvent(APM_CONFIGURATION_PK));
+
+        verify(checkoutComApmAvailabilityIndexMock).refreshApmConfiguration(APM_CONFIGURATION_PK);
+        verifyNoMoreInteractions(checkoutComApmAvailabilityIndexMock);
+    }
+
+    @Test
+    public void onEvent_WhenAllApmsMayHaveChanged_ShouldInvalidateTheIndexes() {
+        testObj.onEvent(new CheckoutComApmAvailabilityChangedEvent(null));
+
+        verify(checkoutComApmAvailabilityIndexMock).invalidateAll();
+        verifyNoMoreInteractions(checkoutComApmAvailabilityIndexMock);
+    }
+}
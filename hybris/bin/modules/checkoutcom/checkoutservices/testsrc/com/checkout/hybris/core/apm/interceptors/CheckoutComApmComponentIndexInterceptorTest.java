@@ -0,0 +1,68 @@
+package com.checkout.hybris.core.apm.interceptors;
+
+import com.checkout.hybris.addon.model.CheckoutComAPMComponentModel;
+import com.checkout.hybris.core.apm.events.CheckoutComApmAvailabilityChangedEvent;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.servicelayer.event.EventService;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutComApmComponentIndexInterceptorTest {
+
+    @InjectMocks
+    private CheckoutComApmComponentIndexInterceptor testObj;
+
+    @Mock
+    private EventService eventServiceMock;
+    @Mock
+    private CheckoutComAPMComponentModel componentMock;
+    @Mock
+    private InterceptorContext contextMock;
+    @Captor
+    private ArgumentCaptor<CheckoutComApmAvailabilityChangedEvent> eventCaptor;
+
+    @Test
+    public void onPrepare_WhenComponentIsNew_ShouldPublishAChangeOfAllApms() {
+        when(contextMock.isNew(componentMock)).thenReturn(true);
+
+        testObj.onPrepare(componentMock, contextMock);
+
+        verify(eventServiceMock).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getApmConfigurationPk()).isNull();
+        assertThat(eventCaptor.getValue().publishOnCommitOnly()).isTrue();
+    }
+
+    @Test
+    public void onPrepare_WhenComponentModified_ShouldPublishAChangeOfAllApms() {
+        when(contextMock.isModified(componentMock)).thenReturn(true);
+
+        testObj.onPrepare(componentMock, contextMock);
+
+        verify(eventServiceMock).publishEvent(any(CheckoutComApmAvailabilityChangedEvent.class));
+    }
+
+    @Test
+    public void onPrepare_WhenComponentNotModified_ShouldDoNothing() {
+        testObj.onPrepare(componentMock, contextMock);
+
+        verifyNoInteractions(eventServiceMock);
+    }
+
+    @Test
+    public void onRemove_ShouldPublishAChangeOfAllApms() {
+        testObj.onRemove(componentMock, contextMock);
+
+        verify(eventServiceMock).publishEvent(any(CheckoutComApmAvailabilityChangedEvent.class));
+    }
+}
@@ -0,0 +1,78 @@
+package com.checkout.hybris.core.apm.interceptors;
+
+import com.checkout.hybris.core.apm.events.CheckoutComApmAvailabilityChangedEvent;
+import com.checkout.hybris.core.model.CheckoutComAPMConfigurationModel;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.event.EventService;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutComApmConfigurationIndexInterceptorTest {
+
+    private static final PK APM_CONFIGURATION_PK = PK.fromLong(1L);
+
+    @InjectMocks
+    private CheckoutComApmConfigurationIndexInterceptor testObj;
+
+    @Mock
+    private EventService eventServiceMock;
+    @Mock
+    private CheckoutComAPMConfigurationModel apmConfigurationMock;
+    @Mock
+    private InterceptorContext contextMock;
+    @Captor
+    private ArgumentCaptor<CheckoutComApmAvailabilityChangedEvent> eventCaptor;
+
+    @Before
+    public void setUp() {
+        lenient().when(apmConfigurationMock.getPk()).thenReturn(APM_CONFIGURATION_PK);
+    }
+
+    @Test
+    public void onPrepare_WhenConfigurationModified_ShouldPublishTheChangedConfiguration() {
+        when(contextMock.isModified(apmConfigurationMock)).thenReturn(true);
+
+        testObj.onPrepare(apmConfigurationMock, contextMock);
+
+        verify(eventServiceMock).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getApmConfigurationPk()).isEqualTo(APM_CONFIGURATION_PK);
+        assertThat(eventCaptor.getValue().publishOnCommitOnly()).isTrue();
+    }
+
+    @Test
+    public void onPrepare_WhenConfigurationIsNew_ShouldDoNothing() {
+        when(contextMock.isNew(apmConfigurationMock)).thenReturn(true);
+
+        testObj.onPrepare(apmConfigurationMock, contextMock);
+
+        verifyNoInteractions(eventServiceMock);
+    }
+
+    @Test
+    public void onPrepare_WhenConfigurationNotModified_ShouldDoNothing() {
+        testObj.onPrepare(apmConfigurationMock, contextMock);
+
+        verifyNoInteractions(eventServiceMock);
+    }
+
+    @Test
+    public void onRemove_ShouldPublishAChangeOfAllApms() {
+        testObj.onRemove(apmConfigurationMock, contextMock);
+
+        verify(eventServiceMock).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getApmConfigurationPk()).isNull();
+    }
+}
@@ -1,7 +1,7 @@
 package com.checkout.hybris.core.apm.services.impl;
 
-import com.checkout.hybris.addon.model.CheckoutComAPMComponentModel;
 import com.checkout.hybris.core.apm.configuration.CheckoutComAPMConfigurationSettings;
+import com.checkout.hybris.core.apm.services.CheckoutComApmAvailabilityIndex;
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.core.model.CheckoutComAPMConfigurationModel;
 import com.checkout.hybris.core.model.CheckoutComFawryConfigurationModel;
@@ -53,8 +53,6 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
     @Mock
     private CartService cartServiceMock;
     @Mock
-    private GenericDao<CheckoutComAPMComponentModel> checkoutComApmComponentDaoMock;
-    @Mock
     private GenericDao<CheckoutComAPMConfigurationModel> checkoutComApmConfigurationDaoMock;
     @Mock
     private GenericDao<CheckoutComGlobalAPMConfigurationModel> globalAPMConfigurationDaoMock;
@@ -62,6 +60,8 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
     private CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationServiceMock;
     @Mock
     private Map<String, CheckoutComAPMConfigurationSettings> checkoutComAPMConfigurationSettingsMock;
+    @Mock
+    private CheckoutComApmAvailabilityIndex checkoutComApmAvailabilityIndexMock;
 
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private CartModel cartMock;
@@ -70,8 +70,6 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private AddressModel paymentAddressMock, shippingAddressMock;
     @Mock
-    private CheckoutComAPMComponentModel component1Mock, component2Mock;
-    @Mock
     private CountryModel restrictedCountryMock;
     @Mock
     private CurrencyModel restrictedCurrencyMock;
@@ -82,13 +80,13 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
     @Mock
     private CheckoutComGlobalAPMConfigurationModel checkoutComGlobalAPMConfigurationMock;
     @Mock
-    private CheckoutComAPMConfigurationModel apmConfiguration1Mock, apmConfiguration2Mock;
+    private CheckoutComAPMConfigurationModel apmConfiguration1Mock;
 
     @BeforeEach
     public void setUp() {
-        testObj = Mockito.spy(new DefaultCheckoutComAPMConfigurationService(cartServiceMock, checkoutComApmComponentDaoMock,
-                checkoutComApmConfigurationDaoMock, globalAPMConfigurationDaoMock, checkoutComMerchantConfigurationServiceMock,
-                checkoutComAPMConfigurationSettingsMock));
+        testObj = Mockito.spy(new DefaultCheckoutComAPMConfigurationService(cartServiceMock, checkoutComApmConfigurationDaoMock,
+                globalAPMConfigurationDaoMock, checkoutComMerchantConfigurationServiceMock, checkoutComAPMConfigurationSettingsMock,
+                checkoutComApmAvailabilityIndexMock));
 
         lenient().when(restrictedCountryMock.getIsocode()).thenReturn(FRANCE.getCountry());
         lenient().when(restrictedCurrencyMock.getIsocode()).thenReturn(EUR.name());
@@ -104,11 +102,6 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
         lenient().when(cartMock.getDeliveryAddress()).thenReturn(shippingAddressMock);
         lenient().when(paymentAddressMock.getCountry().getIsocode()).thenReturn(BILLING_ADDRESS_COUNTRY_CODE);
         lenient().when(shippingAddressMock.getCountry().getIsocode()).thenReturn(BILLING_ADDRESS_COUNTRY_CODE);
-        lenient().when(checkoutComApmComponentDaoMock.find()).thenReturn(List.of(component1Mock, component2Mock));
-        lenient().when(component1Mock.getApmConfiguration()).thenReturn(apmConfiguration1Mock);
-        lenient().when(component2Mock.getApmConfiguration()).thenReturn(apmConfiguration2Mock);
-        lenient().when(component1Mock.getVisible()).thenReturn(Boolean.TRUE);
-        lenient().when(component2Mock.getVisible()).thenReturn(Boolean.TRUE);
         lenient().when(globalAPMConfigurationDaoMock.find()).thenReturn(List.of(checkoutComGlobalAPMConfigurationMock));
     }
 
@@ -259,8 +252,7 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
 
     @Test
     public void getAvailableApms_WhenBillingAddressInCart_ShouldReturnAvailableApmsForBillingAddress() {
-        doReturn(true).when(testObj).isApmAvailable(apmConfiguration1Mock, BILLING_ADDRESS_COUNTRY_CODE, CART_CURRENCY);
-        doReturn(false).when(testObj).isApmAvailable(apmConfiguration2Mock, BILLING_ADDRESS_COUNTRY_CODE, CART_CURRENCY);
+        when(checkoutComApmAvailabilityIndexMock.findAvailableApms(BILLING_ADDRESS_COUNTRY_CODE, CART_CURRENCY)).thenReturn(List.of(apmConfiguration1Mock));
 
         final List<CheckoutComAPMConfigurationModel> result = testObj.getAvailableApms();
 
@@ -272,19 +264,7 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
     public void getAvailableApms_WhenNoBillingAddressInCart_ShouldReturnAvailableApmsForShippingAddress() {
         when(cartMock.getPaymentAddress()).thenReturn(null);
         when(shippingAddressMock.getCountry().getIsocode()).thenReturn(SHIPPING_ADDRESS_COUNTRY_CODE);
-        doReturn(true).when(testObj).isApmAvailable(apmConfiguration1Mock, SHIPPING_ADDRESS_COUNTRY_CODE, CART_CURRENCY);
-        doReturn(false).when(testObj).isApmAvailable(apmConfiguration2Mock, SHIPPING_ADDRESS_COUNTRY_CODE, CART_CURRENCY);
-
-        final List<CheckoutComAPMConfigurationModel> result = testObj.getAvailableApms();
-
-        assertThat(result).hasSize(1);
-        assertEquals(apmConfiguration1Mock, result.get(0));
-    }
-
-    @Test
-    public void getAvailableApms_WhenComponentIsNotVisible_ShouldReturnAvailableApms() {
-        when(component2Mock.getVisible()).thenReturn(Boolean.FALSE);
-        doReturn(true).when(testObj).isApmAvailable(apmConfiguration1Mock, BILLING_ADDRESS_COUNTRY_CODE, CART_CURRENCY);
+        when(checkoutComApmAvailabilityIndexMock.findAvailableApms(SHIPPING_ADDRESS_COUNTRY_CODE, CART_CURRENCY)).thenReturn(List.of(apmConfiguration1Mock));
 
         final List<CheckoutComAPMConfigurationModel> result = testObj.getAvailableApms();
 
@@ -294,7 +274,7 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
 
     @Test
     public void getAvailableApmsByCountryCode_WhenCountryCodeProvided_ShouldReturnAvailableApms() {
-        doReturn(true).when(testObj).isApmAvailable(apmConfiguration1Mock, UK.getCountry(), CART_CURRENCY);
+        when(checkoutComApmAvailabilityIndexMock.findAvailableApms(UK.getCountry(), CART_CURRENCY)).thenReturn(List.of(apmConfiguration1Mock));
 
         final List<CheckoutComAPMConfigurationModel> result = testObj.getAvailableApmsByCountryCode(UK.getCountry());
 
@@ -311,7 +291,7 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
 
     @Test
     public void getApmConfigurationMedia_WhenNoApmComponentFound_ShouldReturnOptionalEmpty() {
-        when(checkoutComApmComponentDaoMock.find(Map.of(CheckoutComAPMComponentModel.APMCONFIGURATION, apmConfiguration1Mock))).thenReturn(Collections.emptyList());
+        when(checkoutComApmAvailabilityIndexMock.getApmMedia(apmConfiguration1Mock)).thenReturn(Optional.empty());
 
         final Optional<MediaModel> result = testObj.getApmConfigurationMedia(apmConfiguration1Mock);
 
@@ -320,8 +300,7 @@ public class DefaultCheckoutComAPMConfigurationServiceTest {
 
     @Test
     public void getApmConfigurationMedia_WhenApmComponentFound_ShouldReturnMedia() {
-        when(checkoutComApmComponentDaoMock.find(Map.of(CheckoutComAPMComponentModel.APMCONFIGURATION, apmConfiguration1Mock))).thenReturn(List.of(component1Mock));
-        when(component1Mock.getMedia()).thenReturn(mediaMock);
+        when(checkoutComApmAvailabilityIndexMock.getApmMedia(apmConfiguration1Mock)).thenReturn(Optional.of(mediaMock));
 
         final Optional<MediaModel> result = testObj.getApmConfigurationMedia(apmConfiguration1Mock);
 
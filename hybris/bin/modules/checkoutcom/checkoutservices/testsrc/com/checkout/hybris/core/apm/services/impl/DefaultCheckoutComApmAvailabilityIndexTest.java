@@ -0,0 +1,210 @@
+package com.checkout.hybris.core.apm.services.impl;
+
+import com.checkout.hybris.addon.model.CheckoutComAPMComponentModel;
+import com.checkout.hybris.core.model.CheckoutComAPMConfigurationModel;
+import com.checkout.hybris.core.model.CheckoutComGlobalAPMConfigurationModel;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.catalog.CatalogVersionService;
+import de.hybris.platform.catalog.model.CatalogVersionModel;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.c2l.CountryModel;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.core.model.media.MediaModel;
+import de.hybris.platform.servicelayer.internal.dao.GenericDao;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.site.BaseSiteService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComApmAvailabilityIndexTest {
+
+    private static final String ELECTRONICS = "electronics";
+    private static final PK APM_CONFIGURATION_1_PK = PK.fromLong(1L);
+    private static final PK APM_CONFIGURATION_2_PK = PK.fromLong(2L);
+    private static final PK APM_CONFIGURATION_3_PK = PK.fromLong(3L);
+    private static final PK MEDIA_PK = PK.fromLong(10L);
+    private static final PK ONLINE_CATALOG_VERSION_PK = PK.fromLong(20L);
+    private static final PK STAGED_CATALOG_VERSION_PK = PK.fromLong(21L);
+
+    private DefaultCheckoutComApmAvailabilityIndex testObj;
+
+    @Mock
+    private GenericDao<CheckoutComAPMComponentModel> checkoutComApmComponentDaoMock;
+    @Mock
+    private GenericDao<CheckoutComGlobalAPMConfigurationModel> globalAPMConfigurationDaoMock;
+    @Mock
+    private BaseSiteService baseSiteServiceMock;
+    @Mock
+    private CatalogVersionService catalogVersionServiceMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private BaseSiteModel baseSiteMock;
+    @Mock
+    private CatalogVersionModel onlineCatalogVersionMock, stagedCatalogVersionMock;
+    @Mock
+    private CheckoutComGlobalAPMConfigurationModel globalAPMConfigurationMock;
+    @Mock
+    private CheckoutComAPMComponentModel component1Mock, component2Mock, component3Mock;
+    @Mock
+    private CheckoutComAPMConfigurationModel apmConfiguration1Mock, apmConfiguration2Mock, apmConfiguration3Mock;
+    @Mock
+    private CountryModel franceMock, ukMock;
+    @Mock
+    private CurrencyModel eurMock;
+    @Mock
+    private MediaModel mediaMock;
+
+    @Before
+    public void setUp() {
+        testObj = new DefaultCheckoutComApmAvailabilityIndex(checkoutComApmComponentDaoMock, globalAPMConfigurationDaoMock,
+                baseSiteServiceMock, catalogVersionServiceMock, modelServiceMock);
+
+        lenient().when(baseSiteServiceMock.getCurrentBaseSite()).thenReturn(baseSiteMock);
+        lenient().when(baseSiteMock.getUid()).thenReturn(ELECTRONICS);
+        lenient().when(onlineCatalogVersionMock.getPk()).thenReturn(ONLINE_CATALOG_VERSION_PK);
+        lenient().when(stagedCatalogVersionMock.getPk()).thenReturn(STAGED_CATALOG_VERSION_PK);
+        lenient().when(catalogVersionServiceMock.getSessionCatalogVersions()).thenReturn(List.of(onlineCatalogVersionMock));
+
+        lenient().when(franceMock.getIsocode()).thenReturn("FR");
+        lenient().when(ukMock.getIsocode()).thenReturn("GB");
+        lenient().when(eurMock.getIsocode()).thenReturn("EUR");
+
+        lenient().when(apmConfiguration1Mock.getPk()).thenReturn(APM_CONFIGURATION_1_PK);
+        lenient().when(apmConfiguration2Mock.getPk()).thenReturn(APM_CONFIGURATION_2_PK);
+        lenient().when(apmConfiguration3Mock.getPk()).thenReturn(APM_CONFIGURATION_3_PK);
+        lenient().when(apmConfiguration1Mock.getRestrictedCountries()).thenReturn(Set.of(franceMock));
+        lenient().when(apmConfiguration1Mock.getRestrictedCurrencies()).thenReturn(Set.of(eurMock));
+        lenient().when(mediaMock.getPk()).thenReturn(MEDIA_PK);
+
+        lenient().when(component1Mock.getApmConfiguration()).thenReturn(apmConfiguration1Mock);
+        lenient().when(component2Mock.getApmConfiguration()).thenReturn(apmConfiguration2Mock);
+        lenient().when(component3Mock.getApmConfiguration()).thenReturn(apmConfiguration3Mock);
+        lenient().when(component1Mock.getVisible()).thenReturn(Boolean.TRUE);
+        lenient().when(component2Mock.getVisible()).thenReturn(Boolean.TRUE);
+        lenient().when(component3Mock.getVisible()).thenReturn(Boolean.FALSE);
+        lenient().when(component3Mock.getMedia()).thenReturn(mediaMock);
+        lenient().when(checkoutComApmComponentDaoMock.find()).thenReturn(List.of(component1Mock, component2Mock, component3Mock));
+
+        lenient().when(globalAPMConfigurationMock.getNasAPMs()).thenReturn(List.of(apmConfiguration1Mock, apmConfiguration2Mock, apmConfiguration3Mock));
+        lenient().when(globalAPMConfigurationDaoMock.find()).thenReturn(List.of(globalAPMConfigurationMock));
+
+        lenient().doReturn(apmConfiguration1Mock).when(modelServiceMock).get(APM_CONFIGURATION_1_PK);
+        lenient().doReturn(apmConfiguration2Mock).when(modelServiceMock).get(APM_CONFIGURATION_2_PK);
+        lenient().doReturn(mediaMock).when(modelServiceMock).get(MEDIA_PK);
+    }
+
+    @Test
+    public void findAvailableApms_ShouldReturnTheVisibleApmsMatchingTheRestrictionsInComponentOrder() {
+        assertThat(testObj.findAvailableApms("fr", "eur")).containsExactly(apmConfiguration1Mock, apmConfiguration2Mock);
+        assertThat(testObj.findAvailableApms("GB", "GBP")).containsExactly(apmConfiguration2Mock);
+    }
+
+    @Test
+    public void findAvailableApms_ShouldReadTheComponentsAndTheGlobalConfigurationOnlyOnce() {
+        testObj.findAvailableApms("FR", "EUR");
+        testObj.findAvailableApms("FR", "EUR");
+        testObj.findAvailableApms("GB", "GBP");
+
+        verify(checkoutComApmComponentDaoMock, times(1)).find();
+        verify(globalAPMConfigurationDaoMock, times(1)).find();
+    }
+
+    @Test
+    public void findAvailableApms_WhenApmIsNotEnabledForNas_ShouldNotReturnIt() {
+        when(globalAPMConfigurationMock.getNasAPMs()).thenReturn(List.of(apmConfiguration1Mock));
+
+        assertThat(testObj.findAvailableApms("FR", "EUR")).containsExactly(apmConfiguration1Mock);
+    }
+
+    @Test
+    public void findAvailableApms_WhenComponentHasNoApmConfiguration_ShouldConsiderItNotRestricted() {
+        when(component2Mock.getApmConfiguration()).thenReturn(null);
+
+        assertThat(testObj.findAvailableApms("GB", "GBP")).containsExactly((CheckoutComAPMConfigurationModel) null);
+    }
+
+    @Test
+    public void findAvailableApms_WhenCountryCodeIsBlank_ShouldThrowException() {
+        assertThatThrownBy(() -> testObj.findAvailableApms("", "EUR")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void findAvailableApms_WhenNoGlobalConfiguration_ShouldThrowExceptionAndKeepNothing() {
+        when(globalAPMConfigurationDaoMock.find()).thenReturn(Collections.emptyList());
+
+        assertThatThrownBy(() -> testObj.findAvailableApms("FR", "EUR")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> testObj.findAvailableApms("FR", "EUR")).isInstanceOf(IllegalStateException.class);
+        verify(checkoutComApmComponentDaoMock, times(2)).find();
+    }
+
+    @Test
+    public void findAvailableApms_WhenNoCurrentSite_ShouldBuildTheIndexForEachCall() {
+        when(baseSiteServiceMock.getCurrentBaseSite()).thenReturn(null);
+
+        testObj.findAvailableApms("FR", "EUR");
+        testObj.findAvailableApms("FR", "EUR");
+
+        verify(checkoutComApmComponentDaoMock, times(2)).find();
+    }
+
+    @Test
+    public void findAvailableApms_WhenSessionCatalogVersionsDiffer_ShouldKeepAnIndexForEach() {
+        testObj.findAvailableApms("FR", "EUR");
+        when(catalogVersionServiceMock.getSessionCatalogVersions()).thenReturn(List.of(stagedCatalogVersionMock));
+        testObj.findAvailableApms("FR", "EUR");
+        when(catalogVersionServiceMock.getSessionCatalogVersions()).thenReturn(List.of(onlineCatalogVersionMock));
+        testObj.findAvailableApms("FR", "EUR");
+
+        verify(checkoutComApmComponentDaoMock, times(2)).find();
+    }
+
+    @Test
+    public void getApmMedia_ShouldReturnTheMediaOfTheComponentEvenWhenNotVisible() {
+        assertThat(testObj.getApmMedia(apmConfiguration3Mock)).contains(mediaMock);
+        assertThat(testObj.getApmMedia(apmConfiguration1Mock)).isEmpty();
+        verify(checkoutComApmComponentDaoMock, times(1)).find();
+    }
+
+    @Test
+    public void refreshApmConfiguration_ShouldReplaceTheEntryWithoutReadingTheComponentsAgain() {
+        assertThat(testObj.findAvailableApms("GB", "EUR")).containsExactly(apmConfiguration2Mock);
+        when(apmConfiguration1Mock.getRestrictedCountries()).thenReturn(Set.of(franceMock, ukMock));
+
+        testObj.refreshApmConfiguration(APM_CONFIGURATION_1_PK);
+
+        assertThat(testObj.findAvailableApms("GB", "EUR")).containsExactly(apmConfiguration1Mock, apmConfiguration2Mock);
+        verify(checkoutComApmComponentDaoMock, times(1)).find();
+    }
+
+    @Test
+    public void refreshApmConfiguration_WhenNoIndexBuilt_ShouldDoNothing() {
+        testObj.refreshApmConfiguration(APM_CONFIGURATION_1_PK);
+
+        verifyNoInteractions(modelServiceMock, globalAPMConfigurationDaoMock);
+    }
+
+    @Test
+    public void invalidateAll_ShouldRebuildTheIndexOnTheNextLookup() {
+        testObj.findAvailableApms("FR", "EUR");
+
+        testObj.invalidateAll();
+        testObj.findAvailableApms("FR", "EUR");
+
+        verify(checkoutComApmComponentDaoMock, times(2)).find();
+    }
+}
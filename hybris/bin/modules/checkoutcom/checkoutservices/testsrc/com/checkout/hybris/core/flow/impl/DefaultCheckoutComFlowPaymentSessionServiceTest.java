@@ -6,6 +6,7 @@ import com.checkout.handlepaymentsandpayouts.flow.FlowClient;
 import com.checkout.handlepaymentsandpayouts.flow.paymentsessions.requests.PaymentSessionRequest;
 import com.checkout.handlepaymentsandpayouts.flow.paymentsessions.responses.PaymentSessionResponse;
 import com.checkout.hybris.core.currency.services.CheckoutComCurrencyService;
+import com.checkout.hybris.core.flow.exception.CheckoutComPaymentSessionException;
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.core.payment.services.CheckoutComApiService;
 import com.checkout.hybris.core.url.services.CheckoutComUrlService;
@@ -18,6 +19,9 @@ import de.hybris.platform.core.model.c2l.RegionModel;
 import de.hybris.platform.core.model.order.CartModel;
 import de.hybris.platform.core.model.user.AddressModel;
 import de.hybris.platform.order.CartService;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -26,11 +30,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
+import static com.checkout.hybris.core.flow.impl.DefaultCheckoutComFlowPaymentSessionService.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,6 +64,8 @@ class DefaultCheckoutComFlowPaymentSessionServiceTest {
     private static final String FAILURE_URL = "failureURL";
     private static final String SECURE_FAILURE_URL = "secureFailureURL";
     private static final String SECURE_SUCCESS_URL = "secureSuccessURL";
+    private static final String CART_CODE = "cartCode";
+    private static final String OTHER_CART_CODE = "otherCartCode";
 
     @InjectMocks
     private DefaultCheckoutComFlowPaymentSessionService testObj;
@@ -65,6 +82,10 @@ class DefaultCheckoutComFlowPaymentSessionServiceTest {
     private CheckoutComApiService checkoutComApiServiceMock;
     @Mock
     private CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationServiceMock;
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
 
     @Mock
     private CartModel cartModelMock;
@@ -85,37 +106,23 @@ class DefaultCheckoutComFlowPaymentSessionServiceTest {
     @Mock
     private CompletableFuture<PaymentSessionResponse> completableFuturePaymentSessionResponseMock;
     @Mock
-    private PaymentSessionResponse paymentSessionResponseMock;
+    private PaymentSessionResponse paymentSessionResponseMock, otherPaymentSessionResponseMock;
 
     @Captor
     private ArgumentCaptor<PaymentSessionRequest> paymentSessionResponseArgumentCaptor;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getBoolean(anyString(), anyBoolean())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(configurationMock.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(configurationMock.getLong(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(cartModelMock.getCode()).thenReturn(CART_CODE);
+    }
+
     @Test
     void createPaymentSession_shouldReturnCreatedPaymentSession_whenCartHasSessionCart() throws ExecutionException, InterruptedException {
-        when(checkoutComMerchantConfigurationServiceMock.getProcessingChannelId()).thenReturn("processingChannelId");
-        when(cartServiceMock.hasSessionCart()).thenReturn(true);
-        when(cartServiceMock.getSessionCart()).thenReturn(cartModelMock);
-        when(cartModelMock.getCurrency()).thenReturn(currencyModelMock);
-        when(currencyModelMock.getIsocode()).thenReturn(GBP);
-        when(cartModelMock.getTotalPrice()).thenReturn(100d);
-        when(checkoutComCurrencyServiceMock.removeDecimalsFromCurrencyAmount(GBP, 100d)).thenReturn(100L);
-        when(cartModelMock.getPaymentAddress()).thenReturn(addressModelMock);
-        when(addressModelMock.getLine1()).thenReturn(LINE_1);
-        when(addressModelMock.getLine2()).thenReturn(LINE_2);
-        when(addressModelMock.getTown()).thenReturn(CITY);
-        when(addressModelMock.getCountry()).thenReturn(countryModelMock);
-        when(countryModelMock.getIsocode()).thenReturn(GB);
-        when(addressModelMock.getRegion()).thenReturn(regionModelMock);
-        when(regionModelMock.getName()).thenReturn(REGION_NAME);
-        when(addressModelMock.getPostalcode()).thenReturn(POSTAL_CODE);
-
-        when(cmsSiteServiceMock.getCurrentSite()).thenReturn(cmsSiteModelMock);
-        when(cmsSiteModelMock.getCheckoutComSuccessRedirectUrl()).thenReturn(SUCCESS_URL);
-        when(cmsSiteModelMock.getCheckoutComFailureRedirectUrl()).thenReturn(FAILURE_URL);
-        when(checkoutComUrlServiceMock.getFullUrl(SUCCESS_URL, true)).thenReturn(SECURE_SUCCESS_URL);
-        when(checkoutComUrlServiceMock.getFullUrl(FAILURE_URL, true)).thenReturn(SECURE_FAILURE_URL);
-        when(checkoutComApiServiceMock.createCheckoutApi()).thenReturn(checkoutApiMock);
-        when(checkoutApiMock.flowClient()).thenReturn(flowClientMock);
+        setUpSessionCart();
         when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenReturn(completableFuturePaymentSessionResponseMock);
         when(completableFuturePaymentSessionResponseMock.get()).thenReturn(paymentSessionResponseMock);
 
@@ -134,6 +141,117 @@ class DefaultCheckoutComFlowPaymentSessionServiceTest {
         assertThat(paymentSessionRequest.getFailureUrl()).isEqualTo(SECURE_FAILURE_URL);
     }
 
+
+    @Test
+    void createPaymentSession_shouldSetTheConfiguredExpiry_whenReuseEnabled() {
+        setUpSessionCart();
+        when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenReturn(CompletableFuture.completedFuture(paymentSessionResponseMock));
+        final long now = System.currentTimeMillis();
+
+        testObj.createPaymentSession();
+
+        verify(flowClientMock).requestPaymentSession(paymentSessionResponseArgumentCaptor.capture());
+        assertThat(paymentSessionResponseArgumentCaptor.getValue().getExpiresOn().toEpochMilli())
+                .isGreaterThanOrEqualTo(now + DEFAULT_PAYMENT_SESSION_EXPIRY * 1000);
+    }
+
+    @Test
+    void createPaymentSession_shouldReuseThePaymentSession_whenCartUnchanged() {
+        setUpSessionCart();
+        when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenReturn(CompletableFuture.completedFuture(paymentSessionResponseMock));
+
+        final PaymentSessionResponse first = testObj.createPaymentSession();
+        final PaymentSessionResponse second = testObj.createPaymentSession();
+
+        assertThat(first).isSameAs(paymentSessionResponseMock);
+        assertThat(second).isSameAs(paymentSessionResponseMock);
+        verify(flowClientMock).requestPaymentSession(any(PaymentSessionRequest.class));
+    }
+
+    @Test
+    void createPaymentSession_shouldRequestNewPaymentSession_whenCartTotalChanged() {
+        setUpSessionCart();
+        when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenReturn(CompletableFuture.completedFuture(paymentSessionResponseMock),
+                CompletableFuture.completedFuture(otherPaymentSessionResponseMock));
+        testObj.createPaymentSession();
+        when(cartModelMock.getTotalPrice()).thenReturn(200d);
+        when(checkoutComCurrencyServiceMock.removeDecimalsFromCurrencyAmount(GBP, 200d)).thenReturn(200L);
+
+        final PaymentSessionResponse result = testObj.createPaymentSession();
+
+        assertThat(result).isSameAs(otherPaymentSessionResponseMock);
+        verify(flowClientMock, times(2)).requestPaymentSession(any(PaymentSessionRequest.class));
+        assertThat(testObj.getPaymentSessions()).hasSize(1);
+    }
+
+    @Test
+    void createPaymentSession_shouldRequestNewPaymentSession_whenPaymentSessionCloseToExpiry() {
+        setUpSessionCart();
+        when(configurationMock.getLong(PAYMENT_SESSION_REUSE_MARGIN, DEFAULT_PAYMENT_SESSION_REUSE_MARGIN)).thenReturn(DEFAULT_PAYMENT_SESSION_EXPIRY);
+        when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenReturn(CompletableFuture.completedFuture(paymentSessionResponseMock));
+
+        testObj.createPaymentSession();
+        testObj.createPaymentSession();
+
+        verify(flowClientMock, times(2)).requestPaymentSession(any(PaymentSessionRequest.class));
+    }
+
+    @Test
+    void createPaymentSession_shouldForgetThePaymentSessionAndThrowException_whenRequestFailed() {
+        setUpSessionCart();
+        when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenReturn(CompletableFuture.failedFuture(new IllegalStateException()),
+                CompletableFuture.completedFuture(paymentSessionResponseMock));
+
+        assertThatThrownBy(() -> testObj.createPaymentSession()).isInstanceOf(CheckoutComPaymentSessionException.class);
+        assertThat(testObj.getPaymentSessions()).isEmpty();
+
+        assertThat(testObj.createPaymentSession()).isSameAs(paymentSessionResponseMock);
+    }
+
+    @Test
+    void createPaymentSession_shouldShareTheRequestInFlight_whenRequestedDuringTheRemoteCall() {
+        setUpSessionCart();
+        final List<CachedPaymentSession> sharedPaymentSessions = new ArrayList<>();
+        when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenAnswer(invocation -> {
+            sharedPaymentSessions.add(testObj.getOrRequestPaymentSession(cartModelMock, testObj.buildPaymentSessionRequest(cartModelMock)));
+            return CompletableFuture.completedFuture(paymentSessionResponseMock);
+        });
+
+        final PaymentSessionResponse result = testObj.createPaymentSession();
+
+        assertThat(result).isSameAs(paymentSessionResponseMock);
+        assertThat(sharedPaymentSessions.get(0).getPaymentSession()).isCompletedWithValue(paymentSessionResponseMock);
+        verify(flowClientMock).requestPaymentSession(any(PaymentSessionRequest.class));
+    }
+
+    @Test
+    void createPaymentSession_shouldKeepTheCacheWithinItsMaximumSize() {
+        setUpSessionCart();
+        when(configurationMock.getInt(PAYMENT_SESSION_CACHE_MAX_SIZE, DEFAULT_PAYMENT_SESSION_CACHE_MAX_SIZE)).thenReturn(1);
+        when(cartModelMock.getCode()).thenReturn(CART_CODE, OTHER_CART_CODE);
+        when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenReturn(CompletableFuture.completedFuture(paymentSessionResponseMock));
+
+        testObj.createPaymentSession();
+        testObj.createPaymentSession();
+
+        assertThat(testObj.getPaymentSessions()).containsOnlyKeys(OTHER_CART_CODE);
+        verify(flowClientMock, times(2)).requestPaymentSession(any(PaymentSessionRequest.class));
+    }
+
+    @Test
+    void createPaymentSession_shouldRequestPaymentSessionWithoutExpiry_whenReuseDisabled() {
+        setUpSessionCart();
+        when(configurationMock.getBoolean(PAYMENT_SESSION_REUSE_ENABLED, true)).thenReturn(false);
+        when(flowClientMock.requestPaymentSession(any(PaymentSessionRequest.class))).thenReturn(CompletableFuture.completedFuture(paymentSessionResponseMock));
+
+        testObj.createPaymentSession();
+        testObj.createPaymentSession();
+
+        verify(flowClientMock, times(2)).requestPaymentSession(paymentSessionResponseArgumentCaptor.capture());
+        assertThat(paymentSessionResponseArgumentCaptor.getValue().getExpiresOn()).isNull();
+        assertThat(testObj.getPaymentSessions()).isEmpty();
+    }
+
     @Test
     void createPaymentSession_shouldReturnNull_whenCartHasNoSessionCart() {
         when(cartServiceMock.hasSessionCart()).thenReturn(false);
@@ -141,5 +259,33 @@ class DefaultCheckoutComFlowPaymentSessionServiceTest {
         final PaymentSessionResponse result = testObj.createPaymentSession();
 
         assertThat(result).isNull();
+        verify(checkoutComApiServiceMock, never()).createCheckoutApi();
+    }
+
+    private void setUpSessionCart() {
+        when(checkoutComMerchantConfigurationServiceMock.getProcessingChannelId()).thenReturn("processingChannelId");
+        when(cartServiceMock.hasSessionCart()).thenReturn(true);
+        when(cartServiceMock.getSessionCart()).thenReturn(cartModelMock);
+        when(cartModelMock.getCurrency()).thenReturn(currencyModelMock);
+        when(currencyModelMock.getIsocode()).thenReturn(GBP);
+        when(cartModelMock.getTotalPrice()).thenReturn(100d);
+        when(checkoutComCurrencyServiceMock.removeDecimalsFromCurrencyAmount(GBP, 100d)).thenReturn(100L);
+        when(cartModelMock.getPaymentAddress()).thenReturn(addressModelMock);
+        when(addressModelMock.getLine1()).thenReturn(LINE_1);
+        when(addressModelMock.getLine2()).thenReturn(LINE_2);
+        when(addressModelMock.getTown()).thenReturn(CITY);
+        when(addressModelMock.getCountry()).thenReturn(countryModelMock);
+        when(countryModelMock.getIsocode()).thenReturn(GB);
+        when(addressModelMock.getRegion()).thenReturn(regionModelMock);
+        when(regionModelMock.getName()).thenReturn(REGION_NAME);
+        when(addressModelMock.getPostalcode()).thenReturn(POSTAL_CODE);
+
+        when(cmsSiteServiceMock.getCurrentSite()).thenReturn(cmsSiteModelMock);
+        when(cmsSiteModelMock.getCheckoutComSuccessRedirectUrl()).thenReturn(SUCCESS_URL);
+        when(cmsSiteModelMock.getCheckoutComFailureRedirectUrl()).thenReturn(FAILURE_URL);
+        when(checkoutComUrlServiceMock.getFullUrl(SUCCESS_URL, true)).thenReturn(SECURE_SUCCESS_URL);
+        when(checkoutComUrlServiceMock.getFullUrl(FAILURE_URL, true)).thenReturn(SECURE_FAILURE_URL);
+        when(checkoutComApiServiceMock.createCheckoutApi()).thenReturn(checkoutApiMock);
+        when(checkoutApiMock.flowClient()).thenReturn(flowClientMock);
     }
 }
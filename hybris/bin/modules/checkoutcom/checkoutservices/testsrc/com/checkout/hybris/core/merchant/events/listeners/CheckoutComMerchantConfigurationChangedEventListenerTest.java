@@ -0,0 +1,44 @@
+package com.checkout.hybris.core.merchant.events.listeners;
+
+import com.checkout.hybris.core.merchant.events.CheckoutComMerchantConfigurationChangedEvent;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationCache;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutComMerchantConfigurationChangedEventListenerTest {
+
+    private static final PK MERCHANT_CONFIGURATION_PK = PK.fromLong(1L);
+    private static final String ELECTRONICS = "electronics";
+
+    @InjectMocks
+    private CheckoutComMerchantConfigurationChangedEventListener testObj;
+
+    @Mock
+    private CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCacheMock;
+
+    @Test
+    public void onEvent_WhenMerchantConfigurationChanged_ShouldInvalidateItsSnapshots() {
+        testObj.onEvent(new CheckoutComMerchantConfigurationChangedEvent(MERCHANT_CONFIGURATION_PK, null));
+
+        verify(checkoutComMerchantConfigurationCacheMock).invalidateMerchantConfiguration(MERCHANT_CONFIGURATION_PK);
+        verifyNoMoreInteractions(checkoutComMerchantConfigurationCacheMock);
+    }
+
+    @Test
+    public void onEvent_WhenSiteChanged_ShouldInvalidateTheSiteSnapshot() {
+        testObj.onEvent(new CheckoutComMerchantConfigurationChangedEvent(null, ELECTRONICS));
+
+        verify(checkoutComMerchantConfigurationCacheMock).invalidateSite(ELECTRONICS);
+        verifyNoMoreInteractions(checkoutComMerchantConfigurationCacheMock);
+    }
+}
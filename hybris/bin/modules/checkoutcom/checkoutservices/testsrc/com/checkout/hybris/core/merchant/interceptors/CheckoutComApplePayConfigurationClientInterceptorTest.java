@@ -0,0 +1,84 @@
+package com.checkout.hybris.core.merchant.interceptors;
+
+import com.checkout.hybris.core.model.CheckoutComApplePayConfigurationModel;
+import com.checkout.hybris.core.payment.services.CheckoutComApplePayClientRegistry;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutComApplePayConfigurationClientInterceptorTest {
+
+    private static final PK APPLE_PAY_CONFIGURATION_PK = PK.fromLong(1L);
+
+    @InjectMocks
+    private CheckoutComApplePayConfigurationClientInterceptor testObj;
+
+    @Mock
+    private CheckoutComApplePayClientRegistry checkoutComApplePayClientRegistryMock;
+    @Mock
+    private CheckoutComApplePayConfigurationModel applePayConfigurationMock;
+    @Mock
+    private InterceptorContext contextMock;
+
+    @Before
+    public void setUp() {
+        lenient().when(applePayConfigurationMock.getPk()).thenReturn(APPLE_PAY_CONFIGURATION_PK);
+        lenient().when(contextMock.isModified(applePayConfigurationMock)).thenReturn(true);
+    }
+
+    @Test
+    public void onPrepare_WhenCertificateModified_ShouldInvalidateClientsOfTheConfiguration() {
+        when(contextMock.getDirtyAttributes(applePayConfigurationMock)).thenReturn(Map.of(CheckoutComApplePayConfigurationModel.CERTIFICATE, Set.of()));
+
+        testObj.onPrepare(applePayConfigurationMock, contextMock);
+
+        verify(checkoutComApplePayClientRegistryMock).invalidateByApplePayConfiguration(APPLE_PAY_CONFIGURATION_PK);
+    }
+
+    @Test
+    public void onPrepare_WhenPrivateKeyModified_ShouldInvalidateClientsOfTheConfiguration() {
+        when(contextMock.getDirtyAttributes(applePayConfigurationMock)).thenReturn(Map.of(CheckoutComApplePayConfigurationModel.PRIVATEKEY, Set.of()));
+
+        testObj.onPrepare(applePayConfigurationMock, contextMock);
+
+        verify(checkoutComApplePayClientRegistryMock).invalidateByApplePayConfiguration(APPLE_PAY_CONFIGURATION_PK);
+    }
+
+    @Test
+    public void onPrepare_WhenOtherAttributeModified_ShouldNotInvalidateClients() {
+        when(contextMock.getDirtyAttributes(applePayConfigurationMock)).thenReturn(Map.of(CheckoutComApplePayConfigurationModel.MERCHANTNAME, Set.of()));
+
+        testObj.onPrepare(applePayConfigurationMock, contextMock);
+
+        verifyNoInteractions(checkoutComApplePayClientRegistryMock);
+    }
+
+    @Test
+    public void onPrepare_WhenConfigurationIsNew_ShouldNotInvalidateClients() {
+        when(contextMock.isNew(applePayConfigurationMock)).thenReturn(true);
+
+        testObj.onPrepare(applePayConfigurationMock, contextMock);
+
+        verifyNoInteractions(checkoutComApplePayClientRegistryMock);
+    }
+
+    @Test
+    public void onRemove_ShouldInvalidateClientsOfTheConfiguration() {
+        testObj.onRemove(applePayConfigurationMock, contextMock);
+
+        verify(checkoutComApplePayClientRegistryMock).invalidateByApplePayConfiguration(APPLE_PAY_CONFIGURATION_PK);
+    }
+}
@@ -0,0 +1,87 @@
+package com.checkout.hybris.core.merchant.interceptors;
+
+import com.checkout.hybris.core.model.CheckoutComMerchantConfigurationModel;
+import com.checkout.hybris.core.payment.services.CheckoutComApiClientRegistry;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import de.hybris.platform.servicelayer.model.ItemModelContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutComMerchantConfigurationApiClientInterceptorTest {
+
+    private static final String ORIGINAL_SECRET_KEY = "originalSecretKey";
+
+    @InjectMocks
+    private CheckoutComMerchantConfigurationApiClientInterceptor testObj;
+
+    @Mock
+    private CheckoutComApiClientRegistry checkoutComApiClientRegistryMock;
+    @Mock
+    private CheckoutComMerchantConfigurationModel merchantConfigurationMock;
+    @Mock
+    private ItemModelContext itemModelContextMock;
+    @Mock
+    private InterceptorContext contextMock;
+
+    @Before
+    public void setUp() {
+        lenient().when(merchantConfigurationMock.getItemModelContext()).thenReturn(itemModelContextMock);
+        lenient().when(itemModelContextMock.getOriginalValue(CheckoutComMerchantConfigurationModel.NASSECRETKEY)).thenReturn(ORIGINAL_SECRET_KEY);
+        lenient().when(contextMock.isModified(merchantConfigurationMock)).thenReturn(true);
+    }
+
+    @Test
+    public void onPrepare_WhenSecretKeyModified_ShouldInvalidateClientsOfTheOriginalSecretKey() {
+        when(contextMock.getDirtyAttributes(merchantConfigurationMock)).thenReturn(Map.of(CheckoutComMerchantConfigurationModel.NASSECRETKEY, Set.of()));
+
+        testObj.onPrepare(merchantConfigurationMock, contextMock);
+
+        verify(checkoutComApiClientRegistryMock).invalidateBySecretKey(ORIGINAL_SECRET_KEY);
+    }
+
+    @Test
+    public void onPrepare_WhenEnvironmentModified_ShouldInvalidateClientsOfTheOriginalSecretKey() {
+        when(contextMock.getDirtyAttributes(merchantConfigurationMock)).thenReturn(Map.of(CheckoutComMerchantConfigurationModel.ENVIRONMENT, Set.of()));
+
+        testObj.onPrepare(merchantConfigurationMock, contextMock);
+
+        verify(checkoutComApiClientRegistryMock).invalidateBySecretKey(ORIGINAL_SECRET_KEY);
+    }
+
+    @Test
+    public void onPrepare_WhenOtherAttributeModified_ShouldNotInvalidateClients() {
+        when(contextMock.getDirtyAttributes(merchantConfigurationMock)).thenReturn(Map.of(CheckoutComMerchantConfigurationModel.BILLINGDESCRIPTORNAME, Set.of()));
+
+        testObj.onPrepare(merchantConfigurationMock, contextMock);
+
+        verifyNoInteractions(checkoutComApiClientRegistryMock);
+    }
+
+    @Test
+    public void onPrepare_WhenConfigurationIsNew_ShouldNotInvalidateClients() {
+        when(contextMock.isNew(merchantConfigurationMock)).thenReturn(true);
+
+        testObj.onPrepare(merchantConfigurationMock, contextMock);
+
+        verifyNoInteractions(checkoutComApiClientRegistryMock);
+    }
+
+    @Test
+    public void onRemove_ShouldInvalidateClientsOfTheOriginalSecretKey() {
+        testObj.onRemove(merchantConfigurationMock, contextMock);
+
+        verify(checkoutComApiClientRegistryMock).invalidateBySecretKey(ORIGINAL_SECRET_KEY);
+    }
+}
@@ -0,0 +1,82 @@
+package com.checkout.hybris.core.merchant.interceptors;
+
+import com.checkout.hybris.core.merchant.events.CheckoutComMerchantConfigurationChangedEvent;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationCache;
+import com.checkout.hybris.core.model.CheckoutComMerchantConfigurationModel;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.event.EventService;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutComMerchantConfigurationCacheInterceptorTest {
+
+    private static final PK MERCHANT_CONFIGURATION_PK = PK.fromLong(1L);
+
+    @InjectMocks
+    private CheckoutComMerchantConfigurationCacheInterceptor testObj;
+
+    @Mock
+    private CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCacheMock;
+    @Mock
+    private EventService eventServiceMock;
+    @Mock
+    private CheckoutComMerchantConfigurationModel merchantConfigurationMock;
+    @Mock
+    private InterceptorContext contextMock;
+    @Captor
+    private ArgumentCaptor<CheckoutComMerchantConfigurationChangedEvent> eventCaptor;
+
+    @Before
+    public void setUp() {
+        lenient().when(merchantConfigurationMock.getPk()).thenReturn(MERCHANT_CONFIGURATION_PK);
+    }
+
+    @Test
+    public void onPrepare_WhenConfigurationModified_ShouldInvalidateTheCacheAndNotifyTheCluster() {
+        when(contextMock.isModified(merchantConfigurationMock)).thenReturn(true);
+
+        testObj.onPrepare(merchantConfigurationMock, contextMock);
+
+        verify(checkoutComMerchantConfigurationCacheMock).invalidateMerchantConfiguration(MERCHANT_CONFIGURATION_PK);
+        verify(eventServiceMock).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getMerchantConfigurationPk()).isEqualTo(MERCHANT_CONFIGURATION_PK);
+        assertThat(eventCaptor.getValue().publishOnCommitOnly()).isTrue();
+    }
+
+    @Test
+    public void onPrepare_WhenConfigurationIsNew_ShouldDoNothing() {
+        when(contextMock.isNew(merchantConfigurationMock)).thenReturn(true);
+
+        testObj.onPrepare(merchantConfigurationMock, contextMock);
+
+        verifyNoInteractions(checkoutComMerchantConfigurationCacheMock, eventServiceMock);
+    }
+
+    @Test
+    public void onPrepare_WhenConfigurationNotModified_ShouldDoNothing() {
+        testObj.onPrepare(merchantConfigurationMock, contextMock);
+
+        verifyNoInteractions(checkoutComMerchantConfigurationCacheMock, eventServiceMock);
+    }
+
+    @Test
+    public void onRemove_ShouldInvalidateTheCacheAndNotifyTheCluster() {
+        testObj.onRemove(merchantConfigurationMock, contextMock);
+
+        verify(checkoutComMerchantConfigurationCacheMock).invalidateMerchantConfiguration(MERCHANT_CONFIGURATION_PK);
+        verify(eventServiceMock).publishEvent(any(CheckoutComMerchantConfigurationChangedEvent.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.checkout.hybris.core.merchant.interceptors;
+
+import com.checkout.hybris.core.merchant.events.CheckoutComMerchantConfigurationChangedEvent;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationCache;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.servicelayer.event.EventService;
+import de.hybris.platform.servicelayer.interceptor.InterceptorContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class CheckoutComSiteMerchantConfigurationCacheInterceptorTest {
+
+    private static final String ELECTRONICS = "electronics";
+
+    @InjectMocks
+    private CheckoutComSiteMerchantConfigurationCacheInterceptor testObj;
+
+    @Mock
+    private CheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCacheMock;
+    @Mock
+    private EventService eventServiceMock;
+    @Mock
+    private BaseSiteModel baseSiteMock;
+    @Mock
+    private InterceptorContext contextMock;
+    @Captor
+    private ArgumentCaptor<CheckoutComMerchantConfigurationChangedEvent> eventCaptor;
+
+    @Before
+    public void setUp() {
+        lenient().when(baseSiteMock.getUid()).thenReturn(ELECTRONICS);
+    }
+
+    @Test
+    public void onPrepare_WhenMerchantConfigurationOfTheSiteChanged_ShouldInvalidateTheSiteAndNotifyTheCluster() {
+        when(contextMock.isModified(baseSiteMock, BaseSiteModel.CHECKOUTCOMMERCHANTCONFIGURATION)).thenReturn(true);
+
+        testObj.onPrepare(baseSiteMock, contextMock);
+
+        verify(checkoutComMerchantConfigurationCacheMock).invalidateSite(ELECTRONICS);
+        verify(eventServiceMock).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getSiteUid()).isEqualTo(ELECTRONICS);
+    }
+
+    @Test
+    public void onPrepare_WhenOtherAttributesChanged_ShouldDoNothing() {
+        testObj.onPrepare(baseSiteMock, contextMock);
+
+        verifyNoInteractions(checkoutComMerchantConfigurationCacheMock, eventServiceMock);
+    }
+
+    @Test
+    public void onRemove_ShouldInvalidateTheSiteAndNotifyTheCluster() {
+        testObj.onRemove(baseSiteMock, contextMock);
+
+        verify(checkoutComMerchantConfigurationCacheMock).invalidateSite(ELECTRONICS);
+        verify(eventServiceMock).publishEvent(any(CheckoutComMerchantConfigurationChangedEvent.class));
+    }
+}
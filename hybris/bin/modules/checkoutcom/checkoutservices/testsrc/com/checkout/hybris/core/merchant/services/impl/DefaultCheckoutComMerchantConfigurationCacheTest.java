@@ -0,0 +1,109 @@
+package com.checkout.hybris.core.merchant.services.impl;
+
+import com.checkout.hybris.core.enums.EnvironmentType;
+import com.checkout.hybris.core.merchantconfiguration.CheckoutComMerchantConfigurationCacheStats;
+import com.checkout.hybris.core.merchantconfiguration.CheckoutComMerchantConfigurationSnapshot;
+import com.checkout.hybris.core.model.CheckoutComMerchantConfigurationModel;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.core.PK;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComMerchantConfigurationCacheTest {
+
+    private static final String ELECTRONICS = "electronics";
+    private static final String APPAREL = "apparel";
+    private static final String SECRET_KEY = "secretKey";
+    private static final PK MERCHANT_CONFIGURATION_PK = PK.fromLong(1L);
+    private static final PK OTHER_MERCHANT_CONFIGURATION_PK = PK.fromLong(2L);
+
+    private final DefaultCheckoutComMerchantConfigurationCache testObj = new DefaultCheckoutComMerchantConfigurationCache();
+
+    @Mock
+    private BaseSiteModel electronicsMock, apparelMock;
+    @Mock
+    private CheckoutComMerchantConfigurationModel merchantConfigurationMock, otherMerchantConfigurationMock;
+
+    @Before
+    public void setUp() {
+        lenient().when(electronicsMock.getUid()).thenReturn(ELECTRONICS);
+        lenient().when(apparelMock.getUid()).thenReturn(APPAREL);
+        lenient().when(electronicsMock.getCheckoutComMerchantConfiguration()).thenReturn(merchantConfigurationMock);
+        lenient().when(apparelMock.getCheckoutComMerchantConfiguration()).thenReturn(otherMerchantConfigurationMock);
+        lenient().when(merchantConfigurationMock.getPk()).thenReturn(MERCHANT_CONFIGURATION_PK);
+        lenient().when(otherMerchantConfigurationMock.getPk()).thenReturn(OTHER_MERCHANT_CONFIGURATION_PK);
+        lenient().when(merchantConfigurationMock.getNasSecretKey()).thenReturn(SECRET_KEY);
+        lenient().when(merchantConfigurationMock.getEnvironment()).thenReturn(EnvironmentType.TEST);
+    }
+
+    @Test
+    public void getSnapshot_ShouldCopyTheMerchantConfigurationOnceAndServeItAfterwards() {
+        final CheckoutComMerchantConfigurationSnapshot first = testObj.getSnapshot(electronicsMock);
+        final CheckoutComMerchantConfigurationSnapshot second = testObj.getSnapshot(electronicsMock);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getNasSecretKey()).isEqualTo(SECRET_KEY);
+        assertThat(first.getEnvironment()).isEqualTo(EnvironmentType.TEST);
+        assertThat(first.getMerchantConfigurationPk()).isEqualTo(MERCHANT_CONFIGURATION_PK);
+        verify(electronicsMock, times(1)).getCheckoutComMerchantConfiguration();
+
+        final CheckoutComMerchantConfigurationCacheStats stats = testObj.getStats();
+        assertThat(stats.getSize()).isEqualTo(1);
+        assertThat(stats.getHitCount()).isEqualTo(1L);
+        assertThat(stats.getMissCount()).isEqualTo(1L);
+        assertThat(stats.getRebuildCount()).isEqualTo(1L);
+        assertThat(stats.getHitRatio()).isEqualTo(0.5d);
+    }
+
+    @Test
+    public void getSnapshot_WhenSiteHasNoMerchantConfiguration_ShouldReturnNullAndCacheNothing() {
+        when(electronicsMock.getCheckoutComMerchantConfiguration()).thenReturn(null);
+
+        assertThat(testObj.getSnapshot(electronicsMock)).isNull();
+        assertThat(testObj.getStats().getSize()).isZero();
+    }
+
+    @Test
+    public void invalidateMerchantConfiguration_ShouldRebuildOnlyTheSitesUsingIt() {
+        testObj.getSnapshot(electronicsMock);
+        final CheckoutComMerchantConfigurationSnapshot apparelSnapshot = testObj.getSnapshot(apparelMock);
+        when(merchantConfigurationMock.getNasSecretKey()).thenReturn("newSecretKey");
+
+        testObj.invalidateMerchantConfiguration(MERCHANT_CONFIGURATION_PK);
+
+        assertThat(testObj.getSnapshot(electronicsMock).getNasSecretKey()).isEqualTo("newSecretKey");
+        assertThat(testObj.getSnapshot(apparelMock)).isSameAs(apparelSnapshot);
+        assertThat(testObj.getStats().getInvalidationCount()).isEqualTo(1L);
+        assertThat(testObj.getStats().getRebuildCount()).isEqualTo(3L);
+    }
+
+    @Test
+    public void invalidateSite_ShouldDropTheSnapshotOfTheSite() {
+        testObj.getSnapshot(electronicsMock);
+        testObj.getSnapshot(apparelMock);
+
+        testObj.invalidateSite(ELECTRONICS);
+
+        assertThat(testObj.getStats().getSize()).isEqualTo(1);
+        assertThat(testObj.getStats().getInvalidationCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void invalidateAll_ShouldDropEverySnapshot() {
+        testObj.getSnapshot(electronicsMock);
+        testObj.getSnapshot(apparelMock);
+
+        testObj.invalidateAll();
+
+        assertThat(testObj.getStats().getSize()).isZero();
+    }
+}
@@ -16,6 +16,9 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @UnitTest
@@ -38,6 +41,8 @@ public class DefaultCheckoutComMerchantConfigurationServiceTest {
     @Mock
     private BaseSiteService baseSiteServiceMock;
 
+    private final DefaultCheckoutComMerchantConfigurationCache checkoutComMerchantConfigurationCache = new DefaultCheckoutComMerchantConfigurationCache();
+
     @Mock
     private BaseSiteModel baseSiteMock;
     @Mock
@@ -53,11 +58,12 @@ public class DefaultCheckoutComMerchantConfigurationServiceTest {
 
     @Before
     public void setUp() {
-        testObj = new DefaultCheckoutComMerchantConfigurationService(baseSiteServiceMock);
+        testObj = new DefaultCheckoutComMerchantConfigurationService(baseSiteServiceMock, checkoutComMerchantConfigurationCache);
 
         when(baseSiteServiceMock.getCurrentBaseSite()).thenReturn(baseSiteMock);
         when(baseSiteServiceMock.getBaseSiteForUID(BASE_SITE_ID)).thenReturn(baseSiteMock);
         when(baseSiteMock.getCheckoutComMerchantConfiguration()).thenReturn(merchantConfigurationMock);
+        lenient().when(baseSiteMock.getUid()).thenReturn(BASE_SITE_ID);
     }
 
 
@@ -70,6 +76,18 @@ public class DefaultCheckoutComMerchantConfigurationServiceTest {
         assertEquals(NAS_SECRET_KEY, result);
     }
 
+    @Test
+    public void getSecretKey_WhenCalledAgain_ShouldServeTheCachedSnapshot() {
+        when(merchantConfigurationMock.getNasSecretKey()).thenReturn(NAS_SECRET_KEY);
+
+        testObj.getSecretKey();
+        final String result = testObj.getSecretKeyForSite(BASE_SITE_ID);
+
+        assertEquals(NAS_SECRET_KEY, result);
+        verify(merchantConfigurationMock, times(1)).getNasSecretKey();
+        assertEquals(1L, checkoutComMerchantConfigurationCache.getStats().getHitCount());
+    }
+
     @Test
     public void getPublicKey_ShouldReturnTheValueAsExpected() {
         when(merchantConfigurationMock.getNasPublicKey()).thenReturn(NAS_PUBLIC_KEY);
@@ -34,6 +34,7 @@ public class DefaultCheckoutComOrderDaoIntegrationTest extends ServicelayerBaseT
     private static final String WRONG_REFERENCE = "wrong_reference";
     private static final String NEW_ORDER = "neworder1";
     private static final String CART_ORDER = "newcart1";
+    private static final String PLACED_CART_ORDER = "newcart2";
     private static String CART_REFERENCE_VALUE;
 
     @Resource
@@ -98,6 +99,19 @@ public class DefaultCheckoutComOrderDaoIntegrationTest extends ServicelayerBaseT
         assertEquals(CART_REFERENCE_VALUE, cart.getCheckoutComPaymentReference());
     }
 
+    @Test
+    public void findAbstractOrderForPaymentReferenceNumber_WhenCartAndOrderShareTheReference_ShouldFindTheOrder() {
+        final CartModel cart = createCart(PLACED_CART_ORDER);
+        cart.setCheckoutComPaymentReference(ORDER_REFERENCE_VALUE);
+        modelService.save(cart);
+
+        final Optional<AbstractOrderModel> result = orderDao.findAbstractOrderForPaymentReferenceNumber(ORDER_REFERENCE_VALUE);
+
+        assertTrue(result.isPresent());
+        assertTrue(result.get() instanceof OrderModel);
+        assertEquals(NEW_ORDER, result.get().getCode());
+    }
+
     private OrderModel createOrder(final String code) {
         final OrderModel order = modelService.create(OrderModel.class);
         order.setCode(code);
@@ -20,10 +20,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.Currency;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
@@ -38,6 +41,7 @@ public class CheckoutComCaptureCommandTest {
     private static final String PAYMENT_ID = "PAYMENT_ID";
     private static final String AMOUNT = "100";
     private static final String MERCHANT_TRANSACTION_CODE = "ORDER-REFERENCE-1-SOMETHING";
+    private static final String IDEMPOTENCY_KEY = UUID.nameUUIDFromBytes(MERCHANT_TRANSACTION_CODE.getBytes(StandardCharsets.UTF_8)).toString();
     private static final String PAYMENT_REFERENCE = "ORDER-REFERENCE";
     private static final Date DATE = new Date();
     private static final String ACTION_ID = "Action_id";
@@ -115,7 +119,49 @@ public class CheckoutComCaptureCommandTest {
         when(captureRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
         when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
         when(checkoutComRequestFactoryMock.createCapturePaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(captureRequest);
-        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new CheckoutApiException(503, Map.of(), Map.of())));
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new CheckoutApiException(503, Map.of(), Map.of())));
+
+        assertThatThrownBy(() -> testObj.perform(captureRequestMock)).isInstanceOf(CheckoutComPaymentIntegrationException.class);
+    }
+
+    @Test
+    public void perform_WhenExecutionExceptionWithTransportFailure_ShouldThrowPaymentIntegrationException() throws ExecutionException, InterruptedException {
+        final Currency currency = Currency.getInstance(Locale.UK);
+        when(captureRequestMock.getCurrency()).thenReturn(currency);
+        when(captureRequestMock.getRequestId()).thenReturn(PAYMENT_ID);
+        when(captureRequestMock.getTotalAmount()).thenReturn(new BigDecimal(AMOUNT));
+        when(captureRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
+        when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
+        when(checkoutComRequestFactoryMock.createCapturePaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(captureRequest);
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new CheckoutApiException(400, Map.of(), Map.of(), true)));
+
+        assertThatThrownBy(() -> testObj.perform(captureRequestMock)).isInstanceOf(CheckoutComPaymentIntegrationException.class);
+    }
+
+    @Test
+    public void perform_WhenExecutionExceptionWithTooManyRequests_ShouldThrowPaymentIntegrationException() throws ExecutionException, InterruptedException {
+        final Currency currency = Currency.getInstance(Locale.UK);
+        when(captureRequestMock.getCurrency()).thenReturn(currency);
+        when(captureRequestMock.getRequestId()).thenReturn(PAYMENT_ID);
+        when(captureRequestMock.getTotalAmount()).thenReturn(new BigDecimal(AMOUNT));
+        when(captureRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
+        when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
+        when(checkoutComRequestFactoryMock.createCapturePaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(captureRequest);
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new CheckoutApiException(429, Map.of(), Map.of())));
+
+        assertThatThrownBy(() -> testObj.perform(captureRequestMock)).isInstanceOf(CheckoutComPaymentIntegrationException.class);
+    }
+
+    @Test
+    public void perform_WhenExecutionExceptionWithTimeout_ShouldThrowPaymentIntegrationException() throws ExecutionException, InterruptedException {
+        final Currency currency = Currency.getInstance(Locale.UK);
+        when(captureRequestMock.getCurrency()).thenReturn(currency);
+        when(captureRequestMock.getRequestId()).thenReturn(PAYMENT_ID);
+        when(captureRequestMock.getTotalAmount()).thenReturn(new BigDecimal(AMOUNT));
+        when(captureRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
+        when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
+        when(checkoutComRequestFactoryMock.createCapturePaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(captureRequest);
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new HttpTimeoutException("request timed out")));
 
         assertThatThrownBy(() -> testObj.perform(captureRequestMock)).isInstanceOf(CheckoutComPaymentIntegrationException.class);
     }
@@ -129,7 +175,7 @@ public class CheckoutComCaptureCommandTest {
         when(captureRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
         when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
         when(checkoutComRequestFactoryMock.createCapturePaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(captureRequest);
-        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new CheckoutApiException(404, Map.of(), Map.of())));
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new CheckoutApiException(404, Map.of(), Map.of())));
 
         final CaptureResult result = testObj.perform(captureRequestMock);
 
@@ -146,7 +192,7 @@ public class CheckoutComCaptureCommandTest {
         when(captureRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
         when(checkoutComRequestFactoryMock.createCapturePaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(captureRequest);
         when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
-        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new NullPointerException()));
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new NullPointerException()));
 
         final CaptureResult result = testObj.perform(captureRequestMock);
 
@@ -163,7 +209,7 @@ public class CheckoutComCaptureCommandTest {
         when(captureRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
         when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
         when(checkoutComRequestFactoryMock.createCapturePaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(captureRequest);
-        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID)).thenThrow(new CancellationException());
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new CancellationException());
 
         final CaptureResult result = testObj.perform(captureRequestMock);
 
@@ -180,7 +226,7 @@ public class CheckoutComCaptureCommandTest {
         when(captureRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
         when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
         when(checkoutComRequestFactoryMock.createCapturePaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(captureRequest);
-        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID)).thenThrow(new InterruptedException());
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new InterruptedException());
 
         final CaptureResult result = testObj.perform(captureRequestMock);
 
@@ -199,7 +245,7 @@ public class CheckoutComCaptureCommandTest {
         when(timeServiceMock.getCurrentTime()).thenReturn(DATE);
         when(captureResponseMock.getActionId()).thenReturn(ACTION_ID);
         when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
-        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID)).thenReturn(captureResponseMock);
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenReturn(captureResponseMock);
 
         final CaptureResult result = testObj.perform(captureRequestMock);
 
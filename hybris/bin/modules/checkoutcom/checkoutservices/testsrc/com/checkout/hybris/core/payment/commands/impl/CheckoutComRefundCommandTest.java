@@ -21,10 +21,12 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Currency;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
@@ -38,6 +40,7 @@ public class CheckoutComRefundCommandTest {
     private static final String PAYMENT_ID = "PAYMENT_ID";
     private static final String AMOUNT = "100";
     private static final String MERCHANT_TRANSACTION_CODE = "ORDER-REFERENCE-1-SOMETHING";
+    private static final String IDEMPOTENCY_KEY = UUID.nameUUIDFromBytes(MERCHANT_TRANSACTION_CODE.getBytes(StandardCharsets.UTF_8)).toString();
     private static final String PAYMENT_REFERENCE = "ORDER-REFERENCE";
     private static final Date DATE = new Date();
     private static final String ACTION_ID = "Action_id";
@@ -70,7 +73,7 @@ public class CheckoutComRefundCommandTest {
         when(refundRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
         when(checkoutComRequestFactoryMock.createRefundPaymentRequest(new BigDecimal(AMOUNT), PAYMENT_REFERENCE, currency.getCurrencyCode())).thenReturn(refundRequest);
         when(timeServiceMock.getCurrentTime()).thenReturn(DATE);
-        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID)).thenReturn(refundResponseMock);
+        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenReturn(refundResponseMock);
         when(refundResponseMock.getActionId()).thenReturn(ACTION_ID);
         when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
     }
@@ -110,14 +113,14 @@ public class CheckoutComRefundCommandTest {
 
     @Test(expected = CheckoutComPaymentIntegrationException.class)
     public void perform_WhenExecutionExceptionWithError500_ShouldThrowPaymentIntegrationException() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new CheckoutApiException(503, Map.of(), Map.of())));
+        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new CheckoutApiException(503, Map.of(), Map.of())));
 
         testObj.perform(refundRequestMock);
     }
 
     @Test
     public void perform_WhenExecutionExceptionWithNonError500_ShouldReturnInvalidRequestErrorRefundResult() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new CheckoutApiException(404, Map.of(), Map.of())));
+        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new CheckoutApiException(404, Map.of(), Map.of())));
 
         final RefundResult result = testObj.perform(refundRequestMock);
 
@@ -127,7 +130,7 @@ public class CheckoutComRefundCommandTest {
 
     @Test
     public void perform_WhenOtherExecutionException_ShouldReturnInvalidRequestErrorRefundResult() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new NullPointerException()));
+        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new NullPointerException()));
 
         final RefundResult result = testObj.perform(refundRequestMock);
 
@@ -137,7 +140,7 @@ public class CheckoutComRefundCommandTest {
 
     @Test
     public void perform_WhenCancellationException_ShouldReturnCommunicationProblemErrorRefundResult() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID)).thenThrow(new CancellationException());
+        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new CancellationException());
 
         final RefundResult result = testObj.perform(refundRequestMock);
 
@@ -147,7 +150,7 @@ public class CheckoutComRefundCommandTest {
 
     @Test
     public void perform_WhenInterruptedException_ShouldReturnCommunicationProblemErrorRefundResult() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID)).thenThrow(new InterruptedException());
+        when(checkoutComPaymentIntegrationServiceMock.refundPayment(refundRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new InterruptedException());
 
         final RefundResult result = testObj.perform(refundRequestMock);
 
@@ -20,10 +20,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Currency;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 
@@ -39,6 +41,7 @@ public class CheckoutComVoidCommandTest {
     private static final String PAYMENT_ID = "PAYMENT_ID";
     private static final String AMOUNT = "100";
     private static final String MERCHANT_TRANSACTION_CODE = "ORDER-REFERENCE-1-SOMETHING";
+    private static final String IDEMPOTENCY_KEY = UUID.nameUUIDFromBytes(MERCHANT_TRANSACTION_CODE.getBytes(StandardCharsets.UTF_8)).toString();
     private static final String PAYMENT_REFERENCE = "ORDER-REFERENCE";
     private static final Date DATE = new Date();
     private static final String ACTION_ID = "Action_id";
@@ -70,7 +73,7 @@ public class CheckoutComVoidCommandTest {
         lenient().when(voidRequestMock.getMerchantTransactionCode()).thenReturn(MERCHANT_TRANSACTION_CODE);
         lenient().when(checkoutComRequestFactoryMock.createVoidPaymentRequest(PAYMENT_REFERENCE)).thenReturn(voidRequest);
         lenient().when(timeServiceMock.getCurrentTime()).thenReturn(DATE);
-        lenient().when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID)).thenReturn(voidResponseMock);
+        lenient().when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenReturn(voidResponseMock);
         lenient().when(voidResponseMock.getActionId()).thenReturn(ACTION_ID);
         lenient().when(checkoutComPaymentTransactionServiceMock.getPaymentReferenceFromTransactionEntryCode(MERCHANT_TRANSACTION_CODE)).thenReturn(PAYMENT_REFERENCE);
     }
@@ -109,7 +112,7 @@ public class CheckoutComVoidCommandTest {
 
     @Test
     public void perform_WhenExecutionExceptionWithError500_ShouldThrowPaymentIntegrationException() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new CheckoutApiException(503, Map.of(), Map.of())));
+        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new CheckoutApiException(503, Map.of(), Map.of())));
 
         assertThatThrownBy(() -> testObj.perform(voidRequestMock)).isInstanceOf(CheckoutComPaymentIntegrationException.class);
     }
@@ -117,7 +120,7 @@ public class CheckoutComVoidCommandTest {
     @Test
     public void perform_WhenExecutionExceptionWithNonError500_ShouldReturnInvalidRequestErrorVoidResult() throws ExecutionException, InterruptedException {
 
-        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new CheckoutApiException(404, Map.of(), Map.of())));
+        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new CheckoutApiException(404, Map.of(), Map.of())));
 
         final VoidResult result = testObj.perform(voidRequestMock);
 
@@ -127,7 +130,7 @@ public class CheckoutComVoidCommandTest {
 
     @Test
     public void perform_WhenOtherExecutionException_ShouldReturnInvalidRequestErrorVoidResult() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID)).thenThrow(new ExecutionException(new NullPointerException()));
+        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new ExecutionException(new NullPointerException()));
 
         final VoidResult result = testObj.perform(voidRequestMock);
 
@@ -137,7 +140,7 @@ public class CheckoutComVoidCommandTest {
 
     @Test
     public void perform_WhenCancellationException_ShouldReturnCommunicationProblemErrorVoidResult() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID)).thenThrow(new CancellationException());
+        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new CancellationException());
 
         final VoidResult result = testObj.perform(voidRequestMock);
 
@@ -147,7 +150,7 @@ public class CheckoutComVoidCommandTest {
 
     @Test
     public void perform_WhenInterruptedException_ShouldReturnCommunicationProblemErrorVoidResult() throws ExecutionException, InterruptedException {
-        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID)).thenThrow(new InterruptedException());
+        when(checkoutComPaymentIntegrationServiceMock.voidPayment(voidRequest, PAYMENT_ID, IDEMPOTENCY_KEY)).thenThrow(new InterruptedException());
 
         final VoidResult result = testObj.perform(voidRequestMock);
 
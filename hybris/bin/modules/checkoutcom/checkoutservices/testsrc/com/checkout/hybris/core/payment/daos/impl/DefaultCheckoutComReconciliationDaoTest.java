@@ -0,0 +1,77 @@
+package com.checkout.hybris.core.payment.daos.impl;
+
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+import de.hybris.platform.servicelayer.search.FlexibleSearchQuery;
+import de.hybris.platform.servicelayer.search.FlexibleSearchService;
+import de.hybris.platform.servicelayer.search.SearchResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.checkout.hybris.core.payment.daos.impl.DefaultCheckoutComReconciliationDao.MAX_IN_VALUES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComReconciliationDaoTest {
+
+    private DefaultCheckoutComReconciliationDao testObj;
+
+    @Mock
+    private FlexibleSearchService flexibleSearchServiceMock;
+    @Mock
+    private SearchResult searchResultMock;
+    @Mock
+    private PaymentTransactionEntryModel entryMock;
+    @Captor
+    private ArgumentCaptor<FlexibleSearchQuery> queryArgumentCaptor;
+
+    @Before
+    public void setUp() {
+        testObj = new DefaultCheckoutComReconciliationDao();
+        testObj.setFlexibleSearchService(flexibleSearchServiceMock);
+
+        lenient().when(searchResultMock.getResult()).thenReturn(Collections.singletonList(entryMock));
+        lenient().when(flexibleSearchServiceMock.search(queryArgumentCaptor.capture())).thenReturn(searchResultMock);
+    }
+
+    @Test
+    public void findTransactionEntriesByActionIds_WhenActionIdsExceedTheInListLimit_ShouldQueryThemInChunks() {
+        final List<String> actionIds = IntStream.range(0, MAX_IN_VALUES + 1).mapToObj(index -> "act_" + index).collect(Collectors.toList());
+
+        final List<PaymentTransactionEntryModel> result = testObj.findTransactionEntriesByActionIds(actionIds);
+
+        assertThat(result).containsExactly(entryMock, entryMock);
+        final List<FlexibleSearchQuery> queries = queryArgumentCaptor.getAllValues();
+        assertThat(queries).hasSize(2);
+        assertThat((Collection<?>) queries.get(0).getQueryParameters().get("actionIds")).hasSize(MAX_IN_VALUES);
+        assertThat((Collection<?>) queries.get(1).getQueryParameters().get("actionIds")).containsExactly("act_" + MAX_IN_VALUES);
+    }
+
+    @Test
+    public void findPaymentEventActionIds_ShouldSelectTheActionIdColumn() {
+        testObj.findPaymentEventActionIds(Collections.singletonList("act_1"));
+
+        assertThat(queryArgumentCaptor.getValue().getResultClassList()).containsExactly(String.class);
+    }
+
+    @Test
+    public void findTransactionEntriesByActionIds_WhenActionIdsAreEmpty_ShouldNotQuery() {
+        final List<PaymentTransactionEntryModel> result = testObj.findTransactionEntriesByActionIds(Collections.emptyList());
+
+        assertThat(result).isEmpty();
+        verifyNoInteractions(flexibleSearchServiceMock);
+    }
+}
@@ -0,0 +1,240 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.CheckoutApi;
+import com.checkout.InstrumentedThreadPoolExecutor;
+import com.checkout.TransportResiliencePolicy;
+import com.checkout.hybris.core.enums.EnvironmentType;
+import com.checkout.hybris.core.payment.api.CheckoutComApiClientPoolStats;
+import com.checkout.hybris.core.payment.api.CheckoutComTransportExecutorStats;
+import com.checkout.hybris.core.payment.api.CheckoutComTransportResilienceStats;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import org.apache.commons.configuration.Configuration;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComApiClientRegistry.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComApiClientRegistryTest {
+
+    private static final String SITE_ID = "electronics";
+    private static final String OTHER_SITE_ID = "apparel";
+    private static final String SECRET_KEY = "secretKey";
+    private static final String NEW_SECRET_KEY = "newSecretKey";
+    private static final String PUBLIC_KEY = "publicKey";
+
+    private DefaultCheckoutComApiClientRegistry testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private CheckoutApi checkoutApiMock, otherCheckoutApiMock;
+
+    @Before
+    public void setUp() {
+        testObj = spy(new DefaultCheckoutComApiClientRegistry(configurationServiceMock));
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(configurationMock.getLong(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(configurationMock.getString(anyString(), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().doReturn(checkoutApiMock, otherCheckoutApiMock).when(testObj).createCheckoutApi(any(), any(PoolingHttpClientConnectionManager.class));
+    }
+
+    @Test
+    public void getCheckoutApi_WhenCalledTwiceWithSameCredentials_ShouldCreateTheClientOnlyOnce() {
+        final CheckoutApi first = testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+        final CheckoutApi second = testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        assertThat(first).isSameAs(checkoutApiMock);
+        assertThat(second).isSameAs(checkoutApiMock);
+        verify(testObj).createCheckoutApi(any(), any(PoolingHttpClientConnectionManager.class));
+    }
+
+    @Test
+    public void getCheckoutApi_WhenCredentialsOfSiteChange_ShouldCreateNewClientAndRetireThePreviousOne() {
+        testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        final CheckoutApi result = testObj.getCheckoutApi(SITE_ID, NEW_SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        assertThat(result).isSameAs(otherCheckoutApiMock);
+        assertThat(testObj.getClients()).hasSize(1);
+        assertThat(testObj.getClients().keySet().iterator().next().getSecretKey()).isEqualTo(NEW_SECRET_KEY);
+    }
+
+    @Test
+    public void getCheckoutApi_WhenEnvironmentChanges_ShouldCreateNewClient() {
+        testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        final CheckoutApi result = testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.PRODUCTION);
+
+        assertThat(result).isSameAs(otherCheckoutApiMock);
+        assertThat(testObj.getClients()).hasSize(1);
+    }
+
+    @Test
+    public void getCheckoutApi_WhenDifferentSites_ShouldKeepOneClientPerSite() {
+        testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+        testObj.getCheckoutApi(OTHER_SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        assertThat(testObj.getClients()).hasSize(2);
+    }
+
+    @Test
+    public void invalidateBySecretKey_ShouldRemoveOnlyTheClientsUsingTheSecretKey() {
+        testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+        testObj.getCheckoutApi(OTHER_SITE_ID, NEW_SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        testObj.invalidateBySecretKey(SECRET_KEY);
+
+        assertThat(testObj.getClients()).hasSize(1);
+        assertThat(testObj.getClients().keySet().iterator().next().getSiteUid()).isEqualTo(OTHER_SITE_ID);
+    }
+
+    @Test
+    public void invalidateAll_ShouldRemoveEveryClient() {
+        testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+        testObj.getCheckoutApi(OTHER_SITE_ID, NEW_SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        testObj.invalidateAll();
+
+        assertThat(testObj.getClients()).isEmpty();
+    }
+
+    @Test
+    public void getPoolStats_ShouldReturnTheStatsOfEachClient() {
+        testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        final List<CheckoutComApiClientPoolStats> result = testObj.getPoolStats();
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getSiteUid()).isEqualTo(SITE_ID);
+        assertThat(result.get(0).getEnvironment()).isEqualTo(EnvironmentType.TEST);
+        assertThat(result.get(0).getMax()).isEqualTo(DEFAULT_POOL_MAX_TOTAL);
+        assertThat(result.get(0).getLeased()).isZero();
+        assertThat(result.get(0).getRoutes()).isEmpty();
+    }
+
+    @Test
+    public void createConnectionManager_ShouldUseTheConfiguredPoolSizes() {
+        when(configurationMock.getInt(eq(POOL_MAX_TOTAL), anyInt())).thenReturn(50);
+        when(configurationMock.getInt(eq(POOL_MAX_PER_ROUTE), anyInt())).thenReturn(20);
+
+        final PoolingHttpClientConnectionManager result = testObj.createConnectionManager();
+
+        assertThat(result.getMaxTotal()).isEqualTo(50);
+        assertThat(result.getDefaultMaxPerRoute()).isEqualTo(20);
+    }
+
+    @Test
+    public void destroy_ShouldRemoveEveryClient() {
+        testObj.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST);
+
+        testObj.destroy();
+
+        assertThat(testObj.getClients()).isEmpty();
+    }
+
+    @Test
+    public void getTransportExecutor_ShouldCreateOneBoundedExecutorSharedByEveryClient() {
+        final Executor first = testObj.getTransportExecutor();
+        final Executor second = testObj.getTransportExecutor();
+
+        assertThat(first).isInstanceOf(InstrumentedThreadPoolExecutor.class).isSameAs(second);
+        verify(testObj).createTransportExecutor();
+        testObj.destroy();
+    }
+
+    @Test
+    public void createTransportExecutor_ShouldUseTheConfiguredSizes() {
+        when(configurationMock.getInt(eq(TRANSPORT_EXECUTOR_CORE_SIZE), anyInt())).thenReturn(4);
+        when(configurationMock.getInt(eq(TRANSPORT_EXECUTOR_MAX_SIZE), anyInt())).thenReturn(8);
+        when(configurationMock.getInt(eq(TRANSPORT_EXECUTOR_QUEUE_CAPACITY), anyInt())).thenReturn(16);
+
+        final InstrumentedThreadPoolExecutor result = (InstrumentedThreadPoolExecutor) testObj.createTransportExecutor();
+
+        assertThat(result.getCorePoolSize()).isEqualTo(4);
+        assertThat(result.getMaximumPoolSize()).isEqualTo(8);
+        assertThat(result.getQueueCapacity()).isEqualTo(16);
+        result.shutdown();
+    }
+
+    @Test
+    public void createTransportExecutor_WhenCommonPoolConfigured_ShouldReturnTheCommonPool() {
+        when(configurationMock.getString(eq(TRANSPORT_EXECUTOR_TYPE), anyString())).thenReturn(TRANSPORT_EXECUTOR_TYPE_COMMON_POOL);
+
+        assertThat(testObj.createTransportExecutor()).isSameAs(ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void getTransportExecutorStats_ShouldReturnTheStatsOfTheBoundedExecutor() {
+        final CheckoutComTransportExecutorStats result = testObj.getTransportExecutorStats();
+
+        assertThat(result.getType()).isEqualTo(TRANSPORT_EXECUTOR_TYPE_BOUNDED);
+        assertThat(result.getQueueCapacity()).isEqualTo(DEFAULT_TRANSPORT_EXECUTOR_QUEUE_CAPACITY);
+        assertThat(result.getQueueDepth()).isZero();
+        assertThat(result.getRejectedTaskCount()).isZero();
+        testObj.destroy();
+    }
+
+    @Test
+    public void getTransportResiliencePolicy_WhenEnabled_ShouldShareOnePolicyWithTheConfiguredValues() {
+        when(configurationMock.getBoolean(eq(TRANSPORT_RESILIENCE_ENABLED), anyBoolean())).thenReturn(true);
+        when(configurationMock.getInt(eq(TRANSPORT_RESILIENCE_MAX_RETRIES), anyInt())).thenReturn(1);
+        when(configurationMock.getLong(eq(TRANSPORT_RESILIENCE_READ_TIMEOUT), anyLong())).thenReturn(10000L);
+
+        final TransportResiliencePolicy result = testObj.getTransportResiliencePolicy();
+
+        assertThat(result).isSameAs(testObj.getTransportResiliencePolicy());
+        assertThat(result.getMaxRetries()).isEqualTo(1);
+        assertThat(result.getReadTimeout()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(result.getCircuitBreakerFailureThreshold()).isEqualTo(DEFAULT_TRANSPORT_RESILIENCE_FAILURE_THRESHOLD);
+        verify(testObj).createTransportResiliencePolicy();
+    }
+
+    @Test
+    public void getTransportResilienceStats_WhenDisabled_ShouldReturnDisabledStats() {
+        when(configurationMock.getBoolean(eq(TRANSPORT_RESILIENCE_ENABLED), anyBoolean())).thenReturn(false);
+
+        final CheckoutComTransportResilienceStats result = testObj.getTransportResilienceStats();
+
+        assertThat(result.isEnabled()).isFalse();
+        assertThat(result.getRetryCount()).isZero();
+        verify(testObj, never()).createTransportResiliencePolicy();
+    }
+
+    @Test
+    public void getTransportResilienceStats_WhenEnabled_ShouldReturnTheStatsOfTheSharedPolicy() {
+        when(configurationMock.getBoolean(eq(TRANSPORT_RESILIENCE_ENABLED), anyBoolean())).thenReturn(true);
+
+        final CheckoutComTransportResilienceStats result = testObj.getTransportResilienceStats();
+
+        assertThat(result.isEnabled()).isTrue();
+        assertThat(result.getShortCircuitedCount()).isZero();
+        assertThat(result.getCircuitStates()).isEmpty();
+    }
+
+    @Test
+    public void destroy_ShouldShutDownTheTransportExecutor() {
+        final InstrumentedThreadPoolExecutor executor = (InstrumentedThreadPoolExecutor) testObj.getTransportExecutor();
+
+        testObj.destroy();
+
+        assertThat(executor.isShutdown()).isTrue();
+    }
+}
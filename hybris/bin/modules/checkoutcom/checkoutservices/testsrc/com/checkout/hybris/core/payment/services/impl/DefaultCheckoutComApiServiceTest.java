@@ -0,0 +1,61 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.CheckoutApi;
+import com.checkout.hybris.core.enums.EnvironmentType;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
+import com.checkout.hybris.core.payment.services.CheckoutComApiClientRegistry;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.site.BaseSiteService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComApiServiceTest {
+
+    private static final String SITE_ID = "electronics";
+    private static final String SECRET_KEY = "secretKey";
+    private static final String PUBLIC_KEY = "publicKey";
+
+    @InjectMocks
+    private DefaultCheckoutComApiService testObj;
+
+    @Mock
+    private CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationServiceMock;
+    @Mock
+    private BaseSiteService baseSiteServiceMock;
+    @Mock
+    private CheckoutComApiClientRegistry checkoutComApiClientRegistryMock;
+    @Mock
+    private BaseSiteModel baseSiteMock;
+    @Mock
+    private CheckoutApi checkoutApiMock;
+
+    @Test
+    public void createCheckoutApi_ShouldReturnTheRegistryClientForTheCurrentSiteAndCredentials() {
+        when(baseSiteServiceMock.getCurrentBaseSite()).thenReturn(baseSiteMock);
+        when(baseSiteMock.getUid()).thenReturn(SITE_ID);
+        when(checkoutComMerchantConfigurationServiceMock.getSecretKey()).thenReturn(SECRET_KEY);
+        when(checkoutComMerchantConfigurationServiceMock.getPublicKey()).thenReturn(PUBLIC_KEY);
+        when(checkoutComMerchantConfigurationServiceMock.getEnvironment()).thenReturn(EnvironmentType.TEST);
+        when(checkoutComApiClientRegistryMock.getCheckoutApi(SITE_ID, SECRET_KEY, PUBLIC_KEY, EnvironmentType.TEST)).thenReturn(checkoutApiMock);
+
+        final CheckoutApi result = testObj.createCheckoutApi();
+
+        assertThat(result).isSameAs(checkoutApiMock);
+    }
+
+    @Test
+    public void createCheckoutApi_WhenNoCurrentSite_ShouldThrowException() {
+        assertThatThrownBy(() -> testObj.createCheckoutApi())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
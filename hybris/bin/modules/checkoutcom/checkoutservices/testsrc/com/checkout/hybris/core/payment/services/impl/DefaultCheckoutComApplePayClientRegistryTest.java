@@ -0,0 +1,182 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.certificate.services.CheckoutComCertificateService;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
+import com.checkout.hybris.core.model.CheckoutComApplePayConfigurationModel;
+import com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComApplePayClientRegistry.ApplePayClientKey;
+import com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComApplePayClientRegistry.PooledApplePayClient;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.configuration.Configuration;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.web.client.RestTemplate;
+
+import javax.net.ssl.SSLContext;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComApplePayClientRegistryTest {
+
+    private static final String SITE_ID = "electronics";
+    private static final String OTHER_SITE_ID = "apparel";
+    private static final String CERTIFICATE = "certificate";
+    private static final String NEW_CERTIFICATE = "newCertificate";
+    private static final String PRIVATE_KEY = "privateKey";
+    private static final PK APPLE_PAY_CONFIGURATION_PK = PK.fromLong(1L);
+    private static final PK OTHER_APPLE_PAY_CONFIGURATION_PK = PK.fromLong(2L);
+
+    private DefaultCheckoutComApplePayClientRegistry testObj;
+
+    @Mock
+    private CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationServiceMock;
+    @Mock
+    private BaseSiteService baseSiteServiceMock;
+    @Mock
+    private CheckoutComCertificateService checkoutComCertificateServiceMock;
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private BaseSiteModel baseSiteMock;
+    @Mock
+    private CheckoutComApplePayConfigurationModel applePayConfigurationMock, otherApplePayConfigurationMock;
+    @Mock
+    private SSLContext sslContextMock;
+    @Mock
+    private CloseableHttpClient httpClientMock;
+    @Mock
+    private RestTemplate restTemplateMock, otherRestTemplateMock;
+
+    private PooledApplePayClient client;
+    private PooledApplePayClient otherClient;
+
+    @Before
+    public void setUp() {
+        testObj = spy(new DefaultCheckoutComApplePayClientRegistry(checkoutComMerchantConfigurationServiceMock, baseSiteServiceMock,
+                checkoutComCertificateServiceMock, configurationServiceMock));
+
+        final Date notAfter = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365));
+        client = new PooledApplePayClient(sslContextMock, httpClientMock, restTemplateMock, notAfter);
+        otherClient = new PooledApplePayClient(sslContextMock, httpClientMock, otherRestTemplateMock, notAfter);
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(configurationMock.getLong(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(baseSiteServiceMock.getCurrentBaseSite()).thenReturn(baseSiteMock);
+        lenient().when(baseSiteMock.getUid()).thenReturn(SITE_ID);
+        lenient().when(checkoutComMerchantConfigurationServiceMock.getApplePayConfiguration()).thenReturn(applePayConfigurationMock);
+        lenient().when(applePayConfigurationMock.getPk()).thenReturn(APPLE_PAY_CONFIGURATION_PK);
+        lenient().when(applePayConfigurationMock.getCertificate()).thenReturn(CERTIFICATE);
+        lenient().when(applePayConfigurationMock.getPrivateKey()).thenReturn(PRIVATE_KEY);
+        lenient().when(otherApplePayConfigurationMock.getPk()).thenReturn(OTHER_APPLE_PAY_CONFIGURATION_PK);
+        lenient().when(otherApplePayConfigurationMock.getCertificate()).thenReturn(CERTIFICATE);
+        lenient().when(otherApplePayConfigurationMock.getPrivateKey()).thenReturn(PRIVATE_KEY);
+        lenient().doReturn(client, otherClient).when(testObj).createPooledApplePayClient(any(ApplePayClientKey.class), any(CheckoutComApplePayConfigurationModel.class));
+    }
+
+    @Test
+    public void getRestTemplate_WhenCertificateAndKeyUnchanged_ShouldCreateTheClientOnlyOnce() {
+        final RestTemplate first = testObj.getRestTemplate();
+        final RestTemplate second = testObj.getRestTemplate();
+
+        assertThat(first).isSameAs(restTemplateMock);
+        assertThat(second).isSameAs(restTemplateMock);
+        assertThat(testObj.getSslContext()).isSameAs(sslContextMock);
+        verify(testObj).createPooledApplePayClient(any(ApplePayClientKey.class), eq(applePayConfigurationMock));
+    }
+
+    @Test
+    public void getRestTemplate_WhenCertificateChanges_ShouldCreateNewClientAndRetireThePreviousOne() {
+        testObj.getRestTemplate();
+        when(applePayConfigurationMock.getCertificate()).thenReturn(NEW_CERTIFICATE);
+
+        final RestTemplate result = testObj.getRestTemplate();
+
+        assertThat(result).isSameAs(otherRestTemplateMock);
+        assertThat(testObj.getClients()).hasSize(1);
+        assertThat(testObj.getClients().values().iterator().next()).isSameAs(otherClient);
+    }
+
+    @Test
+    public void getRestTemplate_WhenDifferentSites_ShouldKeepOneClientPerSite() {
+        testObj.getRestTemplate();
+        when(baseSiteMock.getUid()).thenReturn(OTHER_SITE_ID);
+        when(checkoutComMerchantConfigurationServiceMock.getApplePayConfiguration()).thenReturn(otherApplePayConfigurationMock);
+
+        testObj.getRestTemplate();
+
+        assertThat(testObj.getClients()).hasSize(2);
+    }
+
+    @Test
+    public void getRestTemplate_WhenApplePayConfigurationNull_ShouldThrowException() {
+        when(checkoutComMerchantConfigurationServiceMock.getApplePayConfiguration()).thenReturn(null);
+
+        assertThatThrownBy(() -> testObj.getRestTemplate()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(testObj.getClients()).isEmpty();
+    }
+
+    @Test
+    public void getRestTemplate_ShouldCheckTheCertificateExpiryOncePerInterval() {
+        testObj.getRestTemplate();
+        testObj.getRestTemplate();
+
+        verify(testObj).logCertificateExpiry(any(ApplePayClientKey.class), any(Date.class));
+    }
+
+    @Test
+    public void createFingerprint_ShouldDifferWhenTheCertificateOrTheKeyDiffers() {
+        final String fingerprint = testObj.createFingerprint(applePayConfigurationMock);
+
+        assertThat(fingerprint).hasSize(64).isEqualTo(testObj.createFingerprint(otherApplePayConfigurationMock));
+        when(otherApplePayConfigurationMock.getPrivateKey()).thenReturn(CERTIFICATE);
+        assertThat(testObj.createFingerprint(otherApplePayConfigurationMock)).isNotEqualTo(fingerprint);
+    }
+
+    @Test
+    public void invalidateByApplePayConfiguration_ShouldRemoveOnlyTheClientsOfTheConfiguration() {
+        testObj.getRestTemplate();
+        when(baseSiteMock.getUid()).thenReturn(OTHER_SITE_ID);
+        when(checkoutComMerchantConfigurationServiceMock.getApplePayConfiguration()).thenReturn(otherApplePayConfigurationMock);
+        testObj.getRestTemplate();
+
+        testObj.invalidateByApplePayConfiguration(APPLE_PAY_CONFIGURATION_PK);
+
+        assertThat(testObj.getClients()).hasSize(1);
+        assertThat(testObj.getClients().keySet().iterator().next().getSiteUid()).isEqualTo(OTHER_SITE_ID);
+    }
+
+    @Test
+    public void invalidateAll_ShouldRemoveEveryClient() {
+        testObj.getRestTemplate();
+
+        testObj.invalidateAll();
+
+        assertThat(testObj.getClients()).isEmpty();
+    }
+
+    @Test
+    public void destroy_ShouldCloseAndRemoveEveryClient() throws Exception {
+        testObj.getRestTemplate();
+
+        testObj.destroy();
+
+        assertThat(testObj.getClients()).isEmpty();
+        verify(httpClientMock).close();
+    }
+}
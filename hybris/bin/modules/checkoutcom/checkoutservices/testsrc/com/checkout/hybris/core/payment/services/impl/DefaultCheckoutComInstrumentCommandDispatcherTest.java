@@ -0,0 +1,167 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.model.CheckoutComInstrumentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComInstrumentCommandDao;
+import com.checkout.hybris.core.payment.services.CheckoutComInstrumentCommandService;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.user.EmployeeModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComInstrumentCommandDispatcher.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComInstrumentCommandDispatcherTest {
+
+    private static final String SITE_UID = "electronics";
+    private static final String OTHER_SITE_UID = "apparel";
+    private static final Date NOW = new Date(1_000_000L);
+    private static final Date STALE_BEFORE = new Date(NOW.getTime() - DEFAULT_IN_PROGRESS_TIMEOUT * 1000L);
+
+    private DefaultCheckoutComInstrumentCommandDispatcher testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private TimeService timeServiceMock;
+    @Mock
+    private SessionService sessionServiceMock;
+    @Mock
+    private UserService userServiceMock;
+    @Mock
+    private BaseSiteService baseSiteServiceMock;
+    @Mock
+    private CheckoutComInstrumentCommandService checkoutComInstrumentCommandServiceMock;
+    @Mock
+    private CheckoutComInstrumentCommandDao checkoutComInstrumentCommandDaoMock;
+    @Mock
+    private CheckoutComInstrumentCommandModel firstCommandMock, secondCommandMock;
+    @Mock
+    private Session sessionMock;
+    @Mock
+    private EmployeeModel adminMock;
+
+    private final ExecutorService directWorkers = new AbstractExecutorService() {
+
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            // nothing to stop
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return true;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        testObj = spy(new DefaultCheckoutComInstrumentCommandDispatcher(configurationServiceMock, modelServiceMock, timeServiceMock,
+                sessionServiceMock, userServiceMock, baseSiteServiceMock, checkoutComInstrumentCommandServiceMock, checkoutComInstrumentCommandDaoMock));
+        lenient().doReturn(directWorkers).when(testObj).createWorkers(DEFAULT_INSTRUMENT_WORKERS);
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(key(DISPATCHER_WORKERS), DEFAULT_INSTRUMENT_WORKERS)).thenReturn(DEFAULT_INSTRUMENT_WORKERS);
+        lenient().when(configurationMock.getInt(key(DISPATCHER_BATCH_SIZE), DEFAULT_INSTRUMENT_BATCH_SIZE)).thenReturn(DEFAULT_INSTRUMENT_BATCH_SIZE);
+        lenient().when(configurationMock.getLong(key(DISPATCHER_IN_PROGRESS_TIMEOUT), DEFAULT_IN_PROGRESS_TIMEOUT)).thenReturn(DEFAULT_IN_PROGRESS_TIMEOUT);
+        lenient().when(configurationMock.getDouble(key(DISPATCHER_PERMITS_PER_SECOND), DEFAULT_INSTRUMENT_PERMITS_PER_SECOND)).thenReturn(DEFAULT_INSTRUMENT_PERMITS_PER_SECOND);
+        lenient().when(timeServiceMock.getCurrentTime()).thenReturn(NOW);
+        lenient().when(sessionServiceMock.createNewSession()).thenReturn(sessionMock);
+        lenient().when(userServiceMock.getAdminUser()).thenReturn(adminMock);
+
+        setUpCommand(firstCommandMock, 1L, SITE_UID);
+        setUpCommand(secondCommandMock, 2L, OTHER_SITE_UID);
+        lenient().when(checkoutComInstrumentCommandDaoMock.findDueCommands(NOW, STALE_BEFORE, DEFAULT_INSTRUMENT_WORKERS))
+                .thenReturn(List.of(firstCommandMock, secondCommandMock));
+        lenient().when(checkoutComInstrumentCommandDaoMock.claimCommand(any(CheckoutComInstrumentCommandModel.class), eq(NOW), eq(STALE_BEFORE))).thenReturn(true);
+    }
+
+    @Test
+    public void dispatchDueCommands_ShouldExecuteTheClaimedCommandsWithTheInstrumentSettingsAndTheSiteOfTheCommand() {
+        final int result = testObj.dispatchDueCommands();
+
+        assertThat(result).isEqualTo(2);
+        verify(checkoutComInstrumentCommandDaoMock).findDueCommands(NOW, STALE_BEFORE, DEFAULT_INSTRUMENT_WORKERS);
+        verify(baseSiteServiceMock).setCurrentBaseSite(SITE_UID, false);
+        verify(baseSiteServiceMock).setCurrentBaseSite(OTHER_SITE_UID, false);
+        verify(checkoutComInstrumentCommandServiceMock).executeCommand(firstCommandMock);
+        verify(checkoutComInstrumentCommandServiceMock).executeCommand(secondCommandMock);
+        verify(sessionServiceMock, times(2)).closeSession(sessionMock);
+    }
+
+    @Test
+    public void dispatchDueCommands_WhenCommandIsClaimedByAnotherDispatcher_ShouldSkipIt() {
+        when(checkoutComInstrumentCommandDaoMock.claimCommand(secondCommandMock, NOW, STALE_BEFORE)).thenReturn(false);
+
+        final int result = testObj.dispatchDueCommands();
+
+        assertThat(result).isEqualTo(1);
+        verify(checkoutComInstrumentCommandServiceMock).executeCommand(firstCommandMock);
+        verify(checkoutComInstrumentCommandServiceMock, never()).executeCommand(secondCommandMock);
+    }
+
+    @Test
+    public void afterPropertiesSet_WhenDispatcherIsNotEnabled_ShouldNotStartPolling() {
+        when(configurationMock.getBoolean(key(DISPATCHER_ENABLED), DEFAULT_ENABLED)).thenReturn(false);
+
+        testObj.afterPropertiesSet();
+
+        verify(testObj, never()).startPoller();
+    }
+
+    private static String key(final String property) {
+        return PROPERTY_PREFIX + "." + property;
+    }
+
+    private void setUpCommand(final CheckoutComInstrumentCommandModel command, final long pk, final String siteUid) {
+        final PK commandPk = PK.fromLong(pk);
+        lenient().when(command.getPk()).thenReturn(commandPk);
+        lenient().when(command.getSiteUid()).thenReturn(siteUid);
+        lenient().when(modelServiceMock.get(commandPk)).thenReturn(command);
+    }
+}
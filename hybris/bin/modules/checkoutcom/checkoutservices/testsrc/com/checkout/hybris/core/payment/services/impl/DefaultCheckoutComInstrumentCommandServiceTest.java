@@ -0,0 +1,319 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.CheckoutApi;
+import com.checkout.CheckoutApiException;
+import com.checkout.hybris.core.enums.CheckoutComInstrumentCommandType;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.model.CheckoutComInstrumentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComInstrumentCommandDao;
+import com.checkout.hybris.core.payment.services.CheckoutComApiService;
+import com.checkout.instruments.InstrumentsClient;
+import com.checkout.instruments.update.UpdateInstrumentCardRequest;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.model.order.payment.CreditCardPaymentInfoModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComInstrumentCommandService.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComInstrumentCommandServiceTest {
+
+    private static final String INSTRUMENT_ID = "src_instrument";
+    private static final String OTHER_INSTRUMENT_ID = "src_other_instrument";
+    private static final String THIRD_INSTRUMENT_ID = "src_third_instrument";
+    private static final String PAYMENT_INFO_CODE = "paymentInfoCode";
+    private static final String SITE_UID = "electronics";
+    private static final String CC_OWNER = "Mike Hammer";
+    private static final Date NOW = new Date(1_000_000L);
+
+    private DefaultCheckoutComInstrumentCommandService testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private TimeService timeServiceMock;
+    @Mock
+    private CheckoutComApiService checkoutComApiServiceMock;
+    @Mock
+    private CheckoutComInstrumentCommandDao checkoutComInstrumentCommandDaoMock;
+    @Mock
+    private CheckoutApi checkoutApiMock;
+    @Mock
+    private InstrumentsClient instrumentsClientMock;
+    @Mock
+    private CheckoutComInstrumentCommandModel recordedCommandMock, otherRecordedCommandMock;
+    @Captor
+    private ArgumentCaptor<Collection<CheckoutComInstrumentCommandModel>> commandsCaptor;
+    @Captor
+    private ArgumentCaptor<UpdateInstrumentCardRequest> updateRequestCaptor;
+
+    private final CreditCardPaymentInfoModel creditCardPaymentInfo = new CreditCardPaymentInfoModel();
+
+    @Before
+    public void setUp() {
+        testObj = new DefaultCheckoutComInstrumentCommandService(configurationServiceMock, modelServiceMock, timeServiceMock,
+                checkoutComApiServiceMock, checkoutComInstrumentCommandDaoMock);
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS)).thenReturn(3);
+        lenient().when(configurationMock.getLong(INITIAL_BACKOFF, DEFAULT_INITIAL_BACKOFF)).thenReturn(5L);
+        lenient().when(configurationMock.getLong(MAX_BACKOFF, DEFAULT_MAX_BACKOFF)).thenReturn(30L);
+        lenient().when(configurationMock.getInt(BULK_BATCH_SIZE, DEFAULT_BULK_BATCH_SIZE)).thenReturn(2);
+        lenient().when(timeServiceMock.getCurrentTime()).thenReturn(NOW);
+        lenient().when(modelServiceMock.create(CheckoutComInstrumentCommandModel.class)).thenAnswer(invocation -> new CheckoutComInstrumentCommandModel());
+        lenient().when(checkoutComInstrumentCommandDaoMock.findCommandByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        lenient().when(checkoutComApiServiceMock.createCheckoutApi()).thenReturn(checkoutApiMock);
+        lenient().when(checkoutApiMock.instrumentsClient()).thenReturn(instrumentsClientMock);
+
+        creditCardPaymentInfo.setCode(PAYMENT_INFO_CODE);
+        creditCardPaymentInfo.setSubscriptionId(INSTRUMENT_ID);
+        creditCardPaymentInfo.setCcOwner(CC_OWNER);
+        creditCardPaymentInfo.setValidToMonth("12");
+        creditCardPaymentInfo.setValidToYear("2030");
+    }
+
+    @Test
+    public void submitDeleteCommand_WhenNotRecorded_ShouldSaveAPendingDeleteDueNow() {
+        final CheckoutComInstrumentCommandModel result = testObj.submitDeleteCommand(creditCardPaymentInfo, SITE_UID);
+
+        verify(modelServiceMock).save(result);
+        assertThat(result.getType()).isEqualTo(CheckoutComInstrumentCommandType.DELETE);
+        assertThat(result.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.PENDING);
+        assertThat(result.getInstrumentId()).isEqualTo(INSTRUMENT_ID);
+        assertThat(result.getSiteUid()).isEqualTo(SITE_UID);
+        assertThat(result.getPaymentInfoCode()).isEqualTo(PAYMENT_INFO_CODE);
+        assertThat(result.getNextAttemptTime()).isEqualTo(NOW);
+        assertThat(result.getIdempotencyKey()).isEqualTo(testObj.createDeleteIdempotencyKey(INSTRUMENT_ID));
+    }
+
+    @Test
+    public void submitDeleteCommand_WhenAlreadyRecorded_ShouldReturnTheRecordedCommand() {
+        when(checkoutComInstrumentCommandDaoMock.findCommandByIdempotencyKey(testObj.createDeleteIdempotencyKey(INSTRUMENT_ID)))
+                .thenReturn(Optional.of(recordedCommandMock));
+
+        final CheckoutComInstrumentCommandModel result = testObj.submitDeleteCommand(creditCardPaymentInfo, SITE_UID);
+
+        assertThat(result).isEqualTo(recordedCommandMock);
+        verify(modelServiceMock, never()).save(any());
+    }
+
+    @Test
+    public void submitUpdateCommand_WhenNoUpdateIsPending_ShouldSaveAPendingUpdateWithTheCardDetails() {
+        final CheckoutComInstrumentCommandModel result = testObj.submitUpdateCommand(creditCardPaymentInfo, SITE_UID);
+
+        verify(modelServiceMock).save(result);
+        assertThat(result.getType()).isEqualTo(CheckoutComInstrumentCommandType.UPDATE);
+        assertThat(result.getInstrumentId()).isEqualTo(INSTRUMENT_ID);
+        assertThat(result.getPaymentInfoCode()).isEqualTo(PAYMENT_INFO_CODE);
+        assertThat(result.getCardHolderName()).isEqualTo(CC_OWNER);
+        assertThat(result.getExpiryMonth()).isEqualTo(12);
+        assertThat(result.getExpiryYear()).isEqualTo(2030);
+    }
+
+    @Test
+    public void submitUpdateCommand_WhenAnUpdateIsPending_ShouldUpdateItInPlaceWhileItIsStillPending() {
+        when(recordedCommandMock.getType()).thenReturn(CheckoutComInstrumentCommandType.UPDATE);
+        when(checkoutComInstrumentCommandDaoMock.findPendingCommands(INSTRUMENT_ID)).thenReturn(List.of(recordedCommandMock));
+        when(checkoutComInstrumentCommandDaoMock.updatePendingCommand(recordedCommandMock, CC_OWNER, 12, 2030)).thenReturn(true);
+
+        final CheckoutComInstrumentCommandModel result = testObj.submitUpdateCommand(creditCardPaymentInfo, SITE_UID);
+
+        assertThat(result).isEqualTo(recordedCommandMock);
+        verify(modelServiceMock).refresh(recordedCommandMock);
+        verify(modelServiceMock, never()).save(any());
+        verify(modelServiceMock, never()).create(CheckoutComInstrumentCommandModel.class);
+    }
+
+    @Test
+    public void submitUpdateCommand_WhenSeveralUpdatesArePending_ShouldMergeIntoTheLatestOne() {
+        when(recordedCommandMock.getType()).thenReturn(CheckoutComInstrumentCommandType.UPDATE);
+        when(otherRecordedCommandMock.getType()).thenReturn(CheckoutComInstrumentCommandType.UPDATE);
+        when(checkoutComInstrumentCommandDaoMock.findPendingCommands(INSTRUMENT_ID)).thenReturn(List.of(recordedCommandMock, otherRecordedCommandMock));
+        when(checkoutComInstrumentCommandDaoMock.updatePendingCommand(otherRecordedCommandMock, CC_OWNER, 12, 2030)).thenReturn(true);
+
+        final CheckoutComInstrumentCommandModel result = testObj.submitUpdateCommand(creditCardPaymentInfo, SITE_UID);
+
+        assertThat(result).isEqualTo(otherRecordedCommandMock);
+        verify(checkoutComInstrumentCommandDaoMock, never()).updatePendingCommand(eq(recordedCommandMock), any(), any(), any());
+    }
+
+    @Test
+    public void submitUpdateCommand_WhenThePendingUpdateIsClaimedMeanwhile_ShouldRecordANewUpdate() {
+        when(recordedCommandMock.getType()).thenReturn(CheckoutComInstrumentCommandType.UPDATE);
+        when(checkoutComInstrumentCommandDaoMock.findPendingCommands(INSTRUMENT_ID)).thenReturn(List.of(recordedCommandMock));
+        when(checkoutComInstrumentCommandDaoMock.updatePendingCommand(recordedCommandMock, CC_OWNER, 12, 2030)).thenReturn(false);
+
+        final CheckoutComInstrumentCommandModel result = testObj.submitUpdateCommand(creditCardPaymentInfo, SITE_UID);
+
+        assertThat(result).isNotEqualTo(recordedCommandMock);
+        verify(modelServiceMock).save(result);
+        assertThat(result.getType()).isEqualTo(CheckoutComInstrumentCommandType.UPDATE);
+        assertThat(result.getCardHolderName()).isEqualTo(CC_OWNER);
+        assertThat(result.getExpiryMonth()).isEqualTo(12);
+        assertThat(result.getExpiryYear()).isEqualTo(2030);
+    }
+
+    @Test
+    public void submitUpdateCommand_WhenTheInstrumentIsDeleted_ShouldNotRecordTheUpdate() {
+        when(checkoutComInstrumentCommandDaoMock.findCommandByIdempotencyKey(testObj.createDeleteIdempotencyKey(INSTRUMENT_ID)))
+                .thenReturn(Optional.of(recordedCommandMock));
+
+        final CheckoutComInstrumentCommandModel result = testObj.submitUpdateCommand(creditCardPaymentInfo, SITE_UID);
+
+        assertThat(result).isEqualTo(recordedCommandMock);
+        verify(modelServiceMock, never()).save(any());
+    }
+
+    @Test
+    public void submitDeleteCommands_ShouldSaveTheDeletesNotRecordedYetInBatches() {
+        when(recordedCommandMock.getIdempotencyKey()).thenReturn(testObj.createDeleteIdempotencyKey(OTHER_INSTRUMENT_ID));
+        when(checkoutComInstrumentCommandDaoMock.findCommandsByIdempotencyKeys(anyCollection())).thenReturn(List.of(recordedCommandMock), List.of());
+
+        final int result = testObj.submitDeleteCommands(Arrays.asList(INSTRUMENT_ID, OTHER_INSTRUMENT_ID, "", INSTRUMENT_ID, THIRD_INSTRUMENT_ID), SITE_UID);
+
+        assertThat(result).isEqualTo(2);
+        verify(checkoutComInstrumentCommandDaoMock, times(2)).findCommandsByIdempotencyKeys(anyCollection());
+        verify(modelServiceMock, times(2)).saveAll(commandsCaptor.capture());
+        assertThat(commandsCaptor.getAllValues())
+                .flatExtracting(commands -> commands.stream().map(CheckoutComInstrumentCommandModel::getInstrumentId).toList())
+                .containsExactly(INSTRUMENT_ID, THIRD_INSTRUMENT_ID);
+    }
+
+    @Test
+    public void submitDeleteCommands_WhenABatchIsRecordedConcurrently_ShouldSaveTheCommandsOneByOne() {
+        when(checkoutComInstrumentCommandDaoMock.findCommandsByIdempotencyKeys(anyCollection())).thenReturn(List.of());
+        doThrow(new ModelSavingException("duplicate")).when(modelServiceMock).saveAll(anyCollection());
+        doNothing().doThrow(new ModelSavingException("duplicate")).when(modelServiceMock).save(any(CheckoutComInstrumentCommandModel.class));
+
+        final int result = testObj.submitDeleteCommands(List.of(INSTRUMENT_ID, OTHER_INSTRUMENT_ID), SITE_UID);
+
+        assertThat(result).isEqualTo(1);
+        verify(modelServiceMock, times(2)).save(any(CheckoutComInstrumentCommandModel.class));
+        verify(modelServiceMock).detach(any(CheckoutComInstrumentCommandModel.class));
+    }
+
+    @Test
+    public void executeCommand_WhenDeleteSucceeds_ShouldCompleteTheCommand() {
+        final CheckoutComInstrumentCommandModel command = createCommand(CheckoutComInstrumentCommandType.DELETE);
+        doReturn(CompletableFuture.completedFuture(null)).when(instrumentsClientMock).delete(INSTRUMENT_ID);
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.COMPLETED);
+        assertThat(command.getAttempts()).isEqualTo(1);
+        verify(modelServiceMock).save(command);
+    }
+
+    @Test
+    public void executeCommand_WhenTheDeletedInstrumentIsNotFound_ShouldCompleteTheCommand() {
+        final CheckoutComInstrumentCommandModel command = createCommand(CheckoutComInstrumentCommandType.DELETE);
+        doReturn(CompletableFuture.failedFuture(new CheckoutApiException(404, Map.of(), Map.of()))).when(instrumentsClientMock).delete(INSTRUMENT_ID);
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.COMPLETED);
+    }
+
+    @Test
+    public void executeCommand_WhenUpdateSucceeds_ShouldSendTheCardDetails() {
+        final CheckoutComInstrumentCommandModel command = createCommand(CheckoutComInstrumentCommandType.UPDATE);
+        command.setCardHolderName(CC_OWNER);
+        command.setExpiryMonth(12);
+        command.setExpiryYear(2030);
+        doReturn(CompletableFuture.completedFuture(null)).when(instrumentsClientMock).update(eq(INSTRUMENT_ID), any(UpdateInstrumentCardRequest.class));
+
+        testObj.executeCommand(command);
+
+        verify(instrumentsClientMock).update(eq(INSTRUMENT_ID), updateRequestCaptor.capture());
+        assertThat(updateRequestCaptor.getValue().getName()).isEqualTo(CC_OWNER);
+        assertThat(updateRequestCaptor.getValue().getExpiryMonth()).isEqualTo(12);
+        assertThat(updateRequestCaptor.getValue().getExpiryYear()).isEqualTo(2030);
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.COMPLETED);
+    }
+
+    @Test
+    public void executeCommand_WhenCheckoutComIsUnavailable_ShouldRescheduleTheCommandWithBackoff() {
+        final CheckoutComInstrumentCommandModel command = createCommand(CheckoutComInstrumentCommandType.DELETE);
+        command.setAttempts(1);
+        doReturn(CompletableFuture.failedFuture(new CheckoutApiException(503, Map.of(), Map.of()))).when(instrumentsClientMock).delete(INSTRUMENT_ID);
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.PENDING);
+        assertThat(command.getAttempts()).isEqualTo(2);
+        assertThat(command.getNextAttemptTime()).isEqualTo(new Date(NOW.getTime() + 10_000L));
+        assertThat(command.getLastError()).isNotBlank();
+    }
+
+    @Test
+    public void executeCommand_WhenNoResponseIsReceived_ShouldRescheduleTheCommand() {
+        final CheckoutComInstrumentCommandModel command = createCommand(CheckoutComInstrumentCommandType.UPDATE);
+        doReturn(CompletableFuture.failedFuture(new CheckoutApiException(400, Map.of(), Map.of(), true))).when(instrumentsClientMock)
+                .update(eq(INSTRUMENT_ID), any(UpdateInstrumentCardRequest.class));
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.PENDING);
+        assertThat(command.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void executeCommand_WhenCheckoutComIsUnavailableOnTheLastAttempt_ShouldFailTheCommand() {
+        final CheckoutComInstrumentCommandModel command = createCommand(CheckoutComInstrumentCommandType.DELETE);
+        command.setAttempts(2);
+        doReturn(CompletableFuture.failedFuture(new CheckoutApiException(503, Map.of(), Map.of()))).when(instrumentsClientMock).delete(INSTRUMENT_ID);
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.FAILED);
+    }
+
+    @Test
+    public void executeCommand_WhenCheckoutComRejectsTheRequest_ShouldFailTheCommandWithoutRetrying() {
+        final CheckoutComInstrumentCommandModel command = createCommand(CheckoutComInstrumentCommandType.UPDATE);
+        doReturn(CompletableFuture.failedFuture(new CheckoutApiException(422, Map.of(), Map.of()))).when(instrumentsClientMock)
+                .update(eq(INSTRUMENT_ID), any(UpdateInstrumentCardRequest.class));
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.FAILED);
+        assertThat(command.getAttempts()).isEqualTo(1);
+        verify(modelServiceMock).save(command);
+    }
+
+    private CheckoutComInstrumentCommandModel createCommand(final CheckoutComInstrumentCommandType type) {
+        final CheckoutComInstrumentCommandModel command = new CheckoutComInstrumentCommandModel();
+        command.setType(type);
+        command.setStatus(CheckoutComPaymentCommandStatus.IN_PROGRESS);
+        command.setInstrumentId(INSTRUMENT_ID);
+        command.setSiteUid(SITE_UID);
+        command.setAttempts(0);
+        return command;
+    }
+}
@@ -0,0 +1,159 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.enums.CheckoutComPayloadType;
+import com.checkout.hybris.core.enums.EnvironmentType;
+import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
+import com.checkout.hybris.core.model.CheckoutComPayloadJournalEntryModel;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.internal.dao.GenericDao;
+import de.hybris.platform.servicelayer.internal.dao.SortParameters;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.SessionService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComPayloadJournalService.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComPayloadJournalServiceTest {
+
+    private static final String PAYMENT_REFERENCE = "paymentReference";
+    private static final Map<String, String> REQUEST = Map.of("reference", PAYMENT_REFERENCE);
+    private static final Map<String, String> RESPONSE = Map.of("status", "Authorized");
+    private static final int QUEUE_CAPACITY = 1;
+
+    private DefaultCheckoutComPayloadJournalService testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private SessionService sessionServiceMock;
+    @Mock
+    private CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationServiceMock;
+    @Mock
+    private GenericDao<CheckoutComPayloadJournalEntryModel> checkoutComPayloadJournalEntryDaoMock;
+    @Mock
+    private ExecutorService writerMock;
+    @Mock
+    private CheckoutComPayloadJournalEntryModel journalEntryMock;
+    @Captor
+    private ArgumentCaptor<Collection<CheckoutComPayloadJournalEntryModel>> entriesCaptor;
+
+    @Before
+    public void setUp() {
+        testObj = spy(new DefaultCheckoutComPayloadJournalService(configurationServiceMock, modelServiceMock, sessionServiceMock,
+                checkoutComMerchantConfigurationServiceMock, checkoutComPayloadJournalEntryDaoMock));
+        lenient().doReturn(writerMock).when(testObj).createWriter();
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getBoolean(JOURNAL_ASYNC_ENABLED, true)).thenReturn(true);
+        lenient().when(configurationMock.getInt(JOURNAL_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY)).thenReturn(QUEUE_CAPACITY);
+        lenient().when(configurationMock.getInt(JOURNAL_BATCH_SIZE, DEFAULT_BATCH_SIZE)).thenReturn(DEFAULT_BATCH_SIZE);
+        lenient().when(checkoutComMerchantConfigurationServiceMock.getEnvironment()).thenReturn(EnvironmentType.PRODUCTION);
+        lenient().when(modelServiceMock.create(CheckoutComPayloadJournalEntryModel.class)).thenAnswer(invocation -> new CheckoutComPayloadJournalEntryModel());
+    }
+
+    @Test
+    public void journal_WhenQueueHasRoom_ShouldQueueThePayloadWithoutSavingIt() {
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.REQUEST, REQUEST);
+
+        verify(writerMock).execute(any(Runnable.class));
+        verifyNoInteractions(modelServiceMock);
+    }
+
+    @Test
+    public void journal_WhenQueueIsFull_ShouldSaveThePayloadSynchronously() {
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.REQUEST, REQUEST);
+
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.RESPONSE, RESPONSE);
+
+        verify(modelServiceMock).saveAll(entriesCaptor.capture());
+        final CheckoutComPayloadJournalEntryModel entry = entriesCaptor.getValue().iterator().next();
+        assertThat(entry.getPayloadType()).isEqualTo(CheckoutComPayloadType.RESPONSE);
+        assertThat(entry.getPayload()).isEqualTo("{\"status\":\"Authorized\"}");
+    }
+
+    @Test
+    public void journal_WhenAsyncDisabled_ShouldSaveThePayloadSynchronously() {
+        when(configurationMock.getBoolean(JOURNAL_ASYNC_ENABLED, true)).thenReturn(false);
+
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.REQUEST, REQUEST);
+
+        verify(modelServiceMock).saveAll(anyCollection());
+        verify(testObj, never()).createWriter();
+    }
+
+    @Test
+    public void journal_WhenPayloadIsNullOrReferenceIsBlank_ShouldDoNothing() {
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.RESPONSE, null);
+        testObj.journal(" ", CheckoutComPayloadType.RESPONSE, RESPONSE);
+
+        verifyNoInteractions(modelServiceMock, writerMock);
+    }
+
+    @Test
+    public void drainBatch_ShouldSaveTheQueuedPayloadsInOrderWithOneSave() throws InterruptedException {
+        when(configurationMock.getInt(JOURNAL_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY)).thenReturn(DEFAULT_QUEUE_CAPACITY);
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.REQUEST, REQUEST);
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.RESPONSE, RESPONSE);
+
+        final int result = testObj.drainBatch();
+
+        assertThat(result).isEqualTo(2);
+        verify(modelServiceMock).saveAll(entriesCaptor.capture());
+        assertThat(entriesCaptor.getValue()).extracting(CheckoutComPayloadJournalEntryModel::getPayloadType)
+                .containsExactly(CheckoutComPayloadType.REQUEST, CheckoutComPayloadType.RESPONSE);
+        assertThat(entriesCaptor.getValue()).extracting(CheckoutComPayloadJournalEntryModel::getPaymentReference)
+                .containsOnly(PAYMENT_REFERENCE);
+    }
+
+    @Test
+    public void savePayloads_WhenBatchCannotBeSaved_ShouldSaveTheEntriesOneByOne() {
+        doThrow(new ModelSavingException("error")).when(modelServiceMock).saveAll(anyCollection());
+
+        testObj.savePayloads(List.of(new PendingPayload(PAYMENT_REFERENCE, CheckoutComPayloadType.REQUEST, REQUEST, false),
+                new PendingPayload(PAYMENT_REFERENCE, CheckoutComPayloadType.RESPONSE, RESPONSE, false)));
+
+        verify(modelServiceMock, times(2)).save(any(CheckoutComPayloadJournalEntryModel.class));
+    }
+
+    @Test
+    public void getJournalEntries_ShouldFindTheEntriesOfThePaymentReferenceOldestFirst() {
+        when(checkoutComPayloadJournalEntryDaoMock.find(eq(Map.of(CheckoutComPayloadJournalEntryModel.PAYMENTREFERENCE, PAYMENT_REFERENCE)),
+                any(SortParameters.class))).thenReturn(List.of(journalEntryMock));
+
+        assertThat(testObj.getJournalEntries(PAYMENT_REFERENCE)).containsExactly(journalEntryMock);
+    }
+
+    @Test
+    public void destroy_ShouldStopQueueingAndWaitForTheWriter() throws InterruptedException {
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.REQUEST, REQUEST);
+        when(writerMock.awaitTermination(anyLong(), any())).thenReturn(true);
+
+        testObj.destroy();
+        testObj.journal(PAYMENT_REFERENCE, CheckoutComPayloadType.RESPONSE, RESPONSE);
+
+        verify(writerMock).shutdown();
+        verify(modelServiceMock).saveAll(anyCollection());
+    }
+}
@@ -0,0 +1,234 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComPaymentCommandDao;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentCommandService;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.user.EmployeeModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.session.Session;
+import de.hybris.platform.servicelayer.session.SessionService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.servicelayer.user.UserService;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComPaymentCommandDispatcher.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComPaymentCommandDispatcherTest {
+
+    private static final String SITE_UID = "electronics";
+    private static final String OTHER_SITE_UID = "apparel";
+    private static final Date NOW = new Date(1_000_000L);
+    private static final long IN_PROGRESS_TIMEOUT = 60L;
+    private static final Date STALE_BEFORE = new Date(NOW.getTime() - IN_PROGRESS_TIMEOUT * 1000L);
+    private static final int WORKERS = 2;
+
+    private DefaultCheckoutComPaymentCommandDispatcher testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private TimeService timeServiceMock;
+    @Mock
+    private SessionService sessionServiceMock;
+    @Mock
+    private UserService userServiceMock;
+    @Mock
+    private BaseSiteService baseSiteServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandService checkoutComPaymentCommandServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandDao checkoutComPaymentCommandDaoMock;
+    @Mock
+    private CheckoutComPaymentCommandModel firstCommandMock, secondCommandMock;
+    @Mock
+    private Session sessionMock;
+    @Mock
+    private EmployeeModel adminMock;
+    @Mock
+    private ExecutorService rejectingWorkersMock;
+    @Mock
+    private ScheduledExecutorService pollerMock;
+
+    private final DirectExecutorService directWorkers = new DirectExecutorService();
+
+    @Before
+    public void setUp() {
+        testObj = spy(new DefaultCheckoutComPaymentCommandDispatcher(configurationServiceMock, modelServiceMock, timeServiceMock,
+                sessionServiceMock, userServiceMock, baseSiteServiceMock, checkoutComPaymentCommandServiceMock, checkoutComPaymentCommandDaoMock));
+        lenient().doReturn(directWorkers).when(testObj).createWorkers(WORKERS);
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(key(DISPATCHER_WORKERS), DEFAULT_WORKERS)).thenReturn(WORKERS);
+        lenient().when(configurationMock.getInt(key(DISPATCHER_BATCH_SIZE), DEFAULT_BATCH_SIZE)).thenReturn(DEFAULT_BATCH_SIZE);
+        lenient().when(configurationMock.getLong(key(DISPATCHER_IN_PROGRESS_TIMEOUT), DEFAULT_IN_PROGRESS_TIMEOUT)).thenReturn(IN_PROGRESS_TIMEOUT);
+        lenient().when(configurationMock.getDouble(key(DISPATCHER_PERMITS_PER_SECOND), DEFAULT_PERMITS_PER_SECOND)).thenReturn(DEFAULT_PERMITS_PER_SECOND);
+        lenient().when(timeServiceMock.getCurrentTime()).thenReturn(NOW);
+        lenient().when(sessionServiceMock.createNewSession()).thenReturn(sessionMock);
+        lenient().when(userServiceMock.getAdminUser()).thenReturn(adminMock);
+
+        setUpCommand(firstCommandMock, 1L, SITE_UID);
+        setUpCommand(secondCommandMock, 2L, OTHER_SITE_UID);
+        lenient().when(checkoutComPaymentCommandDaoMock.findDueCommands(eq(NOW), any(Date.class), anyInt()))
+                .thenReturn(List.of(firstCommandMock, secondCommandMock));
+        lenient().when(checkoutComPaymentCommandDaoMock.claimCommand(any(CheckoutComPaymentCommandModel.class), eq(NOW), eq(STALE_BEFORE))).thenReturn(true);
+    }
+
+    @Test
+    public void dispatchDueCommands_ShouldClaimAndExecuteEachDueCommandWithTheSiteOfItsOrder() {
+        final int result = testObj.dispatchDueCommands();
+
+        assertThat(result).isEqualTo(2);
+        verify(checkoutComPaymentCommandDaoMock).claimCommand(firstCommandMock, NOW, STALE_BEFORE);
+        verify(checkoutComPaymentCommandDaoMock).claimCommand(secondCommandMock, NOW, STALE_BEFORE);
+        verify(baseSiteServiceMock).setCurrentBaseSite(SITE_UID, false);
+        verify(baseSiteServiceMock).setCurrentBaseSite(OTHER_SITE_UID, false);
+        verify(userServiceMock, times(2)).setCurrentUser(adminMock);
+        verify(checkoutComPaymentCommandServiceMock).executeCommand(firstCommandMock);
+        verify(checkoutComPaymentCommandServiceMock).executeCommand(secondCommandMock);
+        verify(sessionServiceMock, times(2)).closeSession(sessionMock);
+    }
+
+    @Test
+    public void dispatchDueCommands_ShouldLookForStaleCommandsInProgressUpToTheWorkerCapacity() {
+        testObj.dispatchDueCommands();
+
+        verify(checkoutComPaymentCommandDaoMock).findDueCommands(NOW, STALE_BEFORE, WORKERS);
+    }
+
+    @Test
+    public void dispatchDueCommands_WhenMerchantRateLimitIsReached_ShouldLeaveTheCommandPending() {
+        when(configurationMock.getDouble(key(DISPATCHER_PERMITS_PER_SECOND), DEFAULT_PERMITS_PER_SECOND)).thenReturn(0.001D);
+        setUpCommand(secondCommandMock, 2L, SITE_UID);
+
+        final int result = testObj.dispatchDueCommands();
+
+        assertThat(result).isEqualTo(1);
+        verify(checkoutComPaymentCommandServiceMock).executeCommand(firstCommandMock);
+        verify(checkoutComPaymentCommandDaoMock, never()).claimCommand(eq(secondCommandMock), any(Date.class), any(Date.class));
+        verify(checkoutComPaymentCommandServiceMock, never()).executeCommand(secondCommandMock);
+    }
+
+    @Test
+    public void dispatchDueCommands_WhenCommandIsClaimedByAnotherDispatcher_ShouldSkipIt() {
+        when(checkoutComPaymentCommandDaoMock.claimCommand(firstCommandMock, NOW, STALE_BEFORE)).thenReturn(false);
+
+        final int result = testObj.dispatchDueCommands();
+
+        assertThat(result).isEqualTo(1);
+        verify(checkoutComPaymentCommandServiceMock, never()).executeCommand(firstCommandMock);
+        verify(checkoutComPaymentCommandServiceMock).executeCommand(secondCommandMock);
+    }
+
+    @Test
+    public void dispatchDueCommands_WhenWorkersRejectTheCommand_ShouldReleaseIt() {
+        doReturn(rejectingWorkersMock).when(testObj).createWorkers(WORKERS);
+        doThrow(new RejectedExecutionException()).when(rejectingWorkersMock).execute(any(Runnable.class));
+
+        final int result = testObj.dispatchDueCommands();
+
+        assertThat(result).isZero();
+        verify(checkoutComPaymentCommandDaoMock).releaseCommand(firstCommandMock);
+        verify(checkoutComPaymentCommandDaoMock).releaseCommand(secondCommandMock);
+        verifyNoInteractions(checkoutComPaymentCommandServiceMock);
+    }
+
+    @Test
+    public void dispatchDueCommands_WhenExecutionFails_ShouldReleaseTheWorkerAndCloseTheSession() {
+        doThrow(new IllegalStateException("error")).when(checkoutComPaymentCommandServiceMock).executeCommand(firstCommandMock);
+
+        testObj.dispatchDueCommands();
+        testObj.dispatchDueCommands();
+
+        verify(sessionServiceMock, times(4)).closeSession(sessionMock);
+        verify(checkoutComPaymentCommandDaoMock, times(2)).findDueCommands(eq(NOW), any(Date.class), eq(WORKERS));
+    }
+
+    @Test
+    public void afterPropertiesSet_WhenDispatcherIsNotEnabled_ShouldNotStartPolling() {
+        when(configurationMock.getBoolean(key(DISPATCHER_ENABLED), DEFAULT_ENABLED)).thenReturn(false);
+
+        testObj.afterPropertiesSet();
+
+        verify(testObj, never()).startPoller();
+    }
+
+    @Test
+    public void afterPropertiesSet_WhenDispatcherIsEnabled_ShouldStartPolling() {
+        when(configurationMock.getBoolean(key(DISPATCHER_ENABLED), DEFAULT_ENABLED)).thenReturn(true);
+        when(configurationMock.getLong(key(DISPATCHER_POLL_INTERVAL), DEFAULT_POLL_INTERVAL)).thenReturn(DEFAULT_POLL_INTERVAL);
+        doReturn(pollerMock).when(testObj).createPoller();
+
+        testObj.afterPropertiesSet();
+
+        verify(pollerMock).scheduleWithFixedDelay(any(Runnable.class), eq(DEFAULT_POLL_INTERVAL), eq(DEFAULT_POLL_INTERVAL), eq(TimeUnit.MILLISECONDS));
+    }
+
+    private static String key(final String property) {
+        return PROPERTY_PREFIX + "." + property;
+    }
+
+    private void setUpCommand(final CheckoutComPaymentCommandModel command, final long pk, final String siteUid) {
+        final PK commandPk = PK.fromLong(pk);
+        lenient().when(command.getPk()).thenReturn(commandPk);
+        lenient().when(command.getSiteUid()).thenReturn(siteUid);
+        lenient().when(modelServiceMock.get(commandPk)).thenReturn(command);
+    }
+
+    private static final class DirectExecutorService extends AbstractExecutorService {
+
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            // nothing to stop
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandStatus;
+import com.checkout.hybris.core.enums.CheckoutComPaymentCommandType;
+import com.checkout.hybris.core.model.CheckoutComPaymentCommandModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComPaymentCommandDao;
+import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentService;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.core.model.order.OrderModel;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+import de.hybris.platform.payment.model.PaymentTransactionModel;
+import de.hybris.platform.processengine.BusinessProcessService;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComPaymentCommandService.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComPaymentCommandServiceTest {
+
+    private static final String PROCESS_CODE = "processCode";
+    private static final String COMPLETION_EVENT = "processCode_CAPTURE_COMMAND";
+    private static final String SITE_UID = "electronics";
+    private static final BigDecimal AMOUNT = BigDecimal.TEN;
+    private static final Date NOW = new Date(1_000_000L);
+    private static final String TRANSACTION_CODE = "000180031716810579970";
+
+    private DefaultCheckoutComPaymentCommandService testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private TimeService timeServiceMock;
+    @Mock
+    private BusinessProcessService businessProcessServiceMock;
+    @Mock
+    private CheckoutComPaymentService paymentServiceMock;
+    @Mock
+    private CheckoutComPaymentTransactionService checkoutComPaymentTransactionServiceMock;
+    @Mock
+    private CheckoutComPaymentCommandDao checkoutComPaymentCommandDaoMock;
+    @Mock
+    private PaymentTransactionModel paymentTransactionMock;
+    @Mock
+    private PaymentTransactionEntryModel transactionEntryMock, authorizationEntryMock;
+    @Mock
+    private OrderModel orderMock;
+    @Mock
+    private BaseSiteModel siteMock;
+    @Mock
+    private CheckoutComPaymentCommandModel recordedCommandMock;
+
+    @Before
+    public void setUp() {
+        testObj = new DefaultCheckoutComPaymentCommandService(configurationServiceMock, modelServiceMock, timeServiceMock,
+                businessProcessServiceMock, paymentServiceMock, checkoutComPaymentTransactionServiceMock, checkoutComPaymentCommandDaoMock);
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(MAX_ATTEMPTS, DEFAULT_MAX_ATTEMPTS)).thenReturn(3);
+        lenient().when(configurationMock.getLong(INITIAL_BACKOFF, DEFAULT_INITIAL_BACKOFF)).thenReturn(5L);
+        lenient().when(configurationMock.getLong(MAX_BACKOFF, DEFAULT_MAX_BACKOFF)).thenReturn(30L);
+        lenient().when(timeServiceMock.getCurrentTime()).thenReturn(NOW);
+        lenient().when(modelServiceMock.create(CheckoutComPaymentCommandModel.class)).thenAnswer(invocation -> new CheckoutComPaymentCommandModel());
+        lenient().when(checkoutComPaymentCommandDaoMock.findCommandByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        lenient().when(paymentTransactionMock.getOrder()).thenReturn(orderMock);
+        lenient().when(orderMock.getSite()).thenReturn(siteMock);
+        lenient().when(siteMock.getUid()).thenReturn(SITE_UID);
+        lenient().when(paymentTransactionMock.getCode()).thenReturn(TRANSACTION_CODE);
+    }
+
+    @Test
+    public void submitCommand_WhenNotRecorded_ShouldSaveAPendingCommandDueNow() {
+        final CheckoutComPaymentCommandModel result = testObj.submitCommand(CheckoutComPaymentCommandType.REFUND, paymentTransactionMock,
+                AMOUNT, PROCESS_CODE, COMPLETION_EVENT);
+
+        verify(modelServiceMock).save(result);
+        assertThat(result.getType()).isEqualTo(CheckoutComPaymentCommandType.REFUND);
+        assertThat(result.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.PENDING);
+        assertThat(result.getPaymentTransaction()).isEqualTo(paymentTransactionMock);
+        assertThat(result.getAmount()).isEqualTo(AMOUNT);
+        assertThat(result.getSiteUid()).isEqualTo(SITE_UID);
+        assertThat(result.getCompletionEvent()).isEqualTo(COMPLETION_EVENT);
+        assertThat(result.getNextAttemptTime()).isEqualTo(NOW);
+        assertThat(result.getIdempotencyKey()).isEqualTo(testObj.createIdempotencyKey(CheckoutComPaymentCommandType.REFUND, PROCESS_CODE));
+    }
+
+    @Test
+    public void submitCommand_WhenAlreadyRecorded_ShouldReturnTheRecordedCommand() {
+        when(checkoutComPaymentCommandDaoMock.findCommandByIdempotencyKey(testObj.createIdempotencyKey(CheckoutComPaymentCommandType.CAPTURE, PROCESS_CODE)))
+                .thenReturn(Optional.of(recordedCommandMock));
+
+        final CheckoutComPaymentCommandModel result = testObj.submitCommand(CheckoutComPaymentCommandType.CAPTURE, paymentTransactionMock,
+                null, PROCESS_CODE, COMPLETION_EVENT);
+
+        assertThat(result).isEqualTo(recordedCommandMock);
+        verify(modelServiceMock, never()).save(any());
+    }
+
+    @Test
+    public void submitCommand_WhenRecordedConcurrently_ShouldReturnTheCommandRecordedFirst() {
+        final String idempotencyKey = testObj.createIdempotencyKey(CheckoutComPaymentCommandType.CAPTURE, PROCESS_CODE);
+        when(checkoutComPaymentCommandDaoMock.findCommandByIdempotencyKey(idempotencyKey))
+                .thenReturn(Optional.empty(), Optional.of(recordedCommandMock));
+        doThrow(new ModelSavingException("duplicate")).when(modelServiceMock).save(any(CheckoutComPaymentCommandModel.class));
+
+        final CheckoutComPaymentCommandModel result = testObj.submitCommand(CheckoutComPaymentCommandType.CAPTURE, paymentTransactionMock,
+                null, PROCESS_CODE, COMPLETION_EVENT);
+
+        assertThat(result).isEqualTo(recordedCommandMock);
+    }
+
+    @Test
+    public void createIdempotencyKey_ShouldBeStablePerProcessAndType() {
+        assertThat(testObj.createIdempotencyKey(CheckoutComPaymentCommandType.CAPTURE, PROCESS_CODE))
+                .isEqualTo(testObj.createIdempotencyKey(CheckoutComPaymentCommandType.CAPTURE, PROCESS_CODE))
+                .isNotEqualTo(testObj.createIdempotencyKey(CheckoutComPaymentCommandType.VOID, PROCESS_CODE))
+                .isNotEqualTo(testObj.createIdempotencyKey(CheckoutComPaymentCommandType.CAPTURE, "otherProcessCode"));
+    }
+
+    @Test
+    public void executeCommand_WhenCaptureSucceeds_ShouldCompleteTheCommandAndTriggerTheEvent() {
+        final CheckoutComPaymentCommandModel command = createCommand(CheckoutComPaymentCommandType.CAPTURE, 0);
+        when(paymentServiceMock.capture(paymentTransactionMock, testObj.getTransactionEntryCode(command))).thenReturn(transactionEntryMock);
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.COMPLETED);
+        assertThat(command.getTransactionEntry()).isEqualTo(transactionEntryMock);
+        assertThat(command.getAttempts()).isEqualTo(1);
+        verify(modelServiceMock).save(command);
+        verify(businessProcessServiceMock).triggerEvent(COMPLETION_EVENT);
+    }
+
+    @Test
+    public void executeCommand_WhenRefund_ShouldRefundTheCommandAmount() {
+        final CheckoutComPaymentCommandModel command = createCommand(CheckoutComPaymentCommandType.REFUND, 0);
+        when(paymentServiceMock.refundFollowOn(paymentTransactionMock, AMOUNT, testObj.getTransactionEntryCode(command))).thenReturn(transactionEntryMock);
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getTransactionEntry()).isEqualTo(transactionEntryMock);
+        verify(paymentServiceMock).refundFollowOn(paymentTransactionMock, AMOUNT, testObj.getTransactionEntryCode(command));
+    }
+
+    @Test
+    public void executeCommand_WhenVoid_ShouldCancelTheAcceptedAuthorization() {
+        final CheckoutComPaymentCommandModel command = createCommand(CheckoutComPaymentCommandType.VOID, 0);
+        when(checkoutComPaymentTransactionServiceMock.findAcceptedAuthorizationEntry(paymentTransactionMock)).thenReturn(Optional.of(authorizationEntryMock));
+        when(paymentServiceMock.cancel(authorizationEntryMock, testObj.getTransactionEntryCode(command))).thenReturn(transactionEntryMock);
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.COMPLETED);
+        assertThat(command.getTransactionEntry()).isEqualTo(transactionEntryMock);
+    }
+
+    @Test
+    public void executeCommand_WhenIntegrationFails_ShouldRescheduleTheCommandWithBackoffWithoutTriggeringTheEvent() {
+        final CheckoutComPaymentCommandModel command = createCommand(CheckoutComPaymentCommandType.CAPTURE, 1);
+        when(paymentServiceMock.capture(paymentTransactionMock, testObj.getTransactionEntryCode(command))).thenThrow(new CheckoutComPaymentIntegrationException("timeout"));
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.PENDING);
+        assertThat(command.getAttempts()).isEqualTo(2);
+        assertThat(command.getLastError()).isEqualTo("timeout");
+        assertThat(command.getNextAttemptTime()).isEqualTo(new Date(NOW.getTime() + 10_000L));
+        verify(modelServiceMock).save(command);
+        verifyNoInteractions(businessProcessServiceMock);
+    }
+
+    @Test
+    public void executeCommand_WhenIntegrationFailsOnTheLastAttempt_ShouldFailTheCommandAndTriggerTheEvent() {
+        final CheckoutComPaymentCommandModel command = createCommand(CheckoutComPaymentCommandType.CAPTURE, 2);
+        when(paymentServiceMock.capture(paymentTransactionMock, testObj.getTransactionEntryCode(command))).thenThrow(new CheckoutComPaymentIntegrationException("timeout"));
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.FAILED);
+        verify(businessProcessServiceMock).triggerEvent(COMPLETION_EVENT);
+    }
+
+    @Test
+    public void executeCommand_WhenUnexpectedError_ShouldFailTheCommandAndTriggerTheEvent() {
+        final CheckoutComPaymentCommandModel command = createCommand(CheckoutComPaymentCommandType.VOID, 0);
+        when(checkoutComPaymentTransactionServiceMock.findAcceptedAuthorizationEntry(paymentTransactionMock)).thenReturn(Optional.empty());
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.FAILED);
+        verify(businessProcessServiceMock).triggerEvent(COMPLETION_EVENT);
+        verify(paymentServiceMock, never()).cancel(any(PaymentTransactionEntryModel.class), anyString());
+    }
+
+    @Test
+    public void executeCommand_WhenTheEntryOfTheCommandIsAlreadyRecorded_ShouldCompleteTheCommandWithoutSendingItAgain() {
+        final CheckoutComPaymentCommandModel command = createCommand(CheckoutComPaymentCommandType.REFUND, 1);
+        when(transactionEntryMock.getCode()).thenReturn(testObj.getTransactionEntryCode(command));
+        when(paymentTransactionMock.getEntries()).thenReturn(List.of(authorizationEntryMock, transactionEntryMock));
+
+        testObj.executeCommand(command);
+
+        assertThat(command.getStatus()).isEqualTo(CheckoutComPaymentCommandStatus.COMPLETED);
+        assertThat(command.getTransactionEntry()).isEqualTo(transactionEntryMock);
+        verify(paymentServiceMock, never()).refundFollowOn(any(PaymentTransactionModel.class), any(BigDecimal.class), anyString());
+        verify(businessProcessServiceMock).triggerEvent(COMPLETION_EVENT);
+    }
+
+    @Test
+    public void getTransactionEntryCode_ShouldBeDerivedFromTheIdempotencyKeyOfTheCommandInThePlatformFormat() {
+        final CheckoutComPaymentCommandModel capture = createCommand(CheckoutComPaymentCommandType.CAPTURE, 0);
+        final CheckoutComPaymentCommandModel refund = createCommand(CheckoutComPaymentCommandType.REFUND, 0);
+        final CheckoutComPaymentCommandModel voidCommand = createCommand(CheckoutComPaymentCommandType.VOID, 3);
+
+        assertThat(testObj.getTransactionEntryCode(capture))
+                .isEqualTo(testObj.getTransactionEntryCode(createCommand(CheckoutComPaymentCommandType.CAPTURE, 2)))
+                .matches(TRANSACTION_CODE + "-CAPTURE-\\d+");
+        assertThat(testObj.getTransactionEntryCode(refund)).matches(TRANSACTION_CODE + "-REFUND_FOLLOW_ON-\\d+");
+        assertThat(testObj.getTransactionEntryCode(voidCommand)).matches(TRANSACTION_CODE + "-CANCEL-\\d+");
+    }
+
+    @Test
+    public void getBackoffSeconds_ShouldDoubleEachAttemptUpToTheMaximum() {
+        assertThat(testObj.getBackoffSeconds(1)).isEqualTo(5L);
+        assertThat(testObj.getBackoffSeconds(2)).isEqualTo(10L);
+        assertThat(testObj.getBackoffSeconds(3)).isEqualTo(20L);
+        assertThat(testObj.getBackoffSeconds(4)).isEqualTo(30L);
+        assertThat(testObj.getBackoffSeconds(100)).isEqualTo(30L);
+    }
+
+    private CheckoutComPaymentCommandModel createCommand(final CheckoutComPaymentCommandType type, final int attempts) {
+        final CheckoutComPaymentCommandModel command = new CheckoutComPaymentCommandModel();
+        command.setIdempotencyKey(testObj.createIdempotencyKey(type, PROCESS_CODE));
+        command.setType(type);
+        command.setStatus(CheckoutComPaymentCommandStatus.IN_PROGRESS);
+        command.setPaymentTransaction(paymentTransactionMock);
+        command.setAmount(AMOUNT);
+        command.setProcessCode(PROCESS_CODE);
+        command.setCompletionEvent(COMPLETION_EVENT);
+        command.setAttempts(attempts);
+        return command;
+    }
+}
@@ -0,0 +1,182 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.model.CheckoutComPaymentIdMappingModel;
+import com.checkout.hybris.core.order.daos.CheckoutComOrderDao;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.core.PK;
+import de.hybris.platform.core.model.order.CartModel;
+import de.hybris.platform.core.model.order.OrderModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.exceptions.ModelSavingException;
+import de.hybris.platform.servicelayer.internal.dao.GenericDao;
+import de.hybris.platform.servicelayer.model.ModelService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComPaymentIdMappingService.DEFAULT_MAPPING_CACHE_MAX_SIZE;
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComPaymentIdMappingService.MAPPING_CACHE_MAX_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComPaymentIdMappingServiceTest {
+
+    private static final String PAYMENT_ID = "pay_123";
+    private static final String OTHER_PAYMENT_ID = "pay_456";
+    private static final String PAYMENT_REFERENCE = "paymentReference";
+    private static final String SITE_ID = "electronics";
+    private static final PK CART_PK = PK.fromLong(1L);
+    private static final PK ORDER_PK = PK.fromLong(2L);
+    private static final Map<String, String> PAYMENT_ID_PARAMS = Map.of(CheckoutComPaymentIdMappingModel.PAYMENTID, PAYMENT_ID);
+
+    private DefaultCheckoutComPaymentIdMappingService testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private CheckoutComOrderDao checkoutComOrderDaoMock;
+    @Mock
+    private GenericDao<CheckoutComPaymentIdMappingModel> checkoutComPaymentIdMappingDaoMock;
+    @Mock
+    private CartModel cartMock;
+    @Mock
+    private OrderModel orderMock;
+    @Mock
+    private BaseSiteModel siteMock;
+
+    private CheckoutComPaymentIdMappingModel mapping;
+
+    @Before
+    public void setUp() {
+        testObj = new DefaultCheckoutComPaymentIdMappingService(configurationServiceMock, modelServiceMock, checkoutComOrderDaoMock,
+                checkoutComPaymentIdMappingDaoMock);
+
+        mapping = new CheckoutComPaymentIdMappingModel();
+        mapping.setPaymentId(PAYMENT_ID);
+        mapping.setPaymentReference(PAYMENT_REFERENCE);
+        mapping.setSiteUid(SITE_ID);
+        mapping.setAbstractOrder(cartMock);
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(MAPPING_CACHE_MAX_SIZE, DEFAULT_MAPPING_CACHE_MAX_SIZE)).thenReturn(DEFAULT_MAPPING_CACHE_MAX_SIZE);
+        lenient().when(modelServiceMock.create(CheckoutComPaymentIdMappingModel.class)).thenAnswer(invocation -> new CheckoutComPaymentIdMappingModel());
+        lenient().when(cartMock.getPk()).thenReturn(CART_PK);
+        lenient().when(cartMock.getCheckoutComPaymentReference()).thenReturn(PAYMENT_REFERENCE);
+        lenient().when(cartMock.getSite()).thenReturn(siteMock);
+        lenient().when(orderMock.getPk()).thenReturn(ORDER_PK);
+        lenient().when(siteMock.getUid()).thenReturn(SITE_ID);
+        lenient().when(checkoutComPaymentIdMappingDaoMock.find(PAYMENT_ID_PARAMS)).thenReturn(List.of(mapping));
+        lenient().when(modelServiceMock.get(CART_PK)).thenReturn(cartMock);
+        lenient().when(modelServiceMock.get(ORDER_PK)).thenReturn(orderMock);
+    }
+
+    @Test
+    public void registerPaymentId_WhenNotMappedYet_ShouldSaveANewMappingOfTheCart() {
+        testObj.registerPaymentId(OTHER_PAYMENT_ID, cartMock);
+
+        verify(modelServiceMock).save(argThat(saved -> saved instanceof CheckoutComPaymentIdMappingModel
+                && OTHER_PAYMENT_ID.equals(((CheckoutComPaymentIdMappingModel) saved).getPaymentId())
+                && cartMock.equals(((CheckoutComPaymentIdMappingModel) saved).getAbstractOrder())
+                && PAYMENT_REFERENCE.equals(((CheckoutComPaymentIdMappingModel) saved).getPaymentReference())
+                && SITE_ID.equals(((CheckoutComPaymentIdMappingModel) saved).getSiteUid())));
+        assertThat(testObj.getMappings()).containsKey(OTHER_PAYMENT_ID);
+    }
+
+    @Test
+    public void registerPaymentId_WhenAlreadyMapped_ShouldUpdateTheExistingMapping() {
+        testObj.registerPaymentId(PAYMENT_ID, cartMock);
+
+        verify(modelServiceMock).save(mapping);
+        verify(modelServiceMock, never()).create(CheckoutComPaymentIdMappingModel.class);
+    }
+
+    @Test
+    public void registerPaymentId_WhenMappingCannotBeSaved_ShouldNotCacheIt() {
+        doThrow(new ModelSavingException("error")).when(modelServiceMock).save(any());
+
+        testObj.registerPaymentId(OTHER_PAYMENT_ID, cartMock);
+
+        assertThat(testObj.getMappings()).isEmpty();
+    }
+
+    @Test
+    public void registerPaymentId_WhenPaymentIdIsBlank_ShouldThrowException() {
+        assertThatThrownBy(() -> testObj.registerPaymentId(" ", cartMock)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void findSiteUid_ShouldLoadTheMappingOnlyOnce() {
+        assertThat(testObj.findSiteUid(PAYMENT_ID)).contains(SITE_ID);
+        assertThat(testObj.findSiteUid(PAYMENT_ID)).contains(SITE_ID);
+
+        verify(checkoutComPaymentIdMappingDaoMock).find(PAYMENT_ID_PARAMS);
+    }
+
+    @Test
+    public void findSiteUid_WhenPaymentIdIsNotMapped_ShouldReturnEmpty() {
+        when(checkoutComPaymentIdMappingDaoMock.find(PAYMENT_ID_PARAMS)).thenReturn(Collections.emptyList());
+
+        assertThat(testObj.findSiteUid(PAYMENT_ID)).isEmpty();
+    }
+
+    @Test
+    public void findAbstractOrder_WhenOrderPlacedFromTheMappedCart_ShouldMapThePaymentIdToTheOrder() {
+        when(checkoutComOrderDaoMock.findAbstractOrderForPaymentReferenceNumber(PAYMENT_REFERENCE)).thenReturn(Optional.of(orderMock));
+
+        assertThat(testObj.findAbstractOrder(PAYMENT_ID)).contains(orderMock);
+        assertThat(testObj.findAbstractOrder(PAYMENT_ID)).contains(orderMock);
+
+        assertThat(mapping.getAbstractOrder()).isEqualTo(orderMock);
+        verify(modelServiceMock).save(mapping);
+        verify(checkoutComOrderDaoMock).findAbstractOrderForPaymentReferenceNumber(PAYMENT_REFERENCE);
+    }
+
+    @Test
+    public void findAbstractOrder_WhenOrderNotPlacedYet_ShouldReturnTheCart() {
+        when(checkoutComOrderDaoMock.findAbstractOrderForPaymentReferenceNumber(PAYMENT_REFERENCE)).thenReturn(Optional.of(cartMock));
+
+        assertThat(testObj.findAbstractOrder(PAYMENT_ID)).contains(cartMock);
+
+        verify(modelServiceMock, never()).save(any());
+    }
+
+    @Test
+    public void findAbstractOrder_WhenPaymentReferenceNotFound_ShouldLoadTheMappedCart() {
+        when(checkoutComOrderDaoMock.findAbstractOrderForPaymentReferenceNumber(PAYMENT_REFERENCE)).thenReturn(Optional.empty());
+
+        assertThat(testObj.findAbstractOrder(PAYMENT_ID)).contains(cartMock);
+    }
+
+    @Test
+    public void findAbstractOrder_WhenPaymentIdIsNotMapped_ShouldReturnEmpty() {
+        assertThat(testObj.findAbstractOrder(OTHER_PAYMENT_ID)).isEmpty();
+
+        verifyNoInteractions(checkoutComOrderDaoMock);
+    }
+
+    @Test
+    public void getMapping_WhenCacheIsFull_ShouldEvictTheLeastRecentlyUsedMapping() {
+        when(configurationMock.getInt(MAPPING_CACHE_MAX_SIZE, DEFAULT_MAPPING_CACHE_MAX_SIZE)).thenReturn(1);
+        testObj.findSiteUid(PAYMENT_ID);
+
+        testObj.registerPaymentId(OTHER_PAYMENT_ID, cartMock);
+
+        assertThat(testObj.getMappings()).containsOnlyKeys(OTHER_PAYMENT_ID);
+    }
+}
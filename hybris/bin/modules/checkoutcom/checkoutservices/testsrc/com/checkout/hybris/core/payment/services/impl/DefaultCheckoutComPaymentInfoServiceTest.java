@@ -6,6 +6,7 @@ import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurati
 import com.checkout.hybris.core.model.*;
 import com.checkout.hybris.core.order.daos.CheckoutComOrderDao;
 import com.checkout.hybris.core.payment.daos.CheckoutComPaymentInfoDao;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentIdMappingService;
 import com.checkout.payments.response.source.CardResponseSource;
 import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.commerceservices.service.data.CommerceCheckoutParameter;
@@ -60,6 +61,8 @@ public class DefaultCheckoutComPaymentInfoServiceTest {
     private CheckoutComMerchantConfigurationService checkoutComMerchantConfigurationServiceMock;
     @Mock
     private CheckoutComOrderDao checkoutComOrderDaoMock;
+    @Mock
+    private CheckoutComPaymentIdMappingService checkoutComPaymentIdMappingServiceMock;
 
     @Mock
     private CartModel cartModelMock;
@@ -392,6 +395,24 @@ public class DefaultCheckoutComPaymentInfoServiceTest {
         inOrder.verify(modelServiceMock).save(cardPaymentInfoMock);
     }
 
+    @Test
+    public void addPaymentId_WhenPaymentInfoOwnedByCart_ShouldMapThePaymentIdToTheCart() {
+        when(cardPaymentInfoMock.getOwner()).thenReturn(cartModelMock);
+
+        testObj.addPaymentId(PAYMENT_1_CODE, cardPaymentInfoMock);
+
+        final InOrder inOrder = inOrder(modelServiceMock, checkoutComPaymentIdMappingServiceMock);
+        inOrder.verify(modelServiceMock).save(cardPaymentInfoMock);
+        inOrder.verify(checkoutComPaymentIdMappingServiceMock).registerPaymentId(PAYMENT_1_CODE, cartModelMock);
+    }
+
+    @Test
+    public void addPaymentId_WhenPaymentInfoNotOwnedByAbstractOrder_ShouldNotMapThePaymentId() {
+        testObj.addPaymentId(PAYMENT_1_CODE, cardPaymentInfoMock);
+
+        verifyNoInteractions(checkoutComPaymentIdMappingServiceMock);
+    }
+
     @Test
     public void addPaymentId_WhenPaymentInfoIsNull_ShouldThrowException() {
         assertThatThrownBy(() -> testObj.addPaymentId(PAYMENT_1_CODE, null)).isInstanceOf(IllegalArgumentException.class);
@@ -417,6 +438,16 @@ public class DefaultCheckoutComPaymentInfoServiceTest {
         Assertions.assertEquals(SITE_ID, result);
     }
 
+    @Test
+    public void getSiteIdFromPaymentId_WhenPaymentIdIsMapped_ShouldNotSearchThePaymentInfos() {
+        when(checkoutComPaymentIdMappingServiceMock.findSiteUid(PAYMENT_1_CODE)).thenReturn(Optional.of(SITE_ID));
+
+        final String result = testObj.getSiteIdFromPaymentId(PAYMENT_1_CODE);
+
+        Assertions.assertEquals(SITE_ID, result);
+        verifyNoInteractions(checkoutComPaymentInfoDaoMock);
+    }
+
     @Test
     public void getSiteIdFromPaymentId_WhenPaymentIdDoesNotBelongToAbstractOrder_ShouldReturnEmptyString() {
         when(checkoutComPaymentInfoDaoMock.findPaymentInfosByPaymentId(PAYMENT_1_CODE)).thenReturn(Collections.emptyList());
@@ -434,6 +465,16 @@ public class DefaultCheckoutComPaymentInfoServiceTest {
         Assertions.assertEquals(orderMock, result.get(0));
     }
 
+    @Test
+    public void findAbstractOrderByPaymentId_WhenPaymentIdIsMapped_ShouldNotSearchThePaymentInfos() {
+        when(checkoutComPaymentIdMappingServiceMock.findAbstractOrder(PAYMENT_1_CODE)).thenReturn(Optional.of(orderMock));
+
+        final List<AbstractOrderModel> result = testObj.findAbstractOrderByPaymentId(PAYMENT_1_CODE);
+
+        Assertions.assertEquals(List.of(orderMock), result);
+        verifyNoInteractions(checkoutComPaymentInfoDaoMock);
+    }
+
     @Test
     public void findAbstractOrderByPaymentId_WhenPaymentIdDoesNotBelongToAbstractOrder_ShouldReturnEmptyString() {
         when(checkoutComPaymentInfoDaoMock.findPaymentInfosByPaymentId(PAYMENT_1_CODE)).thenReturn(List.of(cardPaymentInfoMock));
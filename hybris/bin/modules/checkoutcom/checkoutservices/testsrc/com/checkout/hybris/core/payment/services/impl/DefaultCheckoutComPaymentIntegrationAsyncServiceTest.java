@@ -0,0 +1,266 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.CheckoutApi;
+import com.checkout.CheckoutApiException;
+import com.checkout.hybris.core.model.CheckoutComKlarnaAPMPaymentInfoModel;
+import com.checkout.hybris.core.order.daos.CheckoutComOrderDao;
+import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.services.CheckoutComApiService;
+import com.checkout.hybris.core.payment.services.CheckoutComPaymentIntegrationService;
+import com.checkout.payments.CaptureRequest;
+import com.checkout.payments.CaptureResponse;
+import com.checkout.payments.PaymentsClient;
+import com.checkout.payments.RefundRequest;
+import com.checkout.payments.RefundResponse;
+import com.checkout.payments.VoidRequest;
+import com.checkout.payments.VoidResponse;
+import com.checkout.payments.request.PaymentRequest;
+import com.checkout.payments.response.PaymentResponse;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.model.order.payment.PaymentInfoModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.session.SessionExecutionBody;
+import de.hybris.platform.servicelayer.session.SessionService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static com.checkout.hybris.core.payment.services.impl.DefaultCheckoutComPaymentIntegrationAsyncService.ASYNC_TIMEOUT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComPaymentIntegrationAsyncServiceTest {
+
+    private static final String PAYMENT_ID = "paymentId";
+    private static final String PAYMENT_REFERENCE = "paymentReference";
+    private static final String IDEMPOTENCY_KEY = "idempotencyKey";
+    private static final long TIMEOUT = 1000L;
+
+    @InjectMocks
+    private DefaultCheckoutComPaymentIntegrationAsyncService testObj;
+
+    @Mock
+    private CheckoutComApiService checkoutComApiServiceMock;
+    @Mock
+    private CheckoutComPaymentIntegrationService checkoutComPaymentIntegrationServiceMock;
+    @Mock
+    private CheckoutComOrderDao orderDaoMock;
+    @Mock
+    private SessionService sessionServiceMock;
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private CheckoutApi checkoutApiMock;
+    @Mock
+    private PaymentsClient paymentsClientMock;
+    @Mock
+    private PaymentRequest paymentRequestMock;
+    @Mock
+    private PaymentResponse paymentResponseMock;
+    @Mock
+    private CaptureRequest captureRequestMock;
+    @Mock
+    private CaptureResponse captureResponseMock;
+    @Mock
+    private RefundRequest refundRequestMock;
+    @Mock
+    private RefundResponse refundResponseMock;
+    @Mock
+    private VoidRequest voidRequestMock;
+    @Mock
+    private VoidResponse voidResponseMock;
+    @Mock
+    private PaymentInfoModel paymentInfoMock;
+    @Mock
+    private CheckoutComKlarnaAPMPaymentInfoModel klarnaPaymentInfoMock;
+
+    @Before
+    public void setUp() {
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getLong(eq(ASYNC_TIMEOUT), anyLong())).thenReturn(TIMEOUT);
+        lenient().when(checkoutComApiServiceMock.createCheckoutApi()).thenReturn(checkoutApiMock);
+        lenient().when(checkoutApiMock.paymentsClient()).thenReturn(paymentsClientMock);
+        lenient().when(sessionServiceMock.executeInLocalView(any(SessionExecutionBody.class)))
+                .thenAnswer(invocation -> ((SessionExecutionBody) invocation.getArgument(0)).execute());
+        lenient().when(orderDaoMock.findAbstractOrderForPaymentReferenceNumber(PAYMENT_REFERENCE)).thenReturn(Optional.empty());
+        lenient().when(captureRequestMock.getReference()).thenReturn(PAYMENT_REFERENCE);
+        lenient().when(refundRequestMock.getReference()).thenReturn(PAYMENT_REFERENCE);
+        lenient().when(voidRequestMock.getReference()).thenReturn(PAYMENT_REFERENCE);
+    }
+
+    @Test
+    public void authorizePaymentAsync_ShouldReturnTheResponseWithoutBlocking() throws Exception {
+        final CompletableFuture<PaymentResponse> sdkFuture = new CompletableFuture<>();
+        when(paymentsClientMock.requestPayment(paymentRequestMock)).thenReturn(sdkFuture);
+
+        final CompletableFuture<PaymentResponse> result = testObj.authorizePaymentAsync(paymentRequestMock);
+
+        assertThat(result).isNotDone();
+        sdkFuture.complete(paymentResponseMock);
+        assertThat(result.get()).isSameAs(paymentResponseMock);
+    }
+
+    @Test
+    public void authorizePaymentAsync_WhenSdkFails_ShouldCompleteWithIntegrationException() {
+        final CheckoutApiException apiException = new CheckoutApiException(500, null, Map.of());
+        when(paymentsClientMock.requestPayment(paymentRequestMock)).thenReturn(CompletableFuture.failedFuture(apiException));
+
+        final CompletableFuture<PaymentResponse> result = testObj.authorizePaymentAsync(paymentRequestMock);
+
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CheckoutComPaymentIntegrationException.class)
+                .hasRootCause(apiException);
+    }
+
+    @Test
+    public void authorizePaymentAsync_WhenNoAnswerWithinTimeout_ShouldCompleteWithIntegrationException() {
+        when(configurationMock.getLong(eq(ASYNC_TIMEOUT), anyLong())).thenReturn(10L);
+        when(paymentsClientMock.requestPayment(paymentRequestMock)).thenReturn(new CompletableFuture<>());
+
+        final CompletableFuture<PaymentResponse> result = testObj.authorizePaymentAsync(paymentRequestMock);
+
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CheckoutComPaymentIntegrationException.class)
+                .hasRootCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    public void authorizePaymentAsync_WhenCancelled_ShouldCancelTheSdkCall() {
+        final CompletableFuture<PaymentResponse> sdkFuture = new CompletableFuture<>();
+        when(paymentsClientMock.requestPayment(paymentRequestMock)).thenReturn(sdkFuture);
+
+        testObj.authorizePaymentAsync(paymentRequestMock).cancel(true);
+
+        assertThat(sdkFuture).isCancelled();
+    }
+
+    @Test
+    public void capturePaymentAsync_WhenCardPayment_ShouldCaptureThroughTheSdk() throws Exception {
+        when(checkoutComPaymentIntegrationServiceMock.getPaymentInfoForPaymentId(PAYMENT_ID)).thenReturn(paymentInfoMock);
+        when(paymentsClientMock.capturePayment(PAYMENT_ID, captureRequestMock)).thenReturn(CompletableFuture.completedFuture(captureResponseMock));
+
+        final CompletableFuture<CaptureResponse> result = testObj.capturePaymentAsync(captureRequestMock, PAYMENT_ID);
+
+        assertThat(result.get()).isSameAs(captureResponseMock);
+        verify(sessionServiceMock).setAttribute("currentSite", null);
+        verify(checkoutComPaymentIntegrationServiceMock, never()).capturePayment(any(CaptureRequest.class), anyString(), any());
+    }
+
+    @Test
+    public void capturePaymentAsync_WhenIdempotencyKeyIsGiven_ShouldSendItWithTheCapture() throws Exception {
+        when(checkoutComPaymentIntegrationServiceMock.getPaymentInfoForPaymentId(PAYMENT_ID)).thenReturn(paymentInfoMock);
+        when(paymentsClientMock.capturePayment(PAYMENT_ID, captureRequestMock, IDEMPOTENCY_KEY)).thenReturn(CompletableFuture.completedFuture(captureResponseMock));
+
+        final CompletableFuture<CaptureResponse> result = testObj.capturePaymentAsync(captureRequestMock, PAYMENT_ID, IDEMPOTENCY_KEY);
+
+        assertThat(result.get()).isSameAs(captureResponseMock);
+    }
+
+    @Test
+    public void capturePaymentAsync_WhenPaymentHasNoPaymentInfo_ShouldCompleteWithIntegrationExceptionWithoutCallingCheckoutCom() {
+        final CheckoutComPaymentIntegrationException notFoundException = new CheckoutComPaymentIntegrationException("not found");
+        when(checkoutComPaymentIntegrationServiceMock.getPaymentInfoForPaymentId(PAYMENT_ID)).thenThrow(notFoundException);
+
+        final CompletableFuture<CaptureResponse> result = testObj.capturePaymentAsync(captureRequestMock, PAYMENT_ID);
+
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CheckoutComPaymentIntegrationException.class)
+                .hasRootCause(notFoundException);
+        verifyNoInteractions(paymentsClientMock);
+    }
+
+    @Test
+    public void capturePaymentAsync_WhenKlarnaPayment_ShouldDelegateToTheIntegrationService() throws Exception {
+        when(checkoutComPaymentIntegrationServiceMock.getPaymentInfoForPaymentId(PAYMENT_ID)).thenReturn(klarnaPaymentInfoMock);
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequestMock, PAYMENT_ID, null)).thenReturn(captureResponseMock);
+
+        final CompletableFuture<CaptureResponse> result = testObj.capturePaymentAsync(captureRequestMock, PAYMENT_ID);
+
+        assertThat(result.get()).isSameAs(captureResponseMock);
+        verifyNoInteractions(paymentsClientMock);
+    }
+
+    @Test
+    public void capturePaymentAsync_WhenKlarnaCaptureFails_ShouldCompleteWithIntegrationException() throws Exception {
+        final ExecutionException executionException = new ExecutionException(new RuntimeException());
+        when(checkoutComPaymentIntegrationServiceMock.getPaymentInfoForPaymentId(PAYMENT_ID)).thenReturn(klarnaPaymentInfoMock);
+        when(checkoutComPaymentIntegrationServiceMock.capturePayment(captureRequestMock, PAYMENT_ID, null)).thenThrow(executionException);
+
+        final CompletableFuture<CaptureResponse> result = testObj.capturePaymentAsync(captureRequestMock, PAYMENT_ID);
+
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CheckoutComPaymentIntegrationException.class);
+    }
+
+    @Test
+    public void voidPaymentAsync_WhenCardPayment_ShouldVoidThroughTheSdk() throws Exception {
+        when(checkoutComPaymentIntegrationServiceMock.getPaymentInfoForPaymentId(PAYMENT_ID)).thenReturn(paymentInfoMock);
+        when(paymentsClientMock.voidPayment(PAYMENT_ID, voidRequestMock)).thenReturn(CompletableFuture.completedFuture(voidResponseMock));
+
+        final CompletableFuture<VoidResponse> result = testObj.voidPaymentAsync(voidRequestMock, PAYMENT_ID);
+
+        assertThat(result.get()).isSameAs(voidResponseMock);
+        verify(checkoutComPaymentIntegrationServiceMock, never()).voidPayment(any(VoidRequest.class), anyString(), any());
+    }
+
+    @Test
+    public void voidPaymentAsync_WhenIdempotencyKeyIsGiven_ShouldSendItWithTheVoid() throws Exception {
+        when(checkoutComPaymentIntegrationServiceMock.getPaymentInfoForPaymentId(PAYMENT_ID)).thenReturn(paymentInfoMock);
+        when(paymentsClientMock.voidPayment(PAYMENT_ID, voidRequestMock, IDEMPOTENCY_KEY)).thenReturn(CompletableFuture.completedFuture(voidResponseMock));
+
+        final CompletableFuture<VoidResponse> result = testObj.voidPaymentAsync(voidRequestMock, PAYMENT_ID, IDEMPOTENCY_KEY);
+
+        assertThat(result.get()).isSameAs(voidResponseMock);
+    }
+
+    @Test
+    public void voidPaymentAsync_WhenPaymentHasNoPaymentInfo_ShouldCompleteWithIntegrationExceptionWithoutCallingCheckoutCom() {
+        final CheckoutComPaymentIntegrationException notFoundException = new CheckoutComPaymentIntegrationException("not found");
+        when(checkoutComPaymentIntegrationServiceMock.getPaymentInfoForPaymentId(PAYMENT_ID)).thenThrow(notFoundException);
+
+        final CompletableFuture<VoidResponse> result = testObj.voidPaymentAsync(voidRequestMock, PAYMENT_ID);
+
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CheckoutComPaymentIntegrationException.class)
+                .hasRootCause(notFoundException);
+        verifyNoInteractions(paymentsClientMock);
+    }
+
+    @Test
+    public void refundPaymentAsync_ShouldRefundThroughTheSdk() throws Exception {
+        when(paymentsClientMock.refundPayment(PAYMENT_ID, refundRequestMock)).thenReturn(CompletableFuture.completedFuture(refundResponseMock));
+
+        final CompletableFuture<RefundResponse> result = testObj.refundPaymentAsync(refundRequestMock, PAYMENT_ID);
+
+        assertThat(result.get()).isSameAs(refundResponseMock);
+    }
+
+    @Test
+    public void refundPaymentAsync_WhenIdempotencyKeyIsGiven_ShouldSendItWithTheRefund() throws Exception {
+        when(paymentsClientMock.refundPayment(PAYMENT_ID, refundRequestMock, IDEMPOTENCY_KEY)).thenReturn(CompletableFuture.completedFuture(refundResponseMock));
+
+        final CompletableFuture<RefundResponse> result = testObj.refundPaymentAsync(refundRequestMock, PAYMENT_ID, IDEMPOTENCY_KEY);
+
+        assertThat(result.get()).isSameAs(refundResponseMock);
+    }
+}
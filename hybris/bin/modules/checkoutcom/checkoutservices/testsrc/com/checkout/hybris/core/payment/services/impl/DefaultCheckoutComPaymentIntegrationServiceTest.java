@@ -1,5 +1,6 @@
 package com.checkout.hybris.core.payment.services.impl;
 
+import com.checkout.hybris.core.enums.CheckoutComPayloadType;
 import com.checkout.hybris.core.enums.EnvironmentType;
 import com.checkout.hybris.core.klarna.capture.request.KlarnaCaptureRequestDto;
 import com.checkout.hybris.core.klarna.capture.response.KlarnaCaptureResponseDto;
@@ -15,7 +16,7 @@ import com.checkout.hybris.core.order.daos.CheckoutComOrderDao;
 import com.checkout.hybris.core.payment.daos.CheckoutComPaymentInfoDao;
 import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
 import com.checkout.hybris.core.payment.services.CheckoutComApiService;
-import com.checkout.hybris.core.payment.services.CheckoutComPaymentInfoService;
+import com.checkout.hybris.core.payment.services.CheckoutComPayloadJournalService;
 import com.checkout.CheckoutApi;
 import com.checkout.instruments.InstrumentsClient;
 import com.checkout.instruments.create.CreateInstrumentResponse;
@@ -69,6 +70,7 @@ public class DefaultCheckoutComPaymentIntegrationServiceTest {
     private static final String ACTION_ID = "action_id";
     private static final String SECRET_KEY = "secretKey";
     private static final String PAYMENT_ID = "paymentId";
+    private static final String IDEMPOTENCY_KEY = "idempotencyKey";
     private static final String SESSION_ID = "session_id";
     private static final String CKO_SESSION_ID = "cko-session-id";
     private static final String ORDER_REFERENCE = "order_reference";
@@ -163,7 +165,7 @@ public class DefaultCheckoutComPaymentIntegrationServiceTest {
     @Mock
     private CheckoutComApiService checkoutComApiServiceMock;
     @Mock
-    private CheckoutComPaymentInfoService paymentInfoServiceMock;
+    private CheckoutComPayloadJournalService checkoutComPayloadJournalServiceMock;
     @Mock
     private PaymentInfoModel originalPaymentInfoMock;
     @Mock
@@ -270,12 +272,29 @@ public class DefaultCheckoutComPaymentIntegrationServiceTest {
     }
 
     @Test
-    public void getPaymentDetails_ShouldGiveBackTheResponse() {
+    public void getPaymentDetails_ShouldGiveBackTheResponseAndJournalIt() {
+        when(getPaymentResponseMock.getReference()).thenReturn(ORDER_REFERENCE);
+
         final GetPaymentResponse result = testObj.getPaymentDetails(CKO_SESSION_ID);
 
         assertEquals(getPaymentResponseMock, result);
-        verify(paymentInfoServiceMock).saveResponseInOrderByPaymentReference(any(), anyString());
-        verify(paymentInfoServiceMock).logInfoOut(anyString());
+        verify(checkoutComPayloadJournalServiceMock).journal(ORDER_REFERENCE, CheckoutComPayloadType.RESPONSE, getPaymentResponseMock);
+    }
+
+    @Test
+    public void getPaymentInfoForPaymentId_ShouldReturnThePaymentInfoOfTheOrder() {
+        when(checkoutComPaymentInfoDaoMock.findPaymentInfosByPaymentId(PAYMENT_ID)).thenReturn(List.of(paymentInfoMock));
+
+        final PaymentInfoModel result = testObj.getPaymentInfoForPaymentId(PAYMENT_ID);
+
+        assertEquals(paymentInfoMock, result);
+    }
+
+    @Test(expected = CheckoutComPaymentIntegrationException.class)
+    public void getPaymentInfoForPaymentId_WhenThereIsNoPaymentInfo_ShouldThrowException() {
+        when(checkoutComPaymentInfoDaoMock.findPaymentInfosByPaymentId(PAYMENT_ID)).thenReturn(List.of());
+
+        testObj.getPaymentInfoForPaymentId(PAYMENT_ID);
     }
 
     @Test
@@ -301,6 +320,27 @@ public class DefaultCheckoutComPaymentIntegrationServiceTest {
         verify(testObj).captureKlarnaPayment(captureRequestMock, PAYMENT_ID, SITE_ID);
     }
 
+    @Test
+    public void capturePayment_WhenIdempotencyKeyIsGiven_ShouldSendTheCaptureWithTheKey() throws ExecutionException, InterruptedException {
+        when(checkoutComPaymentInfoDaoMock.findPaymentInfosByPaymentId(PAYMENT_ID)).thenReturn(List.of(paymentInfoMock));
+        when(paymentsClientMock.capturePayment(PAYMENT_ID, captureRequestMock, IDEMPOTENCY_KEY)).thenReturn(completableFutureCaptureResponseMock);
+
+        final CaptureResponse result = testObj.capturePayment(captureRequestMock, PAYMENT_ID, IDEMPOTENCY_KEY);
+
+        assertEquals(captureResponseMock, result);
+        verify(paymentsClientMock, never()).capturePayment(PAYMENT_ID, captureRequestMock);
+    }
+
+    @Test
+    public void refundPayment_WhenIdempotencyKeyIsGiven_ShouldSendTheRefundWithTheKey() throws ExecutionException, InterruptedException {
+        when(paymentsClientMock.refundPayment(PAYMENT_ID, refundRequestMock, IDEMPOTENCY_KEY)).thenReturn(completableFutureRefundResponseMock);
+
+        final RefundResponse result = testObj.refundPayment(refundRequestMock, PAYMENT_ID, IDEMPOTENCY_KEY);
+
+        assertEquals(refundResponseMock, result);
+        verify(paymentsClientMock, never()).refundPayment(PAYMENT_ID, refundRequestMock);
+    }
+
     @Test
     public void refundPayment_ShouldGiveBackTheResponse() throws ExecutionException, InterruptedException {
         final RefundResponse result = testObj.refundPayment(refundRequestMock, PAYMENT_ID);
@@ -10,6 +10,7 @@ import com.checkout.hybris.core.payment.response.mappers.CheckoutComPaymentRespo
 import com.checkout.hybris.core.payment.response.strategies.impl.CheckoutComMultibancoPaymentResponseStrategy;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentReturnedService;
 import com.checkout.hybris.core.payment.services.CheckoutComPaymentTransactionService;
+import com.checkout.hybris.core.payment.transaction.CheckoutComPaymentStateSummary;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 import com.checkout.payments.response.PaymentResponse;
 import de.hybris.bootstrap.annotations.UnitTest;
@@ -29,6 +30,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -54,6 +56,7 @@ public class DefaultCheckoutComPaymentServiceTest {
 
     private static final String SITE_ID = "siteId";
     private static final String PAYMENT_ID = "PAYMENT_ID";
+    private static final String ENTRY_CODE = "000180031716810579970-CAPTURE-123456789";
 
     @Spy
     @InjectMocks
@@ -324,6 +327,16 @@ public class DefaultCheckoutComPaymentServiceTest {
         assertTrue(testObj.captureExists(orderMock));
     }
 
+    @Test
+    public void captureExists_ShouldAnswerFromThePaymentStateSummary() {
+        when(paymentTransactionMock.getEntries()).thenReturn(singletonList(capturePaymentTransactionEntryMock));
+
+        assertTrue(testObj.captureExists(orderMock));
+        assertFalse(testObj.isCapturePending(orderMock));
+
+        verify(checkoutComPaymentTransactionServiceMock, times(2)).getPaymentStateSummary(paymentTransactionMock);
+    }
+
     @Test
     public void isCapturePending_WhenOrderIsNull_ShouldThrowException() {
         assertThatThrownBy(() -> testObj.isCapturePending(null)).isInstanceOf(IllegalArgumentException.class);
@@ -575,6 +588,7 @@ public class DefaultCheckoutComPaymentServiceTest {
 
         verify(paymentTransactionEntryMock).setTransactionStatus(ACCEPTED.name());
         verify(modelServiceMock).save(paymentTransactionEntryMock);
+        verify(checkoutComPaymentTransactionServiceMock).invalidatePaymentStateSummary(paymentTransactionMock);
         verify(checkoutComPaymentTransactionServiceMock, never()).createPaymentTransactionEntry(any(PaymentTransactionModel.class), any(CheckoutComPaymentEventModel.class), anyString(), anyString(), any(PaymentTransactionType.class));
     }
 
@@ -644,6 +658,39 @@ public class DefaultCheckoutComPaymentServiceTest {
         inOrder.verify(checkoutComPaymentTransactionServiceMock).createPaymentTransactionEntry(paymentTransactionMock, paymentEventMock, ACCEPTED.name(), SUCCESFULL.name(), RETURN);
     }
 
+    @Test
+    public void capture_WithEntryCode_ShouldRecordTheCaptureUnderTheGivenEntryCode() {
+        doAnswer(invocation -> {
+            assertEquals(ENTRY_CODE, testObj.getNewPaymentTransactionEntryCode(paymentTransactionMock, CAPTURE));
+            return capturePaymentTransactionEntryMock;
+        }).when(testObj).capture(paymentTransactionMock);
+
+        final PaymentTransactionEntryModel result = testObj.capture(paymentTransactionMock, ENTRY_CODE);
+
+        assertEquals(capturePaymentTransactionEntryMock, result);
+        assertNotEquals(ENTRY_CODE, testObj.getNewPaymentTransactionEntryCode(paymentTransactionMock, CAPTURE));
+    }
+
+    @Test
+    public void refundFollowOn_WithEntryCode_ShouldRestoreThePlatformEntryCodeWhenTheRefundFails() {
+        doThrow(new IllegalStateException("error")).when(testObj).refundFollowOn(paymentTransactionMock, BigDecimal.TEN);
+
+        assertThatThrownBy(() -> testObj.refundFollowOn(paymentTransactionMock, BigDecimal.TEN, ENTRY_CODE))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertNotEquals(ENTRY_CODE, testObj.getNewPaymentTransactionEntryCode(paymentTransactionMock, REFUND_FOLLOW_ON));
+    }
+
+    @Test
+    public void cancel_WithEntryCode_ShouldRecordTheCancelUnderTheGivenEntryCode() {
+        doAnswer(invocation -> {
+            assertEquals(ENTRY_CODE, testObj.getNewPaymentTransactionEntryCode(paymentTransactionMock, CANCEL));
+            return cancelPaymentTransactionEntryMock;
+        }).when(testObj).cancel(acceptedAuthorizationPaymentTransactionEntryMock);
+
+        assertEquals(cancelPaymentTransactionEntryMock, testObj.cancel(acceptedAuthorizationPaymentTransactionEntryMock, ENTRY_CODE));
+    }
+
     private void setUpTestObjMocks() {
         ReflectionTestUtils.setField(testObj, "modelService", modelServiceMock);
         ReflectionTestUtils.setField(testObj, "checkoutComMerchantConfigurationService", checkoutComMerchantConfigurationServiceMock);
@@ -668,5 +715,7 @@ public class DefaultCheckoutComPaymentServiceTest {
         lenient().when(reviewAuthorizationPaymentTransactionEntryMock.getTransactionStatus()).thenReturn(TransactionStatus.REVIEW.toString());
         lenient().when(cancelPaymentTransactionEntryMock.getType()).thenReturn(CANCEL);
         lenient().when(checkoutComPaymentTransactionServiceMock.getPaymentTransaction(orderMock)).thenReturn(paymentTransactionMock);
+        lenient().when(checkoutComPaymentTransactionServiceMock.getPaymentStateSummary(paymentTransactionMock))
+                .thenAnswer(invocation -> CheckoutComPaymentStateSummary.of(paymentTransactionMock.getEntries()));
     }
 }
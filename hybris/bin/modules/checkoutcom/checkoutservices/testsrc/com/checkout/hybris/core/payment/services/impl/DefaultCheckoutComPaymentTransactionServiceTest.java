@@ -3,6 +3,7 @@ package com.checkout.hybris.core.payment.services.impl;
 import com.checkout.hybris.core.merchant.services.CheckoutComMerchantConfigurationService;
 import com.checkout.hybris.core.model.CheckoutComAPMPaymentInfoModel;
 import com.checkout.hybris.core.model.CheckoutComCreditCardPaymentInfoModel;
+import com.checkout.hybris.core.payment.transaction.CheckoutComPaymentStateSummary;
 import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
 import de.hybris.bootstrap.annotations.UnitTest;
 import de.hybris.platform.commerceservices.order.CommercePaymentProviderStrategy;
@@ -432,6 +433,37 @@ public class DefaultCheckoutComPaymentTransactionServiceTest {
         assertEquals(authorizationPendingPaymentTransactionEntryMock, result.get());
     }
 
+    @Test
+    public void getPaymentStateSummary_WhenEntriesDoNotChange_ShouldReuseTheSummary() {
+        when(paymentTransaction1Mock.getEntries()).thenReturn(asList(acceptedAuthorizationPaymentTransactionEntryMock, capturePaymentTransactionEntryMock));
+
+        final CheckoutComPaymentStateSummary result = testObj.getPaymentStateSummary(paymentTransaction1Mock);
+
+        assertTrue(result.isAuthorizationApproved());
+        assertTrue(result.isCaptureExists());
+        assertSame(result, testObj.getPaymentStateSummary(paymentTransaction1Mock));
+        verify(capturePaymentTransactionEntryMock, times(1)).getType();
+    }
+
+    @Test
+    public void getPaymentStateSummary_WhenEntryAdded_ShouldRecomputeTheSummary() {
+        when(paymentTransaction1Mock.getEntries()).thenReturn(singletonList(authorizationPendingPaymentTransactionEntryMock),
+                asList(authorizationPendingPaymentTransactionEntryMock, acceptedAuthorizationPaymentTransactionEntryMock));
+
+        assertFalse(testObj.getPaymentStateSummary(paymentTransaction1Mock).isAuthorizationApproved());
+        assertTrue(testObj.getPaymentStateSummary(paymentTransaction1Mock).isAuthorizationApproved());
+    }
+
+    @Test
+    public void getPaymentStateSummary_WhenInvalidated_ShouldRecomputeTheSummary() {
+        when(paymentTransaction1Mock.getEntries()).thenReturn(singletonList(authorizationPendingPaymentTransactionEntryMock));
+        final CheckoutComPaymentStateSummary summary = testObj.getPaymentStateSummary(paymentTransaction1Mock);
+
+        testObj.createPaymentTransactionEntry(paymentTransaction1Mock, paymentEventMock, ACCEPTED_PAYMENT_STATUS, SUCCESSFUL_TRANSACTION_STATUS_DETAILS, CAPTURE);
+
+        assertNotSame(summary, testObj.getPaymentStateSummary(paymentTransaction1Mock));
+    }
+
     private void setUpTestObjMocks() {
         ReflectionTestUtils.setField(testObj, "checkoutComMerchantConfigurationService", checkoutComMerchantConfigurationServiceMock);
         ReflectionTestUtils.setField(testObj, "commercePaymentProviderStrategy", commercePaymentProviderStrategyMock);
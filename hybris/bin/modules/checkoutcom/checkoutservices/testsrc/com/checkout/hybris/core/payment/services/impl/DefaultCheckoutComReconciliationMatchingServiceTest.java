@@ -0,0 +1,260 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.hybris.core.enums.CheckoutComReconciliationDiscrepancyType;
+import com.checkout.hybris.core.model.CheckoutComReconciliationDiscrepancyModel;
+import com.checkout.hybris.core.payment.daos.CheckoutComReconciliationDao;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationRecord;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationStats;
+import com.checkout.hybris.events.enums.CheckoutComPaymentEventStatus;
+import com.checkout.hybris.events.model.CheckoutComPaymentEventModel;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.core.model.c2l.CurrencyModel;
+import de.hybris.platform.payment.model.PaymentTransactionEntryModel;
+import de.hybris.platform.payment.model.PaymentTransactionModel;
+import de.hybris.platform.servicelayer.model.ModelService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static de.hybris.platform.payment.dto.TransactionStatus.ACCEPTED;
+import static de.hybris.platform.payment.dto.TransactionStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComReconciliationMatchingServiceTest {
+
+    private static final String SITE_UID = "electronics";
+    private static final String ACTION_ID = "act_123";
+    private static final String PAYMENT_ID = "pay_123";
+    private static final String PAYMENT_REFERENCE = "00001000-1600000000000";
+    private static final String REPORT_ID = "rpt_123";
+    private static final String GBP = "GBP";
+    private static final BigDecimal AMOUNT = new BigDecimal("10.50");
+
+    private DefaultCheckoutComReconciliationMatchingService testObj;
+
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private CheckoutComReconciliationDao checkoutComReconciliationDaoMock;
+    @Mock
+    private PaymentTransactionEntryModel entryMock;
+    @Mock
+    private PaymentTransactionModel paymentTransactionMock;
+    @Mock
+    private CurrencyModel currencyMock;
+    @Captor
+    private ArgumentCaptor<Collection<Object>> savedModelsCaptor;
+
+    private final CheckoutComReconciliationStats stats = new CheckoutComReconciliationStats();
+
+    @Before
+    public void setUp() {
+        testObj = new DefaultCheckoutComReconciliationMatchingService(modelServiceMock, checkoutComReconciliationDaoMock);
+
+        lenient().when(modelServiceMock.create(CheckoutComReconciliationDiscrepancyModel.class)).thenAnswer(invocation -> new CheckoutComReconciliationDiscrepancyModel());
+        lenient().when(modelServiceMock.create(CheckoutComPaymentEventModel.class)).thenAnswer(invocation -> new CheckoutComPaymentEventModel());
+        lenient().when(checkoutComReconciliationDaoMock.findTransactionEntriesByActionIds(anyCollection())).thenReturn(List.of(entryMock));
+        lenient().when(checkoutComReconciliationDaoMock.findDiscrepanciesByActionIds(anyCollection())).thenReturn(List.of());
+        lenient().when(checkoutComReconciliationDaoMock.findPaymentTransactionsByPaymentIds(anyCollection())).thenReturn(List.of());
+        lenient().when(checkoutComReconciliationDaoMock.findPaymentTransactionsByPaymentReferences(anyCollection())).thenReturn(List.of());
+        lenient().when(checkoutComReconciliationDaoMock.findPaymentEventActionIds(anyCollection())).thenReturn(List.of());
+
+        lenient().when(currencyMock.getIsocode()).thenReturn(GBP);
+        lenient().when(entryMock.getRequestToken()).thenReturn(ACTION_ID);
+        lenient().when(entryMock.getTransactionStatus()).thenReturn(ACCEPTED.name());
+        lenient().when(entryMock.getAmount()).thenReturn(AMOUNT);
+        lenient().when(entryMock.getCurrency()).thenReturn(currencyMock);
+        lenient().when(paymentTransactionMock.getRequestId()).thenReturn(PAYMENT_ID);
+        lenient().when(paymentTransactionMock.getCode()).thenReturn(PAYMENT_REFERENCE);
+        lenient().when(paymentTransactionMock.getCurrency()).thenReturn(currencyMock);
+    }
+
+    @Test
+    public void reconcile_WhenTheEntryMatchesTheReportedAction_ShouldNotRecordADiscrepancy() {
+        testObj.reconcile(List.of(createRecord("Capture", "10000", "10.5")), SITE_UID, false, stats);
+
+        assertThat(stats.getMatchedCount()).isEqualTo(1L);
+        assertThat(stats.getDiscrepancyCount()).isZero();
+        assertThat(savedModels()).isEmpty();
+        verify(modelServiceMock).detach(entryMock);
+    }
+
+    @Test
+    public void reconcile_WhenTheRecordedDiscrepancyNowMatches_ShouldMarkItAsResolved() {
+        final CheckoutComReconciliationDiscrepancyModel discrepancy = new CheckoutComReconciliationDiscrepancyModel();
+        discrepancy.setActionId(ACTION_ID);
+        discrepancy.setType(CheckoutComReconciliationDiscrepancyType.MISSING_ENTRY);
+        when(checkoutComReconciliationDaoMock.findDiscrepanciesByActionIds(anyCollection())).thenReturn(List.of(discrepancy));
+
+        testObj.reconcile(List.of(createRecord("Capture", "10000", "10.50")), SITE_UID, false, stats);
+
+        assertThat(discrepancy.getResolved()).isTrue();
+        assertThat(discrepancy.getTransactionEntry()).isEqualTo(entryMock);
+        assertThat(savedModels()).containsExactly(discrepancy);
+        assertThat(stats.getResolvedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void reconcile_WhenTheAmountDiffers_ShouldRecordAnAmountMismatch() {
+        testObj.reconcile(List.of(createRecord("Capture", "10000", "11.00")), SITE_UID, false, stats);
+
+        final CheckoutComReconciliationDiscrepancyModel discrepancy = (CheckoutComReconciliationDiscrepancyModel) savedModels().get(0);
+        assertThat(discrepancy.getType()).isEqualTo(CheckoutComReconciliationDiscrepancyType.AMOUNT_MISMATCH);
+        assertThat(discrepancy.getActionId()).isEqualTo(ACTION_ID);
+        assertThat(discrepancy.getReportId()).isEqualTo(REPORT_ID);
+        assertThat(discrepancy.getReportedAmount()).isEqualByComparingTo("11.00");
+        assertThat(discrepancy.getRecordedAmount()).isEqualByComparingTo(AMOUNT);
+        assertThat(stats.getDiscrepancyCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void reconcile_WhenTheActionIsDeclinedButTheEntryIsAccepted_ShouldRecordAStatusMismatch() {
+        testObj.reconcile(List.of(createRecord("Capture", "20051", "10.50")), SITE_UID, false, stats);
+
+        final CheckoutComReconciliationDiscrepancyModel discrepancy = (CheckoutComReconciliationDiscrepancyModel) savedModels().get(0);
+        assertThat(discrepancy.getType()).isEqualTo(CheckoutComReconciliationDiscrepancyType.STATUS_MISMATCH);
+    }
+
+    @Test
+    public void reconcile_WhenTheEntryIsStillPending_ShouldNotRecordADiscrepancy() {
+        when(entryMock.getTransactionStatus()).thenReturn(PENDING.name());
+
+        testObj.reconcile(List.of(createRecord("Capture", "10000", "10.50")), SITE_UID, false, stats);
+
+        assertThat(savedModels()).isEmpty();
+        assertThat(stats.getMatchedCount()).isZero();
+        assertThat(stats.getDiscrepancyCount()).isZero();
+    }
+
+    @Test
+    public void reconcile_WhenNeitherTheEntryNorThePaymentAreFound_ShouldRecordAnUnknownPayment() {
+        when(checkoutComReconciliationDaoMock.findTransactionEntriesByActionIds(anyCollection())).thenReturn(List.of());
+
+        testObj.reconcile(List.of(createRecord("Capture", "10000", "10.50")), SITE_UID, true, stats);
+
+        final CheckoutComReconciliationDiscrepancyModel discrepancy = (CheckoutComReconciliationDiscrepancyModel) savedModels().get(0);
+        assertThat(discrepancy.getType()).isEqualTo(CheckoutComReconciliationDiscrepancyType.UNKNOWN_PAYMENT);
+        assertThat(stats.getBackfilledCount()).isZero();
+    }
+
+    @Test
+    public void reconcile_WhenTheEntryIsMissingAndBackfillIsEnabled_ShouldCreateAPendingPaymentEvent() {
+        when(checkoutComReconciliationDaoMock.findTransactionEntriesByActionIds(anyCollection())).thenReturn(List.of());
+        when(checkoutComReconciliationDaoMock.findPaymentTransactionsByPaymentIds(anyCollection())).thenReturn(List.of(paymentTransactionMock));
+
+        testObj.reconcile(List.of(createRecord("Capture", null, "-10.50")), SITE_UID, true, stats);
+
+        final List<Object> savedModels = savedModels();
+        assertThat(savedModels).hasSize(2);
+        final CheckoutComPaymentEventModel paymentEvent = (CheckoutComPaymentEventModel) savedModels.get(0);
+        assertThat(paymentEvent.getEventId()).isEqualTo("reconciliation-" + ACTION_ID);
+        assertThat(paymentEvent.getActionId()).isEqualTo(ACTION_ID);
+        assertThat(paymentEvent.getEventType()).isEqualTo("payment_captured");
+        assertThat(paymentEvent.getResponseCode()).isEqualTo("10000");
+        assertThat(paymentEvent.getPaymentId()).isEqualTo(PAYMENT_ID);
+        assertThat(paymentEvent.getPaymentReference()).isEqualTo(PAYMENT_REFERENCE);
+        assertThat(paymentEvent.getAmount()).isEqualByComparingTo(AMOUNT);
+        assertThat(paymentEvent.getCurrency()).isEqualTo(currencyMock);
+        assertThat(paymentEvent.getSiteId()).isEqualTo(SITE_UID);
+        assertThat(paymentEvent.getStatus()).isEqualTo(CheckoutComPaymentEventStatus.PENDING);
+        final CheckoutComReconciliationDiscrepancyModel discrepancy = (CheckoutComReconciliationDiscrepancyModel) savedModels.get(1);
+        assertThat(discrepancy.getType()).isEqualTo(CheckoutComReconciliationDiscrepancyType.MISSING_ENTRY);
+        assertThat(discrepancy.getBackfilled()).isTrue();
+        assertThat(stats.getBackfilledCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void reconcile_WhenTheMissingActionWasAlreadyReceivedAsEvent_ShouldNotBackfillIt() {
+        when(checkoutComReconciliationDaoMock.findTransactionEntriesByActionIds(anyCollection())).thenReturn(List.of());
+        when(checkoutComReconciliationDaoMock.findPaymentTransactionsByPaymentReferences(anyCollection())).thenReturn(List.of(paymentTransactionMock));
+        when(checkoutComReconciliationDaoMock.findPaymentEventActionIds(anyCollection())).thenReturn(List.of(ACTION_ID));
+
+        testObj.reconcile(List.of(createRecord("Capture", "10000", "10.50")), SITE_UID, true, stats);
+
+        final List<Object> savedModels = savedModels();
+        assertThat(savedModels).hasSize(1);
+        assertThat(((CheckoutComReconciliationDiscrepancyModel) savedModels.get(0)).getType()).isEqualTo(CheckoutComReconciliationDiscrepancyType.MISSING_ENTRY);
+        verify(modelServiceMock, never()).create(CheckoutComPaymentEventModel.class);
+    }
+
+    @Test
+    public void reconcile_WhenTheBatchIsEmpty_ShouldNotQueryTheDatabase() {
+        testObj.reconcile(new ArrayList<>(), SITE_UID, true, stats);
+
+        verify(checkoutComReconciliationDaoMock, never()).findTransactionEntriesByActionIds(anyCollection());
+    }
+
+    @Test
+    public void resolveMissingEntry_WhenTheActionHasAnOpenMissingEntryDiscrepancy_ShouldMarkItAsResolved() {
+        final CheckoutComReconciliationDiscrepancyModel discrepancy = new CheckoutComReconciliationDiscrepancyModel();
+        discrepancy.setActionId(ACTION_ID);
+        discrepancy.setType(CheckoutComReconciliationDiscrepancyType.MISSING_ENTRY);
+        discrepancy.setResolved(Boolean.FALSE);
+        when(checkoutComReconciliationDaoMock.findDiscrepanciesByActionIds(Set.of(ACTION_ID))).thenReturn(List.of(discrepancy));
+
+        testObj.resolveMissingEntry(entryMock);
+
+        assertThat(discrepancy.getResolved()).isTrue();
+        assertThat(discrepancy.getTransactionEntry()).isEqualTo(entryMock);
+        assertThat(discrepancy.getRecordedAmount()).isEqualByComparingTo(AMOUNT);
+        verify(modelServiceMock).save(discrepancy);
+    }
+
+    @Test
+    public void resolveMissingEntry_WhenTheDiscrepancyIsNotAMissingEntry_ShouldLeaveItOpen() {
+        final CheckoutComReconciliationDiscrepancyModel discrepancy = new CheckoutComReconciliationDiscrepancyModel();
+        discrepancy.setActionId(ACTION_ID);
+        discrepancy.setType(CheckoutComReconciliationDiscrepancyType.AMOUNT_MISMATCH);
+        discrepancy.setResolved(Boolean.FALSE);
+        when(checkoutComReconciliationDaoMock.findDiscrepanciesByActionIds(Set.of(ACTION_ID))).thenReturn(List.of(discrepancy));
+
+        testObj.resolveMissingEntry(entryMock);
+
+        assertThat(discrepancy.getResolved()).isFalse();
+        verify(modelServiceMock, never()).save(discrepancy);
+    }
+
+    @Test
+    public void resolveMissingEntry_WhenTheEntryHasNoActionId_ShouldNotQueryTheDatabase() {
+        when(entryMock.getRequestToken()).thenReturn(null);
+
+        testObj.resolveMissingEntry(entryMock);
+
+        verify(checkoutComReconciliationDaoMock, never()).findDiscrepanciesByActionIds(anyCollection());
+    }
+
+    private List<Object> savedModels() {
+        verify(modelServiceMock).saveAll(savedModelsCaptor.capture());
+        return new ArrayList<>(savedModelsCaptor.getValue());
+    }
+
+    private CheckoutComReconciliationRecord createRecord(final String actionType, final String responseCode, final String amount) {
+        final CheckoutComReconciliationRecord reported = new CheckoutComReconciliationRecord();
+        reported.setReportId(REPORT_ID);
+        reported.setActionId(ACTION_ID);
+        reported.setActionType(actionType);
+        reported.setPaymentId(PAYMENT_ID);
+        reported.setPaymentReference(PAYMENT_REFERENCE);
+        reported.setResponseCode(responseCode);
+        reported.setAmount(new BigDecimal(amount));
+        reported.setCurrency(GBP);
+        return reported;
+    }
+}
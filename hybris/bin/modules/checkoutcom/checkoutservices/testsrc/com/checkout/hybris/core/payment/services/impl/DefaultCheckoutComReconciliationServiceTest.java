@@ -0,0 +1,240 @@
+package com.checkout.hybris.core.payment.services.impl;
+
+import com.checkout.CheckoutApi;
+import com.checkout.FileDownloadResponse;
+import com.checkout.common.Link;
+import com.checkout.hybris.core.model.CheckoutComReconciliationCronJobModel;
+import com.checkout.hybris.core.payment.exception.CheckoutComPaymentIntegrationException;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationRecord;
+import com.checkout.hybris.core.payment.reconciliation.CheckoutComReconciliationStats;
+import com.checkout.hybris.core.payment.services.CheckoutComApiService;
+import com.checkout.hybris.core.payment.services.CheckoutComReconciliationMatchingService;
+import com.checkout.reports.FileResponse;
+import com.checkout.reports.ReportDetailsResponse;
+import com.checkout.reports.ReportsClient;
+import com.checkout.reports.ReportsQuery;
+import com.checkout.reports.ReportsResponse;
+import de.hybris.bootstrap.annotations.UnitTest;
+import de.hybris.platform.basecommerce.model.site.BaseSiteModel;
+import de.hybris.platform.servicelayer.config.ConfigurationService;
+import de.hybris.platform.servicelayer.model.ModelService;
+import de.hybris.platform.servicelayer.time.TimeService;
+import de.hybris.platform.site.BaseSiteService;
+import org.apache.commons.configuration.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@UnitTest
+@RunWith(MockitoJUnitRunner.class)
+public class DefaultCheckoutComReconciliationServiceTest {
+
+    private static final String SITE_UID = "electronics";
+    private static final String FIRST_REPORT_ID = "rpt_1";
+    private static final String SECOND_REPORT_ID = "rpt_2";
+    private static final String FIRST_REPORT_CREATED_ON = "2024-01-02T01:00:00Z";
+    private static final String SECOND_REPORT_CREATED_ON = "2024-01-02T02:00:00Z";
+    private static final Date NOW = Date.from(Instant.parse("2024-01-03T00:00:00Z"));
+    private static final String HEADER = "Action ID,Action Type,Payment ID,Reference,Response Code,Breakdown Type,Processing Currency Amount,Processing Currency";
+
+    private DefaultCheckoutComReconciliationService testObj;
+
+    @Mock
+    private ConfigurationService configurationServiceMock;
+    @Mock
+    private Configuration configurationMock;
+    @Mock
+    private ModelService modelServiceMock;
+    @Mock
+    private TimeService timeServiceMock;
+    @Mock
+    private BaseSiteService baseSiteServiceMock;
+    @Mock
+    private CheckoutComApiService checkoutComApiServiceMock;
+    @Mock
+    private CheckoutComReconciliationMatchingService checkoutComReconciliationMatchingServiceMock;
+    @Mock
+    private CheckoutApi checkoutApiMock;
+    @Mock
+    private ReportsClient reportsClientMock;
+    @Mock
+    private CheckoutComReconciliationCronJobModel cronJobMock;
+    @Mock
+    private BaseSiteModel siteMock;
+    @Captor
+    private ArgumentCaptor<ReportsQuery> queryCaptor;
+
+    private final List<List<CheckoutComReconciliationRecord>> matchedBatches = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        testObj = new DefaultCheckoutComReconciliationService(configurationServiceMock, modelServiceMock, timeServiceMock,
+                baseSiteServiceMock, checkoutComApiServiceMock, checkoutComReconciliationMatchingServiceMock);
+
+        lenient().when(configurationServiceMock.getConfiguration()).thenReturn(configurationMock);
+        lenient().when(configurationMock.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(configurationMock.getLong(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(configurationMock.getString(anyString(), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(timeServiceMock.getCurrentTime()).thenReturn(NOW);
+        lenient().when(checkoutComApiServiceMock.createCheckoutApi()).thenReturn(checkoutApiMock);
+        lenient().when(checkoutApiMock.reportsClient()).thenReturn(reportsClientMock);
+        lenient().when(cronJobMock.getSite()).thenReturn(siteMock);
+        lenient().when(cronJobMock.getBatchSize()).thenReturn(1000);
+        lenient().when(cronJobMock.getBackfillMissingEntries()).thenReturn(Boolean.TRUE);
+        lenient().when(siteMock.getUid()).thenReturn(SITE_UID);
+        lenient().doAnswer(invocation -> matchedBatches.add(new ArrayList<>(invocation.getArgument(0))))
+                .when(checkoutComReconciliationMatchingServiceMock).reconcile(any(), eq(SITE_UID), eq(true), any(CheckoutComReconciliationStats.class));
+
+        final ReportsResponse firstPage = createPage(createReport(SECOND_REPORT_ID, SECOND_REPORT_CREATED_ON, "CSV"));
+        firstPage.getLinks().put("next", new Link("https://api.checkout.com/reports?pagination_token=token_2", null, null));
+        final ReportsResponse secondPage = createPage(createReport(FIRST_REPORT_ID, FIRST_REPORT_CREATED_ON, "CSV"),
+                createReport("rpt_json", FIRST_REPORT_CREATED_ON, "JSON"));
+        lenient().when(reportsClientMock.getAllReports(any(ReportsQuery.class)))
+                .thenReturn(CompletableFuture.completedFuture(firstPage), CompletableFuture.completedFuture(secondPage));
+
+        setUpReportFile(FIRST_REPORT_ID, HEADER,
+                "act_1,Capture,pay_1,ref_1,10000,Gross,10.50,GBP",
+                "act_1,Capture,pay_1,ref_1,10000,Interchange Fee,0.10,GBP",
+                "act_2,Refund,pay_2,ref_2,10000,Gross,not a number,GBP");
+        setUpReportFile(SECOND_REPORT_ID, HEADER,
+                "act_3,Capture,pay_3,ref_3,10000,Gross,5.00,EUR");
+    }
+
+    @Test
+    public void reconcile_ShouldMatchTheGrossRowsOfEveryPageOfReportsOldestFirst() {
+        final CheckoutComReconciliationStats result = testObj.reconcile(cronJobMock);
+
+        assertThat(matchedBatches).hasSize(2);
+        assertThat(matchedBatches.get(0)).extracting(CheckoutComReconciliationRecord::getActionId).containsExactly("act_1", "act_2");
+        assertThat(matchedBatches.get(1)).extracting(CheckoutComReconciliationRecord::getActionId).containsExactly("act_3");
+        final CheckoutComReconciliationRecord firstRecord = matchedBatches.get(0).get(0);
+        assertThat(firstRecord.getReportId()).isEqualTo(FIRST_REPORT_ID);
+        assertThat(firstRecord.getActionType()).isEqualTo("Capture");
+        assertThat(firstRecord.getPaymentId()).isEqualTo("pay_1");
+        assertThat(firstRecord.getPaymentReference()).isEqualTo("ref_1");
+        assertThat(firstRecord.getResponseCode()).isEqualTo("10000");
+        assertThat(firstRecord.getAmount()).isEqualByComparingTo("10.50");
+        assertThat(firstRecord.getCurrency()).isEqualTo("GBP");
+        assertThat(matchedBatches.get(0).get(1).getAmount()).isNull();
+
+        assertThat(result.isAborted()).isFalse();
+        assertThat(result.getReportCount()).isEqualTo(2);
+        assertThat(result.getFileCount()).isEqualTo(2);
+        assertThat(result.getRowCount()).isEqualTo(4L);
+        verify(baseSiteServiceMock).setCurrentBaseSite(siteMock, false);
+        verify(reportsClientMock, never()).downloadReportFile(eq("rpt_json"), anyString(), any(Path.class), anyBoolean());
+    }
+
+    @Test
+    public void reconcile_ShouldFollowTheNextLinkAndSaveTheCursorAfterEachReport() {
+        testObj.reconcile(cronJobMock);
+
+        verify(reportsClientMock, times(2)).getAllReports(queryCaptor.capture());
+        assertThat(queryCaptor.getAllValues().get(0).getPaginationToken()).isNull();
+        assertThat(queryCaptor.getAllValues().get(0).getCreatedAfter()).isEqualTo(NOW.toInstant().minusSeconds(86400L));
+        assertThat(queryCaptor.getAllValues().get(1).getPaginationToken()).isEqualTo("token_2");
+        verify(cronJobMock).setLastReconciledReportId(FIRST_REPORT_ID);
+        verify(cronJobMock).setLastReconciledReportId(SECOND_REPORT_ID);
+        verify(cronJobMock).setReconciledUntil(Date.from(Instant.parse(SECOND_REPORT_CREATED_ON)));
+        verify(modelServiceMock, times(2)).save(cronJobMock);
+    }
+
+    @Test
+    public void reconcile_WhenTheCronJobHasACursor_ShouldListTheReportsCreatedAfterItAndSkipTheLastReconciledOne() {
+        final Date reconciledUntil = Date.from(Instant.parse(FIRST_REPORT_CREATED_ON));
+        when(cronJobMock.getReconciledUntil()).thenReturn(reconciledUntil);
+        when(cronJobMock.getLastReconciledReportId()).thenReturn(FIRST_REPORT_ID);
+
+        final CheckoutComReconciliationStats result = testObj.reconcile(cronJobMock);
+
+        verify(reportsClientMock, times(2)).getAllReports(queryCaptor.capture());
+        assertThat(queryCaptor.getValue().getCreatedAfter()).isEqualTo(reconciledUntil.toInstant());
+        assertThat(result.getReportCount()).isEqualTo(1);
+        assertThat(matchedBatches).hasSize(1);
+        verify(reportsClientMock, never()).downloadReportFile(eq(FIRST_REPORT_ID), anyString(), any(Path.class), anyBoolean());
+    }
+
+    @Test
+    public void reconcile_WhenAbortIsRequestedBetweenTwoBatches_ShouldStopWithoutMovingTheCursor() {
+        when(cronJobMock.getBatchSize()).thenReturn(1);
+        when(cronJobMock.getRequestAbort()).thenReturn(Boolean.TRUE);
+
+        final CheckoutComReconciliationStats result = testObj.reconcile(cronJobMock);
+
+        assertThat(result.isAborted()).isTrue();
+        assertThat(matchedBatches).hasSize(1);
+        verify(modelServiceMock).refresh(cronJobMock);
+        verify(modelServiceMock, never()).save(cronJobMock);
+    }
+
+    @Test
+    public void reconcile_WhenADownloadFails_ShouldThrowAnIntegrationExceptionWithoutMovingTheCursor() {
+        when(reportsClientMock.downloadReportFile(eq(FIRST_REPORT_ID), anyString(), any(Path.class), anyBoolean()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("error")));
+
+        assertThatThrownBy(() -> testObj.reconcile(cronJobMock)).isInstanceOf(CheckoutComPaymentIntegrationException.class);
+
+        verify(modelServiceMock, never()).save(cronJobMock);
+    }
+
+    private ReportsResponse createPage(final ReportDetailsResponse... reports) {
+        final ReportsResponse page = new ReportsResponse();
+        page.setData(List.of(reports));
+        return page;
+    }
+
+    private ReportDetailsResponse createReport(final String id, final String createdOn, final String format) {
+        final FileResponse file = new FileResponse();
+        file.setId("file_" + id);
+        file.setFormat(format);
+
+        final ReportDetailsResponse report = new ReportDetailsResponse();
+        report.setId(id);
+        report.setCreatedOn(createdOn);
+        report.setFiles(List.of(file));
+        return report;
+    }
+
+    private void setUpReportFile(final String reportId, final String... lines) {
+        lenient().when(reportsClientMock.downloadReportFile(eq(reportId), eq("file_" + reportId), any(Path.class), eq(false))).thenAnswer(invocation -> {
+            final Path target = invocation.getArgument(2);
+            try {
+                Files.write(target, List.of(lines), StandardCharsets.UTF_8);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            final FileDownloadResponse response = new FileDownloadResponse();
+            response.setPath(target);
+            return CompletableFuture.completedFuture(response);
+        });
+    }
+}